@@ -362,11 +362,16 @@ private static void populateLlapDaemonVarsSet(Set<String> llapDaemonVarsSetLocal
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_ALLOCATOR_DIRECT.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_USE_LRFU.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_LRFU_LAMBDA.varname);
+    llapDaemonVarsSetLocal.add(ConfVars.LLAP_LRFU_SHARDS.varname);
+    llapDaemonVarsSetLocal.add(ConfVars.LLAP_IO_CACHE_ADMISSION_MIN_FREQUENCY.varname);
+    llapDaemonVarsSetLocal.add(ConfVars.LLAP_IO_CACHE_CHECKPOINT_PATH.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_CACHE_ALLOW_SYNTHETIC_FILEID.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_IO_USE_FILEID_PATH.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_IO_DECODING_METRICS_PERCENTILE_INTERVALS.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_ORC_ENABLE_TIME_COUNTERS.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_IO_THREADPOOL_SIZE.varname);
+    llapDaemonVarsSetLocal.add(ConfVars.LLAP_IO_READ_AHEAD_THREADS.varname);
+    llapDaemonVarsSetLocal.add(ConfVars.LLAP_IO_READ_AHEAD_MAX_SIZE.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_KERBEROS_PRINCIPAL.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_KERBEROS_KEYTAB_FILE.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_ZKSM_ZK_CONNECTION_STRING.varname);
@@ -399,6 +404,7 @@ private static void populateLlapDaemonVarsSet(Set<String> llapDaemonVarsSetLocal
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_DAEMON_TASK_SCHEDULER_WAIT_QUEUE_SIZE.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_DAEMON_WAIT_QUEUE_COMPARATOR_CLASS_NAME.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_DAEMON_TASK_SCHEDULER_ENABLE_PREEMPTION.varname);
+    llapDaemonVarsSetLocal.add(ConfVars.LLAP_DAEMON_TASK_SCHEDULER_AFFINITY.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_DAEMON_TASK_PREEMPTION_METRICS_INTERVALS.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_DAEMON_WEB_PORT.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_DAEMON_WEB_SSL.varname);
@@ -1949,8 +1955,23 @@ public static enum ConfVars {
         "Allow synthetic file ID in splits on file systems that don't have a native one."),
     HIVE_ORC_CACHE_STRIPE_DETAILS_MEMORY_SIZE("hive.orc.cache.stripe.details.mem.size", "256Mb",
         new SizeValidator(), "Maximum size of orc splits cached in the client."),
+    HIVE_ORC_CACHE_STRIPE_DETAILS_LOCAL_DIR("hive.orc.cache.stripe.details.local.dir", "",
+        "A local directory where HiveServer2 saves the ORC file tails cached for split generation\n" +
+        "when it stops, and loads them from when it starts, so that the first queries after a\n" +
+        "restart do not read the tails of all the files again. HiveServer2 instances on the same\n" +
+        "node can share the directory. Empty disables this."),
     HIVE_ORC_COMPUTE_SPLITS_NUM_THREADS("hive.orc.compute.splits.num.threads", 10,
         "How many threads orc should use to create splits in parallel."),
+    HIVE_ORC_COMPUTE_SPLITS_FORK_JOIN("hive.orc.compute.splits.fork.join", true,
+        "Whether the threads that orc uses to create splits should be a fork/join pool. The\n" +
+        "deltas, original directories and insert deltas of an ACID partition are then listed in\n" +
+        "parallel too, instead of one after the other. The pool is shared by all queries, and\n" +
+        "hive.orc.compute.splits.num.threads bounds the number of these listings that run at\n" +
+        "the same time."),
+    HIVE_ORC_SPLITS_MAX_TAIL_READS_PER_FS("hive.orc.splits.max.tail.reads.per.fs", 0,
+        "The maximum number of ORC file tails that split generation reads concurrently from one\n" +
+        "file system, so that a large table does not overload e.g. an object store. The reads\n" +
+        "are always bounded by hive.orc.compute.splits.num.threads. 0 means no other bound."),
     HIVE_ORC_CACHE_USE_SOFT_REFERENCES("hive.orc.cache.use.soft.references", false,
         "By default, the cache that ORC input format uses to store orc file footer use hard\n" +
         "references for the cached object. Setting this to true can help avoid out of memory\n" +
@@ -1959,6 +1980,11 @@ public static enum ConfVars {
     HIVE_IO_SARG_CACHE_MAX_WEIGHT_MB("hive.io.sarg.cache.max.weight.mb", 10,
         "The max weight allowed for the SearchArgument Cache. By default, the cache allows a max-weight of 10MB, " +
         "after which entries will be evicted."),
+    HIVE_IO_SARG_BLOOM_FILTER_PROBES("hive.io.sarg.bloom.filter.probes", 128,
+        "The max number of values of an ORC stripe or row group that are probed against a runtime\n" +
+        "bloom filter of dynamic semijoin reduction before the stripe or row group is read. The values\n" +
+        "are taken from the column statistics, a stripe or row group none of which passes the bloom\n" +
+        "filter is skipped. 0 disables the probing."),
 
     HIVE_LAZYSIMPLE_EXTENDED_BOOLEAN_LITERAL("hive.lazysimple.extended_boolean_literal", false,
         "LazySimpleSerde uses this property to determine if it treats 'T', 't', 'F', 'f',\n" +
@@ -3413,6 +3439,12 @@ public static enum ConfVars {
     HIVE_SERVER2_THRIFT_RESULTSET_SERIALIZE_IN_TASKS("hive.server2.thrift.resultset.serialize.in.tasks", false,
       "Whether we should serialize the Thrift structures used in JDBC ResultSet RPC in task nodes.\n " +
       "We use SequenceFile and ThriftJDBCBinarySerDe to read and write the final results if this is true."),
+    HIVE_SERVER2_THRIFT_RESULTSET_ARROW("hive.server2.thrift.resultset.arrow", false,
+      "Whether the result batches serialized in task nodes, if\n" +
+      "hive.server2.thrift.resultset.serialize.in.tasks is true, are Arrow IPC streams instead of\n" +
+      "Thrift columns. This is read when a session is opened, so a JDBC client enables it in the\n" +
+      "connection URL, and HiveServer2 confirms it to the client. We use ArrowJDBCBinarySerDe to\n" +
+      "write the final results if this is true."),
     // TODO: Make use of this config to configure fetch size
     HIVE_SERVER2_THRIFT_RESULTSET_MAX_FETCH_SIZE("hive.server2.thrift.resultset.max.fetch.size",
         10000, "Max number of rows sent in one Fetch RPC call by the server to the client."),
@@ -3533,6 +3565,30 @@ public static enum ConfVars {
          "This flag should be set to true to enable use of native fast vector map join hash tables in\n" +
          "queries using MapJoin.\n" +
          "The default value is false."),
+    HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_HASHTABLE_OFFHEAP("hive.vectorized.execution.mapjoin.native.fast.hashtable.offheap", false,
+         "Whether the native fast vector map join hash tables keep their key and value bytes in\n" +
+         "direct (off-heap) memory, so large broadcast small tables do not fill the old generation.\n" +
+         "The direct memory is limited by -XX:MaxDirectMemorySize.  Small table values are copied\n" +
+         "into the output batches instead of referenced."),
+    HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_HASHTABLE_HYBRID("hive.vectorized.execution.mapjoin.native.fast.hashtable.hybrid", true,
+         "Whether native fast vector map join hash tables support Hybrid Grace Hash Join (see\n" +
+         "hive.mapjoin.hybridgrace.hashtable): the small table is hash partitioned, partitions that\n" +
+         "do not fit in memory are spilled to local disk with the big table rows that probe them, and\n" +
+         "are joined after the big table input.  When false, such map joins are not vectorized natively."),
+    HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_HASHTABLE_SHARED("hive.vectorized.execution.mapjoin.native.fast.hashtable.shared", false,
+         "Whether native fast vector map join hash tables of small tables that are a plain scan of a\n" +
+         "table snapshot are shared across tasks and queries.  The first task to build such a hash\n" +
+         "table writes an image of it to a node-local directory, later tasks on the node memory-map\n" +
+         "the image read-only instead of reading the broadcast input and building the hash table again.\n" +
+         "Only the hash tables of transactional tables, whose snapshot is their valid write ids, are\n" +
+         "shared across queries, those of other tables are shared only by the tasks of one query."),
+    HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_HASHTABLE_SHARED_DIR("hive.vectorized.execution.mapjoin.native.fast.hashtable.shared.dir",
+         "${system:java.io.tmpdir}" + File.separator + "${system:user.name}" + File.separator + "mapjoin-hashtables",
+         "Node-local directory for the images of shared native fast vector map join hash tables."),
+    HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_HASHTABLE_SHARED_SIZE("hive.vectorized.execution.mapjoin.native.fast.hashtable.shared.size",
+         "1024Mb", new SizeValidator(),
+         "Maximum total size of the shared native fast vector map join hash table images, the least\n" +
+         "recently used ones are evicted first."),
     HIVE_VECTORIZATION_GROUPBY_CHECKINTERVAL("hive.vectorized.groupby.checkinterval", 100000,
         "Number of entries added to the group by aggregation hash before a recomputation of average entry size is performed."),
     HIVE_VECTORIZATION_GROUPBY_MAXENTRIES("hive.vectorized.groupby.maxentries", 1000000,
@@ -3540,10 +3596,38 @@ public static enum ConfVars {
         "Exceeding this will trigger a flush irrelevant of memory pressure condition."),
     HIVE_VECTORIZATION_GROUPBY_FLUSH_PERCENT("hive.vectorized.groupby.flush.percent", (float) 0.1,
         "Percent of entries in the group by aggregation hash flushed when the memory threshold is exceeded."),
+    HIVE_VECTORIZATION_GROUPBY_NATIVE_HASHTABLE_ENABLED(
+        "hive.vectorized.groupby.native.hashtable.enabled", false,
+        "Whether hash mode vector group by uses open addressing hash tables specialized for a single\n" +
+        "long key, a single string key or generic multiple keys, instead of a HashMap of key wrappers.\n" +
+        "When all the aggregates are COUNT, or SUM, MIN and MAX of integer or floating point values,\n" +
+        "their state is kept in flat arrays instead of an aggregation buffer per group."),
+    HIVE_VECTORIZATION_GROUPBY_BYPASS_ENABLED("hive.vectorized.groupby.bypass.enabled", true,
+        "Whether map side hash mode vector group by forwards every input row as its own partial\n" +
+        "aggregation, without hashing, once the hash table does not reduce the rows by\n" +
+        "hive.map.aggr.hash.min.reduction.  When false, it switches to unsorted streaming mode instead."),
+    HIVE_VECTORIZATION_GROUPBY_BYPASS_RECHECK_ROWS("hive.vectorized.groupby.bypass.recheck.rows",
+        1000000,
+        "Number of rows forwarded in vector group by bypass mode before hash aggregation is tried\n" +
+        "again.  The interval doubles every time hash aggregation still does not reduce the rows.\n" +
+        "0 means to stay in bypass mode."),
+    HIVE_VECTORIZATION_GROUPBY_SPILL_ENABLED("hive.vectorized.groupby.spill.enabled", false,
+        "Whether hash mode vector group by spills whole hash partitions of its input rows to local\n" +
+        "disk under memory pressure, instead of flushing partial aggregates of arbitrary groups.\n" +
+        "The spilled rows are aggregated after the in-memory groups at close, so a group is emitted\n" +
+        "at most once when its partition spills and once more at close.  Not used with grouping\n" +
+        "sets or complex type columns."),
+    HIVE_VECTORIZATION_GROUPBY_SPILL_PARTITIONS("hive.vectorized.groupby.spill.partitions", 16,
+        "Number of hash partitions used by vector group by spilling.  Must be a power of 2."),
     HIVE_VECTORIZATION_REDUCESINK_NEW_ENABLED("hive.vectorized.execution.reducesink.new.enabled", true,
         "This flag should be set to true to enable the new vectorization\n" +
         "of queries using ReduceSink.\ni" +
         "The default value is true."),
+    HIVE_VECTORIZATION_REDUCESINK_TOPN_HEAP_ENABLED(
+        "hive.vectorized.execution.reducesink.topn.heap.enabled", true,
+        "Whether a native vectorized ReduceSink with a limit (ORDER BY ... LIMIT) keeps a bounded\n" +
+        "heap of the best keys so far, and drops the rows of a batch whose keys are worse than all\n" +
+        "of them before the rows are serialized. Only used for long, double and string keys."),
     HIVE_VECTORIZATION_USE_VECTORIZED_INPUT_FILE_FORMAT("hive.vectorized.use.vectorized.input.format", true,
         "This flag should be set to true to enable vectorizing with vectorized input file format capable SerDe.\n" +
         "The default value is true."),
@@ -3818,6 +3902,17 @@ public static enum ConfVars {
     LLAP_ALLOCATOR_MAPPED_PATH("hive.llap.io.allocator.mmap.path", "/tmp",
         new WritableDirectoryValidator(),
         "The directory location for mapping NVDIMM/NVMe flash storage into the ORC low-level cache."),
+    LLAP_IO_CACHE_CHECKPOINT_PATH("hive.llap.io.cache.checkpoint.path", "",
+        "A local directory, e.g. on the NVMe flash storage used for the memory mapped cache,\n" +
+        "where LLAP IO writes the contents of the ORC data and metadata caches when the daemon\n" +
+        "stops, and reloads them from when it starts, so that a restart does not empty the\n" +
+        "cache. Only the data of files with file IDs (or synthetic file IDs) is kept. Empty\n" +
+        "disables the checkpoint."),
+    LLAP_IO_CACHE_CHECKPOINT_MAX_TIME("hive.llap.io.cache.checkpoint.max.time", "20s",
+        new TimeValidator(TimeUnit.MILLISECONDS),
+        "The maximum time LLAP IO spends writing the cache checkpoint when the daemon stops;\n" +
+        "should be below the grace period the daemon is given to stop. The metadata is written\n" +
+        "first, then as much of the cached data as fits in this time."),
     LLAP_ALLOCATOR_DISCARD_METHOD("hive.llap.io.allocator.discard.method", "both",
         new StringSet("freelist", "brute", "both"),
         "Which method to use to force-evict blocks to deal with fragmentation:\n" +
@@ -3837,6 +3932,21 @@ public static enum ConfVars {
         "The meaning of this parameter is the inverse of the number of time ticks (cache\n" +
         " operations, currently) that cause the combined recency-frequency of a block in cache\n" +
         " to be halved."),
+    LLAP_LRFU_SHARDS("hive.llap.io.lrfu.shards", 1,
+        "The number of shards of the LRFU cache policy, rounded up to a power of 2. Each cache\n" +
+        "buffer belongs to one shard, and each shard has its own heap and list, so concurrent\n" +
+        "cache accesses on many cores do not contend on one lock. Shards batch the unlocks of\n" +
+        "their buffers. 1 uses the plain LRFU policy."),
+    LLAP_IO_CACHE_ADMISSION_MIN_FREQUENCY("hive.llap.io.cache.admission.min.frequency", 1,
+        new RangeValidator(1, 15),
+        "The number of recent reads from disk after which ORC data is added to the LLAP cache.\n" +
+        "Read frequencies are estimated per file and stream (stripe and column) by a sketch\n" +
+        "that forgets old reads over time. Values over 1 keep large one-off scans from evicting\n" +
+        "frequently used data; 1 caches all the data that is read."),
+    LLAP_IO_NO_CACHE("hive.llap.io.nocache", false,
+        "Whether the data that a query reads through LLAP IO should be kept out of the cache.\n" +
+        "The data that is already cached is still used. Can be set for large one-off scans,\n" +
+        "e.g. ETL jobs, so they do not evict the data that other queries use."),
     LLAP_CACHE_ALLOW_SYNTHETIC_FILEID("hive.llap.cache.allow.synthetic.fileid", true,
         "Whether LLAP cache should use synthetic file ID if real one is not available. Systems\n" +
         "like HDFS, Isilon, etc. provide a unique file/inode ID. On other FSes (e.g. local\n" +
@@ -3919,6 +4029,13 @@ public static enum ConfVars {
         "hive.llap.queue.metrics.percentiles.intervals"),
     LLAP_IO_THREADPOOL_SIZE("hive.llap.io.threadpool.size", 10,
         "Specify the number of threads to use for low-level IO thread pool."),
+    LLAP_IO_READ_AHEAD_THREADS("hive.llap.io.read.ahead.threads", 0,
+        "The number of threads LLAP IO uses to read the next ORC stripe of a split from disk\n" +
+        "while the current one is being decoded. This bounds the number of concurrent read-ahead\n" +
+        "reads in the daemon. 0 disables read-ahead; stripes are then read one at a time."),
+    LLAP_IO_READ_AHEAD_MAX_SIZE("hive.llap.io.read.ahead.max.size", "256Mb", new SizeValidator(),
+        "The maximum amount of data that LLAP IO read-ahead can hold in the daemon, outside of\n" +
+        "the cache, at any time. Stripes are not read ahead when they do not fit."),
     LLAP_KERBEROS_PRINCIPAL(HIVE_LLAP_DAEMON_SERVICE_PRINCIPAL_NAME, "",
         "The name of the LLAP daemon's service principal."),
     LLAP_KERBEROS_KEYTAB_FILE("hive.llap.daemon.keytab.file", "",
@@ -4135,6 +4252,11 @@ public static enum ConfVars {
       "Whether non-finishable running tasks (e.g. a reducer waiting for inputs) should be\n" +
       "preempted by finishable tasks inside LLAP scheduler.",
       "llap.daemon.task.scheduler.enable.preemption"),
+    LLAP_DAEMON_TASK_SCHEDULER_AFFINITY("hive.llap.daemon.task.scheduler.affinity", false,
+      "Whether the LLAP scheduler should run a fragment on an idle executor thread that last ran\n" +
+      "a fragment of the same vertex, or else of the same query, when there is one. The data these\n" +
+      "fragments share, like broadcast hash tables, is then more likely to be in the CPU caches.\n" +
+      "The order in which the fragments are scheduled is not affected."),
     LLAP_TASK_COMMUNICATOR_CONNECTION_TIMEOUT_MS(
       "hive.llap.task.communicator.connection.timeout.ms", "16000ms",
       new TimeValidator(TimeUnit.MILLISECONDS),
@@ -5447,6 +5569,7 @@ private static String[] convertVarsToRegex(String[] paramList) {
     ConfVars.HIVE_STATS_COLLECT_PART_LEVEL_STATS.varname,
     ConfVars.HIVE_SCHEMA_EVOLUTION.varname,
     ConfVars.HIVE_SERVER2_LOGGING_OPERATION_LEVEL.varname,
+    ConfVars.HIVE_SERVER2_THRIFT_RESULTSET_ARROW.varname,
     ConfVars.HIVE_SERVER2_THRIFT_RESULTSET_SERIALIZE_IN_TASKS.varname,
     ConfVars.HIVE_SUPPORT_SPECICAL_CHARACTERS_IN_TABLE_NAMES.varname,
     ConfVars.JOB_DEBUG_CAPTURE_STACKTRACES.varname,
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hive.benchmark.llap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hive.llap.daemon.SchedulerFragmentCompletingListener;
+import org.apache.hadoop.hive.llap.daemon.impl.Scheduler.SubmissionState;
+import org.apache.hadoop.hive.llap.daemon.impl.TaskExecutorService;
+import org.apache.hadoop.hive.llap.daemon.impl.TaskExecutorTestHelpers;
+import org.apache.hadoop.hive.llap.daemon.impl.TaskExecutorTestHelpers.MockRequest;
+import org.apache.hadoop.hive.llap.daemon.impl.comparator.ShortestJobFirstComparator;
+import org.apache.hadoop.hive.llap.daemon.rpc.LlapDaemonProtocolProtos.SubmitWorkRequestProto;
+import org.apache.tez.runtime.task.EndReason;
+import org.apache.tez.runtime.task.TaskRunner2Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * This test measures the throughput of the LLAP fragment scheduler: a batch of fragments that
+ * finish right away is scheduled by a number of submitter threads, and the time is taken until
+ * all of them have run. The scheduling and the completions go through the scheduler lock, so
+ * the cost of the lock shows as the executor count grows.
+ * <p/>
+ * This test uses JMH framework for benchmarking.
+ * You may execute this benchmark tool using JMH command line in different ways:
+ * <p/>
+ * To use the settings shown in the main() function, use:
+ * $ java -cp target/benchmarks.jar org.apache.hive.benchmark.llap.TaskExecutorServiceBench
+ * <p/>
+ * To use the default settings used by JMH, use:
+ * $ java -jar target/benchmarks.jar org.apache.hive.benchmark.llap.TaskExecutorServiceBench
+ * <p/>
+ * To run with other executor counts, use:
+ * $ java -jar target/benchmarks.jar org.apache.hive.benchmark.llap.TaskExecutorServiceBench
+ * -p numExecutors=16,128
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TaskExecutorServiceBench {
+  private static final int BATCH_SIZE = 2000;
+
+  @Param({"8", "32", "64"})
+  int numExecutors;
+
+  @Param({"1", "8"})
+  int numSubmitters;
+
+  private TaskExecutorService taskExecutorService;
+  private ExecutorService submitters;
+  private int nextFragmentNum = 0;
+  private List<ShortFragment> fragments;
+  private CountDownLatch done;
+
+  /** A fragment that reports itself as completing and finishes as soon as it runs. */
+  private static final class ShortFragment extends MockRequest {
+    private final TaskExecutorService taskExecutorService;
+    private final CountDownLatch done;
+
+    ShortFragment(SubmitWorkRequestProto request, TaskExecutorService taskExecutorService,
+        CountDownLatch done) {
+      super(request, TaskExecutorTestHelpers.createQueryFragmentInfo(
+          request.getWorkSpec().getVertex(), request.getFragmentNumber()),
+          true, true, 0, null, true);
+      this.taskExecutorService = taskExecutorService;
+      this.done = done;
+    }
+
+    @Override
+    protected TaskRunner2Result callInternal() {
+      taskExecutorService.fragmentCompleting(
+          getRequestId(), SchedulerFragmentCompletingListener.State.SUCCESS);
+      done.countDown();
+      return new TaskRunner2Result(EndReason.SUCCESS, null, null, false);
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setupService() {
+    taskExecutorService = new TaskExecutorService(numExecutors, BATCH_SIZE,
+        ShortestJobFirstComparator.class.getName(), true,
+        TaskExecutorServiceBench.class.getClassLoader(), null, null);
+    submitters = Executors.newFixedThreadPool(numSubmitters);
+  }
+
+  @Setup(Level.Invocation)
+  public void setupBatch() {
+    // Creating the fragments is expensive, and is not part of what is measured.
+    done = new CountDownLatch(BATCH_SIZE);
+    fragments = new ArrayList<>(BATCH_SIZE);
+    long now = System.currentTimeMillis();
+    for (int i = 0; i < BATCH_SIZE; ++i) {
+      SubmitWorkRequestProto request = TaskExecutorTestHelpers.createSubmitWorkRequestProto(
+          nextFragmentNum++, BATCH_SIZE, now, now, "BenchDag", true);
+      fragments.add(new ShortFragment(request, taskExecutorService, done));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDownService() {
+    submitters.shutdownNow();
+    taskExecutorService.shutDown(false);
+  }
+
+  @Benchmark
+  @Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+  @Measurement(iterations = 10, time = 2, timeUnit = TimeUnit.SECONDS)
+  public void scheduleAndComplete() throws Exception {
+    List<Future<?>> results = new ArrayList<>(numSubmitters);
+    for (int i = 0; i < numSubmitters; ++i) {
+      final int first = i;
+      results.add(submitters.submit(new Runnable() {
+        @Override
+        public void run() {
+          for (int j = first; j < BATCH_SIZE; j += numSubmitters) {
+            if (taskExecutorService.schedule(fragments.get(j)) == SubmissionState.REJECTED) {
+              throw new IllegalStateException("Rejected " + fragments.get(j).getRequestId());
+            }
+          }
+        }
+      }));
+    }
+    for (Future<?> result : results) {
+      result.get();
+    }
+    done.await();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder().include(".*" + TaskExecutorServiceBench.class.getSimpleName() +
+        ".*").build();
+    new Runner(opt).run();
+  }
+}
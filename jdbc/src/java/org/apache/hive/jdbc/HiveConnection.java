@@ -139,7 +139,9 @@ public class HiveConnection implements java.sql.Connection {
   private final List<TProtocolVersion> supportedProtocols = new LinkedList<TProtocolVersion>();
   private int loginTimeout = 0;
   private TProtocolVersion protocol;
+  private boolean isArrowBasedResultSet = false;
   private int fetchSize = HiveStatement.DEFAULT_FETCH_SIZE;
+  private int prefetchBatches = 0;
   private String initFile = null;
   private String wmPool = null, wmApp = null;
   private Properties clientInfo;
@@ -183,6 +185,9 @@ public HiveConnection(String uri, Properties info) throws SQLException {
     if (sessConfMap.containsKey(JdbcConnectionParams.FETCH_SIZE)) {
       fetchSize = Integer.parseInt(sessConfMap.get(JdbcConnectionParams.FETCH_SIZE));
     }
+    if (sessConfMap.containsKey(JdbcConnectionParams.PREFETCH_BATCHES)) {
+      prefetchBatches = Integer.parseInt(sessConfMap.get(JdbcConnectionParams.PREFETCH_BATCHES));
+    }
     if (sessConfMap.containsKey(JdbcConnectionParams.INIT_FILE)) {
       initFile = sessConfMap.get(JdbcConnectionParams.INIT_FILE);
     }
@@ -741,6 +746,9 @@ private void openSession() throws SQLException {
       if (serverFetchSize != null) {
         fetchSize = Integer.parseInt(serverFetchSize);
       }
+      // The serialized result sets are Arrow IPC streams only if the server says so
+      isArrowBasedResultSet = Boolean.parseBoolean(
+          openResp.getConfiguration().get("hive.server2.thrift.resultset.arrow"));
     } catch (TException e) {
       LOG.error("Error opening session", e);
       throw new SQLException("Could not establish connection to "
@@ -1561,6 +1569,18 @@ public TProtocolVersion getProtocol() {
     return protocol;
   }
 
+  public boolean isArrowBasedResultSet() {
+    return isArrowBasedResultSet;
+  }
+
+  /**
+   * @return the number of batches a forward-only result set fetches ahead of the application,
+   *         or 0 if it fetches a batch only when the application has read the previous one
+   */
+  public int getPrefetchBatches() {
+    return prefetchBatches;
+  }
+
   public static TCLIService.Iface newSynchronizedClient(
       TCLIService.Iface client) {
     return (TCLIService.Iface) Proxy.newProxyInstance(
@@ -29,6 +29,10 @@
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.hadoop.hive.common.type.HiveDecimal;
@@ -79,6 +83,11 @@ public class HiveQueryResultSet extends HiveBaseResultSet {
   private boolean fetchFirst = false;
 
   private final TProtocolVersion protocol;
+  private final boolean isArrowBased;
+  private final int prefetchBatches;
+  private RowSetPrefetcher prefetcher;
+
+  private static final AtomicInteger prefetcherCount = new AtomicInteger();
 
   public static class Builder {
 
@@ -182,6 +191,14 @@ public HiveQueryResultSet build() throws SQLException {
     public TProtocolVersion getProtocolVersion() throws SQLException {
       return ((HiveConnection)connection).getProtocol();
     }
+
+    public boolean isArrowBasedResultSet() {
+      return ((HiveConnection)connection).isArrowBasedResultSet();
+    }
+
+    public int getPrefetchBatches() {
+      return ((HiveConnection)connection).getPrefetchBatches();
+    }
   }
 
   protected HiveQueryResultSet(Builder builder) throws SQLException {
@@ -207,6 +224,9 @@ protected HiveQueryResultSet(Builder builder) throws SQLException {
     }
     this.isScrollable = builder.isScrollable;
     this.protocol = builder.getProtocolVersion();
+    this.isArrowBased = builder.isArrowBasedResultSet();
+    // A scrollable result set may go back to the first row, so it fetches on demand
+    this.prefetchBatches = isScrollable ? 0 : builder.getPrefetchBatches();
   }
 
   /**
@@ -304,6 +324,7 @@ private void setSchema(List<String> colNames, List<String> colTypes,
 
   @Override
   public void close() throws SQLException {
+    stopPrefetch();
     if (this.statement != null && (this.statement instanceof HiveStatement)) {
       HiveStatement s = (HiveStatement) this.statement;
       s.closeClientOperation();
@@ -367,14 +388,15 @@ public boolean next() throws SQLException {
         fetchFirst = false;
       }
       if (fetchedRows == null || !fetchedRowsItr.hasNext()) {
-        TFetchResultsReq fetchReq = new TFetchResultsReq(stmtHandle,
-            orientation, fetchSize);
-        TFetchResultsResp fetchResp;
-        fetchResp = client.FetchResults(fetchReq);
-        Utils.verifySuccessWithInfo(fetchResp.getStatus());
-
-        TRowSet results = fetchResp.getResults();
-        fetchedRows = RowSetFactory.create(results, protocol);
+        if (prefetchBatches > 0) {
+          if (prefetcher == null) {
+            prefetcher = new RowSetPrefetcher();
+            prefetcher.start();
+          }
+          fetchedRows = prefetcher.take();
+        } else {
+          fetchedRows = fetchRows(orientation);
+        }
         fetchedRowsItr = fetchedRows.iterator();
       }
 
@@ -395,6 +417,108 @@ public boolean next() throws SQLException {
     return true;
   }
 
+  private RowSet fetchRows(TFetchOrientation orientation) throws Exception {
+    TFetchResultsReq fetchReq = new TFetchResultsReq(stmtHandle,
+        orientation, fetchSize);
+    TFetchResultsResp fetchResp;
+    fetchResp = client.FetchResults(fetchReq);
+    Utils.verifySuccessWithInfo(fetchResp.getStatus());
+
+    TRowSet results = fetchResp.getResults();
+    return RowSetFactory.create(results, protocol, isArrowBased);
+  }
+
+  /**
+   * Stops fetching rows ahead of the application. Called before the operation is closed, and
+   * waits for a FetchResults call in flight to return.
+   */
+  void stopPrefetch() {
+    if (prefetcher != null) {
+      prefetcher.stop();
+    }
+  }
+
+  /**
+   * Fetches the batches of rows on a separate thread, up to prefetchBatches batches ahead of
+   * the application, so that the round trip to HiveServer2 and the decoding of a batch overlap
+   * with the application reading the previous batch. FETCH_NEXT calls on one operation return
+   * consecutive batches, so the single thread keeps one call in flight, and the connection
+   * serializes it with the other calls of the session.
+   */
+  private final class RowSetPrefetcher implements Runnable {
+    private final BlockingQueue<Object> batches =
+        new ArrayBlockingQueue<Object>(prefetchBatches);
+    private final Thread thread;
+    private volatile boolean isStopped = false;
+    // The empty batch or the failure that ended the fetch, returned by every later take()
+    private Object lastBatch = null;
+
+    RowSetPrefetcher() {
+      thread = new Thread(this, "HiveQueryResultSet-Prefetcher-"
+          + prefetcherCount.incrementAndGet());
+      thread.setDaemon(true);
+    }
+
+    void start() {
+      thread.start();
+    }
+
+    @Override
+    public void run() {
+      int rows = 0;
+      while (!isStopped) {
+        Object batch;
+        boolean isLast;
+        try {
+          RowSet rowSet = fetchRows(TFetchOrientation.FETCH_NEXT);
+          rows += rowSet.numRows();
+          batch = rowSet;
+          // The application stops reading at maxRows
+          isLast = rowSet.numRows() == 0 || (maxRows > 0 && rows >= maxRows);
+        } catch (Exception e) {
+          batch = e;
+          isLast = true;
+        }
+        try {
+          while (!batches.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            if (isStopped) {
+              return;
+            }
+          }
+        } catch (InterruptedException e) {
+          return;
+        }
+        if (isLast) {
+          return;
+        }
+      }
+    }
+
+    RowSet take() throws Exception {
+      if (lastBatch == null) {
+        Object batch = batches.take();
+        if (batch instanceof RowSet && ((RowSet) batch).numRows() > 0) {
+          return (RowSet) batch;
+        }
+        lastBatch = batch;
+      }
+      if (lastBatch instanceof Exception) {
+        throw (Exception) lastBatch;
+      }
+      return (RowSet) lastBatch;
+    }
+
+    void stop() {
+      isStopped = true;
+      batches.clear();
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
   @Override
   public ResultSetMetaData getMetaData() throws SQLException {
     if (isClosed) {
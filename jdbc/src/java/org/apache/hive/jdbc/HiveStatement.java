@@ -211,6 +211,10 @@ public void clearWarnings() throws SQLException {
   private void closeStatementIfNeeded() throws SQLException {
     try {
       if (stmtHandle != null) {
+        if (resultSet instanceof HiveQueryResultSet) {
+          // The result set may still be fetching rows of the operation
+          ((HiveQueryResultSet) resultSet).stopPrefetch();
+        }
         TCloseOperationReq closeReq = new TCloseOperationReq(stmtHandle);
         TCloseOperationResp closeResp = client.CloseOperation(closeReq);
         Utils.verifySuccessWithInfo(closeResp.getStatus());
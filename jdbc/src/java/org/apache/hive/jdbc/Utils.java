@@ -128,6 +128,8 @@ public static class JdbcConnectionParams {
     static final String HTTP_HEADER_PREFIX = "http.header.";
     // Set the fetchSize
     static final String FETCH_SIZE = "fetchSize";
+    // The number of fetched batches a result set may buffer ahead of the application
+    static final String PREFETCH_BATCHES = "prefetchBatches";
     static final String INIT_FILE = "initFile";
     static final String WM_POOL = "wmPool";
     // Cookie prefix
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hive.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.hive.serde2.thrift.Type;
+import org.apache.hive.service.cli.RowSet;
+import org.apache.hive.service.cli.RowSetFactory;
+import org.apache.hive.service.cli.TableSchema;
+import org.apache.hive.service.rpc.thrift.TCLIService;
+import org.apache.hive.service.rpc.thrift.TCloseOperationReq;
+import org.apache.hive.service.rpc.thrift.TCloseOperationResp;
+import org.apache.hive.service.rpc.thrift.TFetchResultsReq;
+import org.apache.hive.service.rpc.thrift.TFetchResultsResp;
+import org.apache.hive.service.rpc.thrift.TGetResultSetMetadataReq;
+import org.apache.hive.service.rpc.thrift.TGetResultSetMetadataResp;
+import org.apache.hive.service.rpc.thrift.TOperationHandle;
+import org.apache.hive.service.rpc.thrift.TProtocolVersion;
+import org.apache.hive.service.rpc.thrift.TStatus;
+import org.apache.hive.service.rpc.thrift.TStatusCode;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class TestHiveQueryResultSet {
+  private static final TProtocolVersion PROTOCOL = TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V10;
+  private static final int BATCH_SIZE = 3;
+
+  private static final TableSchema SCHEMA =
+      new TableSchema().addPrimitiveColumn("i", Type.INT_TYPE, "");
+
+  private final AtomicInteger fetchCalls = new AtomicInteger();
+
+  /** A client that returns numBatches batches of BATCH_SIZE rows, or fails the failAt-th call. */
+  private TCLIService.Iface mockClient(final int numBatches, final int failAt) throws Exception {
+    TCLIService.Iface client = mock(TCLIService.Iface.class);
+    when(client.FetchResults(any(TFetchResultsReq.class))).thenAnswer(
+        new Answer<TFetchResultsResp>() {
+          @Override
+          public TFetchResultsResp answer(InvocationOnMock invocation) {
+            int call = fetchCalls.getAndIncrement();
+            if (call == failAt) {
+              TStatus status = new TStatus(TStatusCode.ERROR_STATUS);
+              status.setErrorMessage("Test failure");
+              return new TFetchResultsResp(status);
+            }
+            RowSet rowSet = RowSetFactory.create(SCHEMA, PROTOCOL, false);
+            for (int i = 0; call < numBatches && i < BATCH_SIZE; i++) {
+              rowSet.addRow(new Object[] { call * BATCH_SIZE + i });
+            }
+            TFetchResultsResp resp = new TFetchResultsResp(new TStatus(TStatusCode.SUCCESS_STATUS));
+            resp.setResults(rowSet.toTRowSet());
+            return resp;
+          }
+        });
+    TGetResultSetMetadataResp metadataResp =
+        new TGetResultSetMetadataResp(new TStatus(TStatusCode.SUCCESS_STATUS));
+    metadataResp.setSchema(SCHEMA.toTTableSchema());
+    when(client.GetResultSetMetadata(any(TGetResultSetMetadataReq.class)))
+        .thenReturn(metadataResp);
+    when(client.CloseOperation(any(TCloseOperationReq.class))).thenReturn(
+        new TCloseOperationResp(new TStatus(TStatusCode.SUCCESS_STATUS)));
+    return client;
+  }
+
+  private HiveQueryResultSet createResultSet(TCLIService.Iface client, int prefetchBatches,
+      int maxRows) throws SQLException {
+    HiveConnection connection = mock(HiveConnection.class);
+    when(connection.getProtocol()).thenReturn(PROTOCOL);
+    when(connection.getPrefetchBatches()).thenReturn(prefetchBatches);
+    return new HiveQueryResultSet.Builder(connection).setClient(client)
+        .setStmtHandle(new TOperationHandle()).setMaxRows(maxRows).setFetchSize(BATCH_SIZE)
+        .build();
+  }
+
+  private static List<Integer> readAll(HiveQueryResultSet resultSet) throws SQLException {
+    List<Integer> values = new ArrayList<Integer>();
+    while (resultSet.next()) {
+      values.add(resultSet.getInt(1));
+    }
+    return values;
+  }
+
+  private static List<Integer> range(int count) {
+    List<Integer> values = new ArrayList<Integer>();
+    for (int i = 0; i < count; i++) {
+      values.add(i);
+    }
+    return values;
+  }
+
+  @Test(timeout = 20000)
+  public void testPrefetch() throws Exception {
+    HiveQueryResultSet resultSet = createResultSet(mockClient(10, -1), 2, 0);
+    assertTrue(resultSet.next());
+    Thread.sleep(500);
+    // The batch being read, the full buffer, and the batch waiting for room in the buffer
+    assertTrue(fetchCalls.get() <= 1 + 2 + 1);
+
+    List<Integer> values = new ArrayList<Integer>();
+    values.add(resultSet.getInt(1));
+    values.addAll(readAll(resultSet));
+    assertEquals(range(10 * BATCH_SIZE), values);
+    assertFalse(resultSet.next());
+    assertEquals(11, fetchCalls.get());
+    resultSet.close();
+  }
+
+  @Test(timeout = 20000)
+  public void testPrefetchMaxRows() throws Exception {
+    HiveQueryResultSet resultSet = createResultSet(mockClient(10, -1), 2, 4);
+    assertEquals(range(4), readAll(resultSet));
+    resultSet.close();
+    assertEquals(2, fetchCalls.get());
+  }
+
+  @Test(timeout = 20000)
+  public void testPrefetchFailure() throws Exception {
+    HiveQueryResultSet resultSet = createResultSet(mockClient(10, 1), 2, 0);
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      assertTrue(resultSet.next());
+    }
+    try {
+      resultSet.next();
+      fail("Expected the failure of the second fetch");
+    } catch (SQLException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("Test failure"));
+    }
+    resultSet.close();
+    assertEquals(2, fetchCalls.get());
+  }
+
+  @Test(timeout = 20000)
+  public void testCloseWhilePrefetching() throws Exception {
+    HiveQueryResultSet resultSet = createResultSet(mockClient(100, -1), 1, 0);
+    assertTrue(resultSet.next());
+    resultSet.close();
+    int calls = fetchCalls.get();
+    Thread.sleep(300);
+    assertEquals(calls, fetchCalls.get());
+  }
+
+  @Test(timeout = 20000)
+  public void testNoPrefetch() throws Exception {
+    HiveQueryResultSet resultSet = createResultSet(mockClient(3, -1), 0, 0);
+    assertTrue(resultSet.next());
+    assertEquals(1, fetchCalls.get());
+    assertEquals(range(3 * BATCH_SIZE).subList(1, 3 * BATCH_SIZE), readAll(resultSet));
+    resultSet.close();
+  }
+}
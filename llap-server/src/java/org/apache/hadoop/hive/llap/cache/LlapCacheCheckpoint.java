@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.llap.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.CommonConfigurationKeysPublic;
+import org.apache.hadoop.hive.common.io.Allocator.AllocatorOutOfMemoryException;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import org.apache.hadoop.hive.llap.io.api.impl.LlapIoImpl;
+import org.apache.hadoop.hive.llap.io.metadata.MetadataCache;
+import org.apache.hadoop.hive.ql.io.SyntheticFileId;
+
+/**
+ * Checkpoint of the contents of the LLAP IO caches in a local file, so that a restarted daemon
+ * does not have to read all its data from the file system again.
+ *
+ * The checkpoint is written when LLAP IO is closed, and loaded when it starts. It contains the
+ * cached ORC metadata and data ranges with their file keys; only file IDs and synthetic file
+ * IDs are written, since other keys do not identify a file across restarts, and the data of
+ * such a key never changes. Writing stops after a configured time, so that it fits within the
+ * grace period of a daemon being stopped; the metadata, which is small and needed by every
+ * read, is written first. The previous checkpoint is kept until a new one replaces it.
+ * The data is copied into newly allocated buffers when loaded. The header of the file records
+ * the settings that decide how file keys are made, and the checkpoint is ignored if they have
+ * changed; each range is checked against its CRC when loaded.
+ */
+public class LlapCacheCheckpoint {
+  private static final int MAGIC = 0x4c4c4350; // LLCP
+  private static final int VERSION = 2;
+  private static final String FILE_NAME = "llap-cache.checkpoint";
+  private static final byte KEY_FILE_ID = 0, KEY_SYNTHETIC = 1;
+  /** The size of the heap buffer that cached data is written through. */
+  private static final int WRITE_CHUNK_SIZE = 64 * 1024;
+
+  private final File file;
+  private final String fileKeyFingerprint;
+  private final long maxSaveTimeNs;
+
+  public LlapCacheCheckpoint(String dir, Configuration conf) {
+    this.file = new File(dir, FILE_NAME);
+    this.maxSaveTimeNs = HiveConf.getTimeVar(
+        conf, ConfVars.LLAP_IO_CACHE_CHECKPOINT_MAX_TIME, TimeUnit.NANOSECONDS);
+    // The file keys only identify the same files with the same settings and file system.
+    this.fileKeyFingerprint = conf.get(CommonConfigurationKeysPublic.FS_DEFAULT_NAME_KEY, "")
+        + ";" + HiveConf.getBoolVar(conf, ConfVars.LLAP_CACHE_ALLOW_SYNTHETIC_FILEID)
+        + ";" + HiveConf.getBoolVar(conf, ConfVars.LLAP_CACHE_DEFAULT_FS_FILE_ID);
+  }
+
+  /**
+   * Writes the contents of the caches, or as much of them as fits in the configured time; the
+   * previous checkpoint is only replaced on success.
+   */
+  public void save(LowLevelCacheImpl dataCache, MetadataCache metadataCache) {
+    long startTime = System.nanoTime();
+    File tmpFile = new File(file.getParentFile(), file.getName() + ".tmp");
+    int dataCount = 0, metadataCount = 0;
+    boolean isTimedOut;
+    try {
+      try (CheckpointOutput out = new CheckpointOutput(
+          new BufferedOutputStream(new FileOutputStream(tmpFile)), startTime + maxSaveTimeNs)) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(fileKeyFingerprint);
+        metadataCount = metadataCache.writeCheckpoint(out);
+        dataCount = dataCache.writeCheckpoint(out);
+        out.writeInt(MAGIC);
+        isTimedOut = out.isTimedOut();
+      }
+      Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      LlapIoImpl.LOG.warn("Failed to write the cache checkpoint to " + file, e);
+      tmpFile.delete();
+      return;
+    }
+    LlapIoImpl.LOG.info("Wrote {} data ranges and {} metadata entries to the cache checkpoint {}"
+        + " in {}ms{}", dataCount, metadataCount, file, (System.nanoTime() - startTime) / 1000000L,
+        isTimedOut ? "; stopped after the maximum time, the rest of the cache is not saved" : "");
+  }
+
+  /**
+   * Loads the checkpoint, if any, into the caches. Loading stops at the first error; whatever
+   * was loaded until then is valid.
+   */
+  public void load(LowLevelCacheImpl dataCache, MetadataCache metadataCache) {
+    if (!file.exists()) {
+      LlapIoImpl.LOG.info("No cache checkpoint at {}", file);
+      return;
+    }
+    long startTime = System.nanoTime();
+    int dataCount = 0, metadataCount = 0;
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        LlapIoImpl.LOG.warn("Ignoring the cache checkpoint {} in an unknown format", file);
+        return;
+      }
+      String fingerprint = in.readUTF();
+      if (!fileKeyFingerprint.equals(fingerprint)) {
+        LlapIoImpl.LOG.warn("Ignoring the cache checkpoint {} made with different file ID"
+            + " settings: {}; now {}", file, fingerprint, fileKeyFingerprint);
+        return;
+      }
+      metadataCount = metadataCache.readCheckpoint(in);
+      dataCount = dataCache.readCheckpoint(in);
+    } catch (IOException | AllocatorOutOfMemoryException e) {
+      LlapIoImpl.LOG.warn("Failed to load the rest of the cache checkpoint " + file, e);
+    }
+    LlapIoImpl.LOG.info("Loaded {} data ranges and {} metadata entries from the cache checkpoint"
+        + " {} in {}ms", dataCount, metadataCount, file, (System.nanoTime() - startTime) / 1000000L);
+  }
+
+  /** Whether the file key identifies the same file after a restart. */
+  public static boolean isPersistentFileKey(Object fileKey) {
+    return fileKey instanceof Long || fileKey instanceof SyntheticFileId;
+  }
+
+  public static void writeFileKey(DataOutput out, Object fileKey) throws IOException {
+    if (fileKey instanceof Long) {
+      out.writeByte(KEY_FILE_ID);
+      out.writeLong((Long) fileKey);
+    } else if (fileKey instanceof SyntheticFileId) {
+      out.writeByte(KEY_SYNTHETIC);
+      ((SyntheticFileId) fileKey).write(out);
+    } else {
+      throw new IOException("Cannot write file key " + fileKey);
+    }
+  }
+
+  public static Object readFileKey(DataInput in) throws IOException {
+    byte type = in.readByte();
+    switch (type) {
+    case KEY_FILE_ID:
+      return in.readLong();
+    case KEY_SYNTHETIC:
+      SyntheticFileId fileKey = new SyntheticFileId();
+      fileKey.readFields(in);
+      return fileKey;
+    default:
+      throw new IOException("Unknown file key type " + type);
+    }
+  }
+
+  public static void writeTag(DataOutput out, String tag) throws IOException {
+    out.writeBoolean(tag != null);
+    if (tag != null) {
+      out.writeUTF(tag);
+    }
+  }
+
+  public static String readTag(DataInput in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  /** The stream a checkpoint is written to, until its deadline. */
+  public static final class CheckpointOutput extends DataOutputStream {
+    private final long deadlineNs;
+    private final byte[] chunk = new byte[WRITE_CHUNK_SIZE];
+    private boolean isTimedOut = false;
+
+    CheckpointOutput(OutputStream out, long deadlineNs) {
+      super(out);
+      this.deadlineNs = deadlineNs;
+    }
+
+    /** @return Whether the time to write the checkpoint is up; nothing more should be added. */
+    public boolean isTimedOut() {
+      if (!isTimedOut && System.nanoTime() - deadlineNs > 0) {
+        isTimedOut = true;
+      }
+      return isTimedOut;
+    }
+
+    /**
+     * Writes the remaining bytes of the buffers, as one block of data with its CRC. The data is
+     * copied through a small buffer, rather than into a heap copy of the whole block.
+     */
+    public void writeData(ByteBuffer... buffers) throws IOException {
+      int length = 0;
+      CRC32 crc = new CRC32();
+      for (ByteBuffer buffer : buffers) {
+        length += buffer.remaining();
+        crc.update(buffer.duplicate());
+      }
+      writeInt(length);
+      writeLong(crc.getValue());
+      for (ByteBuffer buffer : buffers) {
+        ByteBuffer src = buffer.duplicate();
+        while (src.hasRemaining()) {
+          int toWrite = Math.min(chunk.length, src.remaining());
+          src.get(chunk, 0, toWrite);
+          write(chunk, 0, toWrite);
+        }
+      }
+    }
+  }
+
+  public static ByteBuffer readData(DataInput in) throws IOException {
+    int length = in.readInt();
+    long expectedCrc = in.readLong();
+    byte[] data = new byte[length];
+    in.readFully(data);
+    CRC32 crc = new CRC32();
+    crc.update(data, 0, length);
+    if (crc.getValue() != expectedCrc) {
+      throw new IOException("Checksum mismatch for " + length + " bytes of cached data");
+    }
+    return ByteBuffer.wrap(data);
+  }
+}
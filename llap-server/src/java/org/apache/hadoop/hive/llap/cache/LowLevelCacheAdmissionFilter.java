@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.llap.cache;
+
+import org.apache.hadoop.hive.llap.io.api.impl.LlapIoImpl;
+
+/**
+ * Admission filter for the data cache. Data is only added to the cache once it has been read from
+ * disk a few times recently, so that a large scan that reads each block once does not evict the
+ * blocks that are used all the time; these are protected by the cache policy only once cached.
+ *
+ * The read frequencies are estimated by a count-min sketch keyed by the file and the offset of
+ * the cached range, that is by stripe and column stream for ORC. The 4-bit counters are halved
+ * after a number of reads proportional to the size of the sketch, so old reads are forgotten.
+ */
+public class LowLevelCacheAdmissionFilter {
+  private static final int DEPTH = 4;
+  private static final int MAX_FREQUENCY = 15;
+  private static final int MIN_WIDTH = 1 << 10, MAX_WIDTH = 1 << 20;
+  /** How many times the width of the sketch the number of reads between the resets is. */
+  private static final int RESET_MULTIPLIER = 10;
+  private static final long[] SEEDS = new long[] {
+    0x97cb3127c4d7a3b9L, 0xd1b54a32d192ed03L, 0xaef17502108ef2d9L, 0xf1357aea2e62a9c5L };
+
+  private final int minFrequency;
+  private final int widthMask;
+  private final long resetThreshold;
+  /** DEPTH rows of 4-bit counters, 16 per long. */
+  private final long[][] counters;
+  private long readCount = 0;
+
+  /**
+   * @param minFrequency The number of reads of a range after which it is admitted; the read that
+   *                     makes the range reach this frequency adds it to the cache.
+   * @param expectedRangeCount The expected number of ranges that fit in the cache.
+   */
+  public LowLevelCacheAdmissionFilter(int minFrequency, long expectedRangeCount) {
+    if (minFrequency < 1 || minFrequency > MAX_FREQUENCY) {
+      throw new IllegalArgumentException("Admission frequency " + minFrequency
+          + " is not in [1, " + MAX_FREQUENCY + "]");
+    }
+    this.minFrequency = minFrequency;
+    long width = Long.highestOneBit(Math.max(MIN_WIDTH, Math.min(MAX_WIDTH, expectedRangeCount)));
+    this.widthMask = (int)width - 1;
+    this.resetThreshold = RESET_MULTIPLIER * width;
+    this.counters = new long[DEPTH][(int)(width >>> 4)];
+    LlapIoImpl.LOG.info("Cache admission filter with minimum frequency {} and sketch width {}",
+        minFrequency, width);
+  }
+
+  /**
+   * Records a read of a range from disk.
+   * @return Whether the range should be added to the cache.
+   */
+  public boolean admit(Object fileKey, long offset) {
+    long hash = fileKey.hashCode() * 0x9e3779b97f4a7c15L + offset;
+    int frequency = MAX_FREQUENCY;
+    synchronized (this) {
+      for (int i = 0; i < DEPTH; ++i) {
+        frequency = Math.min(frequency, incrementCounter(counters[i], index(hash, i)));
+      }
+      if (++readCount >= resetThreshold) {
+        reset();
+      }
+    }
+    return frequency >= minFrequency;
+  }
+
+  private int index(long hash, int row) {
+    long h = (hash ^ SEEDS[row]) * 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return (int)h & widthMask;
+  }
+
+  /** Increments a counter unless it is saturated, and returns the new value. */
+  private static int incrementCounter(long[] row, int index) {
+    int shift = (index & 15) << 2;
+    int value = (int)((row[index >>> 4] >>> shift) & 0xf);
+    if (value < MAX_FREQUENCY) {
+      row[index >>> 4] += (1L << shift);
+      ++value;
+    }
+    return value;
+  }
+
+  /** Halves all the counters. */
+  private void reset() {
+    for (long[] row : counters) {
+      for (int i = 0; i < row.length; ++i) {
+        row[i] = (row[i] >>> 1) & 0x7777777777777777L;
+      }
+    }
+    readCount /= 2;
+  }
+}
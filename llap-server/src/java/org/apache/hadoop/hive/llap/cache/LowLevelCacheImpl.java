@@ -19,6 +19,8 @@
 
 import org.apache.orc.impl.RecordReaderUtils;
 
+import java.io.DataInput;
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Iterator;
 import java.util.List;
@@ -56,6 +58,7 @@ public class LowLevelCacheImpl implements LowLevelCache, BufferUsageManager, Lla
   private final long cleanupInterval;
   private final LlapDaemonCacheMetrics metrics;
   private final boolean doAssumeGranularBlocks;
+  private LowLevelCacheAdmissionFilter admissionFilter = null;
 
   private static final Function<Void, ConcurrentSkipListMap<Long, LlapDataBuffer>> CACHE_CTOR =
       new Function<Void, ConcurrentSkipListMap<Long, LlapDataBuffer>>() {
@@ -81,6 +84,11 @@ public LowLevelCacheImpl(LlapDaemonCacheMetrics metrics, LowLevelCachePolicy cac
     this.doAssumeGranularBlocks = doAssumeGranularBlocks;
   }
 
+  /** Sets the filter that decides which of the data read from disk is added to the cache. */
+  public void setAdmissionFilter(LowLevelCacheAdmissionFilter admissionFilter) {
+    this.admissionFilter = admissionFilter;
+  }
+
   public void startThreads() {
     if (cleanupInterval < 0) return;
     cleanupThread = new CleanupThread(cache, newEvictions, cleanupInterval);
@@ -289,6 +297,12 @@ private boolean lockBuffer(LlapDataBuffer buffer, boolean doNotifyPolicy) {
   @Override
   public long[] putFileData(Object fileKey, DiskRange[] ranges, MemoryBuffer[] buffers,
       long baseOffset, Priority priority, LowLevelCacheCounters qfCounters, String tag) {
+    return putFileData(fileKey, ranges, buffers, baseOffset, priority, qfCounters, tag, true);
+  }
+
+  private long[] putFileData(Object fileKey, DiskRange[] ranges, MemoryBuffer[] buffers,
+      long baseOffset, Priority priority, LowLevelCacheCounters qfCounters, String tag,
+      boolean doUseAdmissionFilter) {
     long[] result = null;
     assert buffers.length == ranges.length;
     FileCache<ConcurrentSkipListMap<Long, LlapDataBuffer>> subCache =
@@ -302,6 +316,15 @@ public long[] putFileData(Object fileKey, DiskRange[] ranges, MemoryBuffer[] buf
         boolean canLock = lockBuffer(buffer, false);
         assert canLock;
         long offset = ranges[i].getOffset() + baseOffset;
+        if (doUseAdmissionFilter && admissionFilter != null
+            && !admissionFilter.admit(fileKey, offset)) {
+          // Not cached; the caller still owns the locked buffer, deallocated on the last decRef.
+          if (LlapIoImpl.CACHE_LOGGER.isTraceEnabled()) {
+            LlapIoImpl.CACHE_LOGGER.trace("Not admitting {} for {}@{} (base {})",
+                buffer, fileKey, offset, baseOffset);
+          }
+          continue;
+        }
         assert buffer.declaredCachedLength == LlapDataBuffer.UNKNOWN_CACHED_LENGTH;
         buffer.declaredCachedLength = ranges[i].getLength();
         buffer.setTag(tag);
@@ -355,6 +378,80 @@ public long[] putFileData(Object fileKey, DiskRange[] ranges, MemoryBuffer[] buf
     return result;
   }
 
+  /**
+   * Writes the cached ranges of the files with persistent keys for {@link LlapCacheCheckpoint},
+   * until the time to write the checkpoint is up.
+   * @return The number of ranges written.
+   */
+  public int writeCheckpoint(LlapCacheCheckpoint.CheckpointOutput out) throws IOException {
+    int count = 0;
+    for (Map.Entry<Object, FileCache<ConcurrentSkipListMap<Long, LlapDataBuffer>>> e
+        : cache.entrySet()) {
+      if (out.isTimedOut()) break;
+      Object fileKey = e.getKey();
+      FileCache<ConcurrentSkipListMap<Long, LlapDataBuffer>> subCache = e.getValue();
+      if (!LlapCacheCheckpoint.isPersistentFileKey(fileKey) || !subCache.incRef()) continue;
+      try {
+        for (Map.Entry<Long, LlapDataBuffer> entry : subCache.getCache().entrySet()) {
+          if (out.isTimedOut()) break;
+          LlapDataBuffer buffer = entry.getValue();
+          if (!lockBuffer(buffer, true)) continue; // Evicted.
+          try {
+            out.writeBoolean(true);
+            LlapCacheCheckpoint.writeFileKey(out, fileKey);
+            out.writeLong(entry.getKey());
+            out.writeInt(buffer.declaredCachedLength);
+            LlapCacheCheckpoint.writeTag(out, buffer.getTag());
+            out.writeData(buffer.getByteBufferDup());
+            ++count;
+          } finally {
+            unlockBuffer(buffer, true);
+          }
+        }
+      } finally {
+        subCache.decRef();
+      }
+    }
+    out.writeBoolean(false);
+    return count;
+  }
+
+  /**
+   * Caches the ranges written by {@link #writeCheckpoint}, bypassing the admission
+   * filter; ranges that are already cached are skipped.
+   * @return The number of ranges read.
+   */
+  public int readCheckpoint(DataInput in) throws IOException {
+    int count = 0;
+    DiskRange[] ranges = new DiskRange[1];
+    MemoryBuffer[] buffers = new MemoryBuffer[1];
+    while (in.readBoolean()) {
+      Object fileKey = LlapCacheCheckpoint.readFileKey(in);
+      long offset = in.readLong();
+      int cachedLength = in.readInt();
+      String tag = LlapCacheCheckpoint.readTag(in);
+      ByteBuffer data = LlapCacheCheckpoint.readData(in);
+      ++count;
+      if (data.remaining() == 0 || data.remaining() > allocator.getMaxAllocation()) {
+        continue; // The allocator settings have changed.
+      }
+      buffers[0] = null;
+      allocator.allocateMultiple(buffers, data.remaining(), null);
+      LlapDataBuffer buffer = (LlapDataBuffer)buffers[0];
+      ByteBuffer dest = buffer.getByteBufferRaw();
+      int startPos = dest.position();
+      dest.put(data);
+      dest.limit(dest.position());
+      dest.position(startPos);
+      ranges[0] = new DiskRange(offset, offset + cachedLength);
+      if (putFileData(fileKey, ranges, buffers, 0, Priority.NORMAL, null, tag, false) != null) {
+        allocator.deallocate(buffer); // Already cached; buffers[0] is the cached buffer.
+      }
+      decRefBuffer(buffers[0]);
+    }
+    return count;
+  }
+
   private static int align64(int number) {
     return ((number + 63) & ~63);
   }
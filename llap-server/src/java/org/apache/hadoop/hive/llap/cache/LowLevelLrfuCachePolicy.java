@@ -46,7 +46,7 @@ private final double expirePriority(long time, long lastAccess, double previous)
     return f(time - lastAccess) * previous;
   }
 
-  private final AtomicLong timer = new AtomicLong(0);
+  private final AtomicLong timer;
   /**
    * The heap and list. Currently synchronized on the object, which is not good. If this becomes
    * a problem (which it probably will), we can partition the cache policy, or use some better
@@ -68,6 +68,15 @@ private final double expirePriority(long time, long lastAccess, double previous)
   private LlapOomDebugDump parentDebugDump;
 
   public LowLevelLrfuCachePolicy(int minBufferSize, long maxSize, Configuration conf) {
+    this(minBufferSize, maxSize, conf, new AtomicLong(0));
+  }
+
+  /**
+   * Creates a policy that shares the timer with other policies, e.g. the other shards of
+   * {@link LowLevelShardedLrfuCachePolicy}, so the priorities of all buffers expire at one pace.
+   */
+  LowLevelLrfuCachePolicy(int minBufferSize, long maxSize, Configuration conf, AtomicLong timer) {
+    this.timer = timer;
     lambda = HiveConf.getFloatVar(conf, HiveConf.ConfVars.LLAP_LRFU_LAMBDA);
     int maxBuffers = (int)Math.ceil((maxSize * 1.0) / minBufferSize);
     if (lambda == 0) {
@@ -123,49 +132,68 @@ public void notifyUnlock(LlapCacheableBuffer buffer) {
       LlapIoImpl.CACHE_LOGGER.trace("Touching {} at {}", buffer, time);
     }
     synchronized (heapLock) {
-      // First, update buffer priority - we have just been using it.
-      buffer.priority = (buffer.lastUpdate == -1) ? F0
-          : touchPriority(time, buffer.lastUpdate, buffer.priority);
-      buffer.lastUpdate = time;
-      // Then, if the buffer was in the list, remove it.
-      if (buffer.indexInHeap == LlapCacheableBuffer.IN_LIST) {
-        listLock.lock();
-        removeFromListAndUnlock(buffer);
+      touchUnderLock(buffer, time);
+    }
+  }
+
+  /**
+   * Processes the unlocks of several buffers with one acquisition of the heap lock.
+   */
+  void notifyUnlock(LlapCacheableBuffer[] buffers, int count) {
+    synchronized (heapLock) {
+      for (int i = 0; i < count; ++i) {
+        long time = timer.incrementAndGet();
+        if (LlapIoImpl.CACHE_LOGGER.isTraceEnabled()) {
+          LlapIoImpl.CACHE_LOGGER.trace("Touching {} at {}", buffers[i], time);
+        }
+        touchUnderLock(buffers[i], time);
       }
-      // The only concurrent change that can happen when we hold the heap lock is list removal;
-      // we have just ensured the item is not in the list, so we have a definite state now.
-      if (buffer.indexInHeap >= 0) {
-        // The buffer has lived in the heap all along. Restore heap property.
-        heapifyDownUnderLock(buffer, time);
-      } else if (heapSize == heap.length) {
-        // The buffer is not in the (full) heap. Demote the top item of the heap into the list.
-        LlapCacheableBuffer demoted = heap[0];
-        listLock.lock();
-        try {
-          assert demoted.indexInHeap == 0; // Noone could have moved it, we have the heap lock.
-          demoted.indexInHeap = LlapCacheableBuffer.IN_LIST;
-          demoted.prev = null;
-          if (listHead != null) {
-            demoted.next = listHead;
-            listHead.prev = demoted;
-            listHead = demoted;
-          } else {
-            listHead = listTail = demoted;
-            demoted.next = null;
-          }
-        } finally {
-          listLock.unlock();
+    }
+  }
+
+  private void touchUnderLock(LlapCacheableBuffer buffer, long time) {
+    // First, update buffer priority - we have just been using it.
+    buffer.priority = (buffer.lastUpdate == -1) ? F0
+        : touchPriority(time, buffer.lastUpdate, buffer.priority);
+    buffer.lastUpdate = time;
+    // Then, if the buffer was in the list, remove it.
+    if (buffer.indexInHeap == LlapCacheableBuffer.IN_LIST) {
+      listLock.lock();
+      removeFromListAndUnlock(buffer);
+    }
+    // The only concurrent change that can happen when we hold the heap lock is list removal;
+    // we have just ensured the item is not in the list, so we have a definite state now.
+    if (buffer.indexInHeap >= 0) {
+      // The buffer has lived in the heap all along. Restore heap property.
+      heapifyDownUnderLock(buffer, time);
+    } else if (heapSize == heap.length) {
+      // The buffer is not in the (full) heap. Demote the top item of the heap into the list.
+      LlapCacheableBuffer demoted = heap[0];
+      listLock.lock();
+      try {
+        assert demoted.indexInHeap == 0; // Noone could have moved it, we have the heap lock.
+        demoted.indexInHeap = LlapCacheableBuffer.IN_LIST;
+        demoted.prev = null;
+        if (listHead != null) {
+          demoted.next = listHead;
+          listHead.prev = demoted;
+          listHead = demoted;
+        } else {
+          listHead = listTail = demoted;
+          demoted.next = null;
         }
-        // Now insert the new buffer in its place and restore heap property.
-        buffer.indexInHeap = 0;
-        heapifyDownUnderLock(buffer, time);
-      } else {
-        // Heap is not full, add the buffer to the heap and restore heap property up.
-        assert heapSize < heap.length : heap.length + " < " + heapSize;
-        buffer.indexInHeap = heapSize;
-        heapifyUpUnderLock(buffer, time);
-        ++heapSize;
+      } finally {
+        listLock.unlock();
       }
+      // Now insert the new buffer in its place and restore heap property.
+      buffer.indexInHeap = 0;
+      heapifyDownUnderLock(buffer, time);
+    } else {
+      // Heap is not full, add the buffer to the heap and restore heap property up.
+      assert heapSize < heap.length : heap.length + " < " + heapSize;
+      buffer.indexInHeap = heapSize;
+      heapifyUpUnderLock(buffer, time);
+      ++heapSize;
     }
   }
 
@@ -271,6 +299,13 @@ public long evictSomeBlocks(long memoryToReserve) {
     return evicted;
   }
 
+  /**
+   * Evicts only from the list of the buffers that were demoted from the heap.
+   */
+  long evictSomeBlocksFromList(long memoryToReserve) {
+    return evictFromList(memoryToReserve);
+  }
+
   private long evictFromList(long memoryToReserve) {
     long evicted = 0;
     LlapCacheableBuffer nextCandidate = null, firstCandidate = null;
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.llap.cache;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.llap.cache.LowLevelCache.Priority;
+import org.apache.hadoop.hive.llap.io.api.impl.LlapIoImpl;
+
+/**
+ * LRFU cache policy striped over several {@link LowLevelLrfuCachePolicy} shards, so that
+ * concurrent readers do not all serialize on one heap lock.
+ *
+ * Each buffer always belongs to the same shard, by its identity hash. The shards share one timer,
+ * so the priorities of all the buffers expire at the same pace as in a single LRFU policy.
+ * Unlocks, which are the hot path, do not take a lock: the buffer is queued on its shard and the
+ * queue is applied to the shard heap in batches by whichever thread gets the shard first once
+ * enough unlocks are pending. Eviction applies all pending unlocks first, then evicts an equal share
+ * from the lists of all the shards, starting at a rotating shard, before it evicts from their
+ * heaps.
+ */
+public class LowLevelShardedLrfuCachePolicy implements LowLevelCachePolicy {
+  /** The number of pending unlocks of a shard after which they are applied. */
+  private static final int UNLOCK_BATCH_SIZE = 32;
+
+  private final Shard[] shards;
+  private final int shardMask;
+  private final AtomicInteger nextEvictionShard = new AtomicInteger(0);
+  private LlapOomDebugDump parentDebugDump;
+
+  private static final class Shard {
+    private final LowLevelLrfuCachePolicy policy;
+    private final ConcurrentLinkedQueue<LlapCacheableBuffer> pendingUnlocks =
+        new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingUnlockCount = new AtomicInteger(0);
+    private final ReentrantLock drainLock = new ReentrantLock();
+    /** Only used under drainLock. */
+    private final LlapCacheableBuffer[] drainBatch = new LlapCacheableBuffer[UNLOCK_BATCH_SIZE];
+
+    private Shard(LowLevelLrfuCachePolicy policy) {
+      this.policy = policy;
+    }
+
+    private void notifyUnlock(LlapCacheableBuffer buffer) {
+      pendingUnlocks.add(buffer);
+      if (pendingUnlockCount.incrementAndGet() >= UNLOCK_BATCH_SIZE && drainLock.tryLock()) {
+        try {
+          drainUnderLock();
+        } finally {
+          drainLock.unlock();
+        }
+      }
+    }
+
+    private void drain() {
+      if (pendingUnlockCount.get() == 0) return;
+      drainLock.lock();
+      try {
+        drainUnderLock();
+      } finally {
+        drainLock.unlock();
+      }
+    }
+
+    private void drainUnderLock() {
+      while (true) {
+        int count = 0;
+        LlapCacheableBuffer buffer;
+        while (count < drainBatch.length && (buffer = pendingUnlocks.poll()) != null) {
+          drainBatch[count++] = buffer;
+        }
+        if (count == 0) return;
+        pendingUnlockCount.addAndGet(-count);
+        policy.notifyUnlock(drainBatch, count);
+        for (int i = 0; i < count; ++i) {
+          drainBatch[i] = null;
+        }
+      }
+    }
+  }
+
+  public LowLevelShardedLrfuCachePolicy(
+      int minBufferSize, long maxSize, int shardCount, Configuration conf) {
+    // Round up to a power of 2 so that the shard of a buffer is a mask of its hash.
+    int count = (shardCount <= 1) ? 1 : Integer.highestOneBit(shardCount - 1) << 1;
+    AtomicLong timer = new AtomicLong(0);
+    shards = new Shard[count];
+    for (int i = 0; i < count; ++i) {
+      shards[i] = new Shard(
+          new LowLevelLrfuCachePolicy(minBufferSize, maxSize / count, conf, timer));
+    }
+    shardMask = count - 1;
+    LlapIoImpl.LOG.info("Sharded LRFU cache policy with {} shards", count);
+  }
+
+  private Shard getShard(LlapCacheableBuffer buffer) {
+    int hash = System.identityHashCode(buffer);
+    return shards[(hash ^ (hash >>> 16)) & shardMask];
+  }
+
+  private void drainAll() {
+    for (Shard shard : shards) {
+      shard.drain();
+    }
+  }
+
+  @Override
+  public void cache(LlapCacheableBuffer buffer, Priority priority) {
+    getShard(buffer).policy.cache(buffer, priority);
+  }
+
+  @Override
+  public void notifyLock(LlapCacheableBuffer buffer) {
+    getShard(buffer).policy.notifyLock(buffer);
+  }
+
+  @Override
+  public void notifyUnlock(LlapCacheableBuffer buffer) {
+    getShard(buffer).notifyUnlock(buffer);
+  }
+
+  @Override
+  public long evictSomeBlocks(long memoryToReserve) {
+    drainAll();
+    final int start = (nextEvictionShard.getAndIncrement() & Integer.MAX_VALUE) % shards.length;
+    long evicted = 0;
+    // In normal case, we evict the items from the lists. Each shard gives up its share of the
+    // memory, so that the least recently used items of all the shards go first; a shard that
+    // runs out leaves the rest to the others in the next round.
+    boolean isProgress = true;
+    while (evicted < memoryToReserve && isProgress) {
+      isProgress = false;
+      long share = Math.max(1, (memoryToReserve - evicted + shards.length - 1) / shards.length);
+      for (int i = 0; i < shards.length && evicted < memoryToReserve; ++i) {
+        Shard shard = shards[(start + i) % shards.length];
+        long shardEvicted = shard.policy.evictSomeBlocksFromList(
+            Math.min(share, memoryToReserve - evicted));
+        evicted += shardEvicted;
+        isProgress |= (shardEvicted > 0);
+      }
+    }
+    for (int i = 0; i < shards.length && evicted < memoryToReserve; ++i) {
+      Shard shard = shards[(start + i) % shards.length];
+      evicted += shard.policy.evictSomeBlocks(memoryToReserve - evicted);
+    }
+    return evicted;
+  }
+
+  @Override
+  public void setEvictionListener(EvictionListener listener) {
+    for (Shard shard : shards) {
+      shard.policy.setEvictionListener(listener);
+    }
+  }
+
+  @Override
+  public void setParentDebugDumper(LlapOomDebugDump dumper) {
+    this.parentDebugDump = dumper;
+  }
+
+  @Override
+  public long purge() {
+    drainAll();
+    long evicted = 0;
+    for (Shard shard : shards) {
+      evicted += shard.policy.purge();
+    }
+    return evicted;
+  }
+
+  @Override
+  public String debugDumpForOom() {
+    StringBuilder result = new StringBuilder();
+    for (int i = 0; i < shards.length; ++i) {
+      result.append("Shard ").append(i).append(" ").append(shards[i].policy.debugDumpHeap());
+    }
+    if (parentDebugDump != null) {
+      result.append("\n").append(parentDebugDump.debugDumpForOom());
+    }
+    return result.toString();
+  }
+
+  @Override
+  public void debugDumpShort(StringBuilder sb) {
+    for (int i = 0; i < shards.length; ++i) {
+      sb.append("\nLRFU shard ").append(i).append(" (")
+          .append(shards[i].pendingUnlockCount.get()).append(" pending unlocks):");
+      shards[i].policy.debugDumpShort(sb);
+    }
+    if (parentDebugDump != null) {
+      parentDebugDump.debugDumpShort(sb);
+    }
+  }
+}
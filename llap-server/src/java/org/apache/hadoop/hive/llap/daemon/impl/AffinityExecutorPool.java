@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.llap.daemon.impl;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.AbstractListeningExecutorService;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+
+/**
+ * Fixed pool of executor threads that hands each task directly to an idle thread, like a
+ * ThreadPoolExecutor with a SynchronousQueue, but chooses the thread by affinity: a thread that
+ * last ran a task of the same vertex is preferred, then one that last ran a task of the same
+ * query, then the thread that became idle most recently. The fragments of a vertex share data,
+ * like broadcast hash tables in the object cache, that is then more likely to still be in the
+ * caches of the CPU the thread last ran on.
+ *
+ * There is no queue: a task is rejected if no thread is idle, so the order in which the tasks
+ * run is still decided by the wait queue of the scheduler.
+ */
+class AffinityExecutorPool extends AbstractListeningExecutorService {
+  private static final Logger LOG = LoggerFactory.getLogger(AffinityExecutorPool.class);
+
+  private final Worker[] workers;
+  /** Idle workers, the most recently idle first. Guarded by this. */
+  private final ArrayDeque<Worker> idleWorkers;
+  private boolean isShutdown = false;
+  private long affinityHits = 0, queryAffinityHits = 0, tasksRun = 0;
+
+  AffinityExecutorPool(int numThreads, ThreadFactory threadFactory) {
+    workers = new Worker[numThreads];
+    idleWorkers = new ArrayDeque<>(numThreads);
+    for (int i = 0; i < numThreads; ++i) {
+      workers[i] = new Worker();
+      workers[i].thread = threadFactory.newThread(workers[i]);
+      idleWorkers.addLast(workers[i]);
+    }
+    for (Worker worker : workers) {
+      worker.thread.start();
+    }
+  }
+
+  /**
+   * Runs the task on an idle thread, preferring the threads that last ran the same vertex or
+   * query.
+   * @throws RejectedExecutionException If no thread is idle, or the pool is shut down.
+   */
+  public <T> ListenableFuture<T> submit(Callable<T> task, Object queryKey, String vertexName) {
+    ListenableFutureTask<T> future = ListenableFutureTask.create(task);
+    dispatch(future, queryKey, vertexName);
+    return future;
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    dispatch(command, null, null);
+  }
+
+  private void dispatch(Runnable command, Object queryKey, String vertexName) {
+    Worker worker;
+    synchronized (this) {
+      if (isShutdown) {
+        throw new RejectedExecutionException("The executor pool is shut down");
+      }
+      worker = takeIdleWorker(queryKey, vertexName);
+      if (worker == null) {
+        throw new RejectedExecutionException("No idle executor thread for " + command);
+      }
+      worker.lastQueryKey = queryKey;
+      worker.lastVertexName = vertexName;
+      ++tasksRun;
+    }
+    worker.handOff(command);
+  }
+
+  /** Assumes the lock is taken. */
+  private Worker takeIdleWorker(Object queryKey, String vertexName) {
+    Worker sameQuery = null;
+    if (queryKey != null) {
+      for (Iterator<Worker> iter = idleWorkers.iterator(); iter.hasNext(); ) {
+        Worker worker = iter.next();
+        if (!queryKey.equals(worker.lastQueryKey)) continue;
+        if (Objects.equals(vertexName, worker.lastVertexName)) {
+          iter.remove();
+          ++affinityHits;
+          return worker;
+        }
+        if (sameQuery == null) {
+          sameQuery = worker;
+        }
+      }
+    }
+    if (sameQuery != null) {
+      idleWorkers.remove(sameQuery);
+      ++queryAffinityHits;
+      return sameQuery;
+    }
+    return idleWorkers.pollFirst();
+  }
+
+  private synchronized void returnIdleWorker(Worker worker) {
+    idleWorkers.addFirst(worker);
+  }
+
+  @VisibleForTesting
+  synchronized int getIdleThreadCount() {
+    return idleWorkers.size();
+  }
+
+  @Override
+  public void shutdown() {
+    Worker[] idle;
+    synchronized (this) {
+      if (isShutdown) return;
+      isShutdown = true;
+      idle = idleWorkers.toArray(new Worker[idleWorkers.size()]);
+      idleWorkers.clear();
+      LOG.info("Shutting down the executor pool; ran {} tasks, {} on a thread that last ran the"
+          + " same vertex and {} on one that last ran the same query", tasksRun, affinityHits,
+          queryAffinityHits);
+    }
+    for (Worker worker : idle) {
+      worker.handOff(null);
+    }
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    shutdown();
+    for (Worker worker : workers) {
+      worker.thread.interrupt();
+    }
+    return Collections.emptyList();
+  }
+
+  @Override
+  public synchronized boolean isShutdown() {
+    return isShutdown;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    if (!isShutdown()) return false;
+    for (Worker worker : workers) {
+      if (worker.thread.isAlive()) return false;
+    }
+    return true;
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (Worker worker : workers) {
+      long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+      if (remainingMs <= 0) return isTerminated();
+      worker.thread.join(remainingMs);
+    }
+    return isTerminated();
+  }
+
+  private final class Worker implements Runnable {
+    private Thread thread;
+    /** The keys of the last task this worker ran. Guarded by the lock of the pool. */
+    private Object lastQueryKey;
+    private String lastVertexName;
+    /** The task handed off to this worker. Guarded by this. */
+    private Runnable next;
+    private boolean isStopped = false;
+
+    synchronized void handOff(Runnable command) {
+      if (command == null) {
+        isStopped = true;
+      } else {
+        next = command;
+      }
+      notify();
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        Runnable command;
+        synchronized (this) {
+          while (next == null && !isStopped) {
+            try {
+              wait();
+            } catch (InterruptedException e) {
+              // Interrupted by shutdownNow while idle, or by a task killed right after it ended.
+              if (isShutdown()) {
+                return;
+              }
+            }
+          }
+          if (next == null) return;
+          command = next;
+          next = null;
+        }
+        try {
+          command.run();
+        } catch (Throwable t) {
+          // The futures of the tasks capture their failures; this is for execute().
+          LOG.error("Uncaught exception in " + thread.getName(), t);
+        }
+        // Clear an interrupt meant for the task that ended, so it does not affect the next one.
+        Thread.interrupted();
+        synchronized (AffinityExecutorPool.this) {
+          if (isShutdown) return;
+          returnIdleWorker(this);
+        }
+      }
+    }
+  }
+}
@@ -143,7 +143,8 @@ public ContainerRunnerImpl(Configuration conf, int numExecutors, int waitQueueSi
     String waitQueueSchedulerClassName = HiveConf.getVar(
         conf, ConfVars.LLAP_DAEMON_WAIT_QUEUE_COMPARATOR_CLASS_NAME);
     this.executorService = new TaskExecutorService(numExecutors, waitQueueSize,
-        waitQueueSchedulerClassName, enablePreemption, classLoader, metrics, null);
+        waitQueueSchedulerClassName, enablePreemption, classLoader, metrics, null,
+        HiveConf.getBoolVar(conf, ConfVars.LLAP_DAEMON_TASK_SCHEDULER_AFFINITY));
     completionListener = (SchedulerFragmentCompletingListener) executorService;
 
     addIfService(executorService);
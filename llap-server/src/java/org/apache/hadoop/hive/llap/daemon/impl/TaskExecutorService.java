@@ -30,6 +30,7 @@
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -42,6 +43,8 @@
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.hadoop.hive.llap.counters.FragmentCountersMap;
@@ -111,7 +114,8 @@ public class TaskExecutorService extends AbstractService
   @VisibleForTesting
   final BlockingQueue<TaskWrapper> preemptionQueue;
   private final boolean enablePreemption;
-  private final ThreadPoolExecutor threadPoolExecutor;
+  /** The executor threads chosen by affinity; null if they are in a regular thread pool. */
+  private final AffinityExecutorPool affinityExecutorPool;
   private final AtomicInteger numSlotsAvailable;
   private final int maxParallelExecutors;
   private final Clock clock;
@@ -132,29 +136,59 @@ public class TaskExecutorService extends AbstractService
    */
   final ConcurrentMap<String, TaskWrapper> knownTasks = new ConcurrentHashMap<>();
 
-  private final Object lock = new Object();
+  /**
+   * The epic lock. The scheduler thread waits on workAvailable for something to change; the
+   * threads that change something only take the lock to wake it up when it is actually waiting.
+   */
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition workAvailable = lock.newCondition();
+  private final AtomicBoolean isWorkPending = new AtomicBoolean(false);
+  private volatile boolean isWorkerWaiting = false;
+  /**
+   * Finishable state updates that have yet to be applied to the queues. The updates that come in
+   * concurrently are applied together by whichever thread gets the lock first.
+   */
+  private final ConcurrentLinkedQueue<FinishableStateUpdate> pendingStateUpdates =
+      new ConcurrentLinkedQueue<>();
   private final LlapDaemonExecutorMetrics metrics;
 
   public TaskExecutorService(int numExecutors, int waitQueueSize,
       String waitQueueComparatorClassName, boolean enablePreemption,
       ClassLoader classLoader, final LlapDaemonExecutorMetrics metrics, Clock clock) {
+    this(numExecutors, waitQueueSize, waitQueueComparatorClassName, enablePreemption,
+        classLoader, metrics, clock, false);
+  }
+
+  public TaskExecutorService(int numExecutors, int waitQueueSize,
+      String waitQueueComparatorClassName, boolean enablePreemption,
+      ClassLoader classLoader, final LlapDaemonExecutorMetrics metrics, Clock clock,
+      boolean enableAffinity) {
     super(TaskExecutorService.class.getSimpleName());
     LOG.info("TaskExecutorService is being setup with parameters: "
         + "numExecutors=" + numExecutors
         + ", waitQueueSize=" + waitQueueSize
         + ", waitQueueComparatorClassName=" + waitQueueComparatorClassName
-        + ", enablePreemption=" + enablePreemption);
+        + ", enablePreemption=" + enablePreemption
+        + ", enableAffinity=" + enableAffinity);
 
     final LlapQueueComparatorBase waitQueueComparator = createComparator(
         waitQueueComparatorClassName);
     this.maxParallelExecutors = numExecutors;
     this.waitQueue = new EvictingPriorityBlockingQueue<>(waitQueueComparator, waitQueueSize);
     this.clock = clock == null ? new MonotonicClock() : clock;
-    this.threadPoolExecutor = new ThreadPoolExecutor(numExecutors, // core pool size
-        numExecutors, // max pool size
-        1, TimeUnit.MINUTES, new SynchronousQueue<Runnable>(), // direct hand-off
-        new ExecutorThreadFactory(classLoader));
-    this.executorService = MoreExecutors.listeningDecorator(threadPoolExecutor);
+    if (enableAffinity) {
+      this.affinityExecutorPool = new AffinityExecutorPool(
+          numExecutors, new ExecutorThreadFactory(classLoader));
+      this.executorService = affinityExecutorPool;
+    } else {
+      this.affinityExecutorPool = null;
+      ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+          numExecutors, // core pool size
+          numExecutors, // max pool size
+          1, TimeUnit.MINUTES, new SynchronousQueue<Runnable>(), // direct hand-off
+          new ExecutorThreadFactory(classLoader));
+      this.executorService = MoreExecutors.listeningDecorator(threadPoolExecutor);
+    }
     this.preemptionQueue = new PriorityBlockingQueue<>(numExecutors,
         new PreemptionQueueComparator());
     this.enablePreemption = enablePreemption;
@@ -334,13 +368,15 @@ public void run() {
             sc = sanityCheckQueue(sc);
             nextSanityCheck = null;
           }
-          synchronized (lock) {
+          lock.lock();
+          try {
+            applyPendingStateUpdates();
             // Since schedule() can be called from multiple threads, we peek the wait queue, try
             // scheduling the task and then remove the task if scheduling is successful. This
             // will make sure the task's place in the wait queue is held until it gets scheduled.
             task = waitQueue.peek();
             if (task == null) {
-              waitOnLock();
+              waitForWork();
               continue;
             }
             // If the task cannot finish and if no slots are available then don't schedule it.
@@ -359,7 +395,7 @@ public void run() {
               shouldWait = shouldWait && !canKill;
             }
             if (shouldWait) {
-              waitOnLock();
+              waitForWork();
               // Another task at a higher priority may have come in during the wait. Lookup the
               // queue again to pick up the task at the highest priority.
               continue;
@@ -378,7 +414,9 @@ public void run() {
             } catch (RejectedExecutionException e) {
               rejectedException = e;
             }
-          } // synchronized (lock)
+          } finally {
+            lock.unlock();
+          }
 
           // Handle the rejection outside of the lock
           if (rejectedException != null) {
@@ -386,8 +424,11 @@ public void run() {
                 && (clock.getTime() - lastKillTimeMs) < PREEMPTION_KILL_GRACE_MS) {
               // We killed something, but still got rejected. Wait a bit to give a chance to our
               // previous victim to actually die.
-              synchronized (lock) {
-                lock.wait(PREEMPTION_KILL_GRACE_SLEEP_MS);
+              lock.lock();
+              try {
+                awaitWork(PREEMPTION_KILL_GRACE_SLEEP_MS);
+              } finally {
+                lock.unlock();
               }
             } else {
               if (LOG.isDebugEnabled() && lastKillTimeMs != null) {
@@ -410,10 +451,42 @@ public void run() {
       }
     }
 
-    private void waitOnLock() throws InterruptedException {
+    private void waitForWork() throws InterruptedException {
       if (isShutdown.get()) return;
       nextSanityCheck = System.nanoTime() + SANITY_CHECK_TIMEOUT_MS * 1000000L;
-      lock.wait(SANITY_CHECK_TIMEOUT_MS);
+      awaitWork(SANITY_CHECK_TIMEOUT_MS);
+    }
+  }
+
+  /**
+   * Waits under the lock until signalWorker is called, or the timeout. Returns right away if it
+   * has been called since the last wait.
+   */
+  private void awaitWork(long timeoutMs) throws InterruptedException {
+    isWorkerWaiting = true;
+    try {
+      // Checked after announcing the wait; signalWorker sets the flag before checking whether
+      // anyone waits, so either we see the flag here or it takes the lock to signal us.
+      if (isWorkPending.getAndSet(false)) return;
+      workAvailable.await(timeoutMs, TimeUnit.MILLISECONDS);
+    } finally {
+      isWorkerWaiting = false;
+    }
+    isWorkPending.set(false);
+  }
+
+  /**
+   * Wakes up the scheduler thread; only takes the lock if the scheduler is waiting, so that the
+   * submissions and completions do not contend on it while the scheduler is busy.
+   */
+  private void signalWorker() {
+    isWorkPending.set(true);
+    if (!isWorkerWaiting) return;
+    lock.lock();
+    try {
+      workAvailable.signalAll();
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -443,7 +516,8 @@ public SubmissionState schedule(TaskRunnerCallable task) {
     SubmissionState result;
     TaskWrapper evictedTask;
     boolean canFinish;
-    synchronized (lock) {
+    lock.lock();
+    try {
       // If the queue does not have capacity, it does not throw a Rejection. Instead it will
       // return the task with the lowest priority, which could be the task which is currently being processed.
 
@@ -509,6 +583,8 @@ public SubmissionState schedule(TaskRunnerCallable task) {
         }
         finishableStateUpdated(taskWrapper, !canFinish);
       }
+    } finally {
+      lock.unlock();
     }
 
     // At this point, the task has been added into the queue. It may have caused an eviction for
@@ -540,9 +616,7 @@ public SubmissionState schedule(TaskRunnerCallable task) {
         metrics.incrTotalEvictedFromWaitQueue();
       }
     }
-    synchronized (lock) {
-      lock.notifyAll();
-    }
+    signalWorker();
 
     if (metrics != null) {
       metrics.setExecutorNumQueuedRequests(waitQueue.size());
@@ -552,7 +626,8 @@ public SubmissionState schedule(TaskRunnerCallable task) {
 
   @Override
   public boolean updateFragment(String fragmentId, boolean isGuaranteed) {
-    synchronized (lock) {
+    lock.lock();
+    try {
       TaskWrapper taskWrapper = knownTasks.get(fragmentId);
       if (taskWrapper == null) {
         LOG.debug("Fragment not found {}", fragmentId);
@@ -582,9 +657,11 @@ public boolean updateFragment(String fragmentId, boolean isGuaranteed) {
           addToPreemptionQueue(taskWrapper);
         }
       }
-      lock.notifyAll();
-      return true;
+    } finally {
+      lock.unlock();
     }
+    signalWorker();
+    return true;
   }
 
   private void forceReinsertIntoQueue(TaskWrapper taskWrapper, boolean isRemoved) {
@@ -597,16 +674,20 @@ private void forceReinsertIntoQueue(TaskWrapper taskWrapper, boolean isRemoved)
 
   @Override
   public QueryIdentifier findQueryByFragment(String fragmentId) {
-    synchronized (lock) {
+    lock.lock();
+    try {
       TaskWrapper taskWrapper = knownTasks.get(fragmentId);
       return taskWrapper == null ? null : taskWrapper.getTaskRunnerCallable()
           .getFragmentInfo().getQueryInfo().getQueryIdentifier();
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public void killFragment(String fragmentId) {
-    synchronized (lock) {
+    lock.lock();
+    try {
       TaskWrapper taskWrapper = knownTasks.remove(fragmentId);
       // Can be null since the task may have completed meanwhile.
       if (taskWrapper != null) {
@@ -634,8 +715,10 @@ public void killFragment(String fragmentId) {
       } else {
         LOG.info("Ignoring killFragment request for {} since it isn't known", fragmentId);
       }
-      lock.notifyAll();
+    } finally {
+      lock.unlock();
     }
+    signalWorker();
   }
 
   private static final class FragmentCompletion {
@@ -681,7 +764,14 @@ void tryScheduleUnderLock(final TaskWrapper taskWrapper) throws RejectedExecutio
     }
     TaskRunnerCallable task = taskWrapper.getTaskRunnerCallable();
     task.setWmCountersRunning();
-    ListenableFuture<TaskRunner2Result> future = executorService.submit(task);
+    ListenableFuture<TaskRunner2Result> future;
+    QueryFragmentInfo fragmentInfo = task.getFragmentInfo();
+    if (affinityExecutorPool != null && fragmentInfo != null) {
+      future = affinityExecutorPool.submit(task,
+          fragmentInfo.getQueryInfo().getQueryIdentifier(), fragmentInfo.getVertexName());
+    } else {
+      future = executorService.submit(task);
+    }
     runningFragmentCount.incrementAndGet();
     taskWrapper.setIsInWaitQueue(false);
 
@@ -792,41 +882,80 @@ private SanityChecker sanityCheckQueue(SanityChecker sc) {
     return sc;
   }
 
+  private static final class FinishableStateUpdate {
+    final TaskWrapper taskWrapper;
+    final boolean newFinishableState;
+
+    FinishableStateUpdate(TaskWrapper taskWrapper, boolean newFinishableState) {
+      this.taskWrapper = taskWrapper;
+      this.newFinishableState = newFinishableState;
+    }
+  }
+
+  /**
+   * Queues the update and applies it, along with any other updates queued concurrently, under
+   * a single acquisition of the lock; the scheduler is woken up once for the whole batch. The
+   * update has been applied by the time this returns.
+   */
   private void finishableStateUpdated(TaskWrapper taskWrapper, boolean newFinishableState) {
-    synchronized (lock) {
-      LOG.debug("Fragment {} guaranteed state changed to {}; finishable {}, in wait queue {}, "
-          + "in preemption queue {}", taskWrapper.getRequestId(), taskWrapper.isGuaranteed(),
-          newFinishableState, taskWrapper.isInWaitQueue(), taskWrapper.isInPreemptionQueue());
-      // Do the removal before we change the element, to avoid invalid queue ordering.
-      if (newFinishableState && taskWrapper.isInPreemptionQueue() && taskWrapper.isGuaranteed()) {
-        removeFromPreemptionQueue(taskWrapper);
-      }
-      if (taskWrapper.isInWaitQueue()) {
-        // Re-order the wait queue. Note: we assume that noone will take our capacity based
-        // on the fact that we are doing this under the epic lock. If the epic lock is removed,
-        // we'd need to do the steps under the queue lock; we could pass in a f() to update state.
-        boolean isRemoved = waitQueue.remove(taskWrapper);
-        taskWrapper.updateCanFinishForPriority(newFinishableState);
-        forceReinsertIntoQueue(taskWrapper, isRemoved);
-      } else {
-        taskWrapper.updateCanFinishForPriority(newFinishableState);
-        if (!newFinishableState && !taskWrapper.isInPreemptionQueue()) {
-          // No need to check guaranteed here; if it was false we would already be in the queue.
-          addToPreemptionQueue(taskWrapper);
-        }
-      }
+    pendingStateUpdates.add(new FinishableStateUpdate(taskWrapper, newFinishableState));
+    int applied;
+    lock.lock();
+    try {
+      applied = applyPendingStateUpdates();
+    } finally {
+      lock.unlock();
+    }
+    if (applied > 0) {
+      signalWorker();
+    }
+  }
+
+  /** Assumes the epic lock is already taken. Updates are applied in the order they came in. */
+  private int applyPendingStateUpdates() {
+    int applied = 0;
+    FinishableStateUpdate update;
+    while ((update = pendingStateUpdates.poll()) != null) {
+      applyFinishableStateUpdate(update.taskWrapper, update.newFinishableState);
+      ++applied;
+    }
+    return applied;
+  }
 
-      lock.notifyAll();
+  private void applyFinishableStateUpdate(TaskWrapper taskWrapper, boolean newFinishableState) {
+    LOG.debug("Fragment {} guaranteed state changed to {}; finishable {}, in wait queue {}, "
+        + "in preemption queue {}", taskWrapper.getRequestId(), taskWrapper.isGuaranteed(),
+        newFinishableState, taskWrapper.isInWaitQueue(), taskWrapper.isInPreemptionQueue());
+    // Do the removal before we change the element, to avoid invalid queue ordering.
+    if (newFinishableState && taskWrapper.isInPreemptionQueue() && taskWrapper.isGuaranteed()) {
+      removeFromPreemptionQueue(taskWrapper);
+    }
+    if (taskWrapper.isInWaitQueue()) {
+      // Re-order the wait queue. Note: we assume that noone will take our capacity based
+      // on the fact that we are doing this under the epic lock. If the epic lock is removed,
+      // we'd need to do the steps under the queue lock; we could pass in a f() to update state.
+      boolean isRemoved = waitQueue.remove(taskWrapper);
+      taskWrapper.updateCanFinishForPriority(newFinishableState);
+      forceReinsertIntoQueue(taskWrapper, isRemoved);
+    } else {
+      taskWrapper.updateCanFinishForPriority(newFinishableState);
+      if (!newFinishableState && !taskWrapper.isInPreemptionQueue()) {
+        // No need to check guaranteed here; if it was false we would already be in the queue.
+        addToPreemptionQueue(taskWrapper);
+      }
     }
   }
 
   private void addToPreemptionQueue(TaskWrapper taskWrapper) {
-    synchronized (lock) {
+    lock.lock();
+    try {
       insertIntoPreemptionQueueOrFailUnlocked(taskWrapper);
       taskWrapper.setIsInPreemptableQueue(true);
       if (metrics != null) {
         metrics.setExecutorNumPreemptableRequests(preemptionQueue.size());
       }
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -845,8 +974,11 @@ private void insertIntoPreemptionQueueOrFailUnlocked(TaskWrapper taskWrapper) {
    * @return true if the element existed in the queue and wasa removed, false otherwise
    */
   private boolean removeFromPreemptionQueue(TaskWrapper taskWrapper) {
-    synchronized (lock) {
+    lock.lock();
+    try {
       return removeFromPreemptionQueueUnlocked(taskWrapper);
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -862,7 +994,8 @@ private boolean removeFromPreemptionQueueUnlocked(
 
   private TaskWrapper getSuitableVictimFromPreemptionQueue(TaskWrapper candidate) {
     TaskWrapper taskWrapper;
-    synchronized (lock) {
+    lock.lock();
+    try {
       taskWrapper = preemptionQueue.poll();
       // Note that the code updating the state of the task does it when it's out of the queue.
       // So, the priorities in the queue should be correct; if the top task is not killable then
@@ -878,6 +1011,8 @@ private TaskWrapper getSuitableVictimFromPreemptionQueue(TaskWrapper candidate)
         metrics.setExecutorNumPreemptableRequests(preemptionQueue.size());
       }
       return taskWrapper;
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -972,10 +1107,8 @@ private void updatePreemptionListAndNotify(EndReason reason) {
           taskWrapper.getRequestId(), waitQueue.size(), numSlotsAvailable.get(),
           preemptionQueue.size());
       }
-      synchronized (lock) {
-        if (!waitQueue.isEmpty()) {
-          lock.notifyAll();
-        }
+      if (!waitQueue.isEmpty()) {
+        signalWorker();
       }
     }
 
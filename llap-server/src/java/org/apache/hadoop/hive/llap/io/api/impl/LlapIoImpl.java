@@ -45,14 +45,17 @@
 import org.apache.hadoop.hive.llap.cache.BufferUsageManager;
 import org.apache.hadoop.hive.llap.cache.CacheContentsTracker;
 import org.apache.hadoop.hive.llap.cache.EvictionDispatcher;
+import org.apache.hadoop.hive.llap.cache.LlapCacheCheckpoint;
 import org.apache.hadoop.hive.llap.cache.LlapDataBuffer;
 import org.apache.hadoop.hive.llap.cache.LlapOomDebugDump;
 import org.apache.hadoop.hive.llap.cache.LowLevelCache;
+import org.apache.hadoop.hive.llap.cache.LowLevelCacheAdmissionFilter;
 import org.apache.hadoop.hive.llap.cache.LowLevelCacheImpl;
 import org.apache.hadoop.hive.llap.cache.LowLevelCacheMemoryManager;
 import org.apache.hadoop.hive.llap.cache.LowLevelCachePolicy;
 import org.apache.hadoop.hive.llap.cache.LowLevelFifoCachePolicy;
 import org.apache.hadoop.hive.llap.cache.LowLevelLrfuCachePolicy;
+import org.apache.hadoop.hive.llap.cache.LowLevelShardedLrfuCachePolicy;
 import org.apache.hadoop.hive.llap.cache.SerDeLowLevelCacheImpl;
 import org.apache.hadoop.hive.llap.cache.SimpleAllocator;
 import org.apache.hadoop.hive.llap.cache.SimpleBufferManager;
@@ -61,6 +64,7 @@
 import org.apache.hadoop.hive.llap.io.decode.ColumnVectorProducer;
 import org.apache.hadoop.hive.llap.io.decode.GenericColumnVectorProducer;
 import org.apache.hadoop.hive.llap.io.decode.OrcColumnVectorProducer;
+import org.apache.hadoop.hive.llap.io.encoded.ReadAheadPool;
 import org.apache.hadoop.hive.llap.io.metadata.MetadataCache;
 import org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheMetrics;
 import org.apache.hadoop.hive.llap.metrics.LlapDaemonIOMetrics;
@@ -91,6 +95,7 @@ public class LlapIoImpl implements LlapIo<VectorizedRowBatch> {
   // TODO: later, we may have a map
   private final ColumnVectorProducer orcCvp, genericCvp;
   private final ExecutorService executor;
+  private final ReadAheadPool readAheadPool;
   private final LlapDaemonCacheMetrics cacheMetrics;
   private final LlapDaemonIOMetrics ioMetrics;
   private ObjectName buddyAllocatorMXBean;
@@ -101,6 +106,9 @@ public class LlapIoImpl implements LlapIo<VectorizedRowBatch> {
   private final BufferUsageManager bufferManager;
   private final Configuration daemonConf;
   private final LowLevelCacheMemoryManager memoryManager;
+  private final LlapCacheCheckpoint cacheCheckpoint;
+  private final LowLevelCacheImpl checkpointDataCache;
+  private final MetadataCache checkpointMetadataCache;
 
 
   private LlapIoImpl(Configuration conf) throws IOException {
@@ -141,8 +149,15 @@ private LlapIoImpl(Configuration conf) throws IOException {
       boolean useLrfu = HiveConf.getBoolVar(conf, HiveConf.ConfVars.LLAP_USE_LRFU);
       long totalMemorySize = HiveConf.getSizeVar(conf, ConfVars.LLAP_IO_MEMORY_MAX_SIZE);
       int minAllocSize = (int)HiveConf.getSizeVar(conf, ConfVars.LLAP_ALLOCATOR_MIN_ALLOC);
-      LowLevelCachePolicy cp = useLrfu ? new LowLevelLrfuCachePolicy(
-          minAllocSize, totalMemorySize, conf) : new LowLevelFifoCachePolicy();
+      int lrfuShards = HiveConf.getIntVar(conf, ConfVars.LLAP_LRFU_SHARDS);
+      LowLevelCachePolicy cp;
+      if (!useLrfu) {
+        cp = new LowLevelFifoCachePolicy();
+      } else if (lrfuShards > 1) {
+        cp = new LowLevelShardedLrfuCachePolicy(minAllocSize, totalMemorySize, lrfuShards, conf);
+      } else {
+        cp = new LowLevelLrfuCachePolicy(minAllocSize, totalMemorySize, conf);
+      }
       boolean trackUsage = HiveConf.getBoolVar(conf, HiveConf.ConfVars.LLAP_TRACK_CACHE_USAGE);
       LowLevelCachePolicy cachePolicyWrapper;
       if (trackUsage) {
@@ -160,6 +175,12 @@ private LlapIoImpl(Configuration conf) throws IOException {
       this.memoryDump = allocator;
       LowLevelCacheImpl cacheImpl = new LowLevelCacheImpl(
           cacheMetrics, cachePolicyWrapper, allocator, true);
+      int admissionFrequency = HiveConf.getIntVar(
+          conf, ConfVars.LLAP_IO_CACHE_ADMISSION_MIN_FREQUENCY);
+      if (admissionFrequency > 1) {
+        cacheImpl.setAdmissionFilter(new LowLevelCacheAdmissionFilter(
+            admissionFrequency, totalMemorySize / minAllocSize));
+      }
       dataCache = cacheImpl;
       if (isEncodeEnabled) {
         SerDeLowLevelCacheImpl serdeCacheImpl = new SerDeLowLevelCacheImpl(
@@ -177,6 +198,16 @@ private LlapIoImpl(Configuration conf) throws IOException {
       cachePolicyWrapper.setEvictionListener(e);
       cachePolicyWrapper.setParentDebugDumper(e);
 
+      String checkpointPath = HiveConf.getVar(conf, ConfVars.LLAP_IO_CACHE_CHECKPOINT_PATH);
+      if (!checkpointPath.isEmpty()) {
+        cacheCheckpoint = new LlapCacheCheckpoint(checkpointPath, conf);
+        cacheCheckpoint.load(cacheImpl, metadataCache);
+      } else {
+        cacheCheckpoint = null;
+      }
+      checkpointDataCache = cacheImpl;
+      checkpointMetadataCache = metadataCache;
+
       cacheImpl.startThreads(); // Start the cache threads.
       bufferManager = bufferManagerOrc = cacheImpl; // Cache also serves as buffer manager.
       bufferManagerGeneric = serdeCache;
@@ -188,16 +219,22 @@ private LlapIoImpl(Configuration conf) throws IOException {
       bufferManager = bufferManagerOrc = bufferManagerGeneric = sbm;
       dataCache = sbm;
       this.memoryManager = null;
+      cacheCheckpoint = null;
+      checkpointDataCache = null;
+      checkpointMetadataCache = null;
     }
     // IO thread pool. Listening is used for unhandled errors for now (TODO: remove?)
     int numThreads = HiveConf.getIntVar(conf, HiveConf.ConfVars.LLAP_IO_THREADPOOL_SIZE);
     executor = new StatsRecordingThreadPool(numThreads, numThreads, 0L, TimeUnit.MILLISECONDS,
         new LinkedBlockingQueue<Runnable>(),
         new ThreadFactoryBuilder().setNameFormat("IO-Elevator-Thread-%d").setDaemon(true).build());
+    int readAheadThreads = HiveConf.getIntVar(conf, ConfVars.LLAP_IO_READ_AHEAD_THREADS);
+    readAheadPool = (readAheadThreads <= 0) ? null : new ReadAheadPool(readAheadThreads,
+        HiveConf.getSizeVar(conf, ConfVars.LLAP_IO_READ_AHEAD_MAX_SIZE), ioMetrics);
     FixedSizedObjectPool<IoTrace> tracePool = IoTrace.createTracePool(conf);
     // TODO: this should depends on input format and be in a map, or something.
-    this.orcCvp = new OrcColumnVectorProducer(
-        metadataCache, dataCache, bufferManagerOrc, conf, cacheMetrics, ioMetrics, tracePool);
+    this.orcCvp = new OrcColumnVectorProducer(metadataCache, dataCache, bufferManagerOrc, conf,
+        cacheMetrics, ioMetrics, tracePool, readAheadPool);
     this.genericCvp = isEncodeEnabled ? new GenericColumnVectorProducer(
         serdeCache, bufferManagerGeneric, conf, cacheMetrics, ioMetrics, tracePool) : null;
     LOG.info("LLAP IO initialized");
@@ -246,6 +283,12 @@ public void close() {
       buddyAllocatorMXBean = null;
     }
     executor.shutdownNow();
+    if (readAheadPool != null) {
+      readAheadPool.shutdown();
+    }
+    if (cacheCheckpoint != null) {
+      cacheCheckpoint.save(checkpointDataCache, checkpointMetadataCache);
+    }
   }
 
 
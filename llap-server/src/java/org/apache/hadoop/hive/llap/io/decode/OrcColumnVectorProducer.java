@@ -33,6 +33,7 @@
 import org.apache.hadoop.hive.llap.io.api.impl.ColumnVectorBatch;
 import org.apache.hadoop.hive.llap.io.api.impl.LlapIoImpl;
 import org.apache.hadoop.hive.llap.io.encoded.OrcEncodedDataReader;
+import org.apache.hadoop.hive.llap.io.encoded.ReadAheadPool;
 import org.apache.hadoop.hive.llap.io.metadata.MetadataCache;
 import org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheMetrics;
 import org.apache.hadoop.hive.llap.metrics.LlapDaemonIOMetrics;
@@ -62,11 +63,12 @@ public class OrcColumnVectorProducer implements ColumnVectorProducer {
   // TODO: if using in multiple places, e.g. SerDe cache, pass this in.
   // TODO: should this rather use a threadlocal for NUMA affinity?
   private final FixedSizedObjectPool<IoTrace> tracePool;
+  private final ReadAheadPool readAheadPool;
 
   public OrcColumnVectorProducer(MetadataCache metadataCache,
       LowLevelCache lowLevelCache, BufferUsageManager bufferManager,
       Configuration conf, LlapDaemonCacheMetrics cacheMetrics, LlapDaemonIOMetrics ioMetrics,
-      FixedSizedObjectPool<IoTrace> tracePool) {
+      FixedSizedObjectPool<IoTrace> tracePool, ReadAheadPool readAheadPool) {
     LlapIoImpl.LOG.info("Initializing ORC column vector producer");
 
     this.metadataCache = metadataCache;
@@ -77,6 +79,7 @@ public OrcColumnVectorProducer(MetadataCache metadataCache,
     this.cacheMetrics = cacheMetrics;
     this.ioMetrics = ioMetrics;
     this.tracePool = tracePool;
+    this.readAheadPool = readAheadPool;
   }
 
   public Configuration getConf() {
@@ -93,7 +96,8 @@ public ReadPipeline createReadPipeline(
     OrcEncodedDataConsumer edc = new OrcEncodedDataConsumer(
         consumer, includes, _skipCorrupt, counters, ioMetrics);
     OrcEncodedDataReader reader = new OrcEncodedDataReader(lowLevelCache, bufferManager,
-        metadataCache, conf, job, split, includes, sarg, edc, counters, sef, tracePool);
+        metadataCache, conf, job, split, includes, sarg, edc, counters, sef, tracePool,
+        readAheadPool, ioMetrics);
     edc.init(reader, reader, reader.getTrace());
     return edc;
   }
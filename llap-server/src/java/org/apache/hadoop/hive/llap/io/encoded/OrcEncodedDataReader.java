@@ -32,6 +32,8 @@
 import org.apache.hadoop.hive.common.io.Allocator;
 import org.apache.hadoop.hive.common.io.Allocator.BufferObjectFactory;
 import org.apache.hadoop.hive.common.io.DataCache;
+import org.apache.hadoop.hive.common.io.DataCache.BooleanRef;
+import org.apache.hadoop.hive.common.io.DataCache.DiskRangeListFactory;
 import org.apache.hadoop.hive.common.io.DiskRange;
 import org.apache.hadoop.hive.common.io.DiskRangeList;
 import org.apache.hadoop.hive.common.io.encoded.EncodedColumnBatch.ColumnStreamData;
@@ -51,15 +53,19 @@
 import org.apache.hadoop.hive.llap.io.decode.ColumnVectorProducer.Includes;
 import org.apache.hadoop.hive.llap.io.decode.ColumnVectorProducer.SchemaEvolutionFactory;
 import org.apache.hadoop.hive.llap.io.decode.OrcEncodedDataConsumer;
+import org.apache.hadoop.hive.llap.io.encoded.ReadAheadPool.ReadAhead;
 import org.apache.hadoop.hive.llap.io.metadata.MetadataCache;
 import org.apache.hadoop.hive.llap.io.metadata.MetadataCache.LlapBufferOrBuffers;
 import org.apache.hadoop.hive.llap.io.metadata.OrcFileMetadata;
 import org.apache.hadoop.hive.llap.io.metadata.OrcStripeMetadata;
+import org.apache.hadoop.hive.llap.metrics.LlapDaemonIOMetrics;
 import org.apache.hadoop.hive.ql.io.HdfsUtils;
 import org.apache.hadoop.hive.ql.io.orc.OrcFile;
 import org.apache.hadoop.hive.ql.io.orc.OrcFile.ReaderOptions;
 import org.apache.hadoop.hive.ql.io.orc.OrcSplit;
 import org.apache.hadoop.hive.ql.io.orc.RecordReaderImpl;
+import org.apache.hadoop.hive.ql.io.orc.RuntimeBloomFilterPruner;
+import org.apache.hadoop.hive.ql.io.orc.encoded.CacheChunk;
 import org.apache.hadoop.hive.ql.io.orc.encoded.EncodedOrcFile;
 import org.apache.hadoop.hive.ql.io.orc.encoded.EncodedReader;
 import org.apache.hadoop.hive.ql.io.orc.encoded.IoTrace;
@@ -92,6 +98,7 @@
 import org.apache.orc.impl.ReaderImpl;
 import org.apache.orc.impl.RecordReaderUtils;
 import org.apache.orc.impl.SchemaEvolution;
+import org.apache.orc.impl.StreamName;
 import org.apache.orc.impl.WriterImpl;
 import org.apache.tez.common.CallableWithNdc;
 import org.apache.tez.common.counters.TezCounters;
@@ -142,6 +149,12 @@ public Pool<OrcEncodedColumnBatch> createEncodedColumnBatchPool() {
       return ECB_POOL;
     }
   };
+  private final static DiskRangeListFactory CC_FACTORY = new DiskRangeListFactory() {
+    @Override
+    public DiskRangeList createCacheChunk(MemoryBuffer buffer, long offset, long end) {
+      return new CacheChunk(buffer, offset, end);
+    }
+  };
 
   private final MetadataCache metadataCache;
   private final LowLevelCache lowLevelCache;
@@ -149,11 +162,16 @@ public Pool<OrcEncodedColumnBatch> createEncodedColumnBatchPool() {
   private final Configuration daemonConf, jobConf;
   private final FileSplit split;
   private final SearchArgument sarg;
+  private final RuntimeBloomFilterPruner bloomFilterPruner;
   private final OrcEncodedDataConsumer consumer;
   private final QueryFragmentCounters counters;
   private final UserGroupInformation ugi;
   private final SchemaEvolution evolution;
   private final boolean useCodecPool, useObjectPools;
+  /** Whether the query asked not to add the data it reads to the cache. */
+  private final boolean isNoCache;
+  private final ReadAheadPool readAheadPool;
+  private final LlapDaemonIOMetrics ioMetrics;
 
   // Read state.
   private int stripeIxFrom;
@@ -167,6 +185,11 @@ public Pool<OrcEncodedColumnBatch> createEncodedColumnBatchPool() {
   private Object fileKey;
   private final String cacheTag;
   private FileSystem fs;
+  /** The data of the stripe being read, and of the next one, read ahead; null if not read ahead. */
+  private ReadAhead currentReadAhead, nextReadAhead;
+  private int nextReadAheadStripeIx = -1;
+  /** The footer of the stripe read ahead, if it had to be read for that. */
+  private OrcProto.StripeFooter nextReadAheadFooter;
 
   /**
    * stripeRgs[stripeIx'] => boolean array (could be a bitmask) of rg-s that need to be read.
@@ -178,14 +201,15 @@ public Pool<OrcEncodedColumnBatch> createEncodedColumnBatchPool() {
   private volatile boolean isPaused = false;
 
   boolean[] sargColumns = null, fileIncludes = null;
+  private int[] bloomFilterColumns = null;
   private final IoTrace trace;
   private Pool<IoTrace> tracePool;
 
   public OrcEncodedDataReader(LowLevelCache lowLevelCache, BufferUsageManager bufferManager,
       MetadataCache metadataCache, Configuration daemonConf, Configuration jobConf,
       FileSplit split, Includes includes, SearchArgument sarg, OrcEncodedDataConsumer consumer,
-      QueryFragmentCounters counters, SchemaEvolutionFactory sef, Pool<IoTrace> tracePool)
-          throws IOException {
+      QueryFragmentCounters counters, SchemaEvolutionFactory sef, Pool<IoTrace> tracePool,
+      ReadAheadPool readAheadPool, LlapDaemonIOMetrics ioMetrics) throws IOException {
     this.lowLevelCache = lowLevelCache;
     this.metadataCache = metadataCache;
     this.bufferManager = bufferManager;
@@ -196,6 +220,8 @@ public OrcEncodedDataReader(LowLevelCache lowLevelCache, BufferUsageManager buff
     this.counters = counters;
     this.trace = tracePool.take();
     this.tracePool = tracePool;
+    this.readAheadPool = readAheadPool;
+    this.ioMetrics = ioMetrics;
     try {
       this.ugi = UserGroupInformation.getCurrentUser();
     } catch (IOException e) {
@@ -203,6 +229,7 @@ public OrcEncodedDataReader(LowLevelCache lowLevelCache, BufferUsageManager buff
     }
     this.useCodecPool = HiveConf.getBoolVar(daemonConf, ConfVars.HIVE_ORC_CODEC_POOL);
     this.useObjectPools = HiveConf.getBoolVar(daemonConf, ConfVars.LLAP_IO_SHARE_OBJECT_POOLS);
+    this.isNoCache = HiveConf.getBoolVar(jobConf, ConfVars.LLAP_IO_NO_CACHE);
 
     // LlapInputFormat needs to know the file schema to decide if schema evolution is supported.
     orcReader = null;
@@ -231,6 +258,7 @@ public OrcEncodedDataReader(LowLevelCache lowLevelCache, BufferUsageManager buff
     this.jobConf = jobConf;
     // TODO: setFileMetadata could just create schema. Called in two places; clean up later.
     this.evolution = sef.createSchemaEvolution(fileMetadata.getSchema());
+    this.bloomFilterPruner = RuntimeBloomFilterPruner.createFromConf(jobConf);
     consumer.setUseDecimal64ColumnVectors(HiveConf.getVar(jobConf,
       ConfVars.HIVE_VECTORIZED_INPUT_FORMAT_SUPPORTS_ENABLED).equalsIgnoreCase("decimal_64"));
     consumer.setFileMetadata(fileMetadata);
@@ -299,18 +327,28 @@ protected Void performDataRead() throws IOException, InterruptedException {
     int stride = fileMetadata.getRowIndexStride();
     ArrayList<OrcStripeMetadata> stripeMetadatas = null;
     try {
-      if (sarg != null && stride != 0) {
+      if ((sarg != null || bloomFilterPruner != null) && stride != 0) {
         // TODO: move this to a common method
         // Note: this gets IDs by name, so we assume indices don't need to be adjusted for ACID.
-        int[] filterColumns = RecordReaderImpl.mapSargColumnsToOrcInternalColIdx(
-          sarg.getLeaves(), evolution);
         // included will not be null, row options will fill the array with trues if null
         sargColumns = new boolean[evolution.getFileSchema().getMaximumId() + 1];
-        for (int i : filterColumns) {
-          // filter columns may have -1 as index which could be partition column in SARG.
-          // TODO: should this then be >=?
-          if (i > 0) {
-            sargColumns[i] = true;
+        if (sarg != null) {
+          int[] filterColumns = RecordReaderImpl.mapSargColumnsToOrcInternalColIdx(
+            sarg.getLeaves(), evolution);
+          for (int i : filterColumns) {
+            // filter columns may have -1 as index which could be partition column in SARG.
+            // TODO: should this then be >=?
+            if (i > 0) {
+              sargColumns[i] = true;
+            }
+          }
+        }
+        if (bloomFilterPruner != null) {
+          bloomFilterColumns = bloomFilterPruner.mapColumns(evolution);
+          for (int i : bloomFilterColumns) {
+            if (i > 0) {
+              sargColumns[i] = true;
+            }
           }
         }
 
@@ -372,12 +410,26 @@ protected Void performDataRead() throws IOException, InterruptedException {
         // in EncodedReaderImpl, but for now it's not that important.
         if (rgs == RecordReaderImpl.SargApplier.READ_NO_RGS) continue;
 
+        // 6.1. Use the data read ahead for this stripe, if any.
+        OrcProto.StripeFooter footer = null;
+        if (nextReadAheadStripeIx == stripeIx) {
+          currentReadAhead = nextReadAhead;
+          footer = nextReadAheadFooter;
+        } else if (nextReadAhead != null) {
+          nextReadAhead.release();
+        }
+        nextReadAhead = null;
+        nextReadAheadFooter = null;
+        nextReadAheadStripeIx = -1;
+
         // 6.2. Ensure we have stripe metadata. We might have read it before for RG filtering.
         if (stripeMetadatas != null) {
           stripeMetadata = stripeMetadatas.get(stripeIxMod);
         } else {
           stripeKey.stripeIx = stripeIx;
-          OrcProto.StripeFooter footer = getStripeFooterFromCacheOrDisk(si, stripeKey);
+          if (footer == null) {
+            footer = getStripeFooterFromCacheOrDisk(si, stripeKey);
+          }
           stripeMetadata = createOrcStripeMetadataObject(
               stripeIx, si, footer, fileIncludes, sargColumns);
           ensureDataReader();
@@ -394,7 +446,15 @@ protected Void performDataRead() throws IOException, InterruptedException {
         return null;
       }
 
-      // 5.2. Finally, hand off to the stripe reader to produce the data.
+      // 6.3. Start reading the next stripe, to be decoded after this one.
+      try {
+        startReadAhead(stripeIxMod + 1, stripeMetadatas);
+      } catch (Throwable t) {
+        handleReaderError(startTime, t);
+        return null;
+      }
+
+      // 6.4. Finally, hand off to the stripe reader to produce the data.
       //      This is a sync call that will feed data to the consumer.
       try {
         // TODO: readEncodedColumns is not supposed to throw; errors should be propagated thru
@@ -408,6 +468,10 @@ protected Void performDataRead() throws IOException, InterruptedException {
         handleReaderError(startTime, t);
         return null;
       }
+      if (currentReadAhead != null) {
+        currentReadAhead.release();
+        currentReadAhead = null;
+      }
     }
 
     // Done with all the things.
@@ -421,6 +485,75 @@ protected Void performDataRead() throws IOException, InterruptedException {
     return null;
   }
 
+  /**
+   * Starts reading the data of the stripe ahead, if read-ahead is enabled. Only the stripes that
+   * are read in full are read ahead, and only their ranges that are not cached.
+   */
+  private void startReadAhead(int stripeIxMod, ArrayList<OrcStripeMetadata> stripeMetadatas)
+      throws IOException {
+    if (readAheadPool == null || stripeIxMod >= stripeRgs.length
+        || stripeRgs[stripeIxMod] != RecordReaderImpl.SargApplier.READ_ALL_RGS) {
+      return;
+    }
+    int stripeIx = stripeIxFrom + stripeIxMod;
+    StripeInformation si = fileMetadata.getStripes().get(stripeIx);
+    List<Stream> streams;
+    OrcProto.StripeFooter footer = null;
+    if (stripeMetadatas != null) {
+      streams = stripeMetadatas.get(stripeIxMod).getStreams();
+    } else {
+      OrcBatchKey stripeKey = (fileKey != null) ? new OrcBatchKey(fileKey, stripeIx, 0) : null;
+      footer = getStripeFooterFromCacheOrDisk(si, stripeKey);
+      streams = footer.getStreamsList();
+    }
+    DiskRangeList.CreateHelper listToRead = new DiskRangeList.CreateHelper();
+    long offset = 0;
+    for (Stream stream : streams) {
+      long length = stream.getLength();
+      int column = stream.getColumn();
+      if (length > 0 && StreamName.getArea(stream.getKind()) == StreamName.Area.DATA
+          && column < fileIncludes.length && fileIncludes[column]) {
+        listToRead.addOrMerge(offset, offset + length, true, false);
+      }
+      offset += length;
+    }
+    DiskRangeList toRead = listToRead.get();
+    if (toRead != null && fileKey != null) {
+      // Skip the data that is cached.
+      BooleanRef gotAllData = new BooleanRef();
+      DiskRangeList ranges = lowLevelCache.getFileData(
+          fileKey, toRead, si.getOffset(), CC_FACTORY, null, gotAllData);
+      listToRead = new DiskRangeList.CreateHelper();
+      for (DiskRangeList range = ranges; range != null; range = range.next) {
+        if (range instanceof CacheChunk) {
+          bufferManager.decRefBuffer(((CacheChunk) range).getBuffer());
+        } else if (!range.hasData()) {
+          listToRead.addOrMerge(range.getOffset(), range.getEnd(), true, false);
+        }
+      }
+      toRead = listToRead.get();
+    }
+    if (toRead == null) return;
+    ensureOrcReader();
+    nextReadAhead = readAheadPool.start(fs, path, ugi, toRead, si.getOffset(),
+        bufferManager.getAllocator().isDirectAlloc());
+    if (nextReadAhead != null) {
+      nextReadAheadStripeIx = stripeIx;
+      nextReadAheadFooter = footer;
+    }
+  }
+
+  private void releaseReadAheads() {
+    if (currentReadAhead != null) {
+      currentReadAhead.release();
+      currentReadAhead = null;
+    }
+    if (nextReadAhead != null) {
+      nextReadAhead.release();
+      nextReadAhead = null;
+    }
+  }
+
   private void handleReaderError(long startTime, Throwable t) throws InterruptedException {
     recordReaderTime(startTime);
     consumer.setError(t);
@@ -477,6 +610,7 @@ private static Object determineFileId(FileSystem fs, FileSplit split,
    * Closes the stripe readers (on error).
    */
   private void cleanupReaders() {
+    releaseReadAheads();
     if (stripeReader != null) {
       try {
         stripeReader.close();
@@ -784,6 +918,11 @@ private boolean determineRgsToRead(int rowIndexStride,
             stripeMetadata.getEncodings(),
             stripeMetadata.getBloomFilterIndexes(), true);
       }
+      if (bloomFilterColumns != null) {
+        // The runtime bloom filters of semijoin reduction are not part of the SARG.
+        rgsToRead = bloomFilterPruner.pickRowGroups(evolution.getFileSchema(),
+            metadata.get(stripeIxMod).getRowIndexes(), bloomFilterColumns, rgsToRead, rgCount);
+      }
       boolean isNone = rgsToRead == RecordReaderImpl.SargApplier.READ_NO_RGS,
           isAll = rgsToRead == RecordReaderImpl.SargApplier.READ_ALL_RGS;
       hasAnyData = hasAnyData || !isNone;
@@ -914,7 +1053,14 @@ public long[] putFileData(Object fileKey, DiskRange[] ranges,
     @Override
     public long[] putFileData(Object fileKey, DiskRange[] ranges,
         MemoryBuffer[] data, long baseOffset, String tag) {
-      if (data != null) {
+      if (data != null && isNoCache) {
+        // Lock the buffers as if they were cached; they are deallocated when released.
+        for (MemoryBuffer buffer : data) {
+          boolean isLocked = bufferManager.incRefBuffer(buffer);
+          assert isLocked;
+        }
+        return null;
+      } else if (data != null) {
         return lowLevelCache.putFileData(
             fileKey, ranges, data, baseOffset, Priority.NORMAL, counters, tag);
       } else if (metadataCache != null) {
@@ -947,9 +1093,22 @@ public void close() throws IOException {
     @Override
     public DiskRangeList readFileData(DiskRangeList range, long baseOffset,
         boolean doForceDirect) throws IOException {
-      long startTime = counters.startTimeCounter();
-      DiskRangeList result = orcDataReaderRef.readFileData(range, baseOffset, doForceDirect);
+      long startTime = counters.startTimeCounter(), waitStartTime = System.nanoTime();
+      DiskRangeList result = range;
+      if (currentReadAhead != null) {
+        try {
+          result = currentReadAhead.serve(result, baseOffset);
+        } catch (InterruptedException e) {
+          throw new IOException(e);
+        }
+      }
+      if (hasRangesToRead(result)) {
+        result = orcDataReaderRef.readFileData(result, baseOffset, doForceDirect);
+      }
       counters.recordHdfsTime(startTime);
+      if (ioMetrics != null) {
+        ioMetrics.addIoWaitTime(System.nanoTime() - waitStartTime);
+      }
       if (LlapIoImpl.ORC_LOGGER.isTraceEnabled()) {
         LlapIoImpl.ORC_LOGGER.trace("Disk ranges after disk read (file {}, base offset {}): {}",
             fileKey, baseOffset, RecordReaderUtils.stringifyDiskRanges(result));
@@ -958,6 +1117,13 @@ public DiskRangeList readFileData(DiskRangeList range, long baseOffset,
       return result;
     }
 
+    private boolean hasRangesToRead(DiskRangeList range) {
+      for (; range != null; range = range.next) {
+        if (!range.hasData()) return true;
+      }
+      return false;
+    }
+
     @Override
     public boolean isTrackingDiskRanges() {
       return orcDataReaderRef.isTrackingDiskRanges();
@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.llap.io.encoded;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.security.PrivilegedExceptionAction;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.io.DiskRangeList;
+import org.apache.hadoop.hive.llap.io.api.impl.LlapIoImpl;
+import org.apache.hadoop.hive.llap.metrics.LlapDaemonIOMetrics;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.orc.impl.BufferChunk;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import sun.misc.Cleaner;
+
+/**
+ * Daemon-wide pool that reads file data ahead of the encoded data readers, so that a fragment
+ * does not leave its decoding idle while it waits on the file system for the next stripe.
+ *
+ * The number of concurrent reads is bounded by the number of threads, and the memory that the
+ * data read ahead takes by a byte budget; the ranges that do not fit in the budget are not read
+ * ahead, and the reader reads them itself when it needs them. The data is read into buffers
+ * outside of the cache, and is handed to the reader in place of the disk ranges it covers.
+ * The budget is only returned once the read has stopped and its direct buffers are freed, so it
+ * also bounds the direct memory that read-ahead takes.
+ */
+public class ReadAheadPool {
+  /** The size of the heap buffer that data is read through into direct buffers. */
+  private static final int DIRECT_READ_CHUNK_SIZE = 64 * 1024;
+  private static Field cleanerField;
+  static {
+    try {
+      // TODO: To make it work for JDK9 use CleanerUtil from https://issues.apache.org/jira/browse/HADOOP-12760
+      final Class<?> dbClazz = Class.forName("java.nio.DirectByteBuffer");
+      cleanerField = dbClazz.getDeclaredField("cleaner");
+      cleanerField.setAccessible(true);
+    } catch (Throwable t) {
+      LlapIoImpl.LOG.warn("Cannot initialize DirectByteBuffer cleaner", t);
+      cleanerField = null;
+    }
+  }
+
+  private final ExecutorService executor;
+  private final long maxSize;
+  private final AtomicLong usedSize = new AtomicLong(0);
+  private final LlapDaemonIOMetrics ioMetrics;
+
+  public ReadAheadPool(int threadCount, long maxSize, LlapDaemonIOMetrics ioMetrics) {
+    this.executor = Executors.newFixedThreadPool(threadCount, new ThreadFactoryBuilder()
+        .setNameFormat("IO-Read-Ahead-Thread-%d").setDaemon(true).build());
+    this.maxSize = maxSize;
+    this.ioMetrics = ioMetrics;
+    LlapIoImpl.LOG.info("Read-ahead with {} threads and up to {} bytes", threadCount, maxSize);
+  }
+
+  /**
+   * Starts reading the ranges of a file.
+   * @param ranges The ranges to read, relative to baseOffset; sorted and not overlapping.
+   * @param isDirect Whether the data should be in direct buffers.
+   * @return The read, that must be released by the caller; null if it does not fit in the budget.
+   */
+  public ReadAhead start(FileSystem fs, Path path, UserGroupInformation ugi,
+      DiskRangeList ranges, long baseOffset, boolean isDirect) {
+    if (ranges == null) return null;
+    long size = ranges.getTotalLength();
+    long oldSize;
+    do {
+      oldSize = usedSize.get();
+      if (oldSize + size > maxSize) {
+        LlapIoImpl.LOG.debug("Not reading {} bytes of {} ahead; {} bytes are in use",
+            size, path, oldSize);
+        return null;
+      }
+    } while (!usedSize.compareAndSet(oldSize, oldSize + size));
+    ReadAhead result = new ReadAhead(fs, path, ugi, ranges, baseOffset, size, isDirect);
+    try {
+      result.future = executor.submit(result);
+    } catch (RejectedExecutionException e) {
+      // The pool is being shut down.
+      result.release();
+      return null;
+    }
+    return result;
+  }
+
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Data read ahead for one reader. Used by the thread of the reader, and by the pool thread
+   * that reads the data.
+   */
+  public final class ReadAhead implements Callable<Void> {
+    private final FileSystem fs;
+    private final Path path;
+    private final UserGroupInformation ugi;
+    /** The absolute file offsets of the ranges read ahead. */
+    private final long[] offsets, ends;
+    private final ByteBuffer[] data;
+    private final long size;
+    private final boolean isDirect;
+    private Future<Void> future;
+    private boolean isFailed = false;
+    private long servedSize = 0;
+    /** Guarded by this; whether the read has started, finished, and was released. */
+    private boolean isStarted = false, isDone = false, isReleased = false;
+
+    private ReadAhead(FileSystem fs, Path path, UserGroupInformation ugi, DiskRangeList ranges,
+        long baseOffset, long size, boolean isDirect) {
+      this.fs = fs;
+      this.path = path;
+      this.ugi = ugi;
+      this.size = size;
+      this.isDirect = isDirect;
+      int count = 0;
+      for (DiskRangeList range = ranges; range != null; range = range.next) {
+        ++count;
+      }
+      offsets = new long[count];
+      ends = new long[count];
+      data = new ByteBuffer[count];
+      int i = 0;
+      for (DiskRangeList range = ranges; range != null; range = range.next, ++i) {
+        offsets[i] = baseOffset + range.getOffset();
+        ends[i] = baseOffset + range.getEnd();
+      }
+    }
+
+    @Override
+    public Void call() throws Exception {
+      synchronized (this) {
+        if (isReleased) return null;
+        isStarted = true;
+      }
+      try {
+        return ugi.doAs(new PrivilegedExceptionAction<Void>() {
+          @Override
+          public Void run() throws Exception {
+            try (FSDataInputStream stream = fs.open(path)) {
+              readRanges(stream);
+            }
+            return null;
+          }
+        });
+      } finally {
+        boolean doFree;
+        synchronized (this) {
+          isDone = true;
+          doFree = isReleased;
+        }
+        if (doFree) {
+          free();
+        }
+      }
+    }
+
+    private void readRanges(FSDataInputStream stream) throws IOException {
+      byte[] chunk = null;
+      for (int i = 0; i < offsets.length; ++i) {
+        int length = (int)(ends[i] - offsets[i]);
+        if (!isDirect) {
+          byte[] bytes = new byte[length];
+          stream.readFully(offsets[i], bytes, 0, length);
+          data[i] = ByteBuffer.wrap(bytes);
+          continue;
+        }
+        // Read through a small heap buffer, rather than a heap copy of the whole range.
+        if (chunk == null) {
+          chunk = new byte[Math.min(DIRECT_READ_CHUNK_SIZE, length)];
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+        data[i] = buffer;
+        for (int pos = 0; pos < length; pos += chunk.length) {
+          if (isReleased()) return;
+          int toRead = Math.min(chunk.length, length - pos);
+          stream.readFully(offsets[i] + pos, chunk, 0, toRead);
+          buffer.put(chunk, 0, toRead);
+        }
+        buffer.flip();
+      }
+    }
+
+    private synchronized boolean isReleased() {
+      return isReleased;
+    }
+
+    /**
+     * Replaces the ranges without data that were read ahead with their data; waits for the read
+     * to finish if needed. The ranges that were not read ahead are left as they are.
+     * @param ranges The ranges, relative to baseOffset.
+     * @return The new head of the list.
+     * @throws InterruptedException If the thread was interrupted while waiting.
+     */
+    public DiskRangeList serve(DiskRangeList ranges, long baseOffset)
+        throws InterruptedException {
+      DiskRangeList head = ranges;
+      for (DiskRangeList range = ranges; range != null; range = range.next) {
+        if (range.hasData()) continue;
+        long offset = baseOffset + range.getOffset(), end = baseOffset + range.getEnd();
+        int index = findRange(offset, end);
+        if (index < 0 || !waitForData()) continue;
+        ByteBuffer slice = data[index].duplicate();
+        slice.position((int)(offset - offsets[index]));
+        slice.limit((int)(end - offsets[index]));
+        DiskRangeList chunk = new BufferChunk(slice.slice(), range.getOffset());
+        range.replaceSelfWith(chunk);
+        if (range == head) {
+          head = chunk;
+        }
+        range = chunk;
+        servedSize += end - offset;
+      }
+      return head;
+    }
+
+    /** @return The index of the range read ahead that contains [offset, end); -1 if none. */
+    private int findRange(long offset, long end) {
+      for (int i = 0; i < offsets.length; ++i) {
+        if (offsets[i] <= offset && end <= ends[i]) return i;
+      }
+      return -1;
+    }
+
+    private boolean waitForData() throws InterruptedException {
+      if (isFailed) return false;
+      try {
+        future.get();
+        return true;
+      } catch (ExecutionException e) {
+        LlapIoImpl.LOG.warn("Failed to read " + path + " ahead; reading the data again",
+            e.getCause());
+        isFailed = true;
+        return false;
+      }
+    }
+
+    /**
+     * Stops the read, and returns the memory of the data read ahead to the budget once the read
+     * has stopped. The data that was handed out must not be used afterwards, since direct
+     * buffers are freed.
+     */
+    public void release() {
+      boolean doFree;
+      synchronized (this) {
+        if (isReleased) return;
+        isReleased = true;
+        // Otherwise, the thread reading the data frees it when it is done.
+        doFree = !isStarted || isDone;
+      }
+      if (future != null) {
+        future.cancel(false);
+      }
+      ioMetrics.incrReadAheadBytes(servedSize, size - servedSize);
+      if (doFree) {
+        free();
+      }
+    }
+
+    private void free() {
+      for (int i = 0; i < data.length; ++i) {
+        ByteBuffer bb = data[i];
+        data[i] = null;
+        if (bb == null || !bb.isDirect()) continue;
+        Field field = cleanerField;
+        if (field == null) continue;
+        try {
+          Cleaner cleaner = (Cleaner)field.get(bb);
+          if (cleaner != null) {
+            cleaner.clean();
+          }
+        } catch (Throwable t) {
+          LlapIoImpl.LOG.warn("Error using DirectByteBuffer cleaner; stopping its use", t);
+          cleanerField = null;
+        }
+      }
+      usedSize.addAndGet(-size);
+    }
+  }
+}
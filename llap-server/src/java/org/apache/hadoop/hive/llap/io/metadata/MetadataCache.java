@@ -21,12 +21,14 @@
 import org.apache.hadoop.hive.common.FileUtils;
 import org.apache.hadoop.hive.common.io.FileMetadataCache;
 
+import java.io.DataInput;
 import java.io.IOException;
 import java.io.InputStream;
 
 import org.apache.hadoop.hive.common.io.encoded.MemoryBufferOrBuffers;
 
 import java.nio.ByteBuffer;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.hadoop.hive.common.io.DiskRange;
@@ -36,6 +38,7 @@
 import org.apache.hadoop.hive.llap.cache.EvictionAwareAllocator;
 import org.apache.hadoop.hive.llap.cache.EvictionDispatcher;
 import org.apache.hadoop.hive.llap.cache.LlapAllocatorBuffer;
+import org.apache.hadoop.hive.llap.cache.LlapCacheCheckpoint;
 import org.apache.hadoop.hive.llap.cache.LlapOomDebugDump;
 import org.apache.hadoop.hive.llap.cache.LowLevelCachePolicy;
 import org.apache.hadoop.hive.llap.cache.MemoryManager;
@@ -446,6 +449,68 @@ private void unlockSingleBuffer(LlapAllocatorBuffer buffer, boolean isCached) {
     metrics.decrCacheNumLockedBuffers();
   }
 
+  /**
+   * Writes the file and stripe metadata of the files with persistent keys for
+   * {@link LlapCacheCheckpoint}, until the time to write the checkpoint is up.
+   * @return The number of entries written.
+   */
+  public int writeCheckpoint(LlapCacheCheckpoint.CheckpointOutput out) throws IOException {
+    int count = 0;
+    for (Map.Entry<Object, LlapBufferOrBuffers> e : metadata.entrySet()) {
+      if (out.isTimedOut()) break;
+      Object key = e.getKey();
+      StripeKey stripeKey = (key instanceof StripeKey) ? (StripeKey)key : null;
+      Object fileKey = (stripeKey == null) ? key : stripeKey.fileKey;
+      LlapBufferOrBuffers buffers = e.getValue();
+      if (!LlapCacheCheckpoint.isPersistentFileKey(fileKey) || !lockBuffer(buffers, true)) {
+        continue;
+      }
+      try {
+        LlapAllocatorBuffer singleBuffer = buffers.getSingleLlapBuffer();
+        LlapAllocatorBuffer[] bufferArray = (singleBuffer != null)
+            ? new LlapAllocatorBuffer[] { singleBuffer } : buffers.getMultipleLlapBuffers();
+        ByteBuffer[] data = new ByteBuffer[bufferArray.length];
+        for (int i = 0; i < bufferArray.length; ++i) {
+          data[i] = bufferArray[i].getByteBufferDup();
+        }
+        out.writeBoolean(true);
+        out.writeBoolean(stripeKey != null);
+        LlapCacheCheckpoint.writeFileKey(out, fileKey);
+        if (stripeKey != null) {
+          out.writeInt(stripeKey.stripeIx);
+        }
+        LlapCacheCheckpoint.writeTag(out, bufferArray[0].getTag());
+        out.writeData(data);
+        ++count;
+      } finally {
+        unlockBuffer(buffers, true);
+      }
+    }
+    out.writeBoolean(false);
+    return count;
+  }
+
+  /**
+   * Caches the metadata written by {@link #writeCheckpoint}.
+   * @return The number of entries read.
+   */
+  public int readCheckpoint(DataInput in) throws IOException {
+    int count = 0;
+    while (in.readBoolean()) {
+      boolean isStripe = in.readBoolean();
+      Object fileKey = LlapCacheCheckpoint.readFileKey(in);
+      int stripeIx = isStripe ? in.readInt() : -1;
+      String tag = LlapCacheCheckpoint.readTag(in);
+      ByteBuffer data = LlapCacheCheckpoint.readData(in);
+      LlapBufferOrBuffers result = isStripe
+          ? putStripeTail(new OrcBatchKey(fileKey, stripeIx, 0), data, tag)
+          : putFileMetadata(fileKey, data, tag);
+      decRefBuffer(result);
+      ++count;
+    }
+    return count;
+  }
+
   private final static class StripeKey {
     private final Object fileKey;
     private final int stripeIx;
@@ -29,6 +29,7 @@
 import org.apache.hadoop.metrics2.annotation.Metric;
 import org.apache.hadoop.metrics2.annotation.Metrics;
 import org.apache.hadoop.metrics2.lib.MetricsRegistry;
+import org.apache.hadoop.metrics2.lib.MutableCounterLong;
 import org.apache.hadoop.metrics2.lib.MutableGaugeLong;
 import org.apache.hadoop.metrics2.lib.MutableQuantiles;
 import org.apache.hadoop.metrics2.lib.MutableRate;
@@ -51,6 +52,12 @@ public class LlapDaemonIOMetrics implements MetricsSource {
   final MutableQuantiles[] decodingTimes;
   @Metric
   MutableGaugeLong maxDecodingTime;
+  @Metric
+  MutableRate rateOfIoWait;
+  @Metric
+  MutableCounterLong readAheadUsedBytes;
+  @Metric
+  MutableCounterLong readAheadUnusedBytes;
 
   private LlapDaemonIOMetrics(String displayName, String sessionId, int[] intervals) {
     this.name = displayName;
@@ -99,9 +106,22 @@ public void addDecodeBatchTime(long latency) {
     }
   }
 
+  /** Adds the time that a reader waited for its data to be read from disk. */
+  public void addIoWaitTime(long latency) {
+    rateOfIoWait.add(latency);
+  }
+
+  public void incrReadAheadBytes(long usedBytes, long unusedBytes) {
+    readAheadUsedBytes.incr(usedBytes);
+    readAheadUnusedBytes.incr(unusedBytes);
+  }
+
   private void getIoStats(MetricsRecordBuilder rb) {
     rb.addGauge(MaxDecodingTime, maxDecodingTime.value());
     rateOfDecoding.snapshot(rb, true);
+    rateOfIoWait.snapshot(rb, true);
+    readAheadUsedBytes.snapshot(rb, true);
+    readAheadUnusedBytes.snapshot(rb, true);
 
     for (MutableQuantiles q : decodingTimes) {
       q.snapshot(rb, true);
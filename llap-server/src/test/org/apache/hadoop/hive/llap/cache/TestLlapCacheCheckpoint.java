@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.llap.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.CommonConfigurationKeysPublic;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.io.DataCache.BooleanRef;
+import org.apache.hadoop.hive.common.io.DataCache.DiskRangeListFactory;
+import org.apache.hadoop.hive.common.io.DiskRange;
+import org.apache.hadoop.hive.common.io.DiskRangeList;
+import org.apache.hadoop.hive.common.io.encoded.MemoryBuffer;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import org.apache.hadoop.hive.llap.cache.LowLevelCache.Priority;
+import org.apache.hadoop.hive.llap.io.metadata.MetadataCache;
+import org.apache.hadoop.hive.llap.io.metadata.MetadataCache.LlapBufferOrBuffers;
+import org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheMetrics;
+import org.apache.hadoop.hive.ql.io.SyntheticFileId;
+import org.apache.hadoop.hive.ql.io.orc.encoded.CacheChunk;
+import org.apache.hadoop.hive.ql.io.orc.encoded.OrcBatchKey;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestLlapCacheCheckpoint {
+  private static final int MAX_ALLOC = 64;
+
+  private static final DiskRangeListFactory testFactory = new DiskRangeListFactory() {
+    public DiskRangeList createCacheChunk(MemoryBuffer buffer, long offset, long end) {
+      return new CacheChunk(buffer, offset, end);
+    }
+  };
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final Random rdm = new Random(1234);
+
+  /** A data cache and a metadata cache sharing an allocator, like in LlapIoImpl. */
+  private static class Caches {
+    final LowLevelCacheImpl dataCache;
+    final MetadataCache metadataCache;
+
+    Caches() {
+      LlapDaemonCacheMetrics metrics = LlapDaemonCacheMetrics.create("test", "1");
+      MemoryManager mm = new TestBuddyAllocator.DummyMemoryManager();
+      LowLevelCachePolicy policy = new LowLevelFifoCachePolicy();
+      BuddyAllocator allocator = new BuddyAllocator(
+          false, false, 8, MAX_ALLOC, 1, 4096, 0, null, mm, metrics, null);
+      dataCache = new LowLevelCacheImpl(metrics, policy, allocator, true, -1);
+      metadataCache = new MetadataCache(allocator, mm, policy, false, metrics);
+    }
+  }
+
+  private ByteBuffer randomBytes(int length) {
+    byte[] bytes = new byte[length];
+    rdm.nextBytes(bytes);
+    return ByteBuffer.wrap(bytes);
+  }
+
+  private static void putData(Caches caches, Object fileKey, long offset, int cachedLength,
+      ByteBuffer data) {
+    MemoryBuffer[] buffers = new MemoryBuffer[1];
+    caches.dataCache.getAllocator().allocateMultiple(buffers, data.remaining(), null);
+    ByteBuffer dest = buffers[0].getByteBufferRaw();
+    int startPos = dest.position();
+    dest.put(data.duplicate());
+    dest.limit(dest.position());
+    dest.position(startPos);
+    assertNull(caches.dataCache.putFileData(fileKey,
+        new DiskRange[] { new DiskRange(offset, offset + cachedLength) }, buffers, 0,
+        Priority.NORMAL, null, "tag"));
+    caches.dataCache.decRefBuffer(buffers[0]);
+  }
+
+  /** @return The cached data for the range, or null if it is not cached. */
+  private static ByteBuffer getData(Caches caches, Object fileKey, long offset, int cachedLength) {
+    BooleanRef gotAllData = new BooleanRef();
+    DiskRangeList result = caches.dataCache.getFileData(fileKey,
+        new DiskRangeList(offset, offset + cachedLength), 0, testFactory, null, gotAllData);
+    if (!(result instanceof CacheChunk)) return null;
+    MemoryBuffer buffer = ((CacheChunk) result).getBuffer();
+    ByteBuffer data = buffer.getByteBufferDup();
+    caches.dataCache.decRefBuffer(buffer);
+    return data;
+  }
+
+  private static ByteBuffer getMetadata(MetadataCache cache, LlapBufferOrBuffers result) {
+    if (result == null) return null;
+    ByteBuffer data;
+    if (result.getSingleBuffer() != null) {
+      data = result.getSingleBuffer().getByteBufferDup();
+    } else {
+      int length = 0;
+      for (MemoryBuffer buffer : result.getMultipleBuffers()) {
+        length += buffer.getByteBufferRaw().remaining();
+      }
+      data = ByteBuffer.allocate(length);
+      for (MemoryBuffer buffer : result.getMultipleBuffers()) {
+        data.put(buffer.getByteBufferDup());
+      }
+      data.flip();
+    }
+    cache.decRefBuffer(result);
+    return data;
+  }
+
+  private Configuration createConf() {
+    Configuration conf = new Configuration();
+    conf.set(CommonConfigurationKeysPublic.FS_DEFAULT_NAME_KEY, "hdfs://nn1:8020");
+    return conf;
+  }
+
+  @Test
+  public void testSaveAndLoad() throws Exception {
+    String dir = folder.getRoot().getAbsolutePath();
+    Object fileId = 12345L;
+    Object syntheticId = new SyntheticFileId(new Path("/warehouse/t/000000_0"), 1000L, 2000L);
+    Object notPersistentKey = new Object();
+    ByteBuffer data1 = randomBytes(40), data2 = randomBytes(MAX_ALLOC), data3 = randomBytes(10);
+    ByteBuffer footer = randomBytes(30), stripeFooter = randomBytes(MAX_ALLOC * 2 + 5);
+
+    Caches caches = new Caches();
+    putData(caches, fileId, 0, 100, data1);
+    putData(caches, fileId, 100, 50, data2);
+    putData(caches, syntheticId, 3, 7, data3);
+    putData(caches, notPersistentKey, 0, 100, data1);
+    caches.metadataCache.decRefBuffer(caches.metadataCache.putFileMetadata(fileId, footer));
+    caches.metadataCache.decRefBuffer(caches.metadataCache.putStripeTail(
+        new OrcBatchKey(syntheticId, 2, 0), stripeFooter, null));
+    new LlapCacheCheckpoint(dir, createConf()).save(caches.dataCache, caches.metadataCache);
+
+    Caches restarted = new Caches();
+    new LlapCacheCheckpoint(dir, createConf()).load(restarted.dataCache, restarted.metadataCache);
+    assertEquals(data1, getData(restarted, fileId, 0, 100));
+    assertEquals(data2, getData(restarted, fileId, 100, 50));
+    assertEquals(data3, getData(restarted, new SyntheticFileId(
+        new Path("/warehouse/t/000000_0"), 1000L, 2000L), 3, 7));
+    // A file that has changed has another synthetic ID.
+    assertNull(getData(restarted, new SyntheticFileId(
+        new Path("/warehouse/t/000000_0"), 1001L, 2000L), 3, 7));
+    assertEquals(footer, getMetadata(
+        restarted.metadataCache, restarted.metadataCache.getFileMetadata(fileId)));
+    assertEquals(stripeFooter, getMetadata(restarted.metadataCache,
+        restarted.metadataCache.getStripeTail(new OrcBatchKey(syntheticId, 2, 0))));
+    assertNull(restarted.metadataCache.getStripeTail(new OrcBatchKey(syntheticId, 1, 0)));
+
+    // The checkpoint is kept until it is replaced, in case the daemon is killed before that.
+    Caches restartedAgain = new Caches();
+    new LlapCacheCheckpoint(dir, createConf()).load(
+        restartedAgain.dataCache, restartedAgain.metadataCache);
+    assertEquals(data1, getData(restartedAgain, fileId, 0, 100));
+  }
+
+  @Test
+  public void testMaxTime() throws Exception {
+    String dir = folder.getRoot().getAbsolutePath();
+    Caches caches = new Caches();
+    putData(caches, 1L, 0, 20, randomBytes(20));
+    Configuration conf = createConf();
+    HiveConf.setTimeVar(conf, ConfVars.LLAP_IO_CACHE_CHECKPOINT_MAX_TIME, 0, TimeUnit.SECONDS);
+    new LlapCacheCheckpoint(dir, conf).save(caches.dataCache, caches.metadataCache);
+
+    // Nothing is written once the time is up, but the checkpoint is still valid.
+    assertTrue(new File(dir, "llap-cache.checkpoint").exists());
+    Caches restarted = new Caches();
+    new LlapCacheCheckpoint(dir, conf).load(restarted.dataCache, restarted.metadataCache);
+    assertNull(getData(restarted, 1L, 0, 20));
+  }
+
+  @Test
+  public void testFileIdSettingsChanged() throws Exception {
+    String dir = folder.getRoot().getAbsolutePath();
+    Caches caches = new Caches();
+    ByteBuffer data = randomBytes(20);
+    putData(caches, 1L, 0, 20, data);
+    new LlapCacheCheckpoint(dir, createConf()).save(caches.dataCache, caches.metadataCache);
+
+    Configuration otherClusterConf = createConf();
+    otherClusterConf.set(CommonConfigurationKeysPublic.FS_DEFAULT_NAME_KEY, "hdfs://nn2:8020");
+    Caches restarted = new Caches();
+    new LlapCacheCheckpoint(dir, otherClusterConf).load(
+        restarted.dataCache, restarted.metadataCache);
+    assertNull(getData(restarted, 1L, 0, 20));
+  }
+
+  @Test
+  public void testCorruptCheckpoint() throws Exception {
+    String dir = folder.getRoot().getAbsolutePath();
+    Caches caches = new Caches();
+    ByteBuffer data1 = randomBytes(20), data2 = randomBytes(20);
+    putData(caches, 1L, 0, 20, data1);
+    putData(caches, 2L, 0, 20, data2);
+    new LlapCacheCheckpoint(dir, createConf()).save(caches.dataCache, caches.metadataCache);
+
+    // Flip a byte of the data of the last range.
+    File file = new File(dir, "llap-cache.checkpoint");
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      long pos = raf.length() - 4 - 1 - 10;
+      raf.seek(pos);
+      byte b = raf.readByte();
+      raf.seek(pos);
+      raf.writeByte(b ^ 0xff);
+    }
+    Caches restarted = new Caches();
+    new LlapCacheCheckpoint(dir, createConf()).load(restarted.dataCache, restarted.metadataCache);
+    ByteBuffer restored1 = getData(restarted, 1L, 0, 20), restored2 = getData(restarted, 2L, 0, 20);
+    // Only the range written first is loaded.
+    assertTrue((restored1 == null) != (restored2 == null));
+  }
+}
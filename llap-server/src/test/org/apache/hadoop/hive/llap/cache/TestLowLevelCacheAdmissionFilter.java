@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.llap.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TestLowLevelCacheAdmissionFilter {
+
+  @Test
+  public void testHotRangesAreAdmitted() {
+    LowLevelCacheAdmissionFilter filter = new LowLevelCacheAdmissionFilter(3, 1024);
+    Long hotFile = 1L;
+    assertFalse(filter.admit(hotFile, 100));
+    assertFalse(filter.admit(hotFile, 100));
+    assertTrue(filter.admit(hotFile, 100));
+    assertTrue(filter.admit(hotFile, 100));
+    // Other streams of the same file are counted separately.
+    assertFalse(filter.admit(hotFile, 200));
+  }
+
+  @Test
+  public void testScanIsNotAdmitted() {
+    LowLevelCacheAdmissionFilter filter = new LowLevelCacheAdmissionFilter(3, 1024);
+    int admitted = 0;
+    for (long file = 0; file < 10; ++file) {
+      for (long offset = 0; offset < 50; ++offset) {
+        if (filter.admit(Long.valueOf(file), offset * 4096)) {
+          ++admitted;
+        }
+      }
+    }
+    assertEquals(0, admitted);
+  }
+
+  @Test
+  public void testOldReadsAreForgotten() {
+    LowLevelCacheAdmissionFilter filter = new LowLevelCacheAdmissionFilter(2, 1024);
+    Long file = 1L, otherFile = 2L;
+    assertFalse(filter.admit(file, 100));
+    // Enough reads for the counters to be halved.
+    for (int i = 0; i < 10 * 1024; ++i) {
+      filter.admit(otherFile, 100);
+    }
+    assertFalse(filter.admit(file, 100));
+    assertTrue(filter.admit(file, 100));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidFrequency() {
+    new LowLevelCacheAdmissionFilter(16, 1024);
+  }
+}
@@ -204,6 +204,24 @@ private void verifyCacheGet(LowLevelCacheImpl cache, long fileId, Object... stuf
     }
   }
 
+  @Test
+  public void testAdmissionFilter() {
+    LowLevelCacheImpl cache = new LowLevelCacheImpl(
+        LlapDaemonCacheMetrics.create("test", "1"), new DummyCachePolicy(),
+        new DummyAllocator(), true, -1); // no cleanup thread
+    cache.setAdmissionFilter(new LowLevelCacheAdmissionFilter(2, 1024));
+    long fn1 = 1;
+    MemoryBuffer[] fakes = new MemoryBuffer[] { fb(), fb(), fb() };
+    // The first read is not cached; the buffers are only locked for the reader.
+    assertNull(cache.putFileData(fn1, drs(1, 2), fbs(fakes, 0, 1), 0, Priority.NORMAL, null, null));
+    verifyRefcount(fakes, 2, 2, 1);
+    verifyCacheGet(cache, fn1, 1, 3, dr(1, 3));
+    // The second read of the same range is.
+    assertNull(cache.putFileData(fn1, drs(1), fbs(fakes, 2), 0, Priority.NORMAL, null, null));
+    verifyCacheGet(cache, fn1, 1, 3, fakes[2], dr(2, 3));
+    verifyRefcount(fakes, 2, 2, 3);
+  }
+
   @Test
   public void testMultiMatch() {
     LowLevelCacheImpl cache = new LowLevelCacheImpl(
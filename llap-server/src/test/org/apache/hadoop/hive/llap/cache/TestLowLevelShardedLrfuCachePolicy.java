@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.llap.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.llap.cache.LowLevelCache.Priority;
+import org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheMetrics;
+import org.junit.Test;
+
+public class TestLowLevelShardedLrfuCachePolicy {
+
+  private static class EvictionTracker implements EvictionListener {
+    public final List<LlapDataBuffer> evicted =
+        Collections.synchronizedList(new ArrayList<LlapDataBuffer>());
+
+    @Override
+    public void notifyEvicted(LlapCacheableBuffer buffer) {
+      evicted.add((LlapDataBuffer) buffer);
+    }
+  }
+
+  private static Configuration createConf(float lambda) {
+    Configuration conf = new Configuration();
+    conf.setFloat(HiveConf.ConfVars.LLAP_LRFU_LAMBDA.varname, lambda);
+    return conf;
+  }
+
+  // Buffers in test are fakes not linked to cache; notify cache policy explicitly.
+  private static boolean cache(LowLevelCacheMemoryManager mm, LowLevelCachePolicy policy,
+      LlapDataBuffer buffer) {
+    if (!mm.reserveMemory(1, false)) {
+      return false;
+    }
+    buffer.incRef();
+    policy.cache(buffer, Priority.NORMAL);
+    buffer.decRef();
+    policy.notifyUnlock(buffer);
+    return true;
+  }
+
+  @Test
+  public void testShardCount() {
+    Configuration conf = createConf(0.2f);
+    StringBuilder sb = new StringBuilder();
+    new LowLevelShardedLrfuCachePolicy(1, 64, 3, conf).debugDumpShort(sb);
+    assertTrue(sb.toString(), sb.toString().contains("LRFU shard 3 "));
+    assertFalse(sb.toString(), sb.toString().contains("LRFU shard 4 "));
+  }
+
+  @Test
+  public void testEvictsEveryUnlockedBuffer() {
+    final int memSize = 256;
+    EvictionTracker et = new EvictionTracker();
+    LowLevelShardedLrfuCachePolicy policy =
+        new LowLevelShardedLrfuCachePolicy(1, memSize, 4, createConf(0.2f));
+    LowLevelCacheMemoryManager mm = new LowLevelCacheMemoryManager(memSize, policy,
+        LlapDaemonCacheMetrics.create("test", "1"));
+    policy.setEvictionListener(et);
+
+    List<LlapDataBuffer> inserted = new ArrayList<LlapDataBuffer>();
+    for (int i = 0; i < memSize; ++i) {
+      LlapDataBuffer buffer = LowLevelCacheImpl.allocateFake();
+      assertTrue(cache(mm, policy, buffer));
+      inserted.add(buffer);
+    }
+    assertTrue(et.evicted.isEmpty());
+
+    // Lock every tenth buffer; the others are all evicted, each one once.
+    Set<LlapDataBuffer> locked = new HashSet<LlapDataBuffer>();
+    for (int i = 0; i < memSize; i += 10) {
+      LlapDataBuffer buffer = inserted.get(i);
+      buffer.incRef();
+      policy.notifyLock(buffer);
+      locked.add(buffer);
+    }
+    int unlockedCount = memSize - locked.size();
+    for (int i = 0; i < unlockedCount; ++i) {
+      assertTrue(mm.reserveMemory(1, false));
+    }
+    assertFalse(mm.reserveMemory(1, false));
+    assertEquals(unlockedCount, et.evicted.size());
+    IdentityHashMap<LlapDataBuffer, Boolean> evicted = new IdentityHashMap<>();
+    for (LlapDataBuffer buffer : et.evicted) {
+      assertTrue(buffer.isInvalid());
+      assertFalse(locked.contains(buffer));
+      assertTrue(evicted.put(buffer, Boolean.TRUE) == null);
+    }
+
+    // Once unlocked, the locked buffers can be evicted too.
+    for (LlapDataBuffer buffer : locked) {
+      buffer.decRef();
+      policy.notifyUnlock(buffer);
+    }
+    mm.releaseMemory(locked.size());
+    et.evicted.clear();
+    assertEquals(locked.size(), policy.evictSomeBlocks(locked.size()));
+    assertEquals(locked.size(), et.evicted.size());
+  }
+
+  @Test
+  public void testLruOrderWithinShards() {
+    final int memSize = 64;
+    EvictionTracker et = new EvictionTracker();
+    // Lambda 1 is LRU: the least recently unlocked buffers go first.
+    LowLevelShardedLrfuCachePolicy policy =
+        new LowLevelShardedLrfuCachePolicy(1, memSize, 2, createConf(1.0f));
+    LowLevelCacheMemoryManager mm = new LowLevelCacheMemoryManager(memSize, policy,
+        LlapDaemonCacheMetrics.create("test", "1"));
+    policy.setEvictionListener(et);
+    List<LlapDataBuffer> inserted = new ArrayList<LlapDataBuffer>();
+    for (int i = 0; i < memSize; ++i) {
+      LlapDataBuffer buffer = LowLevelCacheImpl.allocateFake();
+      assertTrue(cache(mm, policy, buffer));
+      inserted.add(buffer);
+    }
+    Collections.shuffle(inserted, new Random(1234));
+    for (LlapDataBuffer buffer : inserted) {
+      buffer.incRef();
+      policy.notifyLock(buffer);
+      buffer.decRef();
+      policy.notifyUnlock(buffer);
+    }
+    // Half of the cache goes; it is the first half of the touch order, give or take the shard
+    // balance.
+    policy.evictSomeBlocks(memSize / 2);
+    int fromSecondHalf = 0;
+    for (LlapDataBuffer buffer : et.evicted) {
+      if (inserted.indexOf(buffer) >= memSize / 2) {
+        ++fromSecondHalf;
+      }
+    }
+    assertTrue("Evicted " + fromSecondHalf + " recently used buffers",
+        fromSecondHalf <= memSize / 8);
+  }
+
+  @Test
+  public void testConcurrentUnlocksAndPurge() throws Exception {
+    final int memSize = 2048;
+    final int threadCount = 8;
+    EvictionTracker et = new EvictionTracker();
+    final LowLevelShardedLrfuCachePolicy policy =
+        new LowLevelShardedLrfuCachePolicy(1, memSize, 8, createConf(0.01f));
+    LowLevelCacheMemoryManager mm = new LowLevelCacheMemoryManager(memSize, policy,
+        LlapDaemonCacheMetrics.create("test", "1"));
+    policy.setEvictionListener(et);
+    final List<LlapDataBuffer> inserted = new ArrayList<LlapDataBuffer>();
+    for (int i = 0; i < memSize; ++i) {
+      LlapDataBuffer buffer = LowLevelCacheImpl.allocateFake();
+      assertTrue(cache(mm, policy, buffer));
+      inserted.add(buffer);
+    }
+
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int t = 0; t < threadCount; ++t) {
+      final Random random = new Random(t);
+      Thread thread = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+          }
+          for (int i = 0; i < 20000; ++i) {
+            LlapDataBuffer buffer = inserted.get(random.nextInt(inserted.size()));
+            if (buffer.incRef() < 0) {
+              continue;
+            }
+            policy.notifyLock(buffer);
+            buffer.decRef();
+            policy.notifyUnlock(buffer);
+          }
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    // Nothing is locked anymore, so everything is invalidated, and nothing is evicted twice.
+    policy.purge();
+    assertEquals(et.evicted.size(), new HashSet<LlapDataBuffer>(et.evicted).size());
+    for (LlapDataBuffer buffer : inserted) {
+      assertTrue(buffer.isInvalid());
+    }
+  }
+}
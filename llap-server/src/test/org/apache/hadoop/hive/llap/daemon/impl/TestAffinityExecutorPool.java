@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.llap.daemon.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+public class TestAffinityExecutorPool {
+  private AffinityExecutorPool pool;
+  private CountDownLatch release;
+
+  @Before
+  public void setUp() {
+    pool = new AffinityExecutorPool(3,
+        new ThreadFactoryBuilder().setNameFormat("Test-Executor-%d").setDaemon(true).build());
+    release = new CountDownLatch(1);
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  /** A task that returns the name of its thread once released. */
+  private Callable<String> blockingTask() {
+    final CountDownLatch taskRelease = release;
+    return new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        taskRelease.await();
+        return Thread.currentThread().getName();
+      }
+    };
+  }
+
+  private ListenableFuture<String> submit(String queryId, String vertexName) {
+    return pool.submit(blockingTask(), queryId, vertexName);
+  }
+
+  private void waitForIdleThreads(int count) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (pool.getIdleThreadCount() != count) {
+      assertTrue("Timed out waiting for idle threads", System.nanoTime() < deadline);
+      Thread.sleep(10);
+    }
+  }
+
+  @Test(timeout = 20000)
+  public void testAffinity() throws Exception {
+    ListenableFuture<String> q1m1 = submit("q1", "Map 1"), q1m2 = submit("q1", "Map 2"),
+        q2m1 = submit("q2", "Map 1");
+    release.countDown();
+    String q1m1Thread = q1m1.get(), q1m2Thread = q1m2.get(), q2m1Thread = q2m1.get();
+    waitForIdleThreads(3);
+
+    release = new CountDownLatch(1);
+    // Only the query matches; the thread that ran the other vertex of the query is used.
+    ListenableFuture<String> next1 = submit("q2", "Map 3");
+    // The same vertex goes to the same thread, whatever became idle last.
+    ListenableFuture<String> next2 = submit("q1", "Map 2");
+    ListenableFuture<String> next3 = submit("q1", "Map 1");
+    try {
+      submit("q3", "Map 1");
+      fail("Expected a rejection when all the threads are busy");
+    } catch (RejectedExecutionException e) {
+      // Expected.
+    }
+    release.countDown();
+    assertEquals(q2m1Thread, next1.get());
+    assertEquals(q1m2Thread, next2.get());
+    assertEquals(q1m1Thread, next3.get());
+  }
+
+  @Test(timeout = 20000)
+  public void testNoAffinity() throws Exception {
+    ListenableFuture<String> first = submit("q1", "Map 1");
+    release.countDown();
+    String firstThread = first.get();
+    waitForIdleThreads(3);
+    // Another query takes the thread that became idle last.
+    assertEquals(firstThread, submit("q2", "Map 1").get());
+    waitForIdleThreads(3);
+
+    // A failing task does not take its thread down.
+    pool.execute(new Runnable() {
+      @Override
+      public void run() {
+        throw new RuntimeException("Test failure");
+      }
+    });
+    waitForIdleThreads(3);
+    release = new CountDownLatch(1);
+    ListenableFuture<String> a = submit("q3", "Map 1"), b = submit("q4", "Map 1"),
+        c = submit("q5", "Map 1");
+    release.countDown();
+    assertNotEquals(a.get(), b.get());
+    assertNotEquals(b.get(), c.get());
+    assertNotEquals(a.get(), c.get());
+  }
+
+  @Test(timeout = 20000)
+  public void testShutdown() throws Exception {
+    ListenableFuture<String> running = submit("q1", "Map 1");
+    pool.shutdown();
+    try {
+      submit("q1", "Map 1");
+      fail("Expected a rejection after shutdown");
+    } catch (RejectedExecutionException e) {
+      // Expected.
+    }
+    // The running task completes.
+    release.countDown();
+    running.get();
+    assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    assertTrue(pool.isTerminated());
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.llap.io.encoded;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.io.DiskRangeList;
+import org.apache.hadoop.hive.llap.io.encoded.ReadAheadPool.ReadAhead;
+import org.apache.hadoop.hive.llap.metrics.LlapDaemonIOMetrics;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestReadAheadPool {
+  private static final int FILE_SIZE = 4096;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final byte[] fileData = new byte[FILE_SIZE];
+  private FileSystem fs;
+  private Path path;
+  private ReadAheadPool pool;
+
+  @Before
+  public void setUp() throws Exception {
+    new Random(1234).nextBytes(fileData);
+    File file = folder.newFile("data");
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      out.write(fileData);
+    }
+    fs = FileSystem.getLocal(new Configuration());
+    path = new Path(file.getAbsolutePath());
+    pool = new ReadAheadPool(2, 1024, LlapDaemonIOMetrics.create("test", "1", null));
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  private static DiskRangeList ranges(long... offsetsAndEnds) {
+    DiskRangeList.CreateHelper list = new DiskRangeList.CreateHelper();
+    for (int i = 0; i < offsetsAndEnds.length; i += 2) {
+      list.addOrMerge(offsetsAndEnds[i], offsetsAndEnds[i + 1], false, false);
+    }
+    return list.get();
+  }
+
+  private void assertData(DiskRangeList range, long baseOffset) {
+    assertTrue(range.hasData());
+    ByteBuffer expected = ByteBuffer.wrap(fileData,
+        (int)(baseOffset + range.getOffset()), range.getLength());
+    assertEquals(expected, range.getData());
+  }
+
+  @Test
+  public void testServe() throws Exception {
+    long baseOffset = 1000;
+    ReadAhead readAhead = pool.start(fs, path, UserGroupInformation.getCurrentUser(),
+        ranges(0, 100, 200, 500), baseOffset, false);
+    assertNotNull(readAhead);
+
+    // Only the ranges that were read ahead in full are served.
+    DiskRangeList head = readAhead.serve(ranges(10, 90, 150, 250, 300, 500), baseOffset);
+    assertData(head, baseOffset);
+    assertEquals(10, head.getOffset());
+    assertFalse(head.next.hasData());
+    assertEquals(150, head.next.getOffset());
+    assertData(head.next.next, baseOffset);
+    assertEquals(300, head.next.next.getOffset());
+    assertNull(head.next.next.next);
+
+    // A different base offset is taken into account.
+    head = readAhead.serve(ranges(100, 200), baseOffset + 100);
+    assertData(head, baseOffset + 100);
+    readAhead.release();
+  }
+
+  @Test
+  public void testDirect() throws Exception {
+    ReadAhead readAhead = pool.start(fs, path, UserGroupInformation.getCurrentUser(),
+        ranges(0, 512), 0, true);
+    DiskRangeList head = readAhead.serve(ranges(0, 512), 0);
+    assertTrue(head.getData().isDirect());
+    assertData(head, 0);
+    readAhead.release();
+  }
+
+  @Test
+  public void testBudget() throws Exception {
+    UserGroupInformation ugi = UserGroupInformation.getCurrentUser();
+    ReadAhead first = pool.start(fs, path, ugi, ranges(0, 800), 0, false);
+    assertNotNull(first);
+    assertNull(pool.start(fs, path, ugi, ranges(1000, 1300), 0, false));
+    ReadAhead second = pool.start(fs, path, ugi, ranges(1000, 1200), 0, false);
+    assertNotNull(second);
+    // The memory is returned to the budget once the read is done; wait for it.
+    first.serve(ranges(0, 800), 0);
+    first.release();
+    first.release(); // Releasing twice does not free the memory twice.
+    assertNull(pool.start(fs, path, ugi, ranges(2000, 2900), 0, false));
+    ReadAhead third = pool.start(fs, path, ugi, ranges(2000, 2800), 0, false);
+    assertNotNull(third);
+    second.release();
+    third.release();
+  }
+
+  @Test
+  public void testFailedRead() throws Exception {
+    // The read past the end of the file fails; the ranges are left for the reader to read.
+    ReadAhead readAhead = pool.start(fs, path, UserGroupInformation.getCurrentUser(),
+        ranges(FILE_SIZE - 100, FILE_SIZE + 100), 0, false);
+    DiskRangeList head = readAhead.serve(ranges(FILE_SIZE - 50, FILE_SIZE), 0);
+    assertFalse(head.hasData());
+    readAhead.release();
+  }
+}
@@ -580,66 +580,7 @@ public void closeOp(boolean abort) throws HiveException {
     // For Hybrid Grace Hash Join, we need to see if there is any spilled data to be processed next
     if (spilled) {
       if (!abort) {
-        if (hashMapRowGetters == null) {
-          hashMapRowGetters = new ReusableGetAdaptor[mapJoinTables.length];
-        }
-        int numPartitions = 0;
-        // Find out number of partitions for each small table (should be same across tables)
-        for (byte pos = 0; pos < mapJoinTables.length; pos++) {
-          if (pos != conf.getPosBigTable()) {
-            firstSmallTable = (HybridHashTableContainer) mapJoinTables[pos];
-            numPartitions = firstSmallTable.getHashPartitions().length;
-            break;
-          }
-        }
-        assert numPartitions != 0 : "Number of partitions must be greater than 0!";
-
-        if (firstSmallTable.hasSpill()) {
-          spilledMapJoinTables = new MapJoinBytesTableContainer[mapJoinTables.length];
-          hybridMapJoinLeftover = true;
-
-          // Clear all in-memory partitions first
-          for (byte pos = 0; pos < mapJoinTables.length; pos++) {
-            MapJoinTableContainer tableContainer = mapJoinTables[pos];
-            if (tableContainer != null && tableContainer instanceof HybridHashTableContainer) {
-              HybridHashTableContainer hybridHtContainer = (HybridHashTableContainer) tableContainer;
-              hybridHtContainer.dumpStats();
-
-              HashPartition[] hashPartitions = hybridHtContainer.getHashPartitions();
-              // Clear all in memory partitions first
-              for (int i = 0; i < hashPartitions.length; i++) {
-                if (!hashPartitions[i].isHashMapOnDisk()) {
-                  hybridHtContainer.setTotalInMemRowCount(
-                      hybridHtContainer.getTotalInMemRowCount() -
-                          hashPartitions[i].getHashMapFromMemory().getNumValues());
-                  hashPartitions[i].getHashMapFromMemory().clear();
-                }
-              }
-              assert hybridHtContainer.getTotalInMemRowCount() == 0;
-            }
-          }
-
-          // Reprocess the spilled data
-          for (int i = 0; i < numPartitions; i++) {
-            HashPartition[] hashPartitions = firstSmallTable.getHashPartitions();
-            if (hashPartitions[i].isHashMapOnDisk()) {
-              try {
-                continueProcess(i);     // Re-process spilled data
-              } catch (KryoException ke) {
-                LOG.error("Processing the spilled data failed due to Kryo error!");
-                LOG.error("Cleaning up all spilled data!");
-                cleanupGraceHashJoin();
-                throw new HiveException(ke);
-              } catch (Exception e) {
-                throw new HiveException(e);
-              }
-              for (byte pos = 0; pos < order.length; pos++) {
-                if (pos != conf.getPosBigTable())
-                  spilledMapJoinTables[pos] = null;
-              }
-            }
-          }
-        }
+        continueGraceHashJoin();
       }
 
       if (LOG.isInfoEnabled()) {
@@ -664,6 +605,74 @@ public void closeOp(boolean abort) throws HiveException {
     super.closeOp(abort);
   }
 
+  /**
+   * Joins the spilled small table partitions with the spilled big table rows, partition by
+   * partition, after the big table input is done.
+   * @throws HiveException
+   */
+  protected void continueGraceHashJoin() throws HiveException {
+    if (hashMapRowGetters == null) {
+      hashMapRowGetters = new ReusableGetAdaptor[mapJoinTables.length];
+    }
+    int numPartitions = 0;
+    // Find out number of partitions for each small table (should be same across tables)
+    for (byte pos = 0; pos < mapJoinTables.length; pos++) {
+      if (pos != conf.getPosBigTable()) {
+        firstSmallTable = (HybridHashTableContainer) mapJoinTables[pos];
+        numPartitions = firstSmallTable.getHashPartitions().length;
+        break;
+      }
+    }
+    assert numPartitions != 0 : "Number of partitions must be greater than 0!";
+
+    if (firstSmallTable.hasSpill()) {
+      spilledMapJoinTables = new MapJoinBytesTableContainer[mapJoinTables.length];
+      hybridMapJoinLeftover = true;
+
+      // Clear all in-memory partitions first
+      for (byte pos = 0; pos < mapJoinTables.length; pos++) {
+        MapJoinTableContainer tableContainer = mapJoinTables[pos];
+        if (tableContainer != null && tableContainer instanceof HybridHashTableContainer) {
+          HybridHashTableContainer hybridHtContainer = (HybridHashTableContainer) tableContainer;
+          hybridHtContainer.dumpStats();
+
+          HashPartition[] hashPartitions = hybridHtContainer.getHashPartitions();
+          // Clear all in memory partitions first
+          for (int i = 0; i < hashPartitions.length; i++) {
+            if (!hashPartitions[i].isHashMapOnDisk()) {
+              hybridHtContainer.setTotalInMemRowCount(
+                  hybridHtContainer.getTotalInMemRowCount() -
+                      hashPartitions[i].getHashMapFromMemory().getNumValues());
+              hashPartitions[i].getHashMapFromMemory().clear();
+            }
+          }
+          assert hybridHtContainer.getTotalInMemRowCount() == 0;
+        }
+      }
+
+      // Reprocess the spilled data
+      for (int i = 0; i < numPartitions; i++) {
+        HashPartition[] hashPartitions = firstSmallTable.getHashPartitions();
+        if (hashPartitions[i].isHashMapOnDisk()) {
+          try {
+            continueProcess(i);     // Re-process spilled data
+          } catch (KryoException ke) {
+            LOG.error("Processing the spilled data failed due to Kryo error!");
+            LOG.error("Cleaning up all spilled data!");
+            cleanupGraceHashJoin();
+            throw new HiveException(ke);
+          } catch (Exception e) {
+            throw new HiveException(e);
+          }
+          for (byte pos = 0; pos < order.length; pos++) {
+            if (pos != conf.getPosBigTable())
+              spilledMapJoinTables[pos] = null;
+          }
+        }
+      }
+    }
+  }
+
   private void clearAllTableContainers() {
     if (mapJoinTables != null) {
       for (MapJoinTableContainer tableContainer : mapJoinTables) {
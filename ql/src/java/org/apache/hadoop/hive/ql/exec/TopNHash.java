@@ -126,6 +126,14 @@ public void initialize(
     this.isEnabled = true;
   }
 
+  /**
+   * @return whether the hash picks the top N rows; false when it was initialized or turned
+   *         off for being over its memory budget, in which case it forwards all rows.
+   */
+  public boolean isEnabled() {
+    return isEnabled;
+  }
+
   /**
    * Try store the non-vectorized key.
    * @param key Serialized key.
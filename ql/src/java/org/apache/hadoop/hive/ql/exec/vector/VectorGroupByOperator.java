@@ -18,6 +18,7 @@
 
 package org.apache.hadoop.hive.ql.exec.vector;
 
+import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.ref.SoftReference;
@@ -44,7 +45,11 @@
 import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpressionWriter;
 import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpressionWriterFactory;
 import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.VectorAggregateExpression;
+import org.apache.hadoop.hive.ql.exec.vector.groupby.VectorGroupByFlatAggregates;
+import org.apache.hadoop.hive.ql.exec.vector.groupby.VectorGroupByHashTable;
+import org.apache.hadoop.hive.ql.exec.vector.rowbytescontainer.VectorRowBytesContainer;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.metadata.HiveUtils;
 import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
 import org.apache.hadoop.hive.ql.plan.GroupByDesc;
 import org.apache.hadoop.hive.ql.plan.OperatorDesc;
@@ -52,11 +57,16 @@
 import org.apache.hadoop.hive.ql.plan.VectorGroupByDesc;
 import org.apache.hadoop.hive.ql.plan.api.OperatorType;
 import org.apache.hadoop.hive.ql.util.JavaDataModel;
+import org.apache.hadoop.hive.serde2.ByteStream.Output;
+import org.apache.hadoop.hive.serde2.lazybinary.fast.LazyBinaryDeserializeRead;
+import org.apache.hadoop.hive.serde2.lazybinary.fast.LazyBinarySerializeWrite;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector.Category;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
 import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.mapred.JobConf;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -140,12 +150,45 @@ public class VectorGroupByOperator extends Operator<GroupByDesc>
 
   private transient int numEntriesHashTable;
 
+  private static final int NATIVE_HASH_TABLE_INITIAL_CAPACITY = 1024;
+  private static final int NATIVE_HASH_TABLE_WRITE_BUFFERS_SIZE = 1024 * 1024;
+
   private transient long maxHashTblMemory;
 
   private transient long maxMemory;
 
   private float memoryThreshold;
 
+  /*
+   * Map-side bypass of the hash aggregation (see ProcessingModePassThrough).
+   */
+  private transient boolean isBypassEnabled;
+
+  // The number of rows to forward in bypass mode before trying hash aggregation again.
+  private transient long bypassRecheckRows;
+  private transient long initialBypassRecheckRows;
+
+  /*
+   * Hash partition spilling of the hash mode (see ProcessingModeHashAggregate.spillPartition).
+   */
+  private transient boolean isSpillEnabled;
+  private transient int spillPartitionCount;
+  private transient String spillLocalDirs;
+
+  // Created on the first spill, from the columns of the first batch.
+  private transient VectorSerializeRow<LazyBinarySerializeWrite> spillVectorSerializeRow;
+  private transient VectorDeserializeRow<LazyBinaryDeserializeRead> spillVectorDeserializeRow;
+  private transient VectorizedRowBatch spillReplayBatch;
+  private transient int spillReplayBatchMaxSize;
+
+  private transient LongWritable spilledPartitionsCounter;
+  private transient LongWritable spilledRowsCounter;
+  private transient LongWritable spilledBytesCounter;
+
+  public static enum SpillCounter {
+    SPILLED_PARTITIONS, SPILLED_ROWS, SPILLED_BYTES
+  }
+
   /**
    * Interface for processing mode: global, hash, unsorted streaming, or group batch
    */
@@ -281,11 +324,50 @@ public void close(boolean aborted) throws HiveException {
    */
   private class ProcessingModeHashAggregate extends ProcessingModeBase {
 
+    /**
+     * True when hash aggregation was resumed after a bypass period.  Rows were already
+     * forwarded, so no summary row is ever needed.
+     */
+    private final boolean isResumed;
+
+    ProcessingModeHashAggregate() {
+      this(false);
+    }
+
+    ProcessingModeHashAggregate(boolean isResumed) {
+      this.isResumed = isResumed;
+    }
+
     /**
      * The global key-aggregation hash map.
      */
     private Map<KeyWrapper, VectorAggregationBufferRow> mapKeysAggregationBuffers;
 
+    /**
+     * The specialized open addressing key-aggregation hash table used instead of
+     * mapKeysAggregationBuffers when hive.vectorized.groupby.native.hashtable.enabled is true.
+     */
+    private VectorGroupByHashTable hashTable;
+
+    /**
+     * The aggregation state of the hash table entries when all the aggregates have a fixed
+     * width state, or null.  The entry of each row of the current batch is in batchEntries.
+     */
+    private VectorGroupByFlatAggregates flatAggregates;
+    private int[] batchEntries;
+
+    private final VectorGroupByHashTable.FlushProcessor flushProcessor =
+        new VectorGroupByHashTable.FlushProcessor() {
+          @Override
+          public void process(VectorHashKeyWrapper kw, int entry) throws HiveException {
+            if (flatAggregates != null) {
+              writeSingleRow(kw, flatAggregates, entry);
+            } else {
+              writeSingleRow(kw, hashTable.getAggregationBuffer(entry));
+            }
+          }
+        };
+
     /**
      * Total per hashtable entry fixed memory (does not depend on key/agg values).
      */
@@ -349,10 +431,37 @@ private class ProcessingModeHashAggregate extends ProcessingModeBase {
      */
     private long numRowsCompareHashAggr;
 
+    /**
+     * Which hash partitions are spilled, or null when spilling is off.  The rows of a spilled
+     * partition are written to its container and aggregated at close.
+     */
+    private boolean[] spilledPartitions;
+    private int spilledPartitionCount;
+
+    /**
+     * Number of hash table entries of each partition, used to pick the partition to spill.
+     */
+    private int[] partitionEntryCounts;
+
+    private VectorRowBytesContainer[] spillContainers;
+
+    /**
+     * True while the spilled rows are aggregated at close.  No more partitions are spilled then.
+     */
+    private boolean isReplaying;
+
+    private int[] spillSelected;
+
     @Override
     public void initialize(Configuration hconf) throws HiveException {
+      boolean useNativeHashTable;
+      float hashTableLoadFactor;
       // hconf is null in unit testing
       if (null != hconf) {
+        useNativeHashTable = HiveConf.getBoolVar(hconf,
+            HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_NATIVE_HASHTABLE_ENABLED);
+        hashTableLoadFactor = HiveConf.getFloatVar(hconf,
+            HiveConf.ConfVars.HIVEHASHTABLELOADFACTOR);
         this.percentEntriesToFlush = HiveConf.getFloatVar(hconf,
           HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_FLUSH_PERCENT);
         this.checkInterval = HiveConf.getIntVar(hconf,
@@ -365,6 +474,9 @@ public void initialize(Configuration hconf) throws HiveException {
             HiveConf.ConfVars.HIVEGROUPBYMAPINTERVAL);
       }
       else {
+        useNativeHashTable =
+            HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_NATIVE_HASHTABLE_ENABLED.defaultBoolVal;
+        hashTableLoadFactor = HiveConf.ConfVars.HIVEHASHTABLELOADFACTOR.defaultFloatVal;
         this.percentEntriesToFlush =
             HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_FLUSH_PERCENT.defaultFloatVal;
         this.checkInterval =
@@ -379,7 +491,23 @@ public void initialize(Configuration hconf) throws HiveException {
 
       sumBatchSize = 0;
 
-      mapKeysAggregationBuffers = new HashMap<KeyWrapper, VectorAggregationBufferRow>();
+      if (useNativeHashTable) {
+        flatAggregates = VectorGroupByFlatAggregates.create(aggregators);
+        if (flatAggregates != null) {
+          batchEntries = new int[VectorizedRowBatch.DEFAULT_SIZE];
+        }
+        hashTable = VectorGroupByHashTable.create(keyWrappersBatch,
+            NATIVE_HASH_TABLE_INITIAL_CAPACITY, hashTableLoadFactor,
+            NATIVE_HASH_TABLE_WRITE_BUFFERS_SIZE, flatAggregates);
+      } else {
+        mapKeysAggregationBuffers = new HashMap<KeyWrapper, VectorAggregationBufferRow>();
+      }
+      if (isSpillEnabled) {
+        spilledPartitions = new boolean[spillPartitionCount];
+        partitionEntryCounts = new int[spillPartitionCount];
+        spillContainers = new VectorRowBytesContainer[spillPartitionCount];
+        spillSelected = new int[VectorizedRowBatch.DEFAULT_SIZE];
+      }
       computeMemoryLimits();
       LOG.debug("using hash aggregation processing mode");
     }
@@ -404,17 +532,31 @@ public void doProcessBatch(VectorizedRowBatch batch, boolean isFirstGroupingSet,
         keyWrappersBatch.evaluateBatchGroupingSets(batch, currentGroupingSetsOverrideIsNulls);
       }
 
+      // The rows of spilled partitions go to disk, the others are aggregated.
+      final int batchSize = batch.size;
+      final boolean selectedInUse = batch.selectedInUse;
+      final int[] selected = batch.selected;
+      if (spilledPartitionCount > 0 && !isReplaying) {
+        spillBatchRows(batch);
+      }
+
       // Next we locate the aggregation buffer set for each key
       prepareBatchAggregationBufferSets(batch);
 
       // Finally, evaluate the aggregators
-      processAggregators(batch);
+      if (flatAggregates != null) {
+        flatAggregates.aggregateInput(batch, batchEntries);
+      } else {
+        processAggregators(batch);
+      }
 
       //Flush if memory limits were reached
       // We keep flushing until the memory is under threshold
       int preFlushEntriesCount = numEntriesHashTable;
       while (shouldFlush(batch)) {
-        flush(false);
+        if (!spillPartition(batch)) {
+          flush(false);
+        }
 
         if(gcCanary.get() == null) {
           gcCanaryFlushes++;
@@ -438,6 +580,11 @@ public void doProcessBatch(VectorizedRowBatch batch, boolean isFirstGroupingSet,
         updateAvgVariableSize(batch);
       }
 
+      // Restore the rows removed by spilling.
+      batch.size = batchSize;
+      batch.selectedInUse = selectedInUse;
+      batch.selected = selected;
+
       sumBatchSize += batch.size;
       lastModeCheckRowCount += batch.size;
 
@@ -449,8 +596,18 @@ public void doProcessBatch(VectorizedRowBatch batch, boolean isFirstGroupingSet,
     public void close(boolean aborted) throws HiveException {
       if (!aborted) {
         flush(true);
+        if (spilledPartitionCount > 0) {
+          replaySpilledPartitions();
+        }
+      } else if (spillContainers != null) {
+        for (VectorRowBytesContainer container : spillContainers) {
+          if (container != null) {
+            container.clear();
+          }
+        }
       }
-      if (!aborted && sumBatchSize == 0 && GroupByOperator.shouldEmitSummaryRow(conf)) {
+      if (!aborted && !isResumed && sumBatchSize == 0 &&
+          GroupByOperator.shouldEmitSummaryRow(conf)) {
         // in case the empty grouping set is preset; but no output has done
         // the "summary row" still needs to be emitted
         VectorHashKeyWrapper kw = keyWrappersBatch.getVectorHashKeyWrappers()[0];
@@ -486,6 +643,49 @@ private void prepareBatchAggregationBufferSets(VectorizedRowBatch batch) throws
       final int n = keyExpressions.length == 0 ? 1 : batch.size;
       // note - the row mapping is not relevant when aggregationBatchInfo::getDistinctBufferSetCount() == 1
 
+      if (flatAggregates != null) {
+        if (batchEntries.length < batch.size) {
+          batchEntries = new int[batch.size];
+        }
+        for (int i=0; i < n; ++i) {
+          VectorHashKeyWrapper kw = keyWrappers[i];
+          int entry = hashTable.findEntry(kw);
+          if (entry == -1) {
+            entry = hashTable.addEntry(kw);
+            numEntriesHashTable++;
+            numEntriesSinceCheck++;
+            if (spilledPartitions != null && !isReplaying) {
+              partitionEntryCounts[hashTable.getPartition(kw, spillPartitionCount)]++;
+            }
+          }
+          batchEntries[i] = entry;
+        }
+        if (n < batch.size) {
+          // Without keys all the rows are in the same group.
+          Arrays.fill(batchEntries, 1, batch.size, batchEntries[0]);
+        }
+        return;
+      }
+
+      if (hashTable != null) {
+        for (int i=0; i < n; ++i) {
+          VectorHashKeyWrapper kw = keyWrappers[i];
+          VectorAggregationBufferRow aggregationBuffer = hashTable.get(kw);
+          if (null == aggregationBuffer) {
+            // The table copies the key, so the reused keywrapper can be passed directly.
+            aggregationBuffer = allocateAggregationBuffer();
+            hashTable.add(kw, aggregationBuffer);
+            numEntriesHashTable++;
+            numEntriesSinceCheck++;
+            if (spilledPartitions != null && !isReplaying) {
+              partitionEntryCounts[hashTable.getPartition(kw, spillPartitionCount)]++;
+            }
+          }
+          aggregationBatchInfo.mapAggregationBufferSet(aggregationBuffer, i);
+        }
+        return;
+      }
+
       for (int i=0; i < n; ++i) {
         VectorHashKeyWrapper kw = keyWrappers[i];
         VectorAggregationBufferRow aggregationBuffer = mapKeysAggregationBuffers.get(kw);
@@ -498,6 +698,9 @@ private void prepareBatchAggregationBufferSets(VectorizedRowBatch batch) throws
           mapKeysAggregationBuffers.put(kw.copyKey(), aggregationBuffer);
           numEntriesHashTable++;
           numEntriesSinceCheck++;
+          if (spilledPartitions != null && !isReplaying) {
+            partitionEntryCounts[getSpillPartition(kw)]++;
+          }
         }
         aggregationBatchInfo.mapAggregationBufferSet(aggregationBuffer, i);
       }
@@ -509,10 +712,19 @@ private void prepareBatchAggregationBufferSets(VectorizedRowBatch batch) throws
     private void computeMemoryLimits() {
       JavaDataModel model = JavaDataModel.get();
 
-      fixedHashEntrySize =
-          model.hashMapEntry() +
-          keyWrappersBatch.getKeysFixedSize() +
-          aggregationBatchInfo.getAggregatorsFixedSize();
+      if (flatAggregates != null) {
+        // The flat aggregation state is part of the hash table entry.
+        fixedHashEntrySize = hashTable.getFixedEntrySize();
+      } else if (hashTable != null) {
+        fixedHashEntrySize =
+            hashTable.getFixedEntrySize() +
+            aggregationBatchInfo.getAggregatorsFixedSize();
+      } else {
+        fixedHashEntrySize =
+            model.hashMapEntry() +
+            keyWrappersBatch.getKeysFixedSize() +
+            aggregationBatchInfo.getAggregatorsFixedSize();
+      }
 
       MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
       maxMemory = memoryMXBean.getHeapMemoryUsage().getMax();
@@ -557,6 +769,19 @@ private void flush(boolean all) throws HiveException {
             gcCanary.get() == null ? "dead" : "alive"));
       }
 
+      if (hashTable != null) {
+        // The native hash table emits the oldest entries first.
+        numEntriesHashTable -= hashTable.flush(
+            all ? Integer.MAX_VALUE : entriesToFlush, flushProcessor);
+        if (all && partitionEntryCounts != null) {
+          Arrays.fill(partitionEntryCounts, 0);
+        }
+        if (all && LOG.isDebugEnabled()) {
+          LOG.debug(String.format("GC canary caused %d flushes", gcCanaryFlushes));
+        }
+        return;
+      }
+
       /* Iterate the global (keywrapper,aggregationbuffers) map and emit
        a row for each key */
       Iterator<Map.Entry<KeyWrapper, VectorAggregationBufferRow>> iter =
@@ -579,6 +804,9 @@ private void flush(boolean all) throws HiveException {
         mapKeysAggregationBuffers.clear();
         numEntriesHashTable = 0;
       }
+      if (all && partitionEntryCounts != null) {
+        Arrays.fill(partitionEntryCounts, 0);
+      }
 
       if (all && LOG.isDebugEnabled()) {
         LOG.debug(String.format("GC canary caused %d flushes", gcCanaryFlushes));
@@ -617,7 +845,8 @@ private boolean shouldFlush(VectorizedRowBatch batch) {
      */
     private void updateAvgVariableSize(VectorizedRowBatch batch) {
       int keyVariableSize = keyWrappersBatch.getVariableSize(batch.size);
-      int aggVariableSize = aggregationBatchInfo.getVariableSize(batch.size);
+      int aggVariableSize =
+          (flatAggregates != null ? 0 : aggregationBatchInfo.getVariableSize(batch.size));
 
       // This assumes the distribution of variable size keys/aggregates in the input
       // is the same as the distribution of variable sizes in the hash entries
@@ -630,6 +859,10 @@ private void updateAvgVariableSize(VectorizedRowBatch batch) {
      * @throws HiveException
      */
     private void checkHashModeEfficiency() throws HiveException {
+      if (spilledPartitionCount > 0) {
+        // The spilled rows are only aggregated at close, so keep the hash mode.
+        return;
+      }
       if (lastModeCheckRowCount > numRowsCompareHashAggr) {
         lastModeCheckRowCount = 0;
         if (LOG.isDebugEnabled()) {
@@ -639,8 +872,163 @@ private void checkHashModeEfficiency() throws HiveException {
         if (numEntriesHashTable > sumBatchSize * minReductionHashAggr) {
           flush(true);
 
-          changeToStreamingMode();
+          if (isBypassEnabled) {
+            changeToPassThroughMode(isResumed);
+          } else {
+            changeToStreamingMode();
+          }
+        } else if (isResumed) {
+          // Hash aggregation pays off again; start over with the initial recheck interval.
+          bypassRecheckRows = initialBypassRecheckRows;
+        }
+      }
+    }
+
+    private int getSpillPartition(VectorHashKeyWrapper kw) {
+      if (hashTable != null) {
+        return hashTable.getPartition(kw, spillPartitionCount);
+      }
+      return VectorGroupByHashTable.getPartition(kw.hashCode(), spillPartitionCount);
+    }
+
+    /**
+     * Relieves memory pressure by emitting the groups of the largest in-memory hash partition
+     * and sending the later rows of that partition to disk (see spillBatchRows).  Unlike a
+     * partial flush, the groups of the other partitions stay complete.
+     * @return false when nothing can be spilled and a partial flush is needed instead
+     */
+    private boolean spillPartition(VectorizedRowBatch batch) throws HiveException {
+      if (spilledPartitions == null || isReplaying) {
+        return false;
+      }
+      if (spillReplayBatch == null && !setupSpillSerDe(batch)) {
+        spilledPartitions = null;
+        partitionEntryCounts = null;
+        return false;
+      }
+
+      int partition = -1;
+      int maxEntryCount = 0;
+      for (int i = 0; i < spillPartitionCount; i++) {
+        if (!spilledPartitions[i] && partitionEntryCounts[i] > maxEntryCount) {
+          partition = i;
+          maxEntryCount = partitionEntryCounts[i];
+        }
+      }
+      if (partition == -1) {
+        return false;
+      }
+
+      int entriesFlushed = 0;
+      if (hashTable != null) {
+        entriesFlushed = hashTable.flushPartition(partition, spillPartitionCount, flushProcessor);
+      } else {
+        Iterator<Map.Entry<KeyWrapper, VectorAggregationBufferRow>> iter =
+            mapKeysAggregationBuffers.entrySet().iterator();
+        while (iter.hasNext()) {
+          Map.Entry<KeyWrapper, VectorAggregationBufferRow> pair = iter.next();
+          VectorHashKeyWrapper kw = (VectorHashKeyWrapper) pair.getKey();
+          if (getSpillPartition(kw) == partition) {
+            writeSingleRow(kw, pair.getValue());
+            iter.remove();
+            entriesFlushed++;
+          }
+        }
+      }
+      numEntriesHashTable -= entriesFlushed;
+      partitionEntryCounts[partition] = 0;
+      spilledPartitions[partition] = true;
+      spilledPartitionCount++;
+      spillContainers[partition] = new VectorRowBytesContainer(spillLocalDirs);
+      spilledPartitionsCounter.set(spilledPartitionsCounter.get() + 1);
+
+      LOG.info(String.format("Spilled hash partition %d of %d, flushed %d entries",
+          partition, spillPartitionCount, entriesFlushed));
+      return true;
+    }
+
+    /**
+     * Writes the rows of the spilled partitions to disk and removes them (and their key
+     * wrappers) from the batch selection.  The caller restores the batch selection.
+     */
+    private void spillBatchRows(VectorizedRowBatch batch) throws HiveException {
+      if (spillSelected.length < batch.size) {
+        spillSelected = new int[batch.size];
+      }
+      VectorHashKeyWrapper[] keyWrappers = keyWrappersBatch.getVectorHashKeyWrappers();
+      int newSize = 0;
+      long spilledBytes = 0;
+      try {
+        for (int logical = 0; logical < batch.size; logical++) {
+          final int batchIndex = batch.selectedInUse ? batch.selected[logical] : logical;
+          VectorHashKeyWrapper kw = keyWrappers[logical];
+          final int partition = getSpillPartition(kw);
+          if (spilledPartitions[partition]) {
+            VectorRowBytesContainer container = spillContainers[partition];
+            Output output = container.getOuputForRowBytes();
+            final int offset = output.getLength();
+            spillVectorSerializeRow.setOutputAppend(output);
+            spillVectorSerializeRow.serializeWrite(batch, batchIndex);
+            spilledBytes += output.getLength() - offset;
+            container.finishRow();
+          } else {
+            keyWrappers[logical] = keyWrappers[newSize];
+            keyWrappers[newSize] = kw;
+            spillSelected[newSize++] = batchIndex;
+          }
         }
+      } catch (IOException e) {
+        throw new HiveException(e);
+      }
+      spilledRowsCounter.set(spilledRowsCounter.get() + batch.size - newSize);
+      spilledBytesCounter.set(spilledBytesCounter.get() + spilledBytes);
+
+      batch.selected = spillSelected;
+      batch.selectedInUse = true;
+      batch.size = newSize;
+    }
+
+    /**
+     * Aggregates and emits the rows of each spilled partition in turn.  A partition that does
+     * not fit in memory falls back to partial flushes.
+     */
+    private void replaySpilledPartitions() throws HiveException {
+      isReplaying = true;
+      for (int partition = 0; partition < spillPartitionCount; partition++) {
+        VectorRowBytesContainer container = spillContainers[partition];
+        if (container == null) {
+          continue;
+        }
+        try {
+          container.prepareForReading();
+          while (container.readNext()) {
+            spillVectorDeserializeRow.setBytes(
+                container.currentBytes(), container.currentOffset(), container.currentLength());
+            try {
+              spillVectorDeserializeRow.deserialize(spillReplayBatch, spillReplayBatch.size);
+            } catch (Exception e) {
+              throw new HiveException(
+                  "\nDeserializeRead detail: " +
+                      spillVectorDeserializeRow.getDetailedReadPositionString(),
+                  e);
+            }
+            spillReplayBatch.size++;
+            if (spillReplayBatch.size == spillReplayBatchMaxSize) {
+              doProcessBatch(spillReplayBatch, false, null);
+              spillReplayBatch.reset();
+            }
+          }
+          if (spillReplayBatch.size > 0) {
+            doProcessBatch(spillReplayBatch, false, null);
+            spillReplayBatch.reset();
+          }
+        } catch (IOException e) {
+          throw new HiveException(e);
+        } finally {
+          container.clear();
+          spillContainers[partition] = null;
+        }
+        flush(true);
       }
     }
   }
@@ -771,6 +1159,88 @@ public void close(boolean aborted) throws HiveException {
     }
   }
 
+  /**
+   * Map-side bypass processing mode.  Used when hash aggregation does not reduce the number
+   * of rows enough to pay for itself (i.e. near unique keys).  Each input row is forwarded as
+   * its own partial aggregation: no hashing, key comparison or key copy is done.
+   *
+   * After bypassRecheckRows rows, hash aggregation is tried again in case the key distribution
+   * has changed.
+   */
+  private class ProcessingModePassThrough extends ProcessingModeBase {
+
+    /**
+     * One aggregation buffer set per batch row, reset for each batch.
+     */
+    private VectorAggregationBufferRow[] rowAggregationBuffers;
+
+    private long rowCount;
+
+    @Override
+    public void initialize(Configuration hconf) throws HiveException {
+      rowAggregationBuffers = new VectorAggregationBufferRow[VectorizedRowBatch.DEFAULT_SIZE];
+      for (int i = 0; i < rowAggregationBuffers.length; ++i) {
+        rowAggregationBuffers[i] = allocateAggregationBuffer();
+      }
+      rowCount = 0;
+      LOG.info("using pass-through (bypass) aggregation processing mode");
+    }
+
+    @Override
+    public void setNextVectorBatchGroupStatus(boolean isLastGroupBatch) throws HiveException {
+      // Do nothing.
+    }
+
+    @Override
+    public void processBatch(VectorizedRowBatch batch) throws HiveException {
+      super.processBatch(batch);
+
+      // Only switch on batch boundaries so every grouping set of the batch goes to one mode.
+      rowCount += batch.size;
+      if (bypassRecheckRows > 0 && rowCount >= bypassRecheckRows) {
+        changeToHashMode();
+      }
+    }
+
+    @Override
+    public void doProcessBatch(VectorizedRowBatch batch, boolean isFirstGroupingSet,
+        boolean[] currentGroupingSetsOverrideIsNulls) throws HiveException {
+
+      if (!groupingSetsPresent || isFirstGroupingSet) {
+
+        // Evaluate the key expressions once.
+        for(int i = 0; i < keyExpressions.length; ++i) {
+          keyExpressions[i].evaluate(batch);
+        }
+      }
+
+      // The key wrappers are only used to output the keys, so skip the hash codes.
+      if (!groupingSetsPresent) {
+        keyWrappersBatch.evaluateBatch(batch, false);
+      } else {
+        keyWrappersBatch.evaluateBatchGroupingSets(batch, currentGroupingSetsOverrideIsNulls);
+      }
+
+      aggregationBatchInfo.startBatch();
+      for (int i = 0; i < batch.size; ++i) {
+        rowAggregationBuffers[i].reset();
+        aggregationBatchInfo.mapAggregationBufferSet(rowAggregationBuffers[i], i);
+      }
+
+      processAggregators(batch);
+
+      VectorHashKeyWrapper[] batchKeys = keyWrappersBatch.getVectorHashKeyWrappers();
+      for (int i = 0; i < batch.size; ++i) {
+        writeSingleRow(batchKeys[i], rowAggregationBuffers[i]);
+      }
+    }
+
+    @Override
+    public void close(boolean aborted) throws HiveException {
+      // Every row was already forwarded.
+    }
+  }
+
   /**
    * Sorted reduce group batch processing mode. Each input VectorizedRowBatch will have the
    * same key.  On endGroup (or close), the intermediate values are flushed.
@@ -1053,6 +1523,43 @@ protected void initializeOp(Configuration hconf) throws HiveException {
 
     setupGroupingSets();
 
+    if (hconf != null) {
+      isBypassEnabled = HiveConf.getBoolVar(hconf,
+          HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_BYPASS_ENABLED);
+      initialBypassRecheckRows = HiveConf.getIntVar(hconf,
+          HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_BYPASS_RECHECK_ROWS);
+    } else {
+      isBypassEnabled =
+          HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_BYPASS_ENABLED.defaultBoolVal;
+      initialBypassRecheckRows =
+          HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_BYPASS_RECHECK_ROWS.defaultIntVal;
+    }
+    bypassRecheckRows = initialBypassRecheckRows;
+
+    if (hconf != null) {
+      isSpillEnabled = HiveConf.getBoolVar(hconf,
+          HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_SPILL_ENABLED);
+      spillPartitionCount = HiveConf.getIntVar(hconf,
+          HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_SPILL_PARTITIONS);
+    } else {
+      isSpillEnabled = false;
+    }
+    // The spilled rows are whole input rows, which the grouping sets would expand.
+    if (isSpillEnabled && (groupingSetsPresent || keyExpressions.length == 0)) {
+      isSpillEnabled = false;
+    }
+    if (isSpillEnabled) {
+      Preconditions.checkState(Integer.bitCount(spillPartitionCount) == 1,
+          "hive.vectorized.groupby.spill.partitions must be a power of 2");
+      spillLocalDirs = HiveUtils.getLocalDirList(hconf);
+      spilledPartitionsCounter = new LongWritable();
+      spilledRowsCounter = new LongWritable();
+      spilledBytesCounter = new LongWritable();
+      statsMap.put(SpillCounter.SPILLED_PARTITIONS.toString(), spilledPartitionsCounter);
+      statsMap.put(SpillCounter.SPILLED_ROWS.toString(), spilledRowsCounter);
+      statsMap.put(SpillCounter.SPILLED_BYTES.toString(), spilledBytesCounter);
+    }
+
     switch (vectorDesc.getProcessingMode()) {
     case GLOBAL:
       Preconditions.checkState(outputKeyLength == 0);
@@ -1076,6 +1583,59 @@ protected void initializeOp(Configuration hconf) throws HiveException {
     processingMode.initialize(hconf);
   }
 
+  /**
+   * Sets up the serialization of the spilled rows of the hash mode.  All the columns present in
+   * the batch are spilled since the key and aggregate expressions are evaluated again on replay.
+   * @return false when the batch has columns that cannot be spilled
+   */
+  private boolean setupSpillSerDe(VectorizedRowBatch batch) throws HiveException {
+    List<Integer> spillColumnList = new ArrayList<Integer>();
+    List<TypeInfo> spillTypeInfoList = new ArrayList<TypeInfo>();
+    int maxSize = batch.getMaxSize();
+    for (int i = 0; i < batch.projectionSize; i++) {
+      final int projectedColumn = batch.projectedColumns[i];
+      ColumnVector colVector = batch.cols[projectedColumn];
+      if (colVector == null) {
+        continue;
+      }
+      TypeInfo typeInfo;
+      try {
+        typeInfo = vContext.getTypeInfo(projectedColumn);
+      } catch (HiveException e) {
+        LOG.info("Vector group by spilling disabled: " + e.getMessage());
+        return false;
+      }
+      if (typeInfo.getCategory() != Category.PRIMITIVE ||
+          colVector instanceof Decimal64ColumnVector) {
+        LOG.info("Vector group by spilling disabled: column " + projectedColumn +
+            " of type " + typeInfo + " cannot be spilled");
+        return false;
+      }
+      spillColumnList.add(projectedColumn);
+      spillTypeInfoList.add(typeInfo);
+      maxSize = Math.min(maxSize, colVector.isNull.length);
+    }
+    int[] spillColumns = ArrayUtils.toPrimitive(spillColumnList.toArray(new Integer[0]));
+    TypeInfo[] spillTypeInfos = spillTypeInfoList.toArray(new TypeInfo[0]);
+
+    spillVectorSerializeRow =
+        new VectorSerializeRow<LazyBinarySerializeWrite>(
+            new LazyBinarySerializeWrite(spillColumns.length));
+    spillVectorSerializeRow.init(spillTypeInfos, spillColumns);
+
+    spillVectorDeserializeRow =
+        new VectorDeserializeRow<LazyBinaryDeserializeRead>(
+            new LazyBinaryDeserializeRead(
+                spillTypeInfos,
+                /* useExternalBuffer */ true));
+    spillVectorDeserializeRow.init(spillColumns);
+
+    // The replay batch has the same column vector sizes as the batch.
+    spillReplayBatch = VectorizedBatchUtil.makeLike(batch);
+    spillReplayBatchMaxSize = maxSize;
+    return true;
+  }
+
   /**
    * changes the processing mode to streaming
    * This is done at the request of the hash agg mode, if the number of keys
@@ -1088,6 +1648,34 @@ private void changeToStreamingMode() throws HiveException {
     LOG.trace("switched to streaming mode");
   }
 
+  /**
+   * changes the processing mode to pass-through (bypass)
+   * This is done at the request of the hash agg mode, if the number of keys
+   * exceeds the minReductionHashAggr factor
+   * @param isRecheck true when hash aggregation was retried after a bypass period
+   * @throws HiveException
+   */
+  private void changeToPassThroughMode(boolean isRecheck) throws HiveException {
+    if (isRecheck && bypassRecheckRows > 0) {
+      // Hash aggregation still does not reduce the rows, back off.
+      bypassRecheckRows = Math.min(bypassRecheckRows * 2, Long.MAX_VALUE / 2);
+    }
+    processingMode = this.new ProcessingModePassThrough();
+    processingMode.initialize(null);
+    LOG.info("switched to pass-through mode, hash aggregation is retried after " +
+        bypassRecheckRows + " rows");
+  }
+
+  /**
+   * changes the processing mode back to hash aggregation after a bypass period
+   * @throws HiveException
+   */
+  private void changeToHashMode() throws HiveException {
+    processingMode = this.new ProcessingModeHashAggregate(true);
+    processingMode.initialize(getConfiguration());
+    LOG.info("switched back to hash aggregation mode");
+  }
+
   @Override
   public void setNextVectorBatchGroupStatus(boolean isLastGroupBatch) throws HiveException {
     processingMode.setNextVectorBatchGroupStatus(isLastGroupBatch);
@@ -1146,6 +1734,27 @@ private void writeSingleRow(VectorHashKeyWrapper kw, VectorAggregationBufferRow
     }
   }
 
+  /**
+   * Emits a single row, made from the key and the flat aggregation state of a hash table entry.
+   */
+  private void writeSingleRow(VectorHashKeyWrapper kw, VectorGroupByFlatAggregates flatAggregates,
+      int entry) throws HiveException {
+
+    int colNum = 0;
+    final int batchIndex = outputBatch.size;
+
+    for (int i = 0; i < outputKeyLength; ++i) {
+      keyWrappersBatch.assignRowColumn(outputBatch, batchIndex, colNum++, kw);
+    }
+    for (int i = 0; i < aggregators.length; ++i) {
+      flatAggregates.assignRowColumn(outputBatch, batchIndex, colNum++, i, entry);
+    }
+    ++outputBatch.size;
+    if (outputBatch.size == VectorizedRowBatch.DEFAULT_SIZE) {
+      flushOutput();
+    }
+  }
+
   /**
    * Emits a (reduce) group row, made from the key (copied in at the beginning of the group) and
    * the row aggregation buffers values
@@ -73,6 +73,28 @@ public int getKeysFixedSize() {
     return keysFixedSize;
   }
 
+  /**
+   * Returns the number of keys.
+   */
+  public int getKeyCount() {
+    return keyCount;
+  }
+
+  /**
+   * Returns the column vector type of a key.
+   */
+  public ColumnVector.Type getColumnVectorType(int keyIndex) {
+    return columnVectorTypes[keyIndex];
+  }
+
+  /**
+   * Returns the index of a key among the keys of the same column vector type, which is the
+   * index to use with the VectorHashKeyWrapper getters and assigners.
+   */
+  public int getColumnTypeSpecificIndex(int keyIndex) {
+    return columnTypeSpecificIndices[keyIndex];
+  }
+
   /**
    * Accessor for the batch-sized array of key wrappers.
    */
@@ -91,6 +113,18 @@ public VectorHashKeyWrapper[] getVectorHashKeyWrappers() {
    * @throws HiveException
    */
   public void evaluateBatch(VectorizedRowBatch batch) throws HiveException {
+    evaluateBatch(batch, true);
+  }
+
+  /**
+   * Processes a batch, optionally without computing the hash codes of the key wrappers.
+   * Key wrappers without hash codes may only be used to output the key values.
+   * @param batch
+   * @param computeHashCodes
+   * @throws HiveException
+   */
+  public void evaluateBatch(VectorizedRowBatch batch, boolean computeHashCodes)
+      throws HiveException {
 
     if (keyCount == 0) {
       // all keywrappers must be EmptyVectorHashKeyWrapper
@@ -150,6 +184,9 @@ public void evaluateBatch(VectorizedRowBatch batch) throws HiveException {
 
       evaluateIntervalDayTimeColumnVector(batch, columnVector, keyIndex, i);
     }
+    if (!computeHashCodes) {
+      return;
+    }
     for(int i=0;i<batch.size;++i) {
       vectorHashKeyWrappers[i].setHashKey();
     }
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.groupby;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.hive.ql.exec.vector.VectorHashKeyWrapper;
+import org.apache.hadoop.hive.ql.exec.vector.VectorHashKeyWrapperBatch;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast.VectorMapJoinFastKeyStore;
+import org.apache.hadoop.hive.ql.util.JavaDataModel;
+import org.apache.hadoop.hive.serde2.WriteBuffers;
+import org.apache.hive.common.util.HashCodeUtil;
+
+/**
+ * A vectorized GROUP BY hash table for a single BYTES (STRING, CHAR, VARCHAR, BINARY) key.
+ * The key bytes are appended to a VectorMapJoinFastKeyStore and each entry only keeps the
+ * 64-bit key reference word, so no per group byte array is allocated.
+ */
+public class VectorGroupByBytesKeyHashTable extends VectorGroupByHashTable {
+
+  private static final byte[] EMPTY_BYTES = new byte[0];
+
+  private final int writeBuffersSize;
+
+  private VectorMapJoinFastKeyStore keyStore;
+  private long[] entryKeyRefWords;
+
+  // The entry of the NULL key, or -1.
+  private int nullKeyEntry = -1;
+
+  private final WriteBuffers.Position readPos;
+  private final WriteBuffers.ByteSegmentRef keyByteSegmentRef;
+
+  public VectorGroupByBytesKeyHashTable(VectorHashKeyWrapperBatch keyWrappersBatch,
+      int initialCapacity, float loadFactor, int writeBuffersSize,
+      VectorGroupByFlatAggregates flatAggregates) {
+    super(keyWrappersBatch, initialCapacity, loadFactor, flatAggregates);
+    this.writeBuffersSize = writeBuffersSize;
+    keyStore = new VectorMapJoinFastKeyStore(writeBuffersSize);
+    entryKeyRefWords = new long[entryHashCodes.length];
+    readPos = new WriteBuffers.Position();
+    keyByteSegmentRef = new WriteBuffers.ByteSegmentRef();
+  }
+
+  @Override
+  protected int hashCode(VectorHashKeyWrapper kw) {
+    if (kw.isNull(0)) {
+      return 0;
+    }
+    return HashCodeUtil.murmurHash(kw.getBytes(0), kw.getByteStart(0), kw.getByteLength(0));
+  }
+
+  @Override
+  protected boolean keyEquals(int entry, VectorHashKeyWrapper kw) {
+    if (kw.isNull(0)) {
+      return entry == nullKeyEntry;
+    }
+    return entry != nullKeyEntry &&
+        keyStore.equalKey(entryKeyRefWords[entry],
+            kw.getBytes(0), kw.getByteStart(0), kw.getByteLength(0), readPos);
+  }
+
+  @Override
+  protected void assignKey(int entry, VectorHashKeyWrapper kw) {
+    if (kw.isNull(0)) {
+      nullKeyEntry = entry;
+    } else {
+      entryKeyRefWords[entry] =
+          keyStore.add(kw.getBytes(0), kw.getByteStart(0), kw.getByteLength(0));
+    }
+  }
+
+  @Override
+  protected VectorHashKeyWrapper getKey(int entry) {
+    if (entry == nullKeyEntry) {
+      scratchKeyWrapper.assignNullString(0, 0);
+      return scratchKeyWrapper;
+    }
+    keyStore.getKey(entryKeyRefWords[entry], keyByteSegmentRef, readPos);
+    scratchKeyWrapper.clearIsNull();
+    if (keyByteSegmentRef.getLength() == 0) {
+      scratchKeyWrapper.assignString(0, EMPTY_BYTES, 0, 0);
+    } else {
+      scratchKeyWrapper.assignString(0, keyByteSegmentRef.getBytes(),
+          (int) keyByteSegmentRef.getOffset(), keyByteSegmentRef.getLength());
+    }
+    return scratchKeyWrapper;
+  }
+
+  @Override
+  protected void resizeKeys(int entryCapacity) {
+    entryKeyRefWords = Arrays.copyOf(entryKeyRefWords, entryCapacity);
+  }
+
+  @Override
+  protected void compactKeys(int[] survivors, int count) {
+    // Copy the surviving keys into a new store so the flushed key bytes are released.
+    VectorMapJoinFastKeyStore newKeyStore = new VectorMapJoinFastKeyStore(writeBuffersSize);
+    int newNullKeyEntry = -1;
+    for (int i = 0; i < count; i++) {
+      final int entry = survivors[i];
+      if (entry == nullKeyEntry) {
+        newNullKeyEntry = i;
+        continue;
+      }
+      keyStore.getKey(entryKeyRefWords[entry], keyByteSegmentRef, readPos);
+      final byte[] bytes =
+          (keyByteSegmentRef.getLength() == 0 ? EMPTY_BYTES : keyByteSegmentRef.getBytes());
+      entryKeyRefWords[i] = newKeyStore.add(bytes,
+          (int) keyByteSegmentRef.getOffset(), keyByteSegmentRef.getLength());
+    }
+    keyStore = newKeyStore;
+    nullKeyEntry = newNullKeyEntry;
+  }
+
+  @Override
+  protected void clearKeys() {
+    keyStore.clear();
+    nullKeyEntry = -1;
+  }
+
+  @Override
+  protected long getKeyFixedSize() {
+    return JavaDataModel.get().primitive2();
+  }
+
+  @Override
+  public long getEstimatedMemorySize() {
+    return super.getEstimatedMemorySize() + keyStore.getEstimatedMemorySize();
+  }
+}
@@ -0,0 +1,343 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.groupby;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.hive.common.MemoryEstimate;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpression;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.VectorAggregateExpression;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.VectorUDAFCount;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.VectorUDAFCountStar;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.gen.VectorUDAFMaxDouble;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.gen.VectorUDAFMaxLong;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.gen.VectorUDAFMinDouble;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.gen.VectorUDAFMinLong;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.gen.VectorUDAFSumDouble;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.gen.VectorUDAFSumLong;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.util.JavaDataModel;
+
+/**
+ * The aggregation state of the groups of a VectorGroupByHashTable, kept in primitive arrays
+ * indexed by the entry of the group.  It replaces the VectorAggregationBufferRow and the
+ * AggregationBuffer objects of every group when all the aggregates are COUNT(*), COUNT, or
+ * SUM, MIN and MAX of LONG or DOUBLE values.
+ *
+ * The aggregates compute the same values as their VectorAggregateExpression, which still
+ * evaluates the summary row and the other processing modes.
+ */
+public class VectorGroupByFlatAggregates implements MemoryEstimate {
+
+  private enum Kind {
+    COUNT_STAR,
+    COUNT,
+    SUM_LONG,
+    MIN_LONG,
+    MAX_LONG,
+    SUM_DOUBLE,
+    MIN_DOUBLE,
+    MAX_DOUBLE
+  }
+
+  private final int aggregateCount;
+  private final Kind[] kinds;
+  private final VectorExpression[] inputExpressions;
+
+  /*
+   * The index of each aggregate among the long or the double values of a group.
+   */
+  private final int[] valueIndexes;
+  private final int longValueCount;
+  private final int doubleValueCount;
+
+  /*
+   * The values of entry e are at [e * longValueCount, (e + 1) * longValueCount) and
+   * [e * doubleValueCount, (e + 1) * doubleValueCount).  A SUM, MIN or MAX with no value yet is
+   * NULL; isValueSet is indexed by e * aggregateCount + aggregate.
+   */
+  private long[] longValues;
+  private double[] doubleValues;
+  private boolean[] isValueSet;
+
+  private VectorGroupByFlatAggregates(Kind[] kinds, VectorExpression[] inputExpressions) {
+    this.aggregateCount = kinds.length;
+    this.kinds = kinds;
+    this.inputExpressions = inputExpressions;
+    valueIndexes = new int[aggregateCount];
+    int longCount = 0;
+    int doubleCount = 0;
+    for (int a = 0; a < aggregateCount; a++) {
+      switch (kinds[a]) {
+      case SUM_DOUBLE:
+      case MIN_DOUBLE:
+      case MAX_DOUBLE:
+        valueIndexes[a] = doubleCount++;
+        break;
+      default:
+        valueIndexes[a] = longCount++;
+        break;
+      }
+    }
+    longValueCount = longCount;
+    doubleValueCount = doubleCount;
+  }
+
+  /**
+   * Creates the flat state of the aggregates.  The hash table it is given to sizes the arrays.
+   * @return null when one of the aggregates has no flat state
+   */
+  public static VectorGroupByFlatAggregates create(VectorAggregateExpression[] aggregators) {
+    final int count = aggregators.length;
+    Kind[] kinds = new Kind[count];
+    VectorExpression[] inputExpressions = new VectorExpression[count];
+    for (int a = 0; a < count; a++) {
+      // Match the exact classes; a subclass may aggregate differently.
+      final Class<?> aggregatorClass = aggregators[a].getClass();
+      if (aggregatorClass == VectorUDAFCountStar.class) {
+        kinds[a] = Kind.COUNT_STAR;
+      } else if (aggregatorClass == VectorUDAFCount.class) {
+        kinds[a] = Kind.COUNT;
+      } else if (aggregatorClass == VectorUDAFSumLong.class) {
+        kinds[a] = Kind.SUM_LONG;
+      } else if (aggregatorClass == VectorUDAFMinLong.class) {
+        kinds[a] = Kind.MIN_LONG;
+      } else if (aggregatorClass == VectorUDAFMaxLong.class) {
+        kinds[a] = Kind.MAX_LONG;
+      } else if (aggregatorClass == VectorUDAFSumDouble.class) {
+        kinds[a] = Kind.SUM_DOUBLE;
+      } else if (aggregatorClass == VectorUDAFMinDouble.class) {
+        kinds[a] = Kind.MIN_DOUBLE;
+      } else if (aggregatorClass == VectorUDAFMaxDouble.class) {
+        kinds[a] = Kind.MAX_DOUBLE;
+      } else {
+        return null;
+      }
+      inputExpressions[a] = aggregators[a].getInputExpression();
+      if (kinds[a] != Kind.COUNT_STAR && inputExpressions[a] == null) {
+        return null;
+      }
+    }
+    return new VectorGroupByFlatAggregates(kinds, inputExpressions);
+  }
+
+  /**
+   * Aggregates the rows of a batch into their groups.
+   * @param entries the entry of the group of each (logical) row of the batch
+   */
+  public void aggregateInput(VectorizedRowBatch batch, int[] entries) throws HiveException {
+    final int size = batch.size;
+    if (size == 0) {
+      return;
+    }
+    final int[] selected = batch.selectedInUse ? batch.selected : null;
+    for (int a = 0; a < aggregateCount; a++) {
+      final Kind kind = kinds[a];
+      if (kind == Kind.COUNT_STAR) {
+        final int valueIndex = valueIndexes[a];
+        for (int i = 0; i < size; i++) {
+          longValues[entries[i] * longValueCount + valueIndex]++;
+        }
+        continue;
+      }
+      inputExpressions[a].evaluate(batch);
+      final ColumnVector inputColVector = batch.cols[inputExpressions[a].getOutputColumnNum()];
+      switch (kind) {
+      case COUNT:
+        aggregateCount(a, inputColVector, selected, size, entries);
+        break;
+      case SUM_LONG:
+      case MIN_LONG:
+      case MAX_LONG:
+        aggregateLong(a, kind, (LongColumnVector) inputColVector, selected, size, entries);
+        break;
+      default:
+        aggregateDouble(a, kind, (DoubleColumnVector) inputColVector, selected, size, entries);
+        break;
+      }
+    }
+  }
+
+  private void aggregateCount(int a, ColumnVector inputColVector, int[] selected, int size,
+      int[] entries) {
+    final int valueIndex = valueIndexes[a];
+    final boolean noNulls = inputColVector.noNulls;
+    final boolean isRepeating = inputColVector.isRepeating;
+    final boolean[] isNull = inputColVector.isNull;
+    for (int i = 0; i < size; i++) {
+      final int r = isRepeating ? 0 : (selected == null ? i : selected[i]);
+      if (noNulls || !isNull[r]) {
+        longValues[entries[i] * longValueCount + valueIndex]++;
+      }
+    }
+  }
+
+  private void aggregateLong(int a, Kind kind, LongColumnVector inputColVector, int[] selected,
+      int size, int[] entries) {
+    final int valueIndex = valueIndexes[a];
+    final boolean noNulls = inputColVector.noNulls;
+    final boolean isRepeating = inputColVector.isRepeating;
+    final boolean[] isNull = inputColVector.isNull;
+    final long[] vector = inputColVector.vector;
+    for (int i = 0; i < size; i++) {
+      final int r = isRepeating ? 0 : (selected == null ? i : selected[i]);
+      if (!noNulls && isNull[r]) {
+        continue;
+      }
+      final long value = vector[r];
+      final int entry = entries[i];
+      final int v = entry * longValueCount + valueIndex;
+      final int s = entry * aggregateCount + a;
+      if (!isValueSet[s]) {
+        isValueSet[s] = true;
+        longValues[v] = value;
+      } else if (kind == Kind.SUM_LONG) {
+        longValues[v] += value;
+      } else if (kind == Kind.MIN_LONG ? value < longValues[v] : value > longValues[v]) {
+        longValues[v] = value;
+      }
+    }
+  }
+
+  private void aggregateDouble(int a, Kind kind, DoubleColumnVector inputColVector,
+      int[] selected, int size, int[] entries) {
+    final int valueIndex = valueIndexes[a];
+    final boolean noNulls = inputColVector.noNulls;
+    final boolean isRepeating = inputColVector.isRepeating;
+    final boolean[] isNull = inputColVector.isNull;
+    final double[] vector = inputColVector.vector;
+    for (int i = 0; i < size; i++) {
+      final int r = isRepeating ? 0 : (selected == null ? i : selected[i]);
+      if (!noNulls && isNull[r]) {
+        continue;
+      }
+      final double value = vector[r];
+      final int entry = entries[i];
+      final int v = entry * doubleValueCount + valueIndex;
+      final int s = entry * aggregateCount + a;
+      if (!isValueSet[s]) {
+        isValueSet[s] = true;
+        doubleValues[v] = value;
+      } else if (kind == Kind.SUM_DOUBLE) {
+        doubleValues[v] += value;
+      } else if (kind == Kind.MIN_DOUBLE ? value < doubleValues[v] : value > doubleValues[v]) {
+        doubleValues[v] = value;
+      }
+    }
+  }
+
+  /**
+   * Writes the value of an aggregate of a group into the output batch.
+   */
+  public void assignRowColumn(VectorizedRowBatch batch, int batchIndex, int columnNum,
+      int aggregate, int entry) {
+    final Kind kind = kinds[aggregate];
+    final int valueIndex = valueIndexes[aggregate];
+    final ColumnVector outputColVector = batch.cols[columnNum];
+    if (kind != Kind.COUNT_STAR && kind != Kind.COUNT &&
+        !isValueSet[entry * aggregateCount + aggregate]) {
+      outputColVector.noNulls = false;
+      outputColVector.isNull[batchIndex] = true;
+      return;
+    }
+    outputColVector.isNull[batchIndex] = false;
+    switch (kind) {
+    case SUM_DOUBLE:
+    case MIN_DOUBLE:
+    case MAX_DOUBLE:
+      ((DoubleColumnVector) outputColVector).vector[batchIndex] =
+          doubleValues[entry * doubleValueCount + valueIndex];
+      break;
+    default:
+      ((LongColumnVector) outputColVector).vector[batchIndex] =
+          longValues[entry * longValueCount + valueIndex];
+      break;
+    }
+  }
+
+  public int getAggregateCount() {
+    return aggregateCount;
+  }
+
+  /**
+   * Starts the state of a new group.
+   */
+  void reset(int entry) {
+    Arrays.fill(longValues, entry * longValueCount, (entry + 1) * longValueCount, 0L);
+    Arrays.fill(doubleValues, entry * doubleValueCount, (entry + 1) * doubleValueCount, 0.0);
+    Arrays.fill(isValueSet, entry * aggregateCount, (entry + 1) * aggregateCount, false);
+  }
+
+  /**
+   * Grows the arrays to the new entry capacity.
+   */
+  void resize(int entryCapacity) {
+    if (longValues == null) {
+      longValues = new long[entryCapacity * longValueCount];
+      doubleValues = new double[entryCapacity * doubleValueCount];
+      isValueSet = new boolean[entryCapacity * aggregateCount];
+    } else {
+      longValues = Arrays.copyOf(longValues, entryCapacity * longValueCount);
+      doubleValues = Arrays.copyOf(doubleValues, entryCapacity * doubleValueCount);
+      isValueSet = Arrays.copyOf(isValueSet, entryCapacity * aggregateCount);
+    }
+  }
+
+  /**
+   * Moves the state of the surviving entries to the front (survivor i becomes entry i).
+   * @param survivors the ascending entry numbers of the surviving entries
+   */
+  void compact(int[] survivors, int count) {
+    for (int i = 0; i < count; i++) {
+      final int entry = survivors[i];
+      if (entry != i) {
+        System.arraycopy(longValues, entry * longValueCount, longValues, i * longValueCount,
+            longValueCount);
+        System.arraycopy(doubleValues, entry * doubleValueCount, doubleValues,
+            i * doubleValueCount, doubleValueCount);
+        System.arraycopy(isValueSet, entry * aggregateCount, isValueSet, i * aggregateCount,
+            aggregateCount);
+      }
+    }
+  }
+
+  /**
+   * The fixed memory of the state of one group.
+   */
+  public long getEntrySize() {
+    return (long) JavaDataModel.get().primitive2() * (longValueCount + doubleValueCount) +
+        aggregateCount;
+  }
+
+  @Override
+  public long getEstimatedMemorySize() {
+    JavaDataModel jdm = JavaDataModel.get();
+    if (longValues == null) {
+      return jdm.object();
+    }
+    return jdm.object() +
+        jdm.lengthForLongArrayOfSize(longValues.length) +
+        jdm.lengthForDoubleArrayOfSize(doubleValues.length) +
+        jdm.lengthForBooleanArrayOfSize(isValueSet.length);
+  }
+}
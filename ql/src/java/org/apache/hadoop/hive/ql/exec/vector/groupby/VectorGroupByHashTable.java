@@ -0,0 +1,443 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.groupby;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.hive.common.MemoryEstimate;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.exec.vector.VectorAggregationBufferRow;
+import org.apache.hadoop.hive.ql.exec.vector.VectorHashKeyWrapper;
+import org.apache.hadoop.hive.ql.exec.vector.VectorHashKeyWrapperBatch;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast.VectorMapJoinFastHashTable;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.util.JavaDataModel;
+import org.apache.hive.common.util.HashCodeUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Base class of the open addressing hash tables used by the hash mode of the vectorized
+ * GROUP BY operator.
+ *
+ * A HashMap&lt;KeyWrapper, VectorAggregationBufferRow&gt; costs a copied VectorHashKeyWrapper
+ * and a HashMap.Node for every group.  Here the groups are kept in dense, insertion ordered
+ * entry arrays (hash code, aggregation buffer row and a subclass specific key representation)
+ * and the slot table only holds int references to the entries.  Rehashing never touches the
+ * keys and a partial flush emits the oldest groups first.
+ *
+ * When all the aggregates have a fixed width state (see VectorGroupByFlatAggregates) the
+ * state is kept in primitive arrays indexed by the entry instead of a row per group.
+ *
+ * The probing sequence and the hash functions are the same as the VectorMapJoinFast* tables.
+ */
+public abstract class VectorGroupByHashTable implements MemoryEstimate {
+
+  private static final Logger LOG = LoggerFactory.getLogger(VectorGroupByHashTable.class);
+
+  /**
+   * Receives the groups emitted by {@link #flush}.
+   */
+  public interface FlushProcessor {
+    void process(VectorHashKeyWrapper kw, int entry) throws HiveException;
+  }
+
+  protected final VectorHashKeyWrapperBatch keyWrappersBatch;
+
+  /**
+   * The scratch key wrapper the key of an entry is materialized into when flushing.
+   */
+  protected final VectorHashKeyWrapper scratchKeyWrapper;
+
+  private final float loadFactor;
+
+  private int logicalHashBucketCount;
+  private int logicalHashBucketMask;
+  private int resizeThreshold;
+
+  /*
+   * The hash table slots.  A slot holds the entry index plus one so that zero is empty.
+   */
+  private int[] slots;
+
+  protected int entryCount;
+  protected int[] entryHashCodes;
+
+  /*
+   * The aggregation state of the entries: either the flat aggregates, or a row per entry.
+   */
+  private final VectorGroupByFlatAggregates flatAggregates;
+  private VectorAggregationBufferRow[] entryAggregationBuffers;
+
+  /*
+   * The empty slot where the last unsuccessful get stopped.  The add that follows it uses the
+   * slot directly instead of probing again.
+   */
+  private int missSlot = -1;
+  private int missHashCode;
+
+  private int largestNumberOfSteps;
+  private int metricExpands;
+
+  protected VectorGroupByHashTable(VectorHashKeyWrapperBatch keyWrappersBatch,
+      int initialCapacity, float loadFactor, VectorGroupByFlatAggregates flatAggregates) {
+    this.keyWrappersBatch = keyWrappersBatch;
+    this.flatAggregates = flatAggregates;
+    this.scratchKeyWrapper = keyWrappersBatch.allocateKeyWrapper();
+    this.loadFactor = loadFactor;
+
+    logicalHashBucketCount = (Integer.bitCount(initialCapacity) == 1)
+        ? initialCapacity : Integer.highestOneBit(initialCapacity) << 1;
+    logicalHashBucketMask = logicalHashBucketCount - 1;
+    resizeThreshold = (int) (logicalHashBucketCount * loadFactor);
+    slots = new int[logicalHashBucketCount];
+
+    int entryCapacity = resizeThreshold + 1;
+    entryHashCodes = new int[entryCapacity];
+    if (flatAggregates != null) {
+      flatAggregates.resize(entryCapacity);
+    } else {
+      entryAggregationBuffers = new VectorAggregationBufferRow[entryCapacity];
+    }
+  }
+
+  /**
+   * Creates the hash table specialized for the key types.
+   * @param flatAggregates the flat aggregation state, or null to keep a
+   *        VectorAggregationBufferRow per entry
+   */
+  public static VectorGroupByHashTable create(VectorHashKeyWrapperBatch keyWrappersBatch,
+      int initialCapacity, float loadFactor, int writeBuffersSize,
+      VectorGroupByFlatAggregates flatAggregates) {
+    if (keyWrappersBatch.getKeyCount() == 1) {
+      switch (keyWrappersBatch.getColumnVectorType(0)) {
+      case LONG:
+      case DECIMAL_64:
+        return new VectorGroupByLongKeyHashTable(keyWrappersBatch, initialCapacity, loadFactor,
+            flatAggregates);
+      case BYTES:
+        return new VectorGroupByBytesKeyHashTable(keyWrappersBatch, initialCapacity, loadFactor,
+            writeBuffersSize, flatAggregates);
+      default:
+        break;
+      }
+    }
+    return new VectorGroupByKeyWrapperHashTable(keyWrappersBatch, initialCapacity, loadFactor,
+        writeBuffersSize, flatAggregates);
+  }
+
+  /**
+   * Computes the hash code of an evaluated key wrapper.
+   */
+  protected abstract int hashCode(VectorHashKeyWrapper kw);
+
+  /**
+   * Compares the key of an entry with an evaluated key wrapper.
+   */
+  protected abstract boolean keyEquals(int entry, VectorHashKeyWrapper kw);
+
+  /**
+   * Stores the key of a new entry.  The key wrapper is reused by the caller, so any
+   * variable length data must be copied.
+   */
+  protected abstract void assignKey(int entry, VectorHashKeyWrapper kw);
+
+  /**
+   * Materializes the key of an entry into the scratch key wrapper.
+   */
+  protected abstract VectorHashKeyWrapper getKey(int entry) throws HiveException;
+
+  /**
+   * Grows the subclass key arrays to the new entry capacity.
+   */
+  protected abstract void resizeKeys(int entryCapacity);
+
+  /**
+   * Moves the keys of the surviving entries to the front of the key arrays (survivor i becomes
+   * entry i) and releases the keys of the other entries.
+   * @param survivors the ascending entry numbers of the surviving entries
+   */
+  protected abstract void compactKeys(int[] survivors, int count);
+
+  /**
+   * Releases all the keys.
+   */
+  protected abstract void clearKeys();
+
+  /**
+   * The fixed per entry key memory (excluding the key wrapper independent parts).
+   */
+  protected abstract long getKeyFixedSize();
+
+  /**
+   * Looks up the aggregation buffer row of a key.
+   * @return the row, or null when the key is not in the table.  In that case the key may
+   *         be added with {@link #add} before any other lookup.
+   */
+  public VectorAggregationBufferRow get(VectorHashKeyWrapper kw) {
+    final int entry = findEntry(kw);
+    return (entry == -1 ? null : entryAggregationBuffers[entry]);
+  }
+
+  /**
+   * Adds the key of the last unsuccessful {@link #get} with its new aggregation buffer row.
+   */
+  public void add(VectorHashKeyWrapper kw, VectorAggregationBufferRow aggregationBuffer) {
+    final int entry = addEntry(kw);
+    // Set after addEntry, which may reallocate the entry arrays.
+    entryAggregationBuffers[entry] = aggregationBuffer;
+  }
+
+  /**
+   * Looks up the entry of a key.
+   * @return the entry, or -1 when the key is not in the table.  In that case the key may
+   *         be added with {@link #addEntry} before any other lookup.
+   */
+  public int findEntry(VectorHashKeyWrapper kw) {
+    final int hashCode = hashCode(kw);
+    int slot = hashCode & logicalHashBucketMask;
+    long probeSlot = slot;
+    int i = 0;
+    while (true) {
+      final int entryRef = slots[slot];
+      if (entryRef == 0) {
+        missSlot = slot;
+        missHashCode = hashCode;
+        if (largestNumberOfSteps < i) {
+          largestNumberOfSteps = i;
+        }
+        return -1;
+      }
+      final int entry = entryRef - 1;
+      if (entryHashCodes[entry] == hashCode && keyEquals(entry, kw)) {
+        return entry;
+      }
+      // Some other key (collision) - keep probing.
+      probeSlot += (++i);
+      slot = (int) (probeSlot & logicalHashBucketMask);
+    }
+  }
+
+  /**
+   * Adds the key of the last unsuccessful lookup.  The flat aggregation state of the new entry
+   * is reset.
+   * @return the new entry
+   */
+  public int addEntry(VectorHashKeyWrapper kw) {
+    Preconditions.checkState(missSlot != -1, "add must follow an unsuccessful get");
+
+    final int entry = entryCount++;
+    entryHashCodes[entry] = missHashCode;
+    assignKey(entry, kw);
+    if (flatAggregates != null) {
+      flatAggregates.reset(entry);
+    }
+    slots[missSlot] = entry + 1;
+    missSlot = -1;
+
+    if (entryCount >= resizeThreshold) {
+      expandAndRehash();
+    }
+    return entry;
+  }
+
+  public VectorAggregationBufferRow getAggregationBuffer(int entry) {
+    return entryAggregationBuffers[entry];
+  }
+
+  public VectorGroupByFlatAggregates getFlatAggregates() {
+    return flatAggregates;
+  }
+
+  public int size() {
+    return entryCount;
+  }
+
+  /**
+   * Emits and removes the oldest groups.
+   * @param maxEntries the maximum number of groups to flush
+   * @return the number of groups flushed
+   */
+  public int flush(int maxEntries, FlushProcessor processor) throws HiveException {
+    final int count = Math.min(maxEntries, entryCount);
+    for (int entry = 0; entry < count; entry++) {
+      processor.process(getKey(entry), entry);
+    }
+    if (count == entryCount) {
+      clear();
+    } else {
+      final int survivorCount = entryCount - count;
+      int[] survivors = new int[survivorCount];
+      for (int i = 0; i < survivorCount; i++) {
+        survivors[i] = count + i;
+      }
+      compact(survivors, survivorCount);
+    }
+    return count;
+  }
+
+  /**
+   * Emits and removes the groups of one partition (see {@link #getPartition}).
+   * @return the number of groups flushed
+   */
+  public int flushPartition(int partition, int partitionCount, FlushProcessor processor)
+      throws HiveException {
+    int[] survivors = new int[entryCount];
+    int survivorCount = 0;
+    for (int entry = 0; entry < entryCount; entry++) {
+      if (getPartition(entryHashCodes[entry], partitionCount) == partition) {
+        processor.process(getKey(entry), entry);
+      } else {
+        survivors[survivorCount++] = entry;
+      }
+    }
+    final int count = entryCount - survivorCount;
+    if (survivorCount == 0) {
+      clear();
+    } else if (count > 0) {
+      compact(survivors, survivorCount);
+    }
+    return count;
+  }
+
+  /**
+   * Returns the partition of an evaluated key wrapper, consistent with {@link #flushPartition}.
+   */
+  public int getPartition(VectorHashKeyWrapper kw, int partitionCount) {
+    return getPartition(hashCode(kw), partitionCount);
+  }
+
+  /**
+   * Maps a hash code to one of partitionCount (a power of 2) partitions.  The hash code is
+   * mixed again so the partition is independent of the slot bits.
+   */
+  public static int getPartition(int hashCode, int partitionCount) {
+    return HashCodeUtil.calculateIntHashCode(hashCode) & (partitionCount - 1);
+  }
+
+  public void clear() {
+    Arrays.fill(slots, 0);
+    if (entryAggregationBuffers != null) {
+      Arrays.fill(entryAggregationBuffers, 0, entryCount, null);
+    }
+    entryCount = 0;
+    missSlot = -1;
+    clearKeys();
+  }
+
+  private void compact(int[] survivors, int count) {
+    for (int i = 0; i < count; i++) {
+      entryHashCodes[i] = entryHashCodes[survivors[i]];
+    }
+    if (flatAggregates != null) {
+      flatAggregates.compact(survivors, count);
+    } else {
+      for (int i = 0; i < count; i++) {
+        entryAggregationBuffers[i] = entryAggregationBuffers[survivors[i]];
+      }
+      Arrays.fill(entryAggregationBuffers, count, entryCount, null);
+    }
+    compactKeys(survivors, count);
+    entryCount = count;
+    missSlot = -1;
+    rebuildSlots();
+  }
+
+  private void expandAndRehash() {
+    if (logicalHashBucketCount >= VectorMapJoinFastHashTable.HIGHEST_INT_POWER_OF_2) {
+      throw new RuntimeException("Vector GROUP BY hash table cannot grow any more -- " +
+          "lower " + HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_MAXENTRIES.varname + ". " +
+          "Current logical size is " + logicalHashBucketCount + ".");
+    }
+    logicalHashBucketCount *= 2;
+    logicalHashBucketMask = logicalHashBucketCount - 1;
+    resizeThreshold = (int) (logicalHashBucketCount * loadFactor);
+    slots = new int[logicalHashBucketCount];
+
+    final int entryCapacity = resizeThreshold + 1;
+    entryHashCodes = Arrays.copyOf(entryHashCodes, entryCapacity);
+    if (flatAggregates != null) {
+      flatAggregates.resize(entryCapacity);
+    } else {
+      entryAggregationBuffers = Arrays.copyOf(entryAggregationBuffers, entryCapacity);
+    }
+    resizeKeys(entryCapacity);
+
+    missSlot = -1;
+    rebuildSlots();
+    metricExpands++;
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Expanded to " + logicalHashBucketCount + " slots for " + entryCount +
+          " entries (expands " + metricExpands + ", largest number of steps " +
+          largestNumberOfSteps + ")");
+    }
+  }
+
+  private void rebuildSlots() {
+    Arrays.fill(slots, 0);
+    int newLargestNumberOfSteps = 0;
+    for (int entry = 0; entry < entryCount; entry++) {
+      int slot = entryHashCodes[entry] & logicalHashBucketMask;
+      long probeSlot = slot;
+      int i = 0;
+      while (slots[slot] != 0) {
+        probeSlot += (++i);
+        slot = (int) (probeSlot & logicalHashBucketMask);
+      }
+      slots[slot] = entry + 1;
+      if (newLargestNumberOfSteps < i) {
+        newLargestNumberOfSteps = i;
+      }
+    }
+    largestNumberOfSteps = newLargestNumberOfSteps;
+  }
+
+  /**
+   * The fixed memory used by one group: its share of the slot table, the entry arrays, the
+   * key and the flat aggregation state.  The aggregation buffer rows are accounted for by the
+   * caller.
+   */
+  public long getFixedEntrySize() {
+    JavaDataModel jdm = JavaDataModel.get();
+    return (long) (jdm.primitive1() / loadFactor) + jdm.primitive1() +
+        (flatAggregates != null ? flatAggregates.getEntrySize() : jdm.ref()) +
+        getKeyFixedSize();
+  }
+
+  @Override
+  public long getEstimatedMemorySize() {
+    JavaDataModel jdm = JavaDataModel.get();
+    long size = jdm.object();
+    size += jdm.lengthForIntArrayOfSize(slots.length);
+    size += jdm.lengthForIntArrayOfSize(entryHashCodes.length);
+    if (flatAggregates != null) {
+      size += flatAggregates.getEstimatedMemorySize();
+    } else {
+      size += jdm.lengthForObjectArrayOfSize(entryAggregationBuffers.length);
+    }
+    size += getKeyFixedSize() * entryHashCodes.length;
+    return size;
+  }
+
+  public int getLogicalHashBucketCount() {
+    return logicalHashBucketCount;
+  }
+}
@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.groupby;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+import org.apache.hadoop.hive.common.type.HiveIntervalDayTime;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorHashKeyWrapper;
+import org.apache.hadoop.hive.ql.exec.vector.VectorHashKeyWrapperBatch;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast.VectorMapJoinFastKeyStore;
+import org.apache.hadoop.hive.ql.util.JavaDataModel;
+import org.apache.hadoop.hive.serde2.ByteStream.Output;
+import org.apache.hadoop.hive.serde2.WriteBuffers;
+import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
+import org.apache.hive.common.util.HashCodeUtil;
+
+/**
+ * A vectorized GROUP BY hash table for any combination of keys.  The keys of a group are
+ * serialized into one byte string, appended to a VectorMapJoinFastKeyStore like the single
+ * BYTES key, so no key wrapper is kept per group.
+ *
+ * Every key is a NULL flag byte followed, when not NULL, by its value: 8 bytes for a LONG,
+ * DECIMAL_64 and the bits of a DOUBLE (so keys are equal exactly when the key wrappers are),
+ * the length and the bytes of a BYTES, the length, the big integer bytes and the scale of a
+ * DECIMAL, and the seconds and nanos of a TIMESTAMP or INTERVAL_DAY_TIME.
+ */
+public class VectorGroupByKeyWrapperHashTable extends VectorGroupByHashTable {
+
+  private static final byte[] EMPTY_BYTES = new byte[0];
+
+  private final int writeBuffersSize;
+  private final int keyCount;
+  private final ColumnVector.Type[] keyTypes;
+  private final int[] keyTypeIndexes;
+
+  private VectorMapJoinFastKeyStore keyStore;
+  private long[] entryKeyRefWords;
+
+  /*
+   * The serialized key of the last hashCode call.  The get that computed the hash code
+   * compares it, and the add that follows stores it.
+   */
+  private final Output keyOutput;
+
+  private final WriteBuffers.Position readPos;
+  private final WriteBuffers.ByteSegmentRef keyByteSegmentRef;
+
+  private final HiveDecimalWritable scratchDecimal;
+  private final Timestamp scratchTimestamp;
+  private final HiveIntervalDayTime scratchIntervalDayTime;
+
+  public VectorGroupByKeyWrapperHashTable(VectorHashKeyWrapperBatch keyWrappersBatch,
+      int initialCapacity, float loadFactor, int writeBuffersSize,
+      VectorGroupByFlatAggregates flatAggregates) {
+    super(keyWrappersBatch, initialCapacity, loadFactor, flatAggregates);
+    this.writeBuffersSize = writeBuffersSize;
+    keyCount = keyWrappersBatch.getKeyCount();
+    keyTypes = new ColumnVector.Type[keyCount];
+    keyTypeIndexes = new int[keyCount];
+    for (int k = 0; k < keyCount; k++) {
+      keyTypes[k] = keyWrappersBatch.getColumnVectorType(k);
+      keyTypeIndexes[k] = keyWrappersBatch.getColumnTypeSpecificIndex(k);
+    }
+    keyStore = new VectorMapJoinFastKeyStore(writeBuffersSize);
+    entryKeyRefWords = new long[entryHashCodes.length];
+    keyOutput = new Output();
+    readPos = new WriteBuffers.Position();
+    keyByteSegmentRef = new WriteBuffers.ByteSegmentRef();
+    scratchDecimal = new HiveDecimalWritable();
+    scratchTimestamp = new Timestamp(0);
+    scratchIntervalDayTime = new HiveIntervalDayTime();
+  }
+
+  @Override
+  protected int hashCode(VectorHashKeyWrapper kw) {
+    serializeKey(kw);
+    return HashCodeUtil.murmurHash(keyOutput.getData(), 0, keyOutput.getLength());
+  }
+
+  @Override
+  protected boolean keyEquals(int entry, VectorHashKeyWrapper kw) {
+    return keyStore.equalKey(entryKeyRefWords[entry],
+        keyOutput.getData(), 0, keyOutput.getLength(), readPos);
+  }
+
+  @Override
+  protected void assignKey(int entry, VectorHashKeyWrapper kw) {
+    final int length = keyOutput.getLength();
+    entryKeyRefWords[entry] =
+        keyStore.add(length == 0 ? EMPTY_BYTES : keyOutput.getData(), 0, length);
+  }
+
+  private void serializeKey(VectorHashKeyWrapper kw) {
+    keyOutput.reset();
+    for (int k = 0; k < keyCount; k++) {
+      if (kw.isNull(k)) {
+        keyOutput.write(1);
+        continue;
+      }
+      keyOutput.write(0);
+      final int index = keyTypeIndexes[k];
+      switch (keyTypes[k]) {
+      case LONG:
+      case DECIMAL_64:
+        writeLong(kw.getLongValue(index));
+        break;
+      case DOUBLE:
+        writeLong(Double.doubleToLongBits(kw.getDoubleValue(index)));
+        break;
+      case BYTES:
+        {
+          final int byteLength = kw.getByteLength(index);
+          writeInt(byteLength);
+          keyOutput.write(kw.getBytes(index), kw.getByteStart(index), byteLength);
+        }
+        break;
+      case DECIMAL:
+        {
+          // The decimals are normalized, so equal values have the same bytes and scale.
+          final HiveDecimalWritable decimal = kw.getDecimal(index);
+          final int byteLength = decimal.bigIntegerBytesInternalScratch();
+          writeInt(byteLength);
+          keyOutput.write(decimal.bigIntegerBytesInternalScratchBuffer(), 0, byteLength);
+          writeInt(decimal.scale());
+        }
+        break;
+      case TIMESTAMP:
+        {
+          final Timestamp timestamp = kw.getTimestamp(index);
+          writeLong(timestamp.getTime());
+          writeInt(timestamp.getNanos());
+        }
+        break;
+      case INTERVAL_DAY_TIME:
+        {
+          final HiveIntervalDayTime intervalDayTime = kw.getIntervalDayTime(index);
+          writeLong(intervalDayTime.getTotalSeconds());
+          writeInt(intervalDayTime.getNanos());
+        }
+        break;
+      default:
+        throw new RuntimeException("Unexpected column vector type " + keyTypes[k]);
+      }
+    }
+  }
+
+  @Override
+  protected VectorHashKeyWrapper getKey(int entry) {
+    keyStore.getKey(entryKeyRefWords[entry], keyByteSegmentRef, readPos);
+    final byte[] bytes = keyByteSegmentRef.getBytes();
+    int offset = (int) keyByteSegmentRef.getOffset();
+
+    scratchKeyWrapper.clearIsNull();
+    for (int k = 0; k < keyCount; k++) {
+      final int index = keyTypeIndexes[k];
+      final boolean isNull = (bytes[offset++] != 0);
+      switch (keyTypes[k]) {
+      case LONG:
+      case DECIMAL_64:
+        if (isNull) {
+          scratchKeyWrapper.assignNullLong(k, index);
+        } else {
+          scratchKeyWrapper.assignLong(k, index, readLong(bytes, offset));
+          offset += 8;
+        }
+        break;
+      case DOUBLE:
+        if (isNull) {
+          scratchKeyWrapper.assignNullDouble(k, index);
+        } else {
+          scratchKeyWrapper.assignDouble(index, Double.longBitsToDouble(readLong(bytes, offset)));
+          offset += 8;
+        }
+        break;
+      case BYTES:
+        if (isNull) {
+          scratchKeyWrapper.assignNullString(k, index);
+        } else {
+          final int byteLength = readInt(bytes, offset);
+          offset += 4;
+          scratchKeyWrapper.assignString(index, bytes, offset, byteLength);
+          offset += byteLength;
+        }
+        break;
+      case DECIMAL:
+        if (isNull) {
+          scratchKeyWrapper.assignNullDecimal(k, index);
+        } else {
+          final int byteLength = readInt(bytes, offset);
+          offset += 4;
+          scratchDecimal.setFromBigIntegerBytesAndScale(bytes, offset, byteLength,
+              readInt(bytes, offset + byteLength));
+          offset += byteLength + 4;
+          scratchKeyWrapper.assignDecimal(index, scratchDecimal);
+        }
+        break;
+      case TIMESTAMP:
+        if (isNull) {
+          scratchKeyWrapper.assignNullTimestamp(k, index);
+        } else {
+          scratchTimestamp.setTime(readLong(bytes, offset));
+          scratchTimestamp.setNanos(readInt(bytes, offset + 8));
+          offset += 12;
+          scratchKeyWrapper.assignTimestamp(index, scratchTimestamp);
+        }
+        break;
+      case INTERVAL_DAY_TIME:
+        if (isNull) {
+          scratchKeyWrapper.assignNullIntervalDayTime(k, index);
+        } else {
+          scratchIntervalDayTime.set(readLong(bytes, offset), readInt(bytes, offset + 8));
+          offset += 12;
+          scratchKeyWrapper.assignIntervalDayTime(index, scratchIntervalDayTime);
+        }
+        break;
+      default:
+        throw new RuntimeException("Unexpected column vector type " + keyTypes[k]);
+      }
+    }
+    return scratchKeyWrapper;
+  }
+
+  private void writeLong(long value) {
+    writeInt((int) (value >>> 32));
+    writeInt((int) value);
+  }
+
+  private void writeInt(int value) {
+    keyOutput.write(value >>> 24);
+    keyOutput.write(value >>> 16);
+    keyOutput.write(value >>> 8);
+    keyOutput.write(value);
+  }
+
+  private static long readLong(byte[] bytes, int offset) {
+    return ((long) readInt(bytes, offset) << 32) | (readInt(bytes, offset + 4) & 0xFFFFFFFFL);
+  }
+
+  private static int readInt(byte[] bytes, int offset) {
+    return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16) |
+        ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+  }
+
+  @Override
+  protected void resizeKeys(int entryCapacity) {
+    entryKeyRefWords = Arrays.copyOf(entryKeyRefWords, entryCapacity);
+  }
+
+  @Override
+  protected void compactKeys(int[] survivors, int count) {
+    // Copy the surviving keys into a new store so the flushed key bytes are released.
+    VectorMapJoinFastKeyStore newKeyStore = new VectorMapJoinFastKeyStore(writeBuffersSize);
+    for (int i = 0; i < count; i++) {
+      keyStore.getKey(entryKeyRefWords[survivors[i]], keyByteSegmentRef, readPos);
+      final byte[] bytes =
+          (keyByteSegmentRef.getLength() == 0 ? EMPTY_BYTES : keyByteSegmentRef.getBytes());
+      entryKeyRefWords[i] = newKeyStore.add(bytes,
+          (int) keyByteSegmentRef.getOffset(), keyByteSegmentRef.getLength());
+    }
+    keyStore = newKeyStore;
+  }
+
+  @Override
+  protected void clearKeys() {
+    keyStore.clear();
+  }
+
+  @Override
+  protected long getKeyFixedSize() {
+    return JavaDataModel.get().primitive2();
+  }
+
+  @Override
+  public long getEstimatedMemorySize() {
+    return super.getEstimatedMemorySize() + keyStore.getEstimatedMemorySize();
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.groupby;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.hive.ql.exec.vector.VectorHashKeyWrapper;
+import org.apache.hadoop.hive.ql.exec.vector.VectorHashKeyWrapperBatch;
+import org.apache.hadoop.hive.ql.util.JavaDataModel;
+import org.apache.hive.common.util.HashCodeUtil;
+
+/**
+ * A vectorized GROUP BY hash table for a single LONG (or DECIMAL_64) key.  The keys are kept
+ * in a primitive long array.
+ */
+public class VectorGroupByLongKeyHashTable extends VectorGroupByHashTable {
+
+  private long[] entryKeys;
+
+  // The entry of the NULL key, or -1.
+  private int nullKeyEntry = -1;
+
+  public VectorGroupByLongKeyHashTable(VectorHashKeyWrapperBatch keyWrappersBatch,
+      int initialCapacity, float loadFactor, VectorGroupByFlatAggregates flatAggregates) {
+    super(keyWrappersBatch, initialCapacity, loadFactor, flatAggregates);
+    entryKeys = new long[entryHashCodes.length];
+  }
+
+  @Override
+  protected int hashCode(VectorHashKeyWrapper kw) {
+    if (kw.isNull(0)) {
+      return 0;
+    }
+    return HashCodeUtil.calculateLongHashCode(kw.getLongValue(0));
+  }
+
+  @Override
+  protected boolean keyEquals(int entry, VectorHashKeyWrapper kw) {
+    if (kw.isNull(0)) {
+      return entry == nullKeyEntry;
+    }
+    return entry != nullKeyEntry && entryKeys[entry] == kw.getLongValue(0);
+  }
+
+  @Override
+  protected void assignKey(int entry, VectorHashKeyWrapper kw) {
+    if (kw.isNull(0)) {
+      nullKeyEntry = entry;
+    } else {
+      entryKeys[entry] = kw.getLongValue(0);
+    }
+  }
+
+  @Override
+  protected VectorHashKeyWrapper getKey(int entry) {
+    if (entry == nullKeyEntry) {
+      scratchKeyWrapper.assignNullLong(0, 0);
+    } else {
+      scratchKeyWrapper.assignLong(0, 0, entryKeys[entry]);
+    }
+    return scratchKeyWrapper;
+  }
+
+  @Override
+  protected void resizeKeys(int entryCapacity) {
+    entryKeys = Arrays.copyOf(entryKeys, entryCapacity);
+  }
+
+  @Override
+  protected void compactKeys(int[] survivors, int count) {
+    int newNullKeyEntry = -1;
+    for (int i = 0; i < count; i++) {
+      final int entry = survivors[i];
+      if (entry == nullKeyEntry) {
+        newNullKeyEntry = i;
+      } else {
+        entryKeys[i] = entryKeys[entry];
+      }
+    }
+    nullKeyEntry = newNullKeyEntry;
+  }
+
+  @Override
+  protected void clearKeys() {
+    nullKeyEntry = -1;
+  }
+
+  @Override
+  protected long getKeyFixedSize() {
+    return JavaDataModel.get().primitive2();
+  }
+}
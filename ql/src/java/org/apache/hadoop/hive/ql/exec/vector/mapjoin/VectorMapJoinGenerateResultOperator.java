@@ -39,6 +39,7 @@
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedBatchUtil;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpression;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast.VectorMapJoinFastHybridTableContainer;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashTableResult;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashMapResult;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.optimized.VectorMapJoinOptimizedCreateHashTable;
@@ -167,8 +168,13 @@ protected void doSmallTableDeserializeRow(VectorizedRowBatch batch, int batchInd
     smallTableVectorDeserializeRow.setBytes(bytes, offset, length);
 
     try {
-      // Our hash tables are immutable.  We can safely do by reference STRING, CHAR/VARCHAR, etc.
-      smallTableVectorDeserializeRow.deserializeByRef(batch, batchIndex);
+      if (hashMapResult.isValueBytesRetainable()) {
+        // Our hash tables are immutable.  We can safely do by reference STRING, CHAR/VARCHAR, etc.
+        smallTableVectorDeserializeRow.deserializeByRef(batch, batchIndex);
+      } else {
+        // The value bytes were copied out of an off-heap table and get reused.
+        smallTableVectorDeserializeRow.deserialize(batch, batchIndex);
+      }
     } catch (Exception e) {
       throw new HiveException(
           "\nHashMapResult detail: " +
@@ -475,15 +481,25 @@ private void setupSpillSerDe(VectorizedRowBatch batch) throws HiveException {
     bigTableVectorDeserializeRow.init(noNullsProjection);
   }
 
+  /*
+   * Get the container of the big table rows spilled for a hash partition of the small table.
+   */
+  private VectorRowBytesContainer getMatchfileRowBytesContainer(int partitionId) {
+    MapJoinTableContainer smallTable = mapJoinTables[posSingleVectorMapJoinSmallTable];
+    if (smallTable instanceof VectorMapJoinFastHybridTableContainer) {
+      return ((VectorMapJoinFastHybridTableContainer) smallTable)
+          .getMatchfileRowBytesContainer(partitionId);
+    }
+    HashPartition hp = ((HybridHashTableContainer) smallTable).getHashPartitions()[partitionId];
+    return hp.getMatchfileRowBytesContainer();
+  }
+
   private void spillSerializeRow(VectorizedRowBatch batch, int batchIndex,
       VectorMapJoinHashTableResult hashTableResult) throws IOException {
 
     int partitionId = hashTableResult.spillPartitionId();
 
-    HybridHashTableContainer ht = (HybridHashTableContainer) mapJoinTables[posSingleVectorMapJoinSmallTable];
-    HashPartition hp = ht.getHashPartitions()[partitionId];
-
-    VectorRowBytesContainer rowBytesContainer = hp.getMatchfileRowBytesContainer();
+    VectorRowBytesContainer rowBytesContainer = getMatchfileRowBytesContainer(partitionId);
     Output output = rowBytesContainer.getOuputForRowBytes();
 //  int offset = output.getLength();
     bigTableVectorSerializeRow.setOutputAppend(output);
@@ -529,6 +545,36 @@ protected void spillBatchRepeated(VectorizedRowBatch batch,
     }
   }
 
+  @Override
+  protected void continueGraceHashJoin() throws HiveException {
+    MapJoinTableContainer smallTable = mapJoinTables[posSingleVectorMapJoinSmallTable];
+    if (!(smallTable instanceof VectorMapJoinFastHybridTableContainer)) {
+      super.continueGraceHashJoin();
+      return;
+    }
+
+    // The native fast hash tables are partitioned by their own container.
+    VectorMapJoinFastHybridTableContainer hybridTableContainer =
+        (VectorMapJoinFastHybridTableContainer) smallTable;
+    hybridTableContainer.clearInMemoryPartitions();
+    vectorMapJoinHashTable = null;
+
+    for (int i = 0; i < hybridTableContainer.getNumPartitions(); i++) {
+      if (!hybridTableContainer.isHashTableOnDisk(i)) {
+        continue;
+      }
+      LOG.info("Going to reload hash partition " + i);
+      try {
+        vectorMapJoinHashTable = hybridTableContainer.reloadHashTable(i);
+      } catch (IOException | SerDeException e) {
+        throw new HiveException(e);
+      }
+      needHashTableSetup = true;
+      reProcessBigTable(i);
+      vectorMapJoinHashTable = null;
+    }
+  }
+
   @Override
   protected void reloadHashTable(byte pos, int partitionId)
           throws IOException, HiveException, SerDeException, ClassNotFoundException {
@@ -564,13 +610,11 @@ protected void reProcessBigTable(int partitionId)
       return;
     }
 
-    HashPartition partition = firstSmallTable.getHashPartitions()[partitionId];
-
     int rowCount = 0;
     int batchCount = 0;
 
     try {
-      VectorRowBytesContainer bigTable = partition.getMatchfileRowBytesContainer();
+      VectorRowBytesContainer bigTable = getMatchfileRowBytesContainer(partitionId);
       bigTable.prepareForReading();
 
       while (bigTable.readNext()) {
@@ -26,6 +26,7 @@
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinBytesHashMap;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashMapResult;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.serde2.WriteBuffers;
 import org.apache.hadoop.io.BytesWritable;
 import org.apache.hive.common.util.HashCodeUtil;
 
@@ -100,14 +101,31 @@ public JoinUtil.JoinResult lookup(byte[] keyBytes, int keyStart, int keyLength,
 
   public VectorMapJoinFastBytesHashMap(
       int initialCapacity, float loadFactor, int writeBuffersSize, long estimatedKeyCount) {
+    this(initialCapacity, loadFactor, writeBuffersSize, estimatedKeyCount, false);
+  }
+
+  public VectorMapJoinFastBytesHashMap(
+      int initialCapacity, float loadFactor, int writeBuffersSize, long estimatedKeyCount,
+      boolean isOffHeap) {
     super(initialCapacity, loadFactor, writeBuffersSize, estimatedKeyCount);
 
-    valueStore = new VectorMapJoinFastValueStore(writeBuffersSize);
+    valueStore = new VectorMapJoinFastValueStore(writeBuffersSize, isOffHeap);
 
     // Share the same write buffers with our value store.
     keyStore = new VectorMapJoinFastKeyStore(valueStore.writeBuffers());
   }
 
+  @Override
+  WriteBuffers getWriteBuffers() {
+    return valueStore.writeBuffers();
+  }
+
+  @Override
+  void setWriteBuffers(WriteBuffers writeBuffers) {
+    valueStore = new VectorMapJoinFastValueStore(writeBuffers);
+    keyStore = new VectorMapJoinFastKeyStore(writeBuffers);
+  }
+
   @Override
   public long getEstimatedMemorySize() {
     return super.getEstimatedMemorySize() + valueStore.getEstimatedMemorySize() + keyStore.getEstimatedMemorySize();
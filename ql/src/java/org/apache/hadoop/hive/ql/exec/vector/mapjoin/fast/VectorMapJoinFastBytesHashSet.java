@@ -80,9 +80,15 @@ public JoinUtil.JoinResult contains(byte[] keyBytes, int keyStart, int keyLength
 
   public VectorMapJoinFastBytesHashSet(
       int initialCapacity, float loadFactor, int writeBuffersSize, long estimatedKeyCount) {
+    this(initialCapacity, loadFactor, writeBuffersSize, estimatedKeyCount, false);
+  }
+
+  public VectorMapJoinFastBytesHashSet(
+      int initialCapacity, float loadFactor, int writeBuffersSize, long estimatedKeyCount,
+      boolean isOffHeap) {
     super(initialCapacity, loadFactor, writeBuffersSize, estimatedKeyCount);
 
-    keyStore = new VectorMapJoinFastKeyStore(writeBuffersSize);
+    keyStore = new VectorMapJoinFastKeyStore(writeBuffersSize, isOffHeap);
   }
 
   @Override
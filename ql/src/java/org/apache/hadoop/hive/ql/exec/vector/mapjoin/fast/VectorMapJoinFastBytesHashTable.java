@@ -52,6 +52,11 @@ public void putRow(BytesWritable currentKey, BytesWritable currentValue) throws
     add(keyBytes, 0, keyLength, currentValue);
   }
 
+  @Override
+  long getKeyHashCode(BytesWritable currentKey) throws HiveException {
+    return HashCodeUtil.murmurHash(currentKey.getBytes(), 0, currentKey.getLength());
+  }
+
   protected abstract void assignSlot(int slot, byte[] keyBytes, int keyStart, int keyLength,
           long hashCode, boolean isNewKey, BytesWritable currentValue);
 
@@ -222,6 +227,16 @@ public VectorMapJoinFastBytesHashTable(
     allocateBucketArray();
   }
 
+  @Override
+  WriteBuffers getWriteBuffers() {
+    return keyStore.writeBuffers();
+  }
+
+  @Override
+  void setWriteBuffers(WriteBuffers writeBuffers) {
+    keyStore = new VectorMapJoinFastKeyStore(writeBuffers);
+  }
+
   @Override
   public long getEstimatedMemorySize() {
     return super.getEstimatedMemorySize() + JavaDataModel.get().lengthForLongArrayOfSize(slotTriples.length);
@@ -18,11 +18,16 @@
 
 package org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast;
 
+import java.io.IOException;
+
 import org.apache.hadoop.hive.ql.util.JavaDataModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.apache.hadoop.hive.ql.exec.mapjoin.MapJoinMemoryExhaustionError;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashTable;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.serde2.WriteBuffers;
+import org.apache.hadoop.io.BytesWritable;
 
 public abstract class VectorMapJoinFastHashTable implements VectorMapJoinHashTable {
   public static final Logger LOG = LoggerFactory.getLogger(VectorMapJoinFastHashTable.class);
@@ -86,6 +91,26 @@ public VectorMapJoinFastHashTable(
     this.writeBuffersSize = writeBuffersSize;
   }
 
+  /**
+   * @return the write buffers with the key and value bytes, or null when the slots hold all.
+   */
+  WriteBuffers getWriteBuffers() {
+    return null;
+  }
+
+  /**
+   * Makes a new, empty hash table read its keys and values from the given write buffers.
+   */
+  void setWriteBuffers(WriteBuffers writeBuffers) {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " has no write buffers");
+  }
+
+  /**
+   * @return the hash code the key of a small table row is added and looked up with; any value
+   *     for a NULL key, since putRow does not add those rows
+   */
+  abstract long getKeyHashCode(BytesWritable currentKey) throws HiveException, IOException;
+
   @Override
   public int size() {
     return keysAssigned;
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.plan.MapJoinDesc;
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * A node-level cache of sealed fast hash tables that are shared across tasks and queries.
+ *
+ * The compiler gives a small table that is a plain scan of a table snapshot a shared key (see
+ * {@link MapJoinDesc#getParentSharedTableKeys}).  The first task that loads such a small table
+ * writes an image of its hash table (see {@link VectorMapJoinFastHashTableImage}) to a node-local
+ * directory, and every later task on the node memory-maps the image read-only instead.  The
+ * mapped hash tables are kept in a least recently used map, and the directory is trimmed to the
+ * same size by file modification time, which a cache hit refreshes.
+ */
+public class VectorMapJoinFastHashTableCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(VectorMapJoinFastHashTableCache.class);
+
+  private static final String IMAGE_SUFFIX = ".vmjht";
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  private static VectorMapJoinFastHashTableCache instance;
+
+  private static class Entry {
+    final VectorMapJoinFastHashTable hashTable;
+    final long size;
+
+    Entry(VectorMapJoinFastHashTable hashTable, long size) {
+      this.hashTable = hashTable;
+      this.size = size;
+    }
+  }
+
+  private final File directory;
+  private final long maxSize;
+
+  // Access ordered, the eldest entry is the least recently used one.
+  private final LinkedHashMap<String, Entry> hashTables =
+      new LinkedHashMap<String, Entry>(16, 0.75f, true);
+  private long totalSize;
+
+  public static synchronized VectorMapJoinFastHashTableCache getInstance(Configuration hconf) {
+    if (instance == null) {
+      instance = new VectorMapJoinFastHashTableCache(
+          new File(HiveConf.getVar(hconf,
+              HiveConf.ConfVars.HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_HASHTABLE_SHARED_DIR)),
+          HiveConf.getSizeVar(hconf,
+              HiveConf.ConfVars.HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_HASHTABLE_SHARED_SIZE));
+    }
+    return instance;
+  }
+
+  @VisibleForTesting
+  VectorMapJoinFastHashTableCache(File directory, long maxSize) {
+    this.directory = directory;
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * @return a container for the shared hash table, or null if no task on the node stored it yet.
+   */
+  public VectorMapJoinFastTableContainer get(String sharedKey, MapJoinDesc desc,
+      Configuration hconf) {
+    String imageName = getImageName(sharedKey, desc);
+    File imageFile = new File(directory, imageName + IMAGE_SUFFIX);
+
+    VectorMapJoinFastHashTable hashTable = null;
+    synchronized (this) {
+      Entry entry = hashTables.get(imageName);
+      if (entry != null) {
+        hashTable = entry.hashTable;
+      }
+    }
+    if (hashTable == null) {
+      if (!imageFile.exists()) {
+        return null;
+      }
+      try {
+        hashTable = readImage(imageFile, desc);
+      } catch (IOException e) {
+        LOG.warn("Ignoring unreadable hash table image " + imageFile, e);
+        imageFile.delete();
+        return null;
+      }
+      cache(imageName, hashTable, imageFile.length());
+    }
+    // Keeps the image of a hash table in use off the eviction list of the other processes.
+    imageFile.setLastModified(System.currentTimeMillis());
+
+    return new VectorMapJoinFastTableContainer(desc, hconf, hashTable);
+  }
+
+  /**
+   * Stores an image of a loaded hash table for the other tasks on the node.  Failures are logged
+   * and ignored, the hash table just stays private to the task.
+   */
+  public void put(String sharedKey, MapJoinDesc desc, VectorMapJoinFastTableContainer container) {
+    String imageName = getImageName(sharedKey, desc);
+    File imageFile = new File(directory, imageName + IMAGE_SUFFIX);
+    if (imageFile.exists()) {
+      // Another task was faster.
+      return;
+    }
+    VectorMapJoinDesc vectorDesc = (VectorMapJoinDesc) desc.getVectorDesc();
+    File tempFile = new File(directory, imageName + "." + UUID.randomUUID() + TEMP_SUFFIX);
+    try {
+      if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+        throw new IOException("Cannot create directory " + directory);
+      }
+      try (FileChannel channel = FileChannel.open(tempFile.toPath(),
+          StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+        VectorMapJoinFastHashTableImage.write(
+            (VectorMapJoinFastHashTable) container.vectorMapJoinHashTable(),
+            vectorDesc.getHashTableKind(), vectorDesc.getHashTableKeyType(),
+            !desc.isNoOuterJoin(), vectorDesc.getMinMaxEnabled(), channel);
+      }
+      Files.move(tempFile.toPath(), imageFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+      LOG.info("Stored hash table image {} of {} bytes", imageFile, imageFile.length());
+    } catch (IOException e) {
+      LOG.warn("Cannot store hash table image " + imageFile, e);
+      tempFile.delete();
+      return;
+    }
+    trimDirectory(imageFile);
+  }
+
+  private VectorMapJoinFastHashTable readImage(File imageFile, MapJoinDesc desc)
+      throws IOException {
+    VectorMapJoinDesc vectorDesc = (VectorMapJoinDesc) desc.getVectorDesc();
+    try (FileChannel channel = FileChannel.open(imageFile.toPath(), StandardOpenOption.READ)) {
+      return VectorMapJoinFastHashTableImage.read(
+          vectorDesc.getHashTableKind(), vectorDesc.getHashTableKeyType(),
+          !desc.isNoOuterJoin(), vectorDesc.getMinMaxEnabled(), channel);
+    }
+  }
+
+  private synchronized void cache(String imageName, VectorMapJoinFastHashTable hashTable,
+      long size) {
+    Entry previous = hashTables.put(imageName, new Entry(hashTable, size));
+    if (previous != null) {
+      totalSize -= previous.size;
+    }
+    totalSize += size;
+    Iterator<Map.Entry<String, Entry>> iterator = hashTables.entrySet().iterator();
+    while (totalSize > maxSize && iterator.hasNext()) {
+      Map.Entry<String, Entry> eldest = iterator.next();
+      if (eldest.getKey().equals(imageName)) {
+        continue;
+      }
+      // The tasks still using the hash table keep its mapping.
+      totalSize -= eldest.getValue().size;
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Deletes the least recently used images but the given one until the rest fit.  Processes that
+   * mapped a deleted image keep reading it until they unmap it.
+   */
+  private void trimDirectory(File keptImageFile) {
+    File[] imageFiles = directory.listFiles((dir, name) -> name.endsWith(IMAGE_SUFFIX));
+    if (imageFiles == null) {
+      return;
+    }
+    long directorySize = 0;
+    for (File imageFile : imageFiles) {
+      directorySize += imageFile.length();
+    }
+    if (directorySize <= maxSize) {
+      return;
+    }
+    Arrays.sort(imageFiles, Comparator.comparingLong(File::lastModified));
+    for (File imageFile : imageFiles) {
+      if (directorySize <= maxSize) {
+        break;
+      }
+      if (imageFile.equals(keptImageFile)) {
+        continue;
+      }
+      long size = imageFile.length();
+      if (imageFile.delete()) {
+        LOG.info("Evicted hash table image {}", imageFile);
+        directorySize -= size;
+      }
+    }
+  }
+
+  /**
+   * The image name also covers how the join uses the small table, e.g. a semi join needs a hash
+   * set where an inner join of the same small table needs a hash map.
+   */
+  private static String getImageName(String sharedKey, MapJoinDesc desc) {
+    VectorMapJoinDesc vectorDesc = (VectorMapJoinDesc) desc.getVectorDesc();
+    return DigestUtils.sha256Hex(sharedKey +
+        "/" + vectorDesc.getHashTableKind() +
+        "/" + vectorDesc.getHashTableKeyType() +
+        "/" + !desc.isNoOuterJoin() +
+        "/" + vectorDesc.getMinMaxEnabled());
+  }
+}
@@ -0,0 +1,261 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc.HashTableKeyType;
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc.HashTableKind;
+import org.apache.hadoop.hive.serde2.WriteBuffers;
+
+/*
+ * The file image of a sealed fast hash table.
+ *
+ * The key and value references in the slots are offsets into the write buffers, so the image is
+ * position independent: the write buffers are memory-mapped read-only as they are, and only the
+ * slot array is copied to the heap.
+ *
+ * Layout: magic, version, offset of the slot array, header, the slot array (aligned to 8 bytes),
+ * then the written bytes of each write buffer.
+ */
+public class VectorMapJoinFastHashTableImage {
+
+  private static final int MAGIC = 0x564d4a48;  // "VMJH"
+  private static final int VERSION = 1;
+
+  // Number of slot longs copied at a time.
+  private static final int SLOT_CHUNK_SIZE = 64 * 1024;
+
+  public static void write(VectorMapJoinFastHashTable hashTable, HashTableKind hashTableKind,
+      HashTableKeyType hashTableKeyType, boolean isOuterJoin, boolean minMaxEnabled,
+      FileChannel channel) throws IOException {
+
+    long[] slots = getSlots(hashTable);
+    WriteBuffers writeBuffers = hashTable.getWriteBuffers();
+    int bufferCount = (writeBuffers == null ? -1 : writeBuffers.getWrittenBufferCount());
+
+    ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+    DataOutputStream header = new DataOutputStream(headerBytes);
+    header.writeUTF(hashTableKind.name());
+    header.writeUTF(hashTableKeyType.name());
+    header.writeBoolean(isOuterJoin);
+    header.writeBoolean(minMaxEnabled);
+    header.writeInt(hashTable.logicalHashBucketCount);
+    header.writeFloat(hashTable.loadFactor);
+    header.writeInt(hashTable.writeBuffersSize);
+    header.writeLong(hashTable.estimatedKeyCount);
+    header.writeInt(hashTable.keysAssigned);
+    header.writeInt(hashTable.largestNumberOfSteps);
+    header.writeInt(hashTable.metricPutConflict);
+    header.writeInt(hashTable.metricExpands);
+    if (hashTable instanceof VectorMapJoinFastLongHashTable) {
+      VectorMapJoinFastLongHashTable longHashTable = (VectorMapJoinFastLongHashTable) hashTable;
+      header.writeLong(longHashTable.min());
+      header.writeLong(longHashTable.max());
+    } else {
+      header.writeLong(0);
+      header.writeLong(0);
+    }
+    header.writeInt(slots.length);
+    header.writeInt(bufferCount);
+    if (writeBuffers != null) {
+      header.writeInt(writeBuffers.getWriteBufferSize());
+      for (int i = 0; i < bufferCount; i++) {
+        header.writeInt(writeBuffers.getWrittenBuffer(i).remaining());
+      }
+    }
+    header.flush();
+
+    // The slots start at the 8 byte aligned offset after the header.
+    int slotsOffset = (3 * 4 + headerBytes.size() + 7) & ~7;
+    ByteBuffer headerBuffer = ByteBuffer.allocate(slotsOffset);
+    headerBuffer.putInt(MAGIC);
+    headerBuffer.putInt(VERSION);
+    headerBuffer.putInt(slotsOffset);
+    headerBuffer.put(headerBytes.toByteArray());
+    headerBuffer.clear();
+    writeFully(channel, headerBuffer);
+
+    ByteBuffer slotBytes = ByteBuffer.allocate(8 * Math.min(slots.length, SLOT_CHUNK_SIZE));
+    for (int start = 0; start < slots.length; start += SLOT_CHUNK_SIZE) {
+      int count = Math.min(slots.length - start, SLOT_CHUNK_SIZE);
+      slotBytes.clear();
+      slotBytes.asLongBuffer().put(slots, start, count);
+      slotBytes.limit(8 * count);
+      writeFully(channel, slotBytes);
+    }
+
+    for (int i = 0; i < bufferCount; i++) {
+      writeFully(channel, writeBuffers.getWrittenBuffer(i));
+    }
+  }
+
+  /**
+   * Reads the image of a hash table, the write buffers are mapped from the channel which may be
+   * closed afterwards.
+   */
+  public static VectorMapJoinFastHashTable read(HashTableKind hashTableKind,
+      HashTableKeyType hashTableKeyType, boolean isOuterJoin, boolean minMaxEnabled,
+      FileChannel channel) throws IOException {
+    return read(hashTableKind, hashTableKeyType, isOuterJoin, minMaxEnabled, channel, false);
+  }
+
+  /**
+   * Reads the image of a hash table into direct memory, so more rows can be added to it, e.g.
+   * when a spilled hash partition is reloaded.
+   */
+  public static VectorMapJoinFastHashTable load(HashTableKind hashTableKind,
+      HashTableKeyType hashTableKeyType, boolean isOuterJoin, boolean minMaxEnabled,
+      FileChannel channel) throws IOException {
+    return read(hashTableKind, hashTableKeyType, isOuterJoin, minMaxEnabled, channel, true);
+  }
+
+  private static VectorMapJoinFastHashTable read(HashTableKind hashTableKind,
+      HashTableKeyType hashTableKeyType, boolean isOuterJoin, boolean minMaxEnabled,
+      FileChannel channel, boolean isWritable) throws IOException {
+
+    channel.position(0);
+    DataInputStream header = new DataInputStream(Channels.newInputStream(channel));
+    if (header.readInt() != MAGIC || header.readInt() != VERSION) {
+      throw new IOException("Not a hash table image of version " + VERSION);
+    }
+    long position = header.readInt();
+    String imageKind = header.readUTF();
+    String imageKeyType = header.readUTF();
+    boolean imageIsOuterJoin = header.readBoolean();
+    boolean imageMinMaxEnabled = header.readBoolean();
+    if (!imageKind.equals(hashTableKind.name()) ||
+        !imageKeyType.equals(hashTableKeyType.name()) ||
+        imageIsOuterJoin != isOuterJoin || imageMinMaxEnabled != minMaxEnabled) {
+      throw new IOException("Hash table image is a " + imageKind + " " + imageKeyType +
+          " (outer join " + imageIsOuterJoin + ", min max " + imageMinMaxEnabled + ")");
+    }
+    int logicalHashBucketCount = header.readInt();
+    float loadFactor = header.readFloat();
+    int writeBuffersSize = header.readInt();
+    long estimatedKeyCount = header.readLong();
+    int keysAssigned = header.readInt();
+    int largestNumberOfSteps = header.readInt();
+    int metricPutConflict = header.readInt();
+    int metricExpands = header.readInt();
+    long min = header.readLong();
+    long max = header.readLong();
+    int slotCount = header.readInt();
+    int bufferCount = header.readInt();
+    int wbSize = 0;
+    int[] bufferLengths = null;
+    if (bufferCount >= 0) {
+      wbSize = header.readInt();
+      bufferLengths = new int[bufferCount];
+      for (int i = 0; i < bufferCount; i++) {
+        bufferLengths[i] = header.readInt();
+      }
+    }
+
+    VectorMapJoinFastHashTable hashTable =
+        VectorMapJoinFastTableContainer.createHashTable(hashTableKind, hashTableKeyType,
+            isOuterJoin, minMaxEnabled, logicalHashBucketCount, loadFactor, writeBuffersSize,
+            estimatedKeyCount, /* isOffHeap */ false);
+    long[] slots = getSlots(hashTable);
+    if (hashTable.logicalHashBucketCount != logicalHashBucketCount || slots.length != slotCount) {
+      throw new IOException("Hash table image has " + slotCount + " slot longs for " +
+          logicalHashBucketCount + " buckets");
+    }
+
+    ByteBuffer slotBytes = ByteBuffer.allocate(8 * Math.min(slotCount, SLOT_CHUNK_SIZE));
+    for (int start = 0; start < slotCount; start += SLOT_CHUNK_SIZE) {
+      int count = Math.min(slotCount - start, SLOT_CHUNK_SIZE);
+      slotBytes.clear();
+      slotBytes.limit(8 * count);
+      readFully(channel, slotBytes, position);
+      position += 8 * count;
+      slotBytes.flip();
+      LongBuffer longs = slotBytes.asLongBuffer();
+      longs.get(slots, start, count);
+    }
+
+    if (bufferCount >= 0) {
+      List<ByteBuffer> buffers = new ArrayList<ByteBuffer>(bufferCount);
+      for (int i = 0; i < bufferCount; i++) {
+        if (isWritable) {
+          ByteBuffer buffer = ByteBuffer.allocateDirect(wbSize);
+          buffer.limit(bufferLengths[i]);
+          readFully(channel, buffer, position);
+          buffers.add(buffer);
+        } else {
+          buffers.add(channel.map(FileChannel.MapMode.READ_ONLY, position, bufferLengths[i]));
+        }
+        position += bufferLengths[i];
+      }
+      hashTable.setWriteBuffers(WriteBuffers.wrap(wbSize, buffers));
+      if (isWritable) {
+        // The buffers were wrapped with the written lengths, writing continues up to wbSize.
+        for (ByteBuffer buffer : buffers) {
+          buffer.clear();
+        }
+      }
+    }
+    if (position != channel.size()) {
+      throw new IOException("Hash table image should be " + position + " bytes long, not " +
+          channel.size());
+    }
+
+    hashTable.keysAssigned = keysAssigned;
+    hashTable.largestNumberOfSteps = largestNumberOfSteps;
+    hashTable.metricPutConflict = metricPutConflict;
+    hashTable.metricExpands = metricExpands;
+    if (hashTable instanceof VectorMapJoinFastLongHashTable) {
+      ((VectorMapJoinFastLongHashTable) hashTable).setMinMax(min, max);
+    }
+    return hashTable;
+  }
+
+  private static long[] getSlots(VectorMapJoinFastHashTable hashTable) {
+    if (hashTable instanceof VectorMapJoinFastBytesHashTable) {
+      return ((VectorMapJoinFastBytesHashTable) hashTable).slotTriples;
+    }
+    return ((VectorMapJoinFastLongHashTable) hashTable).slotPairs;
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      int count = channel.read(buffer, position);
+      if (count < 0) {
+        throw new IOException("Unexpected end of hash table image");
+      }
+      position += count;
+    }
+  }
+}
@@ -18,9 +18,12 @@
 package org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.Collections;
 import java.util.Map;
 
+import org.apache.hadoop.hive.common.ValidTxnWriteIdList;
+import org.apache.hadoop.hive.common.ValidWriteIdList;
 import org.apache.hadoop.hive.ql.exec.MemoryMonitorInfo;
 import org.apache.hadoop.hive.ql.exec.mapjoin.MapJoinMemoryExhaustionError;
 import org.slf4j.Logger;
@@ -33,6 +36,8 @@
 import org.apache.hadoop.hive.ql.exec.persistence.MapJoinTableContainer;
 import org.apache.hadoop.hive.ql.exec.persistence.MapJoinTableContainerSerDe;
 import org.apache.hadoop.hive.ql.exec.tez.TezContext;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinTableContainer;
+import org.apache.hadoop.hive.ql.io.AcidUtils;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.MapJoinDesc;
 import org.apache.hadoop.hive.serde2.SerDeException;
@@ -92,6 +97,34 @@ public void load(MapJoinTableContainer[] mapJoinTables,
         LOG.info("Not doing hash table memory monitoring. {}", memoryMonitorInfo);
       }
     }
+
+    boolean useHybridGraceHashJoin = desc.isHybridHashJoin() && HiveConf.getBoolVar(hconf,
+        HiveConf.ConfVars.HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_HASHTABLE_HYBRID);
+    long totalMapJoinMemory = 0;
+    if (useHybridGraceHashJoin) {
+      // Get the total available memory from memory manager
+      totalMapJoinMemory = desc.getMemoryNeeded();
+      LOG.info("Memory manager allocates " + totalMapJoinMemory + " bytes for the loading hashtable.");
+      if (totalMapJoinMemory <= 0) {
+        totalMapJoinMemory = HiveConf.getLongVar(
+            hconf, HiveConf.ConfVars.HIVECONVERTJOINNOCONDITIONALTASKTHRESHOLD);
+      }
+      long processMaxMemory = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax();
+      if (totalMapJoinMemory > processMaxMemory) {
+        float hashtableMemoryUsage = HiveConf.getFloatVar(
+            hconf, HiveConf.ConfVars.HIVEHASHTABLEFOLLOWBYGBYMAXMEMORYUSAGE);
+        LOG.warn("totalMapJoinMemory value of " + totalMapJoinMemory +
+            " is greater than the max memory size of " + processMaxMemory);
+        totalMapJoinMemory = (long) (processMaxMemory * hashtableMemoryUsage);
+      }
+    }
+
+    VectorMapJoinFastHashTableCache sharedCache = null;
+    if (HiveConf.getBoolVar(hconf,
+        HiveConf.ConfVars.HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_HASHTABLE_SHARED)) {
+      sharedCache = VectorMapJoinFastHashTableCache.getInstance(hconf);
+    }
+
     for (int pos = 0; pos < mapJoinTables.length; pos++) {
       if (pos == desc.getPosBigTable()) {
         continue;
@@ -99,6 +132,19 @@ public void load(MapJoinTableContainer[] mapJoinTables,
 
       long numEntries = 0;
       String inputName = parentToInput.get(pos);
+
+      String sharedKey = (sharedCache == null) ? null : getSharedKey(pos);
+      if (sharedKey != null) {
+        VectorMapJoinFastTableContainer sharedContainer = sharedCache.get(sharedKey, desc, hconf);
+        if (sharedContainer != null) {
+          // The broadcast input is left unread.
+          mapJoinTables[pos] = sharedContainer;
+          LOG.info("Using shared hash table for input: {} cacheKey: {} smallTablePos: {} size: {}",
+              inputName, cacheKey, pos, sharedContainer.size());
+          continue;
+        }
+      }
+
       LogicalInput input = tezContext.getInput(inputName);
 
       try {
@@ -115,8 +161,14 @@ public void load(MapJoinTableContainer[] mapJoinTables,
         Long keyCountObj = parentKeyCounts.get(pos);
         long keyCount = (keyCountObj == null) ? -1 : keyCountObj.longValue();
 
-        VectorMapJoinFastTableContainer vectorMapJoinFastTableContainer =
-                new VectorMapJoinFastTableContainer(desc, hconf, keyCount);
+        // A shared hash table is memory-mapped by the tasks that use it, it is never spilled.
+        VectorMapJoinTableContainer vectorMapJoinFastTableContainer;
+        if (useHybridGraceHashJoin && sharedKey == null) {
+          vectorMapJoinFastTableContainer = new VectorMapJoinFastHybridTableContainer(desc, hconf,
+              keyCount, totalMapJoinMemory, desc.getParentDataSizes().get(pos));
+        } else {
+          vectorMapJoinFastTableContainer = new VectorMapJoinFastTableContainer(desc, hconf, keyCount);
+        }
 
         LOG.info("Loading hash table for input: {} cacheKey: {} tableContainer: {} smallTablePos: {}", inputName,
           cacheKey, vectorMapJoinFastTableContainer.getClass().getSimpleName(), pos);
@@ -149,6 +201,10 @@ public void load(MapJoinTableContainer[] mapJoinTables,
 
         vectorMapJoinFastTableContainer.seal();
         mapJoinTables[pos] = vectorMapJoinFastTableContainer;
+        if (sharedKey != null) {
+          sharedCache.put(sharedKey, desc,
+              (VectorMapJoinFastTableContainer) vectorMapJoinFastTableContainer);
+        }
         if (doMemCheck) {
           LOG.info("Finished loading hash table for input: {} cacheKey: {} numEntries: {} " +
               "estimatedMemoryUsage: {}", inputName, cacheKey, numEntries,
@@ -166,4 +222,21 @@ public void load(MapJoinTableContainer[] mapJoinTables,
       }
     }
   }
+
+  /*
+   * Completes the shared key of a small table with the valid write ids of its transactional table.
+   */
+  private String getSharedKey(int pos) {
+    String sharedKey = desc.getParentSharedTableKeys().get(pos);
+    String transactionalTable = desc.getParentSharedTransactionalTables().get(pos);
+    if (sharedKey == null || transactionalTable == null) {
+      return sharedKey;
+    }
+    if (hconf.get(ValidTxnWriteIdList.VALID_TABLES_WRITEIDS_KEY) == null) {
+      return null;
+    }
+    ValidWriteIdList validWriteIds =
+        AcidUtils.getTableValidWriteIdList(hconf, transactionalTable);
+    return (validWriteIds == null) ? null : sharedKey + "/" + validWriteIds.writeToString();
+  }
 }
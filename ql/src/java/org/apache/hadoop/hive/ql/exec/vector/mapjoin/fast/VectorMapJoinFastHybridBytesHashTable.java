@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast;
+
+import java.io.IOException;
+
+import org.apache.hadoop.hive.ql.exec.JoinUtil;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinBytesHashMap;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinBytesHashMultiSet;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinBytesHashSet;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashMapResult;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashMultiSetResult;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashSetResult;
+import org.apache.hive.common.util.HashCodeUtil;
+
+/*
+ * The string or multi-key byte array key hash map, multi-set or set of a Hybrid Grace Hash Join.
+ */
+public class VectorMapJoinFastHybridBytesHashTable extends VectorMapJoinFastHybridHashTable
+    implements VectorMapJoinBytesHashMap, VectorMapJoinBytesHashMultiSet,
+        VectorMapJoinBytesHashSet {
+
+  public VectorMapJoinFastHybridBytesHashTable(VectorMapJoinFastHybridTableContainer container) {
+    super(container);
+  }
+
+  @Override
+  public JoinUtil.JoinResult lookup(byte[] keyBytes, int keyStart, int keyLength,
+      VectorMapJoinHashMapResult hashMapResult) throws IOException {
+    VectorMapJoinFastHashTable hashTable = getHashTable(
+        HashCodeUtil.murmurHash(keyBytes, keyStart, keyLength), hashMapResult);
+    if (hashTable == null) {
+      return JoinUtil.JoinResult.SPILL;
+    }
+    return ((VectorMapJoinBytesHashMap) hashTable).lookup(
+        keyBytes, keyStart, keyLength, hashMapResult);
+  }
+
+  @Override
+  public JoinUtil.JoinResult contains(byte[] keyBytes, int keyStart, int keyLength,
+      VectorMapJoinHashMultiSetResult hashMultiSetResult) throws IOException {
+    VectorMapJoinFastHashTable hashTable = getHashTable(
+        HashCodeUtil.murmurHash(keyBytes, keyStart, keyLength), hashMultiSetResult);
+    if (hashTable == null) {
+      return JoinUtil.JoinResult.SPILL;
+    }
+    return ((VectorMapJoinBytesHashMultiSet) hashTable).contains(
+        keyBytes, keyStart, keyLength, hashMultiSetResult);
+  }
+
+  @Override
+  public JoinUtil.JoinResult contains(byte[] keyBytes, int keyStart, int keyLength,
+      VectorMapJoinHashSetResult hashSetResult) throws IOException {
+    VectorMapJoinFastHashTable hashTable = getHashTable(
+        HashCodeUtil.murmurHash(keyBytes, keyStart, keyLength), hashSetResult);
+    if (hashTable == null) {
+      return JoinUtil.JoinResult.SPILL;
+    }
+    return ((VectorMapJoinBytesHashSet) hashTable).contains(
+        keyBytes, keyStart, keyLength, hashSetResult);
+  }
+}
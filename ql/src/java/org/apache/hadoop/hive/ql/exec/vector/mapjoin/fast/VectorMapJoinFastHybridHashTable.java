@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast;
+
+import java.io.IOException;
+
+import org.apache.hadoop.hive.ql.exec.JoinUtil;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashMap;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashMapResult;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashMultiSet;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashMultiSetResult;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashSet;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashSetResult;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashTableResult;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.serde2.SerDeException;
+import org.apache.hadoop.io.BytesWritable;
+
+/*
+ * The hash table of a Hybrid Grace Hash Join over hash partitioned fast hash tables.
+ *
+ * A lookup goes to the hash table of the partition of the key; when the partition is on disk, it
+ * returns SPILL with the partition in the result instead.  The subclasses serve as the hash map,
+ * multi-set or set of the kind of the partitions.
+ */
+public abstract class VectorMapJoinFastHybridHashTable
+    implements VectorMapJoinHashMap, VectorMapJoinHashMultiSet, VectorMapJoinHashSet {
+
+  protected final VectorMapJoinFastHybridTableContainer container;
+
+  protected VectorMapJoinFastHybridHashTable(VectorMapJoinFastHybridTableContainer container) {
+    this.container = container;
+  }
+
+  /**
+   * @return the hash table of the partition of the hash code, or null after setting the result
+   *     to SPILL when the partition is on disk
+   */
+  protected VectorMapJoinFastHashTable getHashTable(long hashCode,
+      VectorMapJoinHashTableResult hashTableResult) {
+    int partitionId = container.getPartitionId(hashCode);
+    VectorMapJoinFastHashTable hashTable = container.getHashTable(partitionId);
+    if (hashTable == null) {
+      hashTableResult.forget();
+      hashTableResult.setJoinResult(JoinUtil.JoinResult.SPILL);
+      hashTableResult.setSpillPartitionId(partitionId);
+    }
+    return hashTable;
+  }
+
+  @Override
+  public VectorMapJoinHashMapResult createHashMapResult() {
+    return ((VectorMapJoinHashMap) container.getKeyHashTable()).createHashMapResult();
+  }
+
+  @Override
+  public VectorMapJoinHashMultiSetResult createHashMultiSetResult() {
+    return ((VectorMapJoinHashMultiSet) container.getKeyHashTable()).createHashMultiSetResult();
+  }
+
+  @Override
+  public VectorMapJoinHashSetResult createHashSetResult() {
+    return ((VectorMapJoinHashSet) container.getKeyHashTable()).createHashSetResult();
+  }
+
+  @Override
+  public void putRow(BytesWritable currentKey, BytesWritable currentValue)
+      throws SerDeException, HiveException, IOException {
+    container.putRow(currentKey, currentValue);
+  }
+
+  @Override
+  public int size() {
+    return container.size();
+  }
+
+  @Override
+  public long getEstimatedMemorySize() {
+    return container.getEstimatedMemorySize();
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast;
+
+import java.io.IOException;
+
+import org.apache.hadoop.hive.ql.exec.JoinUtil;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashMapResult;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashMultiSetResult;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashSetResult;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinLongHashMap;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinLongHashMultiSet;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinLongHashSet;
+import org.apache.hive.common.util.HashCodeUtil;
+
+/*
+ * The single long key hash map, multi-set or set of a Hybrid Grace Hash Join.
+ */
+public class VectorMapJoinFastHybridLongHashTable extends VectorMapJoinFastHybridHashTable
+    implements VectorMapJoinLongHashMap, VectorMapJoinLongHashMultiSet, VectorMapJoinLongHashSet {
+
+  public VectorMapJoinFastHybridLongHashTable(VectorMapJoinFastHybridTableContainer container) {
+    super(container);
+  }
+
+  @Override
+  public JoinUtil.JoinResult lookup(long key, VectorMapJoinHashMapResult hashMapResult)
+      throws IOException {
+    VectorMapJoinFastHashTable hashTable =
+        getHashTable(HashCodeUtil.calculateLongHashCode(key), hashMapResult);
+    if (hashTable == null) {
+      return JoinUtil.JoinResult.SPILL;
+    }
+    return ((VectorMapJoinLongHashMap) hashTable).lookup(key, hashMapResult);
+  }
+
+  @Override
+  public JoinUtil.JoinResult contains(long key,
+      VectorMapJoinHashMultiSetResult hashMultiSetResult) throws IOException {
+    VectorMapJoinFastHashTable hashTable =
+        getHashTable(HashCodeUtil.calculateLongHashCode(key), hashMultiSetResult);
+    if (hashTable == null) {
+      return JoinUtil.JoinResult.SPILL;
+    }
+    return ((VectorMapJoinLongHashMultiSet) hashTable).contains(key, hashMultiSetResult);
+  }
+
+  @Override
+  public JoinUtil.JoinResult contains(long key, VectorMapJoinHashSetResult hashSetResult)
+      throws IOException {
+    VectorMapJoinFastHashTable hashTable =
+        getHashTable(HashCodeUtil.calculateLongHashCode(key), hashSetResult);
+    if (hashTable == null) {
+      return JoinUtil.JoinResult.SPILL;
+    }
+    return ((VectorMapJoinLongHashSet) hashTable).contains(key, hashSetResult);
+  }
+
+  /*
+   * The keys of the spilled partitions are not in the range of the partitions in memory, so the
+   * range is not used to rule out keys.
+   */
+  @Override
+  public boolean useMinMax() {
+    return false;
+  }
+
+  @Override
+  public long min() {
+    return Long.MIN_VALUE;
+  }
+
+  @Override
+  public long max() {
+    return Long.MAX_VALUE;
+  }
+}
@@ -0,0 +1,441 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.common.ObjectPair;
+import org.apache.hadoop.hive.common.FileUtils;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.exec.persistence.HashMapWrapper;
+import org.apache.hadoop.hive.ql.exec.persistence.HybridHashTableContainer;
+import org.apache.hadoop.hive.ql.exec.persistence.KeyValueContainer;
+import org.apache.hadoop.hive.ql.exec.persistence.MapJoinKey;
+import org.apache.hadoop.hive.ql.exec.persistence.MapJoinObjectSerDeContext;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashTable;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinTableContainer;
+import org.apache.hadoop.hive.ql.exec.vector.rowbytescontainer.VectorRowBytesContainer;
+import org.apache.hadoop.hive.ql.io.HiveKey;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.metadata.HiveUtils;
+import org.apache.hadoop.hive.ql.plan.MapJoinDesc;
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc;
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc.HashTableKeyType;
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc.HashTableKind;
+import org.apache.hadoop.hive.serde2.SerDeException;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Writable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * The table container of Hybrid Grace Hash Join for the native fast hash tables.
+ *
+ * The small table rows are hash partitioned into fast hash tables.  When the estimated memory of
+ * the partitions in memory exceeds the memory of the join while loading, the biggest one is
+ * written to a local file as a hash table image (see {@link VectorMapJoinFastHashTableImage}),
+ * and the later rows of the partition go to a side file.  A lookup of a key of a partition on
+ * disk returns SPILL with the partition, so the operator spills the big table row to the match
+ * file of the partition.  When the big table input is done, each spilled partition is loaded
+ * back with the rows of its side file, and the spilled big table rows are processed again.
+ */
+public class VectorMapJoinFastHybridTableContainer implements VectorMapJoinTableContainer {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(VectorMapJoinFastHybridTableContainer.class.getName());
+
+  /**
+   * A hash partition: the hash table in memory, or its image and side file on disk, and the big
+   * table rows spilled for it.
+   */
+  private static class HashPartition {
+    VectorMapJoinFastHashTable hashTable;   // In memory hash table
+    boolean hashTableOnDisk;                // Whether the hash table was spilled
+    File imageFile;                         // The image written when spilled
+    KeyValueContainer sidefileKVContainer;  // Small table rows added after spilling
+    VectorRowBytesContainer matchfileRowBytesContainer;  // Spilled big table rows
+    int keysOnDisk;
+
+    void clear() {
+      hashTable = null;
+      hashTableOnDisk = false;
+      if (imageFile != null) {
+        try {
+          Files.delete(imageFile.toPath());
+        } catch (Throwable ignored) {
+        }
+        imageFile = null;
+      }
+      if (sidefileKVContainer != null) {
+        sidefileKVContainer.clear();
+        sidefileKVContainer = null;
+      }
+      if (matchfileRowBytesContainer != null) {
+        matchfileRowBytesContainer.clear();
+        matchfileRowBytesContainer = null;
+      }
+    }
+  }
+
+  private final HashTableKind hashTableKind;
+  private final HashTableKeyType hashTableKeyType;
+  private final boolean isOuterJoin;
+  private final boolean minMaxEnabled;
+  private final boolean isOffHeap;
+
+  private final int initialCapacity;
+  private final float loadFactor;
+  private final int writeBufferSize;
+  private final long estimatedKeyCount;
+
+  private final long memoryThreshold;
+  private final int memoryCheckFrequency;
+  private final String spillLocalDirs;
+
+  private final HashPartition[] hashPartitions;
+  private final int partitionShift;
+
+  // An empty hash table to compute the hash codes of the small table keys with.
+  private final VectorMapJoinFastHashTable keyHashTable;
+
+  private final VectorMapJoinHashTable vectorMapJoinHashTable;
+
+  private final HiveKey sidefileKey = new HiveKey();
+
+  private long rowCount;
+  private int numPartitionsSpilled;
+  private boolean lastPartitionInMem;
+
+  public VectorMapJoinFastHybridTableContainer(MapJoinDesc desc, Configuration hconf,
+      long estimatedKeyCount, long memoryAvailable, long estimatedTableSize)
+      throws SerDeException, IOException {
+    this(desc, hconf, estimatedKeyCount, memoryAvailable,
+        HybridHashTableContainer.calcNumPartitions(memoryAvailable, estimatedTableSize,
+            HiveConf.getIntVar(hconf, HiveConf.ConfVars.HIVEHYBRIDGRACEHASHJOINMINNUMPARTITIONS),
+            HiveConf.getIntVar(hconf, HiveConf.ConfVars.HIVEHYBRIDGRACEHASHJOINMINWBSIZE)),
+        estimatedTableSize, HiveUtils.getLocalDirList(hconf));
+  }
+
+  @VisibleForTesting
+  VectorMapJoinFastHybridTableContainer(MapJoinDesc desc, Configuration hconf,
+      long estimatedKeyCount, long memoryAvailable, int numPartitions, long estimatedTableSize,
+      String spillLocalDirs) {
+
+    VectorMapJoinDesc vectorDesc = (VectorMapJoinDesc) desc.getVectorDesc();
+    hashTableKind = vectorDesc.getHashTableKind();
+    hashTableKeyType = vectorDesc.getHashTableKeyType();
+    isOuterJoin = !desc.isNoOuterJoin();
+    minMaxEnabled = vectorDesc.getMinMaxEnabled();
+    isOffHeap = HiveConf.getBoolVar(hconf,
+        HiveConf.ConfVars.HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_HASHTABLE_OFFHEAP);
+
+    float keyCountAdj = HiveConf.getFloatVar(hconf, HiveConf.ConfVars.HIVEHASHTABLEKEYCOUNTADJUSTMENT);
+    int threshold = HiveConf.getIntVar(hconf, HiveConf.ConfVars.HIVEHASHTABLETHRESHOLD);
+    loadFactor = HiveConf.getFloatVar(hconf, HiveConf.ConfVars.HIVEHASHTABLELOADFACTOR);
+    int minWbSize = HiveConf.getIntVar(hconf, HiveConf.ConfVars.HIVEHYBRIDGRACEHASHJOINMINWBSIZE);
+    int maxWbSize = HiveConf.getIntVar(hconf, HiveConf.ConfVars.HIVEHASHTABLEWBSIZE);
+
+    memoryThreshold = memoryAvailable;
+    memoryCheckFrequency =
+        HiveConf.getIntVar(hconf, HiveConf.ConfVars.HIVEHYBRIDGRACEHASHJOINMEMCHECKFREQ);
+    this.spillLocalDirs = spillLocalDirs;
+
+    // The partitions are picked by the high bits of the hash code, the number must be a power of 2.
+    if (Integer.bitCount(numPartitions) != 1) {
+      numPartitions = Integer.highestOneBit(numPartitions) << 1;
+    }
+    int partitionBits = Integer.numberOfTrailingZeros(numPartitions);
+    partitionShift = (partitionBits == 0 ? 0 : 32 - partitionBits);
+
+    int newThreshold = HashMapWrapper.calculateTableSize(
+        keyCountAdj, threshold, loadFactor, estimatedKeyCount);
+    initialCapacity = Math.max(newThreshold / numPartitions, 1);
+    this.estimatedKeyCount =
+        (estimatedKeyCount < 0 ? estimatedKeyCount : estimatedKeyCount / numPartitions);
+
+    // Same sizing as the write buffers of HybridHashTableContainer.
+    int wbSize = (int) Math.min(estimatedTableSize / numPartitions, Integer.MAX_VALUE);
+    wbSize = (Integer.bitCount(wbSize) == 1 ? wbSize : Integer.highestOneBit(wbSize));
+    writeBufferSize = (wbSize < minWbSize ? minWbSize : Math.min(maxWbSize / numPartitions, wbSize));
+
+    hashPartitions = new HashPartition[numPartitions];
+    for (int i = 0; i < numPartitions; i++) {
+      hashPartitions[i] = new HashPartition();
+      hashPartitions[i].hashTable = createHashTable(initialCapacity);
+    }
+    keyHashTable = createHashTable(1);
+
+    switch (hashTableKeyType) {
+    case BOOLEAN:
+    case BYTE:
+    case SHORT:
+    case INT:
+    case LONG:
+      vectorMapJoinHashTable = new VectorMapJoinFastHybridLongHashTable(this);
+      break;
+    default:
+      vectorMapJoinHashTable = new VectorMapJoinFastHybridBytesHashTable(this);
+      break;
+    }
+
+    LOG.info("Number of partitions created: " + numPartitions + ", write buffer size: " +
+        writeBufferSize + ", total available memory: " + memoryThreshold);
+  }
+
+  private VectorMapJoinFastHashTable createHashTable(int capacity) {
+    return VectorMapJoinFastTableContainer.createHashTable(hashTableKind, hashTableKeyType,
+        isOuterJoin, minMaxEnabled, capacity, loadFactor, writeBufferSize, estimatedKeyCount,
+        isOffHeap);
+  }
+
+  @Override
+  public VectorMapJoinHashTable vectorMapJoinHashTable() {
+    return vectorMapJoinHashTable;
+  }
+
+  public int getNumPartitions() {
+    return hashPartitions.length;
+  }
+
+  int getPartitionId(long hashCode) {
+    // The low bits pick the slot in the hash table of the partition.
+    return (partitionShift == 0 ? 0 : ((int) hashCode) >>> partitionShift);
+  }
+
+  /**
+   * @return the hash table of the partition, or null if the partition is on disk
+   */
+  VectorMapJoinFastHashTable getHashTable(int partitionId) {
+    return hashPartitions[partitionId].hashTable;
+  }
+
+  VectorMapJoinFastHashTable getKeyHashTable() {
+    return keyHashTable;
+  }
+
+  public boolean isHashTableOnDisk(int partitionId) {
+    return hashPartitions[partitionId].hashTableOnDisk;
+  }
+
+  /**
+   * @return the container of the big table rows spilled for a partition
+   */
+  public VectorRowBytesContainer getMatchfileRowBytesContainer(int partitionId) {
+    HashPartition partition = hashPartitions[partitionId];
+    if (partition.matchfileRowBytesContainer == null) {
+      partition.matchfileRowBytesContainer = new VectorRowBytesContainer(spillLocalDirs);
+    }
+    return partition.matchfileRowBytesContainer;
+  }
+
+  @Override
+  public MapJoinKey putRow(Writable currentKey, Writable currentValue)
+      throws SerDeException, HiveException, IOException {
+
+    BytesWritable keyBytes = (BytesWritable) currentKey;
+    BytesWritable valueBytes = (BytesWritable) currentValue;
+
+    int partitionId = getPartitionId(keyHashTable.getKeyHashCode(keyBytes));
+    HashPartition partition = hashPartitions[partitionId];
+
+    if (partition.hashTable != null && !lastPartitionInMem &&
+        (++rowCount & (memoryCheckFrequency - 1)) == 0 && isMemoryFull()) {
+      if (numPartitionsSpilled == hashPartitions.length - 1) {
+        LOG.warn("This LAST partition in memory won't be spilled!");
+        lastPartitionInMem = true;
+      } else {
+        spillPartition(biggestPartition());
+      }
+    }
+
+    if (partition.hashTable != null) {
+      partition.hashTable.putRow(keyBytes, valueBytes);
+    } else {
+      if (partition.sidefileKVContainer == null) {
+        partition.sidefileKVContainer = new KeyValueContainer(spillLocalDirs);
+      }
+      sidefileKey.set(keyBytes.getBytes(), 0, keyBytes.getLength());
+      partition.sidefileKVContainer.add(sidefileKey, valueBytes);
+    }
+    return null;
+  }
+
+  private boolean isMemoryFull() {
+    return getEstimatedMemorySize() > memoryThreshold;
+  }
+
+  private int biggestPartition() {
+    int biggest = -1;
+    long biggestSize = -1;
+    for (int i = 0; i < hashPartitions.length; i++) {
+      VectorMapJoinFastHashTable hashTable = hashPartitions[i].hashTable;
+      if (hashTable != null && hashTable.getEstimatedMemorySize() > biggestSize) {
+        biggest = i;
+        biggestSize = hashTable.getEstimatedMemorySize();
+      }
+    }
+    return biggest;
+  }
+
+  /**
+   * Writes the hash table of a partition to a local file and drops it from memory.
+   */
+  @VisibleForTesting
+  void spillPartition(int partitionId) throws IOException {
+    HashPartition partition = hashPartitions[partitionId];
+    VectorMapJoinFastHashTable hashTable = partition.hashTable;
+    long memorySize = hashTable.getEstimatedMemorySize();
+
+    File file = FileUtils.createLocalDirsTempFile(
+        spillLocalDirs, "partition-" + partitionId + "-", null, false);
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+      VectorMapJoinFastHashTableImage.write(hashTable, hashTableKind, hashTableKeyType,
+          isOuterJoin, minMaxEnabled, channel);
+    }
+    partition.imageFile = file;
+    partition.keysOnDisk = hashTable.size();
+    partition.hashTable = null;
+    partition.hashTableOnDisk = true;
+    numPartitionsSpilled++;
+
+    LOG.info("Spilling hash partition " + partitionId + " (Keys: " + partition.keysOnDisk +
+        ", Mem size: " + memorySize + "): " + file);
+  }
+
+  /**
+   * Drops the hash tables of the partitions in memory, whose big table rows are all processed.
+   */
+  public void clearInMemoryPartitions() {
+    for (HashPartition partition : hashPartitions) {
+      if (!partition.hashTableOnDisk) {
+        partition.hashTable = null;
+      }
+    }
+  }
+
+  /**
+   * Loads the hash table of a spilled partition back, and adds the rows of its side file.
+   */
+  public VectorMapJoinFastHashTable reloadHashTable(int partitionId)
+      throws HiveException, IOException, SerDeException {
+    HashPartition partition = hashPartitions[partitionId];
+    VectorMapJoinFastHashTable hashTable;
+    try (FileChannel channel = FileChannel.open(partition.imageFile.toPath(),
+        StandardOpenOption.READ)) {
+      hashTable = VectorMapJoinFastHashTableImage.load(hashTableKind, hashTableKeyType,
+          isOuterJoin, minMaxEnabled, channel);
+    }
+    Files.delete(partition.imageFile.toPath());
+    partition.imageFile = null;
+
+    int sidefileRowCount = 0;
+    KeyValueContainer kvContainer = partition.sidefileKVContainer;
+    if (kvContainer != null) {
+      sidefileRowCount = kvContainer.size();
+      while (kvContainer.hasNext()) {
+        ObjectPair<HiveKey, BytesWritable> pair = kvContainer.next();
+        hashTable.putRow(pair.getFirst(), pair.getSecond());
+      }
+      kvContainer.clear();
+      partition.sidefileKVContainer = null;
+    }
+
+    LOG.info("Hybrid Grace Hash Join: Reloaded hash partition " + partitionId + " (Keys: " +
+        partition.keysOnDisk + ", side file rows: " + sidefileRowCount + ")");
+    if (hashTable.getEstimatedMemorySize() >= memoryThreshold / 2) {
+      LOG.warn("Hybrid Grace Hash Join: Hash table cannot be reloaded since it" +
+          " will be greater than memory limit. Recursive spilling is currently not supported");
+    }
+    partition.keysOnDisk = 0;
+    partition.hashTableOnDisk = false;
+    return hashTable;
+  }
+
+  @Override
+  public void seal() {
+    // Do nothing
+  }
+
+  @Override
+  public ReusableGetAdaptor createGetter(MapJoinKey keyTypeFromLoader) {
+    throw new RuntimeException("Not applicable");
+  }
+
+  @Override
+  public void clear() {
+    for (HashPartition partition : hashPartitions) {
+      partition.clear();
+    }
+  }
+
+  @Override
+  public MapJoinKey getAnyKey() {
+    throw new RuntimeException("Not applicable");
+  }
+
+  @Override
+  public void dumpMetrics() {
+    LOG.info("Hybrid Grace Hash Join: " + numPartitionsSpilled + " of " + hashPartitions.length +
+        " hash partitions spilled");
+  }
+
+  @Override
+  public boolean hasSpill() {
+    return numPartitionsSpilled > 0;
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (HashPartition partition : hashPartitions) {
+      if (partition.hashTableOnDisk) {
+        // Keys of the image, and the rows of the side file
+        size += partition.keysOnDisk +
+            (partition.sidefileKVContainer != null ? partition.sidefileKVContainer.size() : 0);
+      } else if (partition.hashTable != null) {
+        size += partition.hashTable.size();
+      }
+    }
+    return size;
+  }
+
+  @Override
+  public long getEstimatedMemorySize() {
+    long size = 0;
+    for (HashPartition partition : hashPartitions) {
+      if (partition.hashTable != null) {
+        size += partition.hashTable.getEstimatedMemorySize();
+      }
+    }
+    return size;
+  }
+
+  @Override
+  public void setSerde(MapJoinObjectSerDeContext keyCtx, MapJoinObjectSerDeContext valCtx)
+      throws SerDeException {
+    // Do nothing in this case.
+  }
+}
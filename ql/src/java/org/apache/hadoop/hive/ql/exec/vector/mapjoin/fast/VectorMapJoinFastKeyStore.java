@@ -156,8 +156,44 @@ public boolean equalKey(long keyRefWord, byte[] keyBytes, int keyStart, int keyL
     return true;
   }
 
+  /**
+   * Gets a reference to the bytes of a stored key.
+   */
+  public void getKey(long keyRefWord, WriteBuffers.ByteSegmentRef keyByteSegmentRef,
+      WriteBuffers.Position readPos) {
+
+    int storedKeyLength =
+        (int) ((keyRefWord & SmallKeyLength.bitMask) >> SmallKeyLength.bitShift);
+    boolean isKeyLengthSmall = (storedKeyLength != SmallKeyLength.allBitsOn);
+
+    long absoluteKeyOffset =
+        (keyRefWord & AbsoluteKeyOffset.bitMask);
+
+    writeBuffers.setReadPoint(absoluteKeyOffset, readPos);
+    if (!isKeyLengthSmall) {
+      // Read big value length we wrote with the value.
+      storedKeyLength = writeBuffers.readVInt(readPos);
+    }
+    writeBuffers.getByteSegmentRefToCurrent(keyByteSegmentRef, storedKeyLength, readPos);
+  }
+
+  /**
+   * Releases all the stored keys.
+   */
+  public void clear() {
+    writeBuffers.clear();
+  }
+
+  public WriteBuffers writeBuffers() {
+    return writeBuffers;
+  }
+
   public VectorMapJoinFastKeyStore(int writeBuffersSize) {
-    writeBuffers = new WriteBuffers(writeBuffersSize, AbsoluteKeyOffset.maxSize);
+    this(writeBuffersSize, false);
+  }
+
+  public VectorMapJoinFastKeyStore(int writeBuffersSize, boolean isOffHeap) {
+    writeBuffers = new WriteBuffers(writeBuffersSize, AbsoluteKeyOffset.maxSize, isOffHeap);
     unsafeReadPos = new WriteBuffers.Position();
   }
 
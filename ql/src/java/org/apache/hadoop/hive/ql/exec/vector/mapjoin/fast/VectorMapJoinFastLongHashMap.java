@@ -29,6 +29,7 @@
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinLongHashMap;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc.HashTableKeyType;
+import org.apache.hadoop.hive.serde2.WriteBuffers;
 import org.apache.hadoop.io.BytesWritable;
 import org.apache.hive.common.util.HashCodeUtil;
 
@@ -110,9 +111,27 @@ public JoinUtil.JoinResult lookup(long key, VectorMapJoinHashMapResult hashMapRe
   public VectorMapJoinFastLongHashMap(
       boolean minMaxEnabled, boolean isOuterJoin, HashTableKeyType hashTableKeyType,
       int initialCapacity, float loadFactor, int writeBuffersSize, long estimatedKeyCount) {
+    this(minMaxEnabled, isOuterJoin, hashTableKeyType,
+        initialCapacity, loadFactor, writeBuffersSize, estimatedKeyCount, false);
+  }
+
+  public VectorMapJoinFastLongHashMap(
+      boolean minMaxEnabled, boolean isOuterJoin, HashTableKeyType hashTableKeyType,
+      int initialCapacity, float loadFactor, int writeBuffersSize, long estimatedKeyCount,
+      boolean isOffHeap) {
     super(minMaxEnabled, isOuterJoin, hashTableKeyType,
         initialCapacity, loadFactor, writeBuffersSize, estimatedKeyCount);
-    valueStore = new VectorMapJoinFastValueStore(writeBuffersSize);
+    valueStore = new VectorMapJoinFastValueStore(writeBuffersSize, isOffHeap);
+  }
+
+  @Override
+  WriteBuffers getWriteBuffers() {
+    return valueStore.writeBuffers();
+  }
+
+  @Override
+  void setWriteBuffers(WriteBuffers writeBuffers) {
+    valueStore = new VectorMapJoinFastValueStore(writeBuffers);
   }
 
   @Override
@@ -72,26 +72,47 @@ public long max() {
     return max;
   }
 
+  void setMinMax(long min, long max) {
+    this.min = min;
+    this.max = max;
+  }
+
   @Override
   public void putRow(BytesWritable currentKey, BytesWritable currentValue) throws HiveException, IOException {
+    if (!readKey(currentKey)) {
+      return;
+    }
+
+    long key = VectorMapJoinFastLongHashUtil.deserializeLongKey(
+                            keyBinarySortableDeserializeRead, hashTableKeyType);
+
+    add(key, currentValue);
+  }
+
+  @Override
+  long getKeyHashCode(BytesWritable currentKey) throws HiveException, IOException {
+    if (!readKey(currentKey)) {
+      return 0;
+    }
+    return HashCodeUtil.calculateLongHashCode(VectorMapJoinFastLongHashUtil.deserializeLongKey(
+        keyBinarySortableDeserializeRead, hashTableKeyType));
+  }
+
+  /*
+   * @return false for a NULL key.
+   */
+  private boolean readKey(BytesWritable currentKey) throws HiveException {
     byte[] keyBytes = currentKey.getBytes();
     int keyLength = currentKey.getLength();
     keyBinarySortableDeserializeRead.set(keyBytes, 0, keyLength);
     try {
-      if (!keyBinarySortableDeserializeRead.readNextField()) {
-        return;
-      }
+      return keyBinarySortableDeserializeRead.readNextField();
     } catch (Exception e) {
       throw new HiveException(
           "\nDeserializeRead details: " +
               keyBinarySortableDeserializeRead.getDetailedReadPositionString() +
           "\nException: " + e.toString());
     }
-
-    long key = VectorMapJoinFastLongHashUtil.deserializeLongKey(
-                            keyBinarySortableDeserializeRead, hashTableKeyType);
-
-    add(key, currentValue);
   }
 
   protected abstract void assignSlot(int slot, long key, boolean isNewKey, BytesWritable currentValue);
@@ -51,7 +51,14 @@ public void testPutRow(byte[] currentKey, byte[] currentValue) throws HiveExcept
   public VectorMapJoinFastMultiKeyHashMap(
         boolean isOuterJoin,
         int initialCapacity, float loadFactor, int writeBuffersSize, long estimatedKeyCount) {
-    super(initialCapacity, loadFactor, writeBuffersSize, estimatedKeyCount);
+    this(isOuterJoin, initialCapacity, loadFactor, writeBuffersSize, estimatedKeyCount, false);
+  }
+
+  public VectorMapJoinFastMultiKeyHashMap(
+        boolean isOuterJoin,
+        int initialCapacity, float loadFactor, int writeBuffersSize, long estimatedKeyCount,
+        boolean isOffHeap) {
+    super(initialCapacity, loadFactor, writeBuffersSize, estimatedKeyCount, isOffHeap);
   }
 
   @Override
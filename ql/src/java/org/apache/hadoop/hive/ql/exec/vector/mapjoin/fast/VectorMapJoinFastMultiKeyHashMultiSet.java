@@ -49,7 +49,14 @@ public void testPutRow(byte[] currentKey) throws HiveException, IOException {
   public VectorMapJoinFastMultiKeyHashMultiSet(
         boolean isOuterJoin,
         int initialCapacity, float loadFactor, int writeBuffersSize, long estimatedKeyCount) {
-    super(initialCapacity, loadFactor, writeBuffersSize, estimatedKeyCount);
+    this(isOuterJoin, initialCapacity, loadFactor, writeBuffersSize, estimatedKeyCount, false);
+  }
+
+  public VectorMapJoinFastMultiKeyHashMultiSet(
+        boolean isOuterJoin,
+        int initialCapacity, float loadFactor, int writeBuffersSize, long estimatedKeyCount,
+        boolean isOffHeap) {
+    super(initialCapacity, loadFactor, writeBuffersSize, estimatedKeyCount, isOffHeap);
   }
 
   @Override
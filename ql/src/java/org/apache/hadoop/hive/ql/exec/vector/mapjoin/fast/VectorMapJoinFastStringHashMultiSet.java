@@ -37,10 +37,22 @@ public void putRow(BytesWritable currentKey, BytesWritable currentValue) throws
     stringCommon.adaptPutRow(this, currentKey, currentValue);
   }
 
+  @Override
+  long getKeyHashCode(BytesWritable currentKey) throws HiveException {
+    return stringCommon.adaptGetKeyHashCode(currentKey);
+  }
+
   public VectorMapJoinFastStringHashMultiSet(
       boolean isOuterJoin,
       int initialCapacity, float loadFactor, int writeBuffersSize, long estimatedKeyCount) {
-    super(initialCapacity, loadFactor, writeBuffersSize, estimatedKeyCount);
+    this(isOuterJoin, initialCapacity, loadFactor, writeBuffersSize, estimatedKeyCount, false);
+  }
+
+  public VectorMapJoinFastStringHashMultiSet(
+      boolean isOuterJoin,
+      int initialCapacity, float loadFactor, int writeBuffersSize, long estimatedKeyCount,
+      boolean isOffHeap) {
+    super(initialCapacity, loadFactor, writeBuffersSize, estimatedKeyCount, isOffHeap);
     stringCommon = new VectorMapJoinFastStringCommon(isOuterJoin);
   }
 
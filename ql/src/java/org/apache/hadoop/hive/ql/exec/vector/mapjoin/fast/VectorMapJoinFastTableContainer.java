@@ -86,6 +86,25 @@ public VectorMapJoinFastTableContainer(MapJoinDesc desc, Configuration hconf,
     vectorMapJoinFastHashTable = createHashTable(newThreshold);
   }
 
+  /**
+   * Wraps a sealed hash table that was loaded before, e.g. from the shared hash table cache.
+   */
+  public VectorMapJoinFastTableContainer(MapJoinDesc desc, Configuration hconf,
+      VectorMapJoinFastHashTable vectorMapJoinFastHashTable) {
+
+    this.desc = desc;
+    this.hconf = hconf;
+
+    keyCountAdj = HiveConf.getFloatVar(hconf, HiveConf.ConfVars.HIVEHASHTABLEKEYCOUNTADJUSTMENT);
+    threshold = HiveConf.getIntVar(hconf, HiveConf.ConfVars.HIVEHASHTABLETHRESHOLD);
+    loadFactor = HiveConf.getFloatVar(hconf, HiveConf.ConfVars.HIVEHASHTABLELOADFACTOR);
+    wbSize = HiveConf.getIntVar(hconf, HiveConf.ConfVars.HIVEHASHTABLEWBSIZE);
+
+    this.estimatedKeyCount = vectorMapJoinFastHashTable.size();
+
+    this.vectorMapJoinFastHashTable = vectorMapJoinFastHashTable;
+  }
+
   @Override
   public VectorMapJoinHashTable vectorMapJoinHashTable() {
     return vectorMapJoinFastHashTable;
@@ -103,6 +122,17 @@ private VectorMapJoinFastHashTable createHashTable(int newThreshold) {
     boolean minMaxEnabled = vectorDesc.getMinMaxEnabled();
 
     int writeBufferSize = HiveConf.getIntVar(hconf, HiveConf.ConfVars.HIVEHASHTABLEWBSIZE);
+    boolean isOffHeap = HiveConf.getBoolVar(hconf,
+        HiveConf.ConfVars.HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_HASHTABLE_OFFHEAP);
+
+    return createHashTable(hashTableKind, hashTableKeyType, isOuterJoin, minMaxEnabled,
+        newThreshold, loadFactor, writeBufferSize, estimatedKeyCount, isOffHeap);
+  }
+
+  static VectorMapJoinFastHashTable createHashTable(HashTableKind hashTableKind,
+      HashTableKeyType hashTableKeyType, boolean isOuterJoin, boolean minMaxEnabled,
+      int newThreshold, float loadFactor, int writeBufferSize, long estimatedKeyCount,
+      boolean isOffHeap) {
 
     VectorMapJoinFastHashTable hashTable = null;
 
@@ -116,7 +146,7 @@ private VectorMapJoinFastHashTable createHashTable(int newThreshold) {
       case HASH_MAP:
         hashTable = new VectorMapJoinFastLongHashMap(
                 minMaxEnabled, isOuterJoin, hashTableKeyType,
-                newThreshold, loadFactor, writeBufferSize, estimatedKeyCount);
+                newThreshold, loadFactor, writeBufferSize, estimatedKeyCount, isOffHeap);
         break;
       case HASH_MULTISET:
         hashTable = new VectorMapJoinFastLongHashMultiSet(
@@ -136,17 +166,17 @@ private VectorMapJoinFastHashTable createHashTable(int newThreshold) {
       case HASH_MAP:
         hashTable = new VectorMapJoinFastStringHashMap(
                 isOuterJoin,
-                newThreshold, loadFactor, writeBufferSize, estimatedKeyCount);
+                newThreshold, loadFactor, writeBufferSize, estimatedKeyCount, isOffHeap);
         break;
       case HASH_MULTISET:
         hashTable = new VectorMapJoinFastStringHashMultiSet(
                 isOuterJoin,
-                newThreshold, loadFactor, writeBufferSize, estimatedKeyCount);
+                newThreshold, loadFactor, writeBufferSize, estimatedKeyCount, isOffHeap);
         break;
       case HASH_SET:
         hashTable = new VectorMapJoinFastStringHashSet(
                 isOuterJoin,
-                newThreshold, loadFactor, writeBufferSize, estimatedKeyCount);
+                newThreshold, loadFactor, writeBufferSize, estimatedKeyCount, isOffHeap);
         break;
       }
       break;
@@ -156,17 +186,17 @@ private VectorMapJoinFastHashTable createHashTable(int newThreshold) {
       case HASH_MAP:
         hashTable = new VectorMapJoinFastMultiKeyHashMap(
             isOuterJoin,
-            newThreshold, loadFactor, writeBufferSize, estimatedKeyCount);
+            newThreshold, loadFactor, writeBufferSize, estimatedKeyCount, isOffHeap);
         break;
       case HASH_MULTISET:
         hashTable = new VectorMapJoinFastMultiKeyHashMultiSet(
                 isOuterJoin,
-                newThreshold, loadFactor, writeBufferSize, estimatedKeyCount);
+                newThreshold, loadFactor, writeBufferSize, estimatedKeyCount, isOffHeap);
         break;
       case HASH_SET:
         hashTable = new VectorMapJoinFastMultiKeyHashSet(
                 isOuterJoin,
-                newThreshold, loadFactor, writeBufferSize, estimatedKeyCount);
+                newThreshold, loadFactor, writeBufferSize, estimatedKeyCount, isOffHeap);
         break;
       }
       break;
@@ -403,6 +403,11 @@ public ByteSegmentRef internalRead() {
       return byteSegmentRef;
     }
 
+    @Override
+    public boolean isValueBytesRetainable() {
+      return valueStore == null || !valueStore.writeBuffers.isOffHeap();
+    }
+
     @Override
     public void forget() {
     }
@@ -697,6 +702,14 @@ public long addMore(long oldValueRef, byte[] valueBytes, int valueStart, int val
   }
 
   public VectorMapJoinFastValueStore(int writeBuffersSize) {
-    writeBuffers = new WriteBuffers(writeBuffersSize, AbsoluteValueOffset.maxSize);
+    this(writeBuffersSize, false);
+  }
+
+  public VectorMapJoinFastValueStore(int writeBuffersSize, boolean isOffHeap) {
+    writeBuffers = new WriteBuffers(writeBuffersSize, AbsoluteValueOffset.maxSize, isOffHeap);
+  }
+
+  public VectorMapJoinFastValueStore(WriteBuffers writeBuffers) {
+    this.writeBuffers = writeBuffers;
   }
 }
@@ -56,6 +56,14 @@ public abstract class VectorMapJoinHashMapResult extends VectorMapJoinHashTableR
    */
   public abstract ByteSegmentRef next();
 
+  /**
+   * @return Whether the value bytes stay valid after the next read, so they can be referenced
+   *         (e.g. by BytesColumnVector.setRef) instead of copied.
+   */
+  public boolean isValueBytesRetainable() {
+    return true;
+  }
+
   /**
    * Get detailed HashMap result position information to help diagnose exceptions.
    */
@@ -0,0 +1,391 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.ptf;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.hadoop.hive.common.FileUtils;
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.common.type.HiveIntervalDayTime;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.IntervalDayTimeColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.TimestampColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A container that spills whole VectorizedRowBatch to a local temporary file column by column and
+ * streams them back in the same order.
+ *
+ * Each spilled batch is written as its size and then, for each column, its isRepeating and
+ * noNulls flags, its isNull flags when it has NULLs, and its non-NULL values.  A repeating column
+ * only writes its first row.  So unlike a per-row SerDe, the values are copied straight out of
+ * and into the column vector arrays.
+ *
+ * Only the primitive column vector types are supported, which is what the vectorized PTF operator
+ * buffers.
+ */
+public class VectorPTFBatchSpillContainer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(VectorPTFBatchSpillContainer.class);
+
+  private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+  private final String spillLocalDirs;
+
+  private File parentDir;
+  private File tmpFile;
+
+  private DataOutputStream dataOutputStream;
+  private DataInputStream dataInputStream;
+
+  private long batchCount;
+  private long rowCount;
+  private long readBatchCount;
+
+  private long[] decimalScratchLongs;
+  private byte[] decimalScratchBytes;
+  private HiveIntervalDayTime scratchIntervalDayTime;
+  private byte[] readBytes;
+
+  public VectorPTFBatchSpillContainer(String spillLocalDirs) {
+    this.spillLocalDirs = spillLocalDirs;
+    batchCount = 0;
+    rowCount = 0;
+  }
+
+  private void setupOutputFileStreams() throws IOException {
+    parentDir = FileUtils.createLocalDirsTempFile(spillLocalDirs, "ptf-batch-container", "", true);
+    parentDir.deleteOnExit();
+    tmpFile = File.createTempFile("BatchContainer", ".tmp", parentDir);
+    LOG.debug("BatchContainer created temp file " + tmpFile.getAbsolutePath());
+    tmpFile.deleteOnExit();
+
+    dataOutputStream =
+        new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(tmpFile), STREAM_BUFFER_SIZE));
+  }
+
+  /**
+   * Append the first columnCount columns of a batch that does not use selected.
+   */
+  public void writeBatch(VectorizedRowBatch batch, int columnCount) throws IOException {
+    if (dataOutputStream == null) {
+      setupOutputFileStreams();
+    }
+    final int size = batch.size;
+    dataOutputStream.writeInt(size);
+    for (int i = 0; i < columnCount; i++) {
+      writeColumn(batch.cols[i], size);
+    }
+    batchCount++;
+    rowCount += size;
+  }
+
+  private void writeColumn(ColumnVector colVector, int size) throws IOException {
+    final boolean isRepeating = colVector.isRepeating;
+    final boolean noNulls = colVector.noNulls;
+    dataOutputStream.writeBoolean(isRepeating);
+    dataOutputStream.writeBoolean(noNulls);
+
+    final int count = (isRepeating ? 1 : size);
+    final boolean[] isNull = colVector.isNull;
+    if (!noNulls) {
+      for (int i = 0; i < count; i++) {
+        dataOutputStream.writeBoolean(isNull[i]);
+      }
+    }
+
+    switch (colVector.type) {
+    case LONG:
+    case DECIMAL_64:
+      {
+        final long[] vector = ((LongColumnVector) colVector).vector;
+        for (int i = 0; i < count; i++) {
+          if (noNulls || !isNull[i]) {
+            dataOutputStream.writeLong(vector[i]);
+          }
+        }
+      }
+      break;
+    case DOUBLE:
+      {
+        final double[] vector = ((DoubleColumnVector) colVector).vector;
+        for (int i = 0; i < count; i++) {
+          if (noNulls || !isNull[i]) {
+            dataOutputStream.writeDouble(vector[i]);
+          }
+        }
+      }
+      break;
+    case BYTES:
+      {
+        final BytesColumnVector bytesColVector = (BytesColumnVector) colVector;
+        for (int i = 0; i < count; i++) {
+          if (noNulls || !isNull[i]) {
+            final int length = bytesColVector.length[i];
+            dataOutputStream.writeInt(length);
+            dataOutputStream.write(bytesColVector.vector[i], bytesColVector.start[i], length);
+          }
+        }
+      }
+      break;
+    case DECIMAL:
+      {
+        if (decimalScratchLongs == null) {
+          decimalScratchLongs = new long[HiveDecimal.SCRATCH_LONGS_LEN];
+          decimalScratchBytes = new byte[HiveDecimal.SCRATCH_BUFFER_LEN_BIG_INTEGER_BYTES];
+        }
+        final HiveDecimalWritable[] vector = ((DecimalColumnVector) colVector).vector;
+        for (int i = 0; i < count; i++) {
+          if (noNulls || !isNull[i]) {
+            final int length = vector[i].bigIntegerBytes(decimalScratchLongs, decimalScratchBytes);
+            dataOutputStream.writeInt(vector[i].scale());
+            dataOutputStream.writeInt(length);
+            dataOutputStream.write(decimalScratchBytes, 0, length);
+          }
+        }
+      }
+      break;
+    case TIMESTAMP:
+      {
+        final TimestampColumnVector timestampColVector = (TimestampColumnVector) colVector;
+        for (int i = 0; i < count; i++) {
+          if (noNulls || !isNull[i]) {
+            dataOutputStream.writeLong(timestampColVector.time[i]);
+            dataOutputStream.writeInt(timestampColVector.nanos[i]);
+          }
+        }
+      }
+      break;
+    case INTERVAL_DAY_TIME:
+      {
+        final IntervalDayTimeColumnVector intervalDayTimeColVector =
+            (IntervalDayTimeColumnVector) colVector;
+        for (int i = 0; i < count; i++) {
+          if (noNulls || !isNull[i]) {
+            dataOutputStream.writeLong(intervalDayTimeColVector.getTotalSeconds(i));
+            dataOutputStream.writeInt((int) intervalDayTimeColVector.getNanos(i));
+          }
+        }
+      }
+      break;
+    case VOID:
+      break;
+    default:
+      throw new RuntimeException("Unexpected column vector type " + colVector.type);
+    }
+  }
+
+  public void prepareForReading() throws IOException {
+    if (dataOutputStream == null) {
+      return;
+    }
+    dataOutputStream.flush();
+    if (dataInputStream != null) {
+      dataInputStream.close();
+    }
+    dataInputStream =
+        new DataInputStream(
+            new BufferedInputStream(new FileInputStream(tmpFile), STREAM_BUFFER_SIZE));
+    readBatchCount = 0;
+  }
+
+  /**
+   * Read the next spilled batch into the given batch.  Spilled column i goes to the batch column
+   * columnMap[i]; the other columns are left alone.
+   *
+   * @return false when there are no more spilled batches
+   */
+  public boolean readNextBatch(VectorizedRowBatch batch, int[] columnMap) throws IOException {
+    if (dataInputStream == null || readBatchCount >= batchCount) {
+      return false;
+    }
+    final int size = dataInputStream.readInt();
+    final int columnCount = columnMap.length;
+    for (int i = 0; i < columnCount; i++) {
+      readColumn(batch.cols[columnMap[i]], size);
+    }
+    batch.size = size;
+    batch.selectedInUse = false;
+    readBatchCount++;
+    return true;
+  }
+
+  private void readColumn(ColumnVector colVector, int size) throws IOException {
+    final boolean isRepeating = dataInputStream.readBoolean();
+    final boolean noNulls = dataInputStream.readBoolean();
+    colVector.isRepeating = isRepeating;
+    colVector.noNulls = noNulls;
+
+    final int count = (isRepeating ? 1 : size);
+    final boolean[] isNull = colVector.isNull;
+    if (noNulls) {
+      for (int i = 0; i < count; i++) {
+        isNull[i] = false;
+      }
+    } else {
+      for (int i = 0; i < count; i++) {
+        isNull[i] = dataInputStream.readBoolean();
+      }
+    }
+
+    switch (colVector.type) {
+    case LONG:
+    case DECIMAL_64:
+      {
+        final long[] vector = ((LongColumnVector) colVector).vector;
+        for (int i = 0; i < count; i++) {
+          if (!isNull[i]) {
+            vector[i] = dataInputStream.readLong();
+          }
+        }
+      }
+      break;
+    case DOUBLE:
+      {
+        final double[] vector = ((DoubleColumnVector) colVector).vector;
+        for (int i = 0; i < count; i++) {
+          if (!isNull[i]) {
+            vector[i] = dataInputStream.readDouble();
+          }
+        }
+      }
+      break;
+    case BYTES:
+      {
+        final BytesColumnVector bytesColVector = (BytesColumnVector) colVector;
+        bytesColVector.initBuffer();
+        for (int i = 0; i < count; i++) {
+          if (!isNull[i]) {
+            final int length = dataInputStream.readInt();
+            final byte[] bytes = getReadBytes(length);
+            dataInputStream.readFully(bytes, 0, length);
+            bytesColVector.setVal(i, bytes, 0, length);
+          }
+        }
+      }
+      break;
+    case DECIMAL:
+      {
+        final HiveDecimalWritable[] vector = ((DecimalColumnVector) colVector).vector;
+        for (int i = 0; i < count; i++) {
+          if (!isNull[i]) {
+            final int scale = dataInputStream.readInt();
+            final int length = dataInputStream.readInt();
+            final byte[] bytes = getReadBytes(length);
+            dataInputStream.readFully(bytes, 0, length);
+            vector[i].setFromBigIntegerBytesAndScale(bytes, 0, length, scale);
+          }
+        }
+      }
+      break;
+    case TIMESTAMP:
+      {
+        final TimestampColumnVector timestampColVector = (TimestampColumnVector) colVector;
+        for (int i = 0; i < count; i++) {
+          if (!isNull[i]) {
+            timestampColVector.time[i] = dataInputStream.readLong();
+            timestampColVector.nanos[i] = dataInputStream.readInt();
+          }
+        }
+      }
+      break;
+    case INTERVAL_DAY_TIME:
+      {
+        if (scratchIntervalDayTime == null) {
+          scratchIntervalDayTime = new HiveIntervalDayTime();
+        }
+        final IntervalDayTimeColumnVector intervalDayTimeColVector =
+            (IntervalDayTimeColumnVector) colVector;
+        for (int i = 0; i < count; i++) {
+          if (!isNull[i]) {
+            final long totalSeconds = dataInputStream.readLong();
+            final int nanos = dataInputStream.readInt();
+            scratchIntervalDayTime.set(totalSeconds, nanos);
+            intervalDayTimeColVector.set(i, scratchIntervalDayTime);
+          }
+        }
+      }
+      break;
+    case VOID:
+      break;
+    default:
+      throw new RuntimeException("Unexpected column vector type " + colVector.type);
+    }
+  }
+
+  private byte[] getReadBytes(int length) {
+    if (readBytes == null || readBytes.length < length) {
+      readBytes = new byte[Math.max(Integer.highestOneBit(length) << 1, 1024)];
+    }
+    return readBytes;
+  }
+
+  public long getBatchCount() {
+    return batchCount;
+  }
+
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  public void clear() {
+    if (dataInputStream != null) {
+      try {
+        dataInputStream.close();
+      } catch (Throwable ignored) {
+      }
+      dataInputStream = null;
+    }
+    if (dataOutputStream != null) {
+      try {
+        dataOutputStream.close();
+      } catch (Throwable ignored) {
+      }
+      dataOutputStream = null;
+    }
+
+    if (parentDir != null) {
+      try {
+        FileUtil.fullyDelete(parentDir);
+      } catch (Throwable ignored) {
+      }
+    }
+    parentDir = null;
+    tmpFile = null;
+    batchCount = 0;
+    rowCount = 0;
+    readBatchCount = 0;
+  }
+}
@@ -88,6 +88,11 @@ public boolean streamsResult() {
     return false;
   }
 
+  // How many rows after a row have to be seen before its streamed result is known?
+  public int getFollowingRowCount() {
+    return 0;
+  }
+
   public int getOutputColumnNum() {
     return outputColumnNum;
   }
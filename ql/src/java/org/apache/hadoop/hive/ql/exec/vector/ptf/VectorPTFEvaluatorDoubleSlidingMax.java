@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.exec.vector.ptf;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector.Type;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpression;
+import org.apache.hadoop.hive.ql.plan.ptf.WindowFrameDef;
+
+/**
+ * This class evaluates double max() over a sliding ROWS window frame.
+ *
+ * The monotonic deque has the rows of the frame whose value is greater than the values of all the
+ * later rows of the frame, so its first row has the max of the frame.
+ */
+public class VectorPTFEvaluatorDoubleSlidingMax extends VectorPTFEvaluatorSlidingBase {
+
+  private static final long serialVersionUID = 1L;
+  private static final String CLASS_NAME = VectorPTFEvaluatorDoubleSlidingMax.class.getName();
+  private static final Log LOG = LogFactory.getLog(CLASS_NAME);
+
+  protected final double[] values;
+
+  public VectorPTFEvaluatorDoubleSlidingMax(WindowFrameDef windowFrameDef,
+      VectorExpression inputVecExpr, int outputColumnNum) {
+    super(windowFrameDef, inputVecExpr, outputColumnNum);
+    values = new double[historySize];
+    resetEvaluator();
+  }
+
+  @Override
+  protected void setValue(int slot, ColumnVector inputColVector, int index) {
+    values[slot] = ((DoubleColumnVector) inputColVector).vector[index];
+  }
+
+  @Override
+  protected void addValue(int slot, long valueRowNum) {
+    final double value = values[slot];
+    while (!isDequeEmpty() && values[slotOf(getDequeLast(), historySize)] <= value) {
+      removeDequeLast();
+    }
+    addDequeLast(valueRowNum);
+  }
+
+  @Override
+  protected void removeValue(int slot, long valueRowNum) {
+    if (getDequeFirst() == valueRowNum) {
+      removeDequeFirst();
+    }
+  }
+
+  @Override
+  protected void setResult(ColumnVector outputColVector, int batchIndex) {
+    ((DoubleColumnVector) outputColVector).vector[batchIndex] =
+        values[slotOf(getDequeFirst(), historySize)];
+  }
+
+  @Override
+  public Type getResultColumnVectorType() {
+    return Type.DOUBLE;
+  }
+}
@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.ptf;
+
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpression;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.parse.WindowingSpec.WindowType;
+import org.apache.hadoop.hive.ql.plan.ptf.WindowFrameDef;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * This is the base class of the evaluators of an aggregation over a bounded sliding ROWS window
+ * frame, e.g. ROWS BETWEEN 6 PRECEDING AND CURRENT ROW or ROWS BETWEEN 2 PRECEDING AND 3 FOLLOWING.
+ *
+ * The input values of the last rows of the partition are kept in a ring buffer, so as each row
+ * goes by the row that enters the frame is added to the aggregation and the row that leaves it is
+ * removed, instead of aggregating the whole frame again.
+ *
+ * When the frame ends at or before the current row, the aggregation result of each row is streamed
+ * to the output column by evaluateGroupBatch.  When the frame ends at n FOLLOWING, the result of a
+ * row is only known n rows later, so the VectorPTFFollowingBatches class feeds the rows to addRow
+ * and addRowPastPartitionEnd as they are forwarded, and writes the results with writeResult.
+ *
+ * The evaluator is only reset at the start of a PTF partition, so the frame slides over all the
+ * group batches of the partition.
+ */
+public abstract class VectorPTFEvaluatorSlidingBase extends VectorPTFEvaluatorBase {
+
+  private static final long serialVersionUID = 1L;
+
+  // The result of row r of the partition is known once row r + followingRowCount has been added.
+  protected final int followingRowCount;
+
+  // When row c of the partition is added, the frame whose result is known are the rows
+  // c - startPreceding .. c - endPreceding.
+  protected final int startPreceding;
+  protected final int endPreceding;
+
+  // The ring buffer of the last input values has a slot for each of the rows
+  // c - startPreceding .. c; the subclasses keep the values.
+  protected final int historySize;
+  private final boolean[] historyIsNull;
+
+  // The rows of the frame with a non-NULL input value.
+  protected int frameNonNullCount;
+
+  // The row number in the partition of the next row to add.
+  private long rowNum;
+
+  // The row numbers of a monotonic deque, for the evaluators that use one.
+  private final long[] dequeRowNums;
+  private int dequeFirst;
+  private int dequeSize;
+
+  public VectorPTFEvaluatorSlidingBase(WindowFrameDef windowFrameDef,
+      VectorExpression inputVecExpr, int outputColumnNum) {
+    super(windowFrameDef, inputVecExpr, outputColumnNum);
+    Preconditions.checkState(isSlidingWindowFrame(windowFrameDef));
+    final int startOffset = windowFrameDef.getStart().getRelativeOffset();
+    final int endOffset = windowFrameDef.getEnd().getRelativeOffset();
+    followingRowCount = Math.max(0, endOffset);
+    startPreceding = followingRowCount - startOffset;
+    endPreceding = followingRowCount - endOffset;
+    historySize = startPreceding + 1;
+    historyIsNull = new boolean[historySize];
+    dequeRowNums = new long[historySize];
+  }
+
+  /**
+   * @return whether the window frame is a ROWS frame whose start and end are both a bounded
+   *     PRECEDING, CURRENT ROW or bounded FOLLOWING, and whose start is not after its end
+   */
+  public static boolean isSlidingWindowFrame(WindowFrameDef windowFrameDef) {
+    return windowFrameDef.getWindowType() == WindowType.ROWS &&
+        !windowFrameDef.getStart().isUnbounded() &&
+        !windowFrameDef.getEnd().isUnbounded() &&
+        windowFrameDef.getStart().getRelativeOffset() <=
+            windowFrameDef.getEnd().getRelativeOffset();
+  }
+
+  @Override
+  public int getFollowingRowCount() {
+    return followingRowCount;
+  }
+
+  @Override
+  public void evaluateGroupBatch(VectorizedRowBatch batch, boolean isLastGroupBatch)
+      throws HiveException {
+
+    evaluateInputExpr(batch);
+
+    // We do not filter when PTF is in reducer.
+    Preconditions.checkState(!batch.selectedInUse);
+
+    /*
+     * Do careful maintenance of the outputColVector.noNulls flag.
+     */
+
+    final ColumnVector outputColVector = batch.cols[outputColumnNum];
+    outputColVector.isRepeating = false;
+    outputColVector.noNulls = true;
+
+    if (followingRowCount > 0) {
+
+      // The results are written by VectorPTFFollowingBatches as the later rows are forwarded.
+      return;
+    }
+
+    final int size = batch.size;
+    final ColumnVector inputColVector = (inputColumnNum == -1 ? null : batch.cols[inputColumnNum]);
+    for (int i = 0; i < size; i++) {
+      addRow(inputColVector, i);
+      writeResult(outputColVector, i);
+    }
+  }
+
+  /**
+   * Adds the next row of the partition to the frame.
+   *
+   * @param inputColVector the input column, or null when there is no input argument
+   * @param batchIndex the row of the input column
+   * @return whether the result of the row followingRowCount rows back is now known
+   */
+  public boolean addRow(ColumnVector inputColVector, int batchIndex) {
+    final int slot = removeLeavingRow();
+
+    final boolean isNull;
+    if (inputColVector == null) {
+      isNull = false;
+    } else {
+      final int index = (inputColVector.isRepeating ? 0 : batchIndex);
+      isNull = !inputColVector.noNulls && inputColVector.isNull[index];
+      if (!isNull) {
+        setValue(slot, inputColVector, index);
+      }
+    }
+    historyIsNull[slot] = isNull;
+
+    return addEnteringRow();
+  }
+
+  /**
+   * Moves the frame one row past the end of the partition, to get the results of the last
+   * followingRowCount rows of the partition.
+   *
+   * @return whether the result of the row followingRowCount rows back is now known
+   */
+  public boolean addRowPastPartitionEnd() {
+    final int slot = removeLeavingRow();
+    historyIsNull[slot] = true;
+    return addEnteringRow();
+  }
+
+  // The slot of the row that leaves the frame is the one of the row being added.
+  private int removeLeavingRow() {
+    final int slot = (int) (rowNum % historySize);
+    if (rowNum >= historySize && !historyIsNull[slot]) {
+      removeValue(slot, rowNum - historySize);
+      frameNonNullCount--;
+    }
+    return slot;
+  }
+
+  private boolean addEnteringRow() {
+    if (rowNum >= endPreceding) {
+      final long enterRowNum = rowNum - endPreceding;
+      final int enterSlot = (int) (enterRowNum % historySize);
+      if (!historyIsNull[enterSlot]) {
+        addValue(enterSlot, enterRowNum);
+        frameNonNullCount++;
+      }
+    }
+    return (rowNum++ >= followingRowCount);
+  }
+
+  /**
+   * Writes the aggregation result of the current frame.  The caller sets the output column's
+   * isRepeating to false and noNulls to true before writing the first result.
+   */
+  public void writeResult(ColumnVector outputColVector, int batchIndex) {
+    if (frameNonNullCount == 0 && isEmptyFrameResultNull()) {
+      outputColVector.isNull[batchIndex] = true;
+      outputColVector.noNulls = false;
+    } else {
+      outputColVector.isNull[batchIndex] = false;
+      setResult(outputColVector, batchIndex);
+    }
+  }
+
+  // Keeps the non-NULL input value of the row being added in its ring buffer slot.
+  protected abstract void setValue(int slot, ColumnVector inputColVector, int index);
+
+  // Adds the non-NULL value of a ring buffer slot that enters the frame to the aggregation.
+  protected abstract void addValue(int slot, long valueRowNum);
+
+  // Removes the non-NULL value of a ring buffer slot that leaves the frame from the aggregation.
+  protected abstract void removeValue(int slot, long valueRowNum);
+
+  // Writes the aggregation result of the current frame, which is not NULL.
+  protected abstract void setResult(ColumnVector outputColVector, int batchIndex);
+
+  // Is the result NULL when the frame has no non-NULL input values?
+  protected boolean isEmptyFrameResultNull() {
+    return true;
+  }
+
+  protected static int slotOf(long valueRowNum, int historySize) {
+    return (int) (valueRowNum % historySize);
+  }
+
+  /*
+   * The monotonic deque of the row numbers of the frame that can still become the min or max.
+   */
+
+  protected boolean isDequeEmpty() {
+    return dequeSize == 0;
+  }
+
+  protected long getDequeFirst() {
+    return dequeRowNums[dequeFirst];
+  }
+
+  protected long getDequeLast() {
+    return dequeRowNums[(dequeFirst + dequeSize - 1) % historySize];
+  }
+
+  protected void removeDequeFirst() {
+    dequeFirst = (dequeFirst + 1) % historySize;
+    dequeSize--;
+  }
+
+  protected void removeDequeLast() {
+    dequeSize--;
+  }
+
+  protected void addDequeLast(long valueRowNum) {
+    dequeRowNums[(dequeFirst + dequeSize) % historySize] = valueRowNum;
+    dequeSize++;
+  }
+
+  @Override
+  public boolean streamsResult() {
+    // Each row has its own frame.
+    return true;
+  }
+
+  @Override
+  public void resetEvaluator() {
+    rowNum = 0;
+    frameNonNullCount = 0;
+    dequeFirst = 0;
+    dequeSize = 0;
+  }
+}
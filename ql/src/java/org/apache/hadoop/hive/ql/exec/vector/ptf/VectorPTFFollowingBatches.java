@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.ptf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedBatchUtil;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * This class holds back the batches the PTF operator forwards until the sliding evaluators whose
+ * window frame ends at n FOLLOWING have written their results into them.
+ *
+ * The result of a row is only known n rows later, so each batch the operator forwards is copied
+ * and fed to the evaluators, and it is forwarded once all their results for its rows are written.
+ * At the end of the partition the evaluators slide past the last row to finish the held batches.
+ * Only the last n rows of the partition (and the batches they are in) are held.
+ */
+public class VectorPTFFollowingBatches {
+
+  private static final String CLASS_NAME = VectorPTFFollowingBatches.class.getName();
+  private static final Log LOG = LogFactory.getLog(CLASS_NAME);
+
+  private final VectorPTFEvaluatorSlidingBase[] evaluators;
+  private final int[] inputColumnNums;
+  private final int[] outputColumnNums;
+
+  // The copies of the forwarded batches whose results are not all written yet.
+  private final ArrayList<VectorizedRowBatch> heldBatches;
+  private final ArrayList<VectorizedRowBatch> freeBatches;
+
+  // The held batch and row each evaluator writes its next result to.
+  private final int[] resultBatchIndexes;
+  private final int[] resultRowIndexes;
+
+  public VectorPTFFollowingBatches(VectorPTFEvaluatorBase[] allEvaluators) {
+    ArrayList<VectorPTFEvaluatorSlidingBase> followingEvaluators =
+        new ArrayList<VectorPTFEvaluatorSlidingBase>();
+    for (VectorPTFEvaluatorBase evaluator : allEvaluators) {
+      if (evaluator.getFollowingRowCount() > 0) {
+        followingEvaluators.add((VectorPTFEvaluatorSlidingBase) evaluator);
+      }
+    }
+    final int count = followingEvaluators.size();
+    evaluators = followingEvaluators.toArray(new VectorPTFEvaluatorSlidingBase[count]);
+    inputColumnNums = new int[count];
+    outputColumnNums = new int[count];
+    for (int e = 0; e < count; e++) {
+      inputColumnNums[e] = evaluators[e].inputColumnNum;
+      outputColumnNums[e] = evaluators[e].getOutputColumnNum();
+    }
+    heldBatches = new ArrayList<VectorizedRowBatch>();
+    freeBatches = new ArrayList<VectorizedRowBatch>();
+    resultBatchIndexes = new int[count];
+    resultRowIndexes = new int[count];
+  }
+
+  /**
+   * @return whether any of the evaluators has a window frame that ends at n FOLLOWING
+   */
+  public static boolean hasFollowingEvaluators(VectorPTFEvaluatorBase[] evaluators) {
+    for (VectorPTFEvaluatorBase evaluator : evaluators) {
+      if (evaluator.getFollowingRowCount() > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Takes a copy of a batch the operator forwards, adds its rows to the evaluators, and forwards
+   * the held batches that have all their results.
+   */
+  public void forward(VectorPTFOperator vecPTFOperator, VectorizedRowBatch batch)
+      throws HiveException {
+
+    // We do not filter when PTF is in reducer.
+    Preconditions.checkState(!batch.selectedInUse);
+
+    final int size = batch.size;
+    if (size == 0) {
+      return;
+    }
+    final VectorizedRowBatch heldBatch = copyBatch(batch);
+    heldBatches.add(heldBatch);
+
+    final int count = evaluators.length;
+    for (int e = 0; e < count; e++) {
+      final VectorPTFEvaluatorSlidingBase evaluator = evaluators[e];
+      final ColumnVector inputColVector =
+          (inputColumnNums[e] == -1 ? null : heldBatch.cols[inputColumnNums[e]]);
+      for (int i = 0; i < size; i++) {
+        if (evaluator.addRow(inputColVector, i)) {
+          writeNextResult(e);
+        }
+      }
+    }
+
+    forwardFinishedBatches(vecPTFOperator);
+  }
+
+  /**
+   * Slides the evaluators past the end of the partition, and forwards all the held batches.
+   */
+  public void finishPartition(VectorPTFOperator vecPTFOperator) throws HiveException {
+    if (heldBatches.isEmpty()) {
+      return;
+    }
+
+    final int count = evaluators.length;
+    for (int e = 0; e < count; e++) {
+      final VectorPTFEvaluatorSlidingBase evaluator = evaluators[e];
+      final int followingRowCount = evaluator.getFollowingRowCount();
+      for (int i = 0; i < followingRowCount; i++) {
+        if (evaluator.addRowPastPartitionEnd()) {
+          writeNextResult(e);
+        }
+      }
+    }
+
+    forwardFinishedBatches(vecPTFOperator);
+    Preconditions.checkState(heldBatches.isEmpty());
+    Arrays.fill(resultBatchIndexes, 0);
+    Arrays.fill(resultRowIndexes, 0);
+  }
+
+  private void writeNextResult(int e) {
+    final VectorizedRowBatch heldBatch = heldBatches.get(resultBatchIndexes[e]);
+    evaluators[e].writeResult(heldBatch.cols[outputColumnNums[e]], resultRowIndexes[e]++);
+    if (resultRowIndexes[e] == heldBatch.size) {
+      resultBatchIndexes[e]++;
+      resultRowIndexes[e] = 0;
+    }
+  }
+
+  private void forwardFinishedBatches(VectorPTFOperator vecPTFOperator) throws HiveException {
+    int finishedCount = Integer.MAX_VALUE;
+    for (int resultBatchIndex : resultBatchIndexes) {
+      finishedCount = Math.min(finishedCount, resultBatchIndex);
+    }
+    for (int b = 0; b < finishedCount; b++) {
+      final VectorizedRowBatch heldBatch = heldBatches.remove(0);
+      vecPTFOperator.forwardFollowingBatch(heldBatch);
+      freeBatches.add(heldBatch);
+    }
+    for (int e = 0; e < resultBatchIndexes.length; e++) {
+      resultBatchIndexes[e] -= finishedCount;
+    }
+  }
+
+  private VectorizedRowBatch copyBatch(VectorizedRowBatch batch) throws HiveException {
+    VectorizedRowBatch heldBatch = null;
+    if (!freeBatches.isEmpty()) {
+      heldBatch = freeBatches.remove(freeBatches.size() - 1);
+      if (heldBatch.numCols < batch.numCols) {
+        heldBatch = null;
+      } else {
+        heldBatch.reset();
+      }
+    }
+    if (heldBatch == null) {
+      heldBatch = new VectorizedRowBatch(batch.numCols);
+    }
+    allocateColumns(batch, heldBatch);
+
+    // Copy the columns the next operators see, and the input columns of the evaluators.  The
+    // other (scratch) columns are only allocated, for the next operators to use.
+    final int size = batch.size;
+    for (int i = 0; i < batch.projectionSize; i++) {
+      final int columnNum = batch.projectedColumns[i];
+      VectorizedBatchUtil.copyNonSelectedColumnVector(batch, columnNum, heldBatch, columnNum, size);
+    }
+    for (int inputColumnNum : inputColumnNums) {
+      if (inputColumnNum != -1) {
+        Preconditions.checkState(batch.cols[inputColumnNum] != null);
+        VectorizedBatchUtil.copyNonSelectedColumnVector(
+            batch, inputColumnNum, heldBatch, inputColumnNum, size);
+      }
+    }
+    for (int outputColumnNum : outputColumnNums) {
+      final ColumnVector outputColVector = heldBatch.cols[outputColumnNum];
+      outputColVector.isRepeating = false;
+      outputColVector.noNulls = true;
+    }
+    heldBatch.projectedColumns = batch.projectedColumns;
+    heldBatch.projectionSize = batch.projectionSize;
+    heldBatch.size = size;
+    return heldBatch;
+  }
+
+  /*
+   * The batches come from the reducer or from the operator's overflow batch, which have the same
+   * column layout but may not allocate the same (scratch) columns.
+   */
+  private void allocateColumns(VectorizedRowBatch batch, VectorizedRowBatch heldBatch)
+      throws HiveException {
+    for (int i = 0; i < batch.numCols; i++) {
+      if (batch.cols[i] != null && heldBatch.cols[i] == null) {
+        heldBatch.cols[i] = VectorizedBatchUtil.makeLikeColumnVector(batch.cols[i]);
+        heldBatch.cols[i].init();
+      }
+    }
+  }
+}
@@ -28,16 +28,10 @@
 import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
-import org.apache.hadoop.hive.ql.exec.vector.VectorDeserializeRow;
-import org.apache.hadoop.hive.ql.exec.vector.VectorSerializeRow;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedBatchUtil;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
-import org.apache.hadoop.hive.ql.exec.vector.rowbytescontainer.VectorRowBytesContainer;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.metadata.HiveUtils;
-import org.apache.hadoop.hive.serde2.ByteStream.Output;
-import org.apache.hadoop.hive.serde2.lazybinary.fast.LazyBinaryDeserializeRead;
-import org.apache.hadoop.hive.serde2.lazybinary.fast.LazyBinarySerializeWrite;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
 
 import com.google.common.base.Preconditions;
@@ -71,11 +65,7 @@ public class VectorPTFGroupBatches {
   private int spillLimitBufferedBatchCount;
   private boolean didSpillToDisk;
   private String spillLocalDirs;
-  private long spillRowCount;
-  private VectorRowBytesContainer spillRowBytesContainer;
-
-  private transient VectorSerializeRow bufferedBatchVectorSerializeRow;
-  private transient VectorDeserializeRow bufferedBatchVectorDeserializeRow;
+  private VectorPTFBatchSpillContainer spillBatchContainer;
 
   public VectorPTFGroupBatches(Configuration hconf, int vectorizedPTFMaxMemoryBufferingBatchCount) {
     this.hconf = hconf;
@@ -88,10 +78,7 @@ public VectorPTFGroupBatches(Configuration hconf, int vectorizedPTFMaxMemoryBuff
     spillLimitBufferedBatchCount = Math.max(1, vectorizedPTFMaxMemoryBufferingBatchCount);
 
     didSpillToDisk = false;
-    spillLocalDirs = null;
-    spillRowBytesContainer = null;
-    bufferedBatchVectorSerializeRow = null;
-    bufferedBatchVectorDeserializeRow = null;
+    spillBatchContainer = null;
   }
 
   public void init(
@@ -132,35 +119,14 @@ public void init(
     bufferedBatches = new ArrayList<VectorizedRowBatch>(0);
   }
 
-  private VectorRowBytesContainer getSpillRowBytesContainer() throws HiveException {
-    if (spillRowBytesContainer == null) {
-      spillRowBytesContainer = new VectorRowBytesContainer(spillLocalDirs);
-
-      if (bufferedBatchVectorSerializeRow == null) {
-        bufferedBatchVectorSerializeRow =
-            new VectorSerializeRow<LazyBinarySerializeWrite>(
-                new LazyBinarySerializeWrite(bufferedColumnMap.length));
-
-        // Deserialize just the columns we a buffered batch, which has only the non-key inputs and
-        // streamed column outputs.
-        bufferedBatchVectorSerializeRow.init(bufferedTypeInfos);
-
-        bufferedBatchVectorDeserializeRow =
-            new VectorDeserializeRow<LazyBinaryDeserializeRead>(
-                new LazyBinaryDeserializeRead(
-                    bufferedTypeInfos,
-                    /* useExternalBuffer */ true));
+  private VectorPTFBatchSpillContainer getSpillBatchContainer() {
+    if (spillBatchContainer == null) {
 
-        // Deserialize the fields into the *overflow* batch using the buffered batch column map.
-        bufferedBatchVectorDeserializeRow.init(bufferedColumnMap);
-      }
+      // The buffered batches have only the non-key inputs and streamed column outputs, and they
+      // are spilled as whole batches.
+      spillBatchContainer = new VectorPTFBatchSpillContainer(spillLocalDirs);
     }
-    return spillRowBytesContainer;
-  }
-
-  private void releaseSpillRowBytesContainer() {
-    spillRowBytesContainer.clear();
-    spillRowBytesContainer = null;
+    return spillBatchContainer;
   }
 
   public void evaluateStreamingGroupBatch(VectorizedRowBatch batch, boolean isLastGroupBatch)
@@ -236,57 +202,32 @@ private void forwardBufferedBatches(VectorPTFOperator vecPTFOperator, int index)
   private void forwardSpilledBatches(VectorPTFOperator vecPTFOperator, VectorizedRowBatch lastBatch)
       throws HiveException {
 
-    overflowBatch.reset();
-    copyPartitionAndOrderColumnsToOverflow(lastBatch);
-
-    long spillRowsRead = 0;
+    VectorPTFBatchSpillContainer batchContainer = getSpillBatchContainer();
+    final long spillBatchCount = batchContainer.getBatchCount();
+    long spillBatchesRead = 0;
     try {
-      VectorRowBytesContainer rowBytesContainer = getSpillRowBytesContainer();
-      rowBytesContainer.prepareForReading();
-
-      while (rowBytesContainer.readNext()) {
-
-        byte[] bytes = rowBytesContainer.currentBytes();
-        int offset = rowBytesContainer.currentOffset();
-        int length = rowBytesContainer.currentLength();
-
-        bufferedBatchVectorDeserializeRow.setBytes(bytes, offset, length);
-        try {
-          bufferedBatchVectorDeserializeRow.deserialize(overflowBatch, overflowBatch.size);
-        } catch (Exception e) {
-          throw new HiveException(
-              "\nDeserializeRead detail: " +
-                  bufferedBatchVectorDeserializeRow.getDetailedReadPositionString(),
-              e);
-        }
-        overflowBatch.size++;
-        spillRowsRead++;
-
-        if (overflowBatch.size == VectorizedRowBatch.DEFAULT_SIZE) {
-
-          fillGroupResults(overflowBatch);
-          vecPTFOperator.forward(overflowBatch, null);
+      batchContainer.prepareForReading();
 
-          overflowBatch.reset();
-          copyPartitionAndOrderColumnsToOverflow(lastBatch);
+      // Stream the spilled batches back one at a time, in the order they were buffered, into the
+      // buffered columns of the overflow batch.
+      while (true) {
+        overflowBatch.reset();
+        copyPartitionAndOrderColumnsToOverflow(lastBatch);
+        if (!batchContainer.readNextBatch(overflowBatch, bufferedColumnMap)) {
+          break;
         }
-      }
-      // Process the row batch that has less than DEFAULT_SIZE rows
-      if (overflowBatch.size > 0) {
+        spillBatchesRead++;
 
         fillGroupResults(overflowBatch);
         vecPTFOperator.forward(overflowBatch, null);
-
-        overflowBatch.reset();
-        copyPartitionAndOrderColumnsToOverflow(lastBatch);
       }
-      Preconditions.checkState(spillRowsRead == spillRowCount);
-
-      // For now, throw away file.
-      releaseSpillRowBytesContainer();
-
-    } catch (Exception e) {
+      Preconditions.checkState(spillBatchesRead == spillBatchCount);
+    } catch (IOException e) {
       throw new HiveException(e);
+    } finally {
+
+      // Throw away the file; the container is used again by the next group that spills.
+      batchContainer.clear();
     }
   }
 
@@ -338,6 +279,16 @@ public void fillGroupResultsAndForward(VectorPTFOperator vecPTFOperator,
 
   }
 
+  /**
+   * Throw away the spill file of a group that did not finish.
+   */
+  public void close() {
+    if (spillBatchContainer != null) {
+      spillBatchContainer.clear();
+      spillBatchContainer = null;
+    }
+  }
+
   public void resetEvaluators() {
     for (VectorPTFEvaluatorBase evaluator : evaluators) {
       evaluator.resetEvaluator();
@@ -361,30 +312,18 @@ public void bufferGroupBatch(VectorizedRowBatch batch) throws HiveException {
       // When we've buffered the max allowed, spill the oldest one to make space.
       if (currentBufferedBatchCount >= spillLimitBufferedBatchCount) {
 
-        VectorRowBytesContainer rowBytesContainer = getSpillRowBytesContainer();
+        VectorPTFBatchSpillContainer batchContainer = getSpillBatchContainer();
 
         if (!didSpillToDisk) {
-          // UNDONE: Don't reuse for now.
-          // rowBytesContainer.resetWrite();
+          LOG.info("Spilling PTF group batches to disk after " + currentBufferedBatchCount +
+              " buffered batches");
           didSpillToDisk = true;
-          spillRowCount = 0;
         }
 
-        // Grab the oldest in-memory buffered batch and dump it to disk.
+        // Grab the oldest in-memory buffered batch and dump it to disk.  Buffered batches never
+        // use selected.
         VectorizedRowBatch oldestBufferedBatch = bufferedBatches.remove(0);
-
-        final boolean selectedInUse = oldestBufferedBatch.selectedInUse;
-        int[] selected = oldestBufferedBatch.selected;
-        final int size = oldestBufferedBatch.size;
-        for (int logicalIndex = 0; logicalIndex < size; logicalIndex++) {
-          final int batchIndex = (selectedInUse ? selected[logicalIndex] : logicalIndex);
-
-          Output output = rowBytesContainer.getOuputForRowBytes();
-          bufferedBatchVectorSerializeRow.setOutputAppend(output);
-          bufferedBatchVectorSerializeRow.serializeWrite(oldestBufferedBatch, batchIndex);
-          rowBytesContainer.finishRow();
-          spillRowCount++;
-        }
+        batchContainer.writeBatch(oldestBufferedBatch, bufferedColumnMap.length);
 
         // Put now available buffered batch at end.
         oldestBufferedBatch.reset();
@@ -133,6 +133,9 @@ public class VectorPTFOperator extends Operator<PTFDesc>
 
   private transient VectorPTFGroupBatches groupBatches;
 
+  // Holds back the forwarded batches for the sliding evaluators whose frame ends at n FOLLOWING.
+  private transient VectorPTFFollowingBatches followingBatches;
+
   private transient VectorPTFEvaluatorBase[] evaluators;
 
   private transient int[] streamingEvaluatorNums;
@@ -334,6 +337,12 @@ protected void initializeOp(Configuration hconf) throws HiveException {
         streamingEvaluatorNums,
         overflowBatch);
 
+    if (VectorPTFFollowingBatches.hasFollowingEvaluators(evaluators)) {
+      followingBatches = new VectorPTFFollowingBatches(evaluators);
+    } else {
+      followingBatches = null;
+    }
+
     isFirstPartition = true;
 
     batchCounter = 0;
@@ -380,6 +389,7 @@ public void process(Object row, int tag) throws HiveException {
         setCurrentPartition(batch);
       } else if (isPartitionChanged(batch)) {
         setCurrentPartition(batch);
+        finishFollowingBatches();
         groupBatches.resetEvaluators();
       }
     }
@@ -413,8 +423,10 @@ public void process(Object row, int tag) throws HiveException {
       groupBatches.fillGroupResultsAndForward(this, batch);
     }
 
-    // If we are only processing a PARTITION BY, reset our evaluators.
-    if (!isPartitionOrderBy) {
+    // If we are only processing a PARTITION BY, reset our evaluators at the end of the group.
+    // Streaming evaluators also get here for the earlier batches of the group.
+    if (!isPartitionOrderBy && isLastGroupBatch) {
+      finishFollowingBatches();
       groupBatches.resetEvaluators();
     }
   }
@@ -546,15 +558,46 @@ private void setCurrentPartition(VectorizedRowBatch batch) {
 
   @Override
   public void forward(Object row, ObjectInspector rowInspector) throws HiveException {
-    super.forward(row, rowInspector);
+    if (followingBatches != null) {
+
+      // The results of the sliding evaluators whose frame ends at n FOLLOWING are written as the
+      // later rows go by.
+      followingBatches.forward(this, (VectorizedRowBatch) row);
+    } else {
+      super.forward(row, rowInspector);
+    }
+  }
+
+  /**
+   * Forwards a batch whose FOLLOWING frame results have all been written.
+   */
+  public void forwardFollowingBatch(VectorizedRowBatch batch) throws HiveException {
+    super.forward(batch, null);
+  }
+
+  // At the end of a partition, finish the results of the last rows of FOLLOWING frames.
+  private void finishFollowingBatches() throws HiveException {
+    if (followingBatches != null) {
+      followingBatches.finishPartition(this);
+    }
   }
 
   @Override
   protected void closeOp(boolean abort) throws HiveException {
+
+    // The last PARTITION BY partition ends with the input.  The held batches of FOLLOWING frames
+    // have all their rows, so they can be finished.
+    if (!abort) {
+      finishFollowingBatches();
+    }
+
     super.closeOp(abort);
 
     // We do not try to finish and flush an in-progress group because correct values require the
     // last group batch.
+    if (groupBatches != null) {
+      groupBatches.close();
+    }
   }
 
   /**
@@ -26,6 +26,7 @@
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.ql.CompilationOpContext;
 import org.apache.hadoop.hive.ql.exec.Operator;
 import org.apache.hadoop.hive.ql.exec.TerminalOperator;
@@ -35,6 +36,7 @@
 import org.apache.hadoop.hive.ql.exec.vector.VectorizationContext;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizationContextRegion;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizationOperator;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpression;
 import org.apache.hadoop.hive.ql.io.HiveKey;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
@@ -127,6 +129,9 @@ public abstract class VectorReduceSinkCommonOperator extends TerminalOperator<Re
   // Picks topN K:V pairs from input.
   protected transient TopNHash reducerHash;
 
+  // Drops the rows that cannot make the topN before they are serialized.
+  protected transient VectorReduceSinkTopNHeap topNHeap;
+
   // Where to write our key and value pairs.
   private transient OutputCollector out;
 
@@ -314,9 +319,63 @@ protected void initializeOp(Configuration hconf) throws HiveException {
       reducerHash.initialize(limit, memUsage, conf.isMapGroupBy(), this, conf, hconf);
     }
 
+    // The heap only helps TopNHash, and is bounded by the same memory budget.
+    if (!isEmptyKey && reducerHash != null && reducerHash.isEnabled()) {
+      topNHeap = createTopNHeap(hconf, memUsage);
+    }
+
     batchCounter = 0;
   }
 
+  private VectorReduceSinkTopNHeap createTopNHeap(Configuration hconf, float memUsage) {
+    if (conf.getTopN() <= 0 || conf.isMapGroupBy() || conf.isPTFReduceSink() ||
+        !HiveConf.getBoolVar(hconf,
+            HiveConf.ConfVars.HIVE_VECTORIZATION_REDUCESINK_TOPN_HEAP_ENABLED)) {
+      return null;
+    }
+    TableDesc keyTableDesc = conf.getKeySerializeInfo();
+    boolean[] columnSortOrder =
+        getColumnSortOrder(keyTableDesc.getProperties(), reduceSinkKeyColumnMap.length);
+    byte[] columnNullMarker =
+        getColumnNullMarker(keyTableDesc.getProperties(), reduceSinkKeyColumnMap.length, columnSortOrder);
+    boolean[] columnIsNullFirst = new boolean[columnNullMarker.length];
+    for (int i = 0; i < columnIsNullFirst.length; i++) {
+      // The serializer inverts the markers of descending columns, see getColumnNullMarker().
+      columnIsNullFirst[i] = (columnSortOrder[i] ?
+          columnNullMarker[i] == BinarySortableSerDe.ONE :
+          columnNullMarker[i] == BinarySortableSerDe.ZERO);
+    }
+    // Same budget as TopNHash.initialize().
+    long totalFreeMemory = Runtime.getRuntime().maxMemory() -
+        Runtime.getRuntime().totalMemory() + Runtime.getRuntime().freeMemory();
+    VectorReduceSinkTopNHeap heap = VectorReduceSinkTopNHeap.create(conf.getTopN(),
+        reduceSinkKeyColumnMap, reduceSinkKeyTypeInfos, columnSortOrder, columnIsNullFirst,
+        (long) (memUsage * totalFreeMemory));
+    if (heap != null && LOG.isInfoEnabled()) {
+      LOG.info("Using a top " + conf.getTopN() + " key heap");
+    }
+    return heap;
+  }
+
+  /**
+   * Drops the rows of the batch whose keys cannot make the topN.  Called after the key
+   * expressions were evaluated.
+   *
+   * @return whether any rows are left
+   */
+  protected boolean filterTopN(VectorizedRowBatch batch) {
+    if (topNHeap == null) {
+      return true;
+    }
+    topNHeap.filter(batch);
+    if (topNHeap.isOverMemory()) {
+      // Leave the rows to TopNHash alone.
+      LOG.info("The top " + conf.getTopN() + " key heap is over its memory budget, not using it");
+      topNHeap = null;
+    }
+    return batch.size > 0;
+  }
+
   protected void initializeEmptyKey(int tag) {
 
     // Use the same logic as ReduceSinkOperator.toHiveKey.
@@ -396,6 +455,7 @@ protected void closeOp(boolean abort) throws HiveException {
     super.closeOp(abort);
     out = null;
     reducerHash = null;
+    topNHeap = null;
     if (LOG.isInfoEnabled()) {
       LOG.info(toString() + ": records written - " + numRows);
     }
@@ -202,6 +202,10 @@ public void process(Object row, int tag) throws HiveException {
           ve.evaluate(batch);
         }
       }
+
+      if (!filterTopN(batch)) {
+        return;
+      }
   
       // Perform any value expressions.  Results will go into scratch columns.
       if (reduceSinkValueExpressions != null) {
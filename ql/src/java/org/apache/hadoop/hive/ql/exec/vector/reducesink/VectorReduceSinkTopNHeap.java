@@ -0,0 +1,418 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.reducesink;
+
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.util.JavaDataModel;
+import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+import org.apache.hadoop.io.WritableComparator;
+
+/**
+ * A bounded max heap of the best N reduce sink keys seen so far, used to drop the rows of a batch
+ * that cannot make the top N of an ORDER BY ... LIMIT N before they are serialized.
+ *
+ * The keys are kept column by column as primitives, and compare in the order of their binary
+ * sortable serialization (sort direction and null order per column).  Once the heap is full its
+ * root, the worst of the kept keys, is the threshold: a row with a worse key is dropped, and a row
+ * with a better key replaces the root.  Rows with a key equal to the threshold are kept, so the
+ * rows that pass are always a superset of the final top N; TopNHash still picks the final rows.
+ *
+ * Only usable when the top N is over rows; a map side GROUP BY needs the top N distinct keys.
+ *
+ * The memory of the kept string keys is counted as they are copied.  When the heap would take
+ * more than its budget it stops filtering (see {@link #isOverMemory}) and the rows all pass.
+ */
+public class VectorReduceSinkTopNHeap {
+
+  private enum KeyType {
+    LONG,
+    DOUBLE,
+    BYTES
+  }
+
+  private final int topN;
+  private final int[] keyColumnMap;
+  private final KeyType[] keyTypes;
+  private final boolean[] isDescending;
+  private final boolean[] isNullFirst;
+
+  // The keys of the heap entries, per key column; only the array of the column's type is set.
+  private final boolean[][] entryIsNull;
+  private final long[][] entryLongs;
+  private final double[][] entryDoubles;
+  private final byte[][][] entryBytes;
+  private final int[][] entryBytesLength;
+
+  // The heap of entry indices, the worst key is at the root.
+  private final int[] heap;
+  private int heapSize;
+
+  private final long maxMemory;
+  // The memory of the arrays, including the byte arrays of the kept string keys.
+  private long memory;
+  private boolean isOverMemory;
+
+  private VectorReduceSinkTopNHeap(int topN, int[] keyColumnMap, KeyType[] keyTypes,
+      boolean[] isDescending, boolean[] isNullFirst, long fixedMemory, long maxMemory) {
+    this.topN = topN;
+    this.keyColumnMap = keyColumnMap;
+    this.keyTypes = keyTypes;
+    this.isDescending = isDescending;
+    this.isNullFirst = isNullFirst;
+
+    final int keyCount = keyColumnMap.length;
+    entryIsNull = new boolean[keyCount][];
+    entryLongs = new long[keyCount][];
+    entryDoubles = new double[keyCount][];
+    entryBytes = new byte[keyCount][][];
+    entryBytesLength = new int[keyCount][];
+    for (int k = 0; k < keyCount; k++) {
+      entryIsNull[k] = new boolean[topN];
+      switch (keyTypes[k]) {
+      case LONG:
+        entryLongs[k] = new long[topN];
+        break;
+      case DOUBLE:
+        entryDoubles[k] = new double[topN];
+        break;
+      case BYTES:
+        entryBytes[k] = new byte[topN][];
+        entryBytesLength[k] = new int[topN];
+        break;
+      }
+    }
+    heap = new int[topN];
+    heapSize = 0;
+    this.maxMemory = maxMemory;
+    memory = fixedMemory;
+  }
+
+  /**
+   * @param isDescending whether each key column sorts descending
+   * @param isNullFirst whether the nulls of each key column sort before its values
+   * @return the heap, or null if a key type has no primitive comparison here
+   */
+  public static VectorReduceSinkTopNHeap create(int topN, int[] keyColumnMap,
+      TypeInfo[] keyTypeInfos, boolean[] isDescending, boolean[] isNullFirst) {
+    return create(topN, keyColumnMap, keyTypeInfos, isDescending, isNullFirst, Long.MAX_VALUE);
+  }
+
+  /**
+   * @param maxMemory the memory the heap may take; its arrays are allocated up front, and the
+   *        copies of the string keys count as they are made
+   * @return the heap, or null if a key type has no primitive comparison here or the heap
+   *         arrays would take more than maxMemory
+   */
+  public static VectorReduceSinkTopNHeap create(int topN, int[] keyColumnMap,
+      TypeInfo[] keyTypeInfos, boolean[] isDescending, boolean[] isNullFirst, long maxMemory) {
+    if (topN <= 0) {
+      return null;
+    }
+    KeyType[] keyTypes = new KeyType[keyColumnMap.length];
+    for (int k = 0; k < keyTypes.length; k++) {
+      keyTypes[k] = getKeyType(keyTypeInfos[k]);
+      if (keyTypes[k] == null) {
+        return null;
+      }
+    }
+    final long fixedMemory = getFixedMemory(topN, keyTypes);
+    if (fixedMemory > maxMemory) {
+      return null;
+    }
+    return new VectorReduceSinkTopNHeap(topN, keyColumnMap, keyTypes, isDescending, isNullFirst,
+        fixedMemory, maxMemory);
+  }
+
+  /*
+   * The memory of the arrays allocated up front, not counting the copies of the string keys,
+   * which are only made for the kept rows.
+   */
+  private static long getFixedMemory(int topN, KeyType[] keyTypes) {
+    JavaDataModel jdm = JavaDataModel.get();
+    long size = jdm.lengthForIntArrayOfSize(topN);    // heap
+    for (KeyType keyType : keyTypes) {
+      size += jdm.lengthForBooleanArrayOfSize(topN);
+      switch (keyType) {
+      case LONG:
+        size += jdm.lengthForLongArrayOfSize(topN);
+        break;
+      case DOUBLE:
+        size += jdm.lengthForDoubleArrayOfSize(topN);
+        break;
+      case BYTES:
+        size += jdm.lengthForObjectArrayOfSize(topN) + jdm.lengthForIntArrayOfSize(topN);
+        break;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * @return whether the kept keys took more memory than the budget.  The heap does not filter
+   *         any more then, and should be released.
+   */
+  public boolean isOverMemory() {
+    return isOverMemory;
+  }
+
+  private static KeyType getKeyType(TypeInfo typeInfo) {
+    if (!(typeInfo instanceof PrimitiveTypeInfo)) {
+      return null;
+    }
+    switch (((PrimitiveTypeInfo) typeInfo).getPrimitiveCategory()) {
+    case BOOLEAN:
+    case BYTE:
+    case SHORT:
+    case INT:
+    case LONG:
+    case DATE:
+    case INTERVAL_YEAR_MONTH:
+      return KeyType.LONG;
+    case FLOAT:
+    case DOUBLE:
+      return KeyType.DOUBLE;
+    case STRING:
+    case VARCHAR:
+    case BINARY:
+      return KeyType.BYTES;
+    default:
+      // Decimals, timestamps and CHAR do not sort like their column vector values.
+      return null;
+    }
+  }
+
+  /**
+   * Drops the rows of the batch whose keys are worse than the top N kept so far, and keeps the
+   * keys of the others.  The key expressions must have been evaluated.
+   */
+  public void filter(VectorizedRowBatch batch) {
+    if (isOverMemory) {
+      return;
+    }
+    final int size = batch.size;
+    final int[] selected = batch.selected;
+    final boolean selectedInUse = batch.selectedInUse;
+
+    if (heapSize == topN && isRepeatingKey(batch)) {
+      // The whole batch has one key.
+      final int row = (selectedInUse ? selected[0] : 0);
+      if (compareRowToEntry(batch, row, heap[0]) > 0) {
+        batch.size = 0;
+        return;
+      }
+    }
+
+    int newSize = 0;
+    for (int logical = 0; logical < size; logical++) {
+      final int row = (selectedInUse ? selected[logical] : logical);
+      if (isOverMemory) {
+        // The rest of the batch passes unfiltered.
+        selected[newSize++] = row;
+        continue;
+      }
+      if (heapSize < topN) {
+        final int entry = heapSize;
+        copyRowToEntry(batch, row, entry);
+        heap[heapSize++] = entry;
+        siftUp(heapSize - 1);
+      } else {
+        final int root = heap[0];
+        final int comparison = compareRowToEntry(batch, row, root);
+        if (comparison > 0) {
+          continue;
+        }
+        if (comparison < 0) {
+          copyRowToEntry(batch, row, root);
+          siftDown(0);
+        }
+      }
+      selected[newSize++] = row;
+    }
+    if (newSize < size) {
+      batch.size = newSize;
+      batch.selectedInUse = true;
+    }
+  }
+
+  private boolean isRepeatingKey(VectorizedRowBatch batch) {
+    for (int keyColumn : keyColumnMap) {
+      if (!batch.cols[keyColumn].isRepeating) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void copyRowToEntry(VectorizedRowBatch batch, int row, int entry) {
+    for (int k = 0; k < keyColumnMap.length; k++) {
+      ColumnVector colVector = batch.cols[keyColumnMap[k]];
+      final int index = (colVector.isRepeating ? 0 : row);
+      if (!colVector.noNulls && colVector.isNull[index]) {
+        entryIsNull[k][entry] = true;
+        continue;
+      }
+      entryIsNull[k][entry] = false;
+      switch (keyTypes[k]) {
+      case LONG:
+        entryLongs[k][entry] = ((LongColumnVector) colVector).vector[index];
+        break;
+      case DOUBLE:
+        entryDoubles[k][entry] = ((DoubleColumnVector) colVector).vector[index];
+        break;
+      case BYTES:
+        {
+          BytesColumnVector bytesColVector = (BytesColumnVector) colVector;
+          final int length = bytesColVector.length[index];
+          byte[] bytes = entryBytes[k][entry];
+          if (bytes == null || bytes.length < length) {
+            JavaDataModel jdm = JavaDataModel.get();
+            if (bytes != null) {
+              memory -= jdm.lengthForByteArrayOfSize(bytes.length);
+            }
+            bytes = new byte[Math.max(length, 16)];
+            entryBytes[k][entry] = bytes;
+            memory += jdm.lengthForByteArrayOfSize(bytes.length);
+            if (memory > maxMemory) {
+              isOverMemory = true;
+            }
+          }
+          System.arraycopy(bytesColVector.vector[index], bytesColVector.start[index],
+              bytes, 0, length);
+          entryBytesLength[k][entry] = length;
+        }
+        break;
+      }
+    }
+  }
+
+  /**
+   * @return negative if the row's key sorts before the entry's key, 0 if they are equal
+   */
+  private int compareRowToEntry(VectorizedRowBatch batch, int row, int entry) {
+    for (int k = 0; k < keyColumnMap.length; k++) {
+      ColumnVector colVector = batch.cols[keyColumnMap[k]];
+      final int index = (colVector.isRepeating ? 0 : row);
+      final boolean rowIsNull = !colVector.noNulls && colVector.isNull[index];
+      final boolean entryIsNull = this.entryIsNull[k][entry];
+      int comparison;
+      if (rowIsNull || entryIsNull) {
+        if (rowIsNull && entryIsNull) {
+          continue;
+        }
+        // Where the nulls go does not depend on the sort direction.
+        return (rowIsNull == isNullFirst[k] ? -1 : 1);
+      }
+      switch (keyTypes[k]) {
+      case LONG:
+        comparison = Long.compare(
+            ((LongColumnVector) colVector).vector[index], entryLongs[k][entry]);
+        break;
+      case DOUBLE:
+        comparison = Double.compare(
+            ((DoubleColumnVector) colVector).vector[index], entryDoubles[k][entry]);
+        break;
+      case BYTES:
+        {
+          BytesColumnVector bytesColVector = (BytesColumnVector) colVector;
+          comparison = WritableComparator.compareBytes(
+              bytesColVector.vector[index], bytesColVector.start[index],
+              bytesColVector.length[index],
+              entryBytes[k][entry], 0, entryBytesLength[k][entry]);
+        }
+        break;
+      default:
+        throw new RuntimeException("Unexpected key type " + keyTypes[k]);
+      }
+      if (comparison != 0) {
+        return (isDescending[k] ? -comparison : comparison);
+      }
+    }
+    return 0;
+  }
+
+  private int compareEntries(int entry1, int entry2) {
+    for (int k = 0; k < keyColumnMap.length; k++) {
+      final boolean isNull1 = entryIsNull[k][entry1];
+      final boolean isNull2 = entryIsNull[k][entry2];
+      int comparison;
+      if (isNull1 || isNull2) {
+        if (isNull1 && isNull2) {
+          continue;
+        }
+        return (isNull1 == isNullFirst[k] ? -1 : 1);
+      }
+      switch (keyTypes[k]) {
+      case LONG:
+        comparison = Long.compare(entryLongs[k][entry1], entryLongs[k][entry2]);
+        break;
+      case DOUBLE:
+        comparison = Double.compare(entryDoubles[k][entry1], entryDoubles[k][entry2]);
+        break;
+      case BYTES:
+        comparison = WritableComparator.compareBytes(
+            entryBytes[k][entry1], 0, entryBytesLength[k][entry1],
+            entryBytes[k][entry2], 0, entryBytesLength[k][entry2]);
+        break;
+      default:
+        throw new RuntimeException("Unexpected key type " + keyTypes[k]);
+      }
+      if (comparison != 0) {
+        return (isDescending[k] ? -comparison : comparison);
+      }
+    }
+    return 0;
+  }
+
+  private void siftUp(int position) {
+    final int entry = heap[position];
+    while (position > 0) {
+      final int parent = (position - 1) >>> 1;
+      if (compareEntries(entry, heap[parent]) <= 0) {
+        break;
+      }
+      heap[position] = heap[parent];
+      position = parent;
+    }
+    heap[position] = entry;
+  }
+
+  private void siftDown(int position) {
+    final int entry = heap[position];
+    while (true) {
+      int child = 2 * position + 1;
+      if (child >= heapSize) {
+        break;
+      }
+      if (child + 1 < heapSize && compareEntries(heap[child + 1], heap[child]) > 0) {
+        child++;
+      }
+      if (compareEntries(entry, heap[child]) >= 0) {
+        break;
+      }
+      heap[position] = heap[child];
+      position = child;
+    }
+    heap[position] = entry;
+  }
+}
@@ -114,6 +114,10 @@ public void process(Object row, int tag) throws HiveException {
         }
       }
 
+      if (!filterTopN(batch)) {
+        return;
+      }
+
       // Perform any value expressions.  Results will go into scratch columns.
       if (reduceSinkValueExpressions != null) {
         for (VectorExpression ve : reduceSinkValueExpressions) {
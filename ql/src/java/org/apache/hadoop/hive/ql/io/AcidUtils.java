@@ -21,8 +21,10 @@
 import static org.apache.hadoop.hive.ql.exec.Utilities.COPY_KEYWORD;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
+import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -31,6 +33,9 @@
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
 import java.util.regex.Pattern;
 
 import org.apache.hadoop.conf.Configuration;
@@ -63,6 +68,7 @@
 import org.apache.hadoop.hive.shims.HadoopShims;
 import org.apache.hadoop.hive.shims.HadoopShims.HdfsFileStatusWithId;
 import org.apache.hadoop.hive.shims.ShimLoader;
+import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.hive.common.util.Ref;
 import org.apache.orc.FileFormatException;
 import org.apache.orc.impl.OrcAcidUtils;
@@ -984,7 +990,28 @@ public static Directory getAcidState(Path directory,
                                        Ref<Boolean> useFileIds,
                                        boolean ignoreEmptyFiles,
                                        Map<String, String> tblproperties) throws IOException {
+    return getAcidState(directory, conf, writeIdList, useFileIds, ignoreEmptyFiles, tblproperties,
+        null);
+  }
+
+  /**
+   * Get the ACID state of the given directory, like
+   * {@link #getAcidState(Path, Configuration, ValidWriteIdList, boolean, boolean)}.  When called
+   * in a fork/join pool with listing permits, it parses the deltas (which may list them to tell
+   * whether they are in raw format) and lists the original directories in parallel, on the pool.
+   * Each of these listings, and the listing of the directory itself, holds one of the permits.
+   * @param listingPermits the permits shared by all the listings on the pool, or null to list
+   *                       the directory sequentially
+   */
+  public static Directory getAcidState(Path directory,
+                                       Configuration conf,
+                                       ValidWriteIdList writeIdList,
+                                       Ref<Boolean> useFileIds,
+                                       boolean ignoreEmptyFiles,
+                                       Map<String, String> tblproperties,
+                                       Semaphore listingPermits) throws IOException {
     FileSystem fs = directory.getFileSystem(conf);
+    final boolean isForked = listingPermits != null && ForkJoinTask.inForkJoinPool();
     // The following 'deltas' includes all kinds of delta files including insert & delete deltas.
     final List<ParsedDelta> deltas = new ArrayList<ParsedDelta>();
     List<ParsedDelta> working = new ArrayList<ParsedDelta>();
@@ -992,34 +1019,50 @@ public static Directory getAcidState(Path directory,
     final List<FileStatus> obsolete = new ArrayList<FileStatus>();
     final List<FileStatus> abortedDirectories = new ArrayList<>();
     List<HdfsFileStatusWithId> childrenWithId = null;
-    Boolean val = useFileIds.value;
-    if (val == null || val) {
-      try {
-        childrenWithId = SHIMS.listLocatedHdfsStatus(fs, directory, hiddenFileFilter);
-        if (val == null) {
-          useFileIds.value = true;
-        }
-      } catch (Throwable t) {
-        LOG.error("Failed to get files with ID; using regular API: " + t.getMessage());
-        if (val == null && t instanceof UnsupportedOperationException) {
-          useFileIds.value = false;
+    List<FileStatus> children = null;
+    if (isForked) {
+      acquireListingPermit(listingPermits);
+    }
+    try {
+      Boolean val = useFileIds.value;
+      if (val == null || val) {
+        try {
+          childrenWithId = SHIMS.listLocatedHdfsStatus(fs, directory, hiddenFileFilter);
+          if (val == null) {
+            useFileIds.value = true;
+          }
+        } catch (Throwable t) {
+          LOG.error("Failed to get files with ID; using regular API: " + t.getMessage());
+          if (val == null && t instanceof UnsupportedOperationException) {
+            useFileIds.value = false;
+          }
         }
       }
+      if (childrenWithId == null) {
+        children = HdfsUtils.listLocatedStatus(fs, directory, hiddenFileFilter);
+      }
+    } finally {
+      if (isForked) {
+        listingPermits.release();
+      }
     }
-    TxnBase bestBase = new TxnBase();
-    final List<HdfsFileStatusWithId> original = new ArrayList<>();
     if (childrenWithId != null) {
+      children = new ArrayList<>(childrenWithId.size());
       for (HdfsFileStatusWithId child : childrenWithId) {
-        getChildState(child.getFileStatus(), child, writeIdList, working, originalDirectories, original,
-            obsolete, bestBase, ignoreEmptyFiles, abortedDirectories, tblproperties, fs);
-      }
-    } else {
-      List<FileStatus> children = HdfsUtils.listLocatedStatus(fs, directory, hiddenFileFilter);
-      for (FileStatus child : children) {
-        getChildState(child, null, writeIdList, working, originalDirectories, original, obsolete,
-            bestBase, ignoreEmptyFiles, abortedDirectories, tblproperties, fs);
+        children.add(child.getFileStatus());
       }
     }
+    Map<Path, ParsedDelta> parsedDeltas = null;
+    if (isForked) {
+      parsedDeltas = parseDeltasInParallel(children, fs, listingPermits);
+    }
+    TxnBase bestBase = new TxnBase();
+    final List<HdfsFileStatusWithId> original = new ArrayList<>();
+    for (int i = 0; i < children.size(); i++) {
+      getChildState(children.get(i), childrenWithId == null ? null : childrenWithId.get(i),
+          writeIdList, working, originalDirectories, original, obsolete, bestBase,
+          ignoreEmptyFiles, abortedDirectories, tblproperties, parsedDeltas, fs);
+    }
 
     // If we have a base, the original files are obsolete.
     if (bestBase.status != null) {
@@ -1036,8 +1079,13 @@ public static Directory getAcidState(Path directory,
     } else {
       // Okay, we're going to need these originals.  Recurse through them and figure out what we
       // really need.
-      for (FileStatus origDir : originalDirectories) {
-        findOriginals(fs, origDir, original, useFileIds, ignoreEmptyFiles, true);
+      if (isForked && originalDirectories.size() > 1) {
+        findOriginalsInParallel(fs, originalDirectories, original, useFileIds, ignoreEmptyFiles,
+            listingPermits);
+      } else {
+        for (FileStatus origDir : originalDirectories) {
+          findOriginals(fs, origDir, original, useFileIds, ignoreEmptyFiles, true);
+        }
       }
     }
 
@@ -1124,6 +1172,122 @@ else if (prev != null && next.maxWriteId == prev.maxWriteId
     return new DirectoryImpl(abortedDirectories, isBaseInRawFormat, original,
         obsolete, deltas, base);
   }
+
+  private static void acquireListingPermit(Semaphore listingPermits) throws IOException {
+    try {
+      listingPermits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for a listing permit");
+    }
+  }
+
+  /**
+   * A file system call of getAcidState forked on the fork/join pool it runs in.  It runs as the
+   * user that forked it, and holds a listing permit while it calls the file system.
+   */
+  private abstract static class ForkedListing<T> extends RecursiveAction {
+    private final UserGroupInformation ugi;
+    private final Semaphore listingPermits;
+    private T result;
+    private Throwable error;
+
+    ForkedListing(UserGroupInformation ugi, Semaphore listingPermits) {
+      this.ugi = ugi;
+      this.listingPermits = listingPermits;
+    }
+
+    protected abstract T list() throws IOException;
+
+    @Override
+    protected void compute() {
+      try {
+        acquireListingPermit(listingPermits);
+        try {
+          result = ugi.doAs(new PrivilegedExceptionAction<T>() {
+            @Override
+            public T run() throws IOException {
+              return list();
+            }
+          });
+        } finally {
+          listingPermits.release();
+        }
+      } catch (Throwable t) {
+        error = t;
+      }
+    }
+
+    T getResult() throws IOException {
+      if (error instanceof IOException) {
+        throw (IOException) error;
+      } else if (error instanceof RuntimeException) {
+        throw (RuntimeException) error;
+      } else if (error != null) {
+        throw new IOException(error);
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Parses the insert deltas among the children in parallel.  Telling whether an insert delta is
+   * in raw format lists it, and may read the footer of one of its files.
+   * @return the parsed deltas by path; empty when there are not several deltas to parse
+   */
+  private static Map<Path, ParsedDelta> parseDeltasInParallel(List<FileStatus> children,
+      final FileSystem fs, Semaphore listingPermits) throws IOException {
+    List<FileStatus> deltaDirs = new ArrayList<>();
+    for (FileStatus child : children) {
+      if (child.isDirectory() && child.getPath().getName().startsWith(DELTA_PREFIX)) {
+        deltaDirs.add(child);
+      }
+    }
+    Map<Path, ParsedDelta> parsedDeltas = new HashMap<>();
+    if (deltaDirs.size() <= 1) {
+      return parsedDeltas;
+    }
+    UserGroupInformation ugi = UserGroupInformation.getCurrentUser();
+    List<ForkedListing<ParsedDelta>> parsers = new ArrayList<>(deltaDirs.size());
+    for (final FileStatus deltaDir : deltaDirs) {
+      parsers.add(new ForkedListing<ParsedDelta>(ugi, listingPermits) {
+        @Override
+        protected ParsedDelta list() throws IOException {
+          return parseDelta(deltaDir, DELTA_PREFIX, fs);
+        }
+      });
+    }
+    ForkJoinTask.invokeAll(parsers);
+    for (int i = 0; i < deltaDirs.size(); i++) {
+      parsedDeltas.put(deltaDirs.get(i).getPath(), parsers.get(i).getResult());
+    }
+    return parsedDeltas;
+  }
+
+  /**
+   * Finds the original files under each of the directories in parallel, like
+   * {@link #findOriginals(FileSystem, FileStatus, List, Ref, boolean, boolean)} does.
+   */
+  private static void findOriginalsInParallel(final FileSystem fs, List<FileStatus> directories,
+      List<HdfsFileStatusWithId> original, final Ref<Boolean> useFileIds,
+      final boolean ignoreEmptyFiles, Semaphore listingPermits) throws IOException {
+    UserGroupInformation ugi = UserGroupInformation.getCurrentUser();
+    List<ForkedListing<List<HdfsFileStatusWithId>>> finders = new ArrayList<>(directories.size());
+    for (final FileStatus directory : directories) {
+      finders.add(new ForkedListing<List<HdfsFileStatusWithId>>(ugi, listingPermits) {
+        @Override
+        protected List<HdfsFileStatusWithId> list() throws IOException {
+          List<HdfsFileStatusWithId> result = new ArrayList<>();
+          findOriginals(fs, directory, result, useFileIds, ignoreEmptyFiles, true);
+          return result;
+        }
+      });
+    }
+    ForkJoinTask.invokeAll(finders);
+    for (ForkedListing<List<HdfsFileStatusWithId>> finder : finders) {
+      original.addAll(finder.getResult());
+    }
+  }
   /**
    * We can only use a 'base' if it doesn't have an open txn (from specific reader's point of view)
    * A 'base' with open txn in its range doesn't have 'enough history' info to produce a correct
@@ -1152,7 +1316,7 @@ private static void getChildState(FileStatus child, HdfsFileStatusWithId childWi
       ValidWriteIdList writeIdList, List<ParsedDelta> working, List<FileStatus> originalDirectories,
       List<HdfsFileStatusWithId> original, List<FileStatus> obsolete, TxnBase bestBase,
       boolean ignoreEmptyFiles, List<FileStatus> aborted, Map<String, String> tblproperties,
-      FileSystem fs) throws IOException {
+      Map<Path, ParsedDelta> parsedDeltas, FileSystem fs) throws IOException {
     Path p = child.getPath();
     String fn = p.getName();
     if (!child.isDirectory()) {
@@ -1184,7 +1348,10 @@ private static void getChildState(FileStatus child, HdfsFileStatusWithId childWi
       }
     } else if (fn.startsWith(DELTA_PREFIX) || fn.startsWith(DELETE_DELTA_PREFIX)) {
       String deltaPrefix = fn.startsWith(DELTA_PREFIX)  ? DELTA_PREFIX : DELETE_DELTA_PREFIX;
-      ParsedDelta delta = parseDelta(child, deltaPrefix, fs);
+      ParsedDelta delta = parsedDeltas == null ? null : parsedDeltas.get(p);
+      if (delta == null) {
+        delta = parseDelta(child, deltaPrefix, fs);
+      }
       // Handle aborted deltas. Currently this can only happen for MM tables.
       if (tblproperties != null && isTransactionalTable(tblproperties) &&
         ValidWriteIdList.RangeResponse.ALL == writeIdList.isWriteIdRangeAborted(
@@ -18,9 +18,22 @@
 
 package org.apache.hadoop.hive.ql.io.orc;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.net.URI;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
 
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.Path;
@@ -37,6 +50,9 @@
 class LocalCache implements OrcInputFormat.FooterCache {
   private static final Logger LOG = LoggerFactory.getLogger(LocalCache.class);
   private static final int DEFAULT_CACHE_INITIAL_CAPACITY = 1024;
+  private static final int FILE_MAGIC = 0x4f524346; // ORCF
+  private static final int FILE_VERSION = 1;
+  static final String FILE_NAME = "orc-footer-cache";
 
   private static final class TailAndFileData {
     public TailAndFileData(long fileLength, long fileModificationTime, ByteBuffer bb) {
@@ -117,6 +133,96 @@ public void getAndValidate(final List<HadoopShims.HdfsFileStatusWithId> files,
     }
   }
 
+  /**
+   * Writes the cached tails to a file in a local directory, so that they can be loaded by the
+   * next process on this node. The previous file is only replaced on success.
+   */
+  public void save(File dir) {
+    long startTime = System.currentTimeMillis();
+    File file = new File(dir, FILE_NAME), tmpFile = null;
+    int count = 0;
+    try {
+      // Processes on the node may share the directory, each writes its own temporary file.
+      tmpFile = File.createTempFile(FILE_NAME, ".tmp", dir);
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+        out.writeInt(FILE_MAGIC);
+        out.writeInt(FILE_VERSION);
+        for (Map.Entry<Path, TailAndFileData> e : cache.asMap().entrySet()) {
+          TailAndFileData tfd = e.getValue();
+          byte[] path = e.getKey().toUri().toString().getBytes(StandardCharsets.UTF_8);
+          byte[] tail = new byte[tfd.bb.remaining()];
+          tfd.bb.duplicate().get(tail);
+          CRC32 crc = new CRC32();
+          crc.update(path);
+          crc.update(tail);
+          out.writeBoolean(true);
+          out.writeInt(path.length);
+          out.write(path);
+          out.writeLong(tfd.fileLength);
+          out.writeLong(tfd.fileModTime);
+          out.writeInt(tail.length);
+          out.write(tail);
+          out.writeLong(crc.getValue());
+          ++count;
+        }
+        out.writeBoolean(false);
+      }
+      Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      LOG.warn("Failed to save the ORC footer cache to " + file, e);
+      if (tmpFile != null) {
+        tmpFile.delete();
+      }
+      return;
+    }
+    LOG.info("Saved {} ORC file tails to {} in {}ms", count, file,
+        System.currentTimeMillis() - startTime);
+  }
+
+  /**
+   * Adds the tails saved in a local directory to the cache. The tails are validated against the
+   * file status when they are used, like the ones read by this process. Loading stops at the
+   * first error; whatever was loaded until then is valid.
+   */
+  public void load(File dir) {
+    File file = new File(dir, FILE_NAME);
+    if (!file.exists()) {
+      LOG.info("No saved ORC footer cache at {}", file);
+      return;
+    }
+    long startTime = System.currentTimeMillis();
+    int count = 0;
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+        LOG.warn("Ignoring the saved ORC footer cache {} in an unknown format", file);
+        return;
+      }
+      while (in.readBoolean()) {
+        byte[] path = new byte[in.readInt()];
+        in.readFully(path);
+        long fileLength = in.readLong(), fileModTime = in.readLong();
+        byte[] tail = new byte[in.readInt()];
+        in.readFully(tail);
+        CRC32 crc = new CRC32();
+        crc.update(path);
+        crc.update(tail);
+        if (crc.getValue() != in.readLong()) {
+          throw new IOException("Checksum mismatch for a tail of " + tail.length + " bytes");
+        }
+        cache.put(new Path(URI.create(new String(path, StandardCharsets.UTF_8))),
+            new TailAndFileData(fileLength, fileModTime, ByteBuffer.wrap(tail)));
+        ++count;
+      }
+    } catch (IOException e) {
+      LOG.warn("Failed to load the rest of the saved ORC footer cache " + file, e);
+    }
+    LOG.info("Loaded {} ORC file tails from {} in {}ms", count, file,
+        System.currentTimeMillis() - startTime);
+  }
+
   @Override
   public boolean hasPpd() {
     return false;
@@ -1,9 +1,12 @@
 package org.apache.hadoop.hive.ql.io.orc;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
-public class OrcGetSplitsThreadFactory implements ThreadFactory {
+public class OrcGetSplitsThreadFactory implements ThreadFactory, ForkJoinWorkerThreadFactory {
   private final AtomicInteger threadNumber;
   private final String name = "ORC_GET_SPLITS #";
   private final ThreadGroup group;
@@ -27,4 +30,18 @@ public Thread newThread(Runnable runnable) {
     thread.setContextClassLoader(ClassLoader.getSystemClassLoader());
     return thread;
   }
+
+  public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+    ForkJoinWorkerThread thread = new OrcGetSplitsWorkerThread(pool);
+    thread.setName(name + threadNumber.getAndIncrement());
+    // Same as above; worker threads of a fork/join pool are always daemon threads.
+    thread.setContextClassLoader(ClassLoader.getSystemClassLoader());
+    return thread;
+  }
+
+  private static final class OrcGetSplitsWorkerThread extends ForkJoinWorkerThread {
+    OrcGetSplitsWorkerThread(ForkJoinPool pool) {
+      super(pool);
+    }
+  }
 }
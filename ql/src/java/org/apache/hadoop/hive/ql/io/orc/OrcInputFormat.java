@@ -22,7 +22,10 @@
 import org.apache.hadoop.fs.PathFilter;
 import org.apache.hadoop.hdfs.DistributedFileSystem;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
 import java.nio.ByteBuffer;
 import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
@@ -35,10 +38,15 @@
 import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -336,6 +344,7 @@ public static RecordReader createReaderFromFile(Reader file,
     List<OrcProto.Type> types = OrcUtils.getOrcTypes(schema);
     options.include(genIncludedColumns(schema, conf));
     setSearchArgument(options, types, conf, isOriginal);
+    setRuntimeBloomFilterRange(options, file, conf, isOriginal);
     return file.rowsOptions(options, conf);
   }
 
@@ -521,6 +530,50 @@ static void setSearchArgument(Reader.Options options,
         neededColumnNames.split(","), types, options.getInclude(), isOriginal));
   }
 
+  /**
+   * Narrows the range of the reader to the stripes that may pass the runtime bloom filters of
+   * dynamic semijoin reduction, see {@link RuntimeBloomFilterPruner}.  The row reader reads every
+   * stripe in its range, so only the leading and trailing stripes are skipped.
+   */
+  static void setRuntimeBloomFilterRange(Reader.Options options, Reader file,
+      Configuration conf, boolean isOriginal) throws IOException {
+    if (options.getColumnNames() == null) {
+      // The bloom filter columns are resolved by the column names of the search argument.
+      return;
+    }
+    RuntimeBloomFilterPruner pruner = RuntimeBloomFilterPruner.createFromConf(conf);
+    if (pruner == null) {
+      return;
+    }
+    int[] columns = pruner.mapColumns(options.getColumnNames(), getRootColumn(isOriginal));
+    List<StripeInformation> stripes = file.getStripes();
+    List<StripeStatistics> stripeStats = file.getStripeStatistics();
+    long start = options.getOffset();
+    long end = start + options.getLength();
+    long newStart = -1;
+    long newEnd = start;
+    for (int i = 0; i < stripes.size() && i < stripeStats.size(); i++) {
+      long stripeOffset = stripes.get(i).getOffset();
+      if (stripeOffset < start || stripeOffset >= end) {
+        continue;
+      }
+      if (pruner.isNeeded(stripeStats.get(i).getColumnStatistics(), columns)) {
+        if (newStart == -1) {
+          newStart = stripeOffset;
+        }
+        // The reader takes the stripes that start in its range.
+        newEnd = stripeOffset + 1;
+      } else if (isDebugEnabled) {
+        LOG.debug("Eliminating ORC stripe-" + i + " that did not pass the runtime bloom filter");
+      }
+    }
+    if (newStart == -1) {
+      options.range(start, 0);
+    } else {
+      options.range(newStart, newEnd - newStart);
+    }
+  }
+
   static boolean canCreateSargFromConf(Configuration conf) {
     if (getNeededColumnNamesString(conf) == null) {
       if (isDebugEnabled) {
@@ -621,6 +674,16 @@ static class Context {
     private static LocalCache localCache;
     private static ExternalCache metaCache;
     static ExecutorService threadPool = null;
+    /**
+     * Bounds the concurrent listings that split generation forks on a fork/join pool, for all
+     * queries.  The pool adds threads while its workers wait for the listings they forked, so its
+     * parallelism alone does not bound them.  Created with the pool.
+     */
+    static Semaphore listingPermits = null;
+    /** Bounds the concurrent tail reads by file system URI; created once, like the local cache. */
+    private static final ConcurrentHashMap<URI, Semaphore> tailReadPermits =
+        new ConcurrentHashMap<>();
+    private final int maxTailReadsPerFs;
     private final int numBuckets;
     private final int splitStrategyBatchMs;
     private final long maxSize;
@@ -668,8 +731,7 @@ static class Context {
       long cacheMemSize = HiveConf.getSizeVar(
           conf, ConfVars.HIVE_ORC_CACHE_STRIPE_DETAILS_MEMORY_SIZE);
       int numThreads = HiveConf.getIntVar(conf, ConfVars.HIVE_ORC_COMPUTE_SPLITS_NUM_THREADS);
-      boolean useSoftReference = HiveConf.getBoolVar(
-          conf, ConfVars.HIVE_ORC_CACHE_USE_SOFT_REFERENCES);
+      maxTailReadsPerFs = HiveConf.getIntVar(conf, ConfVars.HIVE_ORC_SPLITS_MAX_TAIL_READS_PER_FS);
 
       cacheStripeDetails = (cacheMemSize > 0);
 
@@ -677,7 +739,12 @@ static class Context {
 
       synchronized (Context.class) {
         if (threadPool == null) {
-          threadPool = Executors.newFixedThreadPool(numThreads, new OrcGetSplitsThreadFactory());
+          listingPermits = new Semaphore(numThreads);
+          if (HiveConf.getBoolVar(conf, ConfVars.HIVE_ORC_COMPUTE_SPLITS_FORK_JOIN)) {
+            threadPool = new ForkJoinPool(numThreads, new OrcGetSplitsThreadFactory(), null, false);
+          } else {
+            threadPool = Executors.newFixedThreadPool(numThreads, new OrcGetSplitsThreadFactory());
+          }
         }
 
         // TODO: local cache is created once, so the configs for future queries will not be honored.
@@ -695,9 +762,7 @@ static class Context {
             }
             useExternalCache = false;
           }
-          if (localCache == null) {
-            localCache = new LocalCache(numThreads, cacheMemSize, useSoftReference);
-          }
+          ensureLocalCache(conf);
           if (useExternalCache) {
             if (metaCache == null) {
               metaCache = new ExternalCache(localCache,
@@ -728,9 +793,46 @@ static class Context {
               + " isTransactionalTable: " + isTxnTable + " properties: " + txnProperties);
     }
 
+    /**
+     * Creates the local cache if needed, and loads the tails saved in the local directory into it.
+     * Must be called under the Context class lock.
+     */
+    private static void ensureLocalCache(Configuration conf) {
+      if (localCache != null) return;
+      long cacheMemSize = HiveConf.getSizeVar(
+          conf, ConfVars.HIVE_ORC_CACHE_STRIPE_DETAILS_MEMORY_SIZE);
+      int numThreads = HiveConf.getIntVar(conf, ConfVars.HIVE_ORC_COMPUTE_SPLITS_NUM_THREADS);
+      boolean useSoftReference = HiveConf.getBoolVar(
+          conf, ConfVars.HIVE_ORC_CACHE_USE_SOFT_REFERENCES);
+      localCache = new LocalCache(numThreads, cacheMemSize, useSoftReference);
+      String localDir = HiveConf.getVar(conf, ConfVars.HIVE_ORC_CACHE_STRIPE_DETAILS_LOCAL_DIR);
+      if (!localDir.isEmpty()) {
+        localCache.load(new File(localDir));
+      }
+    }
+
+    /**
+     * @return The permits for reading tails from the file system; null if they are not bounded.
+     */
+    private Semaphore getTailReadPermits(FileSystem fs) {
+      if (maxTailReadsPerFs <= 0) return null;
+      Semaphore permits = tailReadPermits.get(fs.getUri());
+      if (permits == null) {
+        Semaphore newPermits = new Semaphore(maxTailReadsPerFs);
+        permits = tailReadPermits.putIfAbsent(fs.getUri(), newPermits);
+        if (permits == null) {
+          permits = newPermits;
+        }
+      }
+      return permits;
+    }
+
     @VisibleForTesting
     static int getCurrentThreadPoolSize() {
       synchronized (Context.class) {
+        if (threadPool instanceof ForkJoinPool) {
+          return ((ForkJoinPool)threadPool).getPoolSize();
+        }
         return (threadPool instanceof ThreadPoolExecutor)
             ? ((ThreadPoolExecutor)threadPool).getPoolSize() : ((threadPool == null) ? 0 : -1);
       }
@@ -740,6 +842,7 @@ static int getCurrentThreadPoolSize() {
     public static void resetThreadPool() {
       synchronized (Context.class) {
         threadPool = null;
+        listingPermits = null;
       }
     }
 
@@ -748,6 +851,40 @@ public static void clearLocalCache() {
       if (localCache == null) return;
       localCache.clear();
     }
+
+    @VisibleForTesting
+    static void resetLocalCache() {
+      synchronized (Context.class) {
+        localCache = null;
+      }
+    }
+  }
+
+  /**
+   * Creates the cache of ORC file tails for split generation ahead of the first query, and loads
+   * the tails saved by the previous processes on this node into it.
+   */
+  public static void initFooterCache(Configuration conf) {
+    if (HiveConf.getSizeVar(conf, ConfVars.HIVE_ORC_CACHE_STRIPE_DETAILS_MEMORY_SIZE) <= 0) {
+      return;
+    }
+    synchronized (Context.class) {
+      Context.ensureLocalCache(conf);
+    }
+  }
+
+  /**
+   * Saves the cache of ORC file tails for split generation to the local directory, if any.
+   */
+  public static void saveFooterCache(Configuration conf) {
+    String localDir = HiveConf.getVar(conf, ConfVars.HIVE_ORC_CACHE_STRIPE_DETAILS_LOCAL_DIR);
+    LocalCache cache;
+    synchronized (Context.class) {
+      cache = Context.localCache;
+    }
+    if (cache != null && !localDir.isEmpty()) {
+      cache.save(new File(localDir));
+    }
   }
 
   /**
@@ -1213,7 +1350,7 @@ private AcidDirInfo callInternal() throws IOException {
       }
       //todo: shouldn't ignoreEmptyFiles be set based on ExecutionEngine?
       AcidUtils.Directory dirInfo = AcidUtils.getAcidState(
-          dir, context.conf, context.writeIdList, useFileIds, true, null);
+          dir, context.conf, context.writeIdList, useFileIds, true, null, Context.listingPermits);
       // find the base files (original or new style)
       List<AcidBaseFileInfo> baseFiles = new ArrayList<>();
       if (dirInfo.getBaseDirectory() == null) {
@@ -1243,50 +1380,15 @@ private AcidDirInfo callInternal() throws IOException {
         // Therefore, everything inside delta_x_y/ is an insert event and all the files in delta_x_y/
         // can be treated like base files. Hence, each of these are added to baseOrOriginalFiles list.
 
+        List<ParsedDelta> insertDeltas = new ArrayList<>();
         for (ParsedDelta parsedDelta : dirInfo.getCurrentDirectories()) {
           if (parsedDelta.isDeleteDelta()) {
             parsedDeltas.add(parsedDelta);
           } else {
-            AcidUtils.AcidBaseFileType deltaType = parsedDelta.isRawFormat() ?
-              AcidUtils.AcidBaseFileType.ORIGINAL_BASE : AcidUtils.AcidBaseFileType.ACID_SCHEMA;
-            PathFilter bucketFilter = parsedDelta.isRawFormat() ?
-              AcidUtils.originalBucketFilter : AcidUtils.bucketFileFilter;
-            if (parsedDelta.isRawFormat() && parsedDelta.getMinWriteId() != parsedDelta.getMaxWriteId()) {
-              //delta/ with files in raw format are a result of Load Data (as opposed to compaction
-              //or streaming ingest so must have interval length == 1.
-              throw new IllegalStateException("Delta in " + AcidUtils.AcidBaseFileType.ORIGINAL_BASE
-               + " format but txnIds are out of range: " + parsedDelta.getPath());
-            }
-            // This is a normal insert delta, which only has insert events and hence all the files
-            // in this delta directory can be considered as a base.
-            Boolean val = useFileIds.value;
-            if (val == null || val) {
-              try {
-                List<HdfsFileStatusWithId> insertDeltaFiles =
-                    SHIMS.listLocatedHdfsStatus(fs, parsedDelta.getPath(), bucketFilter);
-                for (HdfsFileStatusWithId fileId : insertDeltaFiles) {
-                  baseFiles.add(new AcidBaseFileInfo(fileId, deltaType));
-                }
-                if (val == null) {
-                  useFileIds.value = true; // The call succeeded, so presumably the API is there.
-                }
-                continue; // move on to process to the next parsedDelta.
-              } catch (Throwable t) {
-                LOG.error("Failed to get files with ID; using regular API: " + t.getMessage());
-                if (val == null && t instanceof UnsupportedOperationException) {
-                  useFileIds.value = false;
-                }
-              }
-            }
-            // Fall back to regular API and create statuses without ID.
-            List<FileStatus> children = HdfsUtils.listLocatedStatus(fs, parsedDelta.getPath(), bucketFilter);
-            for (FileStatus child : children) {
-              HdfsFileStatusWithId fileId = AcidUtils.createOriginalObj(null, child);
-              baseFiles.add(new AcidBaseFileInfo(fileId, deltaType));
-            }
+            insertDeltas.add(parsedDelta);
           }
         }
-
+        baseFiles.addAll(listInsertDeltas(insertDeltas));
       } else {
         /*
         We already handled all delete deltas above and there should not be any other deltas for
@@ -1301,6 +1403,122 @@ private AcidDirInfo callInternal() throws IOException {
       return new AcidDirInfo(fs, dir, dirInfo, baseFiles, parsedDeltas);
     }
 
+    /**
+     * Lists the files of the insert deltas, which can all be treated as base files. In a
+     * fork/join pool, the deltas are listed in parallel when there are several of them.
+     */
+    private List<AcidBaseFileInfo> listInsertDeltas(List<ParsedDelta> insertDeltas)
+        throws IOException {
+      if (insertDeltas.size() <= 1 || !ForkJoinTask.inForkJoinPool()) {
+        List<AcidBaseFileInfo> result = new ArrayList<>();
+        for (ParsedDelta parsedDelta : insertDeltas) {
+          result.addAll(listInsertDelta(parsedDelta));
+        }
+        return result;
+      }
+      List<InsertDeltaLister> listers = new ArrayList<>(insertDeltas.size());
+      for (ParsedDelta parsedDelta : insertDeltas) {
+        listers.add(new InsertDeltaLister(parsedDelta));
+      }
+      ForkJoinTask.invokeAll(listers);
+      List<AcidBaseFileInfo> result = new ArrayList<>();
+      for (InsertDeltaLister lister : listers) {
+        if (lister.error instanceof IOException) {
+          throw (IOException) lister.error;
+        } else if (lister.error instanceof RuntimeException) {
+          throw (RuntimeException) lister.error;
+        } else if (lister.error != null) {
+          throw new IOException(lister.error);
+        }
+        result.addAll(lister.result);
+      }
+      return result;
+    }
+
+    /**
+     * Lists one insert delta as the user of the split generation, in a fork/join pool, holding
+     * one of the listing permits.
+     */
+    private final class InsertDeltaLister extends RecursiveAction {
+      private final ParsedDelta parsedDelta;
+      private List<AcidBaseFileInfo> result;
+      private Throwable error;
+
+      InsertDeltaLister(ParsedDelta parsedDelta) {
+        this.parsedDelta = parsedDelta;
+      }
+
+      @Override
+      protected void compute() {
+        Semaphore permits = Context.listingPermits;
+        try {
+          if (permits != null) {
+            permits.acquire();
+          }
+          try {
+            if (ugi == null) {
+              result = listInsertDelta(parsedDelta);
+            } else {
+              result = ugi.doAs(new PrivilegedExceptionAction<List<AcidBaseFileInfo>>() {
+                @Override
+                public List<AcidBaseFileInfo> run() throws Exception {
+                  return listInsertDelta(parsedDelta);
+                }
+              });
+            }
+          } finally {
+            if (permits != null) {
+              permits.release();
+            }
+          }
+        } catch (Throwable t) {
+          error = t;
+        }
+      }
+    }
+
+    private List<AcidBaseFileInfo> listInsertDelta(ParsedDelta parsedDelta) throws IOException {
+      List<AcidBaseFileInfo> result = new ArrayList<>();
+      AcidUtils.AcidBaseFileType deltaType = parsedDelta.isRawFormat() ?
+        AcidUtils.AcidBaseFileType.ORIGINAL_BASE : AcidUtils.AcidBaseFileType.ACID_SCHEMA;
+      PathFilter bucketFilter = parsedDelta.isRawFormat() ?
+        AcidUtils.originalBucketFilter : AcidUtils.bucketFileFilter;
+      if (parsedDelta.isRawFormat() && parsedDelta.getMinWriteId() != parsedDelta.getMaxWriteId()) {
+        //delta/ with files in raw format are a result of Load Data (as opposed to compaction
+        //or streaming ingest so must have interval length == 1.
+        throw new IllegalStateException("Delta in " + AcidUtils.AcidBaseFileType.ORIGINAL_BASE
+         + " format but txnIds are out of range: " + parsedDelta.getPath());
+      }
+      // This is a normal insert delta, which only has insert events and hence all the files
+      // in this delta directory can be considered as a base.
+      Boolean val = useFileIds.value;
+      if (val == null || val) {
+        try {
+          List<HdfsFileStatusWithId> insertDeltaFiles =
+              SHIMS.listLocatedHdfsStatus(fs, parsedDelta.getPath(), bucketFilter);
+          for (HdfsFileStatusWithId fileId : insertDeltaFiles) {
+            result.add(new AcidBaseFileInfo(fileId, deltaType));
+          }
+          if (val == null) {
+            useFileIds.value = true; // The call succeeded, so presumably the API is there.
+          }
+          return result;
+        } catch (Throwable t) {
+          LOG.error("Failed to get files with ID; using regular API: " + t.getMessage());
+          if (val == null && t instanceof UnsupportedOperationException) {
+            useFileIds.value = false;
+          }
+        }
+      }
+      // Fall back to regular API and create statuses without ID.
+      List<FileStatus> children = HdfsUtils.listLocatedStatus(fs, parsedDelta.getPath(), bucketFilter);
+      for (FileStatus child : children) {
+        HdfsFileStatusWithId fileId = AcidUtils.createOriginalObj(null, child);
+        result.add(new AcidBaseFileInfo(fileId, deltaType));
+      }
+      return result;
+    }
+
     private List<HdfsFileStatusWithId> findBaseFiles(
         Path base, Ref<Boolean> useFileIds) throws IOException {
       Boolean val = useFileIds.value;
@@ -1652,12 +1870,27 @@ private void populateAndCacheStripeDetails() throws IOException {
       // object contains the orc tail from the cache then we can skip creating orc reader avoiding
       // filesystem calls.
       if (orcTail == null) {
-        Reader orcReader = OrcFile.createReader(file.getPath(),
-            OrcFile.readerOptions(context.conf)
-                .filesystem(fs)
-                .maxLength(AcidUtils.getLogicalLength(fs, file)));
-        orcTail = new OrcTail(orcReader.getFileTail(), orcReader.getSerializedFileFooter(),
-            file.getModificationTime());
+        Semaphore permits = context.getTailReadPermits(fs);
+        if (permits != null) {
+          try {
+            permits.acquire();
+          } catch (InterruptedException e) {
+            throw new InterruptedIOException("Interrupted while waiting to read the tail of "
+                + file.getPath());
+          }
+        }
+        try {
+          Reader orcReader = OrcFile.createReader(file.getPath(),
+              OrcFile.readerOptions(context.conf)
+                  .filesystem(fs)
+                  .maxLength(AcidUtils.getLogicalLength(fs, file)));
+          orcTail = new OrcTail(orcReader.getFileTail(), orcReader.getSerializedFileFooter(),
+              file.getModificationTime());
+        } finally {
+          if (permits != null) {
+            permits.release();
+          }
+        }
         if (context.cacheStripeDetails) {
           context.footerCache.put(new FooterCacheKey(fsFileId, file.getPath()), orcTail);
         }
@@ -0,0 +1,375 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.io.orc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.common.io.NonSyncByteArrayInputStream;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import org.apache.hadoop.hive.ql.exec.SerializationUtilities;
+import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgumentFactory;
+import org.apache.hadoop.hive.ql.plan.DynamicValue;
+import org.apache.hadoop.hive.ql.plan.DynamicValue.NoDynamicValuesException;
+import org.apache.hadoop.hive.ql.plan.ExprNodeColumnDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDynamicValueDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
+import org.apache.hadoop.hive.ql.plan.TableScanDesc;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDF;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFInBloomFilter;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPAnd;
+import org.apache.hadoop.hive.serde2.io.DateWritable;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.BinaryObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory;
+import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+import org.apache.hive.common.util.BloomKFilter;
+import org.apache.orc.ColumnStatistics;
+import org.apache.orc.DateColumnStatistics;
+import org.apache.orc.DoubleColumnStatistics;
+import org.apache.orc.IntegerColumnStatistics;
+import org.apache.orc.OrcProto;
+import org.apache.orc.StringColumnStatistics;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.impl.ColumnStatisticsImpl;
+import org.apache.orc.impl.SchemaEvolution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Applies the runtime bloom filters of dynamic semijoin reduction to ORC stripes and row groups.
+ *
+ * The min/max of a semijoin reach the ORC readers as part of the search argument, but a search
+ * argument has no bloom filter predicate, so {@code in_bloom_filter(col, DynamicValue)} used to
+ * be evaluated only after the rows were decoded. The column statistics of a stripe or row group
+ * bound the values in it; when they bound them to a few values (a short integer or date range, or
+ * a single value of any other type) the values are probed against the bloom filter, and the stripe
+ * or row group is skipped when none of them passes. Nulls never pass a bloom filter.
+ */
+public class RuntimeBloomFilterPruner {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RuntimeBloomFilterPruner.class);
+
+  private static class BloomFilterConjunct {
+    final String columnName;
+    final PrimitiveCategory category;
+    final DynamicValue bloomFilterValue;
+
+    boolean isResolved;
+    // Null if the value is not known, nothing is pruned then.
+    BloomKFilter bloomFilter;
+
+    BloomFilterConjunct(String columnName, PrimitiveCategory category,
+        DynamicValue bloomFilterValue) {
+      this.columnName = columnName;
+      this.category = category;
+      this.bloomFilterValue = bloomFilterValue;
+    }
+  }
+
+  private final List<BloomFilterConjunct> conjuncts;
+  private final int maxProbes;
+
+  private RuntimeBloomFilterPruner(List<BloomFilterConjunct> conjuncts, int maxProbes) {
+    this.conjuncts = conjuncts;
+    this.maxProbes = maxProbes;
+  }
+
+  /**
+   * @return the pruner for the bloom filters in the pushed down filter of the table scan, or null
+   *         if the filter has none.
+   */
+  public static RuntimeBloomFilterPruner createFromConf(Configuration conf) {
+    int maxProbes = HiveConf.getIntVar(conf, ConfVars.HIVE_IO_SARG_BLOOM_FILTER_PROBES);
+    String filterExprString = conf.get(TableScanDesc.FILTER_EXPR_CONF_STR);
+    if (maxProbes <= 0 || filterExprString == null) {
+      return null;
+    }
+    return create(SerializationUtilities.deserializeExpression(filterExprString), conf, maxProbes);
+  }
+
+  @VisibleForTesting
+  static RuntimeBloomFilterPruner create(ExprNodeDesc filterExpr, Configuration conf,
+      int maxProbes) {
+    List<BloomFilterConjunct> conjuncts = new ArrayList<BloomFilterConjunct>();
+    addConjuncts(filterExpr, conf, conjuncts);
+    if (conjuncts.isEmpty()) {
+      return null;
+    }
+    return new RuntimeBloomFilterPruner(conjuncts, maxProbes);
+  }
+
+  /**
+   * Only the conjuncts of the filter are used, a row group can be skipped for any one of them.
+   */
+  private static void addConjuncts(ExprNodeDesc expr, Configuration conf,
+      List<BloomFilterConjunct> conjuncts) {
+    if (!(expr instanceof ExprNodeGenericFuncDesc)) {
+      return;
+    }
+    GenericUDF udf = ((ExprNodeGenericFuncDesc) expr).getGenericUDF();
+    List<ExprNodeDesc> children = expr.getChildren();
+    if (udf instanceof GenericUDFOPAnd) {
+      for (ExprNodeDesc child : children) {
+        addConjuncts(child, conf, conjuncts);
+      }
+    } else if (udf instanceof GenericUDFInBloomFilter) {
+      if (!(children.get(0) instanceof ExprNodeColumnDesc) ||
+          !(children.get(1) instanceof ExprNodeDynamicValueDesc)) {
+        return;
+      }
+      TypeInfo typeInfo = children.get(0).getTypeInfo();
+      if (!(typeInfo instanceof PrimitiveTypeInfo)) {
+        return;
+      }
+      PrimitiveCategory category = ((PrimitiveTypeInfo) typeInfo).getPrimitiveCategory();
+      switch (category) {
+      case BYTE:
+      case SHORT:
+      case INT:
+      case LONG:
+      case DATE:
+      case FLOAT:
+      case DOUBLE:
+      case STRING:
+      case VARCHAR:
+        DynamicValue bloomFilterValue =
+            ((ExprNodeDynamicValueDesc) children.get(1)).getDynamicValue();
+        bloomFilterValue.setConf(conf);
+        conjuncts.add(new BloomFilterConjunct(
+            ((ExprNodeColumnDesc) children.get(0)).getColumn(), category, bloomFilterValue));
+        break;
+      default:
+        // Other types are hashed in ways the column statistics cannot reproduce.
+        break;
+      }
+    }
+  }
+
+  /**
+   * Maps the columns of the bloom filters to ORC column ids, -1 for the columns that are not in
+   * the file or whose statistics cannot be used.
+   */
+  public int[] mapColumns(SchemaEvolution evolution) {
+    int[] columns = RecordReaderImpl.mapSargColumnsToOrcInternalColIdx(getColumnLeaves(),
+        evolution);
+    for (int i = 0; i < columns.length; i++) {
+      if (columns[i] != -1 && !evolution.isPPDSafeConversion(columns[i])) {
+        columns[i] = -1;
+      }
+    }
+    return columns;
+  }
+
+  /**
+   * Maps the columns of the bloom filters to ORC column ids by the column names of the search
+   * argument, see {@link OrcInputFormat#setSearchArgument}.
+   */
+  public int[] mapColumns(String[] columnNames, int rootColumn) {
+    return RecordReaderImpl.mapSargColumnsToOrcInternalColIdx(getColumnLeaves(), columnNames,
+        rootColumn);
+  }
+
+  private List<PredicateLeaf> getColumnLeaves() {
+    // Only the column names of the leaves are used.
+    List<PredicateLeaf> leaves = new ArrayList<PredicateLeaf>(conjuncts.size());
+    for (BloomFilterConjunct conjunct : conjuncts) {
+      leaves.add(SearchArgumentFactory.newBuilder()
+          .isNull(conjunct.columnName, PredicateLeaf.Type.LONG).build().getLeaves().get(0));
+    }
+    return leaves;
+  }
+
+  /**
+   * @param stats the statistics of a stripe, indexed by ORC column id
+   * @param columns the ORC column ids of the bloom filters, see {@link #mapColumns}
+   * @return whether any row of the stripe may pass the bloom filters
+   */
+  public boolean isNeeded(ColumnStatistics[] stats, int[] columns) {
+    for (int i = 0; i < conjuncts.size(); i++) {
+      int column = columns[i];
+      if (column >= 0 && column < stats.length && stats[column] != null &&
+          !mayPass(conjuncts.get(i), stats[column])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Removes the row groups none of whose rows passes the bloom filters.
+   *
+   * @param fileSchema the file schema the column ids refer to
+   * @param rowIndexes the row indexes of the stripe, indexed by ORC column id
+   * @param columns the ORC column ids of the bloom filters, see {@link #mapColumns}
+   * @param rgsToRead the row groups picked so far,
+   *        {@link RecordReaderImpl.SargApplier#READ_ALL_RGS} for all of them
+   * @param rgCount the number of row groups of the stripe
+   * @return the row groups to read, in the same convention as the search argument applier
+   */
+  public boolean[] pickRowGroups(TypeDescription fileSchema, OrcProto.RowIndex[] rowIndexes,
+      int[] columns, boolean[] rgsToRead, int rgCount) {
+    if (rgsToRead == RecordReaderImpl.SargApplier.READ_NO_RGS) {
+      return rgsToRead;
+    }
+    boolean[] result = rgsToRead;
+    boolean hasSelected = false;
+    for (int rg = 0; rg < rgCount; rg++) {
+      if (result != null && !result[rg]) {
+        continue;
+      }
+      if (isRowGroupNeeded(fileSchema, rowIndexes, columns, rg)) {
+        hasSelected = true;
+        continue;
+      }
+      if (result == null) {
+        result = new boolean[rgCount];
+        Arrays.fill(result, true);
+      } else if (result == rgsToRead) {
+        result = Arrays.copyOf(rgsToRead, rgsToRead.length);
+      }
+      result[rg] = false;
+    }
+    return hasSelected ? result : RecordReaderImpl.SargApplier.READ_NO_RGS;
+  }
+
+  private boolean isRowGroupNeeded(TypeDescription fileSchema, OrcProto.RowIndex[] rowIndexes,
+      int[] columns, int rg) {
+    for (int i = 0; i < conjuncts.size(); i++) {
+      int column = columns[i];
+      if (column < 0 || column >= rowIndexes.length || rowIndexes[column] == null ||
+          rg >= rowIndexes[column].getEntryCount()) {
+        continue;
+      }
+      OrcProto.RowIndexEntry entry = rowIndexes[column].getEntry(rg);
+      if (!entry.hasStatistics()) {
+        continue;
+      }
+      ColumnStatistics stats = ColumnStatisticsImpl.deserialize(
+          fileSchema.findSubtype(column), entry.getStatistics());
+      if (!mayPass(conjuncts.get(i), stats)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean mayPass(BloomFilterConjunct conjunct, ColumnStatistics stats) {
+    if (stats.getNumberOfValues() == 0) {
+      // All nulls, or no statistics were written.
+      return true;
+    }
+    BloomKFilter bloomFilter = getBloomFilter(conjunct);
+    if (bloomFilter == null) {
+      return true;
+    }
+    switch (conjunct.category) {
+    case BYTE:
+    case SHORT:
+    case INT:
+    case LONG:
+      if (stats instanceof IntegerColumnStatistics) {
+        IntegerColumnStatistics longStats = (IntegerColumnStatistics) stats;
+        return mayPassRange(bloomFilter, longStats.getMinimum(), longStats.getMaximum());
+      }
+      break;
+    case DATE:
+      if (stats instanceof DateColumnStatistics) {
+        DateColumnStatistics dateStats = (DateColumnStatistics) stats;
+        if (dateStats.getMinimum() != null && dateStats.getMaximum() != null) {
+          return mayPassRange(bloomFilter,
+              DateWritable.millisToDays(dateStats.getMinimum().getTime()),
+              DateWritable.millisToDays(dateStats.getMaximum().getTime()));
+        }
+      }
+      break;
+    case FLOAT:
+    case DOUBLE:
+      if (stats instanceof DoubleColumnStatistics) {
+        DoubleColumnStatistics doubleStats = (DoubleColumnStatistics) stats;
+        if (doubleStats.getMinimum() == doubleStats.getMaximum()) {
+          return bloomFilter.testDouble(doubleStats.getMinimum());
+        }
+      }
+      break;
+    case STRING:
+    case VARCHAR:
+      if (stats instanceof StringColumnStatistics) {
+        StringColumnStatistics stringStats = (StringColumnStatistics) stats;
+        String min = stringStats.getMinimum();
+        if (min != null && min.equals(stringStats.getMaximum())) {
+          return bloomFilter.testBytes(min.getBytes(StandardCharsets.UTF_8));
+        }
+      }
+      break;
+    default:
+      break;
+    }
+    return true;
+  }
+
+  private boolean mayPassRange(BloomKFilter bloomFilter, long min, long max) {
+    long span = max - min;
+    if (span < 0 || span >= maxProbes) {
+      // Too many values, or the difference overflowed.
+      return true;
+    }
+    for (long value = min; value <= max; value++) {
+      if (bloomFilter.testLong(value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private BloomKFilter getBloomFilter(BloomFilterConjunct conjunct) {
+    if (conjunct.isResolved) {
+      return conjunct.bloomFilter;
+    }
+    Object value;
+    try {
+      value = conjunct.bloomFilterValue.getValue();
+    } catch (NoDynamicValuesException e) {
+      // E.g. during split generation; try again for the next stripe.
+      LOG.debug("Runtime bloom filter is not available here {}", e.getMessage());
+      return null;
+    }
+    conjunct.isResolved = true;
+    if (value != null) {
+      BinaryObjectInspector oi =
+          (BinaryObjectInspector) conjunct.bloomFilterValue.getObjectInspector();
+      byte[] bytes = oi.getPrimitiveJavaObject(value);
+      try {
+        conjunct.bloomFilter = BloomKFilter.deserialize(new NonSyncByteArrayInputStream(bytes));
+      } catch (IOException e) {
+        LOG.warn("Ignoring unreadable runtime bloom filter for " + conjunct.columnName, e);
+      }
+    }
+    return conjunct.bloomFilter;
+  }
+}
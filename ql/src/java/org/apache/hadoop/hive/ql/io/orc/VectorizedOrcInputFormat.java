@@ -99,6 +99,7 @@ public class VectorizedOrcInputFormat extends FileInputFormat<NullWritable, Vect
       options.range(offset, length);
       options.include(OrcInputFormat.genIncludedColumns(schema, conf));
       OrcInputFormat.setSearchArgument(options, types, conf, true);
+      OrcInputFormat.setRuntimeBloomFilterRange(options, file, conf, true);
 
       this.reader = file.rowsOptions(options, conf);
 
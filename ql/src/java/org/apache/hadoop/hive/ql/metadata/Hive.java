@@ -41,6 +41,7 @@
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -100,6 +101,8 @@
 import org.apache.hadoop.hive.metastore.HiveMetaStoreClient;
 import org.apache.hadoop.hive.metastore.HiveMetaStoreUtils;
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.PartitionBatchIterator;
+import org.apache.hadoop.hive.metastore.PartitionBatchIterator.PartitionFetchException;
 import org.apache.hadoop.hive.metastore.PartitionDropOptions;
 import org.apache.hadoop.hive.metastore.RawStore;
 import org.apache.hadoop.hive.metastore.RetryingMetaStoreClient;
@@ -2968,6 +2971,8 @@ public List<Partition> getPartitions(Table tbl) throws HiveException {
 
   /**
    * Get all the partitions; unlike {@link #getPartitions(Table)}, does not include auth.
+   * The partitions are fetched in batches of METASTORE_BATCH_RETRIEVE_MAX, so that a table with
+   * many partitions does not need a single huge response from the metastore.
    * @param tbl table for which partitions are needed
    * @return list of partition objects
    */
@@ -2976,17 +2981,24 @@ public Set<Partition> getAllPartitionsOf(Table tbl) throws HiveException {
       return Sets.newHashSet(new Partition(tbl));
     }
 
-    List<org.apache.hadoop.hive.metastore.api.Partition> tParts;
+    int batchSize = HiveConf.getIntVar(conf, HiveConf.ConfVars.METASTORE_BATCH_RETRIEVE_MAX);
+    Set<Partition> parts = new LinkedHashSet<Partition>();
     try {
-      tParts = getMSC().listPartitions(tbl.getDbName(), tbl.getTableName(), (short)-1);
+      // Built around the retrying client, so that every batch is retried on its own
+      Iterator<org.apache.hadoop.hive.metastore.api.Partition> tParts = PartitionBatchIterator
+          .forTable(getMSC(), null, tbl.getDbName(), tbl.getTableName(), batchSize);
+      while (tParts.hasNext()) {
+        parts.add(new Partition(tbl, tParts.next()));
+      }
+    } catch (PartitionFetchException e) {
+      LOG.error(StringUtils.stringifyException(e));
+      throw new HiveException(e.getCause());
+    } catch (HiveException e) {
+      throw e;
     } catch (Exception e) {
       LOG.error(StringUtils.stringifyException(e));
       throw new HiveException(e);
     }
-    Set<Partition> parts = new LinkedHashSet<Partition>(tParts.size());
-    for (org.apache.hadoop.hive.metastore.api.Partition tpart : tParts) {
-      parts.add(new Partition(tbl, tpart));
-    }
     return parts;
   }
 
@@ -3080,6 +3092,26 @@ public List<Partition> getPartitionsByNames(Table tbl,
    */
   public List<Partition> getPartitionsByNames(Table tbl, List<String> partNames)
       throws HiveException {
+    return getPartitionsByNames(tbl, partNames, null);
+  }
+
+  /**
+   * Get all partitions of the table that matches the list of given partition names, with only
+   * some of the fields of their metastore partitions set.
+   *
+   * @param tbl
+   *          object for which partition is needed. Must be partitioned.
+   * @param partNames
+   *          list of partition names
+   * @param fieldList
+   *          Partition fields to fetch, as in
+   *          {@link IMetaStoreClient#getPartitionsByNames(String, String, List, List)}, or null
+   *          for all of them
+   * @return list of partition objects
+   * @throws HiveException
+   */
+  public List<Partition> getPartitionsByNames(Table tbl, List<String> partNames,
+      List<String> fieldList) throws HiveException {
 
     if (!tbl.isPartitioned()) {
       throw new HiveException(ErrorMsg.TABLE_NOT_PARTITIONED, tbl.getTableName());
@@ -3088,31 +3120,18 @@ public List<Partition> getPartitionsByNames(Table tbl, List<String> partNames)
 
     int batchSize = HiveConf.getIntVar(conf, HiveConf.ConfVars.METASTORE_BATCH_RETRIEVE_MAX);
     // TODO: might want to increase the default batch size. 1024 is viable; MS gets OOM if too high.
-    int nParts = partNames.size();
-    int nBatches = nParts / batchSize;
-
     try {
-      for (int i = 0; i < nBatches; ++i) {
-        List<org.apache.hadoop.hive.metastore.api.Partition> tParts =
-          getMSC().getPartitionsByNames(tbl.getDbName(), tbl.getTableName(),
-          partNames.subList(i*batchSize, (i+1)*batchSize));
-        if (tParts != null) {
-          for (org.apache.hadoop.hive.metastore.api.Partition tpart: tParts) {
-            partitions.add(new Partition(tbl, tpart));
-          }
-        }
-      }
-
-      if (nParts > nBatches * batchSize) {
-        List<org.apache.hadoop.hive.metastore.api.Partition> tParts =
-          getMSC().getPartitionsByNames(tbl.getDbName(), tbl.getTableName(),
-          partNames.subList(nBatches*batchSize, nParts));
-        if (tParts != null) {
-          for (org.apache.hadoop.hive.metastore.api.Partition tpart: tParts) {
-            partitions.add(new Partition(tbl, tpart));
-          }
-        }
+      // Built around the retrying client, so that every batch is retried on its own
+      Iterator<org.apache.hadoop.hive.metastore.api.Partition> tParts =
+          new PartitionBatchIterator(getMSC(), null, tbl.getDbName(), tbl.getTableName(),
+              partNames, fieldList, batchSize);
+      while (tParts.hasNext()) {
+        partitions.add(new Partition(tbl, tParts.next()));
       }
+    } catch (PartitionFetchException e) {
+      throw new HiveException(e.getCause());
+    } catch (HiveException e) {
+      throw e;
     } catch (Exception e) {
       throw new HiveException(e);
     }
@@ -3164,13 +3183,30 @@ private static List<Partition> convertFromMetastore(Table tbl,
    */
   public boolean getPartitionsByExpr(Table tbl, ExprNodeGenericFuncDesc expr, HiveConf conf,
       List<Partition> result) throws HiveException, TException {
+    return getPartitionsByExpr(tbl, expr, conf, null, result);
+  }
+
+  /**
+   * Get a list of Partitions by expr, with only some of the fields of their metastore
+   * partitions set.
+   * @param tbl The table containing the partitions.
+   * @param expr A serialized expression for partition predicates.
+   * @param conf Hive config.
+   * @param fieldList Partition fields to fetch, as in
+   *        {@link IMetaStoreClient#getPartitionsByNames(String, String, List, List)}, or null for
+   *        all of them.
+   * @param result the resulting list of partitions
+   * @return whether the resulting list contains partitions which may or may not match the expr
+   */
+  public boolean getPartitionsByExpr(Table tbl, ExprNodeGenericFuncDesc expr, HiveConf conf,
+      List<String> fieldList, List<Partition> result) throws HiveException, TException {
     assert result != null;
     byte[] exprBytes = SerializationUtilities.serializeExpressionToKryo(expr);
     String defaultPartitionName = HiveConf.getVar(conf, ConfVars.DEFAULTPARTITIONNAME);
     List<org.apache.hadoop.hive.metastore.api.Partition> msParts =
         new ArrayList<org.apache.hadoop.hive.metastore.api.Partition>();
     boolean hasUnknownParts = getMSC().listPartitionsByExpr(tbl.getDbName(),
-        tbl.getTableName(), exprBytes, defaultPartitionName, (short)-1, msParts);
+        tbl.getTableName(), exprBytes, defaultPartitionName, (short)-1, fieldList, msParts);
     result.addAll(convertFromMetastore(tbl, msParts));
     return hasUnknownParts;
   }
@@ -40,6 +40,8 @@
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.Order;
+import org.apache.hadoop.hive.metastore.api.SkewedInfo;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
 import org.apache.hadoop.hive.ql.exec.Utilities;
 import org.apache.hadoop.hive.ql.io.HiveFileFormatUtils;
 import org.apache.hadoop.hive.ql.io.HiveOutputFormat;
@@ -180,6 +182,21 @@ protected void initialize(Table table,
             tPartition.getSd().setCols(table.getCols());
           }
         }
+        // set empty collections if they were not fetched, as the accessors expect them
+        StorageDescriptor sd = tPartition.getSd();
+        if (sd.getBucketCols() == null) {
+          sd.setBucketCols(new ArrayList<String>());
+        }
+        if (sd.getSortCols() == null) {
+          sd.setSortCols(new ArrayList<Order>());
+        }
+        if (sd.getParameters() == null) {
+          sd.setParameters(new HashMap<String, String>());
+        }
+        if (sd.getSkewedInfo() == null) {
+          sd.setSkewedInfo(new SkewedInfo(new ArrayList<String>(),
+              new ArrayList<List<String>>(), new HashMap<List<String>, String>()));
+        }
       } catch (MetaException e) {
         throw new HiveException("Invalid partition for table " + table.getTableName(),
             e);
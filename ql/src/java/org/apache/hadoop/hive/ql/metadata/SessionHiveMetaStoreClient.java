@@ -997,6 +997,16 @@ public List<Partition> getPartitionsByNames(String db_name, String tblName,
     return matchedParts;
   }
 
+  @Override
+  public List<Partition> getPartitionsByNames(String db_name, String tblName,
+      List<String> partNames, List<String> fieldList) throws TException {
+    if (getTempTable(db_name, tblName) == null) {
+      return super.getPartitionsByNames(db_name, tblName, partNames, fieldList);
+    }
+    // Temp table partitions are in memory, and whole
+    return getPartitionsByNames(db_name, tblName, partNames);
+  }
+
   private static TempTable getTempTable(org.apache.hadoop.hive.metastore.api.Table t) {
     String qualifiedTableName = Warehouse.
         getQualifiedName(t.getDbName().toLowerCase(), t.getTableName().toLowerCase());
@@ -28,6 +28,10 @@
 import java.util.Set;
 import java.util.Stack;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.exec.FilterOperator;
+import org.apache.hadoop.hive.ql.exec.FunctionRegistry;
 import org.apache.hadoop.hive.ql.exec.HashTableDummyOperator;
 import org.apache.hadoop.hive.ql.exec.MapJoinOperator;
 import org.apache.hadoop.hive.ql.exec.Operator;
@@ -35,16 +39,23 @@
 import org.apache.hadoop.hive.ql.exec.OperatorUtils;
 import org.apache.hadoop.hive.ql.exec.ReduceSinkOperator;
 import org.apache.hadoop.hive.ql.exec.RowSchema;
+import org.apache.hadoop.hive.ql.exec.SelectOperator;
 import org.apache.hadoop.hive.ql.exec.TableScanOperator;
 import org.apache.hadoop.hive.ql.exec.Utilities;
+import org.apache.hadoop.hive.ql.io.AcidUtils;
 import org.apache.hadoop.hive.ql.lib.Node;
 import org.apache.hadoop.hive.ql.lib.NodeProcessor;
 import org.apache.hadoop.hive.ql.lib.NodeProcessorCtx;
+import org.apache.hadoop.hive.ql.metadata.Table;
+import org.apache.hadoop.hive.ql.optimizer.signature.OpTreeSignature;
 import org.apache.hadoop.hive.ql.parse.GenTezProcContext;
 import org.apache.hadoop.hive.ql.parse.SemanticException;
 import org.apache.hadoop.hive.ql.plan.BaseWork;
 import org.apache.hadoop.hive.ql.plan.ColStatistics;
 import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDynamicListDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDynamicValueDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
 import org.apache.hadoop.hive.ql.plan.HashTableDummyDesc;
 import org.apache.hadoop.hive.ql.plan.MapJoinDesc;
 import org.apache.hadoop.hive.ql.plan.OpTraits;
@@ -227,6 +238,11 @@ public static Object processReduceSinkToHashJoin(ReduceSinkOperator parentRS, Ma
       joinConf.getParentKeyCounts().put(pos, keyCount);
     }
     joinConf.getParentDataSizes().put(pos, tableSize);
+    if (!joinConf.isBucketMapJoin() && !joinConf.isDynamicPartitionHashJoin() &&
+        HiveConf.getBoolVar(context.conf,
+            HiveConf.ConfVars.HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_HASHTABLE_SHARED)) {
+      setSharedTableKey(context, parentRS, joinConf, pos);
+    }
 
     int numBuckets = -1;
     EdgeType edgeType = EdgeType.BROADCAST_EDGE;
@@ -387,4 +403,85 @@ public static Object processReduceSinkToHashJoin(ReduceSinkOperator parentRS, Ma
 
     return true;
   }
+
+  /*
+   * Gives the small table a key for sharing its hash table across tasks when it is a plain,
+   * deterministic scan (TS-[FIL|SEL]*-RS) of a table snapshot.  The key is the signature of the
+   * operators plus the snapshot.  Only a transactional table has a snapshot identity, its valid
+   * write ids, which are known at run time, so only its hash table is shared across queries.
+   * Files of other tables can be rewritten outside Hive without changing their metadata, so their
+   * key includes the query id and their hash table is shared only by the tasks of one query.
+   */
+  private static void setSharedTableKey(GenTezProcContext context, ReduceSinkOperator parentRS,
+      MapJoinDesc joinConf, int pos) throws SemanticException {
+    ReduceSinkDesc rsDesc = parentRS.getConf();
+    List<ExprNodeDesc> exprs = new ArrayList<ExprNodeDesc>();
+    exprs.addAll(rsDesc.getKeyCols());
+    exprs.addAll(rsDesc.getValueCols());
+    Operator<?> op = parentRS;
+    while (!(op instanceof TableScanOperator)) {
+      if (op.getParentOperators() == null || op.getParentOperators().size() != 1) {
+        return;
+      }
+      op = op.getParentOperators().get(0);
+      if (op instanceof FilterOperator) {
+        exprs.add(((FilterOperator) op).getConf().getPredicate());
+      } else if (op instanceof SelectOperator) {
+        if (((SelectOperator) op).getConf().getColList() != null) {
+          exprs.addAll(((SelectOperator) op).getConf().getColList());
+        }
+      } else if (!(op instanceof TableScanOperator)) {
+        return;
+      }
+    }
+    TableScanOperator ts = (TableScanOperator) op;
+    if (ts.getConf().getFilterExpr() != null) {
+      exprs.add(ts.getConf().getFilterExpr());
+    }
+    for (ExprNodeDesc expr : exprs) {
+      if (!isSnapshotDeterministic(expr)) {
+        return;
+      }
+    }
+
+    Table table = ts.getConf().getTableMetadata();
+    if (table == null || table.isTemporary() || table.isNonNative()) {
+      return;
+    }
+    StringBuilder sb = new StringBuilder();
+    sb.append(table.getFullyQualifiedName()).append('\n');
+    if (AcidUtils.isTransactionalTable(table)) {
+      joinConf.getParentSharedTransactionalTables().put(pos, table.getFullyQualifiedName());
+    } else {
+      String queryId = context.conf.getVar(HiveConf.ConfVars.HIVEQUERYID);
+      if (queryId == null || queryId.isEmpty()) {
+        return;
+      }
+      sb.append(queryId).append('\n');
+    }
+    sb.append(OpTreeSignature.of(parentRS).toString());
+    joinConf.getParentSharedTableKeys().put(pos, DigestUtils.sha256Hex(sb.toString()));
+  }
+
+  /*
+   * Dynamic values (semijoin reduction) and dynamic partition pruning depend on other inputs of
+   * the query, so they rule out sharing just like non deterministic functions.
+   */
+  private static boolean isSnapshotDeterministic(ExprNodeDesc expr) {
+    if (expr instanceof ExprNodeDynamicValueDesc || expr instanceof ExprNodeDynamicListDesc) {
+      return false;
+    }
+    if (expr instanceof ExprNodeGenericFuncDesc &&
+        !FunctionRegistry.isDeterministic(((ExprNodeGenericFuncDesc) expr).getGenericUDF())) {
+      return false;
+    }
+    if (expr.getChildren() != null) {
+      for (ExprNodeDesc child : expr.getChildren()) {
+        if (!isSnapshotDeterministic(child)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
 }
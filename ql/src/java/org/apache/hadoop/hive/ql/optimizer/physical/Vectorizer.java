@@ -2813,27 +2813,29 @@ private boolean validatePTFOperator(PTFOperator op, VectorizationContext vContex
         return false;
       }
       WindowFrameDef windowFrameDef = evaluatorWindowFrameDefs[i];
-      if (!windowFrameDef.isStartUnbounded()) {
-        setOperatorIssue(functionName + " only UNBOUNDED start frame is supported");
-        return false;
-      }
-      switch (windowFrameDef.getWindowType()) {
-      case RANGE:
-        if (!windowFrameDef.getEnd().isCurrentRow()) {
-          setOperatorIssue(functionName + " only CURRENT ROW end frame is supported for RANGE");
+      List<ExprNodeDesc> exprNodeDescList = evaluatorInputExprNodeDescLists[i];
+      if (!isSlidingPTFEvaluator(supportedFunctionType, windowFrameDef, exprNodeDescList)) {
+        if (!windowFrameDef.isStartUnbounded()) {
+          setOperatorIssue(functionName + " only UNBOUNDED start frame is supported");
           return false;
         }
-        break;
-      case ROWS:
-        if (!windowFrameDef.isEndUnbounded()) {
-          setOperatorIssue(functionName + " UNBOUNDED end frame is not supported for ROWS window type");
-          return false;
+        switch (windowFrameDef.getWindowType()) {
+        case RANGE:
+          if (!windowFrameDef.getEnd().isCurrentRow()) {
+            setOperatorIssue(functionName + " only CURRENT ROW end frame is supported for RANGE");
+            return false;
+          }
+          break;
+        case ROWS:
+          if (!windowFrameDef.isEndUnbounded()) {
+            setOperatorIssue(functionName + " UNBOUNDED end frame is not supported for ROWS window type");
+            return false;
+          }
+          break;
+        default:
+          throw new RuntimeException("Unexpected window type " + windowFrameDef.getWindowType());
         }
-        break;
-      default:
-        throw new RuntimeException("Unexpected window type " + windowFrameDef.getWindowType());
       }
-      List<ExprNodeDesc> exprNodeDescList = evaluatorInputExprNodeDescLists[i];
       if (exprNodeDescList != null && exprNodeDescList.size() > 1) {
         setOperatorIssue("More than 1 argument expression of aggregation function " + functionName);
         return false;
@@ -2880,6 +2882,25 @@ private boolean validatePTFOperator(PTFOperator op, VectorizationContext vContex
     return true;
   }
 
+  /*
+   * Bounded sliding ROWS window frames are evaluated by sliding evaluators for some functions and
+   * argument types.  A frame that ends at n FOLLOWING reads its argument from the batches the
+   * operator forwards, where only the input columns are kept, so the argument must be a column.
+   */
+  private static boolean isSlidingPTFEvaluator(SupportedFunctionType supportedFunctionType,
+      WindowFrameDef windowFrameDef, List<ExprNodeDesc> exprNodeDescList) throws HiveException {
+    ColumnVector.Type colVecType = null;
+    if (exprNodeDescList != null && exprNodeDescList.size() == 1) {
+      if (windowFrameDef.getEnd().isFollowing() &&
+          !(exprNodeDescList.get(0) instanceof ExprNodeColumnDesc)) {
+        return false;
+      }
+      colVecType = VectorizationContext.getColumnVectorTypeFromTypeInfo(
+          exprNodeDescList.get(0).getTypeInfo());
+    }
+    return VectorPTFDesc.isSlidingEvaluator(supportedFunctionType, windowFrameDef, colVecType);
+  }
+
   private boolean validateExprNodeDesc(List<ExprNodeDesc> descs, String expressionTitle) {
     return validateExprNodeDesc(
         descs, expressionTitle, VectorExpressionDescriptor.Mode.PROJECTION, /* allowComplex */ true);
@@ -3485,6 +3506,10 @@ private boolean canSpecializeMapJoin(Operator<? extends OperatorDesc> op, MapJoi
     // physical optimizer stages...
     boolean isHybridHashJoin = desc.isHybridHashJoin();
 
+    boolean isFastHashTableHybridEnabled =
+        HiveConf.getBoolVar(hiveConf,
+            HiveConf.ConfVars.HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_HASHTABLE_HYBRID);
+
     /*
      * Populate vectorMapJoininfo.
      */
@@ -3735,6 +3760,7 @@ private boolean canSpecializeMapJoin(Operator<? extends OperatorDesc> op, MapJoi
 
     vectorDesc.setIsFastHashTableEnabled(isFastHashTableEnabled);
     vectorDesc.setIsHybridHashJoin(isHybridHashJoin);
+    vectorDesc.setIsFastHashTableHybridEnabled(isFastHashTableHybridEnabled);
 
     vectorDesc.setSupportsKeyTypes(supportsKeyTypes);
     if (!supportsKeyTypes) {
@@ -3764,10 +3790,10 @@ private boolean canSpecializeMapJoin(Operator<? extends OperatorDesc> op, MapJoi
 
     } else {
 
-      // With the fast hash table implementation, we currently do not support
-      // Hybrid Grace Hash Join.
+      // With the fast hash table implementation, Hybrid Grace Hash Join hash partitions
+      // the small table into fast hash tables (VectorMapJoinFastHybridTableContainer).
 
-      if (isHybridHashJoin) {
+      if (isHybridHashJoin && !isFastHashTableHybridEnabled) {
         result = false;
       }
     }
@@ -34,6 +34,7 @@
 import org.apache.hadoop.hive.metastore.Warehouse;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
 import org.apache.hadoop.hive.ql.exec.ExprNodeEvaluator;
 import org.apache.hadoop.hive.ql.exec.FunctionRegistry;
 import org.apache.hadoop.hive.ql.exec.TableScanOperator;
@@ -448,7 +449,7 @@ private static PrunedPartitionList getPartitionsFromServer(Table tab, final Stri
         perfLogger.PerfLogBegin(CLASS_NAME, PerfLogger.PARTITION_RETRIEVING);
         try {
           hasUnknownPartitions = Hive.get().getPartitionsByExpr(
-              tab, compactExpr, conf, partitions);
+              tab, compactExpr, conf, getPartitionFields(tab), partitions);
         } catch (IMetaStoreClient.IncompatibleMetastoreException ime) {
           // TODO: backward compat for Hive <= 0.12. Can be removed later.
           LOG.warn("Metastore doesn't support getPartitionsByExpr", ime);
@@ -510,12 +511,56 @@ static private boolean pruneBySequentialScan(Table tab, List<Partition> partitio
 
     perfLogger.PerfLogBegin(CLASS_NAME, PerfLogger.PARTITION_RETRIEVING);
     if (!partNames.isEmpty()) {
-      partitions.addAll(Hive.get().getPartitionsByNames(tab, partNames));
+      partitions.addAll(Hive.get().getPartitionsByNames(tab, partNames, getPartitionFields(tab)));
     }
     perfLogger.PerfLogEnd(CLASS_NAME, PerfLogger.PARTITION_RETRIEVING);
     return hasUnknownPartitions;
   }
 
+  /**
+   * The fields of the metastore partitions the planner uses.  It never uses the parameters of
+   * their storage descriptors, and it uses their skewed info and bucketing and sorting columns
+   * only for tables that have them.  The metastore does not query the fields left out, and
+   * {@link Partition} sets them to empty.
+   */
+  @VisibleForTesting
+  static List<String> getPartitionFields(Table tab) {
+    boolean isSkewed = !tab.getSkewedColNames().isEmpty();
+    boolean isBucketed = tab.getNumBuckets() > 0
+        || (tab.getBucketCols() != null && !tab.getBucketCols().isEmpty())
+        || (tab.getSortCols() != null && !tab.getSortCols().isEmpty());
+    List<String> fields = new ArrayList<String>();
+    for (org.apache.hadoop.hive.metastore.api.Partition._Fields field :
+        org.apache.hadoop.hive.metastore.api.Partition._Fields.values()) {
+      if (field != org.apache.hadoop.hive.metastore.api.Partition._Fields.SD) {
+        fields.add(field.getFieldName());
+      }
+    }
+    String sdPrefix =
+        org.apache.hadoop.hive.metastore.api.Partition._Fields.SD.getFieldName() + ".";
+    for (StorageDescriptor._Fields field : StorageDescriptor._Fields.values()) {
+      switch (field) {
+      case PARAMETERS:
+        continue;
+      case SKEWED_INFO:
+        if (!isSkewed) {
+          continue;
+        }
+        break;
+      case BUCKET_COLS:
+      case SORT_COLS:
+        if (!isBucketed) {
+          continue;
+        }
+        break;
+      default:
+        break;
+      }
+      fields.add(sdPrefix + field.getFieldName());
+    }
+    return fields;
+  }
+
   private static List<String> extractPartColNames(Table tab) {
     List<FieldSchema> pCols = tab.getPartCols();
     List<String> partCols = new ArrayList<String>(pCols.size());
@@ -125,9 +125,9 @@ public void compile(final ParseContext pCtx,
       }
       pCtx.getFetchTask().getWork().setHiveServerQuery(SessionState.get().isHiveServerQuery());
       TableDesc resultTab = pCtx.getFetchTask().getTblDesc();
-      // If the serializer is ThriftJDBCBinarySerDe, then it requires that NoOpFetchFormatter be used. But when it isn't,
+      // If the serializer is ThriftJDBCBinarySerDe or ArrowJDBCBinarySerDe, then it requires that NoOpFetchFormatter be used. But when it isn't,
       // then either the ThriftFormatter or the DefaultFetchFormatter should be used.
-      if (!resultTab.getSerdeClassName().equalsIgnoreCase(ThriftJDBCBinarySerDe.class.getName())) {
+      if (!PlanUtils.isJDBCBinarySerDe(resultTab.getSerdeClassName())) {
         if (SessionState.get().isHiveServerQuery()) {
           conf.set(SerDeUtils.LIST_SINK_OUTPUT_FORMATTER,ThriftFormatter.class.getName());
         } else {
@@ -166,7 +166,7 @@ public void compile(final ParseContext pCtx,
             && (resFileFormat.equalsIgnoreCase("SequenceFile"))) {
           resultTab =
               PlanUtils.getDefaultQueryOutputTableDesc(cols, colTypes, resFileFormat,
-                  ThriftJDBCBinarySerDe.class);
+                  PlanUtils.getJDBCBinarySerDe(SessionState.get()));
           // Set the fetch formatter to be a no-op for the ListSinkOperator, since we'll
           // read formatted thrift objects from the output SequenceFile written by Tasks.
           conf.set(SerDeUtils.LIST_SINK_OUTPUT_FORMATTER, NoOpFetchFormatter.class.getName());
@@ -176,8 +176,8 @@ public void compile(final ParseContext pCtx,
                   LazySimpleSerDe.class);
         }
       } else {
-        if (resultTab.getProperties().getProperty(serdeConstants.SERIALIZATION_LIB)
-            .equalsIgnoreCase(ThriftJDBCBinarySerDe.class.getName())) {
+        if (PlanUtils.isJDBCBinarySerDe(
+            resultTab.getProperties().getProperty(serdeConstants.SERIALIZATION_LIB))) {
           // Set the fetch formatter to be a no-op for the ListSinkOperator, since we'll
           // read formatted thrift objects from the output SequenceFile written by Tasks.
           conf.set(SerDeUtils.LIST_SINK_OUTPUT_FORMATTER, NoOpFetchFormatter.class.getName());
@@ -191,7 +191,7 @@ public void compile(final ParseContext pCtx,
       fetch.setSink(pCtx.getFetchSink());
       if (isHiveServerQuery &&
         null != resultTab &&
-        resultTab.getSerdeClassName().equalsIgnoreCase(ThriftJDBCBinarySerDe.class.getName()) &&
+        PlanUtils.isJDBCBinarySerDe(resultTab.getSerdeClassName()) &&
         HiveConf.getBoolVar(conf, HiveConf.ConfVars.HIVE_SERVER2_THRIFT_RESULTSET_SERIALIZE_IN_TASKS)) {
           fetch.setIsUsingThriftJDBCBinarySerDe(true);
       } else {
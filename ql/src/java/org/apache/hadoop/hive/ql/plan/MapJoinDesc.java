@@ -63,6 +63,10 @@ public class MapJoinDesc extends JoinDesc implements Serializable {
   private Map<Integer, String> parentToInput = new HashMap<Integer, String>();
   private Map<Integer, Long> parentKeyCounts = new HashMap<Integer, Long>();
   private Map<Integer, Long> parentDataSizes = new HashMap<Integer, Long>();
+  // small table position --> key of the table snapshot the small table is a plain scan of
+  private Map<Integer, String> parentSharedTableKeys = new HashMap<Integer, String>();
+  // small table position --> transactional table whose valid write ids complete the shared key
+  private Map<Integer, String> parentSharedTransactionalTables = new HashMap<Integer, String>();
 
   // table alias (small) --> input file name (big) --> target file names (small)
   private Map<String, Map<String, List<String>>> aliasBucketFileNameMapping;
@@ -102,6 +106,8 @@ public MapJoinDesc(MapJoinDesc clone) {
     this.parentToInput = clone.parentToInput;
     this.parentKeyCounts = clone.parentKeyCounts;
     this.parentDataSizes = clone.parentDataSizes;
+    this.parentSharedTableKeys = clone.parentSharedTableKeys;
+    this.parentSharedTransactionalTables = clone.parentSharedTransactionalTables;
     this.isBucketMapJoin = clone.isBucketMapJoin;
     this.isHybridHashJoin = clone.isHybridHashJoin;
   }
@@ -155,6 +161,32 @@ public Map<Integer, Long> getParentDataSizes() {
     return parentDataSizes;
   }
 
+  /**
+   * @return the keys of the small tables whose hash tables may be shared across tasks and
+   *         queries, by small table position.  A small table has a key when it is a plain scan
+   *         of a table snapshot, so equal keys mean equal small table rows.
+   */
+  public Map<Integer, String> getParentSharedTableKeys() {
+    return parentSharedTableKeys;
+  }
+
+  public void setParentSharedTableKeys(Map<Integer, String> parentSharedTableKeys) {
+    this.parentSharedTableKeys = parentSharedTableKeys;
+  }
+
+  /**
+   * @return the transactional tables of the shared small tables, their snapshot is the valid
+   *         write ids of the query which are only known at run time.
+   */
+  public Map<Integer, String> getParentSharedTransactionalTables() {
+    return parentSharedTransactionalTables;
+  }
+
+  public void setParentSharedTransactionalTables(
+      Map<Integer, String> parentSharedTransactionalTables) {
+    this.parentSharedTransactionalTables = parentSharedTransactionalTables;
+  }
+
   @Explain(displayName = "Estimated key counts", explainLevels = { Level.EXTENDED })
   public String getKeyCountsExplainDesc() {
     StringBuilder result = null;
@@ -452,10 +484,17 @@ private VectorizationCondition[] createNativeConditions() {
       }
 
       if (isFastHashTableEnabled) {
-        conditionList.add(
-            new VectorizationCondition(
-                !vectorMapJoinDesc.getIsHybridHashJoin(),
-                "Fast Hash Table and No Hybrid Hash Join"));
+        if (vectorMapJoinDesc.getIsHybridHashJoin()) {
+          conditionList.add(
+              new VectorizationCondition(
+                  vectorMapJoinDesc.getIsFastHashTableHybridEnabled(),
+                  HiveConf.ConfVars.HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_HASHTABLE_HYBRID.varname));
+        } else {
+          conditionList.add(
+              new VectorizationCondition(
+                  true,
+                  "Fast Hash Table and No Hybrid Hash Join"));
+        }
       } else {
         conditionList.add(
             new VectorizationCondition(
@@ -68,6 +68,8 @@
 import org.apache.hadoop.hive.serde2.lazy.LazySerDeParameters;
 import org.apache.hadoop.hive.serde2.lazy.LazySimpleSerDe;
 import org.apache.hadoop.hive.serde2.lazybinary.LazyBinarySerDe;
+import org.apache.hadoop.hive.serde2.thrift.ArrowJDBCBinarySerDe;
+import org.apache.hadoop.hive.serde2.thrift.ThriftJDBCBinarySerDe;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
 import org.apache.hadoop.mapred.InputFormat;
@@ -295,6 +297,24 @@ public static TableDesc getTableDesc(
     return new TableDesc(inputFormat, outputFormat, properties);
   }
 
+  /**
+   * The SerDe the final results of the session are serialized with in tasks, when
+   * HIVE_SERVER2_THRIFT_RESULTSET_SERIALIZE_IN_TASKS is set.
+   */
+  public static Class<? extends Deserializer> getJDBCBinarySerDe(SessionState ss) {
+    return ss.getIsUsingArrowJDBCBinarySerDe() ?
+        ArrowJDBCBinarySerDe.class : ThriftJDBCBinarySerDe.class;
+  }
+
+  /**
+   * Whether the SerDe serializes the final results in tasks to a blob that is sent to the
+   * JDBC client as is.
+   */
+  public static boolean isJDBCBinarySerDe(String serdeClassName) {
+    return serdeClassName.equalsIgnoreCase(ThriftJDBCBinarySerDe.class.getName()) ||
+        serdeClassName.equalsIgnoreCase(ArrowJDBCBinarySerDe.class.getName());
+  }
+
   public static TableDesc getDefaultQueryOutputTableDesc(String cols, String colTypes,
       String fileFormat, Class<? extends Deserializer> serdeClass) {
     TableDesc tblDesc =
@@ -202,6 +202,7 @@ public VectorMapJoinInfo getVectorMapJoinInfo() {
   private boolean hasNullSafes;
   private boolean isFastHashTableEnabled;
   private boolean isHybridHashJoin;
+  private boolean isFastHashTableHybridEnabled;
   private boolean supportsKeyTypes;
   private List<String> notSupportedKeyTypes;
   private boolean smallTableExprVectorizes;
@@ -274,5 +275,11 @@ public void setIsHybridHashJoin(boolean isHybridHashJoin) {
   public boolean getIsHybridHashJoin() {
     return isHybridHashJoin;
   }
+  public void setIsFastHashTableHybridEnabled(boolean isFastHashTableHybridEnabled) {
+    this.isFastHashTableHybridEnabled = isFastHashTableHybridEnabled;
+  }
+  public boolean getIsFastHashTableHybridEnabled() {
+    return isFastHashTableHybridEnabled;
+  }
 
 }
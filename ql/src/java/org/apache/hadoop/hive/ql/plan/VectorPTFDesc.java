@@ -41,15 +41,25 @@
 import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorDoubleLastValue;
 import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorDoubleMax;
 import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorDoubleMin;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorDoubleSlidingAvg;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorDoubleSlidingMax;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorDoubleSlidingMin;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorDoubleSlidingSum;
 import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorDoubleSum;
 import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorLongAvg;
 import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorLongFirstValue;
 import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorLongLastValue;
 import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorLongMax;
 import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorLongMin;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorLongSlidingAvg;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorLongSlidingMax;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorLongSlidingMin;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorLongSlidingSum;
 import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorLongSum;
 import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorRank;
 import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorRowNumber;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorSlidingBase;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorSlidingCount;
 import org.apache.hadoop.hive.ql.plan.ptf.WindowFrameDef;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
 
@@ -133,11 +143,68 @@ public VectorPTFDesc() {
 
   }
 
+  /**
+   * @return whether the function over the window frame is evaluated by a sliding evaluator, i.e.
+   *     a sum, avg, min, max or count of a long or double column over a bounded sliding ROWS
+   *     window frame
+   */
+  public static boolean isSlidingEvaluator(SupportedFunctionType functionType,
+      WindowFrameDef windowFrameDef, Type columnVectorType) {
+    if (!VectorPTFEvaluatorSlidingBase.isSlidingWindowFrame(windowFrameDef)) {
+      return false;
+    }
+    switch (functionType) {
+    case COUNT:
+      return true;
+    case MIN:
+    case MAX:
+    case SUM:
+    case AVG:
+      return columnVectorType == Type.LONG || columnVectorType == Type.DOUBLE;
+    default:
+      return false;
+    }
+  }
+
+  private static VectorPTFEvaluatorBase getSlidingEvaluator(SupportedFunctionType functionType,
+      WindowFrameDef windowFrameDef, Type columnVectorType, VectorExpression inputVectorExpression,
+      int outputColumnNum) {
+
+    final boolean isLong = (columnVectorType == Type.LONG);
+    switch (functionType) {
+    case MIN:
+      return isLong ?
+          new VectorPTFEvaluatorLongSlidingMin(windowFrameDef, inputVectorExpression, outputColumnNum) :
+          new VectorPTFEvaluatorDoubleSlidingMin(windowFrameDef, inputVectorExpression, outputColumnNum);
+    case MAX:
+      return isLong ?
+          new VectorPTFEvaluatorLongSlidingMax(windowFrameDef, inputVectorExpression, outputColumnNum) :
+          new VectorPTFEvaluatorDoubleSlidingMax(windowFrameDef, inputVectorExpression, outputColumnNum);
+    case SUM:
+      return isLong ?
+          new VectorPTFEvaluatorLongSlidingSum(windowFrameDef, inputVectorExpression, outputColumnNum) :
+          new VectorPTFEvaluatorDoubleSlidingSum(windowFrameDef, inputVectorExpression, outputColumnNum);
+    case AVG:
+      return isLong ?
+          new VectorPTFEvaluatorLongSlidingAvg(windowFrameDef, inputVectorExpression, outputColumnNum) :
+          new VectorPTFEvaluatorDoubleSlidingAvg(windowFrameDef, inputVectorExpression, outputColumnNum);
+    case COUNT:
+      return new VectorPTFEvaluatorSlidingCount(windowFrameDef, inputVectorExpression, outputColumnNum);
+    default:
+      throw new RuntimeException("Unexpected sliding function type " + functionType);
+    }
+  }
+
   // We provide this public method to help EXPLAIN VECTORIZATION show the evaluator classes.
   public static VectorPTFEvaluatorBase getEvaluator(SupportedFunctionType functionType,
       WindowFrameDef windowFrameDef, Type columnVectorType, VectorExpression inputVectorExpression,
       int outputColumnNum) {
 
+    if (isSlidingEvaluator(functionType, windowFrameDef, columnVectorType)) {
+      return getSlidingEvaluator(functionType, windowFrameDef, columnVectorType,
+          inputVectorExpression, outputColumnNum);
+    }
+
     VectorPTFEvaluatorBase evaluator;
     switch (functionType) {
     case ROW_NUMBER:
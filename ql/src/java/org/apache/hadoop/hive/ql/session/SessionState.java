@@ -167,6 +167,12 @@ public class SessionState {
    */
   private boolean isUsingThriftJDBCBinarySerDe = false;
 
+  /**
+   * The flag to indicate if the session using arrow jdbc binary serde in place of thrift jdbc
+   * binary serde or not.
+   */
+  private boolean isUsingArrowJDBCBinarySerDe = false;
+
   /**
    * The flag to indicate if the session already started so we can skip the init
    */
@@ -383,6 +389,14 @@ public boolean getIsUsingThriftJDBCBinarySerDe() {
 	return isUsingThriftJDBCBinarySerDe;
   }
 
+  public void setIsUsingArrowJDBCBinarySerDe(boolean isUsingArrowJDBCBinarySerDe) {
+    this.isUsingArrowJDBCBinarySerDe = isUsingArrowJDBCBinarySerDe;
+  }
+
+  public boolean getIsUsingArrowJDBCBinarySerDe() {
+    return isUsingArrowJDBCBinarySerDe;
+  }
+
   public void setIsHiveServerQuery(boolean isHiveServerQuery) {
     this.isHiveServerQuery = isHiveServerQuery;
   }
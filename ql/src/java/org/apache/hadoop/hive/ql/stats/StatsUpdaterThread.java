@@ -19,6 +19,7 @@
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -74,6 +75,9 @@ public class StatsUpdaterThread extends Thread implements MetaStoreThread {
 
   private RawStore rs;
   private TxnStore txnHandler;
+  /** The only partition fields the stats update check needs. */
+  private static final List<String> PARTITION_FIELDS = Arrays.asList(
+      Partition._Fields.VALUES.getFieldName(), Partition._Fields.PARAMETERS.getFieldName());
   /** Full tables, and partitions that currently have analyze commands queued or in progress. */
   private ConcurrentHashMap<FullTableName, Boolean> tablesInProgress = new ConcurrentHashMap<>();
   private ConcurrentHashMap<String, Boolean> partsInProgress = new ConcurrentHashMap<>();
@@ -293,7 +297,7 @@ private List<String> findPartitionsToAnalyze(FullTableName fullTableName, String
         currentBatchStart = nextBatchStart;
         nextBatchStart = nextBatchEnd;
         try {
-          currentBatch = rs.getPartitionsByNames(cat, db, tbl, currentNames);
+          currentBatch = rs.getPartitionsByNames(cat, db, tbl, currentNames, PARTITION_FIELDS);
         } catch (NoSuchObjectException e) {
           LOG.error("Failed to get partitions for " + fullTableName + ", skipping some partitions", e);
           currentBatch = null;
@@ -341,6 +341,222 @@ public void remove() {
     assertTrue(0 < outputRowCount);
   }
 
+  @Test
+  public void testBypassAndResumeHashMode() throws HiveException {
+
+    List<String> mapColumnNames = new ArrayList<String>();
+    mapColumnNames.add("Key");
+    mapColumnNames.add("Value");
+    VectorizationContext ctx = new VectorizationContext("name", mapColumnNames);
+
+    Pair<GroupByDesc,VectorGroupByDesc> pair = buildKeyGroupByDesc (ctx, "max",
+        "Value", TypeInfoFactory.longTypeInfo,
+        "Key", TypeInfoFactory.longTypeInfo);
+    GroupByDesc desc = pair.fst;
+    VectorGroupByDesc vectorDesc = pair.snd;
+
+    CompilationOpContext cCtx = new CompilationOpContext();
+
+    Operator<? extends OperatorDesc> groupByOp = OperatorFactory.get(cCtx, desc);
+
+    VectorGroupByOperator vgo =
+        (VectorGroupByOperator) Vectorizer.vectorizeGroupByOperator(groupByOp, ctx, vectorDesc);
+
+    FakeCaptureVectorToRowOutputOperator out = FakeCaptureVectorToRowOutputOperator.addCaptureOutputChild(cCtx, vgo);
+
+    // Check the reduction every 1000 rows and retry hash aggregation after 5000 bypassed rows.
+    HiveConf bypassConf = new HiveConf(hconf);
+    HiveConf.setIntVar(bypassConf, HiveConf.ConfVars.HIVEGROUPBYMAPINTERVAL, 1000);
+    HiveConf.setFloatVar(bypassConf, HiveConf.ConfVars.HIVEMAPAGGRHASHMINREDUCTION, 0.5f);
+    HiveConf.setBoolVar(bypassConf, HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_BYPASS_ENABLED,
+        true);
+    HiveConf.setIntVar(bypassConf,
+        HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_BYPASS_RECHECK_ROWS, 5000);
+    vgo.initialize(bypassConf, null);
+
+    final Map<Long, Long> maxByKey = new HashMap<Long, Long>();
+    this.outputRowCount = 0;
+    out.setOutputInspector(new FakeCaptureVectorToRowOutputOperator.OutputInspector() {
+      @Override
+      public void inspectRow(Object row, int tag) throws HiveException {
+        ++outputRowCount;
+        Object[] fields = (Object[]) row;
+        long key = ((LongWritable) fields[0]).get();
+        long value = ((LongWritable) fields[1]).get();
+        Long max = maxByKey.get(key);
+        if (max == null || max < value) {
+          maxByKey.put(key, value);
+        }
+      }
+    });
+
+    // 10000 unique keys, then 40000 rows over 10 keys.
+    final int uniqueRows = 10000;
+    final int totalRows = 50000;
+    Iterable<Object> it = new Iterable<Object>() {
+      @Override
+      public Iterator<Object> iterator() {
+        return new Iterator<Object> () {
+          long row = 0;
+
+          @Override
+          public boolean hasNext() {
+            return row < totalRows;
+          }
+
+          @Override
+          public Object next() {
+            long value = (row < uniqueRows ? row : row % 10);
+            ++row;
+            return value;
+          }
+
+          @Override
+          public void remove() {
+          }
+        };
+      }
+    };
+
+    FakeVectorRowBatchFromObjectIterables data = new FakeVectorRowBatchFromObjectIterables(
+        100,
+        new String[] {"long", "long"},
+        it,
+        it);
+
+    for (VectorizedRowBatch unit: data) {
+      vgo.process(unit,  0);
+    }
+    vgo.close(false);
+
+    assertEquals(uniqueRows, maxByKey.size());
+    for (long key = 0; key < uniqueRows; key++) {
+      assertEquals(Long.valueOf(key), maxByKey.get(key));
+    }
+    // Hash aggregation must have been resumed for the low cardinality rows.
+    assertTrue(outputRowCount < uniqueRows + (totalRows - uniqueRows) / 2);
+  }
+
+  @Test
+  public void testSpillHashPartitions() throws HiveException {
+
+    List<String> mapColumnNames = new ArrayList<String>();
+    mapColumnNames.add("Key");
+    mapColumnNames.add("Value");
+    List<TypeInfo> mapTypeInfos = new ArrayList<TypeInfo>();
+    mapTypeInfos.add(TypeInfoFactory.longTypeInfo);
+    mapTypeInfos.add(TypeInfoFactory.longTypeInfo);
+    VectorizationContext ctx = new VectorizationContext("name", mapColumnNames, mapTypeInfos,
+        null, null);
+
+    Pair<GroupByDesc,VectorGroupByDesc> pair = buildKeyGroupByDesc (ctx, "sum",
+        "Value", TypeInfoFactory.longTypeInfo,
+        "Key", TypeInfoFactory.longTypeInfo);
+    GroupByDesc desc = pair.fst;
+    VectorGroupByDesc vectorDesc = pair.snd;
+
+    CompilationOpContext cCtx = new CompilationOpContext();
+
+    Operator<? extends OperatorDesc> groupByOp = OperatorFactory.get(cCtx, desc);
+
+    VectorGroupByOperator vgo =
+        (VectorGroupByOperator) Vectorizer.vectorizeGroupByOperator(groupByOp, ctx, vectorDesc);
+
+    FakeCaptureVectorToRowOutputOperator out = FakeCaptureVectorToRowOutputOperator.addCaptureOutputChild(cCtx, vgo);
+
+    // At most 100 groups fit in memory, the hash table never becomes inefficient.
+    HiveConf spillConf = new HiveConf(hconf);
+    HiveConf.setIntVar(spillConf, HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_MAXENTRIES, 100);
+    HiveConf.setFloatVar(spillConf, HiveConf.ConfVars.HIVEMAPAGGRHASHMINREDUCTION, 1.0f);
+    HiveConf.setBoolVar(spillConf, HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_SPILL_ENABLED,
+        true);
+    HiveConf.setIntVar(spillConf, HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_SPILL_PARTITIONS,
+        16);
+    vgo.initialize(spillConf, null);
+
+    final Map<Long, Long> sumByKey = new HashMap<Long, Long>();
+    this.outputRowCount = 0;
+    out.setOutputInspector(new FakeCaptureVectorToRowOutputOperator.OutputInspector() {
+      @Override
+      public void inspectRow(Object row, int tag) throws HiveException {
+        ++outputRowCount;
+        Object[] fields = (Object[]) row;
+        long key = ((LongWritable) fields[0]).get();
+        long value = ((LongWritable) fields[1]).get();
+        Long sum = sumByKey.get(key);
+        sumByKey.put(key, (sum == null ? 0 : sum) + value);
+      }
+    });
+
+    // 1000 keys, each one seen 20 times.
+    final int keyCount = 1000;
+    final int totalRows = 20000;
+    Iterable<Object> keys = new Iterable<Object>() {
+      @Override
+      public Iterator<Object> iterator() {
+        return new Iterator<Object> () {
+          long row = 0;
+
+          @Override
+          public boolean hasNext() {
+            return row < totalRows;
+          }
+
+          @Override
+          public Object next() {
+            return row++ % keyCount;
+          }
+
+          @Override
+          public void remove() {
+          }
+        };
+      }
+    };
+    Iterable<Object> values = new Iterable<Object>() {
+      @Override
+      public Iterator<Object> iterator() {
+        return new Iterator<Object> () {
+          long row = 0;
+
+          @Override
+          public boolean hasNext() {
+            return row < totalRows;
+          }
+
+          @Override
+          public Object next() {
+            ++row;
+            return 1L;
+          }
+
+          @Override
+          public void remove() {
+          }
+        };
+      }
+    };
+
+    FakeVectorRowBatchFromObjectIterables data = new FakeVectorRowBatchFromObjectIterables(
+        100,
+        new String[] {"long", "long"},
+        keys,
+        values);
+
+    for (VectorizedRowBatch unit: data) {
+      vgo.process(unit,  0);
+    }
+    vgo.close(false);
+
+    assertEquals(keyCount, sumByKey.size());
+    for (long key = 0; key < keyCount; key++) {
+      assertEquals(Long.valueOf(totalRows / keyCount), sumByKey.get(key));
+    }
+    // Every group is emitted at most twice: when its partition spills and at close.
+    assertTrue(outputRowCount <= 2 * keyCount);
+    assertTrue(vgo.getStats().get(VectorGroupByOperator.SpillCounter.SPILLED_ROWS.toString()) > 0);
+  }
+
   @Test
   public void testMultiKeyIntStringInt() throws HiveException {
     testMultiKey(
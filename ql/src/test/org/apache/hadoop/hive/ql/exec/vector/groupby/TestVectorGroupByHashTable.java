@@ -0,0 +1,386 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.groupby;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorAggregationBufferRow;
+import org.apache.hadoop.hive.ql.exec.vector.VectorAggregationDesc;
+import org.apache.hadoop.hive.ql.exec.vector.VectorHashKeyWrapper;
+import org.apache.hadoop.hive.ql.exec.vector.VectorHashKeyWrapperBatch;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.IdentityExpression;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpression;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.VectorAggregateExpression;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.VectorUDAFCountStar;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.gen.VectorUDAFMaxLong;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.gen.VectorUDAFSumLong;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.plan.AggregationDesc;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFCount;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFEvaluator;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFMax;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFSum;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
+import org.junit.Test;
+
+/**
+ * Unit test for the vectorized GROUP BY hash tables.
+ */
+public class TestVectorGroupByHashTable {
+
+  private static final int KEY_COUNT = 5000;
+
+  private static VectorHashKeyWrapperBatch compile(TypeInfo... typeInfos) throws HiveException {
+    VectorExpression[] keyExpressions = new VectorExpression[typeInfos.length];
+    for (int i = 0; i < typeInfos.length; i++) {
+      keyExpressions[i] = new IdentityExpression(i);
+    }
+    return VectorHashKeyWrapperBatch.compileKeyWrapperBatch(keyExpressions, typeInfos);
+  }
+
+  private static VectorAggregationBufferRow newRow() {
+    return new VectorAggregationBufferRow(new VectorAggregateExpression.AggregationBuffer[0]);
+  }
+
+  /*
+   * Probes the table with the evaluated key wrappers of a batch, adding the missing keys.
+   */
+  private static void probe(VectorGroupByHashTable table, VectorHashKeyWrapperBatch kwb,
+      VectorizedRowBatch batch, Map<String, VectorAggregationBufferRow> expected,
+      String[] keyStrings) throws HiveException {
+    kwb.evaluateBatch(batch);
+    VectorHashKeyWrapper[] keyWrappers = kwb.getVectorHashKeyWrappers();
+    for (int i = 0; i < batch.size; i++) {
+      VectorAggregationBufferRow row = table.get(keyWrappers[i]);
+      VectorAggregationBufferRow expectedRow = expected.get(keyStrings[i]);
+      if (expectedRow == null) {
+        assertNull(row);
+        row = newRow();
+        table.add(keyWrappers[i], row);
+        expected.put(keyStrings[i], row);
+      } else {
+        assertSame(expectedRow, row);
+      }
+    }
+  }
+
+  private static Map<String, VectorAggregationBufferRow> flush(final VectorGroupByHashTable table,
+      final VectorHashKeyWrapperBatch kwb, int maxEntries) throws HiveException {
+    final Map<String, VectorAggregationBufferRow> flushed =
+        new HashMap<String, VectorAggregationBufferRow>();
+    table.flush(maxEntries, new VectorGroupByHashTable.FlushProcessor() {
+      @Override
+      public void process(VectorHashKeyWrapper kw, int entry) throws HiveException {
+        String key;
+        if (kw.isNull(0)) {
+          key = "NULL";
+        } else if (kwb.getColumnVectorType(0) == ColumnVector.Type.LONG) {
+          key = Long.toString(kw.getLongValue(0));
+        } else {
+          key = new String(kw.getBytes(0), kw.getByteStart(0), kw.getByteLength(0),
+              StandardCharsets.UTF_8);
+        }
+        assertNull(flushed.put(key, table.getAggregationBuffer(entry)));
+      }
+    });
+    return flushed;
+  }
+
+  @Test
+  public void testLongKey() throws HiveException {
+    VectorHashKeyWrapperBatch kwb = compile(TypeInfoFactory.longTypeInfo);
+    VectorGroupByHashTable table = VectorGroupByHashTable.create(kwb, 4, 0.75f, 1024, null);
+    assertTrue(table instanceof VectorGroupByLongKeyHashTable);
+
+    Map<String, VectorAggregationBufferRow> expected =
+        new HashMap<String, VectorAggregationBufferRow>();
+    VectorizedRowBatch batch = new VectorizedRowBatch(1);
+    LongColumnVector col = new LongColumnVector();
+    batch.cols[0] = col;
+    String[] keyStrings = new String[VectorizedRowBatch.DEFAULT_SIZE];
+
+    // Every key is seen twice, NULL is a key too.
+    for (int pass = 0; pass < 2; pass++) {
+      for (int start = 0; start < KEY_COUNT; start += VectorizedRowBatch.DEFAULT_SIZE) {
+        batch.size = Math.min(VectorizedRowBatch.DEFAULT_SIZE, KEY_COUNT - start);
+        col.reset();
+        col.noNulls = false;
+        for (int i = 0; i < batch.size; i++) {
+          long key = (start + i) * 7919L - 100000L;
+          if (start + i == 17) {
+            col.isNull[i] = true;
+            keyStrings[i] = "NULL";
+          } else {
+            col.vector[i] = key;
+            keyStrings[i] = Long.toString(key);
+          }
+        }
+        probe(table, kwb, batch, expected, keyStrings);
+      }
+    }
+    assertEquals(KEY_COUNT, table.size());
+
+    // Flush some of the groups; the others must still be found.
+    Map<String, VectorAggregationBufferRow> flushed = flush(table, kwb, 1000);
+    assertEquals(1000, flushed.size());
+    assertEquals(KEY_COUNT - 1000, table.size());
+    Map<String, VectorAggregationBufferRow> remaining = flush(table, kwb, Integer.MAX_VALUE);
+    assertEquals(KEY_COUNT - 1000, remaining.size());
+    assertEquals(0, table.size());
+
+    remaining.putAll(flushed);
+    assertEquals(expected, remaining);
+  }
+
+  @Test
+  public void testStringKey() throws HiveException {
+    VectorHashKeyWrapperBatch kwb = compile(TypeInfoFactory.stringTypeInfo);
+    VectorGroupByHashTable table = VectorGroupByHashTable.create(kwb, 4, 0.75f, 1024, null);
+    assertTrue(table instanceof VectorGroupByBytesKeyHashTable);
+
+    Map<String, VectorAggregationBufferRow> expected =
+        new HashMap<String, VectorAggregationBufferRow>();
+    VectorizedRowBatch batch = new VectorizedRowBatch(1);
+    BytesColumnVector col = new BytesColumnVector();
+    batch.cols[0] = col;
+    String[] keyStrings = new String[VectorizedRowBatch.DEFAULT_SIZE];
+
+    for (int pass = 0; pass < 2; pass++) {
+      for (int start = 0; start < KEY_COUNT; start += VectorizedRowBatch.DEFAULT_SIZE) {
+        batch.size = Math.min(VectorizedRowBatch.DEFAULT_SIZE, KEY_COUNT - start);
+        col.reset();
+        col.initBuffer();
+        col.noNulls = false;
+        for (int i = 0; i < batch.size; i++) {
+          if (start + i == 3) {
+            col.isNull[i] = true;
+            keyStrings[i] = "NULL";
+          } else {
+            // Includes the empty string.
+            keyStrings[i] = (start + i == 0 ? "" : "key-" + (start + i));
+            byte[] bytes = keyStrings[i].getBytes(StandardCharsets.UTF_8);
+            col.setVal(i, bytes, 0, bytes.length);
+          }
+        }
+        probe(table, kwb, batch, expected, keyStrings);
+      }
+    }
+    assertEquals(KEY_COUNT, table.size());
+
+    Map<String, VectorAggregationBufferRow> flushed = flush(table, kwb, 2500);
+    assertEquals(2500, flushed.size());
+
+    // The surviving keys were moved to a new key store and must still be found.
+    for (int pass = 0; pass < 2; pass++) {
+      batch.size = 1;
+      col.reset();
+      col.initBuffer();
+      byte[] bytes = ("key-" + (KEY_COUNT - 1)).getBytes(StandardCharsets.UTF_8);
+      col.setVal(0, bytes, 0, bytes.length);
+      kwb.evaluateBatch(batch);
+      assertNotNull(table.get(kwb.getVectorHashKeyWrappers()[0]));
+    }
+
+    Map<String, VectorAggregationBufferRow> remaining = flush(table, kwb, Integer.MAX_VALUE);
+    remaining.putAll(flushed);
+    assertEquals(expected, remaining);
+  }
+
+  @Test
+  public void testMultiKey() throws HiveException {
+    VectorHashKeyWrapperBatch kwb =
+        compile(TypeInfoFactory.longTypeInfo, TypeInfoFactory.stringTypeInfo);
+    VectorGroupByHashTable table = VectorGroupByHashTable.create(kwb, 4, 0.75f, 1024, null);
+    assertTrue(table instanceof VectorGroupByKeyWrapperHashTable);
+
+    VectorizedRowBatch batch = new VectorizedRowBatch(2);
+    LongColumnVector col0 = new LongColumnVector();
+    BytesColumnVector col1 = new BytesColumnVector();
+    batch.cols[0] = col0;
+    batch.cols[1] = col1;
+    batch.size = VectorizedRowBatch.DEFAULT_SIZE;
+    col0.noNulls = false;
+    col1.initBuffer();
+    Set<String> expected = new HashSet<String>();
+    for (int i = 0; i < batch.size; i++) {
+      String key1 = "s" + (i / 10);
+      byte[] bytes = key1.getBytes(StandardCharsets.UTF_8);
+      col1.setVal(i, bytes, 0, bytes.length);
+      if (i % 7 == 0) {
+        col0.isNull[i] = true;
+        expected.add("NULL|" + key1);
+      } else {
+        col0.vector[i] = i % 10;
+        expected.add((i % 10) + "|" + key1);
+      }
+    }
+    kwb.evaluateBatch(batch);
+    VectorHashKeyWrapper[] keyWrappers = kwb.getVectorHashKeyWrappers();
+    for (int i = 0; i < batch.size; i++) {
+      if (table.get(keyWrappers[i]) == null) {
+        table.add(keyWrappers[i], newRow());
+      }
+    }
+    for (int i = 0; i < batch.size; i++) {
+      assertNotNull(table.get(keyWrappers[i]));
+    }
+    assertEquals(expected.size(), table.size());
+
+    // The keys are deserialized from the key store when flushing.
+    final Set<String> flushed = new HashSet<String>();
+    VectorGroupByHashTable.FlushProcessor processor = new VectorGroupByHashTable.FlushProcessor() {
+      @Override
+      public void process(VectorHashKeyWrapper kw, int entry) throws HiveException {
+        String key0 = kw.isNull(0) ? "NULL" : Long.toString(kw.getLongValue(0));
+        String key1 = new String(kw.getBytes(0), kw.getByteStart(0), kw.getByteLength(0),
+            StandardCharsets.UTF_8);
+        assertTrue(flushed.add(key0 + "|" + key1));
+      }
+    };
+    table.flush(expected.size() / 2, processor);
+    for (int i = 0; i < batch.size; i++) {
+      String key = (col0.isNull[i] ? "NULL" : Long.toString(col0.vector[i])) + "|s" + (i / 10);
+      assertEquals(!flushed.contains(key), table.get(keyWrappers[i]) != null);
+    }
+    table.flush(Integer.MAX_VALUE, processor);
+    assertEquals(expected, flushed);
+  }
+
+  private static VectorAggregateExpression newAggregator(
+      Class<? extends VectorAggregateExpression> vecAggrClass, GenericUDAFEvaluator evaluator,
+      VectorExpression inputExpression) throws Exception {
+    AggregationDesc agg = new AggregationDesc();
+    agg.setMode(GenericUDAFEvaluator.Mode.PARTIAL1);
+    agg.setGenericUDAFEvaluator(evaluator);
+    VectorAggregationDesc vecAggrDesc = new VectorAggregationDesc(agg, evaluator,
+        inputExpression == null ? null : TypeInfoFactory.longTypeInfo,
+        inputExpression == null ? ColumnVector.Type.NONE : ColumnVector.Type.LONG,
+        inputExpression, TypeInfoFactory.longTypeInfo, ColumnVector.Type.LONG, vecAggrClass);
+    return vecAggrClass.getConstructor(VectorAggregationDesc.class).newInstance(vecAggrDesc);
+  }
+
+  @Test
+  public void testFlatAggregates() throws Exception {
+    VectorHashKeyWrapperBatch kwb = compile(TypeInfoFactory.longTypeInfo);
+    VectorAggregateExpression[] aggregators = new VectorAggregateExpression[] {
+        newAggregator(VectorUDAFCountStar.class,
+            new GenericUDAFCount.GenericUDAFCountEvaluator(), null),
+        newAggregator(VectorUDAFSumLong.class,
+            new GenericUDAFSum.GenericUDAFSumLong(), new IdentityExpression(1)),
+        newAggregator(VectorUDAFMaxLong.class,
+            new GenericUDAFMax.GenericUDAFMaxEvaluator(), new IdentityExpression(1))};
+    final VectorGroupByFlatAggregates flatAggregates =
+        VectorGroupByFlatAggregates.create(aggregators);
+    assertNotNull(flatAggregates);
+    final VectorGroupByHashTable table =
+        VectorGroupByHashTable.create(kwb, 4, 0.75f, 1024, flatAggregates);
+
+    final int groupCount = 100;
+    long[] expectedCounts = new long[groupCount];
+    long[] expectedSums = new long[groupCount];
+    Long[] expectedMaxes = new Long[groupCount];
+
+    VectorizedRowBatch batch = new VectorizedRowBatch(2);
+    LongColumnVector keyCol = new LongColumnVector();
+    LongColumnVector valueCol = new LongColumnVector();
+    batch.cols[0] = keyCol;
+    batch.cols[1] = valueCol;
+    int[] entries = new int[VectorizedRowBatch.DEFAULT_SIZE];
+    for (int start = 0; start < KEY_COUNT; start += VectorizedRowBatch.DEFAULT_SIZE) {
+      batch.size = Math.min(VectorizedRowBatch.DEFAULT_SIZE, KEY_COUNT - start);
+      valueCol.reset();
+      valueCol.noNulls = false;
+      for (int i = 0; i < batch.size; i++) {
+        final int row = start + i;
+        final int group = row % groupCount;
+        keyCol.vector[i] = group;
+        expectedCounts[group]++;
+        // The groups that are multiples of 10 only have NULL values.
+        if (group % 10 == 0) {
+          valueCol.isNull[i] = true;
+        } else {
+          valueCol.vector[i] = row;
+          expectedSums[group] += row;
+          expectedMaxes[group] = (long) row;
+        }
+      }
+      kwb.evaluateBatch(batch);
+      VectorHashKeyWrapper[] keyWrappers = kwb.getVectorHashKeyWrappers();
+      for (int i = 0; i < batch.size; i++) {
+        int entry = table.findEntry(keyWrappers[i]);
+        if (entry == -1) {
+          entry = table.addEntry(keyWrappers[i]);
+        }
+        entries[i] = entry;
+      }
+      flatAggregates.aggregateInput(batch, entries);
+    }
+    assertEquals(groupCount, table.size());
+
+    final VectorizedRowBatch outputBatch = new VectorizedRowBatch(3);
+    for (int c = 0; c < 3; c++) {
+      outputBatch.cols[c] = new LongColumnVector();
+    }
+    final Map<Long, Integer> outputRows = new HashMap<Long, Integer>();
+    VectorGroupByHashTable.FlushProcessor processor = new VectorGroupByHashTable.FlushProcessor() {
+      @Override
+      public void process(VectorHashKeyWrapper kw, int entry) throws HiveException {
+        final int batchIndex = outputBatch.size++;
+        for (int a = 0; a < flatAggregates.getAggregateCount(); a++) {
+          flatAggregates.assignRowColumn(outputBatch, batchIndex, a, a, entry);
+        }
+        assertNull(outputRows.put(kw.getLongValue(0), batchIndex));
+      }
+    };
+    // Flush some groups first, so the others are compacted.
+    assertEquals(30, table.flush(30, processor));
+    assertEquals(groupCount - 30, table.flush(Integer.MAX_VALUE, processor));
+    assertEquals(groupCount, outputRows.size());
+
+    for (int group = 0; group < groupCount; group++) {
+      final int batchIndex = outputRows.get((long) group);
+      assertEquals(expectedCounts[group],
+          ((LongColumnVector) outputBatch.cols[0]).vector[batchIndex]);
+      if (expectedMaxes[group] == null) {
+        assertTrue(outputBatch.cols[1].isNull[batchIndex]);
+        assertTrue(outputBatch.cols[2].isNull[batchIndex]);
+      } else {
+        assertEquals(expectedSums[group],
+            ((LongColumnVector) outputBatch.cols[1]).vector[batchIndex]);
+        assertEquals(expectedMaxes[group].longValue(),
+            ((LongColumnVector) outputBatch.cols[2]).vector[batchIndex]);
+      }
+    }
+  }
+}
@@ -284,6 +284,31 @@ public void testLargeAndExpand() throws Exception {
     addAndVerifyMultipleKeyMultipleValue(keyCount, map, verifyTable);
   }
 
+  @Test
+  public void testOffHeapLargeAndExpand() throws Exception {
+    random = new Random(21112);
+
+    // Small write buffers so keys and values straddle direct buffer boundaries.
+    VectorMapJoinFastMultiKeyHashMap map =
+        new VectorMapJoinFastMultiKeyHashMap(
+            false,MODERATE_CAPACITY, LOAD_FACTOR, WB_SIZE, -1, true);
+
+    VerifyFastBytesHashMap verifyTable = new VerifyFastBytesHashMap();
+
+    int keyCount = 1000;
+    addAndVerifyMultipleKeyMultipleValue(keyCount, map, verifyTable);
+
+    // Value bytes read from direct buffers are copies and must not be referenced by batches.
+    byte[] value = new byte[1];
+    byte[] key = verifyTable.addRandomExisting(value, random);
+    map.testPutRow(key, value);
+    verifyTable.verify(map);
+    VectorMapJoinHashMapResult hashMapResult = map.createHashMapResult();
+    JoinUtil.JoinResult joinResult = map.lookup(key, 0, key.length, hashMapResult);
+    assertTrue(joinResult == JoinUtil.JoinResult.MATCH);
+    assertTrue(!hashMapResult.isValueBytesRetainable());
+  }
+
   @Test
   public void testReallyBig() throws Exception {
     random = new Random(42662);
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.util.Random;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast.CheckFastHashTable.VerifyFastBytesHashMap;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast.CheckFastHashTable.VerifyFastLongHashSet;
+import org.apache.hadoop.hive.ql.plan.MapJoinDesc;
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc;
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc.HashTableKeyType;
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc.HashTableKind;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestVectorMapJoinFastHashTableCache extends CommonFastHashTable {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private HiveConf hconf;
+
+  @Before
+  public void setUp() {
+    hconf = new HiveConf();
+    // Small write buffers so the image has many of them.
+    hconf.setIntVar(HiveConf.ConfVars.HIVEHASHTABLEWBSIZE, 1024);
+  }
+
+  private static MapJoinDesc createDesc(HashTableKind hashTableKind,
+      HashTableKeyType hashTableKeyType) {
+    MapJoinDesc desc = new MapJoinDesc();
+    VectorMapJoinDesc vectorDesc = new VectorMapJoinDesc();
+    vectorDesc.setHashTableKind(hashTableKind);
+    vectorDesc.setHashTableKeyType(hashTableKeyType);
+    vectorDesc.setMinMaxEnabled(true);
+    desc.setVectorDesc(vectorDesc);
+    return desc;
+  }
+
+  @Test
+  public void testSharedBytesHashMap() throws Exception {
+    random = new Random(7001);
+    MapJoinDesc desc = createDesc(HashTableKind.HASH_MAP, HashTableKeyType.MULTI_KEY);
+
+    VectorMapJoinFastTableContainer container =
+        new VectorMapJoinFastTableContainer(desc, hconf, -1);
+    VectorMapJoinFastMultiKeyHashMap map =
+        (VectorMapJoinFastMultiKeyHashMap) container.vectorMapJoinHashTable();
+    VerifyFastBytesHashMap verifyTable = new VerifyFastBytesHashMap();
+    for (int i = 0; i < 2000; i++) {
+      byte[] value = new byte[random.nextInt(MAX_VALUE_LENGTH)];
+      random.nextBytes(value);
+      if (random.nextBoolean() || verifyTable.getCount() == 0) {
+        byte[] key = new byte[1 + random.nextInt(MAX_KEY_LENGTH)];
+        random.nextBytes(key);
+        if (verifyTable.contains(key)) {
+          continue;
+        }
+        map.testPutRow(key, value);
+        verifyTable.add(key, value);
+      } else {
+        map.testPutRow(verifyTable.addRandomExisting(value, random), value);
+      }
+    }
+
+    File directory = folder.newFolder();
+    VectorMapJoinFastHashTableCache cache =
+        new VectorMapJoinFastHashTableCache(directory, Long.MAX_VALUE);
+    assertNull(cache.get("dim", desc, hconf));
+    cache.put("dim", desc, container);
+    assertEquals(1, directory.listFiles().length);
+
+    // Another process on the node maps the image.
+    VectorMapJoinFastHashTableCache otherCache =
+        new VectorMapJoinFastHashTableCache(directory, Long.MAX_VALUE);
+    VectorMapJoinFastTableContainer sharedContainer = otherCache.get("dim", desc, hconf);
+    assertNotNull(sharedContainer);
+    VectorMapJoinFastMultiKeyHashMap sharedMap =
+        (VectorMapJoinFastMultiKeyHashMap) sharedContainer.vectorMapJoinHashTable();
+    assertEquals(map.size(), sharedMap.size());
+    verifyTable.verify(sharedMap);
+
+    // The same small table joined differently needs another hash table.
+    assertNull(otherCache.get("dim",
+        createDesc(HashTableKind.HASH_SET, HashTableKeyType.MULTI_KEY), hconf));
+  }
+
+  @Test
+  public void testSharedLongHashSet() throws Exception {
+    random = new Random(7002);
+    MapJoinDesc desc = createDesc(HashTableKind.HASH_SET, HashTableKeyType.LONG);
+
+    VectorMapJoinFastTableContainer container =
+        new VectorMapJoinFastTableContainer(desc, hconf, -1);
+    VectorMapJoinFastLongHashSet set =
+        (VectorMapJoinFastLongHashSet) container.vectorMapJoinHashTable();
+    VerifyFastLongHashSet verifyTable = new VerifyFastLongHashSet();
+    for (int i = 0; i < 1000; i++) {
+      long key = random.nextLong();
+      if (!verifyTable.contains(key)) {
+        set.testPutRow(key);
+        verifyTable.add(key);
+      }
+    }
+
+    File directory = folder.newFolder();
+    new VectorMapJoinFastHashTableCache(directory, Long.MAX_VALUE).put("dim", desc, container);
+    VectorMapJoinFastTableContainer sharedContainer =
+        new VectorMapJoinFastHashTableCache(directory, Long.MAX_VALUE).get("dim", desc, hconf);
+    VectorMapJoinFastLongHashSet sharedSet =
+        (VectorMapJoinFastLongHashSet) sharedContainer.vectorMapJoinHashTable();
+    assertEquals(set.min(), sharedSet.min());
+    assertEquals(set.max(), sharedSet.max());
+    verifyTable.verify(sharedSet);
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    MapJoinDesc desc = createDesc(HashTableKind.HASH_SET, HashTableKeyType.LONG);
+    VectorMapJoinFastTableContainer container =
+        new VectorMapJoinFastTableContainer(desc, hconf, -1);
+    ((VectorMapJoinFastLongHashSet) container.vectorMapJoinHashTable()).testPutRow(42);
+
+    File directory = folder.newFolder();
+    VectorMapJoinFastHashTableCache cache = new VectorMapJoinFastHashTableCache(directory, 1);
+    cache.put("first", desc, container);
+    File firstImage = directory.listFiles()[0];
+    firstImage.setLastModified(System.currentTimeMillis() - 60000);
+    cache.put("second", desc, container);
+
+    // Only the most recently used image is left, even when it alone is too big.
+    File[] images = directory.listFiles();
+    assertEquals(1, images.length);
+    assertNull(cache.get("first", desc, hconf));
+    assertNotNull(cache.get("second", desc, hconf));
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.exec.JoinUtil;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast.CheckFastHashTable.VerifyFastBytesHashMap;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinBytesHashMap;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashMapResult;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashSetResult;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinLongHashSet;
+import org.apache.hadoop.hive.ql.plan.MapJoinDesc;
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc;
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc.HashTableKeyType;
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc.HashTableKind;
+import org.apache.hadoop.hive.serde2.ByteStream.Output;
+import org.apache.hadoop.hive.serde2.binarysortable.fast.BinarySortableSerializeWrite;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hive.common.util.HashCodeUtil;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestVectorMapJoinFastHybridTableContainer extends CommonFastHashTable {
+
+  private static final int NUM_PARTITIONS = 8;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private HiveConf hconf;
+
+  @Before
+  public void setUp() {
+    hconf = new HiveConf();
+    hconf.setIntVar(HiveConf.ConfVars.HIVEHASHTABLEWBSIZE, 1024);
+    hconf.setIntVar(HiveConf.ConfVars.HIVEHYBRIDGRACEHASHJOINMINWBSIZE, 1024);
+    hconf.setIntVar(HiveConf.ConfVars.HIVEHYBRIDGRACEHASHJOINMEMCHECKFREQ, 64);
+  }
+
+  private static MapJoinDesc createDesc(HashTableKind hashTableKind,
+      HashTableKeyType hashTableKeyType) {
+    MapJoinDesc desc = new MapJoinDesc();
+    VectorMapJoinDesc vectorDesc = new VectorMapJoinDesc();
+    vectorDesc.setHashTableKind(hashTableKind);
+    vectorDesc.setHashTableKeyType(hashTableKeyType);
+    vectorDesc.setMinMaxEnabled(true);
+    desc.setVectorDesc(vectorDesc);
+    return desc;
+  }
+
+  private VectorMapJoinFastHybridTableContainer createContainer(MapJoinDesc desc,
+      long memoryAvailable) throws Exception {
+    return new VectorMapJoinFastHybridTableContainer(desc, hconf, -1, memoryAvailable,
+        NUM_PARTITIONS, 64 * 1024, folder.newFolder().getAbsolutePath());
+  }
+
+  @Test
+  public void testSpillBytesHashMap() throws Exception {
+    random = new Random(8001);
+    MapJoinDesc desc = createDesc(HashTableKind.HASH_MAP, HashTableKeyType.MULTI_KEY);
+    VectorMapJoinFastHybridTableContainer container = createContainer(desc, 32 * 1024);
+
+    VerifyFastBytesHashMap verifyTable = new VerifyFastBytesHashMap();
+    BytesWritable keyWritable = new BytesWritable();
+    BytesWritable valueWritable = new BytesWritable();
+    for (int i = 0; i < 5000; i++) {
+      byte[] value = new byte[random.nextInt(MAX_VALUE_LENGTH)];
+      random.nextBytes(value);
+      byte[] key;
+      if (random.nextBoolean() || verifyTable.getCount() == 0) {
+        key = new byte[1 + random.nextInt(MAX_KEY_LENGTH)];
+        random.nextBytes(key);
+        if (verifyTable.contains(key)) {
+          continue;
+        }
+        verifyTable.add(key, value);
+      } else {
+        key = verifyTable.addRandomExisting(value, random);
+      }
+      keyWritable.set(key, 0, key.length);
+      valueWritable.set(value, 0, value.length);
+      container.putRow(keyWritable, valueWritable);
+    }
+    assertTrue(container.hasSpill());
+
+    // Keys of spilled partitions come back as SPILL with their partition.
+    VectorMapJoinBytesHashMap hashMap =
+        (VectorMapJoinBytesHashMap) container.vectorMapJoinHashTable();
+    VectorMapJoinHashMapResult hashMapResult = hashMap.createHashMapResult();
+    List<List<Integer>> spilledKeys = new ArrayList<List<Integer>>();
+    for (int i = 0; i < NUM_PARTITIONS; i++) {
+      spilledKeys.add(new ArrayList<Integer>());
+    }
+    int matchCount = 0;
+    for (int index = 0; index < verifyTable.getCount(); index++) {
+      byte[] key = verifyTable.getKey(index);
+      JoinUtil.JoinResult joinResult = hashMap.lookup(key, 0, key.length, hashMapResult);
+      if (joinResult == JoinUtil.JoinResult.SPILL) {
+        int partitionId = hashMapResult.spillPartitionId();
+        assertTrue(container.isHashTableOnDisk(partitionId));
+        spilledKeys.get(partitionId).add(index);
+      } else {
+        assertEquals(JoinUtil.JoinResult.MATCH, joinResult);
+        CheckFastHashTable.verifyHashMapValues(hashMapResult, verifyTable.getValues(index));
+        matchCount++;
+      }
+    }
+    assertTrue(matchCount > 0);
+
+    // The reloaded partitions have the rows of the images and of the side files.
+    container.clearInMemoryPartitions();
+    for (int partitionId = 0; partitionId < NUM_PARTITIONS; partitionId++) {
+      if (!container.isHashTableOnDisk(partitionId)) {
+        assertTrue(spilledKeys.get(partitionId).isEmpty());
+        continue;
+      }
+      VectorMapJoinBytesHashMap partitionMap =
+          (VectorMapJoinBytesHashMap) container.reloadHashTable(partitionId);
+      assertFalse(container.isHashTableOnDisk(partitionId));
+      assertEquals(spilledKeys.get(partitionId).size(), partitionMap.size());
+      hashMapResult = partitionMap.createHashMapResult();
+      for (int index : spilledKeys.get(partitionId)) {
+        byte[] key = verifyTable.getKey(index);
+        assertEquals(JoinUtil.JoinResult.MATCH,
+            partitionMap.lookup(key, 0, key.length, hashMapResult));
+        CheckFastHashTable.verifyHashMapValues(hashMapResult, verifyTable.getValues(index));
+      }
+    }
+    container.clear();
+  }
+
+  @Test
+  public void testSpillLongHashSet() throws Exception {
+    random = new Random(8002);
+    MapJoinDesc desc = createDesc(HashTableKind.HASH_SET, HashTableKeyType.LONG);
+    VectorMapJoinFastHybridTableContainer container = createContainer(desc, 1);
+
+    BinarySortableSerializeWrite keySerializeWrite = new BinarySortableSerializeWrite(1);
+    Output output = new Output();
+    BytesWritable keyWritable = new BytesWritable();
+    long[] keys = new long[3000];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = random.nextLong();
+      output.reset();
+      keySerializeWrite.set(output);
+      keySerializeWrite.writeLong(keys[i]);
+      keyWritable.set(output.getData(), 0, output.getLength());
+      container.putRow(keyWritable, new BytesWritable());
+    }
+    // All partitions but the last one in memory are spilled.
+    assertTrue(container.hasSpill());
+
+    VectorMapJoinLongHashSet hashSet = (VectorMapJoinLongHashSet) container.vectorMapJoinHashTable();
+    assertFalse(hashSet.useMinMax());
+    VectorMapJoinHashSetResult hashSetResult = hashSet.createHashSetResult();
+    int inMemoryCount = 0;
+    for (long key : keys) {
+      if (hashSet.contains(key, hashSetResult) == JoinUtil.JoinResult.MATCH) {
+        inMemoryCount++;
+      } else {
+        assertEquals(JoinUtil.JoinResult.SPILL, hashSetResult.joinResult());
+      }
+    }
+    assertTrue(inMemoryCount < keys.length);
+
+    container.clearInMemoryPartitions();
+    int reloadedCount = 0;
+    for (int partitionId = 0; partitionId < NUM_PARTITIONS; partitionId++) {
+      if (container.isHashTableOnDisk(partitionId)) {
+        VectorMapJoinLongHashSet partitionSet =
+            (VectorMapJoinLongHashSet) container.reloadHashTable(partitionId);
+        hashSetResult = partitionSet.createHashSetResult();
+        for (long key : keys) {
+          if (container.getPartitionId(HashCodeUtil.calculateLongHashCode(key)) == partitionId) {
+            assertEquals(JoinUtil.JoinResult.MATCH, partitionSet.contains(key, hashSetResult));
+            reloadedCount++;
+          }
+        }
+      }
+    }
+    assertEquals(keys.length, inMemoryCount + reloadedCount);
+    container.clear();
+  }
+}
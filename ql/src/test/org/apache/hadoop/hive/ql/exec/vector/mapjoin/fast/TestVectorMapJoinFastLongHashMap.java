@@ -276,6 +276,21 @@ public void testLargeAndExpand() throws Exception {
     addAndVerifyMultipleKeyMultipleValue(keyCount, map, verifyTable);
   }
 
+  @Test
+  public void testOffHeapLargeAndExpand() throws Exception {
+    random = new Random(21);
+
+    // Small write buffers so values straddle direct buffer boundaries.
+    VectorMapJoinFastLongHashMap map =
+        new VectorMapJoinFastLongHashMap(
+            false, false, HashTableKeyType.LONG, MODERATE_CAPACITY, LOAD_FACTOR, WB_SIZE, -1, true);
+
+    VerifyFastLongHashMap verifyTable = new VerifyFastLongHashMap();
+
+    int keyCount = 1000;
+    addAndVerifyMultipleKeyMultipleValue(keyCount, map, verifyTable);
+  }
+
   @Test
   public void testOutOfBounds() throws Exception {
     random = new Random(42662);
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.ptf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.common.type.HiveIntervalDayTime;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.IntervalDayTimeColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.TimestampColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestVectorPTFBatchSpillContainer {
+
+  private static final int COLUMN_COUNT = 6;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static VectorizedRowBatch createBatch() {
+    VectorizedRowBatch batch = new VectorizedRowBatch(COLUMN_COUNT);
+    batch.cols[0] = new LongColumnVector();
+    batch.cols[1] = new DoubleColumnVector();
+    batch.cols[2] = new BytesColumnVector();
+    batch.cols[3] = new DecimalColumnVector(38, 10);
+    batch.cols[4] = new TimestampColumnVector();
+    batch.cols[5] = new IntervalDayTimeColumnVector();
+    ((BytesColumnVector) batch.cols[2]).initBuffer();
+    return batch;
+  }
+
+  private static void fillBatch(Random random, VectorizedRowBatch batch) {
+    batch.reset();
+    ((BytesColumnVector) batch.cols[2]).initBuffer();
+    final int size = 1 + random.nextInt(VectorizedRowBatch.DEFAULT_SIZE);
+    batch.size = size;
+    for (int c = 0; c < COLUMN_COUNT; c++) {
+      ColumnVector colVector = batch.cols[c];
+      final int kind = random.nextInt(3);
+      colVector.isRepeating = (kind == 0);
+      final int count = (colVector.isRepeating ? 1 : size);
+      for (int i = 0; i < count; i++) {
+        if (kind == 1 && random.nextInt(4) == 0) {
+          colVector.isNull[i] = true;
+          colVector.noNulls = false;
+          continue;
+        }
+        switch (c) {
+        case 0:
+          ((LongColumnVector) colVector).vector[i] = random.nextLong();
+          break;
+        case 1:
+          ((DoubleColumnVector) colVector).vector[i] = random.nextDouble();
+          break;
+        case 2:
+          {
+            byte[] bytes = new byte[random.nextInt(2000)];
+            random.nextBytes(bytes);
+            ((BytesColumnVector) colVector).setVal(i, bytes);
+          }
+          break;
+        case 3:
+          ((DecimalColumnVector) colVector).set(i,
+              HiveDecimal.create(random.nextLong()).scaleByPowerOfTen(-random.nextInt(10)));
+          break;
+        case 4:
+          {
+            TimestampColumnVector timestampColVector = (TimestampColumnVector) colVector;
+            timestampColVector.time[i] = random.nextInt() * 1000L;
+            timestampColVector.nanos[i] = random.nextInt(1000000000);
+          }
+          break;
+        case 5:
+          ((IntervalDayTimeColumnVector) colVector).set(i,
+              new HiveIntervalDayTime(random.nextInt(), random.nextInt(1000000000)));
+          break;
+        default:
+          throw new RuntimeException("Unexpected column " + c);
+        }
+      }
+    }
+  }
+
+  private static void verifyBatch(VectorizedRowBatch expected, VectorizedRowBatch actual,
+      int[] columnMap) {
+    assertEquals(expected.size, actual.size);
+    assertFalse(actual.selectedInUse);
+    for (int c = 0; c < COLUMN_COUNT; c++) {
+      ColumnVector expectedColVector = expected.cols[c];
+      ColumnVector actualColVector = actual.cols[columnMap[c]];
+      assertEquals(expectedColVector.isRepeating, actualColVector.isRepeating);
+      assertEquals(expectedColVector.noNulls, actualColVector.noNulls);
+      StringBuilder expectedValue = new StringBuilder();
+      StringBuilder actualValue = new StringBuilder();
+      final int count = (expectedColVector.isRepeating ? 1 : expected.size);
+      for (int i = 0; i < count; i++) {
+        expectedValue.setLength(0);
+        actualValue.setLength(0);
+        expectedColVector.stringifyValue(expectedValue, i);
+        actualColVector.stringifyValue(actualValue, i);
+        assertEquals("column " + c + " row " + i,
+            expectedValue.toString(), actualValue.toString());
+      }
+    }
+  }
+
+  private static VectorizedRowBatch copyBatch(VectorizedRowBatch batch) {
+    VectorizedRowBatch copy = createBatch();
+    for (int c = 0; c < COLUMN_COUNT; c++) {
+      ColumnVector colVector = batch.cols[c];
+      ColumnVector copyColVector = copy.cols[c];
+      final int count = (colVector.isRepeating ? 1 : batch.size);
+      for (int i = 0; i < count; i++) {
+        if (!colVector.isNull[i]) {
+          copyColVector.setElement(i, i, colVector);
+        }
+        copyColVector.isNull[i] = colVector.isNull[i];
+      }
+      copyColVector.isRepeating = colVector.isRepeating;
+      copyColVector.noNulls = colVector.noNulls;
+    }
+    copy.size = batch.size;
+    return copy;
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    Random random = new Random(10001);
+    VectorPTFBatchSpillContainer container =
+        new VectorPTFBatchSpillContainer(folder.getRoot().getAbsolutePath());
+
+    // Spill twice with the same container, as two groups of the PTF operator do.
+    for (int round = 0; round < 2; round++) {
+      List<VectorizedRowBatch> expectedBatches = new ArrayList<VectorizedRowBatch>();
+      VectorizedRowBatch batch = createBatch();
+      long rowCount = 0;
+      for (int b = 0; b < 10; b++) {
+        fillBatch(random, batch);
+        container.writeBatch(batch, COLUMN_COUNT);
+        expectedBatches.add(copyBatch(batch));
+        rowCount += batch.size;
+      }
+      assertEquals(expectedBatches.size(), container.getBatchCount());
+      assertEquals(rowCount, container.getRowCount());
+
+      // Read into other columns of a wider batch, like the PTF overflow batch.
+      int[] columnMap = new int[] {6, 7, 8, 9, 10, 11};
+      VectorizedRowBatch readBatch = new VectorizedRowBatch(12);
+      VectorizedRowBatch template = createBatch();
+      for (int c = 0; c < COLUMN_COUNT; c++) {
+        readBatch.cols[c] = new LongColumnVector();
+        readBatch.cols[columnMap[c]] = template.cols[c];
+      }
+
+      container.prepareForReading();
+      for (VectorizedRowBatch expectedBatch : expectedBatches) {
+        readBatch.reset();
+        assertTrue(container.readNextBatch(readBatch, columnMap));
+        verifyBatch(expectedBatch, readBatch, columnMap);
+      }
+      assertFalse(container.readNextBatch(readBatch, columnMap));
+      container.clear();
+      assertEquals(0, container.getBatchCount());
+    }
+  }
+}
@@ -0,0 +1,281 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.ptf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector.Type;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.IdentityExpression;
+import org.apache.hadoop.hive.ql.parse.WindowingSpec.BoundarySpec;
+import org.apache.hadoop.hive.ql.parse.WindowingSpec.Direction;
+import org.apache.hadoop.hive.ql.parse.WindowingSpec.WindowType;
+import org.apache.hadoop.hive.ql.plan.VectorPTFDesc;
+import org.apache.hadoop.hive.ql.plan.VectorPTFDesc.SupportedFunctionType;
+import org.apache.hadoop.hive.ql.plan.ptf.BoundaryDef;
+import org.apache.hadoop.hive.ql.plan.ptf.WindowFrameDef;
+import org.junit.Test;
+
+/**
+ * Compares the sliding window frame evaluators with an aggregation of each frame.
+ */
+public class TestVectorPTFEvaluatorSliding {
+
+  private static final SupportedFunctionType[] SLIDING_FUNCTIONS = {
+      SupportedFunctionType.SUM, SupportedFunctionType.AVG, SupportedFunctionType.MIN,
+      SupportedFunctionType.MAX, SupportedFunctionType.COUNT };
+
+  // The boundary at a signed offset from the current row, negative for PRECEDING.
+  private static BoundaryDef boundary(int offset) {
+    if (offset == 0) {
+      return new BoundaryDef(Direction.CURRENT, 0);
+    }
+    return (offset < 0 ?
+        new BoundaryDef(Direction.PRECEDING, -offset) : new BoundaryDef(Direction.FOLLOWING, offset));
+  }
+
+  private static WindowFrameDef rowsFrame(int startOffset, int endOffset) {
+    return new WindowFrameDef(WindowType.ROWS, boundary(startOffset), boundary(endOffset));
+  }
+
+  @Test
+  public void testIsSlidingWindowFrame() {
+    assertTrue(VectorPTFEvaluatorSlidingBase.isSlidingWindowFrame(rowsFrame(0, 0)));
+    assertTrue(VectorPTFEvaluatorSlidingBase.isSlidingWindowFrame(rowsFrame(-5, -2)));
+    assertTrue(VectorPTFEvaluatorSlidingBase.isSlidingWindowFrame(rowsFrame(-2, 2)));
+    assertTrue(VectorPTFEvaluatorSlidingBase.isSlidingWindowFrame(rowsFrame(1, 3)));
+    assertFalse(VectorPTFEvaluatorSlidingBase.isSlidingWindowFrame(rowsFrame(-2, -5)));
+    assertFalse(VectorPTFEvaluatorSlidingBase.isSlidingWindowFrame(rowsFrame(2, 1)));
+    assertFalse(VectorPTFEvaluatorSlidingBase.isSlidingWindowFrame(
+        new WindowFrameDef(WindowType.RANGE, boundary(-3), boundary(0))));
+    assertFalse(VectorPTFEvaluatorSlidingBase.isSlidingWindowFrame(
+        new WindowFrameDef(WindowType.ROWS,
+            new BoundaryDef(Direction.PRECEDING, BoundarySpec.UNBOUNDED_AMOUNT), boundary(0))));
+    assertFalse(VectorPTFEvaluatorSlidingBase.isSlidingWindowFrame(
+        new WindowFrameDef(WindowType.ROWS,
+            boundary(-2), new BoundaryDef(Direction.FOLLOWING, BoundarySpec.UNBOUNDED_AMOUNT))));
+
+    assertFalse(VectorPTFDesc.isSlidingEvaluator(
+        SupportedFunctionType.SUM, rowsFrame(-3, 0), Type.DECIMAL));
+    assertFalse(VectorPTFDesc.isSlidingEvaluator(
+        SupportedFunctionType.FIRST_VALUE, rowsFrame(-3, 0), Type.LONG));
+    assertTrue(VectorPTFDesc.isSlidingEvaluator(
+        SupportedFunctionType.COUNT, rowsFrame(-3, 0), null));
+    assertTrue(VectorPTFDesc.isSlidingEvaluator(
+        SupportedFunctionType.MAX, rowsFrame(-3, 2), Type.DOUBLE));
+  }
+
+  @Test
+  public void testLong() throws Exception {
+    Random random = new Random(9001);
+    for (int[] frame : new int[][] {
+        {0, 0}, {-1, 0}, {-3, 0}, {-3, -1}, {-4, -4}, {-20, -7}, {-2, 3}, {0, 1}, {2, 5}}) {
+      for (SupportedFunctionType functionType : SLIDING_FUNCTIONS) {
+        verify(random, functionType, Type.LONG, frame[0], frame[1]);
+      }
+    }
+  }
+
+  @Test
+  public void testDouble() throws Exception {
+    Random random = new Random(9002);
+    for (int[] frame : new int[][] {{0, 0}, {-2, 0}, {-5, -2}, {-9, -9}, {-1, 1}, {3, 3}}) {
+      for (SupportedFunctionType functionType : SLIDING_FUNCTIONS) {
+        verify(random, functionType, Type.DOUBLE, frame[0], frame[1]);
+      }
+    }
+  }
+
+  @Test
+  public void testCountStar() throws Exception {
+    Random random = new Random(9003);
+    WindowFrameDef windowFrameDef = rowsFrame(-3, -1);
+    VectorPTFEvaluatorBase evaluator = VectorPTFDesc.getEvaluator(
+        SupportedFunctionType.COUNT, windowFrameDef, null, null, 1);
+    assertTrue(evaluator instanceof VectorPTFEvaluatorSlidingCount);
+    assertTrue(evaluator.streamsResult());
+
+    VectorizedRowBatch batch = new VectorizedRowBatch(2);
+    batch.cols[0] = new LongColumnVector();
+    batch.cols[1] = new LongColumnVector();
+    long rowNum = 0;
+    for (int b = 0; b < 5; b++) {
+      batch.reset();
+      batch.size = 1 + random.nextInt(VectorizedRowBatch.DEFAULT_SIZE);
+      evaluator.evaluateGroupBatch(batch, b == 4);
+      LongColumnVector outputColVector = (LongColumnVector) batch.cols[1];
+      for (int i = 0; i < batch.size; i++, rowNum++) {
+        long expected = Math.max(0, Math.min(rowNum - 1, 2) + 1);
+        assertEquals(expected, outputColVector.vector[i]);
+      }
+    }
+  }
+
+  private static ColumnVector createColumnVector(Type type) {
+    return (type == Type.LONG ? new LongColumnVector() : new DoubleColumnVector());
+  }
+
+  /*
+   * Evaluates a few partitions split in random batches, some with repeating input, and checks
+   * the result of each row with an aggregation of the values of its frame.  The frames that end
+   * at n FOLLOWING get their results through VectorPTFFollowingBatches.
+   */
+  private static void verify(Random random, final SupportedFunctionType functionType,
+      Type inputType, final int startOffset, final int endOffset) throws Exception {
+
+    WindowFrameDef windowFrameDef = rowsFrame(startOffset, endOffset);
+    VectorPTFEvaluatorBase evaluator = VectorPTFDesc.getEvaluator(
+        functionType, windowFrameDef, inputType, new IdentityExpression(0), 1);
+    assertTrue(evaluator instanceof VectorPTFEvaluatorSlidingBase);
+    assertEquals(Math.max(0, endOffset), evaluator.getFollowingRowCount());
+    final Type resultType = evaluator.getResultColumnVectorType();
+
+    VectorPTFFollowingBatches followingBatches = null;
+    if (evaluator.getFollowingRowCount() > 0) {
+      followingBatches =
+          new VectorPTFFollowingBatches(new VectorPTFEvaluatorBase[] { evaluator });
+    }
+
+    VectorizedRowBatch batch = new VectorizedRowBatch(2);
+    batch.cols[0] = createColumnVector(inputType);
+    batch.cols[1] = createColumnVector(resultType);
+
+    for (int partition = 0; partition < 3; partition++) {
+      evaluator.resetEvaluator();
+      int partitionSize = random.nextInt(3 * VectorizedRowBatch.DEFAULT_SIZE);
+      final Long[] values = new Long[partitionSize];
+
+      // The operator the batches with FOLLOWING frame results are forwarded to.
+      final int[] forwardedRowCount = new int[1];
+      VectorPTFOperator operator = new VectorPTFOperator() {
+        @Override
+        public void forwardFollowingBatch(VectorizedRowBatch batch) {
+          verifyResults(functionType, resultType, values, startOffset, endOffset, batch,
+              forwardedRowCount[0]);
+          forwardedRowCount[0] += batch.size;
+        }
+      };
+
+      int rowNum = 0;
+      while (rowNum < partitionSize) {
+        batch.reset();
+        int size =
+            Math.min(partitionSize - rowNum, 1 + random.nextInt(VectorizedRowBatch.DEFAULT_SIZE));
+        batch.size = size;
+        ColumnVector inputColVector = batch.cols[0];
+        boolean isRepeating = random.nextInt(5) == 0;
+        for (int i = 0; i < size; i++) {
+          Long value;
+          if (isRepeating && i > 0) {
+            value = values[rowNum];
+          } else {
+            value = (random.nextInt(4) == 0 ? null : Long.valueOf(random.nextInt(200) - 100));
+          }
+          values[rowNum + i] = value;
+          if (value == null) {
+            inputColVector.isNull[i] = true;
+            inputColVector.noNulls = false;
+          } else if (inputType == Type.LONG) {
+            ((LongColumnVector) inputColVector).vector[i] = value;
+          } else {
+            ((DoubleColumnVector) inputColVector).vector[i] = value;
+          }
+        }
+        inputColVector.isRepeating = isRepeating;
+
+        evaluator.evaluateGroupBatch(batch, rowNum + size == partitionSize);
+
+        if (followingBatches == null) {
+          verifyResults(functionType, resultType, values, startOffset, endOffset, batch, rowNum);
+        } else {
+          followingBatches.forward(operator, batch);
+        }
+        rowNum += size;
+      }
+      if (followingBatches != null) {
+        followingBatches.finishPartition(operator);
+        assertEquals(partitionSize, forwardedRowCount[0]);
+      }
+    }
+  }
+
+  private static void verifyResults(SupportedFunctionType functionType, Type resultType,
+      Long[] values, int startOffset, int endOffset, VectorizedRowBatch batch, int firstRowNum) {
+    ColumnVector outputColVector = batch.cols[1];
+    assertFalse(outputColVector.isRepeating);
+    for (int i = 0; i < batch.size; i++) {
+      final int rowNum = firstRowNum + i;
+      Double expected = aggregateFrame(
+          functionType, values, rowNum + startOffset, rowNum + endOffset);
+      String message = functionType + " ROWS BETWEEN " + startOffset + " AND " + endOffset +
+          " row " + rowNum;
+      if (expected == null) {
+        assertTrue(message, outputColVector.isNull[i]);
+        assertFalse(message, outputColVector.noNulls);
+      } else {
+        assertFalse(message, outputColVector.isNull[i]);
+        double actual = (resultType == Type.LONG ?
+            ((LongColumnVector) outputColVector).vector[i] :
+            ((DoubleColumnVector) outputColVector).vector[i]);
+        assertEquals(message, expected, actual, 1e-9);
+      }
+    }
+  }
+
+  private static Double aggregateFrame(SupportedFunctionType functionType, Long[] values,
+      int first, int last) {
+    long count = 0;
+    long sum = 0;
+    long min = Long.MAX_VALUE;
+    long max = Long.MIN_VALUE;
+    for (int r = Math.max(0, first); r <= Math.min(last, values.length - 1); r++) {
+      if (values[r] != null) {
+        count++;
+        sum += values[r];
+        min = Math.min(min, values[r]);
+        max = Math.max(max, values[r]);
+      }
+    }
+    if (functionType == SupportedFunctionType.COUNT) {
+      return (double) count;
+    }
+    if (count == 0) {
+      return null;
+    }
+    switch (functionType) {
+    case SUM:
+      return (double) sum;
+    case AVG:
+      return ((double) sum) / count;
+    case MIN:
+      return (double) min;
+    case MAX:
+      return (double) max;
+    default:
+      throw new RuntimeException("Unexpected function type " + functionType);
+    }
+  }
+}
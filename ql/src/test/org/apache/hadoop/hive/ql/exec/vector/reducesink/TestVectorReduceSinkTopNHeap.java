@@ -0,0 +1,375 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.reducesink;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.CompilationOpContext;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.plan.ReduceSinkDesc;
+import org.apache.hadoop.hive.ql.plan.TableDesc;
+import org.apache.hadoop.hive.ql.plan.VectorReduceSinkDesc;
+import org.apache.hadoop.hive.ql.plan.VectorReduceSinkInfo;
+import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.lazybinary.fast.LazyBinaryDeserializeRead;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.junit.Test;
+
+public class TestVectorReduceSinkTopNHeap {
+
+  private static final int BATCH_COUNT = 100;
+
+  /** A row of the test: a long key and a nullable string key. */
+  private static class Row {
+    final long longKey;
+    final String stringKey;
+
+    Row(long longKey, String stringKey) {
+      this.longKey = longKey;
+      this.stringKey = stringKey;
+    }
+
+    @Override
+    public String toString() {
+      return longKey + "/" + stringKey;
+    }
+  }
+
+  private static VectorizedRowBatch createBatch() {
+    VectorizedRowBatch batch = new VectorizedRowBatch(2);
+    batch.cols[0] = new LongColumnVector();
+    batch.cols[1] = new BytesColumnVector();
+    batch.cols[1].init();
+    return batch;
+  }
+
+  private static void fillBatch(VectorizedRowBatch batch, List<Row> rows) {
+    batch.reset();
+    LongColumnVector longColVector = (LongColumnVector) batch.cols[0];
+    BytesColumnVector bytesColVector = (BytesColumnVector) batch.cols[1];
+    bytesColVector.initBuffer();
+    for (int i = 0; i < rows.size(); i++) {
+      Row row = rows.get(i);
+      longColVector.vector[i] = row.longKey;
+      if (row.stringKey == null) {
+        bytesColVector.noNulls = false;
+        bytesColVector.isNull[i] = true;
+      } else {
+        byte[] bytes = row.stringKey.getBytes(StandardCharsets.UTF_8);
+        bytesColVector.setVal(i, bytes, 0, bytes.length);
+      }
+    }
+    batch.size = rows.size();
+  }
+
+  /**
+   * Feeds random rows through the heap, and checks that every row of the exact top N passed.
+   *
+   * @return the number of rows that passed
+   */
+  private static int verifyTopN(VectorReduceSinkTopNHeap heap, int topN, Comparator<Row> order,
+      Random random, int longRange) {
+    VectorizedRowBatch batch = createBatch();
+    List<Row> allRows = new ArrayList<Row>();
+    Map<String, Integer> passed = new HashMap<String, Integer>();
+    int passedCount = 0;
+    for (int b = 0; b < BATCH_COUNT; b++) {
+      List<Row> rows = new ArrayList<Row>();
+      for (int i = 0; i < VectorizedRowBatch.DEFAULT_SIZE; i++) {
+        String stringKey = (random.nextInt(20) == 0 ? null : "k" + random.nextInt(1000));
+        rows.add(new Row(random.nextInt(longRange), stringKey));
+      }
+      allRows.addAll(rows);
+      fillBatch(batch, rows);
+      heap.filter(batch);
+      for (int logical = 0; logical < batch.size; logical++) {
+        int i = (batch.selectedInUse ? batch.selected[logical] : logical);
+        Integer count = passed.get(rows.get(i).toString());
+        passed.put(rows.get(i).toString(), (count == null ? 1 : count + 1));
+        passedCount++;
+      }
+    }
+
+    Collections.sort(allRows, order);
+    for (Row row : allRows.subList(0, topN)) {
+      Integer count = passed.get(row.toString());
+      assertTrue("Top row " + row + " was dropped", count != null && count > 0);
+      passed.put(row.toString(), count - 1);
+    }
+    return passedCount;
+  }
+
+  @Test
+  public void testLongAscending() throws Exception {
+    final int topN = 10;
+    VectorReduceSinkTopNHeap heap = VectorReduceSinkTopNHeap.create(topN, new int[] { 0 },
+        new TypeInfo[] { TypeInfoFactory.longTypeInfo }, new boolean[] { false },
+        new boolean[] { true });
+    Comparator<Row> order = new Comparator<Row>() {
+      @Override
+      public int compare(Row o1, Row o2) {
+        return Long.compare(o1.longKey, o2.longKey);
+      }
+    };
+    int passedCount = verifyTopN(heap, topN, order, new Random(9001), 1000000);
+    // Only the first batch and then a few improving rows pass.
+    assertTrue(passedCount < 2 * VectorizedRowBatch.DEFAULT_SIZE);
+  }
+
+  @Test
+  public void testMultiKeyDescendingNullsFirst() throws Exception {
+    final int topN = 50;
+    // ORDER BY stringKey DESC NULLS FIRST, longKey
+    VectorReduceSinkTopNHeap heap = VectorReduceSinkTopNHeap.create(topN, new int[] { 1, 0 },
+        new TypeInfo[] { TypeInfoFactory.stringTypeInfo, TypeInfoFactory.intTypeInfo },
+        new boolean[] { true, false }, new boolean[] { true, true });
+    Comparator<Row> order = new Comparator<Row>() {
+      @Override
+      public int compare(Row o1, Row o2) {
+        if (o1.stringKey == null || o2.stringKey == null) {
+          if (o1.stringKey != o2.stringKey) {
+            return (o1.stringKey == null ? -1 : 1);
+          }
+        } else {
+          int comparison = o2.stringKey.compareTo(o1.stringKey);
+          if (comparison != 0) {
+            return comparison;
+          }
+        }
+        return Long.compare(o1.longKey, o2.longKey);
+      }
+    };
+    verifyTopN(heap, topN, order, new Random(9002), 100);
+  }
+
+  @Test
+  public void testRepeatingBatch() throws Exception {
+    VectorReduceSinkTopNHeap heap = VectorReduceSinkTopNHeap.create(2, new int[] { 0 },
+        new TypeInfo[] { TypeInfoFactory.longTypeInfo }, new boolean[] { false },
+        new boolean[] { true });
+    VectorizedRowBatch batch = createBatch();
+    LongColumnVector longColVector = (LongColumnVector) batch.cols[0];
+
+    longColVector.vector[0] = 5;
+    longColVector.vector[1] = 7;
+    batch.size = 2;
+    heap.filter(batch);
+    assertEquals(2, batch.size);
+
+    batch.reset();
+    longColVector.isRepeating = true;
+    longColVector.vector[0] = 8;
+    batch.size = 1000;
+    heap.filter(batch);
+    assertEquals(0, batch.size);
+
+    // Ties with the threshold are kept.
+    batch.reset();
+    longColVector.isRepeating = true;
+    longColVector.vector[0] = 7;
+    batch.size = 1000;
+    heap.filter(batch);
+    assertEquals(1000, batch.size);
+  }
+
+  @Test
+  public void testUnsupportedKey() throws Exception {
+    assertNull(VectorReduceSinkTopNHeap.create(10, new int[] { 0 },
+        new TypeInfo[] { TypeInfoFactory.timestampTypeInfo }, new boolean[] { false },
+        new boolean[] { true }));
+  }
+
+  @Test
+  public void testOverMemoryBudget() throws Exception {
+    TypeInfo[] keyTypeInfos = new TypeInfo[] { TypeInfoFactory.longTypeInfo };
+    assertNull(VectorReduceSinkTopNHeap.create(50000000, new int[] { 0 }, keyTypeInfos,
+        new boolean[] { false }, new boolean[] { true }, 1024 * 1024));
+    assertNotNull(VectorReduceSinkTopNHeap.create(1000, new int[] { 0 }, keyTypeInfos,
+        new boolean[] { false }, new boolean[] { true }, 1024 * 1024));
+  }
+
+  @Test
+  public void testStringKeysOverMemoryBudget() throws Exception {
+    VectorReduceSinkTopNHeap heap = VectorReduceSinkTopNHeap.create(10, new int[] { 1 },
+        new TypeInfo[] { TypeInfoFactory.stringTypeInfo }, new boolean[] { false },
+        new boolean[] { true }, 4096);
+    assertNotNull(heap);
+
+    // The copies of a few of these keys take more than the budget.
+    StringBuilder padding = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      padding.append('x');
+    }
+    VectorizedRowBatch batch = createBatch();
+    List<Row> rows = new ArrayList<Row>();
+    for (int i = 0; i < 100; i++) {
+      rows.add(new Row(i, padding.toString() + (100 - i)));
+    }
+    fillBatch(batch, rows);
+    heap.filter(batch);
+    assertTrue(heap.isOverMemory());
+    assertEquals(100, batch.size);
+
+    // The heap does not filter any more.
+    fillBatch(batch, rows);
+    heap.filter(batch);
+    assertEquals(100, batch.size);
+    assertTrue(!batch.selectedInUse);
+  }
+
+  /**
+   * Runs ORDER BY key LIMIT topN with a nullable long key through a VectorReduceSinkLongOperator,
+   * with the heap on, and returns the keys it outputs.  The value is the key, so the output is
+   * read back from the lazy binary values.
+   */
+  private static List<Long> runReduceSink(List<Long> keys, int topN, String sortOrder,
+      String nullOrder) throws Exception {
+    Properties properties = new Properties();
+    properties.setProperty(serdeConstants.SERIALIZATION_SORT_ORDER, sortOrder);
+    properties.setProperty(serdeConstants.SERIALIZATION_NULL_SORT_ORDER, nullOrder);
+    TableDesc keyTableDesc = new TableDesc();
+    keyTableDesc.setProperties(properties);
+
+    ReduceSinkDesc desc = new ReduceSinkDesc();
+    desc.setKeySerializeInfo(keyTableDesc);
+    desc.setTag(-1);
+    desc.setTopN(topN);
+    desc.setTopNMemoryUsage(0.1f);
+
+    VectorReduceSinkInfo info = new VectorReduceSinkInfo();
+    info.setReduceSinkKeyColumnMap(new int[] { 0 });
+    info.setReduceSinkKeyTypeInfos(new TypeInfo[] { TypeInfoFactory.longTypeInfo });
+    info.setReduceSinkValueColumnMap(new int[] { 0 });
+    info.setReduceSinkValueTypeInfos(new TypeInfo[] { TypeInfoFactory.longTypeInfo });
+    VectorReduceSinkDesc vectorDesc = new VectorReduceSinkDesc();
+    vectorDesc.setVectorReduceSinkInfo(info);
+    vectorDesc.setIsEmptyKey(false);
+    vectorDesc.setIsEmptyValue(false);
+
+    HiveConf hconf = new HiveConf();
+    hconf.setBoolVar(HiveConf.ConfVars.HIVE_VECTORIZATION_REDUCESINK_TOPN_HEAP_ENABLED, true);
+    VectorReduceSinkLongOperator operator = new VectorReduceSinkLongOperator(
+        new CompilationOpContext(), desc, null, vectorDesc);
+    final LazyBinaryDeserializeRead valueRead = new LazyBinaryDeserializeRead(
+        new TypeInfo[] { TypeInfoFactory.longTypeInfo }, false);
+    final List<Long> output = new ArrayList<Long>();
+    operator.setOutputCollector(new OutputCollector<Object, Object>() {
+      @Override
+      public void collect(Object key, Object value) throws IOException {
+        BytesWritable valueWritable = (BytesWritable) value;
+        valueRead.set(valueWritable.getBytes(), 0, valueWritable.getLength());
+        output.add(valueRead.readNextField() ? valueRead.currentLong : null);
+      }
+    });
+    operator.initialize(hconf, new ObjectInspector[] {
+        PrimitiveObjectInspectorFactory.writableLongObjectInspector });
+    assertTrue(operator.topNHeap != null);
+
+    VectorizedRowBatch batch = new VectorizedRowBatch(1);
+    LongColumnVector longColVector = new LongColumnVector();
+    batch.cols[0] = longColVector;
+    final int batchSize = 64;
+    for (int start = 0; start < keys.size(); start += batchSize) {
+      batch.reset();
+      List<Long> batchKeys = keys.subList(start, Math.min(keys.size(), start + batchSize));
+      for (int i = 0; i < batchKeys.size(); i++) {
+        if (batchKeys.get(i) == null) {
+          longColVector.noNulls = false;
+          longColVector.isNull[i] = true;
+        } else {
+          longColVector.vector[i] = batchKeys.get(i);
+        }
+      }
+      batch.size = batchKeys.size();
+      operator.process(batch, 0);
+    }
+    operator.close(false);
+    return output;
+  }
+
+  private static void verifyReduceSink(boolean isDescending, final boolean isNullFirst)
+      throws Exception {
+    List<Long> keys = new ArrayList<Long>();
+    for (long i = 0; i < 500; i++) {
+      keys.add(i % 7 == 3 ? null : i);
+    }
+    Collections.shuffle(keys, new Random(9003));
+    final int topN = 10;
+
+    Comparator<Long> order = new Comparator<Long>() {
+      @Override
+      public int compare(Long o1, Long o2) {
+        if (o1 == null || o2 == null) {
+          return (o1 == o2 ? 0 : (o1 == null) == isNullFirst ? -1 : 1);
+        }
+        return Long.compare(o1, o2);
+      }
+    };
+    if (isDescending) {
+      final Comparator<Long> ascending = order;
+      order = new Comparator<Long>() {
+        @Override
+        public int compare(Long o1, Long o2) {
+          if (o1 == null || o2 == null) {
+            return ascending.compare(o1, o2);
+          }
+          return -ascending.compare(o1, o2);
+        }
+      };
+    }
+    List<Long> expected = new ArrayList<Long>(keys);
+    Collections.sort(expected, order);
+    expected = expected.subList(0, topN);
+
+    List<Long> output = runReduceSink(keys, topN, isDescending ? "-" : "+",
+        isNullFirst ? "a" : "z");
+    Collections.sort(output, order);
+    assertEquals(expected, output);
+  }
+
+  @Test
+  public void testOperatorNullOrder() throws Exception {
+    verifyReduceSink(false, true);
+    verifyReduceSink(false, false);
+    verifyReduceSink(true, true);
+    verifyReduceSink(true, false);
+  }
+}
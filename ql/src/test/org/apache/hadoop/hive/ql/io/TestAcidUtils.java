@@ -20,9 +20,14 @@
 import static org.junit.Assert.assertEquals;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
@@ -38,6 +43,7 @@
 import org.apache.hadoop.hive.ql.io.orc.TestInputOutputFormat.MockPath;
 import org.apache.hadoop.hive.ql.io.orc.TestOrcRawRecordMerger;
 import org.apache.hadoop.hive.shims.HadoopShims.HdfsFileStatusWithId;
+import org.apache.hive.common.util.Ref;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -222,6 +228,57 @@ public void testOriginalDeltas() throws Exception {
     assertEquals(100, delt.getMaxWriteId());
   }
 
+  @Test
+  public void testOriginalDeltasForkJoin() throws Exception {
+    Configuration conf = new Configuration();
+    MockFileSystem fs = new MockFileSystem(conf,
+        new MockFile("mock:/tbl/part1/000000_0", 500, new byte[0]),
+        new MockFile("mock:/tbl/part1/subdir1/000000_0", 500, new byte[0]),
+        new MockFile("mock:/tbl/part1/subdir2/000001_0", 500, new byte[0]),
+        new MockFile("mock:/tbl/part1/subdir2/nested/000002_0", 500, new byte[0]),
+        new MockFile("mock:/tbl/part1/delta_025_025/bucket_0", 0, new byte[0]),
+        new MockFile("mock:/tbl/part1/delta_025_030/bucket_0", 0, new byte[0]),
+        new MockFile("mock:/tbl/part1/delete_delta_025_030/bucket_0", 0, new byte[0]),
+        new MockFile("mock:/tbl/part1/delta_050_100/bucket_0", 0, new byte[0]));
+    final Path part = new MockPath(fs, "mock:/tbl/part1");
+    final ValidReaderWriteIdList writeIds =
+        new ValidReaderWriteIdList("tbl:100:" + Long.MAX_VALUE + ":");
+    final Semaphore permits = new Semaphore(2);
+    AcidUtils.Directory sequential = AcidUtils.getAcidState(part, conf, writeIds);
+    ForkJoinPool pool = new ForkJoinPool(3);
+    AcidUtils.Directory forkJoin;
+    try {
+      forkJoin = pool.submit(new Callable<AcidUtils.Directory>() {
+        @Override
+        public AcidUtils.Directory call() throws Exception {
+          return AcidUtils.getAcidState(part, conf, writeIds, Ref.from(false), false, null,
+              permits);
+        }
+      }).get();
+    } finally {
+      pool.shutdown();
+    }
+    assertEquals(2, permits.availablePermits());
+    // The directories listed in parallel give the same state.
+    for (AcidUtils.Directory dir : new AcidUtils.Directory[] { sequential, forkJoin }) {
+      List<String> originals = new ArrayList<>();
+      for (HdfsFileStatusWithId original : dir.getOriginalFiles()) {
+        originals.add(original.getFileStatus().getPath().toString());
+      }
+      assertEquals(Arrays.asList("mock:/tbl/part1/000000_0",
+          "mock:/tbl/part1/subdir1/000000_0", "mock:/tbl/part1/subdir2/000001_0",
+          "mock:/tbl/part1/subdir2/nested/000002_0"), originals);
+      List<AcidUtils.ParsedDelta> deltas = dir.getCurrentDirectories();
+      assertEquals(3, deltas.size());
+      assertEquals("mock:/tbl/part1/delete_delta_025_030", deltas.get(0).getPath().toString());
+      assertEquals("mock:/tbl/part1/delta_025_030", deltas.get(1).getPath().toString());
+      assertEquals("mock:/tbl/part1/delta_050_100", deltas.get(2).getPath().toString());
+      assertEquals(1, dir.getObsolete().size());
+      assertEquals("mock:/tbl/part1/delta_025_025",
+          dir.getObsolete().get(0).getPath().toString());
+    }
+  }
+
   @Test
   public void testBaseDeltas() throws Exception {
     Configuration conf = new Configuration();
@@ -41,6 +41,7 @@
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.codec.binary.Base64;
 import org.apache.hadoop.conf.Configuration;
@@ -616,6 +617,44 @@ public void testACIDSplitStrategy() throws Exception {
     assertEquals(4, splits.size());
   }
 
+  @Test
+  public void testFileGeneratorForkJoin() throws Exception {
+    conf.set(hive_metastoreConstants.TABLE_IS_TRANSACTIONAL, "true");
+    conf.set(hive_metastoreConstants.TABLE_TRANSACTIONAL_PROPERTIES, "default");
+    OrcInputFormat.Context context = new OrcInputFormat.Context(conf);
+    MockFileSystem fs = new MockFileSystem(conf,
+        new MockFile("mock:/a/delta_0000001_0000001_0000/bucket_00000", 1000, new byte[1]),
+        new MockFile("mock:/a/delta_0000002_0000002_0000/bucket_00000", 1000, new byte[1]),
+        new MockFile("mock:/a/delta_0000002_0000002_0000/bucket_00001", 1000, new byte[1]),
+        new MockFile("mock:/a/delete_delta_0000003_0000003_0000/bucket_00000", 1000, new byte[1]),
+        new MockFile("mock:/a/delta_0000004_0000004_0000/bucket_00001", 1000, new byte[1]));
+    OrcInputFormat.FileGenerator gen =
+        new OrcInputFormat.FileGenerator(context, fs, new MockPath(fs, "mock:/a"), false, null);
+    OrcInputFormat.AcidDirInfo sequential = gen.call();
+    ForkJoinPool pool = new ForkJoinPool(3);
+    OrcInputFormat.AcidDirInfo forkJoin;
+    try {
+      forkJoin = pool.submit(gen).get();
+    } finally {
+      pool.shutdown();
+    }
+    // The insert deltas listed in parallel come out in the same order.
+    List<String> expected = Arrays.asList(
+        "mock:/a/delta_0000001_0000001_0000/bucket_00000",
+        "mock:/a/delta_0000002_0000002_0000/bucket_00000",
+        "mock:/a/delta_0000002_0000002_0000/bucket_00001",
+        "mock:/a/delta_0000004_0000004_0000/bucket_00001");
+    for (OrcInputFormat.AcidDirInfo adi : Arrays.asList(sequential, forkJoin)) {
+      List<String> paths = new ArrayList<>();
+      for (AcidUtils.AcidBaseFileInfo baseFile : adi.baseFiles) {
+        paths.add(baseFile.getHdfsFileStatusWithId().getFileStatus().getPath().toString());
+        assertTrue(baseFile.isAcidSchema());
+      }
+      assertEquals(expected, paths);
+      assertEquals(1, adi.deleteEvents.size());
+    }
+  }
+
   @Test
   public void testACIDSplitStrategyForSplitUpdate() throws Exception {
     conf.set("bucket_count", "2");
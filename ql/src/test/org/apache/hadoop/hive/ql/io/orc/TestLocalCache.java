@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.io.orc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.io.AcidUtils;
+import org.apache.hadoop.hive.shims.HadoopShims.HdfsFileStatusWithId;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.Writer;
+import org.apache.orc.impl.OrcTail;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestLocalCache {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final Configuration conf = new Configuration();
+  private FileSystem fs;
+
+  @Before
+  public void setUp() throws Exception {
+    fs = FileSystem.getLocal(conf);
+  }
+
+  private Path writeFile(String name, int rows) throws Exception {
+    Path path = new Path(folder.getRoot().getAbsolutePath(), name);
+    TypeDescription schema = TypeDescription.fromString("struct<x:bigint>");
+    Writer writer = org.apache.orc.OrcFile.createWriter(path,
+        org.apache.orc.OrcFile.writerOptions(conf).setSchema(schema).fileSystem(fs));
+    VectorizedRowBatch batch = schema.createRowBatch();
+    for (int i = 0; i < rows; ++i) {
+      ((LongColumnVector) batch.cols[0]).vector[batch.size++] = i;
+    }
+    writer.addRowBatch(batch);
+    writer.close();
+    return fs.makeQualified(path);
+  }
+
+  private OrcTail readTail(FileStatus file) throws Exception {
+    Reader reader = OrcFile.createReader(file.getPath(), OrcFile.readerOptions(conf).filesystem(fs));
+    return new OrcTail(reader.getFileTail(), reader.getSerializedFileFooter(),
+        file.getModificationTime());
+  }
+
+  private static OrcTail[] getAndValidate(LocalCache cache, FileStatus... files) throws Exception {
+    List<HdfsFileStatusWithId> filesWithId = new ArrayList<>();
+    for (FileStatus file : files) {
+      filesWithId.add(AcidUtils.createOriginalObj(null, file));
+    }
+    OrcTail[] result = new OrcTail[files.length];
+    cache.getAndValidate(filesWithId, true, result, null);
+    return result;
+  }
+
+  @Test
+  public void testSaveAndLoad() throws Exception {
+    FileStatus file1 = fs.getFileStatus(writeFile("file1", 10));
+    FileStatus file2 = fs.getFileStatus(writeFile("file 2", 20));
+    LocalCache cache = new LocalCache(1, 1024 * 1024, false);
+    cache.put(file1.getPath(), readTail(file1));
+    cache.put(file2.getPath(), readTail(file2));
+    File dir = folder.newFolder("cache");
+    cache.save(dir);
+
+    LocalCache loaded = new LocalCache(1, 1024 * 1024, false);
+    loaded.load(dir);
+    OrcTail[] tails = getAndValidate(loaded, file1, file2);
+    assertNotNull(tails[0]);
+    assertEquals(10, tails[0].getFileTail().getFooter().getNumberOfRows());
+    assertNotNull(tails[1]);
+    assertEquals(20, tails[1].getFileTail().getFooter().getNumberOfRows());
+
+    // A tail of a file that has changed since it was saved is not used.
+    FileStatus changed = new FileStatus(file1.getLen(), false, 1, 1,
+        file1.getModificationTime() + 1, file1.getPath());
+    loaded = new LocalCache(1, 1024 * 1024, false);
+    loaded.load(dir);
+    assertNull(getAndValidate(loaded, changed)[0]);
+  }
+
+  @Test
+  public void testCorruptFile() throws Exception {
+    FileStatus file1 = fs.getFileStatus(writeFile("file1", 10));
+    FileStatus file2 = fs.getFileStatus(writeFile("file2", 20));
+    LocalCache cache = new LocalCache(1, 1024 * 1024, false);
+    cache.put(file1.getPath(), readTail(file1));
+    cache.put(file2.getPath(), readTail(file2));
+    File dir = folder.newFolder("cache");
+    cache.save(dir);
+
+    // Flip a byte of the tail saved last.
+    try (RandomAccessFile raf = new RandomAccessFile(new File(dir, LocalCache.FILE_NAME), "rw")) {
+      long pos = raf.length() - 1 - 8 - 10;
+      raf.seek(pos);
+      byte b = raf.readByte();
+      raf.seek(pos);
+      raf.writeByte(b ^ 0xff);
+    }
+    LocalCache loaded = new LocalCache(1, 1024 * 1024, false);
+    loaded.load(dir);
+    OrcTail[] tails = getAndValidate(loaded, file1, file2);
+    // Only the tail saved first is loaded.
+    assertFalse(Arrays.toString(tails), (tails[0] == null) == (tails[1] == null));
+  }
+
+  @Test
+  public void testNoSavedFile() throws Exception {
+    FileStatus file1 = fs.getFileStatus(writeFile("file1", 10));
+    LocalCache loaded = new LocalCache(1, 1024 * 1024, false);
+    loaded.load(folder.newFolder("cache"));
+    assertNull(getAndValidate(loaded, file1)[0]);
+  }
+}
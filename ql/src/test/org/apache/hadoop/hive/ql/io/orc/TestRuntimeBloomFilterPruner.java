@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.io.orc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.ql.plan.DynamicValue;
+import org.apache.hadoop.hive.ql.plan.ExprNodeColumnDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeConstantDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDynamicValueDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDF;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFInBloomFilter;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPAnd;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPOr;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hive.common.util.BloomKFilter;
+import org.apache.orc.ColumnStatistics;
+import org.apache.orc.OrcProto;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.impl.ColumnStatisticsImpl;
+import org.junit.Test;
+
+public class TestRuntimeBloomFilterPruner {
+
+  private static final int[] COLUMNS = { 1 };
+
+  private static class FixedDynamicValue extends DynamicValue {
+    private final BytesWritable value;
+
+    FixedDynamicValue(BloomKFilter bloomFilter) throws Exception {
+      super("bloom_filter", TypeInfoFactory.binaryTypeInfo);
+      if (bloomFilter == null) {
+        value = null;
+      } else {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BloomKFilter.serialize(out, bloomFilter);
+        value = new BytesWritable(out.toByteArray());
+      }
+    }
+
+    @Override
+    public Object getValue() {
+      if (value == null) {
+        throw new NoDynamicValuesException("Not in a task");
+      }
+      return value;
+    }
+  }
+
+  private static ExprNodeDesc inBloomFilter(TypeInfo typeInfo, DynamicValue bloomFilter) {
+    List<ExprNodeDesc> children = new ArrayList<ExprNodeDesc>();
+    children.add(new ExprNodeColumnDesc(typeInfo, "key", "t", false));
+    children.add(new ExprNodeDynamicValueDesc(bloomFilter));
+    return new ExprNodeGenericFuncDesc(TypeInfoFactory.booleanTypeInfo,
+        new GenericUDFInBloomFilter(), children);
+  }
+
+  private static ExprNodeDesc function(GenericUDF udf, ExprNodeDesc... children) {
+    List<ExprNodeDesc> list = new ArrayList<ExprNodeDesc>();
+    for (ExprNodeDesc child : children) {
+      list.add(child);
+    }
+    return new ExprNodeGenericFuncDesc(TypeInfoFactory.booleanTypeInfo, udf, list);
+  }
+
+  private static RuntimeBloomFilterPruner createLongPruner(long... keys) throws Exception {
+    BloomKFilter bloomFilter = new BloomKFilter(1000);
+    for (long key : keys) {
+      bloomFilter.addLong(key);
+    }
+    // The min/max of a semijoin come along in the same conjunction.
+    ExprNodeDesc filterExpr = function(new GenericUDFOPAnd(),
+        new ExprNodeConstantDesc(TypeInfoFactory.booleanTypeInfo, true),
+        inBloomFilter(TypeInfoFactory.longTypeInfo, new FixedDynamicValue(bloomFilter)));
+    return RuntimeBloomFilterPruner.create(filterExpr, new Configuration(), 128);
+  }
+
+  private static ColumnStatisticsImpl longStats(long min, long max) {
+    ColumnStatisticsImpl stats = ColumnStatisticsImpl.create(TypeDescription.createLong());
+    stats.increment(2);
+    stats.updateInteger(min, 1);
+    stats.updateInteger(max, 1);
+    return stats;
+  }
+
+  private static ColumnStatistics[] stripeStats(ColumnStatisticsImpl stats) {
+    return new ColumnStatistics[] { null, stats };
+  }
+
+  private static OrcProto.RowIndexEntry rowIndexEntry(ColumnStatisticsImpl stats) {
+    return OrcProto.RowIndexEntry.newBuilder().setStatistics(stats.serialize()).build();
+  }
+
+  @Test
+  public void testIntegerRange() throws Exception {
+    RuntimeBloomFilterPruner pruner = createLongPruner(10, 20);
+    assertFalse(pruner.isNeeded(stripeStats(longStats(11, 19)), COLUMNS));
+    assertTrue(pruner.isNeeded(stripeStats(longStats(5, 15)), COLUMNS));
+    assertTrue(pruner.isNeeded(stripeStats(longStats(20, 20)), COLUMNS));
+    // Too many values to probe.
+    assertTrue(pruner.isNeeded(stripeStats(longStats(21, 1000)), COLUMNS));
+    assertTrue(pruner.isNeeded(stripeStats(longStats(Long.MIN_VALUE, Long.MAX_VALUE)), COLUMNS));
+  }
+
+  @Test
+  public void testStringValue() throws Exception {
+    BloomKFilter bloomFilter = new BloomKFilter(1000);
+    bloomFilter.addString("apple");
+    RuntimeBloomFilterPruner pruner = RuntimeBloomFilterPruner.create(
+        inBloomFilter(TypeInfoFactory.stringTypeInfo, new FixedDynamicValue(bloomFilter)),
+        new Configuration(), 128);
+
+    ColumnStatisticsImpl single = ColumnStatisticsImpl.create(TypeDescription.createString());
+    single.increment();
+    single.updateString(new Text("pear"));
+    assertFalse(pruner.isNeeded(stripeStats(single), COLUMNS));
+
+    ColumnStatisticsImpl range = ColumnStatisticsImpl.create(TypeDescription.createString());
+    range.increment(2);
+    range.updateString(new Text("pear"));
+    range.updateString(new Text("plum"));
+    assertTrue(pruner.isNeeded(stripeStats(range), COLUMNS));
+  }
+
+  @Test
+  public void testPickRowGroups() throws Exception {
+    RuntimeBloomFilterPruner pruner = createLongPruner(10, 20);
+    TypeDescription schema = TypeDescription.fromString("struct<key:bigint>");
+    OrcProto.RowIndex[] rowIndexes = new OrcProto.RowIndex[] { null,
+        OrcProto.RowIndex.newBuilder()
+            .addEntry(rowIndexEntry(longStats(0, 10)))
+            .addEntry(rowIndexEntry(longStats(11, 19)))
+            .addEntry(rowIndexEntry(longStats(20, 30)))
+            .build() };
+
+    assertEquals("[true, false, true]", Arrays.toString(pruner.pickRowGroups(schema, rowIndexes,
+        COLUMNS, RecordReaderImpl.SargApplier.READ_ALL_RGS, 3)));
+    // Row groups the search argument eliminated stay eliminated.
+    boolean[] picked = new boolean[] { false, true, true };
+    assertEquals("[false, false, true]",
+        Arrays.toString(pruner.pickRowGroups(schema, rowIndexes, COLUMNS, picked, 3)));
+    assertEquals("[false, true, true]", Arrays.toString(picked));
+    assertSame(RecordReaderImpl.SargApplier.READ_NO_RGS,
+        pruner.pickRowGroups(schema, rowIndexes, COLUMNS, new boolean[] { false, true, false }, 3));
+
+    RuntimeBloomFilterPruner allPass = createLongPruner(5, 15, 25);
+    assertNull(allPass.pickRowGroups(schema, rowIndexes, COLUMNS,
+        RecordReaderImpl.SargApplier.READ_ALL_RGS, 3));
+  }
+
+  @Test
+  public void testUnavailableBloomFilter() throws Exception {
+    RuntimeBloomFilterPruner pruner = RuntimeBloomFilterPruner.create(
+        inBloomFilter(TypeInfoFactory.longTypeInfo, new FixedDynamicValue(null)),
+        new Configuration(), 128);
+    assertTrue(pruner.isNeeded(stripeStats(longStats(11, 19)), COLUMNS));
+  }
+
+  @Test
+  public void testNoConjunct() throws Exception {
+    BloomKFilter bloomFilter = new BloomKFilter(1000);
+    ExprNodeDesc filterExpr = function(new GenericUDFOPOr(),
+        new ExprNodeConstantDesc(TypeInfoFactory.booleanTypeInfo, true),
+        inBloomFilter(TypeInfoFactory.longTypeInfo, new FixedDynamicValue(bloomFilter)));
+    assertNull(RuntimeBloomFilterPruner.create(filterExpr, new Configuration(), 128));
+    // Decimals are hashed by their serialized form, which the statistics do not give.
+    assertNull(RuntimeBloomFilterPruner.create(
+        inBloomFilter(TypeInfoFactory.decimalTypeInfo, new FixedDynamicValue(bloomFilter)),
+        new Configuration(), 128));
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.optimizer.ppr;
+
+import java.util.List;
+
+import org.apache.hadoop.hive.metastore.PartitionProjection;
+import org.apache.hadoop.hive.ql.metadata.Table;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestPartitionPrunerFields {
+
+  @Test
+  public void testUnbucketedTable() throws Exception {
+    Table tab = new Table("db", "tab");
+    List<String> fields = PartitionPruner.getPartitionFields(tab);
+    // The metastore must accept every field name
+    new PartitionProjection(fields);
+    assertTrue(fields.contains("values"));
+    assertTrue(fields.contains("parameters"));
+    assertTrue(fields.contains("sd.location"));
+    assertTrue(fields.contains("sd.cols"));
+    assertTrue(fields.contains("sd.serdeInfo"));
+    assertFalse(fields.contains("sd"));
+    assertFalse(fields.contains("sd.parameters"));
+    assertFalse(fields.contains("sd.skewedInfo"));
+    assertFalse(fields.contains("sd.bucketCols"));
+    assertFalse(fields.contains("sd.sortCols"));
+  }
+
+  @Test
+  public void testBucketedTable() throws Exception {
+    Table tab = new Table("db", "tab");
+    tab.setNumBuckets(4);
+    List<String> fields = PartitionPruner.getPartitionFields(tab);
+    new PartitionProjection(fields);
+    assertTrue(fields.contains("sd.bucketCols"));
+    assertTrue(fields.contains("sd.sortCols"));
+    assertFalse(fields.contains("sd.parameters"));
+    assertFalse(fields.contains("sd.skewedInfo"));
+  }
+}
@@ -18,8 +18,12 @@
 
 package org.apache.hadoop.hive.serde2;
 
+import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.apache.hadoop.hive.common.MemoryEstimate;
 import org.apache.hadoop.hive.ql.util.JavaDataModel;
@@ -27,14 +31,41 @@
 import org.apache.hadoop.hive.serde2.lazybinary.LazyBinaryUtils;
 import org.apache.hadoop.io.WritableUtils;
 import org.apache.hive.common.util.HashCodeUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sun.misc.Cleaner;
 
 
 /**
  * The structure storing arbitrary amount of data as a set of fixed-size byte buffers.
  * Maintains read and write pointers for convenient single-threaded writing/reading.
+ *
+ * The buffers are either byte arrays or, when created off-heap, direct byte buffers that do
+ * not burden the garbage collector.  Off-heap buffers are only ever read with absolute gets,
+ * so concurrent readers with their own positions stay safe.  Since there is no array to refer
+ * to, the byte segments of off-heap buffers are copies (see {@link #getByteSegmentRefToCurrent}).
  */
 public final class WriteBuffers implements RandomAccessOutput, MemoryEstimate {
+  private static final Logger LOG = LoggerFactory.getLogger(WriteBuffers.class);
+  private static Field cleanerField;
+  static {
+    try {
+      // TODO: To make it work for JDK9 use CleanerUtil from https://issues.apache.org/jira/browse/HADOOP-12760
+      final Class<?> dbClazz = Class.forName("java.nio.DirectByteBuffer");
+      cleanerField = dbClazz.getDeclaredField("cleaner");
+      cleanerField.setAccessible(true);
+    } catch (Throwable t) {
+      LOG.warn("Cannot initialize DirectByteBuffer cleaner", t);
+      cleanerField = null;
+    }
+  }
+
   private final ArrayList<byte[]> writeBuffers = new ArrayList<byte[]>(1);
+  private final ArrayList<ByteBuffer> directBuffers;
+  private final boolean isOffHeap;
+  /** Whether the direct buffers were allocated here, rather than passed to wrap(). */
+  private boolean ownsDirectBuffers;
   /** Buffer size in writeBuffers */
   private final int wbSize;
   private final int wbSizeLog2;
@@ -43,10 +74,20 @@ public final class WriteBuffers implements RandomAccessOutput, MemoryEstimate {
 
   public static class Position implements MemoryEstimate {
     private byte[] buffer = null;
+    private ByteBuffer directBuffer = null;
     private int bufferIndex = 0;
     private int offset = 0;
+    // Receives the byte segments read from off-heap buffers.
+    private byte[] copyBuffer = null;
+    // Views of the off-heap buffers with their own position, for bulk reads and writes; the
+    // buffers may be shared by several threads, each with its own positions.
+    private ByteBuffer[] directViews = null;
+    private ByteBuffer[] directViewSources = null;
     public void clear() {
       buffer = null;
+      directBuffer = null;
+      directViews = null;
+      directViewSources = null;
       bufferIndex = offset = -1;
     }
 
@@ -54,6 +95,7 @@ public void clear() {
     public long getEstimatedMemorySize() {
       JavaDataModel jdm = JavaDataModel.get();
       long memSize = buffer == null ? 0 : jdm.lengthForByteArrayOfSize(buffer.length);
+      memSize += copyBuffer == null ? 0 : jdm.lengthForByteArrayOfSize(copyBuffer.length);
       memSize += (2 * jdm.primitive1());
       return memSize;
     }
@@ -64,13 +106,119 @@ public long getEstimatedMemorySize() {
 
 
   public WriteBuffers(int wbSize, long maxSize) {
+    this(wbSize, maxSize, false);
+  }
+
+  /**
+   * @param isOffHeap whether to allocate the buffers with {@link ByteBuffer#allocateDirect}
+   */
+  public WriteBuffers(int wbSize, long maxSize, boolean isOffHeap) {
     this.wbSize = Integer.bitCount(wbSize) == 1 ? wbSize : Integer.highestOneBit(wbSize);
     this.wbSizeLog2 = 31 - Integer.numberOfLeadingZeros(this.wbSize);
     this.offsetMask = this.wbSize - 1;
     this.maxSize = maxSize;
+    this.isOffHeap = isOffHeap;
+    this.directBuffers = isOffHeap ? new ArrayList<ByteBuffer>(1) : null;
+    this.ownsDirectBuffers = isOffHeap;
     writePos.bufferIndex = -1;
   }
 
+  public boolean isOffHeap() {
+    return isOffHeap;
+  }
+
+  /**
+   * Creates read-only write buffers over existing byte buffers, e.g. memory-mapped images of
+   * the buffers of another instance (see {@link #getWrittenBuffer}).  Offsets remain valid
+   * since every buffer but the last one holds exactly wbSize bytes.
+   */
+  public static WriteBuffers wrap(int wbSize, List<ByteBuffer> buffers) {
+    WriteBuffers result = new WriteBuffers(wbSize, Long.MAX_VALUE, true);
+    if (result.wbSize != wbSize) {
+      throw new IllegalArgumentException("Buffer size " + wbSize + " is not a power of two");
+    }
+    // The buffers belong to the caller, and may be shared with other instances.
+    result.ownsDirectBuffers = false;
+    result.directBuffers.addAll(buffers);
+    if (!buffers.isEmpty()) {
+      int lastIndex = buffers.size() - 1;
+      result.setBuffer(result.writePos, lastIndex);
+      result.writePos.offset = buffers.get(lastIndex).limit();
+    }
+    return result;
+  }
+
+  public int getWriteBufferSize() {
+    return wbSize;
+  }
+
+  public int getWrittenBufferCount() {
+    return getBufferCount();
+  }
+
+  /**
+   * @return a view of the written bytes of a buffer; all but the last buffer are full.
+   */
+  public ByteBuffer getWrittenBuffer(int bufferIndex) {
+    int length;
+    if (bufferIndex == writePos.bufferIndex) {
+      length = writePos.offset;
+    } else if (isOffHeap) {
+      length = directBuffers.get(bufferIndex).limit();
+    } else {
+      length = writeBuffers.get(bufferIndex).length;
+    }
+    if (isOffHeap) {
+      ByteBuffer view = directBuffers.get(bufferIndex).duplicate();
+      view.position(0);
+      view.limit(length);
+      return view;
+    }
+    return ByteBuffer.wrap(writeBuffers.get(bufferIndex), 0, length);
+  }
+
+  private void setBuffer(Position pos, int bufferIndex) {
+    pos.bufferIndex = bufferIndex;
+    if (isOffHeap) {
+      pos.directBuffer = getDirectView(pos, bufferIndex);
+    } else {
+      pos.buffer = writeBuffers.get(bufferIndex);
+    }
+  }
+
+  /** Returns the view of an off-heap buffer owned by the position, creating it once. */
+  private ByteBuffer getDirectView(Position pos, int bufferIndex) {
+    ByteBuffer source = directBuffers.get(bufferIndex);
+    if (pos.directViews == null || pos.directViews.length <= bufferIndex) {
+      int length = Math.max(directBuffers.size(),
+          pos.directViews == null ? 1 : 2 * pos.directViews.length);
+      pos.directViews = pos.directViews == null ?
+          new ByteBuffer[length] : Arrays.copyOf(pos.directViews, length);
+      pos.directViewSources = pos.directViewSources == null ?
+          new ByteBuffer[length] : Arrays.copyOf(pos.directViewSources, length);
+    }
+    // The buffers are replaced after clear(), a position may outlive them.
+    if (pos.directViewSources[bufferIndex] != source) {
+      pos.directViews[bufferIndex] = source.duplicate();
+      pos.directViewSources[bufferIndex] = source;
+    }
+    return pos.directViews[bufferIndex];
+  }
+
+  private byte getByte(Position pos, int offset) {
+    return isOffHeap ? pos.directBuffer.get(offset) : pos.buffer[offset];
+  }
+
+  /** Copies bytes of the current read buffer, the caller ensures they are all in it. */
+  private void copyFromBuffer(Position pos, int offset, byte[] dest, int destOffset, int length) {
+    if (isOffHeap) {
+      pos.directBuffer.position(offset);
+      pos.directBuffer.get(dest, destOffset, length);
+    } else {
+      System.arraycopy(pos.buffer, offset, dest, destOffset, length);
+    }
+  }
+
   /** THIS METHOD IS NOT THREAD-SAFE. Use only at load time (or be mindful of thread safety). */
   public int unsafeReadVInt() {
     return (int) readVLong(unsafeReadPos);
@@ -87,13 +235,13 @@ public long unsafeReadVLong() {
 
   public long readVLong(Position readPos) {
     ponderNextBufferToRead(readPos);
-    byte firstByte = readPos.buffer[readPos.offset++];
+    byte firstByte = getByte(readPos, readPos.offset++);
     int length = (byte) WritableUtils.decodeVIntSize(firstByte) - 1;
     if (length == 0) {
       return firstByte;
     }
     long i = 0;
-    if (isAllInOneReadBuffer(length, readPos)) {
+    if (!isOffHeap && isAllInOneReadBuffer(length, readPos)) {
       for (int idx = 0; idx < length; idx++) {
         i = (i << 8) | (readPos.buffer[readPos.offset + idx] & 0xFF);
       }
@@ -113,15 +261,14 @@ public void unsafeSkipVLong() {
 
   public void skipVLong(Position readPos) {
     ponderNextBufferToRead(readPos);
-    byte firstByte = readPos.buffer[readPos.offset++];
+    byte firstByte = getByte(readPos, readPos.offset++);
     int length = (byte) WritableUtils.decodeVIntSize(firstByte);
     if (length > 1) {
       readPos.offset += (length - 1);
     }
     int diff = readPos.offset - wbSize;
     while (diff >= 0) {
-      ++readPos.bufferIndex;
-      readPos.buffer = writeBuffers.get(readPos.bufferIndex);
+      setBuffer(readPos, readPos.bufferIndex + 1);
       readPos.offset = diff;
       diff = readPos.offset - wbSize;
     }
@@ -133,8 +280,7 @@ public void setUnsafeReadPoint(long offset) {
   }
 
   public void setReadPoint(long offset, Position readPos) {
-    readPos.bufferIndex = getBufferIndex(offset);
-    readPos.buffer = writeBuffers.get(readPos.bufferIndex);
+    setBuffer(readPos, getBufferIndex(offset));
     readPos.offset = getOffset(offset);
   }
 
@@ -145,7 +291,7 @@ public int unsafeHashCode(long offset, int length) {
 
   public int hashCode(long offset, int length, Position readPos) {
     setReadPoint(offset, readPos);
-    if (isAllInOneReadBuffer(length, readPos)) {
+    if (!isOffHeap && isAllInOneReadBuffer(length, readPos)) {
       int result = HashCodeUtil.murmurHash(readPos.buffer, readPos.offset, length);
       readPos.offset += length;
       return result;
@@ -157,7 +303,7 @@ public int hashCode(long offset, int length, Position readPos) {
     while (destOffset < length) {
       ponderNextBufferToRead(readPos);
       int toRead = Math.min(length - destOffset, wbSize - readPos.offset);
-      System.arraycopy(readPos.buffer, readPos.offset, bytes, destOffset, toRead);
+      copyFromBuffer(readPos, readPos.offset, bytes, destOffset, toRead);
       readPos.offset += toRead;
       destOffset += toRead;
     }
@@ -167,13 +313,12 @@ public int hashCode(long offset, int length, Position readPos) {
   private byte readNextByte(Position readPos) {
     // This method is inefficient. It's only used when something crosses buffer boundaries.
     ponderNextBufferToRead(readPos);
-    return readPos.buffer[readPos.offset++];
+    return getByte(readPos, readPos.offset++);
   }
 
   private void ponderNextBufferToRead(Position readPos) {
     if (readPos.offset >= wbSize) {
-      ++readPos.bufferIndex;
-      readPos.buffer = writeBuffers.get(readPos.bufferIndex);
+      setBuffer(readPos, readPos.bufferIndex + 1);
       readPos.offset = 0;
     }
   }
@@ -184,7 +329,11 @@ public int hashCode(byte[] key, int offset, int length) {
 
   private void setByte(long offset, byte value) {
     // No checks, the caller must ensure the offsets are correct.
-    writeBuffers.get(getBufferIndex(offset))[getOffset(offset)] = value;
+    if (isOffHeap) {
+      directBuffers.get(getBufferIndex(offset)).put(getOffset(offset), value);
+    } else {
+      writeBuffers.get(getBufferIndex(offset))[getOffset(offset)] = value;
+    }
   }
 
   @Override
@@ -199,8 +348,7 @@ public void reserve(int byteCount) {
   }
 
   public void setWritePoint(long offset) {
-    writePos.bufferIndex = getBufferIndex(offset);
-    writePos.buffer = writeBuffers.get(writePos.bufferIndex);
+    setBuffer(writePos, getBufferIndex(offset));
     writePos.offset = getOffset(offset);
   }
 
@@ -209,7 +357,11 @@ public void write(int b) {
     if (writePos.offset == wbSize) {
       nextBufferToWrite();
     }
-    writePos.buffer[writePos.offset++] = (byte)b;
+    if (isOffHeap) {
+      writePos.directBuffer.put(writePos.offset++, (byte)b);
+    } else {
+      writePos.buffer[writePos.offset++] = (byte)b;
+    }
   }
 
   @Override
@@ -225,7 +377,13 @@ public void write(byte[] b, int off, int len) {
     int srcOffset = 0;
     while (srcOffset < len) {
       int toWrite = Math.min(len - srcOffset, wbSize - writePos.offset);
-      System.arraycopy(b, srcOffset + off, writePos.buffer, writePos.offset, toWrite);
+      if (isOffHeap) {
+        // Only the single writer moves the position of the direct buffer.
+        writePos.directBuffer.position(writePos.offset);
+        writePos.directBuffer.put(b, srcOffset + off, toWrite);
+      } else {
+        System.arraycopy(b, srcOffset + off, writePos.buffer, writePos.offset, toWrite);
+      }
       writePos.offset += toWrite;
       srcOffset += toWrite;
       if (writePos.offset == wbSize) {
@@ -247,16 +405,24 @@ private int getBufferIndex(long offset) {
     return (int)(offset >>> wbSizeLog2);
   }
 
+  private int getBufferCount() {
+    return isOffHeap ? directBuffers.size() : writeBuffers.size();
+  }
+
   private void nextBufferToWrite() {
-    if (writePos.bufferIndex == (writeBuffers.size() - 1)) {
-      if ((1 + writeBuffers.size()) * ((long)wbSize) > maxSize) {
+    final int bufferCount = getBufferCount();
+    if (writePos.bufferIndex == (bufferCount - 1)) {
+      if ((1 + bufferCount) * ((long)wbSize) > maxSize) {
         // We could verify precisely at write time, but just do approximate at allocation time.
         throw new RuntimeException("Too much memory used by write buffers");
       }
-      writeBuffers.add(new byte[wbSize]);
+      if (isOffHeap) {
+        directBuffers.add(ByteBuffer.allocateDirect(wbSize));
+      } else {
+        writeBuffers.add(new byte[wbSize]);
+      }
     }
-    ++writePos.bufferIndex;
-    writePos.buffer = writeBuffers.get(writePos.bufferIndex);
+    setBuffer(writePos, writePos.bufferIndex + 1);
     writePos.offset = 0;
   }
 
@@ -267,6 +433,37 @@ public boolean isEqual(long leftOffset, int leftLength, long rightOffset, int ri
     }
     int leftIndex = getBufferIndex(leftOffset), rightIndex = getBufferIndex(rightOffset),
         leftFrom = getOffset(leftOffset), rightFrom = getOffset(rightOffset);
+    if (isOffHeap) {
+      int length = leftLength;
+      while (length > 0) {
+        if (leftFrom == wbSize) {
+          ++leftIndex;
+          leftFrom = 0;
+        }
+        if (rightFrom == wbSize) {
+          ++rightIndex;
+          rightFrom = 0;
+        }
+        ByteBuffer leftBuffer = directBuffers.get(leftIndex);
+        ByteBuffer rightBuffer = directBuffers.get(rightIndex);
+        final int toCompare = Math.min(length, Math.min(wbSize - leftFrom, wbSize - rightFrom));
+        final int wlen = toCompare - (toCompare % 8);
+        for (int i = 0; i < wlen; i += 8) {
+          if (leftBuffer.getLong(leftFrom + i) != rightBuffer.getLong(rightFrom + i)) {
+            return false;
+          }
+        }
+        for (int i = wlen; i < toCompare; i++) {
+          if (leftBuffer.get(leftFrom + i) != rightBuffer.get(rightFrom + i)) {
+            return false;
+          }
+        }
+        leftFrom += toCompare;
+        rightFrom += toCompare;
+        length -= toCompare;
+      }
+      return true;
+    }
     byte[] leftBuffer = writeBuffers.get(leftIndex), rightBuffer = writeBuffers.get(rightIndex);
     if (leftFrom + leftLength <= wbSize && rightFrom + rightLength <= wbSize) {
       for (int i = 0; i < leftLength; ++i) {
@@ -300,6 +497,9 @@ private final boolean isEqual(byte[] left, int leftOffset, int rightIndex, int r
     }
     // invariant: rightLength = leftLength
     // rightOffset is within the buffers
+    if (isOffHeap) {
+      return isEqualOffHeap(left, leftOffset, rightIndex, rightFrom, length);
+    }
     byte[] rightBuffer = writeBuffers.get(rightIndex);
     if (rightFrom + length <= wbSize) {
       // TODO: allow using unsafe optionally.
@@ -327,6 +527,52 @@ private final boolean isEqual(byte[] left, int leftOffset, int rightIndex, int r
     return true;
   }
 
+  /*
+   * Compares 8 bytes at a time with absolute reads, which leave the position of the shared
+   * buffers alone.
+   */
+  private boolean isEqualOffHeap(byte[] left, int leftOffset, int rightIndex, int rightFrom,
+      int length) {
+    while (length > 0) {
+      if (rightFrom == wbSize) {
+        ++rightIndex;
+        rightFrom = 0;
+      }
+      ByteBuffer rightBuffer = directBuffers.get(rightIndex);
+      final boolean isBigEndian = (rightBuffer.order() == ByteOrder.BIG_ENDIAN);
+      final int toCompare = Math.min(length, wbSize - rightFrom);
+      final int wlen = toCompare - (toCompare % 8);
+      for (int i = 0; i < wlen; i += 8) {
+        if (getLong(left, leftOffset + i, isBigEndian) != rightBuffer.getLong(rightFrom + i)) {
+          return false;
+        }
+      }
+      for (int i = wlen; i < toCompare; i++) {
+        if (left[leftOffset + i] != rightBuffer.get(rightFrom + i)) {
+          return false;
+        }
+      }
+      leftOffset += toCompare;
+      rightFrom += toCompare;
+      length -= toCompare;
+    }
+    return true;
+  }
+
+  private static long getLong(byte[] bytes, int offset, boolean isBigEndian) {
+    long v = 0;
+    if (isBigEndian) {
+      for (int i = 0; i < 8; i++) {
+        v = (v << 8) | (bytes[offset + i] & 0xFF);
+      }
+    } else {
+      for (int i = 7; i >= 0; i--) {
+        v = (v << 8) | (bytes[offset + i] & 0xFF);
+      }
+    }
+    return v;
+  }
+
   /**
    * Compares part of the buffer with a part of an external byte array.
    * Does not modify readPoint.
@@ -357,10 +603,37 @@ public boolean isEqual(byte[] left, int leftOffset, Position readPos, int length
     return isEqual(left, leftOffset, readPos.bufferIndex, readPos.offset, length);
   }
 
+  /**
+   * Drops the buffers.  Off-heap buffers allocated by this instance are freed right away, rather
+   * than when they are collected, so nothing may read them (e.g. via byte segments or
+   * {@link #getWrittenBuffer} views) afterwards.
+   */
   public void clear() {
     writeBuffers.clear();
+    if (isOffHeap) {
+      freeDirectBuffers(directBuffers);
+      directBuffers.clear();
+    }
     clearState();
   }
+
+  private void freeDirectBuffers(List<ByteBuffer> buffers) {
+    if (!ownsDirectBuffers) {
+      return;
+    }
+    for (ByteBuffer bb : buffers) {
+      Field field = cleanerField;
+      if (field == null) {
+        return;
+      }
+      try {
+        ((Cleaner)field.get(bb)).clean();
+      } catch (Throwable t) {
+        LOG.warn("Error using DirectByteBuffer cleaner; stopping its use", t);
+        cleanerField = null;
+      }
+    }
+  }
  
   private void clearState() {
     writePos.clear();
@@ -384,12 +657,25 @@ public long getReadPoint(Position readPos) {
     return (readPos.bufferIndex * (long)wbSize) + readPos.offset;
   }
 
+  /**
+   * Sets the byte segment reference to the bytes at the current read position.  For off-heap
+   * buffers the bytes are copied to a buffer of the position and are only valid until the
+   * next call with the same position.
+   */
   public void getByteSegmentRefToCurrent(ByteSegmentRef byteSegmentRef, int length,
        Position readPos) {
 
     byteSegmentRef.reset((readPos.bufferIndex * (long)wbSize) + readPos.offset, length);
     if (length > 0) {
-      populateValue(byteSegmentRef);
+      if (isOffHeap) {
+        if (readPos.copyBuffer == null || readPos.copyBuffer.length < length) {
+          readPos.copyBuffer = new byte[Math.max(length, 2 * (readPos.copyBuffer == null ?
+              0 : readPos.copyBuffer.length))];
+        }
+        copyValue(byteSegmentRef, readPos.copyBuffer, readPos);
+      } else {
+        populateValue(byteSegmentRef);
+      }
     }
   }
 
@@ -403,6 +689,10 @@ public void writeVLong(long value) {
 
   /** Reads some bytes from the buffer and writes them again at current write point. */
   public void writeBytes(long offset, int length) {
+    if (isOffHeap) {
+      writeBytesOffHeap(offset, length);
+      return;
+    }
     int readBufIndex = getBufferIndex(offset);
     byte[] readBuffer = writeBuffers.get(readBufIndex);
     int readBufOffset = getOffset(offset);
@@ -435,6 +725,37 @@ public void writeBytes(long offset, int length) {
     }
   }
 
+  /*
+   * Copies each run of bytes within a read buffer and a write buffer in bulk.  Like the rest of
+   * the writing, this uses the views of the unsafe read position.
+   */
+  private void writeBytesOffHeap(long offset, int length) {
+    if (writePos.bufferIndex == -1) {
+      nextBufferToWrite();
+    }
+    int readBufIndex = getBufferIndex(offset);
+    int readBufOffset = getOffset(offset);
+    while (length > 0) {
+      if (readBufOffset == wbSize) {
+        ++readBufIndex;
+        readBufOffset = 0;
+      }
+      if (writePos.offset == wbSize) {
+        nextBufferToWrite();
+      }
+      int toCopy = Math.min(length, Math.min(wbSize - readBufOffset, wbSize - writePos.offset));
+      ByteBuffer readBuffer = getDirectView(unsafeReadPos, readBufIndex);
+      readBuffer.limit(readBufOffset + toCopy);
+      readBuffer.position(readBufOffset);
+      writePos.directBuffer.position(writePos.offset);
+      writePos.directBuffer.put(readBuffer);
+      readBuffer.limit(readBuffer.capacity());
+      writePos.offset += toCopy;
+      readBufOffset += toCopy;
+      length -= toCopy;
+    }
+  }
+
   /**
    * The class representing a segment of bytes in the buffer. Can either be a reference
    * to a segment of the whole WriteBuffers (when bytes is not set), or to a segment of
@@ -481,6 +802,10 @@ public ByteBuffer copy() {
    * spanning multiple internal buffers.
    */
   public void populateValue(WriteBuffers.ByteSegmentRef value) {
+    if (isOffHeap) {
+      copyValue(value, new byte[value.getLength()], null);
+      return;
+    }
     // At this point, we are going to make a copy if needed to avoid array boundaries.
     int index = getBufferIndex(value.getOffset());
     byte[] buffer = writeBuffers.get(index);
@@ -507,6 +832,32 @@ public void populateValue(WriteBuffers.ByteSegmentRef value) {
     }
   }
 
+  /**
+   * Copies the bytes of a byte segment reference to the front of a byte array, in bulk through
+   * the views of the read position, or through new views when there is none.
+   */
+  private void copyValue(WriteBuffers.ByteSegmentRef value, byte[] bytes, Position readPos) {
+    int index = getBufferIndex(value.getOffset());
+    int bufferOffset = getOffset(value.getOffset());
+    int length = value.getLength();
+    int destOffset = 0;
+    while (destOffset < length) {
+      if (bufferOffset == wbSize) {
+        ++index;
+        bufferOffset = 0;
+      }
+      ByteBuffer buffer = (readPos == null ?
+          directBuffers.get(index).duplicate() : getDirectView(readPos, index));
+      int toCopy = Math.min(length - destOffset, wbSize - bufferOffset);
+      buffer.position(bufferOffset);
+      buffer.get(bytes, destOffset, toCopy);
+      bufferOffset += toCopy;
+      destOffset += toCopy;
+    }
+    value.bytes = bytes;
+    value.offset = 0;
+  }
+
   private boolean isAllInOneReadBuffer(int length, Position readPos) {
     return readPos.offset + length <= wbSize;
   }
@@ -519,6 +870,17 @@ public void seal() {
     if (writePos.bufferIndex == -1) {
       return;
     }
+    if (isOffHeap) {
+      // The last direct buffer is kept whole, copying it would briefly need both.
+      if (writePos.bufferIndex + 1 < directBuffers.size()) {
+        List<ByteBuffer> unused =
+            directBuffers.subList(writePos.bufferIndex + 1, directBuffers.size());
+        freeDirectBuffers(unused);
+        unused.clear();
+      }
+      clearState();
+      return;
+    }
     if (writePos.offset < (wbSize * 0.8)) { // arbitrary
       byte[] smallerBuffer = new byte[writePos.offset];
       System.arraycopy(writePos.buffer, 0, smallerBuffer, 0, writePos.offset);
@@ -539,7 +901,7 @@ public long unsafeReadNByteLong(long offset, int bytes) {
   public long readNByteLong(long offset, int bytes, Position readPos) {
     setReadPoint(offset, readPos);
     long v = 0;
-    if (isAllInOneReadBuffer(bytes, readPos)) {
+    if (!isOffHeap && isAllInOneReadBuffer(bytes, readPos)) {
       for (int i = 0; i < bytes; ++i) {
         v = (v << 8) + (readPos.buffer[readPos.offset + i] & 0xff);
       }
@@ -555,7 +917,7 @@ public long readNByteLong(long offset, int bytes, Position readPos) {
   public void writeFiveByteULong(long offset, long v) {
     int prevIndex = writePos.bufferIndex, prevOffset = writePos.offset;
     setWritePoint(offset);
-    if (isAllInOneWriteBuffer(5)) {
+    if (!isOffHeap && isAllInOneWriteBuffer(5)) {
       writePos.buffer[writePos.offset] = (byte)(v >>> 32);
       writePos.buffer[writePos.offset + 1] = (byte)(v >>> 24);
       writePos.buffer[writePos.offset + 2] = (byte)(v >>> 16);
@@ -569,8 +931,7 @@ public void writeFiveByteULong(long offset, long v) {
       setByte(offset++, (byte)(v >>> 8));
       setByte(offset, (byte)(v));
     }
-    writePos.bufferIndex = prevIndex;
-    writePos.buffer = writeBuffers.get(writePos.bufferIndex);
+    setBuffer(writePos, prevIndex);
     writePos.offset = prevOffset;
   }
 
@@ -582,7 +943,7 @@ public int readInt(long offset) {
   public void writeInt(long offset, int v) {
     int prevIndex = writePos.bufferIndex, prevOffset = writePos.offset;
     setWritePoint(offset);
-    if (isAllInOneWriteBuffer(4)) {
+    if (!isOffHeap && isAllInOneWriteBuffer(4)) {
       writePos.buffer[writePos.offset] = (byte)(v >> 24);
       writePos.buffer[writePos.offset + 1] = (byte)(v >> 16);
       writePos.buffer[writePos.offset + 2] = (byte)(v >> 8);
@@ -594,8 +955,7 @@ public void writeInt(long offset, int v) {
       setByte(offset++, (byte)(v >>> 8));
       setByte(offset, (byte)(v));
     }
-    writePos.bufferIndex = prevIndex;
-    writePos.buffer = writeBuffers.get(writePos.bufferIndex);
+    setBuffer(writePos, prevIndex);
     writePos.offset = prevOffset;
   }
 
@@ -605,10 +965,13 @@ public void writeByte(long offset, byte value) {
     int prevIndex = writePos.bufferIndex, prevOffset = writePos.offset;
     setWritePoint(offset);
     // One byte is always available for writing.
-    writePos.buffer[writePos.offset] = value;
+    if (isOffHeap) {
+      writePos.directBuffer.put(writePos.offset, value);
+    } else {
+      writePos.buffer[writePos.offset] = value;
+    }
 
-    writePos.bufferIndex = prevIndex;
-    writePos.buffer = writeBuffers.get(writePos.bufferIndex);
+    setBuffer(writePos, prevIndex);
     writePos.offset = prevOffset;
   }
 
@@ -617,14 +980,18 @@ public void writeByte(long offset, byte value) {
    * @return write buffer size
    */
   public long size() {
-    return writeBuffers.size() * (long) wbSize;
+    return getBufferCount() * (long) wbSize;
   }
 
+  /**
+   * The estimate includes the off-heap buffers, they count against the same memory limits.
+   */
   @Override
   public long getEstimatedMemorySize() {
     JavaDataModel jdm = JavaDataModel.get();
     long size = 0;
     size += writeBuffers == null ? 0 : jdm.arrayList() + (writeBuffers.size() * jdm.lengthForByteArrayOfSize(wbSize));
+    size += directBuffers == null ? 0 : jdm.arrayList() + (directBuffers.size() * (long) wbSize);
     size += (3 * jdm.primitive2());
     size += writePos == null ? 0 : writePos.getEstimatedMemorySize();
     size += unsafeReadPos == null ? 0 : unsafeReadPos.getEstimatedMemorySize();
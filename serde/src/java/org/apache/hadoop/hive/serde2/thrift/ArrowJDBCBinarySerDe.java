@@ -0,0 +1,332 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.serde2.thrift;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.TinyIntVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.Types.MinorType;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.AbstractSerDe;
+import org.apache.hadoop.hive.serde2.ByteStream;
+import org.apache.hadoop.hive.serde2.SerDeException;
+import org.apache.hadoop.hive.serde2.SerDeStats;
+import org.apache.hadoop.hive.serde2.SerDeUtils;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Writable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This SerDe is the Arrow counterpart of {@link ThriftJDBCBinarySerDe}: it buffers the final
+ * output rows in Arrow vectors, and serializes each batch as a self-contained Arrow IPC stream,
+ * which HiveServer2 passes to the JDBC client unchanged. It is used if
+ * HIVE_SERVER2_THRIFT_RESULTSET_SERIALIZE_IN_TASKS is set to true in a session that has
+ * HIVE_SERVER2_THRIFT_RESULTSET_ARROW set when it is opened.
+ *
+ * The values are the ones a {@link ColumnBuffer} holds for the column, so the client reads them
+ * like the values of Thrift columns: the integer types and booleans are kept as such, float and
+ * double are doubles, binary is binary, and every other type, including the complex types, is a
+ * string formatted by the {@link ThriftFormatter}.
+ */
+public class ArrowJDBCBinarySerDe extends AbstractSerDe {
+  public static final Logger LOG = LoggerFactory.getLogger(ArrowJDBCBinarySerDe.class.getName());
+
+  private static BufferAllocator rootAllocator;
+
+  private List<String> columnNames;
+  private List<TypeInfo> columnTypes;
+  private Type[] types;
+  private Schema schema;
+  private long rootAllocatorLimit;
+  private VectorSchemaRoot root;
+  private FieldVector[] vectors;
+  private BytesWritable serializedBytesWritable = new BytesWritable();
+  private ByteStream.Output output = new ByteStream.Output();
+  private ThriftFormatter thriftFormatter = new ThriftFormatter();
+  private int MAX_BUFFERED_ROWS;
+  private int count;
+  private StructObjectInspector rowObjectInspector;
+
+  private static synchronized BufferAllocator getRootAllocator(long limit) {
+    if (rootAllocator == null) {
+      rootAllocator = new RootAllocator(limit);
+    }
+    return rootAllocator;
+  }
+
+  /**
+   * The Arrow type of the column a {@link ColumnBuffer} of the given type is sent in.
+   */
+  public static ArrowType toArrowType(Type type) {
+    switch (type) {
+    case BOOLEAN_TYPE:
+      return MinorType.BIT.getType();
+    case TINYINT_TYPE:
+      return MinorType.TINYINT.getType();
+    case SMALLINT_TYPE:
+      return MinorType.SMALLINT.getType();
+    case INT_TYPE:
+      return MinorType.INT.getType();
+    case BIGINT_TYPE:
+      return MinorType.BIGINT.getType();
+    case FLOAT_TYPE:
+    case DOUBLE_TYPE:
+      return MinorType.FLOAT8.getType();
+    case BINARY_TYPE:
+      return MinorType.VARBINARY.getType();
+    default:
+      return MinorType.VARCHAR.getType();
+    }
+  }
+
+  @Override
+  public void initialize(Configuration conf, Properties tbl) throws SerDeException {
+    MAX_BUFFERED_ROWS =
+      HiveConf.getIntVar(conf, HiveConf.ConfVars.HIVE_SERVER2_THRIFT_RESULTSET_DEFAULT_FETCH_SIZE);
+    LOG.info("ArrowJDBCBinarySerDe max number of buffered rows: " + MAX_BUFFERED_ROWS);
+    String columnNameProperty = tbl.getProperty(serdeConstants.LIST_COLUMNS);
+    String columnTypeProperty = tbl.getProperty(serdeConstants.LIST_COLUMN_TYPES);
+    final String columnNameDelimiter = tbl.containsKey(serdeConstants.COLUMN_NAME_DELIMITER) ? tbl
+        .getProperty(serdeConstants.COLUMN_NAME_DELIMITER) : String.valueOf(SerDeUtils.COMMA);
+    if (columnNameProperty.length() == 0) {
+      columnNames = new ArrayList<String>();
+    } else {
+      columnNames = Arrays.asList(columnNameProperty.split(columnNameDelimiter));
+    }
+    if (columnTypeProperty.length() == 0) {
+      columnTypes = new ArrayList<TypeInfo>();
+    } else {
+      columnTypes = TypeInfoUtils.getTypeInfosFromTypeString(columnTypeProperty);
+    }
+    TypeInfo rowTypeInfo = TypeInfoFactory.getStructTypeInfo(columnNames, columnTypes);
+    rowObjectInspector =
+        (StructObjectInspector) TypeInfoUtils
+            .getStandardWritableObjectInspectorFromTypeInfo(rowTypeInfo);
+
+    types = new Type[columnNames.size()];
+    List<Field> fields = new ArrayList<Field>(types.length);
+    for (int i = 0; i < types.length; i++) {
+      types[i] = Type.getType(columnTypes.get(i));
+      fields.add(Field.nullable(columnNames.get(i), toArrowType(types[i])));
+    }
+    // The vectors are only created by the first serialize() call: HiveServer2 initializes this
+    // SerDe for every query just to deserialize.
+    schema = new Schema(fields);
+    rootAllocatorLimit = HiveConf.getLongVar(conf, HiveConf.ConfVars.HIVE_ARROW_ROOT_ALLOCATOR_LIMIT);
+    root = null;
+    vectors = null;
+    try {
+      thriftFormatter.initialize(conf, tbl);
+    } catch (Exception e) {
+      throw new SerDeException(e);
+    }
+  }
+
+  private void createVectors() {
+    root = VectorSchemaRoot.create(schema, getRootAllocator(rootAllocatorLimit));
+    vectors = root.getFieldVectors().toArray(new FieldVector[types.length]);
+    allocateVectors();
+  }
+
+  private void allocateVectors() {
+    for (FieldVector vector : vectors) {
+      vector.setInitialCapacity(MAX_BUFFERED_ROWS);
+      vector.allocateNew();
+    }
+  }
+
+  @Override
+  public Class<? extends Writable> getSerializedClass() {
+    return BytesWritable.class;
+  }
+
+  private Writable serializeBatch(boolean isLast) throws SerDeException {
+    if (root == null) {
+      createVectors();
+    }
+    output.reset();
+    for (FieldVector vector : vectors) {
+      vector.setValueCount(count);
+    }
+    root.setRowCount(count);
+    try (ArrowStreamWriter writer =
+        new ArrowStreamWriter(root, null, Channels.newChannel(output))) {
+      writer.start();
+      writer.writeBatch();
+      writer.end();
+    } catch (IOException e) {
+      throw new SerDeException(e);
+    }
+    if (isLast) {
+      // Release the buffers to the process-wide allocator.
+      root.close();
+      root = null;
+      vectors = null;
+    } else {
+      // Start the next batch on empty vectors.
+      for (FieldVector vector : vectors) {
+        vector.clear();
+      }
+      allocateVectors();
+    }
+    count = 0;
+    serializedBytesWritable.set(output.getData(), 0, output.getLength());
+    return serializedBytesWritable;
+  }
+
+  private void setValue(int column, int index, Object value) {
+    FieldVector vector = vectors[column];
+    if (value == null) {
+      switch (types[column]) {
+      case BOOLEAN_TYPE:
+        ((BitVector) vector).setNull(index);
+        break;
+      case TINYINT_TYPE:
+        ((TinyIntVector) vector).setNull(index);
+        break;
+      case SMALLINT_TYPE:
+        ((SmallIntVector) vector).setNull(index);
+        break;
+      case INT_TYPE:
+        ((IntVector) vector).setNull(index);
+        break;
+      case BIGINT_TYPE:
+        ((BigIntVector) vector).setNull(index);
+        break;
+      case FLOAT_TYPE:
+      case DOUBLE_TYPE:
+        ((Float8Vector) vector).setNull(index);
+        break;
+      case BINARY_TYPE:
+        ((VarBinaryVector) vector).setNull(index);
+        break;
+      default:
+        ((VarCharVector) vector).setNull(index);
+        break;
+      }
+      return;
+    }
+    // The same conversions as ColumnBuffer.addValue().
+    switch (types[column]) {
+    case BOOLEAN_TYPE:
+      ((BitVector) vector).setSafe(index, (Boolean) value ? 1 : 0);
+      break;
+    case TINYINT_TYPE:
+      ((TinyIntVector) vector).setSafe(index, (Byte) value);
+      break;
+    case SMALLINT_TYPE:
+      ((SmallIntVector) vector).setSafe(index, (Short) value);
+      break;
+    case INT_TYPE:
+      ((IntVector) vector).setSafe(index, (Integer) value);
+      break;
+    case BIGINT_TYPE:
+      ((BigIntVector) vector).setSafe(index, (Long) value);
+      break;
+    case FLOAT_TYPE:
+      ((Float8Vector) vector).setSafe(index, new Double(value.toString()));
+      break;
+    case DOUBLE_TYPE:
+      ((Float8Vector) vector).setSafe(index, (Double) value);
+      break;
+    case BINARY_TYPE:
+      ((VarBinaryVector) vector).setSafe(index, (byte[]) value);
+      break;
+    default:
+      ((VarCharVector) vector).setSafe(index,
+          String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+      break;
+    }
+  }
+
+  /**
+   * Write the row to the Arrow vectors, and a batch once the buffer is full.
+   */
+  @Override
+  public Writable serialize(Object obj, ObjectInspector objInspector) throws SerDeException {
+    //if row is null, it means there are no more rows (closeOp()). another case can be that the buffer is full.
+    if (obj == null) {
+      return serializeBatch(true);
+    }
+    if (root == null) {
+      createVectors();
+    }
+    try {
+      Object[] formattedRow = (Object[]) thriftFormatter.convert(obj, objInspector);
+      for (int i = 0; i < types.length; i++) {
+        setValue(i, count, formattedRow[i]);
+      }
+    } catch (Exception e) {
+      throw new SerDeException(e);
+    }
+    count += 1;
+    if (count == MAX_BUFFERED_ROWS) {
+      return serializeBatch(false);
+    }
+    return null;
+  }
+
+  @Override
+  public SerDeStats getSerDeStats() {
+    return null;
+  }
+
+  /**
+   * Return the bytes from this writable blob.
+   * Eventually the client of this method will read the bytes as an Arrow IPC stream.
+   */
+  @Override
+  public Object deserialize(Writable blob) throws SerDeException {
+    return ((BytesWritable) blob).getBytes();
+  }
+
+  @Override
+  public ObjectInspector getObjectInspector() throws SerDeException {
+    return rowObjectInspector;
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hive.service.cli;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.TinyIntVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.hadoop.hive.serde2.thrift.ColumnBuffer;
+import org.apache.hadoop.hive.serde2.thrift.Type;
+
+/**
+ * Reads the Arrow IPC stream written by ArrowJDBCBinarySerDe into column buffers, with one
+ * pass over each Arrow vector into the array the buffer keeps the values in.
+ */
+final class ArrowColumnReader {
+  private static final ByteBuffer EMPTY_BINARY = ByteBuffer.allocate(0);
+  private static final String EMPTY_STRING = "";
+
+  // Created on first use, so that a client that never reads Arrow needs no Arrow memory.
+  private static class AllocatorHolder {
+    static final BufferAllocator ALLOCATOR = new RootAllocator(Long.MAX_VALUE);
+  }
+
+  private ArrowColumnReader() {
+  }
+
+  static void read(byte[] blob, List<ColumnBuffer> columns) throws IOException {
+    try (ArrowStreamReader reader =
+        new ArrowStreamReader(new ByteArrayInputStream(blob), AllocatorHolder.ALLOCATOR)) {
+      VectorSchemaRoot root = reader.getVectorSchemaRoot();
+      boolean isLoaded = reader.loadNextBatch();
+      for (FieldVector vector : root.getFieldVectors()) {
+        columns.add(toColumnBuffer(vector, isLoaded ? root.getRowCount() : 0));
+      }
+      if (isLoaded && reader.loadNextBatch()) {
+        throw new IOException("Expected a single record batch in a row set blob");
+      }
+    }
+  }
+
+  private static ColumnBuffer toColumnBuffer(FieldVector vector, int size) throws IOException {
+    BitSet nulls = new BitSet();
+    for (int i = 0; i < size; i++) {
+      if (vector.isNull(i)) {
+        nulls.set(i);
+      }
+    }
+    if (vector instanceof BitVector) {
+      BitVector bitVector = (BitVector) vector;
+      boolean[] values = new boolean[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = !nulls.get(i) && bitVector.get(i) != 0;
+      }
+      return new ColumnBuffer(Type.BOOLEAN_TYPE, nulls, values);
+    } else if (vector instanceof TinyIntVector) {
+      TinyIntVector tinyIntVector = (TinyIntVector) vector;
+      byte[] values = new byte[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = nulls.get(i) ? 0 : tinyIntVector.get(i);
+      }
+      return new ColumnBuffer(Type.TINYINT_TYPE, nulls, values);
+    } else if (vector instanceof SmallIntVector) {
+      SmallIntVector smallIntVector = (SmallIntVector) vector;
+      short[] values = new short[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = nulls.get(i) ? 0 : smallIntVector.get(i);
+      }
+      return new ColumnBuffer(Type.SMALLINT_TYPE, nulls, values);
+    } else if (vector instanceof IntVector) {
+      IntVector intVector = (IntVector) vector;
+      int[] values = new int[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = nulls.get(i) ? 0 : intVector.get(i);
+      }
+      return new ColumnBuffer(Type.INT_TYPE, nulls, values);
+    } else if (vector instanceof BigIntVector) {
+      BigIntVector bigIntVector = (BigIntVector) vector;
+      long[] values = new long[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = nulls.get(i) ? 0 : bigIntVector.get(i);
+      }
+      return new ColumnBuffer(Type.BIGINT_TYPE, nulls, values);
+    } else if (vector instanceof Float8Vector) {
+      Float8Vector float8Vector = (Float8Vector) vector;
+      double[] values = new double[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = nulls.get(i) ? 0 : float8Vector.get(i);
+      }
+      return new ColumnBuffer(Type.DOUBLE_TYPE, nulls, values);
+    } else if (vector instanceof VarBinaryVector) {
+      VarBinaryVector varBinaryVector = (VarBinaryVector) vector;
+      List<ByteBuffer> values = new ArrayList<ByteBuffer>(size);
+      for (int i = 0; i < size; i++) {
+        values.add(nulls.get(i) ? EMPTY_BINARY : ByteBuffer.wrap(varBinaryVector.get(i)));
+      }
+      return new ColumnBuffer(Type.BINARY_TYPE, nulls, values);
+    } else if (vector instanceof VarCharVector) {
+      VarCharVector varCharVector = (VarCharVector) vector;
+      List<String> values = new ArrayList<String>(size);
+      for (int i = 0; i < size; i++) {
+        values.add(nulls.get(i) ? EMPTY_STRING
+            : new String(varCharVector.get(i), StandardCharsets.UTF_8));
+      }
+      return new ColumnBuffer(Type.STRING_TYPE, nulls, values);
+    }
+    throw new IOException("Unexpected Arrow vector " + vector.getField() + " in a row set blob");
+  }
+}
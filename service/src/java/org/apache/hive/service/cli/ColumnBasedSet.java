@@ -19,6 +19,7 @@
 package org.apache.hive.service.cli;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -59,10 +60,26 @@ public ColumnBasedSet(TableSchema schema) {
   }
 
   public ColumnBasedSet(TRowSet tRowSet) throws TException {
+    this(tRowSet, false);
+  }
+
+  /**
+   * @param isArrowBased Whether a blob of serialized columns is an Arrow IPC stream written by
+   *                     ArrowJDBCBinarySerDe, instead of TColumns written by ThriftJDBCBinarySerDe.
+   */
+  public ColumnBasedSet(TRowSet tRowSet, boolean isArrowBased) throws TException {
     descriptors = null;
     columns = new ArrayList<ColumnBuffer>();
+    if (tRowSet.isSetBinaryColumns() && isArrowBased) {
+      try {
+        ArrowColumnReader.read(tRowSet.getBinaryColumns(), columns);
+      } catch (IOException e) {
+        LOG.error(e.getMessage(), e);
+        throw new TException("Error reading column values from the Arrow row set blob", e);
+      }
+    }
     // Use TCompactProtocol to read serialized TColumns
-    if (tRowSet.isSetBinaryColumns()) {
+    else if (tRowSet.isSetBinaryColumns()) {
       TProtocol protocol =
           new TCompactProtocol(new TIOStreamTransport(new ByteArrayInputStream(
               tRowSet.getBinaryColumns())));
@@ -18,11 +18,13 @@
 
 package org.apache.hive.service.cli;
 
+import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hive.service.rpc.thrift.TProtocolVersion;
 import org.apache.hive.service.rpc.thrift.TRowSet;
 import org.apache.thrift.TException;
 
 import static org.apache.hive.service.rpc.thrift.TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V6;
+import static org.apache.hive.service.rpc.thrift.TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V9;
 
 public class RowSetFactory {
 
@@ -36,9 +38,25 @@ public static RowSet create(TableSchema schema, TProtocolVersion version, boolea
 
   // This call is accessed from client (jdbc) side
   public static RowSet create(TRowSet results, TProtocolVersion version) throws TException {
+    return create(results, version, false);
+  }
+
+  // This call is accessed from client (jdbc) side, for a session that has Arrow result sets
+  public static RowSet create(TRowSet results, TProtocolVersion version, boolean isArrowBased)
+      throws TException {
 	  if (version.getValue() >= HIVE_CLI_SERVICE_PROTOCOL_V6.getValue()) {
-          return new ColumnBasedSet(results);
+          return new ColumnBasedSet(results, isArrowBased);
        }
       return new RowBasedSet(results);
   }
+
+  /**
+   * Whether the blobs of serialized columns sent to a session are Arrow IPC streams. Like the
+   * blobs themselves, this needs HIVE_CLI_SERVICE_PROTOCOL_V9. It is decided when the session is
+   * opened, and confirmed to the client in the response, so it is the same for the whole session.
+   */
+  public static boolean isArrowBased(HiveConf sessionConf, TProtocolVersion version) {
+    return version.getValue() >= HIVE_CLI_SERVICE_PROTOCOL_V9.getValue()
+        && sessionConf.getBoolVar(HiveConf.ConfVars.HIVE_SERVER2_THRIFT_RESULTSET_ARROW);
+  }
 }
@@ -60,6 +60,7 @@
 import org.apache.hive.service.cli.HiveSQLException;
 import org.apache.hive.service.cli.OperationHandle;
 import org.apache.hive.service.cli.RowSet;
+import org.apache.hive.service.cli.RowSetFactory;
 import org.apache.hive.service.cli.SessionHandle;
 import org.apache.hive.service.cli.TableSchema;
 import org.apache.hive.service.cli.operation.ExecuteStatementOperation;
@@ -198,6 +199,10 @@ public void open(Map<String, String> sessionConfMap) throws HiveSQLException {
     if (sessionConfMap != null) {
       configureSession(sessionConfMap);
     }
+    // Unlike whether the results are serialized in tasks, the format of the blobs is fixed here,
+    // since the client is told about it in the response
+    sessionState.setIsUsingArrowJDBCBinarySerDe(
+        RowSetFactory.isArrowBased(sessionConf, getProtocolVersion()));
     lastAccessTime = System.currentTimeMillis();
   }
 
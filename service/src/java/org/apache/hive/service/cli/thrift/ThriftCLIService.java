@@ -56,6 +56,7 @@
 import org.apache.hive.service.cli.OperationType;
 import org.apache.hive.service.cli.ProgressMonitorStatusMapper;
 import org.apache.hive.service.cli.RowSet;
+import org.apache.hive.service.cli.RowSetFactory;
 import org.apache.hive.service.cli.SessionHandle;
 import org.apache.hive.service.cli.TableSchema;
 import org.apache.hive.service.cli.TezProgressMonitorStatusMapper;
@@ -330,6 +331,12 @@ public TOpenSessionResp OpenSession(TOpenSessionReq req) throws TException {
         Integer.toString(sessionConf != null ?
           sessionConf.getIntVar(HiveConf.ConfVars.HIVE_SERVER2_THRIFT_RESULTSET_DEFAULT_FETCH_SIZE) :
           hiveConf.getIntVar(HiveConf.ConfVars.HIVE_SERVER2_THRIFT_RESULTSET_DEFAULT_FETCH_SIZE)));
+      // Tell the client that the serialized result sets of the session are Arrow IPC streams
+      if (sessionConf != null &&
+          RowSetFactory.isArrowBased(sessionConf, sessionHandle.getProtocolVersion())) {
+        configurationMap.put(
+          HiveConf.ConfVars.HIVE_SERVER2_THRIFT_RESULTSET_ARROW.varname, Boolean.TRUE.toString());
+      }
       resp.setConfiguration(configurationMap);
       resp.setStatus(OK_STATUS);
       ThriftCLIServerContext context =
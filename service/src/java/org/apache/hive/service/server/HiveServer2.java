@@ -70,6 +70,7 @@
 import org.apache.hadoop.hive.ql.cache.results.QueryResultsCache;
 import org.apache.hadoop.hive.ql.exec.mr3.MR3ZooKeeperUtils;
 import org.apache.hadoop.hive.ql.exec.mr3.session.MR3SessionManagerImpl;
+import org.apache.hadoop.hive.ql.io.orc.OrcInputFormat;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.metadata.HiveMaterializedViewsRegistry;
 import org.apache.hadoop.hive.ql.metadata.HiveUtils;
@@ -682,6 +683,8 @@ public synchronized void start() {
     // If we're supporting dynamic service discovery, we'll add the service uri for this
     // HiveServer2 instance to Zookeeper as a znode.
     HiveConf hiveConf = getHiveConf();
+    // Warm up the ORC split generation footer cache from the previous runs on this node.
+    OrcInputFormat.initFooterCache(hiveConf);
     if (serviceDiscovery) {
       try {
         assert zooKeeperClient != null;
@@ -796,6 +799,9 @@ public synchronized void stop() {
     LOG.info("Shutting down HiveServer2");
     HiveConf hiveConf = this.getHiveConf();
     super.stop();
+    if (hiveConf != null) {
+      OrcInputFormat.saveFooterCache(hiveConf);
+    }
 
     String engine = hiveConf.getVar(ConfVars.HIVE_EXECUTION_ENGINE);
     if (serviceDiscovery && activePassiveHA
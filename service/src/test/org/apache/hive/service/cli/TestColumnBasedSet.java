@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hive.service.cli;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.common.type.Timestamp;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.AbstractSerDe;
+import org.apache.hadoop.hive.serde2.SerDeUtils;
+import org.apache.hadoop.hive.serde2.io.DoubleWritable;
+import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
+import org.apache.hadoop.hive.serde2.io.TimestampWritableV2;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.thrift.ArrowJDBCBinarySerDe;
+import org.apache.hadoop.hive.serde2.thrift.ThriftJDBCBinarySerDe;
+import org.apache.hadoop.io.BooleanWritable;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.FloatWritable;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hive.service.rpc.thrift.TProtocolVersion;
+import org.apache.hive.service.rpc.thrift.TRow;
+import org.apache.hive.service.rpc.thrift.TRowSet;
+import org.junit.Test;
+
+/**
+ * Tests reading the blobs of serialized columns that ThriftJDBCBinarySerDe and
+ * ArrowJDBCBinarySerDe write.
+ */
+public class TestColumnBasedSet {
+  private static final String COLUMNS = "b,i,f,d,s,bin,dec,ts,arr";
+  private static final String COLUMN_TYPES =
+      "boolean,int,float,double,string,binary,decimal(10,2),timestamp,array<int>";
+  private static final int NUM_COLUMNS = 9;
+
+  private static List<Object> row(int i) {
+    return Arrays.<Object>asList(new BooleanWritable(i % 2 == 0), new IntWritable(i),
+        new FloatWritable(i + 0.1f), new DoubleWritable(i / 3.0), new Text("row " + i),
+        new BytesWritable(new byte[] { (byte) i, 1 }),
+        new HiveDecimalWritable(HiveDecimal.create(i + ".50")),
+        new TimestampWritableV2(Timestamp.ofEpochSecond(1_500_000_000L + i, 123456789)),
+        Arrays.asList(new IntWritable(i), new IntWritable(-i)));
+  }
+
+  private static List<Object> nullRow() {
+    return Arrays.asList(new Object[NUM_COLUMNS]);
+  }
+
+  /** Serializes the rows with the SerDe, and reads the blobs back. */
+  private static List<Object[]> roundTrip(AbstractSerDe serde, boolean isArrowBased,
+      List<List<Object>> rows) throws Exception {
+    HiveConf conf = new HiveConf();
+    conf.setIntVar(HiveConf.ConfVars.HIVE_SERVER2_THRIFT_RESULTSET_DEFAULT_FETCH_SIZE, 2);
+    conf.setInt(SerDeUtils.LIST_SINK_OUTPUT_PROTOCOL,
+        TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V10.getValue());
+    Properties props = new Properties();
+    props.setProperty(serdeConstants.LIST_COLUMNS, COLUMNS);
+    props.setProperty(serdeConstants.LIST_COLUMN_TYPES, COLUMN_TYPES);
+    serde.initialize(conf, props);
+    ObjectInspector oi = serde.getObjectInspector();
+
+    List<byte[]> blobs = new ArrayList<>();
+    for (List<Object> row : rows) {
+      Writable blob = serde.serialize(row, oi);
+      if (blob != null) {
+        blobs.add(((BytesWritable) blob).copyBytes());
+      }
+    }
+    blobs.add(((BytesWritable) serde.serialize(null, oi)).copyBytes());
+
+    List<Object[]> result = new ArrayList<>();
+    for (byte[] blob : blobs) {
+      TRowSet tRowSet = new TRowSet(0, new ArrayList<TRow>());
+      tRowSet.setBinaryColumns(blob);
+      tRowSet.setColumnCount(NUM_COLUMNS);
+      ColumnBasedSet rowSet = new ColumnBasedSet(tRowSet, isArrowBased);
+      assertEquals(NUM_COLUMNS, rowSet.numColumns());
+      for (Iterator<Object[]> iter = rowSet.iterator(); iter.hasNext(); ) {
+        result.add(iter.next().clone());
+      }
+    }
+    return result;
+  }
+
+  @Test
+  public void testArrowMatchesThrift() throws Exception {
+    List<List<Object>> rows = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      rows.add(i == 3 ? nullRow() : row(i));
+    }
+    List<Object[]> thriftRows = roundTrip(new ThriftJDBCBinarySerDe(), false, rows);
+    List<Object[]> arrowRows = roundTrip(new ArrowJDBCBinarySerDe(), true, rows);
+
+    assertEquals(rows.size(), thriftRows.size());
+    assertEquals(rows.size(), arrowRows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      for (int j = 0; j < NUM_COLUMNS; j++) {
+        Object expected = thriftRows.get(i)[j];
+        Object actual = arrowRows.get(i)[j];
+        if (expected instanceof byte[]) {
+          assertArrayEquals((byte[]) expected, (byte[]) actual);
+        } else {
+          assertEquals("row " + i + ", column " + j, expected, actual);
+        }
+      }
+    }
+    Object[] first = arrowRows.get(1);
+    assertEquals(Boolean.FALSE, first[0]);
+    assertEquals(1, first[1]);
+    assertEquals(1.1, first[2]);
+    assertEquals("row 1", first[4]);
+    assertArrayEquals(new byte[] { 1, 1 }, (byte[]) first[5]);
+    assertEquals("1.5", first[6]);
+    assertEquals("2017-07-14 02:40:01.123456789", first[7]);
+    assertEquals("[1,-1]", first[8]);
+    for (Object value : arrowRows.get(3)) {
+      assertNull(value);
+    }
+  }
+
+  @Test
+  public void testEmptyArrowBlob() throws Exception {
+    List<List<Object>> rows = new ArrayList<>();
+    assertEquals(0, roundTrip(new ArrowJDBCBinarySerDe(), true, rows).size());
+  }
+}
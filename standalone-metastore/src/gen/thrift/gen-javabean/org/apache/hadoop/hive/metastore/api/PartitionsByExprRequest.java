@@ -44,6 +44,7 @@
   private static final org.apache.thrift.protocol.TField DEFAULT_PARTITION_NAME_FIELD_DESC = new org.apache.thrift.protocol.TField("defaultPartitionName", org.apache.thrift.protocol.TType.STRING, (short)4);
   private static final org.apache.thrift.protocol.TField MAX_PARTS_FIELD_DESC = new org.apache.thrift.protocol.TField("maxParts", org.apache.thrift.protocol.TType.I16, (short)5);
   private static final org.apache.thrift.protocol.TField CAT_NAME_FIELD_DESC = new org.apache.thrift.protocol.TField("catName", org.apache.thrift.protocol.TType.STRING, (short)6);
+  private static final org.apache.thrift.protocol.TField FIELD_LIST_FIELD_DESC = new org.apache.thrift.protocol.TField("fieldList", org.apache.thrift.protocol.TType.LIST, (short)7);
 
   private static final Map<Class<? extends IScheme>, SchemeFactory> schemes = new HashMap<Class<? extends IScheme>, SchemeFactory>();
   static {
@@ -57,6 +58,7 @@
   private String defaultPartitionName; // optional
   private short maxParts; // optional
   private String catName; // optional
+  private List<String> fieldList; // optional
 
   /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
   public enum _Fields implements org.apache.thrift.TFieldIdEnum {
@@ -65,7 +67,8 @@
     EXPR((short)3, "expr"),
     DEFAULT_PARTITION_NAME((short)4, "defaultPartitionName"),
     MAX_PARTS((short)5, "maxParts"),
-    CAT_NAME((short)6, "catName");
+    CAT_NAME((short)6, "catName"),
+    FIELD_LIST((short)7, "fieldList");
 
     private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
 
@@ -92,6 +95,8 @@ public static _Fields findByThriftId(int fieldId) {
           return MAX_PARTS;
         case 6: // CAT_NAME
           return CAT_NAME;
+        case 7: // FIELD_LIST
+          return FIELD_LIST;
         default:
           return null;
       }
@@ -134,7 +139,7 @@ public String getFieldName() {
   // isset id assignments
   private static final int __MAXPARTS_ISSET_ID = 0;
   private byte __isset_bitfield = 0;
-  private static final _Fields optionals[] = {_Fields.DEFAULT_PARTITION_NAME,_Fields.MAX_PARTS,_Fields.CAT_NAME};
+  private static final _Fields optionals[] = {_Fields.DEFAULT_PARTITION_NAME,_Fields.MAX_PARTS,_Fields.CAT_NAME,_Fields.FIELD_LIST};
   public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
   static {
     Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
@@ -150,6 +155,9 @@ public String getFieldName() {
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I16)));
     tmpMap.put(_Fields.CAT_NAME, new org.apache.thrift.meta_data.FieldMetaData("catName", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
+    tmpMap.put(_Fields.FIELD_LIST, new org.apache.thrift.meta_data.FieldMetaData("fieldList", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.ListMetaData(org.apache.thrift.protocol.TType.LIST, 
+            new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING))));
     metaDataMap = Collections.unmodifiableMap(tmpMap);
     org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(PartitionsByExprRequest.class, metaDataMap);
   }
@@ -191,6 +199,10 @@ public PartitionsByExprRequest(PartitionsByExprRequest other) {
     if (other.isSetCatName()) {
       this.catName = other.catName;
     }
+    if (other.isSetFieldList()) {
+      List<String> __this__fieldList = new ArrayList<String>(other.fieldList);
+      this.fieldList = __this__fieldList;
+    }
   }
 
   public PartitionsByExprRequest deepCopy() {
@@ -206,6 +218,7 @@ public void clear() {
     this.maxParts = (short)-1;
 
     this.catName = null;
+    this.fieldList = null;
   }
 
   public String getDbName() {
@@ -354,6 +367,44 @@ public void setCatNameIsSet(boolean value) {
     }
   }
 
+  public int getFieldListSize() {
+    return (this.fieldList == null) ? 0 : this.fieldList.size();
+  }
+
+  public java.util.Iterator<String> getFieldListIterator() {
+    return (this.fieldList == null) ? null : this.fieldList.iterator();
+  }
+
+  public void addToFieldList(String elem) {
+    if (this.fieldList == null) {
+      this.fieldList = new ArrayList<String>();
+    }
+    this.fieldList.add(elem);
+  }
+
+  public List<String> getFieldList() {
+    return this.fieldList;
+  }
+
+  public void setFieldList(List<String> fieldList) {
+    this.fieldList = fieldList;
+  }
+
+  public void unsetFieldList() {
+    this.fieldList = null;
+  }
+
+  /** Returns true if field fieldList is set (has been assigned a value) and false otherwise */
+  public boolean isSetFieldList() {
+    return this.fieldList != null;
+  }
+
+  public void setFieldListIsSet(boolean value) {
+    if (!value) {
+      this.fieldList = null;
+    }
+  }
+
   public void setFieldValue(_Fields field, Object value) {
     switch (field) {
     case DB_NAME:
@@ -404,6 +455,14 @@ public void setFieldValue(_Fields field, Object value) {
       }
       break;
 
+    case FIELD_LIST:
+      if (value == null) {
+        unsetFieldList();
+      } else {
+        setFieldList((List<String>)value);
+      }
+      break;
+
     }
   }
 
@@ -427,6 +486,9 @@ public Object getFieldValue(_Fields field) {
     case CAT_NAME:
       return getCatName();
 
+    case FIELD_LIST:
+      return getFieldList();
+
     }
     throw new IllegalStateException();
   }
@@ -450,6 +512,8 @@ public boolean isSet(_Fields field) {
       return isSetMaxParts();
     case CAT_NAME:
       return isSetCatName();
+    case FIELD_LIST:
+      return isSetFieldList();
     }
     throw new IllegalStateException();
   }
@@ -521,6 +585,15 @@ public boolean equals(PartitionsByExprRequest that) {
         return false;
     }
 
+    boolean this_present_fieldList = true && this.isSetFieldList();
+    boolean that_present_fieldList = true && that.isSetFieldList();
+    if (this_present_fieldList || that_present_fieldList) {
+      if (!(this_present_fieldList && that_present_fieldList))
+        return false;
+      if (!this.fieldList.equals(that.fieldList))
+        return false;
+    }
+
     return true;
   }
 
@@ -558,6 +631,11 @@ public int hashCode() {
     if (present_catName)
       list.add(catName);
 
+    boolean present_fieldList = true && (isSetFieldList());
+    list.add(present_fieldList);
+    if (present_fieldList)
+      list.add(fieldList);
+
     return list.hashCode();
   }
 
@@ -629,6 +707,16 @@ public int compareTo(PartitionsByExprRequest other) {
         return lastComparison;
       }
     }
+    lastComparison = Boolean.valueOf(isSetFieldList()).compareTo(other.isSetFieldList());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetFieldList()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.fieldList, other.fieldList);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
     return 0;
   }
 
@@ -698,6 +786,16 @@ public String toString() {
       }
       first = false;
     }
+    if (isSetFieldList()) {
+      if (!first) sb.append(", ");
+      sb.append("fieldList:");
+      if (this.fieldList == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.fieldList);
+      }
+      first = false;
+    }
     sb.append(")");
     return sb.toString();
   }
@@ -803,6 +901,24 @@ public void read(org.apache.thrift.protocol.TProtocol iprot, PartitionsByExprReq
               org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
             }
             break;
+          case 7: // FIELD_LIST
+            if (schemeField.type == org.apache.thrift.protocol.TType.LIST) {
+              {
+                org.apache.thrift.protocol.TList _list1014 = iprot.readListBegin();
+                struct.fieldList = new ArrayList<String>(_list1014.size);
+                String _elem1015;
+                for (int _i1016 = 0; _i1016 < _list1014.size; ++_i1016)
+                {
+                  _elem1015 = iprot.readString();
+                  struct.fieldList.add(_elem1015);
+                }
+                iprot.readListEnd();
+              }
+              struct.setFieldListIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
           default:
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
         }
@@ -850,6 +966,20 @@ public void write(org.apache.thrift.protocol.TProtocol oprot, PartitionsByExprRe
           oprot.writeFieldEnd();
         }
       }
+      if (struct.fieldList != null) {
+        if (struct.isSetFieldList()) {
+          oprot.writeFieldBegin(FIELD_LIST_FIELD_DESC);
+          {
+            oprot.writeListBegin(new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRING, struct.fieldList.size()));
+            for (String _iter1017 : struct.fieldList)
+            {
+              oprot.writeString(_iter1017);
+            }
+            oprot.writeListEnd();
+          }
+          oprot.writeFieldEnd();
+        }
+      }
       oprot.writeFieldStop();
       oprot.writeStructEnd();
     }
@@ -880,7 +1010,10 @@ public void write(org.apache.thrift.protocol.TProtocol prot, PartitionsByExprReq
       if (struct.isSetCatName()) {
         optionals.set(2);
       }
-      oprot.writeBitSet(optionals, 3);
+      if (struct.isSetFieldList()) {
+        optionals.set(3);
+      }
+      oprot.writeBitSet(optionals, 4);
       if (struct.isSetDefaultPartitionName()) {
         oprot.writeString(struct.defaultPartitionName);
       }
@@ -890,6 +1023,15 @@ public void write(org.apache.thrift.protocol.TProtocol prot, PartitionsByExprReq
       if (struct.isSetCatName()) {
         oprot.writeString(struct.catName);
       }
+      if (struct.isSetFieldList()) {
+        {
+          oprot.writeI32(struct.fieldList.size());
+          for (String _iter1018 : struct.fieldList)
+          {
+            oprot.writeString(_iter1018);
+          }
+        }
+      }
     }
 
     @Override
@@ -901,7 +1043,7 @@ public void read(org.apache.thrift.protocol.TProtocol prot, PartitionsByExprRequ
       struct.setTblNameIsSet(true);
       struct.expr = iprot.readBinary();
       struct.setExprIsSet(true);
-      BitSet incoming = iprot.readBitSet(3);
+      BitSet incoming = iprot.readBitSet(4);
       if (incoming.get(0)) {
         struct.defaultPartitionName = iprot.readString();
         struct.setDefaultPartitionNameIsSet(true);
@@ -914,6 +1056,19 @@ public void read(org.apache.thrift.protocol.TProtocol prot, PartitionsByExprRequ
         struct.catName = iprot.readString();
         struct.setCatNameIsSet(true);
       }
+      if (incoming.get(3)) {
+        {
+          org.apache.thrift.protocol.TList _list1019 = new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRING, iprot.readI32());
+          struct.fieldList = new ArrayList<String>(_list1019.size);
+          String _elem1020;
+          for (int _i1021 = 0; _i1021 < _list1019.size; ++_i1021)
+          {
+            _elem1020 = iprot.readString();
+            struct.fieldList.add(_elem1020);
+          }
+        }
+        struct.setFieldListIsSet(true);
+      }
     }
   }
 
@@ -5937,8 +5937,11 @@ public PartitionsByExprResult get_partitions_by_expr(
       try {
         checkLimitNumberOfPartitionsByExpr(catName, dbName, tblName, req.getExpr(), UNLIMITED_MAX_PARTITIONS);
         List<Partition> partitions = new LinkedList<>();
-        boolean hasUnknownPartitions = getMS().getPartitionsByExpr(catName, dbName, tblName,
-            req.getExpr(), req.getDefaultPartitionName(), req.getMaxParts(), partitions);
+        boolean hasUnknownPartitions = req.isSetFieldList() ?
+            getMS().getPartitionsByExpr(catName, dbName, tblName, req.getExpr(),
+                req.getDefaultPartitionName(), req.getMaxParts(), req.getFieldList(), partitions) :
+            getMS().getPartitionsByExpr(catName, dbName, tblName, req.getExpr(),
+                req.getDefaultPartitionName(), req.getMaxParts(), partitions);
         ret = new PartitionsByExprResult(partitions, hasUnknownPartitions);
       } catch (Exception e) {
         ex = e;
@@ -6022,6 +6025,29 @@ public List<Partition> get_partitions_by_names(final String dbName, final String
       return ret;
     }
 
+    @Override
+    public GetPartitionsByNamesResult get_partitions_by_names_req(GetPartitionsByNamesRequest req)
+        throws TException {
+      String dbName = req.getDbName(), tblName = req.getTblName();
+      String catName = req.isSetCatName() ? req.getCatName() : getDefaultCatalog(conf);
+      startTableFunction("get_partitions_by_names_req", catName, dbName, tblName);
+      fireReadTablePreEvent(catName, dbName, tblName);
+      GetPartitionsByNamesResult ret = null;
+      Exception ex = null;
+      try {
+        List<Partition> partitions = getMS().getPartitionsByNames(catName, dbName, tblName,
+            req.getNames(), req.getFieldList());
+        ret = new GetPartitionsByNamesResult();
+        ret.setPartitions(partitions);
+      } catch (Exception e) {
+        ex = e;
+        rethrowException(e);
+      } finally {
+        endFunction("get_partitions_by_names_req", ret != null, ex, tblName);
+      }
+      return ret;
+    }
+
     @Override
     public PrincipalPrivilegeSet get_privilege_set(HiveObjectRef hiveObject, String userName,
                                                    List<String> groupNames) throws TException {
@@ -1474,6 +1474,22 @@ public boolean listPartitionsByExpr(String db_name, String tbl_name, byte[] expr
   public boolean listPartitionsByExpr(String catName, String db_name, String tbl_name, byte[] expr,
       String default_partition_name, int max_parts, List<Partition> result)
           throws TException {
+    return listPartitionsByExpr(catName, db_name, tbl_name, expr, default_partition_name,
+        max_parts, null, result);
+  }
+
+  @Override
+  public boolean listPartitionsByExpr(String db_name, String tbl_name, byte[] expr,
+      String default_partition_name, short max_parts, List<String> fieldList,
+      List<Partition> result) throws TException {
+    return listPartitionsByExpr(getDefaultCatalog(conf), db_name, tbl_name, expr,
+        default_partition_name, max_parts, fieldList, result);
+  }
+
+  @Override
+  public boolean listPartitionsByExpr(String catName, String db_name, String tbl_name, byte[] expr,
+      String default_partition_name, int max_parts, List<String> fieldList,
+      List<Partition> result) throws TException {
     assert result != null;
     PartitionsByExprRequest req = new PartitionsByExprRequest(
         db_name, tbl_name, ByteBuffer.wrap(expr));
@@ -1483,6 +1499,10 @@ public boolean listPartitionsByExpr(String catName, String db_name, String tbl_n
     if (max_parts >= 0) {
       req.setMaxParts(shrinkMaxtoShort(max_parts));
     }
+    // An older metastore ignores the field list and returns whole partitions
+    if (fieldList != null && !fieldList.isEmpty()) {
+      req.setFieldList(fieldList);
+    }
     PartitionsByExprResult r;
     try {
       r = client.get_partitions_by_expr(req);
@@ -1539,6 +1559,62 @@ public List<Partition> getPartitionsByNames(String catName, String db_name, Stri
     return deepCopyPartitions(filterHook.filterPartitions(parts));
   }
 
+  @Override
+  public List<Partition> getPartitionsByNames(String db_name, String tbl_name,
+      List<String> part_names, List<String> fieldList) throws TException {
+    return getPartitionsByNames(getDefaultCatalog(conf), db_name, tbl_name, part_names,
+        fieldList);
+  }
+
+  @Override
+  public List<Partition> getPartitionsByNames(String catName, String db_name, String tbl_name,
+      List<String> part_names, List<String> fieldList) throws TException {
+    if (fieldList == null || fieldList.isEmpty()) {
+      return getPartitionsByNames(catName, db_name, tbl_name, part_names);
+    }
+    GetPartitionsByNamesRequest req =
+        new GetPartitionsByNamesRequest(db_name, tbl_name, part_names);
+    req.setCatName(catName);
+    req.setFieldList(fieldList);
+    List<Partition> parts;
+    try {
+      parts = client.get_partitions_by_names_req(req).getPartitions();
+    } catch (TApplicationException te) {
+      if (te.getType() != TApplicationException.UNKNOWN_METHOD
+          && te.getType() != TApplicationException.WRONG_METHOD_NAME) {
+        throw te;
+      }
+      // An older metastore; get whole partitions
+      return getPartitionsByNames(catName, db_name, tbl_name, part_names);
+    }
+    return deepCopyPartitions(filterHook.filterPartitions(parts));
+  }
+
+  @Override
+  public Iterator<Partition> getPartitionsByNamesIterator(String db_name, String tbl_name,
+      List<String> part_names, int batchSize) {
+    // Go through the calls without a catalog, which SessionHiveMetaStoreClient overrides
+    return new PartitionBatchIterator(this, null, db_name, tbl_name, part_names, batchSize);
+  }
+
+  @Override
+  public Iterator<Partition> getPartitionsByNamesIterator(String catName, String db_name,
+      String tbl_name, List<String> part_names, int batchSize) {
+    return new PartitionBatchIterator(this, catName, db_name, tbl_name, part_names, batchSize);
+  }
+
+  @Override
+  public Iterator<Partition> listPartitionsIterator(String db_name, String tbl_name,
+      int batchSize) throws TException {
+    return PartitionBatchIterator.forTable(this, null, db_name, tbl_name, batchSize);
+  }
+
+  @Override
+  public Iterator<Partition> listPartitionsIterator(String catName, String db_name,
+      String tbl_name, int batchSize) throws TException {
+    return PartitionBatchIterator.forTable(this, catName, db_name, tbl_name, batchSize);
+  }
+
   @Override
   public PartitionValuesResponse listPartitionValues(PartitionValuesRequest request)
       throws MetaException, TException, NoSuchObjectException {
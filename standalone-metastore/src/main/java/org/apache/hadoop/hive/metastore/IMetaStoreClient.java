@@ -21,6 +21,7 @@
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -1373,6 +1374,48 @@ boolean listPartitionsByExpr(String catName, String db_name, String tbl_name, by
                                String default_partition_name, int max_parts, List<Partition> result)
       throws TException;
 
+  /**
+   * Get list of partitions matching specified serialized expression, with only some of their
+   * fields set.
+   * @param db_name the database name
+   * @param tbl_name the table name
+   * @param expr expression, serialized from ExprNodeDesc
+   * @param default_partition_name Default partition name from configuration. If blank, the
+   *    metastore server-side configuration is used.
+   * @param max_parts the maximum number of partitions to return,
+   *    all partitions are returned if -1 is passed
+   * @param fieldList Thrift field names of Partition to set, like "values", and of its
+   *    StorageDescriptor prefixed with "sd.", like "sd.location".  Null or empty to set all of
+   *    them.  The other fields may be unset.
+   * @param result the resulting list of partitions
+   * @return whether the resulting list contains partitions which may or may not match the expr
+   * @throws TException thrift transport error or error executing the filter.
+   */
+  boolean listPartitionsByExpr(String db_name, String tbl_name, byte[] expr,
+      String default_partition_name, short max_parts, List<String> fieldList,
+      List<Partition> result) throws TException;
+
+  /**
+   * Get list of partitions matching specified serialized expression, with only some of their
+   * fields set.
+   * @param catName catalog name
+   * @param db_name the database name
+   * @param tbl_name the table name
+   * @param expr expression, serialized from ExprNodeDesc
+   * @param default_partition_name Default partition name from configuration. If blank, the
+   *    metastore server-side configuration is used.
+   * @param max_parts the maximum number of partitions to return,
+   *    all partitions are returned if -1 is passed
+   * @param fieldList Partition fields to set, as in
+   *    {@link #listPartitionsByExpr(String, String, byte[], String, short, List, List)}.
+   * @param result the resulting list of partitions
+   * @return whether the resulting list contains partitions which may or may not match the expr
+   * @throws TException thrift transport error or error executing the filter.
+   */
+  boolean listPartitionsByExpr(String catName, String db_name, String tbl_name, byte[] expr,
+      String default_partition_name, int max_parts, List<String> fieldList,
+      List<Partition> result) throws TException;
+
   /**
    * List partitions, fetching the authorization information along with the partitions.
    * @param dbName database name
@@ -1434,6 +1477,103 @@ List<Partition> getPartitionsByNames(String catName, String db_name, String tbl_
                                        List<String> part_names)
       throws NoSuchObjectException, MetaException, TException;
 
+  /**
+   * Get partitions by a list of partition names, with only some of their fields set.  The
+   * metastore skips the queries for the one-to-many fields that are left out, so this is cheaper
+   * than getting whole partitions.
+   * @param db_name database name
+   * @param tbl_name table name
+   * @param part_names list of partition names
+   * @param fieldList Thrift field names of Partition to set, like "values", and of its
+   *    StorageDescriptor prefixed with "sd.", like "sd.location".  Null or empty to set all of
+   *    them.  The other fields may be unset.
+   * @return list of Partition objects
+   * @throws NoSuchObjectException No such partitions
+   * @throws MetaException error accessing the RDBMS, or invalid field name.
+   * @throws TException thrift transport error
+   */
+  List<Partition> getPartitionsByNames(String db_name, String tbl_name,
+      List<String> part_names, List<String> fieldList)
+      throws NoSuchObjectException, MetaException, TException;
+
+  /**
+   * Get partitions by a list of partition names, with only some of their fields set.
+   * @param catName catalog name
+   * @param db_name database name
+   * @param tbl_name table name
+   * @param part_names list of partition names
+   * @param fieldList Partition fields to set, as in
+   *    {@link #getPartitionsByNames(String, String, List, List)}.
+   * @return list of Partition objects
+   * @throws NoSuchObjectException No such partitions
+   * @throws MetaException error accessing the RDBMS, or invalid field name.
+   * @throws TException thrift transport error
+   */
+  List<Partition> getPartitionsByNames(String catName, String db_name, String tbl_name,
+      List<String> part_names, List<String> fieldList)
+      throws NoSuchObjectException, MetaException, TException;
+
+  /**
+   * Get partitions by a list of partition names, fetching them lazily in batches, so that only
+   * one batch is held in memory and in a single response at a time.  A failure to fetch a batch
+   * is thrown by the iterator as a {@link PartitionBatchIterator.PartitionFetchException}.
+   * The batches are fetched by the client object itself, outside a proxy such as
+   * {@link RetryingMetaStoreClient}; to retry each batch, build a {@link PartitionBatchIterator}
+   * around the proxy instead.
+   * @param db_name database name
+   * @param tbl_name table name
+   * @param part_names list of partition names
+   * @param batchSize maximum number of partitions fetched in one call
+   * @return iterator over the Partition objects
+   */
+  Iterator<Partition> getPartitionsByNamesIterator(String db_name, String tbl_name,
+      List<String> part_names, int batchSize);
+
+  /**
+   * Get partitions by a list of partition names, fetching them lazily in batches, so that only
+   * one batch is held in memory and in a single response at a time.  A failure to fetch a batch
+   * is thrown by the iterator as a {@link PartitionBatchIterator.PartitionFetchException}.
+   * @param catName catalog name
+   * @param db_name database name
+   * @param tbl_name table name
+   * @param part_names list of partition names
+   * @param batchSize maximum number of partitions fetched in one call
+   * @return iterator over the Partition objects
+   */
+  Iterator<Partition> getPartitionsByNamesIterator(String catName, String db_name,
+      String tbl_name, List<String> part_names, int batchSize);
+
+  /**
+   * Get all the partitions of a table, in the order of their names.  Only the partition names are
+   * fetched up front; the partitions are fetched lazily in batches, as in
+   * {@link #getPartitionsByNamesIterator(String, String, List, int)}.
+   * @param db_name database name
+   * @param tbl_name table name
+   * @param batchSize maximum number of partitions fetched in one call
+   * @return iterator over the Partition objects
+   * @throws NoSuchObjectException No such table.
+   * @throws MetaException error accessing the RDBMS.
+   * @throws TException thrift transport error
+   */
+  Iterator<Partition> listPartitionsIterator(String db_name, String tbl_name, int batchSize)
+      throws NoSuchObjectException, MetaException, TException;
+
+  /**
+   * Get all the partitions of a table, in the order of their names.  Only the partition names are
+   * fetched up front; the partitions are fetched lazily in batches, as in
+   * {@link #getPartitionsByNamesIterator(String, String, String, List, int)}.
+   * @param catName catalog name
+   * @param db_name database name
+   * @param tbl_name table name
+   * @param batchSize maximum number of partitions fetched in one call
+   * @return iterator over the Partition objects
+   * @throws NoSuchObjectException No such table.
+   * @throws MetaException error accessing the RDBMS.
+   * @throws TException thrift transport error
+   */
+  Iterator<Partition> listPartitionsIterator(String catName, String db_name, String tbl_name,
+      int batchSize) throws NoSuchObjectException, MetaException, TException;
+
   /**
    * List partitions along with privilege information for a user or groups
    * @param dbName database name
@@ -454,6 +454,23 @@ public List<String> getMaterializedViewsForRewriting(String dbName) throws MetaE
   public List<Partition> getPartitionsViaSqlFilter(final String catName, final String dbName,
                                                    final String tblName, List<String> partNames)
       throws MetaException {
+    return getPartitionsViaSqlFilter(catName, dbName, tblName, partNames, PartitionProjection.ALL);
+  }
+
+  /**
+   * Gets partitions by using direct SQL queries, with only the fields in the projection set.
+   * The queries for the one-to-many fields that are not in the projection, like the columns,
+   * the skewed info or the parameters, are skipped.
+   * @param catName Metastore catalog name.
+   * @param dbName Metastore db name.
+   * @param tblName Metastore table name.
+   * @param partNames Partition names to get.
+   * @param projection Fields of the partitions to get.
+   * @return List of partitions.
+   */
+  public List<Partition> getPartitionsViaSqlFilter(final String catName, final String dbName,
+      final String tblName, List<String> partNames, final PartitionProjection projection)
+      throws MetaException {
     if (partNames.isEmpty()) {
       return Collections.emptyList();
     }
@@ -462,7 +479,7 @@ public List<Partition> getPartitionsViaSqlFilter(final String catName, final Str
       public List<Partition> run(List<String> input) throws MetaException {
         String filter = "" + PARTITIONS + ".\"PART_NAME\" in (" + makeParams(input.size()) + ")";
         return getPartitionsViaSqlFilterInternal(catName, dbName, tblName, null, filter, input,
-            Collections.<String>emptyList(), null);
+            Collections.<String>emptyList(), null, projection);
       }
     });
   }
@@ -475,11 +492,24 @@ public List<Partition> run(List<String> input) throws MetaException {
    */
   public List<Partition> getPartitionsViaSqlFilter(
       SqlFilterForPushdown filter, Integer max) throws MetaException {
+    return getPartitionsViaSqlFilter(filter, max, PartitionProjection.ALL);
+  }
+
+  /**
+   * Gets partitions by using direct SQL queries, with only the fields in the projection set.
+   * @param filter The filter.
+   * @param max The maximum number of partitions to return.
+   * @param projection Fields of the partitions to get.
+   * @return List of partitions.
+   */
+  public List<Partition> getPartitionsViaSqlFilter(SqlFilterForPushdown filter, Integer max,
+      PartitionProjection projection) throws MetaException {
     Boolean isViewTable = isViewTable(filter.table);
     String catName = filter.table.isSetCatName() ? filter.table.getCatName() :
         DEFAULT_CATALOG_NAME;
     return getPartitionsViaSqlFilterInternal(catName, filter.table.getDbName(),
-        filter.table.getTableName(), isViewTable, filter.filter, filter.params, filter.joins, max);
+        filter.table.getTableName(), isViewTable, filter.filter, filter.params, filter.joins, max,
+        projection);
   }
 
   public static class SqlFilterForPushdown {
@@ -510,7 +540,8 @@ public boolean generateSqlFilterForPushdown(
   public List<Partition> getPartitions(String catName,
       String dbName, String tblName, Integer max) throws MetaException {
     return getPartitionsViaSqlFilterInternal(catName, dbName, tblName, null,
-        null, Collections.<String>emptyList(), Collections.<String>emptyList(), max);
+        null, Collections.<String>emptyList(), Collections.<String>emptyList(), max,
+        PartitionProjection.ALL);
   }
 
   private static Boolean isViewTable(Table t) {
@@ -548,12 +579,13 @@ private boolean isViewTable(String catName, String dbName, String tblName) throw
    * @param joinsForFilter if the filter needs additional join statement, they must be in
    *                       this list. Better be SQL92-compliant.
    * @param max The maximum number of partitions to return.
+   * @param projection Fields of the partitions to get.
    * @return List of partition objects.
    */
   private List<Partition> getPartitionsViaSqlFilterInternal(
       String catName, String dbName, String tblName, final Boolean isView, String sqlFilter,
-      List<? extends Object> paramsForFilter, List<String> joinsForFilter,Integer max)
-      throws MetaException {
+      List<? extends Object> paramsForFilter, List<String> joinsForFilter,Integer max,
+      final PartitionProjection projection) throws MetaException {
     boolean doTrace = LOG.isDebugEnabled();
     final String dbNameLcase = dbName.toLowerCase(), tblNameLcase = tblName.toLowerCase();
     final String catNameLcase = normalizeSpace(catName);
@@ -602,7 +634,7 @@ private List<Partition> getPartitionsViaSqlFilterInternal(
       @Override
       public List<Partition> run(List<Object> input) throws MetaException {
         return getPartitionsFromPartitionIds(catNameLcase, dbNameLcase, tblNameLcase, isView,
-            input);
+            input, projection);
       }
     });
 
@@ -612,7 +644,8 @@ public List<Partition> run(List<Object> input) throws MetaException {
 
   /** Should be called with the list short enough to not trip up Oracle/etc. */
   private List<Partition> getPartitionsFromPartitionIds(String catName, String dbName, String tblName,
-      Boolean isView, List<Object> partIdList) throws MetaException {
+      Boolean isView, List<Object> partIdList, PartitionProjection projection)
+      throws MetaException {
     boolean doTrace = LOG.isDebugEnabled();
     int idStringWidth = (int)Math.ceil(Math.log10(partIdList.size())) + 1; // 1 for comma
     int sbCapacity = partIdList.size() * idStringWidth;
@@ -737,33 +770,40 @@ private List<Partition> getPartitionsFromPartitionIds(String catName, String dbN
     query.closeAll();
     timingTrace(doTrace, queryText, start, queryTime);
 
-    // Now get all the one-to-many things. Start with partitions.
-    queryText = "select \"PART_ID\", \"PARAM_KEY\", \"PARAM_VALUE\" from " + PARTITION_PARAMS + ""
-        + " where \"PART_ID\" in (" + partIds + ") and \"PARAM_KEY\" is not null"
-        + " order by \"PART_ID\" asc";
-    loopJoinOrderedResult(partitions, queryText, 0, new ApplyFunc<Partition>() {
-      @Override
-      public void apply(Partition t, Object[] fields) {
-        t.putToParameters((String)fields[1], (String)fields[2]);
-      }});
-    // Perform conversion of null map values
-    for (Partition t : partitions.values()) {
-      t.setParameters(MetaStoreUtils.trimMapNulls(t.getParameters(), convertMapNullsToEmptyStrings));
-    }
-
-    queryText = "select \"PART_ID\", \"PART_KEY_VAL\" from " + PARTITION_KEY_VALS + ""
-        + " where \"PART_ID\" in (" + partIds + ")"
-        + " order by \"PART_ID\" asc, \"INTEGER_IDX\" asc";
-    loopJoinOrderedResult(partitions, queryText, 0, new ApplyFunc<Partition>() {
-      @Override
-      public void apply(Partition t, Object[] fields) {
-        t.addToValues((String)fields[1]);
-      }});
+    // Now get all the one-to-many things in the projection. Start with partitions.
+    if (projection.includes(Partition._Fields.PARAMETERS)) {
+      queryText = "select \"PART_ID\", \"PARAM_KEY\", \"PARAM_VALUE\" from " + PARTITION_PARAMS + ""
+          + " where \"PART_ID\" in (" + partIds + ") and \"PARAM_KEY\" is not null"
+          + " order by \"PART_ID\" asc";
+      loopJoinOrderedResult(partitions, queryText, 0, new ApplyFunc<Partition>() {
+        @Override
+        public void apply(Partition t, Object[] fields) {
+          t.putToParameters((String)fields[1], (String)fields[2]);
+        }});
+      // Perform conversion of null map values
+      for (Partition t : partitions.values()) {
+        t.setParameters(MetaStoreUtils.trimMapNulls(t.getParameters(), convertMapNullsToEmptyStrings));
+      }
+    }
+
+    if (projection.includes(Partition._Fields.VALUES)) {
+      queryText = "select \"PART_ID\", \"PART_KEY_VAL\" from " + PARTITION_KEY_VALS + ""
+          + " where \"PART_ID\" in (" + partIds + ")"
+          + " order by \"PART_ID\" asc, \"INTEGER_IDX\" asc";
+      loopJoinOrderedResult(partitions, queryText, 0, new ApplyFunc<Partition>() {
+        @Override
+        public void apply(Partition t, Object[] fields) {
+          t.addToValues((String)fields[1]);
+        }});
+    }
 
     // Prepare IN (blah) lists for the following queries. Cut off the final ','s.
     if (sdSb.length() == 0) {
       assert serdeSb.length() == 0 && colsSb.length() == 0;
-      return orderedResult; // No SDs, probably a view.
+      return applyProjection(orderedResult, projection); // No SDs, probably a view.
+    }
+    if (!projection.includes(Partition._Fields.SD)) {
+      return applyProjection(orderedResult, projection);
     }
 
     String sdIds = trimCommaList(sdSb);
@@ -771,50 +811,59 @@ public void apply(Partition t, Object[] fields) {
     String colIds = trimCommaList(colsSb);
 
     // Get all the stuff for SD. Don't do empty-list check - we expect partitions do have SDs.
-    queryText = "select \"SD_ID\", \"PARAM_KEY\", \"PARAM_VALUE\" from " + SD_PARAMS + ""
-        + " where \"SD_ID\" in (" + sdIds + ") and \"PARAM_KEY\" is not null"
-        + " order by \"SD_ID\" asc";
-    loopJoinOrderedResult(sds, queryText, 0, new ApplyFunc<StorageDescriptor>() {
-      @Override
-      public void apply(StorageDescriptor t, Object[] fields) {
-        t.putToParameters((String)fields[1], extractSqlClob(fields[2]));
-      }});
-    // Perform conversion of null map values
-    for (StorageDescriptor t : sds.values()) {
-      t.setParameters(MetaStoreUtils.trimMapNulls(t.getParameters(), convertMapNullsToEmptyStrings));
-    }
-
-    queryText = "select \"SD_ID\", \"COLUMN_NAME\", " + SORT_COLS + ".\"ORDER\""
-        + " from " + SORT_COLS + ""
-        + " where \"SD_ID\" in (" + sdIds + ")"
-        + " order by \"SD_ID\" asc, \"INTEGER_IDX\" asc";
-    loopJoinOrderedResult(sds, queryText, 0, new ApplyFunc<StorageDescriptor>() {
-      @Override
-      public void apply(StorageDescriptor t, Object[] fields) {
-        if (fields[2] == null) return;
-        t.addToSortCols(new Order((String)fields[1], extractSqlInt(fields[2])));
-      }});
-
-    queryText = "select \"SD_ID\", \"BUCKET_COL_NAME\" from " + BUCKETING_COLS + ""
-        + " where \"SD_ID\" in (" + sdIds + ")"
-        + " order by \"SD_ID\" asc, \"INTEGER_IDX\" asc";
-    loopJoinOrderedResult(sds, queryText, 0, new ApplyFunc<StorageDescriptor>() {
-      @Override
-      public void apply(StorageDescriptor t, Object[] fields) {
-        t.addToBucketCols((String)fields[1]);
-      }});
+    if (projection.includes(StorageDescriptor._Fields.PARAMETERS)) {
+      queryText = "select \"SD_ID\", \"PARAM_KEY\", \"PARAM_VALUE\" from " + SD_PARAMS + ""
+          + " where \"SD_ID\" in (" + sdIds + ") and \"PARAM_KEY\" is not null"
+          + " order by \"SD_ID\" asc";
+      loopJoinOrderedResult(sds, queryText, 0, new ApplyFunc<StorageDescriptor>() {
+        @Override
+        public void apply(StorageDescriptor t, Object[] fields) {
+          t.putToParameters((String)fields[1], extractSqlClob(fields[2]));
+        }});
+      // Perform conversion of null map values
+      for (StorageDescriptor t : sds.values()) {
+        t.setParameters(MetaStoreUtils.trimMapNulls(t.getParameters(), convertMapNullsToEmptyStrings));
+      }
+    }
 
-    // Skewed columns stuff.
-    queryText = "select \"SD_ID\", \"SKEWED_COL_NAME\" from " + SKEWED_COL_NAMES + ""
-        + " where \"SD_ID\" in (" + sdIds + ")"
-        + " order by \"SD_ID\" asc, \"INTEGER_IDX\" asc";
-    boolean hasSkewedColumns =
+    if (projection.includes(StorageDescriptor._Fields.SORT_COLS)) {
+      queryText = "select \"SD_ID\", \"COLUMN_NAME\", " + SORT_COLS + ".\"ORDER\""
+          + " from " + SORT_COLS + ""
+          + " where \"SD_ID\" in (" + sdIds + ")"
+          + " order by \"SD_ID\" asc, \"INTEGER_IDX\" asc";
       loopJoinOrderedResult(sds, queryText, 0, new ApplyFunc<StorageDescriptor>() {
         @Override
         public void apply(StorageDescriptor t, Object[] fields) {
-          if (!t.isSetSkewedInfo()) t.setSkewedInfo(new SkewedInfo());
-          t.getSkewedInfo().addToSkewedColNames((String)fields[1]);
-        }}) > 0;
+          if (fields[2] == null) return;
+          t.addToSortCols(new Order((String)fields[1], extractSqlInt(fields[2])));
+        }});
+    }
+
+    if (projection.includes(StorageDescriptor._Fields.BUCKET_COLS)) {
+      queryText = "select \"SD_ID\", \"BUCKET_COL_NAME\" from " + BUCKETING_COLS + ""
+          + " where \"SD_ID\" in (" + sdIds + ")"
+          + " order by \"SD_ID\" asc, \"INTEGER_IDX\" asc";
+      loopJoinOrderedResult(sds, queryText, 0, new ApplyFunc<StorageDescriptor>() {
+        @Override
+        public void apply(StorageDescriptor t, Object[] fields) {
+          t.addToBucketCols((String)fields[1]);
+        }});
+    }
+
+    // Skewed columns stuff.
+    boolean hasSkewedColumns = false;
+    if (projection.includes(StorageDescriptor._Fields.SKEWED_INFO)) {
+      queryText = "select \"SD_ID\", \"SKEWED_COL_NAME\" from " + SKEWED_COL_NAMES + ""
+          + " where \"SD_ID\" in (" + sdIds + ")"
+          + " order by \"SD_ID\" asc, \"INTEGER_IDX\" asc";
+      hasSkewedColumns =
+        loopJoinOrderedResult(sds, queryText, 0, new ApplyFunc<StorageDescriptor>() {
+          @Override
+          public void apply(StorageDescriptor t, Object[] fields) {
+            if (!t.isSetSkewedInfo()) t.setSkewedInfo(new SkewedInfo());
+            t.getSkewedInfo().addToSkewedColNames((String)fields[1]);
+          }}) > 0;
+    }
 
     // Assume we don't need to fetch the rest of the skewed column data if we have no columns.
     if (hasSkewedColumns) {
@@ -900,7 +949,7 @@ public void apply(StorageDescriptor t, Object[] fields) throws MetaException {
     } // if (hasSkewedColumns)
 
     // Get FieldSchema stuff if any.
-    if (!colss.isEmpty()) {
+    if (!colss.isEmpty() && projection.includes(StorageDescriptor._Fields.COLS)) {
       // We are skipping the CDS table here, as it seems to be totally useless.
       queryText = "select \"CD_ID\", \"COMMENT\", \"COLUMN_NAME\", \"TYPE_NAME\""
           + " from " + COLUMNS_V2 + " where \"CD_ID\" in (" + colIds + ")"
@@ -913,20 +962,32 @@ public void apply(List<FieldSchema> t, Object[] fields) {
     }
 
     // Finally, get all the stuff for serdes - just the params.
-    queryText = "select \"SERDE_ID\", \"PARAM_KEY\", \"PARAM_VALUE\" from " + SERDE_PARAMS + ""
-        + " where \"SERDE_ID\" in (" + serdeIds + ") and \"PARAM_KEY\" is not null"
-        + " order by \"SERDE_ID\" asc";
-    loopJoinOrderedResult(serdes, queryText, 0, new ApplyFunc<SerDeInfo>() {
-      @Override
-      public void apply(SerDeInfo t, Object[] fields) {
-        t.putToParameters((String)fields[1], extractSqlClob(fields[2]));
-      }});
-    // Perform conversion of null map values
-    for (SerDeInfo t : serdes.values()) {
-      t.setParameters(MetaStoreUtils.trimMapNulls(t.getParameters(), convertMapNullsToEmptyStrings));
+    if (projection.includes(StorageDescriptor._Fields.SERDE_INFO)) {
+      queryText = "select \"SERDE_ID\", \"PARAM_KEY\", \"PARAM_VALUE\" from " + SERDE_PARAMS + ""
+          + " where \"SERDE_ID\" in (" + serdeIds + ") and \"PARAM_KEY\" is not null"
+          + " order by \"SERDE_ID\" asc";
+      loopJoinOrderedResult(serdes, queryText, 0, new ApplyFunc<SerDeInfo>() {
+        @Override
+        public void apply(SerDeInfo t, Object[] fields) {
+          t.putToParameters((String)fields[1], extractSqlClob(fields[2]));
+        }});
+      // Perform conversion of null map values
+      for (SerDeInfo t : serdes.values()) {
+        t.setParameters(MetaStoreUtils.trimMapNulls(t.getParameters(), convertMapNullsToEmptyStrings));
+      }
     }
 
-    return orderedResult;
+    return applyProjection(orderedResult, projection);
+  }
+
+  private static List<Partition> applyProjection(List<Partition> partitions,
+      PartitionProjection projection) {
+    if (!projection.isAll()) {
+      for (Partition part : partitions) {
+        projection.apply(part);
+      }
+    }
+    return partitions;
   }
 
   public int getNumPartitionsViaSqlFilter(SqlFilterForPushdown filter) throws MetaException {
@@ -3267,20 +3267,43 @@ public List<Partition> getPartitionsByNames(String catName, String dbName, Strin
     return getPartitionsByNamesInternal(catName, dbName, tblName, partNames, true, true);
   }
 
+  @Override
+  public List<Partition> getPartitionsByNames(String catName, String dbName, String tblName,
+      List<String> partNames, List<String> fieldList)
+      throws MetaException, NoSuchObjectException {
+    return getPartitionsByNamesInternal(catName, dbName, tblName, partNames,
+        new PartitionProjection(fieldList), true, true);
+  }
+
   protected List<Partition> getPartitionsByNamesInternal(String catName, String dbName,
                                                          String tblName,
                                                          final List<String> partNames,
                                                          boolean allowSql, boolean allowJdo)
           throws MetaException, NoSuchObjectException {
+    return getPartitionsByNamesInternal(catName, dbName, tblName, partNames,
+        PartitionProjection.ALL, allowSql, allowJdo);
+  }
+
+  protected List<Partition> getPartitionsByNamesInternal(String catName, String dbName,
+      String tblName, final List<String> partNames, final PartitionProjection projection,
+      boolean allowSql, boolean allowJdo) throws MetaException, NoSuchObjectException {
     return new GetListHelper<Partition>(catName, dbName, tblName, allowSql, allowJdo) {
       @Override
       protected List<Partition> getSqlResult(GetHelper<List<Partition>> ctx) throws MetaException {
-        return directSql.getPartitionsViaSqlFilter(catName, dbName, tblName, partNames);
+        return directSql.getPartitionsViaSqlFilter(catName, dbName, tblName, partNames,
+            projection);
       }
       @Override
       protected List<Partition> getJdoResult(
           GetHelper<List<Partition>> ctx) throws MetaException, NoSuchObjectException {
-        return getPartitionsViaOrmFilter(catName, dbName, tblName, partNames);
+        // JDO loads whole partitions anyway
+        List<Partition> parts = getPartitionsViaOrmFilter(catName, dbName, tblName, partNames);
+        if (!projection.isAll()) {
+          for (Partition part : parts) {
+            projection.apply(part);
+          }
+        }
+        return parts;
       }
     }.run(false);
   }
@@ -3292,9 +3315,25 @@ public boolean getPartitionsByExpr(String catName, String dbName, String tblName
         catName, dbName, tblName, expr, defaultPartitionName, maxParts, result, true, true);
   }
 
+  @Override
+  public boolean getPartitionsByExpr(String catName, String dbName, String tblName, byte[] expr,
+      String defaultPartitionName, short maxParts, List<String> fieldList,
+      List<Partition> result) throws TException {
+    return getPartitionsByExprInternal(catName, dbName, tblName, expr, defaultPartitionName,
+        maxParts, new PartitionProjection(fieldList), result, true, true);
+  }
+
   protected boolean getPartitionsByExprInternal(String catName, String dbName, String tblName, final byte[] expr,
       final String defaultPartitionName, final  short maxParts, List<Partition> result,
       boolean allowSql, boolean allowJdo) throws TException {
+    return getPartitionsByExprInternal(catName, dbName, tblName, expr, defaultPartitionName,
+        maxParts, PartitionProjection.ALL, result, allowSql, allowJdo);
+  }
+
+  protected boolean getPartitionsByExprInternal(String catName, String dbName, String tblName,
+      final byte[] expr, final String defaultPartitionName, final short maxParts,
+      final PartitionProjection projection, List<Partition> result,
+      boolean allowSql, boolean allowJdo) throws TException {
     assert result != null;
     final ExpressionTree exprTree = PartFilterExprUtil.makeExpressionTree(expressionProxy, expr);
     final AtomicBoolean hasUnknownPartitions = new AtomicBoolean(false);
@@ -3306,14 +3345,15 @@ protected List<Partition> getSqlResult(GetHelper<List<Partition>> ctx) throws Me
         if (exprTree != null) {
           SqlFilterForPushdown filter = new SqlFilterForPushdown();
           if (directSql.generateSqlFilterForPushdown(ctx.getTable(), exprTree, filter)) {
-            return directSql.getPartitionsViaSqlFilter(filter, null);
+            return directSql.getPartitionsViaSqlFilter(filter, null, projection);
           }
         }
         // We couldn't do SQL filter pushdown. Get names via normal means.
         List<String> partNames = new LinkedList<>();
         hasUnknownPartitions.set(getPartitionNamesPrunedByExprNoTxn(
             ctx.getTable(), expr, defaultPartitionName, maxParts, partNames));
-        return directSql.getPartitionsViaSqlFilter(catName, dbName, tblName, partNames);
+        return directSql.getPartitionsViaSqlFilter(catName, dbName, tblName, partNames,
+            projection);
       }
 
       @Override
@@ -3331,6 +3371,12 @@ protected List<Partition> getJdoResult(
               ctx.getTable(), expr, defaultPartitionName, maxParts, partNames));
           result = getPartitionsViaOrmFilter(catName, dbName, tblName, partNames);
         }
+        // JDO loads whole partitions anyway
+        if (!projection.isAll()) {
+          for (Partition part : result) {
+            projection.apply(part);
+          }
+        }
         return result;
       }
     }.run(true));
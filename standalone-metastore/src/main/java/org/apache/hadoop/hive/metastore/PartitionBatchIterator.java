@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.metastore;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.thrift.TException;
+
+/**
+ * An iterator over the partitions with the given names, which fetches them from the metastore
+ * lazily, at most batchSize partitions per call to getPartitionsByNames. It is meant for tables
+ * whose partitions are too many to be fetched in a single response: only the partition names and
+ * the current batch are kept in memory, and each response is bounded by the batch size.
+ *
+ * The position in the list of names is the continuation of the iterator, so the metastore keeps no
+ * state between the calls. A partition dropped after the names were listed is skipped.
+ *
+ * A failed call is thrown as a {@link PartitionFetchException}, whose cause is the TException.
+ */
+public class PartitionBatchIterator implements Iterator<Partition> {
+
+  /**
+   * Unchecked exception thrown by {@link PartitionBatchIterator} when it fails to fetch a batch.
+   */
+  public static class PartitionFetchException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    PartitionFetchException(TException cause) {
+      super(cause);
+    }
+
+    @Override
+    public synchronized TException getCause() {
+      return (TException) super.getCause();
+    }
+  }
+
+  private final IMetaStoreClient client;
+  private final String catName;
+  private final String dbName;
+  private final String tblName;
+  private final List<String> partNames;
+  private final List<String> fieldList;
+  private final int batchSize;
+
+  private int nextBatchStart = 0;
+  private Iterator<Partition> batch = Collections.emptyIterator();
+
+  /**
+   * @param client the client to fetch the partitions with.
+   * @param catName catalog name, or null to use the calls without a catalog, which let the client
+   *                resolve the default catalog.
+   * @param dbName database name.
+   * @param tblName table name.
+   * @param partNames names of the partitions, in the order they are returned.
+   * @param batchSize maximum number of partitions fetched per call.
+   */
+  public PartitionBatchIterator(IMetaStoreClient client, String catName, String dbName,
+      String tblName, List<String> partNames, int batchSize) {
+    this(client, catName, dbName, tblName, partNames, null, batchSize);
+  }
+
+  /**
+   * @param client the client to fetch the partitions with.
+   * @param catName catalog name, or null to use the calls without a catalog.
+   * @param dbName database name.
+   * @param tblName table name.
+   * @param partNames names of the partitions, in the order they are returned.
+   * @param fieldList Partition fields to fetch, as in
+   *                  {@link IMetaStoreClient#getPartitionsByNames(String, String, List, List)},
+   *                  or null for whole partitions.
+   * @param batchSize maximum number of partitions fetched per call.
+   */
+  public PartitionBatchIterator(IMetaStoreClient client, String catName, String dbName,
+      String tblName, List<String> partNames, List<String> fieldList, int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+    }
+    this.client = client;
+    this.catName = catName;
+    this.dbName = dbName;
+    this.tblName = tblName;
+    this.partNames = partNames;
+    this.fieldList = fieldList;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Returns an iterator over all the partitions of the table, in the order of their names.
+   */
+  public static PartitionBatchIterator forTable(IMetaStoreClient client, String catName,
+      String dbName, String tblName, int batchSize) throws TException {
+    List<String> partNames = catName == null ?
+        client.listPartitionNames(dbName, tblName, (short) -1) :
+        client.listPartitionNames(catName, dbName, tblName, -1);
+    return new PartitionBatchIterator(client, catName, dbName, tblName, partNames, batchSize);
+  }
+
+  @Override
+  public boolean hasNext() {
+    // A batch may come back empty if its partitions were dropped in the meantime
+    while (!batch.hasNext() && nextBatchStart < partNames.size()) {
+      int nextBatchEnd = Math.min(partNames.size(), nextBatchStart + batchSize);
+      List<String> names = partNames.subList(nextBatchStart, nextBatchEnd);
+      try {
+        List<Partition> parts;
+        if (fieldList == null) {
+          parts = catName == null ?
+              client.getPartitionsByNames(dbName, tblName, names) :
+              client.getPartitionsByNames(catName, dbName, tblName, names);
+        } else {
+          parts = catName == null ?
+              client.getPartitionsByNames(dbName, tblName, names, fieldList) :
+              client.getPartitionsByNames(catName, dbName, tblName, names, fieldList);
+        }
+        batch = parts == null ? Collections.<Partition>emptyIterator() : parts.iterator();
+      } catch (TException e) {
+        throw new PartitionFetchException(e);
+      }
+      nextBatchStart = nextBatchEnd;
+    }
+    return batch.hasNext();
+  }
+
+  @Override
+  public Partition next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return batch.next();
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.metastore;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+
+/**
+ * The fields of a Partition to fetch, given as a list of the Thrift field names of Partition,
+ * like "values" or "parameters", and of its StorageDescriptor prefixed with "sd.", like
+ * "sd.location". "sd" stands for the whole StorageDescriptor, and an empty or null list for the
+ * whole Partition.
+ */
+public class PartitionProjection {
+  public static final PartitionProjection ALL = new PartitionProjection();
+
+  private static final String SD_PREFIX = Partition._Fields.SD.getFieldName() + ".";
+
+  private final EnumSet<Partition._Fields> partFields;
+  private final EnumSet<StorageDescriptor._Fields> sdFields;
+  private final boolean isAll;
+
+  private PartitionProjection() {
+    partFields = EnumSet.allOf(Partition._Fields.class);
+    sdFields = EnumSet.allOf(StorageDescriptor._Fields.class);
+    isAll = true;
+  }
+
+  public PartitionProjection(List<String> fieldList) throws MetaException {
+    if (fieldList == null || fieldList.isEmpty()) {
+      partFields = EnumSet.allOf(Partition._Fields.class);
+      sdFields = EnumSet.allOf(StorageDescriptor._Fields.class);
+      isAll = true;
+      return;
+    }
+    partFields = EnumSet.noneOf(Partition._Fields.class);
+    sdFields = EnumSet.noneOf(StorageDescriptor._Fields.class);
+    for (String field : fieldList) {
+      if (field.startsWith(SD_PREFIX)) {
+        StorageDescriptor._Fields sdField =
+            StorageDescriptor._Fields.findByName(field.substring(SD_PREFIX.length()));
+        if (sdField == null) {
+          throw new MetaException("Invalid partition field: " + field);
+        }
+        partFields.add(Partition._Fields.SD);
+        sdFields.add(sdField);
+      } else {
+        Partition._Fields partField = Partition._Fields.findByName(field);
+        if (partField == null) {
+          throw new MetaException("Invalid partition field: " + field);
+        }
+        partFields.add(partField);
+        if (partField == Partition._Fields.SD) {
+          sdFields.addAll(EnumSet.allOf(StorageDescriptor._Fields.class));
+        }
+      }
+    }
+    isAll = partFields.size() == Partition._Fields.values().length &&
+        sdFields.size() == StorageDescriptor._Fields.values().length;
+  }
+
+  public boolean isAll() {
+    return isAll;
+  }
+
+  public boolean includes(Partition._Fields field) {
+    return partFields.contains(field);
+  }
+
+  public boolean includes(StorageDescriptor._Fields field) {
+    return sdFields.contains(field);
+  }
+
+  /**
+   * Unsets the fields of the partition that are not in the projection.
+   */
+  public void apply(Partition part) {
+    if (isAll) {
+      return;
+    }
+    for (Partition._Fields field : Partition._Fields.values()) {
+      if (!partFields.contains(field)) {
+        part.setFieldValue(field, null);
+      }
+    }
+    if (part.isSetSd()) {
+      StorageDescriptor sd = part.getSd();
+      for (StorageDescriptor._Fields field : StorageDescriptor._Fields.values()) {
+        if (!sdFields.contains(field)) {
+          sd.setFieldValue(field, null);
+        }
+      }
+    }
+  }
+}
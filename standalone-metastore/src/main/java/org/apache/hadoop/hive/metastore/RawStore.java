@@ -561,6 +561,24 @@ boolean getPartitionsByExpr(String catName, String dbName, String tblName,
       byte[] expr, String defaultPartitionName, short maxParts, List<Partition> result)
       throws TException;
 
+  /**
+   * Get partitions using an already parsed expression, with only some of their fields set.
+   * @param catName catalog name.
+   * @param dbName database name
+   * @param tblName table name
+   * @param expr an already parsed Hive expression
+   * @param defaultPartitionName default name of a partition
+   * @param maxParts maximum number of partitions to return, or -1 for all
+   * @param fieldList Partition fields to set, as in
+   *                  {@link #getPartitionsByNames(String, String, String, List, List)}.
+   * @param result list to place resulting partitions in
+   * @return true if the result contains unknown partitions.
+   * @throws TException error executing the expression, or invalid field name.
+   */
+  boolean getPartitionsByExpr(String catName, String dbName, String tblName,
+      byte[] expr, String defaultPartitionName, short maxParts, List<String> fieldList,
+      List<Partition> result) throws TException;
+
   /**
    * Get the number of partitions that match a provided SQL filter.
    * @param catName catalog name.
@@ -602,6 +620,27 @@ List<Partition> getPartitionsByNames(String catName, String dbName, String tblNa
                                        List<String> partNames)
       throws MetaException, NoSuchObjectException;
 
+  /**
+   * Get partitions by name, with only some of their fields set.  This is cheaper than getting
+   * whole partitions when the caller only needs, for example, their values and parameters:
+   * the queries for the one-to-many fields that are left out are not run.  Clients ask for it
+   * through the fieldList of get_partitions_by_names_req and get_partitions_by_expr.
+   * @param catName catalog name.
+   * @param dbName database name.
+   * @param tblName table name.
+   * @param partNames list of partition names.  These are names not values, so they will include
+   *                  both the key and the value.
+   * @param fieldList Thrift field names of Partition to set, like "values", and of its
+   *                  StorageDescriptor prefixed with "sd.", like "sd.location", as in
+   *                  {@link PartitionProjection}.  Null or empty to set all of them.
+   * @return list of matching partitions
+   * @throws MetaException error accessing the RDBMS, or invalid field name.
+   * @throws NoSuchObjectException No such table.
+   */
+  List<Partition> getPartitionsByNames(String catName, String dbName, String tblName,
+                                       List<String> partNames, List<String> fieldList)
+      throws MetaException, NoSuchObjectException;
+
   Table markPartitionForEvent(String catName, String dbName, String tblName, Map<String,String> partVals, PartitionEventType evtType) throws MetaException, UnknownTableException, InvalidPartitionException, UnknownPartitionException;
 
   boolean isPartitionMarkedForEvent(String catName, String dbName, String tblName, Map<String, String> partName, PartitionEventType evtType) throws MetaException, UnknownTableException, InvalidPartitionException, UnknownPartitionException;
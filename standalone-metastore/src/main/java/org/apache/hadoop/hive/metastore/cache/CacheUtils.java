@@ -17,8 +17,11 @@
  */
 package org.apache.hadoop.hive.metastore.cache;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import org.apache.hadoop.hive.metastore.api.Partition;
@@ -29,8 +32,12 @@
 import org.apache.hadoop.hive.metastore.cache.SharedCache.TableWrapper;
 import org.apache.hadoop.hive.metastore.utils.StringUtils;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
 public class CacheUtils {
   private static final String delimit = "\u0001";
+  private static final Interner<String> strings = Interners.newWeakInterner();
 
   public static String buildCatalogKey(String catName) {
     return catName;
@@ -102,7 +109,7 @@ static Table assemble(TableWrapper wrapper, SharedCache sharedCache) {
   }
 
   static Partition assemble(PartitionWrapper wrapper, SharedCache sharedCache) {
-    Partition p = wrapper.getPartition().deepCopy();
+    Partition p = wrapper.getPartition();
     if (wrapper.getSdHash() != null) {
       StorageDescriptor sdCopy = sharedCache.getSdFromCache(wrapper.getSdHash()).deepCopy();
       if (sdCopy.getBucketCols() == null) {
@@ -122,6 +129,64 @@ static Partition assemble(PartitionWrapper wrapper, SharedCache sharedCache) {
     return p;
   }
 
+  /**
+   * Returns the string equal to the given one that is shared by the cached objects.
+   */
+  static String intern(String s) {
+    return s == null ? null : strings.intern(s);
+  }
+
+  /**
+   * Returns the list as an array of interned strings, or null if the list is null.
+   */
+  static String[] packList(List<String> list) {
+    if (list == null) {
+      return null;
+    }
+    String[] packed = new String[list.size()];
+    for (int i = 0; i < packed.length; i++) {
+      packed[i] = intern(list.get(i));
+    }
+    return packed;
+  }
+
+  static List<String> unpackList(String[] packed) {
+    if (packed == null) {
+      return null;
+    }
+    List<String> list = new ArrayList<>(packed.length);
+    Collections.addAll(list, packed);
+    return list;
+  }
+
+  /**
+   * Returns the map as an array of interned keys, each followed by its interned value, or null if
+   * the map is null.
+   */
+  static String[] packMap(Map<String, String> map) {
+    if (map == null) {
+      return null;
+    }
+    String[] packed = new String[2 * map.size()];
+    int i = 0;
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      packed[i++] = intern(entry.getKey());
+      packed[i++] = intern(entry.getValue());
+    }
+    return packed;
+  }
+
+  static Map<String, String> unpackMap(String[] packed) {
+    if (packed == null) {
+      return null;
+    }
+    Map<String, String> map = new HashMap<>((int) (packed.length / 2 / 0.75f) + 1);
+    for (int i = 0; i < packed.length; i += 2) {
+      map.put(packed[i], packed[i + 1]);
+    }
+    return map;
+  }
+
   public static boolean matches(String name, String pattern) {
     String[] subpatterns = pattern.trim().split("\\|");
     for (String subpattern : subpatterns) {
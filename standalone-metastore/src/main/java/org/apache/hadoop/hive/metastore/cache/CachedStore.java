@@ -24,9 +24,14 @@
 import java.util.Collection;
 import java.util.EmptyStackException;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.Stack;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -44,6 +49,7 @@
 import org.apache.hadoop.hive.metastore.ObjectStore;
 import org.apache.hadoop.hive.metastore.PartFilterExprUtil;
 import org.apache.hadoop.hive.metastore.PartitionExpressionProxy;
+import org.apache.hadoop.hive.metastore.PartitionProjection;
 import org.apache.hadoop.hive.metastore.RawStore;
 import org.apache.hadoop.hive.metastore.TableType;
 import org.apache.hadoop.hive.metastore.Warehouse;
@@ -111,6 +117,14 @@
 import org.apache.hadoop.hive.metastore.api.WMPool;
 import org.apache.hadoop.hive.metastore.conf.MetastoreConf;
 import org.apache.hadoop.hive.metastore.conf.MetastoreConf.ConfVars;
+import org.apache.hadoop.hive.metastore.messaging.AddPartitionMessage;
+import org.apache.hadoop.hive.metastore.messaging.AlterPartitionMessage;
+import org.apache.hadoop.hive.metastore.messaging.AlterTableMessage;
+import org.apache.hadoop.hive.metastore.messaging.DropPartitionMessage;
+import org.apache.hadoop.hive.metastore.messaging.EventMessage;
+import org.apache.hadoop.hive.metastore.messaging.InsertMessage;
+import org.apache.hadoop.hive.metastore.messaging.MessageDeserializer;
+import org.apache.hadoop.hive.metastore.messaging.MessageFactory;
 import org.apache.hadoop.hive.metastore.partition.spec.PartitionSpecProxy;
 import org.apache.hadoop.hive.metastore.utils.FileUtils;
 import org.apache.hadoop.hive.metastore.utils.JavaUtils;
@@ -285,60 +299,9 @@ static void prewarm(RawStore rawStore) {
               // in that case, continue with the next table
               continue;
             }
-            List<String> colNames = MetaStoreUtils.getColumnNamesForTable(table);
             try {
-              ColumnStatistics tableColStats = null;
-              List<Partition> partitions = null;
-              List<ColumnStatistics> partitionColStats = null;
-              AggrStats aggrStatsAllPartitions = null;
-              AggrStats aggrStatsAllButDefaultPartition = null;
-              if (table.isSetPartitionKeys()) {
-                Deadline.startTimer("getPartitions");
-                partitions = rawStore.getPartitions(catName, dbName, tblName, Integer.MAX_VALUE);
-                Deadline.stopTimer();
-                List<String> partNames = new ArrayList<>(partitions.size());
-                for (Partition p : partitions) {
-                  partNames.add(Warehouse.makePartName(table.getPartitionKeys(), p.getValues()));
-                }
-                if (!partNames.isEmpty()) {
-                  // Get partition column stats for this table
-                  Deadline.startTimer("getPartitionColumnStatistics");
-                  partitionColStats = rawStore.getPartitionColumnStatistics(catName, dbName,
-                      tblName, partNames, colNames);
-                  Deadline.stopTimer();
-                  // Get aggregate stats for all partitions of a table and for all but default
-                  // partition
-                  Deadline.startTimer("getAggrPartitionColumnStatistics");
-                  aggrStatsAllPartitions =
-                      rawStore.get_aggr_stats_for(catName, dbName, tblName, partNames, colNames);
-                  Deadline.stopTimer();
-                  // Remove default partition from partition names and get aggregate
-                  // stats again
-                  List<FieldSchema> partKeys = table.getPartitionKeys();
-                  String defaultPartitionValue =
-                      MetastoreConf.getVar(rawStore.getConf(), ConfVars.DEFAULTPARTITIONNAME);
-                  List<String> partCols = new ArrayList<>();
-                  List<String> partVals = new ArrayList<>();
-                  for (FieldSchema fs : partKeys) {
-                    partCols.add(fs.getName());
-                    partVals.add(defaultPartitionValue);
-                  }
-                  String defaultPartitionName = FileUtils.makePartName(partCols, partVals);
-                  partNames.remove(defaultPartitionName);
-                  Deadline.startTimer("getAggrPartitionColumnStatistics");
-                  aggrStatsAllButDefaultPartition =
-                      rawStore.get_aggr_stats_for(catName, dbName, tblName, partNames, colNames);
-                  Deadline.stopTimer();
-                }
-              } else {
-                Deadline.startTimer("getTableColumnStatistics");
-                tableColStats =
-                    rawStore.getTableColumnStatistics(catName, dbName, tblName, colNames);
-                Deadline.stopTimer();
-              }
               // If the table could not cached due to memory limit, stop prewarm
-              boolean isSuccess = sharedCache.populateTableInCache(table, tableColStats, partitions,
-                  partitionColStats, aggrStatsAllPartitions, aggrStatsAllButDefaultPartition);
+              boolean isSuccess = populateTableInCache(rawStore, catName, dbName, tblName, table);
               if (isSuccess) {
                 LOG.trace("Cached Database: {}'s Table: {}.", dbName, tblName);
               } else {
@@ -367,6 +330,66 @@ static void prewarm(RawStore rawStore) {
     }
   }
 
+  /**
+   * Reads the partitions and statistics of the table, and adds them to the cache with the table.
+   * @return false if the table could not be cached due to the memory limit
+   */
+  private static boolean populateTableInCache(RawStore rawStore, String catName, String dbName,
+      String tblName, Table table) throws MetaException, NoSuchObjectException {
+    List<String> colNames = MetaStoreUtils.getColumnNamesForTable(table);
+    ColumnStatistics tableColStats = null;
+    List<Partition> partitions = null;
+    List<ColumnStatistics> partitionColStats = null;
+    AggrStats aggrStatsAllPartitions = null;
+    AggrStats aggrStatsAllButDefaultPartition = null;
+    if (table.isSetPartitionKeys()) {
+      Deadline.startTimer("getPartitions");
+      partitions = rawStore.getPartitions(catName, dbName, tblName, Integer.MAX_VALUE);
+      Deadline.stopTimer();
+      List<String> partNames = new ArrayList<>(partitions.size());
+      for (Partition p : partitions) {
+        partNames.add(Warehouse.makePartName(table.getPartitionKeys(), p.getValues()));
+      }
+      if (!partNames.isEmpty()) {
+        // Get partition column stats for this table
+        Deadline.startTimer("getPartitionColumnStatistics");
+        partitionColStats = rawStore.getPartitionColumnStatistics(catName, dbName,
+            tblName, partNames, colNames);
+        Deadline.stopTimer();
+        // Get aggregate stats for all partitions of a table and for all but default
+        // partition
+        Deadline.startTimer("getAggrPartitionColumnStatistics");
+        aggrStatsAllPartitions =
+            rawStore.get_aggr_stats_for(catName, dbName, tblName, partNames, colNames);
+        Deadline.stopTimer();
+        // Remove default partition from partition names and get aggregate
+        // stats again
+        List<FieldSchema> partKeys = table.getPartitionKeys();
+        String defaultPartitionValue =
+            MetastoreConf.getVar(rawStore.getConf(), ConfVars.DEFAULTPARTITIONNAME);
+        List<String> partCols = new ArrayList<>();
+        List<String> partVals = new ArrayList<>();
+        for (FieldSchema fs : partKeys) {
+          partCols.add(fs.getName());
+          partVals.add(defaultPartitionValue);
+        }
+        String defaultPartitionName = FileUtils.makePartName(partCols, partVals);
+        partNames.remove(defaultPartitionName);
+        Deadline.startTimer("getAggrPartitionColumnStatistics");
+        aggrStatsAllButDefaultPartition =
+            rawStore.get_aggr_stats_for(catName, dbName, tblName, partNames, colNames);
+        Deadline.stopTimer();
+      }
+    } else {
+      Deadline.startTimer("getTableColumnStatistics");
+      tableColStats =
+          rawStore.getTableColumnStatistics(catName, dbName, tblName, colNames);
+      Deadline.stopTimer();
+    }
+    return sharedCache.populateTableInCache(table, tableColStats, partitions,
+        partitionColStats, aggrStatsAllPartitions, aggrStatsAllButDefaultPartition);
+  }
+
   private static void completePrewarm(long startTime) {
     isCachePrewarmed.set(true);
     LOG.info("CachedStore initialized");
@@ -491,9 +514,24 @@ static void setCacheRefreshPeriod(long time) {
   static class CacheUpdateMasterWork implements Runnable {
     private boolean shouldRunPrewarm = true;
     private final RawStore rawStore;
+    private final boolean isIncrementalUpdate;
+    private final long fullUpdatePeriodMS;
+    private final int maxEventsPerUpdate;
+    private final MessageDeserializer deserializer;
+    // The id of the last notification event reflected in the cache, or -1 if the next update has
+    // to read all the cached objects again
+    private long lastEventId = -1;
+    private long lastFullUpdateTimeMS = 0;
 
     CacheUpdateMasterWork(Configuration conf, boolean shouldRunPrewarm) {
       this.shouldRunPrewarm = shouldRunPrewarm;
+      isIncrementalUpdate =
+          MetastoreConf.getBoolVar(conf, ConfVars.CACHED_RAW_STORE_INCREMENTAL_UPDATE);
+      fullUpdatePeriodMS = MetastoreConf.getTimeVar(conf,
+          ConfVars.CACHED_RAW_STORE_FULL_UPDATE_FREQUENCY, TimeUnit.MILLISECONDS);
+      maxEventsPerUpdate = MetastoreConf.getIntVar(conf,
+          ConfVars.CACHED_RAW_STORE_INCREMENTAL_UPDATE_MAX_EVENTS);
+      deserializer = isIncrementalUpdate ? MessageFactory.getInstance().getDeserializer() : null;
       String rawStoreClassName =
           MetastoreConf.getVar(conf, ConfVars.CACHED_RAW_STORE_IMPL, ObjectStore.class.getName());
       try {
@@ -512,17 +550,52 @@ public void run() {
         // TODO: prewarm and update can probably be merged.
         update();
       } else {
+        // The events logged while prewarming are applied on top of the prewarmed objects
+        long eventId = getCurrentEventId();
         try {
           prewarm(rawStore);
         } catch (Exception e) {
           LOG.error("Prewarm failure", e);
           return;
         }
+        // The next runs keep the prewarmed cache up to date
+        shouldRunPrewarm = false;
+        lastEventId = eventId;
+        lastFullUpdateTimeMS = System.currentTimeMillis();
+      }
+    }
+
+    private long getCurrentEventId() {
+      if (!isIncrementalUpdate) {
+        return -1;
+      }
+      Deadline.registerIfNot(1000000);
+      try {
+        return rawStore.getCurrentNotificationEventId().getEventId();
+      } catch (RuntimeException e) {
+        LOG.warn("Updating CachedStore: unable to read the current notification event id", e);
+        return -1;
       }
     }
 
     void update() {
       Deadline.registerIfNot(1000000);
+      if (lastEventId >= 0
+          && System.currentTimeMillis() - lastFullUpdateTimeMS < fullUpdatePeriodMS) {
+        if (updateFromNotifications()) {
+          sharedCache.incrementUpdateCount();
+          return;
+        }
+        lastEventId = -1;
+      }
+      long eventId = getCurrentEventId();
+      if (fullUpdate()) {
+        lastEventId = eventId;
+        lastFullUpdateTimeMS = System.currentTimeMillis();
+      }
+    }
+
+    private boolean fullUpdate() {
       LOG.debug("CachedStore: updating cached objects");
       try {
         for (String catName : catalogsToCache(rawStore)) {
@@ -557,6 +630,259 @@ void update() {
       sharedCache.incrementUpdateCount();
       } catch (MetaException e) {
         LOG.error("Updating CachedStore: error happen when refresh; skipping this iteration", e);
+        return false;
+      }
+      return true;
+    }
+
+    /** The changes of a table found in a batch of notification events. */
+    private static class TableChanges {
+      // The table object, and the table column stats of an unpartitioned table
+      boolean isTableChanged = false;
+      // All the partitions and their stats
+      boolean areAllPartitionsChanged = false;
+      final Set<List<String>> changedPartVals = new HashSet<>();
+    }
+
+    /**
+     * Applies the changes recorded in the notification log since the last update, by reading
+     * only the databases, tables and partitions named in the events.
+     * @return false if all the cached objects have to be read again instead, because some events
+     *         were cleaned up before being applied, too many are pending, or one failed
+     */
+    private boolean updateFromNotifications() {
+      NotificationEventRequest request = new NotificationEventRequest(lastEventId);
+      request.setMaxEvents(maxEventsPerUpdate + 1);
+      List<NotificationEvent> events;
+      try {
+        events = rawStore.getNextNotification(request).getEvents();
+      } catch (RuntimeException e) {
+        LOG.warn("Updating CachedStore: unable to read the notification log", e);
+        return false;
+      }
+      if (events == null || events.isEmpty()) {
+        return true;
+      }
+      if (events.size() > maxEventsPerUpdate) {
+        LOG.info("Updating CachedStore: more than {} notification events pending; reading all the "
+            + "cached objects", maxEventsPerUpdate);
+        return false;
+      }
+      if (events.get(0).getEventId() != lastEventId + 1) {
+        LOG.info("Updating CachedStore: notification events {} to {} are gone; reading all the "
+            + "cached objects", lastEventId + 1, events.get(0).getEventId() - 1);
+        return false;
+      }
+      String defaultCatName = getDefaultCatalog(rawStore.getConf());
+      Set<List<String>> changedDbs = new LinkedHashSet<>();
+      Set<List<String>> dbsWithChangedTables = new LinkedHashSet<>();
+      Map<FullTableName, TableChanges> changedTables = new LinkedHashMap<>();
+      for (NotificationEvent event : events) {
+        if (event.getDbName() == null) {
+          continue;
+        }
+        String catName = normalizeIdentifier(
+            event.isSetCatName() ? event.getCatName() : defaultCatName);
+        String dbName = normalizeIdentifier(event.getDbName());
+        List<String> db = Arrays.asList(catName, dbName);
+        String tblName =
+            event.getTableName() == null ? null : normalizeIdentifier(event.getTableName());
+        EventMessage.EventType eventType;
+        try {
+          eventType = EventMessage.EventType.valueOf(event.getEventType());
+        } catch (IllegalArgumentException e) {
+          continue;
+        }
+        try {
+          switch (eventType) {
+          case CREATE_DATABASE:
+          case ALTER_DATABASE:
+            changedDbs.add(db);
+            break;
+          case DROP_DATABASE:
+            changedDbs.add(db);
+            dbsWithChangedTables.add(db);
+            break;
+          case CREATE_TABLE:
+          case DROP_TABLE:
+            dbsWithChangedTables.add(db);
+            getTableChanges(changedTables, catName, dbName, tblName).isTableChanged = true;
+            break;
+          case ALTER_TABLE: {
+            AlterTableMessage msg = deserializer.getAlterTableMessage(event.getMessage());
+            Table before = msg.getTableObjBefore(), after = msg.getTableObjAfter();
+            TableChanges changes = getTableChanges(changedTables, catName,
+                normalizeIdentifier(after.getDbName()), normalizeIdentifier(after.getTableName()));
+            changes.isTableChanged = true;
+            if (!before.getDbName().equalsIgnoreCase(after.getDbName())
+                || !before.getTableName().equalsIgnoreCase(after.getTableName())) {
+              // A renamed table is removed, and cached again with its partitions
+              dbsWithChangedTables.add(db);
+              dbsWithChangedTables.add(Arrays.asList(catName, normalizeIdentifier(after.getDbName())));
+            } else if (before.getSd() != null && after.getSd() != null
+                && (!Objects.equals(before.getSd().getCols(), after.getSd().getCols())
+                    || !Objects.equals(before.getSd().getLocation(), after.getSd().getLocation()))) {
+              // The change may have cascaded to the partitions
+              changes.areAllPartitionsChanged = true;
+            }
+            break;
+          }
+          case ADD_PARTITION: {
+            AddPartitionMessage msg = deserializer.getAddPartitionMessage(event.getMessage());
+            TableChanges changes = getTableChanges(changedTables, catName, dbName, tblName);
+            List<FieldSchema> partKeys = msg.getTableObj().getPartitionKeys();
+            for (Map<String, String> partSpec : msg.getPartitions()) {
+              changes.changedPartVals.add(getPartVals(partKeys, partSpec));
+            }
+            break;
+          }
+          case ALTER_PARTITION: {
+            AlterPartitionMessage msg = deserializer.getAlterPartitionMessage(event.getMessage());
+            TableChanges changes = getTableChanges(changedTables, catName, dbName, tblName);
+            changes.changedPartVals.add(msg.getPtnObjBefore().getValues());
+            changes.changedPartVals.add(msg.getPtnObjAfter().getValues());
+            break;
+          }
+          case DROP_PARTITION: {
+            DropPartitionMessage msg = deserializer.getDropPartitionMessage(event.getMessage());
+            TableChanges changes = getTableChanges(changedTables, catName, dbName, tblName);
+            List<FieldSchema> partKeys = msg.getTableObj().getPartitionKeys();
+            for (Map<String, String> partSpec : msg.getPartitions()) {
+              changes.changedPartVals.add(getPartVals(partKeys, partSpec));
+            }
+            break;
+          }
+          case INSERT: {
+            InsertMessage msg = deserializer.getInsertMessage(event.getMessage());
+            TableChanges changes = getTableChanges(changedTables, catName, dbName, tblName);
+            Partition part = msg.getPtnObj();
+            if (part != null) {
+              changes.changedPartVals.add(part.getValues());
+            } else {
+              changes.isTableChanged = true;
+            }
+            break;
+          }
+          default:
+            // Not cached
+            break;
+          }
+        } catch (Exception e) {
+          // Read everything the event may have changed
+          LOG.debug("Updating CachedStore: unable to read notification event "
+              + event.getEventId(), e);
+          if (tblName != null) {
+            dbsWithChangedTables.add(db);
+            TableChanges changes = getTableChanges(changedTables, catName, dbName, tblName);
+            changes.isTableChanged = true;
+            changes.areAllPartitionsChanged = true;
+          }
+        }
+      }
+      try {
+        for (List<String> db : changedDbs) {
+          updateDatabase(rawStore, db.get(0), db.get(1));
+        }
+        for (List<String> db : dbsWithChangedTables) {
+          removeDroppedTables(rawStore, db.get(0), db.get(1));
+        }
+        for (Map.Entry<FullTableName, TableChanges> entry : changedTables.entrySet()) {
+          FullTableName name = entry.getKey();
+          if (shouldCacheTable(name.catalog, name.db, name.table)) {
+            updateTable(rawStore, name.catalog, name.db, name.table, entry.getValue());
+          }
+        }
+      } catch (MetaException | NoSuchObjectException | RuntimeException e) {
+        LOG.warn("Updating CachedStore: unable to apply notification events " + (lastEventId + 1)
+            + " to " + events.get(events.size() - 1).getEventId() + "; reading all the cached "
+            + "objects", e);
+        return false;
+      }
+      lastEventId = events.get(events.size() - 1).getEventId();
+      LOG.debug("Updating CachedStore: applied notification events up to {}", lastEventId);
+      return true;
+    }
+
+    private static TableChanges getTableChanges(Map<FullTableName, TableChanges> changedTables,
+        String catName, String dbName, String tblName) {
+      FullTableName name = new FullTableName(catName, dbName, tblName);
+      TableChanges changes = changedTables.get(name);
+      if (changes == null) {
+        changes = new TableChanges();
+        changedTables.put(name, changes);
+      }
+      return changes;
+    }
+
+    private static List<String> getPartVals(List<FieldSchema> partKeys,
+        Map<String, String> partSpec) {
+      List<String> partVals = new ArrayList<>(partKeys.size());
+      for (FieldSchema partKey : partKeys) {
+        partVals.add(partSpec.get(partKey.getName()));
+      }
+      return partVals;
+    }
+
+    private void updateDatabase(RawStore rawStore, String catName, String dbName) {
+      Database db;
+      try {
+        db = rawStore.getDatabase(catName, dbName);
+      } catch (NoSuchObjectException e) {
+        db = null;
+      }
+      sharedCache.refreshDatabaseInCache(catName, dbName, db);
+    }
+
+    private void removeDroppedTables(RawStore rawStore, String catName, String dbName)
+        throws MetaException {
+      Set<String> tblNames = new HashSet<>();
+      for (String tblName : rawStore.getAllTables(catName, dbName)) {
+        tblNames.add(normalizeIdentifier(tblName));
+      }
+      for (String tblName : sharedCache.listCachedTableNames(catName, dbName)) {
+        if (!tblNames.contains(tblName)) {
+          sharedCache.refreshTableInCache(catName, dbName, tblName, null);
+        }
+      }
+    }
+
+    private void updateTable(RawStore rawStore, String catName, String dbName, String tblName,
+        TableChanges changes) throws MetaException, NoSuchObjectException {
+      Table table = rawStore.getTable(catName, dbName, tblName);
+      if (table == null) {
+        sharedCache.refreshTableInCache(catName, dbName, tblName, null);
+        return;
+      }
+      if (changes.isTableChanged) {
+        if (!sharedCache.refreshTableInCache(catName, dbName, tblName, table)) {
+          // Not cached yet, like a new table
+          populateTableInCache(rawStore, catName, dbName, tblName, table);
+          return;
+        }
+        updateTableColStats(rawStore, catName, dbName, tblName);
+      } else if (sharedCache.getTableFromCache(catName, dbName, tblName) == null) {
+        populateTableInCache(rawStore, catName, dbName, tblName, table);
+        return;
+      }
+      if (changes.areAllPartitionsChanged) {
+        updateTablePartitions(rawStore, catName, dbName, tblName);
+        updateTablePartitionColStats(rawStore, catName, dbName, tblName);
+        updateTableAggregatePartitionColStats(rawStore, catName, dbName, tblName);
+      } else if (!changes.changedPartVals.isEmpty() && table.isSetPartitionKeys()) {
+        List<String> partNames = new ArrayList<>(changes.changedPartVals.size());
+        for (List<String> partVals : changes.changedPartVals) {
+          partNames.add(Warehouse.makePartName(table.getPartitionKeys(), partVals));
+        }
+        Deadline.startTimer("getPartitionsByNames");
+        List<Partition> partitions =
+            rawStore.getPartitionsByNames(catName, dbName, tblName, partNames);
+        Deadline.stopTimer();
+        Deadline.startTimer("getPartitionColumnStatistics");
+        List<ColumnStatistics> partitionColStats = rawStore.getPartitionColumnStatistics(catName,
+            dbName, tblName, partNames, MetaStoreUtils.getColumnNamesForTable(table));
+        Deadline.stopTimer();
+        sharedCache.refreshChangedPartitionsInCache(catName, dbName, tblName,
+            changes.changedPartVals, partitions, partitionColStats);
       }
     }
 
@@ -1260,6 +1586,30 @@ public boolean getPartitionsByExpr(String catName, String dbName, String tblName
     return hasUnknownPartitions;
   }
 
+  @Override
+  public boolean getPartitionsByExpr(String catName, String dbName, String tblName, byte[] expr,
+      String defaultPartitionName, short maxParts, List<String> fieldList,
+      List<Partition> result) throws TException {
+    catName = StringUtils.normalizeIdentifier(catName);
+    dbName = StringUtils.normalizeIdentifier(dbName);
+    tblName = StringUtils.normalizeIdentifier(tblName);
+    if (!shouldCacheTable(catName, dbName, tblName) ||
+        sharedCache.getTableFromCache(catName, dbName, tblName) == null) {
+      return rawStore.getPartitionsByExpr(catName, dbName, tblName, expr, defaultPartitionName,
+          maxParts, fieldList, result);
+    }
+    // The cached partitions are whole, so just unset the other fields
+    PartitionProjection projection = new PartitionProjection(fieldList);
+    boolean hasUnknownPartitions = getPartitionsByExpr(catName, dbName, tblName, expr,
+        defaultPartitionName, maxParts, result);
+    if (!projection.isAll()) {
+      for (Partition part : result) {
+        projection.apply(part);
+      }
+    }
+    return hasUnknownPartitions;
+  }
+
   @Override
   public int getNumPartitionsByFilter(String catName, String dbName, String tblName, String filter)
       throws MetaException, NoSuchObjectException {
@@ -1323,6 +1673,28 @@ public List<Partition> getPartitionsByNames(String catName, String dbName, Strin
     return partitions;
   }
 
+  @Override
+  public List<Partition> getPartitionsByNames(String catName, String dbName, String tblName,
+      List<String> partNames, List<String> fieldList)
+      throws MetaException, NoSuchObjectException {
+    catName = StringUtils.normalizeIdentifier(catName);
+    dbName = StringUtils.normalizeIdentifier(dbName);
+    tblName = StringUtils.normalizeIdentifier(tblName);
+    if (!shouldCacheTable(catName, dbName, tblName) ||
+        sharedCache.getTableFromCache(catName, dbName, tblName) == null) {
+      return rawStore.getPartitionsByNames(catName, dbName, tblName, partNames, fieldList);
+    }
+    // The cached partitions are whole, so just unset the other fields
+    PartitionProjection projection = new PartitionProjection(fieldList);
+    List<Partition> partitions = getPartitionsByNames(catName, dbName, tblName, partNames);
+    if (!projection.isAll()) {
+      for (Partition part : partitions) {
+        projection.apply(part);
+      }
+    }
+    return partitions;
+  }
+
   @Override
   public Table markPartitionForEvent(String catName, String dbName, String tblName,
       Map<String, String> partVals, PartitionEventType evtType)
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.metastore.cache;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * A location cached in SharedCache, as a node of a trie of the cached locations: the location is
+ * the one of its parent node, followed by a '/' and its name. The nodes are interned, so all the
+ * partitions under a directory share the node of the directory and of each of its ancestors, and
+ * a partition location takes one node whose name is typically shared with the partitions that
+ * have the same value in other directories, like "hr=01".
+ */
+final class LocationNode {
+  private static final Interner<LocationNode> nodes = Interners.newWeakInterner();
+
+  private final LocationNode parent;
+  private final String name;
+  private final int hash;
+
+  private LocationNode(LocationNode parent, String name) {
+    this.parent = parent;
+    this.name = name;
+    this.hash = 31 * System.identityHashCode(parent) + name.hashCode();
+  }
+
+  static LocationNode of(String location) {
+    if (location == null) {
+      return null;
+    }
+    LocationNode node = null;
+    int start = 0;
+    while (true) {
+      int end = location.indexOf('/', start);
+      String name = location.substring(start, end < 0 ? location.length() : end);
+      node = nodes.intern(new LocationNode(node, CacheUtils.intern(name)));
+      if (end < 0) {
+        return node;
+      }
+      start = end + 1;
+    }
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof LocationNode)) {
+      return false;
+    }
+    LocationNode node = (LocationNode) other;
+    // The parents are interned
+    return parent == node.parent && name.equals(node.name);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    int length = name.length();
+    int depth = 1;
+    for (LocationNode node = parent; node != null; node = node.parent) {
+      length += node.name.length() + 1;
+      depth++;
+    }
+    String[] names = new String[depth];
+    LocationNode node = this;
+    for (int i = depth - 1; i >= 0; i--) {
+      names[i] = node.name;
+      node = node.parent;
+    }
+    StringBuilder location = new StringBuilder(length);
+    for (int i = 0; i < depth; i++) {
+      if (i > 0) {
+        location.append('/');
+      }
+      location.append(names[i]);
+    }
+    return location.toString();
+  }
+}
@@ -21,15 +21,21 @@
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.TreeMap;
 
@@ -44,9 +50,12 @@
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.PrincipalPrivilegeSet;
 import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.hadoop.hive.metastore.api.TableMeta;
+import org.apache.hadoop.hive.metastore.metrics.Metrics;
+import org.apache.hadoop.hive.metastore.metrics.MetricsConstants;
 import org.apache.hadoop.hive.metastore.utils.MetaStoreUtils;
 import org.apache.hadoop.hive.metastore.utils.StringUtils;
 import org.apache.hadoop.hive.ql.util.IncrementalObjectSizeEstimator;
@@ -54,11 +63,13 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
 
 import static org.apache.hadoop.hive.metastore.utils.StringUtils.normalizeIdentifier;
 
 public class SharedCache {
+  // Guards the catalog and database caches
   private static ReentrantReadWriteLock cacheLock = new ReentrantReadWriteLock(true);
   private boolean isCatalogCachePrewarmed = false;
   private Map<String, Catalog> catalogCache = new TreeMap<>();
@@ -71,13 +82,28 @@ public class SharedCache {
   private HashSet<String> databasesDeletedDuringPrewarm = new HashSet<>();
   private AtomicBoolean isDatabaseCacheDirty = new AtomicBoolean(false);
 
-  // For caching TableWrapper objects. Key is aggregate of database name and table name
-  private Map<String, TableWrapper> tableCache = new TreeMap<>();
-  private boolean isTableCachePrewarmed = false;
-  private HashSet<String> tablesDeletedDuringPrewarm = new HashSet<>();
+  // For caching TableWrapper objects. Key is aggregate of database name and table name.
+  // The tables are looked up without locking; the contents of a TableWrapper are guarded by its
+  // tableLock, and the tables of a database are added and removed under its stripe lock, so a
+  // write to one table does not block the reads of the others.
+  private Map<String, TableWrapper> tableCache = new ConcurrentHashMap<>();
+  private final ReentrantLock[] tableStripeLocks = new ReentrantLock[TABLE_STRIPE_COUNT];
+  private volatile boolean isTableCachePrewarmed = false;
+  private Set<String> tablesDeletedDuringPrewarm = ConcurrentHashMap.newKeySet();
   private AtomicBoolean isTableCacheDirty = new AtomicBoolean(false);
-  private Map<ByteArrayWrapper, StorageDescriptorWrapper> sdCache = new HashMap<>();
-  private static MessageDigest md;
+  private Map<ByteArrayWrapper, StorageDescriptorWrapper> sdCache = new ConcurrentHashMap<>();
+  // MessageDigest is not thread safe, and the tables are updated concurrently
+  private static final ThreadLocal<MessageDigest> md = new ThreadLocal<MessageDigest>() {
+    @Override
+    protected MessageDigest initialValue() {
+      try {
+        return MessageDigest.getInstance("MD5");
+      } catch (NoSuchAlgorithmException e) {
+        throw new RuntimeException("should not happen", e);
+      }
+    }
+  };
+  private static final int TABLE_STRIPE_COUNT = 64;
   static final private Logger LOG = LoggerFactory.getLogger(SharedCache.class.getName());
   private AtomicLong cacheUpdateCount = new AtomicLong(0);
   private static long maxCacheSizeInBytes = -1;
@@ -98,12 +124,48 @@ public int getPosition() {
     }
   }
 
-  static {
+  {
+    for (int i = 0; i < tableStripeLocks.length; i++) {
+      tableStripeLocks[i] = new ReentrantLock(true);
+    }
+  }
+
+  /**
+   * Takes the lock, in the order given by its fairness policy. If the lock is not free, the time
+   * spent waiting for it is added to the timer of the given metric.
+   */
+  private static void lock(Lock lock, String waitTimeMetric) {
     try {
-      md = MessageDigest.getInstance("MD5");
-    } catch (NoSuchAlgorithmException e) {
-      throw new RuntimeException("should not happen", e);
+      // Unlike tryLock(), this does not take a fair lock ahead of the threads waiting for it
+      if (lock.tryLock(0, TimeUnit.NANOSECONDS)) {
+        return;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
     }
+    long startTime = System.nanoTime();
+    lock.lock();
+    Timer timer = Metrics.getOrCreateTimer(waitTimeMetric);
+    if (timer != null) {
+      timer.update(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private static void lockCache(Lock lock) {
+    lock(lock, MetricsConstants.CACHED_STORE_CACHE_LOCK_WAIT);
+  }
+
+  private static void lockTable(Lock lock) {
+    lock(lock, MetricsConstants.CACHED_STORE_TABLE_LOCK_WAIT);
+  }
+
+  private int getTableStripe(String catName, String dbName) {
+    int hash = CacheUtils.buildDbKey(catName, dbName).hashCode();
+    return (hash & Integer.MAX_VALUE) % tableStripeLocks.length;
+  }
+
+  private ReentrantLock getTableStripeLock(String catName, String dbName) {
+    return tableStripeLocks[getTableStripe(catName, dbName)];
   }
 
 
@@ -197,7 +259,7 @@ boolean sameDatabase(String catName, String dbName) {
 
     void cachePartition(Partition part, SharedCache sharedCache) {
       try {
-        tableLock.writeLock().lock();
+        lockTable(tableLock.writeLock());
         PartitionWrapper wrapper = makePartitionWrapper(part, sharedCache);
         partitionCache.put(CacheUtils.buildPartitionCacheKey(part.getValues()), wrapper);
         isPartitionCacheDirty.set(true);
@@ -212,7 +274,7 @@ void cachePartition(Partition part, SharedCache sharedCache) {
 
     boolean cachePartitions(List<Partition> parts, SharedCache sharedCache) {
       try {
-        tableLock.writeLock().lock();
+        lockTable(tableLock.writeLock());
         for (Partition part : parts) {
           PartitionWrapper ptnWrapper = makePartitionWrapper(part, sharedCache);
           if (maxCacheSizeInBytes > 0) {
@@ -246,7 +308,7 @@ boolean cachePartitions(List<Partition> parts, SharedCache sharedCache) {
     public Partition getPartition(List<String> partVals, SharedCache sharedCache) {
       Partition part = null;
       try {
-        tableLock.readLock().lock();
+        lockTable(tableLock.readLock());
         PartitionWrapper wrapper = partitionCache.get(CacheUtils.buildPartitionCacheKey(partVals));
         if (wrapper == null) {
           return null;
@@ -262,7 +324,7 @@ public List<Partition> listPartitions(int max, SharedCache sharedCache) {
       List<Partition> parts = new ArrayList<>();
       int count = 0;
       try {
-        tableLock.readLock().lock();
+        lockTable(tableLock.readLock());
         for (PartitionWrapper wrapper : partitionCache.values()) {
           if (max == -1 || count < max) {
             parts.add(CacheUtils.assemble(wrapper, sharedCache));
@@ -278,7 +340,7 @@ public List<Partition> listPartitions(int max, SharedCache sharedCache) {
     public boolean containsPartition(List<String> partVals) {
       boolean containsPart = false;
       try {
-        tableLock.readLock().lock();
+        lockTable(tableLock.readLock());
         containsPart = partitionCache.containsKey(CacheUtils.buildPartitionCacheKey(partVals));
       } finally {
         tableLock.readLock().unlock();
@@ -289,7 +351,7 @@ public boolean containsPartition(List<String> partVals) {
     public Partition removePartition(List<String> partVal, SharedCache sharedCache) {
       Partition part = null;
       try {
-        tableLock.writeLock().lock();
+        lockTable(tableLock.writeLock());
         PartitionWrapper wrapper =
             partitionCache.remove(CacheUtils.buildPartitionCacheKey(partVal));
         isPartitionCacheDirty.set(true);
@@ -298,16 +360,7 @@ public Partition removePartition(List<String> partVal, SharedCache sharedCache)
         }
         part = CacheUtils.assemble(wrapper, sharedCache);
         // Remove col stats
-        String partialKey = CacheUtils.buildPartitionCacheKey(partVal);
-        Iterator<Entry<String, ColumnStatisticsObj>> iterator =
-            partitionColStatsCache.entrySet().iterator();
-        while (iterator.hasNext()) {
-          Entry<String, ColumnStatisticsObj> entry = iterator.next();
-          String key = entry.getKey();
-          if (key.toLowerCase().startsWith(partialKey.toLowerCase())) {
-            iterator.remove();
-          }
-        }
+        removeAllPartitionColStats(partVal);
         // Invalidate cached aggregate stats
         if (!aggrColStatsCache.isEmpty()) {
           aggrColStatsCache.clear();
@@ -318,9 +371,22 @@ public Partition removePartition(List<String> partVal, SharedCache sharedCache)
       return part;
     }
 
+    private void removeAllPartitionColStats(List<String> partVal) {
+      String partialKey = CacheUtils.buildPartitionCacheKey(partVal);
+      Iterator<Entry<String, ColumnStatisticsObj>> iterator =
+          partitionColStatsCache.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Entry<String, ColumnStatisticsObj> entry = iterator.next();
+        String key = entry.getKey();
+        if (key.toLowerCase().startsWith(partialKey.toLowerCase())) {
+          iterator.remove();
+        }
+      }
+    }
+
     public void removePartitions(List<List<String>> partVals, SharedCache sharedCache) {
       try {
-        tableLock.writeLock().lock();
+        lockTable(tableLock.writeLock());
         for (List<String> partVal : partVals) {
           removePartition(partVal, sharedCache);
         }
@@ -331,7 +397,7 @@ public void removePartitions(List<List<String>> partVals, SharedCache sharedCach
 
     public void alterPartition(List<String> partVals, Partition newPart, SharedCache sharedCache) {
       try {
-        tableLock.writeLock().lock();
+        lockTable(tableLock.writeLock());
         removePartition(partVals, sharedCache);
         cachePartition(newPart, sharedCache);
       } finally {
@@ -342,7 +408,7 @@ public void alterPartition(List<String> partVals, Partition newPart, SharedCache
     public void alterPartitions(List<List<String>> partValsList, List<Partition> newParts,
         SharedCache sharedCache) {
       try {
-        tableLock.writeLock().lock();
+        lockTable(tableLock.writeLock());
         for (int i = 0; i < partValsList.size(); i++) {
           List<String> partVals = partValsList.get(i);
           Partition newPart = newParts.get(i);
@@ -356,7 +422,7 @@ public void alterPartitions(List<List<String>> partValsList, List<Partition> new
     public void refreshPartitions(List<Partition> partitions, SharedCache sharedCache) {
       Map<String, PartitionWrapper> newPartitionCache = new HashMap<String, PartitionWrapper>();
       try {
-        tableLock.writeLock().lock();
+        lockTable(tableLock.writeLock());
         for (Partition part : partitions) {
           if (isPartitionCacheDirty.compareAndSet(true, false)) {
             LOG.debug("Skipping partition cache update for table: " + getTable().getTableName()
@@ -379,9 +445,54 @@ public void refreshPartitions(List<Partition> partitions, SharedCache sharedCach
       }
     }
 
+    /**
+     * Replaces the given partitions, and their column stats, with the ones read from the backing
+     * store after they changed. The partitions that are not in the list any more are removed.
+     * Unlike the changes made through CachedStore, this does not mark the caches dirty, since the
+     * objects are as recent as the backing store.
+     */
+    public void refreshChangedPartitions(Collection<List<String>> partValsList,
+        List<Partition> partitions, List<ColumnStatistics> partitionColStats,
+        SharedCache sharedCache) {
+      try {
+        lockTable(tableLock.writeLock());
+        for (List<String> partVals : partValsList) {
+          PartitionWrapper wrapper =
+              partitionCache.remove(CacheUtils.buildPartitionCacheKey(partVals));
+          if (wrapper != null && wrapper.getSdHash() != null) {
+            sharedCache.decrSd(wrapper.getSdHash());
+          }
+          removeAllPartitionColStats(partVals);
+        }
+        for (Partition part : partitions) {
+          partitionCache.put(CacheUtils.buildPartitionCacheKey(part.getValues()),
+              makePartitionWrapper(part, sharedCache));
+        }
+        String tableName = getTable().getTableName();
+        for (ColumnStatistics cs : partitionColStats) {
+          try {
+            List<String> partVal = Warehouse.makeValsFromName(cs.getStatsDesc().getPartName(), null);
+            for (ColumnStatisticsObj colStatObj : cs.getStatsObj()) {
+              partitionColStatsCache.put(
+                  CacheUtils.buildPartitonColStatsCacheKey(partVal, colStatObj.getColName()),
+                  colStatObj.deepCopy());
+            }
+          } catch (MetaException e) {
+            LOG.debug("Unable to cache partition column stats for table: " + tableName, e);
+          }
+        }
+        // Invalidate cached aggregate stats
+        if (!aggrColStatsCache.isEmpty()) {
+          aggrColStatsCache.clear();
+        }
+      } finally {
+        tableLock.writeLock().unlock();
+      }
+    }
+
     public boolean updateTableColStats(List<ColumnStatisticsObj> colStatsForTable) {
       try {
-        tableLock.writeLock().lock();
+        lockTable(tableLock.writeLock());
         for (ColumnStatisticsObj colStatObj : colStatsForTable) {
           // Get old stats object if present
           String key = colStatObj.getColName();
@@ -425,7 +536,7 @@ public void refreshTableColStats(List<ColumnStatisticsObj> colStatsForTable) {
       Map<String, ColumnStatisticsObj> newTableColStatsCache =
           new HashMap<String, ColumnStatisticsObj>();
       try {
-        tableLock.writeLock().lock();
+        lockTable(tableLock.writeLock());
         for (ColumnStatisticsObj colStatObj : colStatsForTable) {
           if (isTableColStatsCacheDirty.compareAndSet(true, false)) {
             LOG.debug("Skipping table col stats cache update for table: "
@@ -445,7 +556,7 @@ public void refreshTableColStats(List<ColumnStatisticsObj> colStatsForTable) {
     public List<ColumnStatisticsObj> getCachedTableColStats(List<String> colNames) {
       List<ColumnStatisticsObj> colStatObjs = new ArrayList<ColumnStatisticsObj>();
       try {
-        tableLock.readLock().lock();
+        lockTable(tableLock.readLock());
         for (String colName : colNames) {
           ColumnStatisticsObj colStatObj = tableColStatsCache.get(colName);
           if (colStatObj != null) {
@@ -460,7 +571,7 @@ public List<ColumnStatisticsObj> getCachedTableColStats(List<String> colNames) {
 
     public void removeTableColStats(String colName) {
       try {
-        tableLock.writeLock().lock();
+        lockTable(tableLock.writeLock());
         tableColStatsCache.remove(colName);
         isTableColStatsCacheDirty.set(true);
       } finally {
@@ -470,7 +581,7 @@ public void removeTableColStats(String colName) {
 
     public ColumnStatisticsObj getPartitionColStats(List<String> partVal, String colName) {
       try {
-        tableLock.readLock().lock();
+        lockTable(tableLock.readLock());
         return partitionColStatsCache
             .get(CacheUtils.buildPartitonColStatsCacheKey(partVal, colName));
       } finally {
@@ -481,7 +592,7 @@ public ColumnStatisticsObj getPartitionColStats(List<String> partVal, String col
     public boolean updatePartitionColStats(List<String> partVal,
         List<ColumnStatisticsObj> colStatsObjs) {
       try {
-        tableLock.writeLock().lock();
+        lockTable(tableLock.writeLock());
         for (ColumnStatisticsObj colStatObj : colStatsObjs) {
           // Get old stats object if present
           String key = CacheUtils.buildPartitonColStatsCacheKey(partVal, colStatObj.getColName());
@@ -527,7 +638,7 @@ public boolean updatePartitionColStats(List<String> partVal,
 
     public void removePartitionColStats(List<String> partVals, String colName) {
       try {
-        tableLock.writeLock().lock();
+        lockTable(tableLock.writeLock());
         partitionColStatsCache.remove(CacheUtils.buildPartitonColStatsCacheKey(partVals, colName));
         isPartitionColStatsCacheDirty.set(true);
         // Invalidate cached aggregate stats
@@ -543,7 +654,7 @@ public void refreshPartitionColStats(List<ColumnStatistics> partitionColStats) {
       Map<String, ColumnStatisticsObj> newPartitionColStatsCache =
           new HashMap<String, ColumnStatisticsObj>();
       try {
-        tableLock.writeLock().lock();
+        lockTable(tableLock.writeLock());
         String tableName = StringUtils.normalizeIdentifier(getTable().getTableName());
         for (ColumnStatistics cs : partitionColStats) {
           if (isPartitionColStatsCacheDirty.compareAndSet(true, false)) {
@@ -579,7 +690,7 @@ public List<ColumnStatisticsObj> getAggrPartitionColStats(List<String> colNames,
         StatsType statsType) {
       List<ColumnStatisticsObj> colStats = new ArrayList<ColumnStatisticsObj>();
       try {
-        tableLock.readLock().lock();
+        lockTable(tableLock.readLock());
         for (String colName : colNames) {
           List<ColumnStatisticsObj> colStatList = aggrColStatsCache.get(colName);
           // If unable to find stats for a column, return null so we can build stats
@@ -602,7 +713,7 @@ public List<ColumnStatisticsObj> getAggrPartitionColStats(List<String> colNames,
     public void cacheAggrPartitionColStats(AggrStats aggrStatsAllPartitions,
         AggrStats aggrStatsAllButDefaultPartition) {
       try {
-        tableLock.writeLock().lock();
+        lockTable(tableLock.writeLock());
         if (aggrStatsAllPartitions != null) {
           for (ColumnStatisticsObj statObj : aggrStatsAllPartitions.getColStats()) {
             if (statObj != null) {
@@ -634,7 +745,7 @@ public void refreshAggrPartitionColStats(AggrStats aggrStatsAllPartitions,
       Map<String, List<ColumnStatisticsObj>> newAggrColStatsCache =
           new HashMap<String, List<ColumnStatisticsObj>>();
       try {
-        tableLock.writeLock().lock();
+        lockTable(tableLock.writeLock());
         if (aggrStatsAllPartitions != null) {
           for (ColumnStatisticsObj statObj : aggrStatsAllPartitions.getColStats()) {
             if (isAggrPartitionColStatsCacheDirty.compareAndSet(true, false)) {
@@ -672,63 +783,125 @@ public void refreshAggrPartitionColStats(AggrStats aggrStatsAllPartitions,
     }
 
     private void updateTableObj(Table newTable, SharedCache sharedCache) {
-      byte[] sdHash = getSdHash();
-      // Remove old table object's sd hash
-      if (sdHash != null) {
-        sharedCache.decrSd(sdHash);
-      }
-      Table tblCopy = newTable.deepCopy();
-      if (tblCopy.getPartitionKeys() != null) {
-        for (FieldSchema fs : tblCopy.getPartitionKeys()) {
-          fs.setName(StringUtils.normalizeIdentifier(fs.getName()));
+      try {
+        lockTable(tableLock.writeLock());
+        byte[] sdHash = getSdHash();
+        // Remove old table object's sd hash
+        if (sdHash != null) {
+          sharedCache.decrSd(sdHash);
         }
+        Table tblCopy = newTable.deepCopy();
+        if (tblCopy.getPartitionKeys() != null) {
+          for (FieldSchema fs : tblCopy.getPartitionKeys()) {
+            fs.setName(StringUtils.normalizeIdentifier(fs.getName()));
+          }
+        }
+        setTable(tblCopy);
+        if (tblCopy.getSd() != null) {
+          sdHash = MetaStoreUtils.hashStorageDescriptor(tblCopy.getSd(), md.get());
+          StorageDescriptor sd = tblCopy.getSd();
+          sharedCache.increSd(sd, sdHash);
+          tblCopy.setSd(null);
+          setSdHash(sdHash);
+          setLocation(sd.getLocation());
+          setParameters(sd.getParameters());
+        } else {
+          setSdHash(null);
+          setLocation(null);
+          setParameters(null);
+        }
+      } finally {
+        tableLock.writeLock().unlock();
       }
-      setTable(tblCopy);
-      if (tblCopy.getSd() != null) {
-        sdHash = MetaStoreUtils.hashStorageDescriptor(tblCopy.getSd(), md);
-        StorageDescriptor sd = tblCopy.getSd();
-        sharedCache.increSd(sd, sdHash);
-        tblCopy.setSd(null);
-        setSdHash(sdHash);
-        setLocation(sd.getLocation());
-        setParameters(sd.getParameters());
-      } else {
-        setSdHash(null);
-        setLocation(null);
-        setParameters(null);
+    }
+
+    /** Returns a copy of the table object, with its storage descriptor. */
+    Table assembleTable(SharedCache sharedCache) {
+      try {
+        lockTable(tableLock.readLock());
+        return CacheUtils.assemble(this, sharedCache);
+      } finally {
+        tableLock.readLock().unlock();
+      }
+    }
+
+    /** Releases the storage descriptor of the table object, once it is removed from the cache. */
+    void releaseSd(SharedCache sharedCache) {
+      try {
+        lockTable(tableLock.writeLock());
+        if (sdHash != null) {
+          sharedCache.decrSd(sdHash);
+          sdHash = null;
+        }
+      } finally {
+        tableLock.writeLock().unlock();
       }
     }
 
     private PartitionWrapper makePartitionWrapper(Partition part, SharedCache sharedCache) {
-      Partition partCopy = part.deepCopy();
       PartitionWrapper wrapper;
       if (part.getSd() != null) {
-        byte[] sdHash = MetaStoreUtils.hashStorageDescriptor(part.getSd(), md);
+        byte[] sdHash = MetaStoreUtils.hashStorageDescriptor(part.getSd(), md.get());
         StorageDescriptor sd = part.getSd();
         sharedCache.increSd(sd, sdHash);
-        partCopy.setSd(null);
-        wrapper = new PartitionWrapper(partCopy, sdHash, sd.getLocation(), sd.getParameters());
+        wrapper = new PartitionWrapper(part, sdHash, sd.getLocation(), sd.getParameters());
       } else {
-        wrapper = new PartitionWrapper(partCopy, null, null, null);
+        wrapper = new PartitionWrapper(part, null, null, null);
       }
       return wrapper;
     }
   }
 
+  /**
+   * A cached partition without its StorageDescriptor. As a table may have many partitions, the
+   * fields of the partition are kept in a compact form instead of a Thrift object: the strings are
+   * interned, the values and the parameters are packed in arrays, and the location is a node of
+   * the trie of the cached locations, so the partitions of a table share its location prefix.
+   */
   static class PartitionWrapper {
-    Partition p;
-    String location;
-    Map<String, String> parameters;
-    byte[] sdHash;
+    private final String[] values;
+    private final String catName;
+    private final String dbName;
+    private final String tableName;
+    private final int createTime;
+    private final int lastAccessTime;
+    private final String[] partParameters;
+    private final PrincipalPrivilegeSet privileges;
+    private final LocationNode location;
+    private final String[] parameters;
+    private final byte[] sdHash;
 
     PartitionWrapper(Partition p, byte[] sdHash, String location, Map<String, String> parameters) {
-      this.p = p;
+      this.values = CacheUtils.packList(p.getValues());
+      this.catName = CacheUtils.intern(p.getCatName());
+      this.dbName = CacheUtils.intern(p.getDbName());
+      this.tableName = CacheUtils.intern(p.getTableName());
+      this.createTime = p.getCreateTime();
+      this.lastAccessTime = p.getLastAccessTime();
+      this.partParameters = CacheUtils.packMap(p.getParameters());
+      this.privileges = p.isSetPrivileges() ? p.getPrivileges().deepCopy() : null;
       this.sdHash = sdHash;
-      this.location = location;
-      this.parameters = parameters;
+      this.location = LocationNode.of(location);
+      this.parameters = CacheUtils.packMap(parameters);
     }
 
+    /**
+     * Returns a new Partition without its StorageDescriptor.
+     */
     public Partition getPartition() {
+      Partition p = new Partition();
+      p.setValues(CacheUtils.unpackList(values));
+      p.setDbName(dbName);
+      p.setTableName(tableName);
+      p.setCreateTime(createTime);
+      p.setLastAccessTime(lastAccessTime);
+      p.setParameters(CacheUtils.unpackMap(partParameters));
+      if (privileges != null) {
+        p.setPrivileges(privileges.deepCopy());
+      }
+      if (catName != null) {
+        p.setCatName(catName);
+      }
       return p;
     }
 
@@ -737,11 +910,11 @@ public byte[] getSdHash() {
     }
 
     public String getLocation() {
-      return location;
+      return location == null ? null : location.toString();
     }
 
     public Map<String, String> getParameters() {
-      return parameters;
+      return CacheUtils.unpackMap(parameters);
     }
   }
 
@@ -769,7 +942,7 @@ public void populateCatalogsInCache(Collection<Catalog> catalogs) {
       // ObjectStore also stores db name in lowercase
       catCopy.setName(catCopy.getName().toLowerCase());
       try {
-        cacheLock.writeLock().lock();
+        lockCache(cacheLock.writeLock());
         // Since we allow write operations on cache while prewarm is happening:
         // 1. Don't add databases that were deleted while we were preparing list for prewarm
         // 2. Skip overwriting exisiting db object
@@ -789,7 +962,7 @@ public void populateCatalogsInCache(Collection<Catalog> catalogs) {
   public Catalog getCatalogFromCache(String name) {
     Catalog cat = null;
     try {
-      cacheLock.readLock().lock();
+      lockCache(cacheLock.readLock());
       if (catalogCache.get(name) != null) {
         cat = catalogCache.get(name).deepCopy();
       }
@@ -801,7 +974,7 @@ public Catalog getCatalogFromCache(String name) {
 
   public void addCatalogToCache(Catalog cat) {
     try {
-      cacheLock.writeLock().lock();
+      lockCache(cacheLock.writeLock());
       Catalog catCopy = cat.deepCopy();
       // ObjectStore also stores db name in lowercase
       catCopy.setName(catCopy.getName().toLowerCase());
@@ -814,7 +987,7 @@ public void addCatalogToCache(Catalog cat) {
 
   public void alterCatalogInCache(String catName, Catalog newCat) {
     try {
-      cacheLock.writeLock().lock();
+      lockCache(cacheLock.writeLock());
       removeCatalogFromCache(catName);
       addCatalogToCache(newCat.deepCopy());
     } finally {
@@ -825,7 +998,7 @@ public void alterCatalogInCache(String catName, Catalog newCat) {
   public void removeCatalogFromCache(String name) {
     name = normalizeIdentifier(name);
     try {
-      cacheLock.writeLock().lock();
+      lockCache(cacheLock.writeLock());
       // If db cache is not yet prewarmed, add this to a set which the prewarm thread can check
       // so that the prewarm thread does not add it back
       if (!isCatalogCachePrewarmed) {
@@ -841,7 +1014,7 @@ public void removeCatalogFromCache(String name) {
 
   public List<String> listCachedCatalogs() {
     try {
-      cacheLock.readLock().lock();
+      lockCache(cacheLock.readLock());
       return new ArrayList<>(catalogCache.keySet());
     } finally {
       cacheLock.readLock().unlock();
@@ -855,7 +1028,7 @@ public boolean isCatalogCachePrewarmed() {
   public Database getDatabaseFromCache(String catName, String name) {
     Database db = null;
     try {
-      cacheLock.readLock().lock();
+      lockCache(cacheLock.readLock());
       String key = CacheUtils.buildDbKey(catName, name);
       if (databaseCache.get(key) != null) {
         db = databaseCache.get(key).deepCopy();
@@ -872,7 +1045,7 @@ public void populateDatabasesInCache(List<Database> databases) {
       // ObjectStore also stores db name in lowercase
       dbCopy.setName(dbCopy.getName().toLowerCase());
       try {
-        cacheLock.writeLock().lock();
+        lockCache(cacheLock.writeLock());
         // Since we allow write operations on cache while prewarm is happening:
         // 1. Don't add databases that were deleted while we were preparing list for prewarm
         // 2. Skip overwriting exisiting db object
@@ -897,7 +1070,7 @@ public boolean isDatabaseCachePrewarmed() {
 
   public void addDatabaseToCache(Database db) {
     try {
-      cacheLock.writeLock().lock();
+      lockCache(cacheLock.writeLock());
       Database dbCopy = db.deepCopy();
       // ObjectStore also stores db name in lowercase
       dbCopy.setName(dbCopy.getName().toLowerCase());
@@ -911,7 +1084,7 @@ public void addDatabaseToCache(Database db) {
 
   public void removeDatabaseFromCache(String catName, String dbName) {
     try {
-      cacheLock.writeLock().lock();
+      lockCache(cacheLock.writeLock());
       // If db cache is not yet prewarmed, add this to a set which the prewarm thread can check
       // so that the prewarm thread does not add it back
       String key = CacheUtils.buildDbKey(catName, dbName);
@@ -929,7 +1102,7 @@ public void removeDatabaseFromCache(String catName, String dbName) {
   public List<String> listCachedDatabases(String catName) {
     List<String> results = new ArrayList<>();
     try {
-      cacheLock.readLock().lock();
+      lockCache(cacheLock.readLock());
       for (String pair : databaseCache.keySet()) {
         String[] n = CacheUtils.splitDbName(pair);
         if (catName.equals(n[0]))
@@ -944,7 +1117,7 @@ public List<String> listCachedDatabases(String catName) {
   public List<String> listCachedDatabases(String catName, String pattern) {
     List<String> results = new ArrayList<>();
     try {
-      cacheLock.readLock().lock();
+      lockCache(cacheLock.readLock());
       for (String pair : databaseCache.keySet()) {
         String[] n = CacheUtils.splitDbName(pair);
         if (catName.equals(n[0])) {
@@ -966,7 +1139,7 @@ public List<String> listCachedDatabases(String catName, String pattern) {
    */
   public void alterDatabaseInCache(String catName, String dbName, Database newDb) {
     try {
-      cacheLock.writeLock().lock();
+      lockCache(cacheLock.writeLock());
       removeDatabaseFromCache(catName, dbName);
       addDatabaseToCache(newDb.deepCopy());
       isDatabaseCacheDirty.set(true);
@@ -977,7 +1150,7 @@ public void alterDatabaseInCache(String catName, String dbName, Database newDb)
 
   public void refreshDatabasesInCache(List<Database> databases) {
     try {
-      cacheLock.writeLock().lock();
+      lockCache(cacheLock.writeLock());
       if (isDatabaseCacheDirty.compareAndSet(true, false)) {
         LOG.debug("Skipping database cache update; the database list we have is dirty.");
         return;
@@ -991,9 +1164,32 @@ public void refreshDatabasesInCache(List<Database> databases) {
     }
   }
 
+  /**
+   * Replaces the cached database with the one read from the backing store after it changed, or
+   * removes it if it is null. Unlike the changes made through CachedStore, this does not mark the
+   * database cache dirty, since the object is as recent as the backing store.
+   */
+  public void refreshDatabaseInCache(String catName, String dbName, Database db) {
+    try {
+      lockCache(cacheLock.writeLock());
+      String key = CacheUtils.buildDbKey(catName, dbName);
+      if (db == null) {
+        databaseCache.remove(key);
+      } else {
+        Database dbCopy = db.deepCopy();
+        // ObjectStore also stores db name in lowercase
+        dbCopy.setName(dbCopy.getName().toLowerCase());
+        dbCopy.setCatalogName(dbCopy.getCatalogName().toLowerCase());
+        databaseCache.put(key, dbCopy);
+      }
+    } finally {
+      cacheLock.writeLock().unlock();
+    }
+  }
+
   public int getCachedDatabaseCount() {
     try {
-      cacheLock.readLock().lock();
+      lockCache(cacheLock.readLock());
       return databaseCache.size();
     } finally {
       cacheLock.readLock().unlock();
@@ -1057,14 +1253,19 @@ public boolean populateTableInCache(Table table, ColumnStatistics tableColStats,
       tblWrapper.cacheAggrPartitionColStats(aggrStatsAllPartitions,
           aggrStatsAllButDefaultPartition);
     }
+    String key = CacheUtils.buildTableKey(catName, dbName, tableName);
+    ReentrantLock stripeLock = getTableStripeLock(catName, dbName);
     try {
-      cacheLock.writeLock().lock();
+      lockCache(stripeLock);
       // 2. Skip overwriting exisiting table object
       // (which is present because it was added after prewarm started)
-      tableCache.putIfAbsent(CacheUtils.buildTableKey(catName, dbName, tableName), tblWrapper);
+      if (tablesDeletedDuringPrewarm.contains(key)) {
+        return false;
+      }
+      tableCache.putIfAbsent(key, tblWrapper);
       return true;
     } finally {
-      cacheLock.writeLock().unlock();
+      stripeLock.unlock();
     }
   }
 
@@ -1073,39 +1274,32 @@ private static boolean isCacheMemoryFull(long estimatedMemUsage) {
   }
 
   public void completeTableCachePrewarm() {
-    try {
-      cacheLock.writeLock().lock();
+    synchronized (tablesDeletedDuringPrewarm) {
       tablesDeletedDuringPrewarm.clear();
       isTableCachePrewarmed = true;
-    } finally {
-      cacheLock.writeLock().unlock();
     }
   }
 
   public Table getTableFromCache(String catName, String dbName, String tableName) {
-    Table t = null;
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper =
-          tableCache.get(CacheUtils.buildTableKey(catName, dbName, tableName));
-      if (tblWrapper != null) {
-        t = CacheUtils.assemble(tblWrapper, this);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
-    }
-    return t;
+    TableWrapper tblWrapper =
+        tableCache.get(CacheUtils.buildTableKey(catName, dbName, tableName));
+    return tblWrapper == null ? null : tblWrapper.assembleTable(this);
   }
 
   public TableWrapper addTableToCache(String catName, String dbName, String tblName, Table tbl) {
+    TableWrapper wrapper = createTableWrapper(catName, dbName, tblName, tbl);
+    ReentrantLock stripeLock = getTableStripeLock(catName, dbName);
     try {
-      cacheLock.writeLock().lock();
-      TableWrapper wrapper = createTableWrapper(catName, dbName, tblName, tbl);
-      tableCache.put(CacheUtils.buildTableKey(catName, dbName, tblName), wrapper);
+      lockCache(stripeLock);
+      TableWrapper oldWrapper =
+          tableCache.put(CacheUtils.buildTableKey(catName, dbName, tblName), wrapper);
+      if (oldWrapper != null) {
+        oldWrapper.releaseSd(this);
+      }
       isTableCacheDirty.set(true);
       return wrapper;
     } finally {
-      cacheLock.writeLock().unlock();
+      stripeLock.unlock();
     }
   }
 
@@ -1122,7 +1316,7 @@ private TableWrapper createTableWrapper(String catName, String dbName, String tb
       }
     }
     if (tbl.getSd() != null) {
-      byte[] sdHash = MetaStoreUtils.hashStorageDescriptor(tbl.getSd(), md);
+      byte[] sdHash = MetaStoreUtils.hashStorageDescriptor(tbl.getSd(), md.get());
       StorageDescriptor sd = tbl.getSd();
       increSd(sd, sdHash);
       tblCopy.setSd(null);
@@ -1134,88 +1328,124 @@ private TableWrapper createTableWrapper(String catName, String dbName, String tb
   }
 
   public void removeTableFromCache(String catName, String dbName, String tblName) {
+    String key = CacheUtils.buildTableKey(catName, dbName, tblName);
+    ReentrantLock stripeLock = getTableStripeLock(catName, dbName);
     try {
-      cacheLock.writeLock().lock();
+      lockCache(stripeLock);
       // If table cache is not yet prewarmed, add this to a set which the prewarm thread can check
       // so that the prewarm thread does not add it back
-      if (!isTableCachePrewarmed) {
-        tablesDeletedDuringPrewarm.add(CacheUtils.buildTableKey(catName, dbName, tblName));
-      }
-      TableWrapper tblWrapper =
-          tableCache.remove(CacheUtils.buildTableKey(catName, dbName, tblName));
-      byte[] sdHash = tblWrapper.getSdHash();
-      if (sdHash != null) {
-        decrSd(sdHash);
+      synchronized (tablesDeletedDuringPrewarm) {
+        if (!isTableCachePrewarmed) {
+          tablesDeletedDuringPrewarm.add(key);
+        }
       }
+      removeTableWrapper(key);
       isTableCacheDirty.set(true);
     } finally {
-      cacheLock.writeLock().unlock();
+      stripeLock.unlock();
+    }
+  }
+
+  /** Assumes the stripe lock of the database is held. */
+  private void removeTableWrapper(String key) {
+    TableWrapper tblWrapper = tableCache.remove(key);
+    if (tblWrapper != null) {
+      tblWrapper.releaseSd(this);
     }
   }
 
   public void alterTableInCache(String catName, String dbName, String tblName, Table newTable) {
+    String newDbName = StringUtils.normalizeIdentifier(newTable.getDbName());
+    String newTblName = StringUtils.normalizeIdentifier(newTable.getTableName());
+    int stripe = getTableStripe(catName, dbName);
+    int newStripe = getTableStripe(catName, newDbName);
+    // Take the locks of both databases in the order of their stripes, like any other rename
+    ReentrantLock firstLock = tableStripeLocks[Math.min(stripe, newStripe)];
+    ReentrantLock secondLock = tableStripeLocks[Math.max(stripe, newStripe)];
     try {
-      cacheLock.writeLock().lock();
-      TableWrapper tblWrapper =
-          tableCache.remove(CacheUtils.buildTableKey(catName, dbName, tblName));
-      if (tblWrapper != null) {
-        tblWrapper.updateTableObj(newTable, this);
-        String newDbName = StringUtils.normalizeIdentifier(newTable.getDbName());
-        String newTblName = StringUtils.normalizeIdentifier(newTable.getTableName());
-        tableCache.put(CacheUtils.buildTableKey(catName, newDbName, newTblName), tblWrapper);
-        isTableCacheDirty.set(true);
+      lockCache(firstLock);
+      try {
+        lockCache(secondLock);
+        TableWrapper tblWrapper =
+            tableCache.remove(CacheUtils.buildTableKey(catName, dbName, tblName));
+        if (tblWrapper != null) {
+          tblWrapper.updateTableObj(newTable, this);
+          tableCache.put(CacheUtils.buildTableKey(catName, newDbName, newTblName), tblWrapper);
+          isTableCacheDirty.set(true);
+        }
+      } finally {
+        secondLock.unlock();
       }
     } finally {
-      cacheLock.writeLock().unlock();
+      firstLock.unlock();
     }
   }
 
-  public List<Table> listCachedTables(String catName, String dbName) {
-    List<Table> tables = new ArrayList<>();
+  /**
+   * Replaces the cached table object with the one read from the backing store after it changed,
+   * keeping the cached partitions and stats, or removes the table if it is null. Unlike the
+   * changes made through CachedStore, this does not mark the table cache dirty.
+   * @return false if the table is not in the cache, so the caller has to populate it
+   */
+  public boolean refreshTableInCache(String catName, String dbName, String tblName, Table table) {
+    String key = CacheUtils.buildTableKey(catName, dbName, tblName);
+    ReentrantLock stripeLock = getTableStripeLock(catName, dbName);
     try {
-      cacheLock.readLock().lock();
-      for (TableWrapper wrapper : tableCache.values()) {
-        if (wrapper.sameDatabase(catName, dbName)) {
-          tables.add(CacheUtils.assemble(wrapper, this));
-        }
+      lockCache(stripeLock);
+      TableWrapper tblWrapper = tableCache.get(key);
+      if (tblWrapper == null) {
+        return false;
       }
+      if (table == null) {
+        removeTableWrapper(key);
+      } else {
+        tblWrapper.updateTableObj(table, this);
+      }
+      return true;
     } finally {
-      cacheLock.readLock().unlock();
+      stripeLock.unlock();
     }
+  }
+
+  // The tables are listed in the order of their names, like in the backing store
+  public List<Table> listCachedTables(String catName, String dbName) {
+    List<TableWrapper> wrappers = new ArrayList<>();
+    for (TableWrapper wrapper : tableCache.values()) {
+      if (wrapper.sameDatabase(catName, dbName)) {
+        wrappers.add(wrapper);
+      }
+    }
+    List<Table> tables = new ArrayList<>(wrappers.size());
+    for (TableWrapper wrapper : wrappers) {
+      tables.add(wrapper.assembleTable(this));
+    }
+    Collections.sort(tables, Comparator.comparing(Table::getTableName));
     return tables;
   }
 
   public List<String> listCachedTableNames(String catName, String dbName) {
     List<String> tableNames = new ArrayList<>();
-    try {
-      cacheLock.readLock().lock();
-      for (TableWrapper wrapper : tableCache.values()) {
-        if (wrapper.sameDatabase(catName, dbName)) {
-          tableNames.add(StringUtils.normalizeIdentifier(wrapper.getTable().getTableName()));
-        }
+    for (TableWrapper wrapper : tableCache.values()) {
+      if (wrapper.sameDatabase(catName, dbName)) {
+        tableNames.add(StringUtils.normalizeIdentifier(wrapper.getTable().getTableName()));
       }
-    } finally {
-      cacheLock.readLock().unlock();
     }
+    Collections.sort(tableNames);
     return tableNames;
   }
 
   public List<String> listCachedTableNames(String catName, String dbName, String pattern,
       short maxTables) {
     List<String> tableNames = new ArrayList<>();
-    try {
-      cacheLock.readLock().lock();
-      int count = 0;
-      for (TableWrapper wrapper : tableCache.values()) {
-        if (wrapper.sameDatabase(catName, dbName)
-            && CacheUtils.matches(wrapper.getTable().getTableName(), pattern)
-            && (maxTables == -1 || count < maxTables)) {
-          tableNames.add(StringUtils.normalizeIdentifier(wrapper.getTable().getTableName()));
-          count++;
-        }
+    for (TableWrapper wrapper : tableCache.values()) {
+      if (wrapper.sameDatabase(catName, dbName)
+          && CacheUtils.matches(wrapper.getTable().getTableName(), pattern)) {
+        tableNames.add(StringUtils.normalizeIdentifier(wrapper.getTable().getTableName()));
       }
-    } finally {
-      cacheLock.readLock().unlock();
+    }
+    Collections.sort(tableNames);
+    if (maxTables != -1 && tableNames.size() > maxTables) {
+      return new ArrayList<>(tableNames.subList(0, maxTables));
     }
     return tableNames;
   }
@@ -1223,174 +1453,135 @@ public List<String> listCachedTableNames(String catName, String dbName, String p
   public List<String> listCachedTableNames(String catName, String dbName, String pattern,
       TableType tableType) {
     List<String> tableNames = new ArrayList<>();
-    try {
-      cacheLock.readLock().lock();
-      for (TableWrapper wrapper : tableCache.values()) {
-        if (wrapper.sameDatabase(catName, dbName)
-            && CacheUtils.matches(wrapper.getTable().getTableName(), pattern)
-            && wrapper.getTable().getTableType().equals(tableType.toString())) {
-          tableNames.add(StringUtils.normalizeIdentifier(wrapper.getTable().getTableName()));
-        }
+    for (TableWrapper wrapper : tableCache.values()) {
+      if (wrapper.sameDatabase(catName, dbName)
+          && CacheUtils.matches(wrapper.getTable().getTableName(), pattern)
+          && wrapper.getTable().getTableType().equals(tableType.toString())) {
+        tableNames.add(StringUtils.normalizeIdentifier(wrapper.getTable().getTableName()));
       }
-    } finally {
-      cacheLock.readLock().unlock();
     }
+    Collections.sort(tableNames);
     return tableNames;
   }
 
   public void refreshTablesInCache(String catName, String dbName, List<Table> tables) {
+    ReentrantLock stripeLock = getTableStripeLock(catName, dbName);
     try {
-      cacheLock.writeLock().lock();
+      lockCache(stripeLock);
       if (isTableCacheDirty.compareAndSet(true, false)) {
         LOG.debug("Skipping table cache update; the table list we have is dirty.");
         return;
       }
-      Map<String, TableWrapper> newTableCache = new HashMap<>();
+      Set<String> tableKeys = new HashSet<>();
       for (Table tbl : tables) {
         String tblName = StringUtils.normalizeIdentifier(tbl.getTableName());
-        TableWrapper tblWrapper =
-            tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+        String key = CacheUtils.buildTableKey(catName, dbName, tblName);
+        tableKeys.add(key);
+        TableWrapper tblWrapper = tableCache.get(key);
         if (tblWrapper != null) {
           tblWrapper.updateTableObj(tbl, this);
         } else {
-          tblWrapper = createTableWrapper(catName, dbName, tblName, tbl);
+          tableCache.put(key, createTableWrapper(catName, dbName, tblName, tbl));
+        }
+      }
+      // Remove the tables of the database that were dropped, and only those
+      List<String> droppedKeys = new ArrayList<>();
+      for (Entry<String, TableWrapper> entry : tableCache.entrySet()) {
+        if (entry.getValue().sameDatabase(catName, dbName)
+            && !tableKeys.contains(entry.getKey())) {
+          droppedKeys.add(entry.getKey());
         }
-        newTableCache.put(CacheUtils.buildTableKey(catName, dbName, tblName), tblWrapper);
       }
-      tableCache.clear();
-      tableCache = newTableCache;
+      for (String key : droppedKeys) {
+        removeTableWrapper(key);
+      }
     } finally {
-      cacheLock.writeLock().unlock();
+      stripeLock.unlock();
     }
   }
 
   public List<ColumnStatisticsObj> getTableColStatsFromCache(String catName, String dbName,
       String tblName, List<String> colNames) {
     List<ColumnStatisticsObj> colStatObjs = new ArrayList<>();
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
-      if (tblWrapper != null) {
-        colStatObjs = tblWrapper.getCachedTableColStats(colNames);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+    if (tblWrapper != null) {
+      colStatObjs = tblWrapper.getCachedTableColStats(colNames);
     }
     return colStatObjs;
   }
 
   public void removeTableColStatsFromCache(String catName, String dbName, String tblName,
       String colName) {
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
-      if (tblWrapper != null) {
-        tblWrapper.removeTableColStats(colName);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+    if (tblWrapper != null) {
+      tblWrapper.removeTableColStats(colName);
     }
   }
 
   public void updateTableColStatsInCache(String catName, String dbName, String tableName,
       List<ColumnStatisticsObj> colStatsForTable) {
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper =
-          tableCache.get(CacheUtils.buildTableKey(catName, dbName, tableName));
-      if (tblWrapper != null) {
-        tblWrapper.updateTableColStats(colStatsForTable);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper =
+        tableCache.get(CacheUtils.buildTableKey(catName, dbName, tableName));
+    if (tblWrapper != null) {
+      tblWrapper.updateTableColStats(colStatsForTable);
     }
   }
 
   public void refreshTableColStatsInCache(String catName, String dbName, String tableName,
       List<ColumnStatisticsObj> colStatsForTable) {
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper =
-          tableCache.get(CacheUtils.buildTableKey(catName, dbName, tableName));
-      if (tblWrapper != null) {
-        tblWrapper.refreshTableColStats(colStatsForTable);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper =
+        tableCache.get(CacheUtils.buildTableKey(catName, dbName, tableName));
+    if (tblWrapper != null) {
+      tblWrapper.refreshTableColStats(colStatsForTable);
     }
   }
 
   public int getCachedTableCount() {
-    try {
-      cacheLock.readLock().lock();
-      return tableCache.size();
-    } finally {
-      cacheLock.readLock().unlock();
-    }
+    return tableCache.size();
   }
 
   public List<TableMeta> getTableMeta(String catName, String dbNames, String tableNames,
       List<String> tableTypes) {
     List<TableMeta> tableMetas = new ArrayList<>();
-    try {
-      cacheLock.readLock().lock();
-      for (String dbName : listCachedDatabases(catName)) {
-        if (CacheUtils.matches(dbName, dbNames)) {
-          for (Table table : listCachedTables(catName, dbName)) {
-            if (CacheUtils.matches(table.getTableName(), tableNames)) {
-              if (tableTypes == null || tableTypes.contains(table.getTableType())) {
-                TableMeta metaData =
-                    new TableMeta(dbName, table.getTableName(), table.getTableType());
-                metaData.setCatName(catName);
-                metaData.setComments(table.getParameters().get("comment"));
-                tableMetas.add(metaData);
-              }
+    for (String dbName : listCachedDatabases(catName)) {
+      if (CacheUtils.matches(dbName, dbNames)) {
+        for (Table table : listCachedTables(catName, dbName)) {
+          if (CacheUtils.matches(table.getTableName(), tableNames)) {
+            if (tableTypes == null || tableTypes.contains(table.getTableType())) {
+              TableMeta metaData =
+                  new TableMeta(dbName, table.getTableName(), table.getTableType());
+              metaData.setCatName(catName);
+              metaData.setComments(table.getParameters().get("comment"));
+              tableMetas.add(metaData);
             }
           }
         }
       }
-    } finally {
-      cacheLock.readLock().unlock();
     }
     return tableMetas;
   }
 
   public void addPartitionToCache(String catName, String dbName, String tblName, Partition part) {
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
-      if (tblWrapper != null) {
-        tblWrapper.cachePartition(part, this);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+    if (tblWrapper != null) {
+      tblWrapper.cachePartition(part, this);
     }
   }
 
   public void addPartitionsToCache(String catName, String dbName, String tblName,
       List<Partition> parts) {
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
-      if (tblWrapper != null) {
-        tblWrapper.cachePartitions(parts, this);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+    if (tblWrapper != null) {
+      tblWrapper.cachePartitions(parts, this);
     }
   }
 
   public Partition getPartitionFromCache(String catName, String dbName, String tblName,
       List<String> partVals) {
     Partition part = null;
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
-      if (tblWrapper != null) {
-        part = tblWrapper.getPartition(partVals, this);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+    if (tblWrapper != null) {
+      part = tblWrapper.getPartition(partVals, this);
     }
     return part;
   }
@@ -1398,14 +1589,9 @@ public Partition getPartitionFromCache(String catName, String dbName, String tbl
   public boolean existPartitionFromCache(String catName, String dbName, String tblName,
       List<String> partVals) {
     boolean existsPart = false;
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
-      if (tblWrapper != null) {
-        existsPart = tblWrapper.containsPartition(partVals);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+    if (tblWrapper != null) {
+      existsPart = tblWrapper.containsPartition(partVals);
     }
     return existsPart;
   }
@@ -1413,204 +1599,147 @@ public boolean existPartitionFromCache(String catName, String dbName, String tbl
   public Partition removePartitionFromCache(String catName, String dbName, String tblName,
       List<String> partVals) {
     Partition part = null;
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
-      if (tblWrapper != null) {
-        part = tblWrapper.removePartition(partVals, this);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+    if (tblWrapper != null) {
+      part = tblWrapper.removePartition(partVals, this);
     }
     return part;
   }
 
   public void removePartitionsFromCache(String catName, String dbName, String tblName,
       List<List<String>> partVals) {
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
-      if (tblWrapper != null) {
-        tblWrapper.removePartitions(partVals, this);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+    if (tblWrapper != null) {
+      tblWrapper.removePartitions(partVals, this);
     }
   }
 
   public List<Partition> listCachedPartitions(String catName, String dbName, String tblName,
       int max) {
     List<Partition> parts = new ArrayList<Partition>();
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
-      if (tblWrapper != null) {
-        parts = tblWrapper.listPartitions(max, this);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+    if (tblWrapper != null) {
+      parts = tblWrapper.listPartitions(max, this);
     }
     return parts;
   }
 
   public void alterPartitionInCache(String catName, String dbName, String tblName,
       List<String> partVals, Partition newPart) {
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
-      if (tblWrapper != null) {
-        tblWrapper.alterPartition(partVals, newPart, this);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+    if (tblWrapper != null) {
+      tblWrapper.alterPartition(partVals, newPart, this);
     }
   }
 
   public void alterPartitionsInCache(String catName, String dbName, String tblName,
       List<List<String>> partValsList, List<Partition> newParts) {
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
-      if (tblWrapper != null) {
-        tblWrapper.alterPartitions(partValsList, newParts, this);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+    if (tblWrapper != null) {
+      tblWrapper.alterPartitions(partValsList, newParts, this);
     }
   }
 
   public void refreshPartitionsInCache(String catName, String dbName, String tblName,
       List<Partition> partitions) {
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
-      if (tblWrapper != null) {
-        tblWrapper.refreshPartitions(partitions, this);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+    if (tblWrapper != null) {
+      tblWrapper.refreshPartitions(partitions, this);
+    }
+  }
+
+  public void refreshChangedPartitionsInCache(String catName, String dbName, String tblName,
+      Collection<List<String>> partValsList, List<Partition> partitions,
+      List<ColumnStatistics> partitionColStats) {
+    TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+    if (tblWrapper != null) {
+      tblWrapper.refreshChangedPartitions(partValsList, partitions, partitionColStats, this);
     }
   }
 
   public void removePartitionColStatsFromCache(String catName, String dbName, String tblName,
       List<String> partVals, String colName) {
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
-      if (tblWrapper != null) {
-        tblWrapper.removePartitionColStats(partVals, colName);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+    if (tblWrapper != null) {
+      tblWrapper.removePartitionColStats(partVals, colName);
     }
   }
 
   public void updatePartitionColStatsInCache(String catName, String dbName, String tableName,
       List<String> partVals, List<ColumnStatisticsObj> colStatsObjs) {
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper =
-          tableCache.get(CacheUtils.buildTableKey(catName, dbName, tableName));
-      if (tblWrapper != null) {
-        tblWrapper.updatePartitionColStats(partVals, colStatsObjs);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper =
+        tableCache.get(CacheUtils.buildTableKey(catName, dbName, tableName));
+    if (tblWrapper != null) {
+      tblWrapper.updatePartitionColStats(partVals, colStatsObjs);
     }
   }
 
   public ColumnStatisticsObj getPartitionColStatsFromCache(String catName, String dbName,
       String tblName, List<String> partVal, String colName) {
     ColumnStatisticsObj colStatObj = null;
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
-      if (tblWrapper != null) {
-        colStatObj = tblWrapper.getPartitionColStats(partVal, colName);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+    if (tblWrapper != null) {
+      colStatObj = tblWrapper.getPartitionColStats(partVal, colName);
     }
     return colStatObj;
   }
 
   public void refreshPartitionColStatsInCache(String catName, String dbName, String tblName,
       List<ColumnStatistics> partitionColStats) {
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
-      if (tblWrapper != null) {
-        tblWrapper.refreshPartitionColStats(partitionColStats);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+    if (tblWrapper != null) {
+      tblWrapper.refreshPartitionColStats(partitionColStats);
     }
   }
 
   public List<ColumnStatisticsObj> getAggrStatsFromCache(String catName, String dbName,
       String tblName, List<String> colNames, StatsType statsType) {
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
-      if (tblWrapper != null) {
-        return tblWrapper.getAggrPartitionColStats(colNames, statsType);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+    if (tblWrapper != null) {
+      return tblWrapper.getAggrPartitionColStats(colNames, statsType);
     }
     return null;
   }
 
   public void addAggregateStatsToCache(String catName, String dbName, String tblName,
       AggrStats aggrStatsAllPartitions, AggrStats aggrStatsAllButDefaultPartition) {
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
-      if (tblWrapper != null) {
-        tblWrapper.cacheAggrPartitionColStats(aggrStatsAllPartitions,
-            aggrStatsAllButDefaultPartition);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+    if (tblWrapper != null) {
+      tblWrapper.cacheAggrPartitionColStats(aggrStatsAllPartitions,
+          aggrStatsAllButDefaultPartition);
     }
   }
 
   public void refreshAggregateStatsInCache(String catName, String dbName, String tblName,
       AggrStats aggrStatsAllPartitions, AggrStats aggrStatsAllButDefaultPartition) {
-    try {
-      cacheLock.readLock().lock();
-      TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
-      if (tblWrapper != null) {
-        tblWrapper.refreshAggrPartitionColStats(aggrStatsAllPartitions,
-            aggrStatsAllButDefaultPartition);
-      }
-    } finally {
-      cacheLock.readLock().unlock();
+    TableWrapper tblWrapper = tableCache.get(CacheUtils.buildTableKey(catName, dbName, tblName));
+    if (tblWrapper != null) {
+      tblWrapper.refreshAggrPartitionColStats(aggrStatsAllPartitions,
+          aggrStatsAllButDefaultPartition);
     }
   }
 
-  public synchronized void increSd(StorageDescriptor sd, byte[] sdHash) {
-    ByteArrayWrapper byteArray = new ByteArrayWrapper(sdHash);
-    if (sdCache.containsKey(byteArray)) {
-      sdCache.get(byteArray).refCount++;
-    } else {
+  // The reference counts are updated atomically by the map. A storage descriptor is read without
+  // locking, while the lock of the table that refers to it keeps it from being released.
+  public void increSd(StorageDescriptor sd, byte[] sdHash) {
+    sdCache.compute(new ByteArrayWrapper(sdHash), (byteArray, sdWrapper) -> {
+      if (sdWrapper != null) {
+        sdWrapper.refCount++;
+        return sdWrapper;
+      }
       StorageDescriptor sdToCache = sd.deepCopy();
       sdToCache.setLocation(null);
       sdToCache.setParameters(null);
-      sdCache.put(byteArray, new StorageDescriptorWrapper(sdToCache, 1));
-    }
+      return new StorageDescriptorWrapper(sdToCache, 1);
+    });
   }
 
-  public synchronized void decrSd(byte[] sdHash) {
-    ByteArrayWrapper byteArray = new ByteArrayWrapper(sdHash);
-    StorageDescriptorWrapper sdWrapper = sdCache.get(byteArray);
-    sdWrapper.refCount--;
-    if (sdWrapper.getRefCount() == 0) {
-      sdCache.remove(byteArray);
-    }
+  public void decrSd(byte[] sdHash) {
+    sdCache.computeIfPresent(new ByteArrayWrapper(sdHash),
+        (byteArray, sdWrapper) -> --sdWrapper.refCount == 0 ? null : sdWrapper);
   }
 
-  public synchronized StorageDescriptor getSdFromCache(byte[] sdHash) {
+  public StorageDescriptor getSdFromCache(byte[] sdHash) {
     StorageDescriptorWrapper sdWrapper = sdCache.get(new ByteArrayWrapper(sdHash));
     return sdWrapper.getSd();
   }
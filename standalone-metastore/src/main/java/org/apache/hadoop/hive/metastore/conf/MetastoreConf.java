@@ -294,6 +294,23 @@ public enum ConfVars {
     CACHED_RAW_STORE_CACHE_UPDATE_FREQUENCY("metastore.cached.rawstore.cache.update.frequency",
         "hive.metastore.cached.rawstore.cache.update.frequency", 60, TimeUnit.SECONDS,
         "The time after which metastore cache is updated from metastore DB."),
+    CACHED_RAW_STORE_INCREMENTAL_UPDATE("metastore.cached.rawstore.incremental.update",
+        "hive.metastore.cached.rawstore.incremental.update", false,
+        "Whether the cache update applies only the changes recorded in the notification log since \n" +
+        "the last update, instead of reading all the cached objects from metastore DB again. This \n" +
+        "requires every metastore to have DbNotificationListener in \n" +
+        "metastore.transactional.event.listeners."),
+    CACHED_RAW_STORE_FULL_UPDATE_FREQUENCY("metastore.cached.rawstore.full.update.frequency",
+        "hive.metastore.cached.rawstore.full.update.frequency", 3600, TimeUnit.SECONDS,
+        "With metastore.cached.rawstore.incremental.update, the time after which all the cached \n" +
+        "objects are read from metastore DB again. This bounds how long the changes that are not in \n" +
+        "the notification log, like column statistics, take to reach the cache."),
+    CACHED_RAW_STORE_INCREMENTAL_UPDATE_MAX_EVENTS(
+        "metastore.cached.rawstore.incremental.update.max.events",
+        "hive.metastore.cached.rawstore.incremental.update.max.events", 10000,
+        "With metastore.cached.rawstore.incremental.update, the maximum number of notification \n" +
+        "events applied in one cache update. If more events are pending, all the cached objects are \n" +
+        "read from metastore DB again instead."),
     CACHED_RAW_STORE_CACHED_OBJECTS_WHITELIST("metastore.cached.rawstore.cached.object.whitelist",
         "hive.metastore.cached.rawstore.cached.object.whitelist", ".*", "Comma separated list of regular expressions \n " +
         "to select the tables (and its partitions, stats etc) that will be cached by CachedStore. \n" +
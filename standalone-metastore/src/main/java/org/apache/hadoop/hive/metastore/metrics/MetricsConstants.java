@@ -21,6 +21,9 @@ public class MetricsConstants {
   public static final String ACTIVE_CALLS = "active_calls_";
   public static final String API_PREFIX = "api_";
 
+  public static final String CACHED_STORE_CACHE_LOCK_WAIT = "cached_store_cache_lock_wait";
+  public static final String CACHED_STORE_TABLE_LOCK_WAIT = "cached_store_table_lock_wait";
+
   public static final String CREATE_TOTAL_DATABASES = "create_total_count_dbs";
   public static final String CREATE_TOTAL_TABLES = "create_total_count_tables";
   public static final String CREATE_TOTAL_PARTITIONS = "create_total_count_partitions";
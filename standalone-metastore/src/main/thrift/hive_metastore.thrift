@@ -700,6 +700,9 @@ struct PartitionsByExprRequest {
   4: optional string defaultPartitionName,
   5: optional i16 maxParts=-1
   6: optional string catName
+  // Names of the Partition fields to return ("values", "parameters", "sd.location", ...); all
+  // fields are returned when this is not set.
+  7: optional list<string> fieldList
 }
 
 struct TableStatsResult {
@@ -725,6 +728,21 @@ struct PartitionsStatsRequest {
  5: optional string catName
 }
 
+// Return type for get_partitions_by_names_req
+struct GetPartitionsByNamesResult {
+  1: optional list<Partition> partitions,
+}
+
+// Request type for get_partitions_by_names_req
+struct GetPartitionsByNamesRequest {
+ 1: required string dbName,
+ 2: required string tblName,
+ 3: required list<string> names,
+ // Names of the Partition fields to return, as in PartitionsByExprRequest.fieldList
+ 4: optional list<string> fieldList,
+ 5: optional string catName
+}
+
 // Return type for add_partitions_req
 struct AddPartitionsResult {
   1: optional list<Partition> partitions,
@@ -1862,6 +1880,10 @@ service ThriftHiveMetastore extends fb303.FacebookService
   list<Partition> get_partitions_by_names(1:string db_name 2:string tbl_name 3:list<string> names)
                        throws(1:MetaException o1, 2:NoSuchObjectException o2)
 
+  // get partitions give a list of partition names, with only the requested fields filled in
+  GetPartitionsByNamesResult get_partitions_by_names_req(1:GetPartitionsByNamesRequest req)
+                       throws(1:MetaException o1, 2:NoSuchObjectException o2)
+
   // changes the partition to the new partition object. partition is identified from the part values
   // in the new_part
   // * See notes on DDL_TIME
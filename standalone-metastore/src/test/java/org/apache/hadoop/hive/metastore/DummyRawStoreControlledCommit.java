@@ -372,6 +372,12 @@ public List<Partition> getPartitionsByNames(String catName, String dbName, Strin
     return objectStore.getPartitionsByNames(catName, dbName, tblName, partNames);
   }
 
+  @Override
+  public List<Partition> getPartitionsByNames(String catName, String dbName, String tblName,
+      List<String> partNames, List<String> fieldList) throws MetaException, NoSuchObjectException {
+    return objectStore.getPartitionsByNames(catName, dbName, tblName, partNames, fieldList);
+  }
+
   @Override
   public boolean getPartitionsByExpr(String catName, String dbName, String tblName, byte[] expr,
       String defaultPartitionName, short maxParts, List<Partition> result) throws TException {
@@ -379,6 +385,14 @@ public boolean getPartitionsByExpr(String catName, String dbName, String tblName
         dbName, tblName, expr, defaultPartitionName, maxParts, result);
   }
 
+  @Override
+  public boolean getPartitionsByExpr(String catName, String dbName, String tblName, byte[] expr,
+      String defaultPartitionName, short maxParts, List<String> fieldList,
+      List<Partition> result) throws TException {
+    return objectStore.getPartitionsByExpr(catName,
+        dbName, tblName, expr, defaultPartitionName, maxParts, fieldList, result);
+  }
+
   @Override
   public Table markPartitionForEvent(String catName, String dbName, String tblName,
       Map<String, String> partVals, PartitionEventType evtType)
@@ -365,12 +365,26 @@ public List<Partition> getPartitionsByNames(String catName, String dbName, Strin
     return Collections.emptyList();
   }
 
+  @Override
+  public List<Partition> getPartitionsByNames(String catName, String dbName, String tblName,
+      List<String> partNames, List<String> fieldList) throws MetaException, NoSuchObjectException {
+
+    return Collections.emptyList();
+  }
+
   @Override
   public boolean getPartitionsByExpr(String catName, String dbName, String tblName, byte[] expr,
       String defaultPartitionName, short maxParts, List<Partition> result) throws TException {
     return false;
   }
 
+  @Override
+  public boolean getPartitionsByExpr(String catName, String dbName, String tblName, byte[] expr,
+      String defaultPartitionName, short maxParts, List<String> fieldList,
+      List<Partition> result) throws TException {
+    return false;
+  }
+
   @Override
   public int getNumPartitionsByFilter(String catName, String dbName, String tblName, String filter)
     throws MetaException, NoSuchObjectException {
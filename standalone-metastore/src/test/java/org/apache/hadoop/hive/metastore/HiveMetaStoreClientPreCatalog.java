@@ -1352,6 +1352,15 @@ public boolean listPartitionsByExpr(String db_name, String tbl_name, byte[] expr
     return !r.isSetHasUnknownPartitions() || r.isHasUnknownPartitions(); // Assume the worst.
   }
 
+  @Override
+  public boolean listPartitionsByExpr(String db_name, String tbl_name, byte[] expr,
+      String default_partition_name, short max_parts, List<String> fieldList,
+      List<Partition> result) throws TException {
+    // Whole partitions have all the fields
+    return listPartitionsByExpr(db_name, tbl_name, expr, default_partition_name, max_parts,
+        result);
+  }
+
   /**
    * @param name
    * @return the database
@@ -1391,6 +1400,25 @@ public List<Partition> getPartitionsByNames(String db_name, String tbl_name,
     return fastpath ? parts : deepCopyPartitions(filterHook.filterPartitions(parts));
   }
 
+  @Override
+  public List<Partition> getPartitionsByNames(String db_name, String tbl_name,
+      List<String> part_names, List<String> fieldList) throws TException {
+    // Whole partitions have all the fields
+    return getPartitionsByNames(db_name, tbl_name, part_names);
+  }
+
+  @Override
+  public Iterator<Partition> getPartitionsByNamesIterator(String db_name, String tbl_name,
+      List<String> part_names, int batchSize) {
+    return new PartitionBatchIterator(this, null, db_name, tbl_name, part_names, batchSize);
+  }
+
+  @Override
+  public Iterator<Partition> listPartitionsIterator(String db_name, String tbl_name,
+      int batchSize) throws TException {
+    return PartitionBatchIterator.forTable(this, null, db_name, tbl_name, batchSize);
+  }
+
   @Override
   public PartitionValuesResponse listPartitionValues(PartitionValuesRequest request)
       throws MetaException, TException, NoSuchObjectException {
@@ -3123,6 +3151,14 @@ public boolean listPartitionsByExpr(String catName, String db_name, String tbl_n
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public boolean listPartitionsByExpr(String catName, String db_name, String tbl_name, byte[] expr,
+                                      String default_partition_name, int max_parts,
+                                      List<String> fieldList, List<Partition> result)
+      throws TException {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public List<Partition> listPartitionsWithAuthInfo(String catName, String dbName, String tableName,
                                                     int maxParts, String userName,
@@ -3138,6 +3174,25 @@ public List<Partition> getPartitionsByNames(String catName, String db_name, Stri
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public List<Partition> getPartitionsByNames(String catName, String db_name, String tbl_name,
+                                              List<String> part_names, List<String> fieldList)
+      throws NoSuchObjectException, MetaException, TException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Iterator<Partition> getPartitionsByNamesIterator(String catName, String db_name,
+      String tbl_name, List<String> part_names, int batchSize) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Iterator<Partition> listPartitionsIterator(String catName, String db_name,
+      String tbl_name, int batchSize) throws TException {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public List<Partition> listPartitionsWithAuthInfo(String catName, String dbName, String tableName,
                                                     List<String> partialPvals, int maxParts,
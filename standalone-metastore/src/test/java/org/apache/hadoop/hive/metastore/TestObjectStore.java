@@ -62,6 +62,7 @@
 import org.slf4j.LoggerFactory;
 
 import javax.jdo.Query;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -339,6 +340,86 @@ public void testPartitionOps() throws MetaException, InvalidObjectException,
     objectStore.dropDatabase(db1.getCatalogName(), DB1);
   }
 
+  /**
+   * Tests getting partitions by names with only some of their fields
+   */
+  @Test
+  public void testGetPartitionsByNamesWithProjection() throws Exception {
+    Database db1 = new DatabaseBuilder()
+        .setName(DB1)
+        .setDescription("description")
+        .setLocation("locationurl")
+        .build(conf);
+    objectStore.createDatabase(db1);
+    StorageDescriptor sd = createFakeSd("location");
+    sd.setCols(Arrays.asList(new FieldSchema("col1", ColumnType.INT_TYPE_NAME, "")));
+    FieldSchema partitionKey = new FieldSchema("ds", ColumnType.STRING_TYPE_NAME, "");
+    Table tbl1 = new Table(TABLE1, DB1, "owner", 1, 2, 3, sd, Arrays.asList(partitionKey),
+        new HashMap<>(), null, null, "MANAGED_TABLE");
+    objectStore.createTable(tbl1);
+    List<String> partNames = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      HashMap<String, String> partitionParams = new HashMap<>();
+      partitionParams.put("numFiles", String.valueOf(i));
+      Partition part = new Partition(Arrays.asList("2018010" + i), DB1, TABLE1, 100 + i, 0,
+          createFakeSd("location/ds=2018010" + i), partitionParams);
+      part.getSd().setCols(sd.getCols());
+      part.setCatName(DEFAULT_CATALOG_NAME);
+      objectStore.addPartition(part);
+      partNames.add("ds=2018010" + i);
+    }
+
+    List<String> fieldList = Arrays.asList("values", "parameters", "sd.location");
+    // Both the direct SQL and the JDO paths
+    for (boolean allowSql : new boolean[] { true, false }) {
+      Deadline.startTimer("getPartitionsByNames");
+      List<Partition> partitions = objectStore.getPartitionsByNamesInternal(DEFAULT_CATALOG_NAME,
+          DB1, TABLE1, partNames, new PartitionProjection(fieldList), allowSql, !allowSql);
+      Deadline.stopTimer();
+      Assert.assertEquals(3, partitions.size());
+      for (int i = 0; i < 3; i++) {
+        Partition part = partitions.get(i);
+        Assert.assertEquals(Arrays.asList("2018010" + i), part.getValues());
+        Assert.assertEquals(String.valueOf(i), part.getParameters().get("numFiles"));
+        Assert.assertTrue(part.getSd().getLocation().endsWith("location/ds=2018010" + i));
+        Assert.assertFalse(part.isSetCreateTime());
+        Assert.assertFalse(part.isSetDbName());
+        Assert.assertFalse(part.getSd().isSetCols());
+        Assert.assertFalse(part.getSd().isSetSerdeInfo());
+      }
+    }
+
+    Deadline.startTimer("getPartitionsByNames");
+    List<Partition> partitions = objectStore.getPartitionsByNames(DEFAULT_CATALOG_NAME, DB1,
+        TABLE1, partNames, Arrays.asList("createTime"));
+    Deadline.stopTimer();
+    Assert.assertEquals(102, partitions.get(2).getCreateTime());
+    Assert.assertFalse(partitions.get(2).isSetValues());
+    Assert.assertFalse(partitions.get(2).isSetSd());
+
+    Deadline.startTimer("getPartitionsByNames");
+    partitions = objectStore.getPartitionsByNames(DEFAULT_CATALOG_NAME, DB1, TABLE1, partNames,
+        null);
+    Deadline.stopTimer();
+    Assert.assertEquals(1, partitions.get(0).getSd().getColsSize());
+    Assert.assertEquals("SerDeName", partitions.get(0).getSd().getSerdeInfo().getName());
+
+    try {
+      objectStore.getPartitionsByNames(DEFAULT_CATALOG_NAME, DB1, TABLE1, partNames,
+          Arrays.asList("sd.nosuchfield"));
+      Assert.fail("Expected an invalid field error");
+    } catch (MetaException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains("sd.nosuchfield"));
+    }
+
+    for (String partName : partNames) {
+      objectStore.dropPartition(DEFAULT_CATALOG_NAME, DB1, TABLE1,
+          Arrays.asList(partName.substring("ds=".length())));
+    }
+    objectStore.dropTable(DEFAULT_CATALOG_NAME, DB1, TABLE1);
+    objectStore.dropDatabase(db1.getCatalogName(), DB1);
+  }
+
   /**
    * Test master keys operation
    */
@@ -26,6 +26,7 @@
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.common.ndv.hll.HyperLogLog;
 import org.apache.hadoop.hive.metastore.HiveMetaStore;
@@ -43,6 +44,7 @@
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
+import org.apache.hadoop.hive.metastore.api.NotificationEvent;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.PrincipalType;
 import org.apache.hadoop.hive.metastore.api.SerDeInfo;
@@ -53,11 +55,18 @@
 import org.apache.hadoop.hive.metastore.columnstats.cache.StringColumnStatsDataInspector;
 import org.apache.hadoop.hive.metastore.conf.MetastoreConf;
 import org.apache.hadoop.hive.metastore.conf.MetastoreConf.ConfVars;
+import org.apache.hadoop.hive.metastore.messaging.EventMessage.EventType;
+import org.apache.hadoop.hive.metastore.messaging.MessageFactory;
+import org.apache.hadoop.hive.metastore.messaging.PartitionFiles;
+import org.apache.hadoop.hive.metastore.metrics.Metrics;
+import org.apache.hadoop.hive.metastore.metrics.MetricsConstants;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import com.codahale.metrics.Timer;
+
 import jline.internal.Log;
 
 import static org.apache.hadoop.hive.metastore.Warehouse.DEFAULT_CATALOG_NAME;
@@ -575,6 +584,69 @@ public void testSharedStoreTable() {
     Assert.assertEquals(sharedCache.getSdCache().size(), 2);
   }
 
+  @Test
+  public void testSharedStoreRefreshTables() {
+    List<FieldSchema> cols = Arrays.asList(new FieldSchema("col1", "int", ""));
+    for (String dbName : Arrays.asList("db1", "db2")) {
+      for (String tblName : Arrays.asList("tbl1", "tbl2")) {
+        sharedCache.addTableToCache(DEFAULT_CATALOG_NAME, dbName, tblName,
+            createTestTbl(dbName, tblName, "user1", cols, new ArrayList<>()));
+      }
+    }
+    Table tbl3 = createTestTbl("db1", "tbl3", "user2", cols, new ArrayList<>());
+    // The list we have is dirty after the tables were added
+    sharedCache.refreshTablesInCache(DEFAULT_CATALOG_NAME, "db1", Arrays.asList(tbl3));
+    Assert.assertEquals(4, sharedCache.getCachedTableCount());
+
+    // tbl1 and tbl2 were dropped from db1, and tbl3 was created
+    sharedCache.refreshTablesInCache(DEFAULT_CATALOG_NAME, "db1", Arrays.asList(tbl3));
+    Assert.assertEquals(Arrays.asList("tbl3"),
+        sharedCache.listCachedTableNames(DEFAULT_CATALOG_NAME, "db1"));
+    Assert.assertEquals(Arrays.asList("tbl1", "tbl2"),
+        sharedCache.listCachedTableNames(DEFAULT_CATALOG_NAME, "db2"));
+    Assert.assertEquals(1, sharedCache.getSdCache().size());
+    Assert.assertEquals(3, sharedCache.getSdCache().values().iterator().next().getRefCount());
+  }
+
+  @Test
+  public void testSharedStoreLockWaitMetrics() throws Exception {
+    Configuration metricsConf = MetastoreConf.newMetastoreConf();
+    MetastoreConf.setVar(metricsConf, ConfVars.METRICS_REPORTERS, "jmx");
+    Metrics.shutdown();
+    Metrics.initialize(metricsConf);
+    try {
+      List<FieldSchema> cols = Arrays.asList(new FieldSchema("col1", "int", ""));
+      sharedCache.addTableToCache(DEFAULT_CATALOG_NAME, "db1", "tbl1",
+          createTestTbl("db1", "tbl1", "user1", cols, new ArrayList<>()));
+      sharedCache.addTableToCache(DEFAULT_CATALOG_NAME, "db1", "tbl2",
+          createTestTbl("db1", "tbl2", "user1", cols, new ArrayList<>()));
+      Timer lockWaitTimer = Metrics.getOrCreateTimer(MetricsConstants.CACHED_STORE_TABLE_LOCK_WAIT);
+      long lockWaitsBefore = lockWaitTimer.getCount();
+
+      ReentrantReadWriteLock tableLock = sharedCache.getTableCache()
+          .get(CacheUtils.buildTableKey(DEFAULT_CATALOG_NAME, "db1", "tbl1")).tableLock;
+      tableLock.writeLock().lock();
+      Thread reader;
+      try {
+        // A write to tbl1 does not block the reads of tbl2
+        Assert.assertNotNull(sharedCache.getTableFromCache(DEFAULT_CATALOG_NAME, "db1", "tbl2"));
+        Assert.assertEquals(lockWaitsBefore, lockWaitTimer.getCount());
+        reader = new Thread(
+            () -> sharedCache.getTableFromCache(DEFAULT_CATALOG_NAME, "db1", "tbl1"));
+        reader.start();
+        while (!tableLock.hasQueuedThreads()) {
+          Thread.sleep(10);
+        }
+      } finally {
+        tableLock.writeLock().unlock();
+      }
+      reader.join();
+      Assert.assertEquals(lockWaitsBefore + 1, lockWaitTimer.getCount());
+    } finally {
+      Metrics.shutdown();
+    }
+  }
+
 
   @Test
   public void testSharedStorePartition() {
@@ -662,6 +734,63 @@ public void testSharedStorePartition() {
     Assert.assertEquals(t.getSd().getLocation(), "loc1new");
   }
 
+  @Test
+  public void testSharedStoreCompactPartition() {
+    String dbName = "db1";
+    String tblName = "tbl1";
+    Database db = createTestDb(dbName, "user1");
+    sharedCache.addDatabaseToCache(db);
+    List<FieldSchema> cols = Arrays.asList(new FieldSchema("col1", "int", ""));
+    List<FieldSchema> ptnCols = Arrays.asList(new FieldSchema("ds", "string", ""));
+    Table tbl = createTestTbl(dbName, tblName, "user1", cols, ptnCols);
+    sharedCache.addTableToCache(DEFAULT_CATALOG_NAME, dbName, tblName, tbl);
+
+    List<Partition> parts = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Partition part = new Partition();
+      part.setDbName(dbName);
+      part.setTableName(tblName);
+      part.setCatName(DEFAULT_CATALOG_NAME);
+      part.setValues(Arrays.asList("2017010" + i));
+      part.setCreateTime(100 + i);
+      part.setLastAccessTime(200 + i);
+      Map<String, String> partParams = new HashMap<>();
+      partParams.put("numFiles", String.valueOf(i));
+      part.setParameters(partParams);
+      StorageDescriptor sd = new StorageDescriptor();
+      sd.setCols(cols);
+      sd.setParameters(new HashMap<>());
+      sd.setLocation("hdfs://nn:8020/warehouse/db1.db/tbl1/ds=2017010" + i);
+      sd.setSerdeInfo(new SerDeInfo("serde", "seriallib", new HashMap<>()));
+      part.setSd(sd);
+      parts.add(part);
+      sharedCache.addPartitionToCache(DEFAULT_CATALOG_NAME, dbName, tblName, part);
+    }
+
+    for (Partition part : parts) {
+      Partition cached = sharedCache.getPartitionFromCache(DEFAULT_CATALOG_NAME, dbName, tblName,
+          part.getValues());
+      Assert.assertEquals(part.getValues(), cached.getValues());
+      Assert.assertEquals(part.getCreateTime(), cached.getCreateTime());
+      Assert.assertEquals(part.getLastAccessTime(), cached.getLastAccessTime());
+      Assert.assertEquals(part.getParameters(), cached.getParameters());
+      Assert.assertEquals(part.getSd().getLocation(), cached.getSd().getLocation());
+      // The returned partition is a copy
+      cached.getParameters().put("numFiles", "-1");
+      cached.getSd().setLocation("other");
+    }
+    Partition cached = sharedCache.getPartitionFromCache(DEFAULT_CATALOG_NAME, dbName, tblName,
+        parts.get(0).getValues());
+    Assert.assertEquals("0", cached.getParameters().get("numFiles"));
+    Assert.assertEquals(parts.get(0).getSd().getLocation(), cached.getSd().getLocation());
+
+    Assert.assertSame(LocationNode.of("hdfs://nn:8020/warehouse/db1.db/tbl1/ds=20170100"),
+        LocationNode.of("hdfs://nn:8020/warehouse/db1.db/tbl1/ds=20170100"));
+    for (String location : new String[] { "", "/", "a//b/", "/warehouse/t" }) {
+      Assert.assertEquals(location, LocationNode.of(location).toString());
+    }
+  }
+
   @Test
   public void testAggrStatsRepeatedRead() throws Exception {
     String dbName = "testTableColStatsOps";
@@ -1035,6 +1164,103 @@ public Object call() {
     sharedCache.getSdCache().clear();
   }
 
+  @Test
+  public void testIncrementalUpdate() throws Exception {
+    MetastoreConf.setBoolVar(conf, ConfVars.CACHED_RAW_STORE_INCREMENTAL_UPDATE, true);
+    String dbName = "testIncrementalUpdate";
+    Database db = createTestDb(dbName, "user1");
+    objectStore.createDatabase(db);
+    List<FieldSchema> cols = Arrays.asList(new FieldSchema("col1", "int", "integer column"));
+    List<FieldSchema> ptnCols =
+        Arrays.asList(new FieldSchema("part1", "string", "string partition column"));
+    Table tbl = createTestTbl(dbName, "tbl", "user1", cols, ptnCols);
+    objectStore.createTable(tbl);
+    tbl = objectStore.getTable(DEFAULT_CATALOG_NAME, dbName, "tbl");
+    Partition ptn1 = new Partition(Arrays.asList("aaa"), dbName, "tbl", 0, 0, tbl.getSd(),
+        new HashMap<String, String>());
+    ptn1.setCatName(DEFAULT_CATALOG_NAME);
+    objectStore.addPartition(ptn1);
+    ptn1 = objectStore.getPartition(DEFAULT_CATALOG_NAME, dbName, "tbl", Arrays.asList("aaa"));
+
+    // Prewarm CachedStore
+    CachedStore.setCachePrewarmedState(false);
+    CachedStore.CacheUpdateMasterWork updateWork = new CachedStore.CacheUpdateMasterWork(conf, true);
+    updateWork.run();
+    Assert.assertEquals(ptn1,
+        cachedStore.getPartition(DEFAULT_CATALOG_NAME, dbName, "tbl", Arrays.asList("aaa")));
+
+    // Alter the table and add a partition and a table via ObjectStore, with their events
+    MessageFactory messageFactory = MessageFactory.getInstance();
+    Table newTbl = new Table(tbl);
+    newTbl.setOwner("user2");
+    objectStore.alterTable(DEFAULT_CATALOG_NAME, dbName, "tbl", newTbl);
+    newTbl = objectStore.getTable(DEFAULT_CATALOG_NAME, dbName, "tbl");
+    addNotificationEvent(EventType.ALTER_TABLE, dbName, "tbl",
+        messageFactory.buildAlterTableMessage(tbl, newTbl, false).toString());
+    Partition ptn2 = new Partition(Arrays.asList("bbb"), dbName, "tbl", 0, 0, tbl.getSd(),
+        new HashMap<String, String>());
+    ptn2.setCatName(DEFAULT_CATALOG_NAME);
+    objectStore.addPartition(ptn2);
+    ptn2 = objectStore.getPartition(DEFAULT_CATALOG_NAME, dbName, "tbl", Arrays.asList("bbb"));
+    addNotificationEvent(EventType.ADD_PARTITION, dbName, "tbl", messageFactory
+        .buildAddPartitionMessage(newTbl, Arrays.asList(ptn2).iterator(),
+            new ArrayList<PartitionFiles>().iterator()).toString());
+    Table tbl2 = createTestTbl(dbName, "tbl2", "user1", cols, new ArrayList<FieldSchema>());
+    objectStore.createTable(tbl2);
+    tbl2 = objectStore.getTable(DEFAULT_CATALOG_NAME, dbName, "tbl2");
+    addNotificationEvent(EventType.CREATE_TABLE, dbName, "tbl2",
+        messageFactory.buildCreateTableMessage(tbl2, new ArrayList<String>().iterator())
+            .toString());
+    // Alter the database without an event, which the update does not read
+    Database newDb = new Database(db);
+    newDb.setOwnerName("user2");
+    objectStore.alterDatabase(DEFAULT_CATALOG_NAME, dbName, newDb);
+
+    long updateCountBefore = cachedStore.getCacheUpdateCount();
+    updateWork.run();
+    Assert.assertEquals(updateCountBefore + 1, cachedStore.getCacheUpdateCount());
+    Assert.assertEquals(newTbl, cachedStore.getTable(DEFAULT_CATALOG_NAME, dbName, "tbl"));
+    Assert.assertEquals(ptn1,
+        cachedStore.getPartition(DEFAULT_CATALOG_NAME, dbName, "tbl", Arrays.asList("aaa")));
+    Assert.assertEquals(ptn2,
+        cachedStore.getPartition(DEFAULT_CATALOG_NAME, dbName, "tbl", Arrays.asList("bbb")));
+    Assert.assertEquals(tbl2, cachedStore.getTable(DEFAULT_CATALOG_NAME, dbName, "tbl2"));
+    Assert.assertEquals("user1",
+        cachedStore.getDatabase(DEFAULT_CATALOG_NAME, dbName).getOwnerName());
+
+    // Drop a partition and a table
+    objectStore.dropPartition(DEFAULT_CATALOG_NAME, dbName, "tbl", Arrays.asList("aaa"));
+    addNotificationEvent(EventType.DROP_PARTITION, dbName, "tbl", messageFactory
+        .buildDropPartitionMessage(newTbl, Arrays.asList(ptn1).iterator()).toString());
+    objectStore.dropTable(DEFAULT_CATALOG_NAME, dbName, "tbl2");
+    addNotificationEvent(EventType.DROP_TABLE, dbName, "tbl2",
+        messageFactory.buildDropTableMessage(tbl2).toString());
+    updateWork.run();
+    Assert.assertFalse(
+        cachedStore.doesPartitionExist(DEFAULT_CATALOG_NAME, dbName, "tbl", Arrays.asList("aaa")));
+    Assert.assertNull(cachedStore.getTable(DEFAULT_CATALOG_NAME, dbName, "tbl2"));
+    Assert.assertEquals(Arrays.asList("tbl"),
+        cachedStore.getTables(DEFAULT_CATALOG_NAME, dbName, "*"));
+
+    // Clean up
+    objectStore.dropPartition(DEFAULT_CATALOG_NAME, dbName, "tbl", Arrays.asList("bbb"));
+    objectStore.dropTable(DEFAULT_CATALOG_NAME, dbName, "tbl");
+    objectStore.dropDatabase(DEFAULT_CATALOG_NAME, dbName);
+    sharedCache.getDatabaseCache().clear();
+    sharedCache.getTableCache().clear();
+    sharedCache.getSdCache().clear();
+  }
+
+  private void addNotificationEvent(EventType eventType, String dbName, String tblName,
+      String message) {
+    NotificationEvent event =
+        new NotificationEvent(0, 0, eventType.toString(), message);
+    event.setCatName(DEFAULT_CATALOG_NAME);
+    event.setDbName(dbName);
+    event.setTableName(tblName);
+    objectStore.addNotificationEvent(event);
+  }
+
   private Database createTestDb(String dbName, String dbOwner) {
     String dbDescription = dbName;
     String dbLocation = "file:/tmp";
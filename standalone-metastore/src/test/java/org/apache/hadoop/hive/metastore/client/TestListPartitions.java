@@ -21,6 +21,7 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
@@ -60,6 +61,7 @@
 import org.junit.runners.Parameterized;
 
 import static java.util.stream.Collectors.joining;
+import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertNotNull;
 import static junit.framework.TestCase.assertNull;
 import static junit.framework.TestCase.assertTrue;
@@ -321,6 +323,40 @@ public void testListPartitionsAllNullDbName() throws Exception {
     }
   }
 
+  /**
+   * Testing listPartitionsIterator(String,String,int) ->
+   *         get_partition_names(String,String,short) and
+   *         get_partitions_by_names(String,String,List(String)).
+   */
+  @Test
+  public void testListPartitionsIterator() throws Exception {
+    List<List<String>> testValues = createTable4PartColsParts(client);
+    for (int batchSize : new int[] { 1, 3, 4, 100 }) {
+      List<Partition> partitions = Lists.newArrayList(
+          client.listPartitionsIterator(DB_NAME, TABLE_NAME, batchSize));
+      assertPartitionsHaveCorrectValues(partitions, testValues);
+    }
+  }
+
+  @Test
+  public void testListPartitionsIteratorNoParts() throws Exception {
+    createTestTable(client, DB_NAME, TABLE_NAME, Lists.newArrayList("yyyy", "mm", "dd"));
+    Iterator<Partition> partitions = client.listPartitionsIterator(DB_NAME, TABLE_NAME, 2);
+    assertFalse(partitions.hasNext());
+  }
+
+  @Test
+  public void testGetPartitionsByNamesIterator() throws Exception {
+    List<List<String>> testValues = createTable4PartColsParts(client);
+    List<String> partNames = Lists.newArrayList("yyyy=1999/mm=01/dd=02",
+        "yyyy=2000/mm=01/dd=01", "yyyy=2017/mm=10/dd=26", "yyyy=2017/mm=11/dd=27");
+    // The partition that does not exist is skipped, even if its whole batch is empty
+    List<Partition> partitions = Lists.newArrayList(
+        client.getPartitionsByNamesIterator(DB_NAME, TABLE_NAME, partNames, 1));
+    assertPartitionsHaveCorrectValues(partitions,
+        Lists.newArrayList(testValues.get(0), testValues.get(2), testValues.get(3)));
+  }
+
 
 
   /**